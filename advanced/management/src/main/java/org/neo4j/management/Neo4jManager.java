@@ -253,6 +253,11 @@ public final class Neo4jManager extends KernelProxy implements Kernel
         return getBean( StoreFile.class );
     }
 
+    public QueryPlanCache getQueryPlanCacheBean()
+    {
+        return getBean( QueryPlanCache.class );
+    }
+
     public TransactionManager getTransactionManagerBean()
     {
         return getBean( TransactionManager.class );
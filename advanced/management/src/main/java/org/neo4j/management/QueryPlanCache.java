@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.management;
+
+import org.neo4j.jmx.Description;
+import org.neo4j.jmx.ManagementInterface;
+
+@ManagementInterface( name = QueryPlanCache.NAME )
+@Description( "Information about the caching of Cypher query execution plans" )
+public interface QueryPlanCache
+{
+    final String NAME = "Query Plan Cache";
+
+    @Description( "The number of queries that were executed with a cached plan" )
+    long getHits();
+
+    @Description( "The number of queries that needed a new plan to be built" )
+    long getMisses();
+
+    @Description( "The number of plans that were removed to make room for others" )
+    long getEvictions();
+
+    @Description( "The number of queries that had literals replaced by parameters before looking up their plan" )
+    long getParameterizedQueries();
+
+    @Description( "The average time, in microseconds, spent building a plan" )
+    long getAveragePlanBuildTime();
+
+    @Description( "The longest time, in microseconds, spent building a plan" )
+    long getMaxPlanBuildTime();
+}
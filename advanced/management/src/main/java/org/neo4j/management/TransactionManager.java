@@ -45,4 +45,19 @@ public interface TransactionManager
 
     @Description( "The id of the latest committed transaction" )
     long getLastCommittedTxId();
+
+    @Description( "The number of forces performed on behalf of a group of committing transactions" )
+    long getNumberOfGroupCommitForces();
+
+    @Description( "The average number of transactions made durable by a single group commit force" )
+    double getAverageGroupCommitBatchSize();
+
+    @Description( "The highest number of transactions made durable by a single group commit force" )
+    long getMaxGroupCommitBatchSize();
+
+    @Description( "The average time, in microseconds, of a group commit force" )
+    long getAverageGroupCommitForceTime();
+
+    @Description( "The longest time, in microseconds, a group commit force has taken" )
+    long getMaxGroupCommitForceTime();
 }
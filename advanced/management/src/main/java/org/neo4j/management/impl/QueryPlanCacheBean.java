@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.management.impl;
+
+import javax.management.NotCompliantMBeanException;
+
+import org.neo4j.helpers.Service;
+import org.neo4j.jmx.impl.ManagementBeanProvider;
+import org.neo4j.jmx.impl.ManagementData;
+import org.neo4j.jmx.impl.Neo4jMBean;
+import org.neo4j.kernel.impl.cache.QueryPlanCacheStatistics;
+import org.neo4j.management.QueryPlanCache;
+
+@Service.Implementation(ManagementBeanProvider.class)
+public final class QueryPlanCacheBean extends ManagementBeanProvider
+{
+    public QueryPlanCacheBean()
+    {
+        super( QueryPlanCache.class );
+    }
+
+    @Override
+    protected Neo4jMBean createMBean( ManagementData management ) throws NotCompliantMBeanException
+    {
+        return new QueryPlanCacheImpl( management );
+    }
+
+    private static class QueryPlanCacheImpl extends Neo4jMBean implements QueryPlanCache
+    {
+        private final QueryPlanCacheStatistics statistics;
+
+        QueryPlanCacheImpl( ManagementData management ) throws NotCompliantMBeanException
+        {
+            super( management );
+            this.statistics = management.getKernelData().graphDatabase().getDependencyResolver()
+                    .resolveDependency( QueryPlanCacheStatistics.class );
+        }
+
+        public long getHits()
+        {
+            return statistics.getHits();
+        }
+
+        public long getMisses()
+        {
+            return statistics.getMisses();
+        }
+
+        public long getEvictions()
+        {
+            return statistics.getEvictions();
+        }
+
+        public long getParameterizedQueries()
+        {
+            return statistics.getParameterizedQueries();
+        }
+
+        public long getAveragePlanBuildTime()
+        {
+            return statistics.getAverageBuildTime();
+        }
+
+        public long getMaxPlanBuildTime()
+        {
+            return statistics.getMaxBuildTime();
+        }
+    }
+}
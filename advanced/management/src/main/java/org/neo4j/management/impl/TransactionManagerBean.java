@@ -28,6 +28,7 @@ import org.neo4j.jmx.impl.Neo4jMBean;
 import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
 import org.neo4j.kernel.impl.transaction.TxManager;
 import org.neo4j.kernel.impl.transaction.XaDataSourceManager;
+import org.neo4j.kernel.impl.transaction.xaframework.GroupCommitStatistics;
 import org.neo4j.management.TransactionManager;
 
 @Service.Implementation(ManagementBeanProvider.class)
@@ -48,6 +49,7 @@ public final class TransactionManagerBean extends ManagementBeanProvider
     {
         private final TxManager txManager;
         private final XaDataSourceManager xadsm;
+        private final GroupCommitStatistics groupCommitStatistics;
 
         TransactionManagerImpl( ManagementData management ) throws NotCompliantMBeanException
         {
@@ -55,6 +57,8 @@ public final class TransactionManagerBean extends ManagementBeanProvider
             this.txManager = (TxManager) management.getKernelData().graphDatabase().getTxManager();
             this.xadsm = management.getKernelData().graphDatabase().getDependencyResolver().resolveDependency(
                     XaDataSourceManager.class );
+            this.groupCommitStatistics = management.getKernelData().graphDatabase().getDependencyResolver()
+                    .resolveDependency( GroupCommitStatistics.class );
         }
 
         public int getNumberOfOpenTransactions()
@@ -94,5 +98,30 @@ public final class TransactionManagerBean extends ManagementBeanProvider
                 return neoStoreDataSource.getNeoStore().getLastCommittedTx();
             }
         }
+
+        public long getNumberOfGroupCommitForces()
+        {
+            return groupCommitStatistics.getNumberOfForces();
+        }
+
+        public double getAverageGroupCommitBatchSize()
+        {
+            return groupCommitStatistics.getAverageBatchSize();
+        }
+
+        public long getMaxGroupCommitBatchSize()
+        {
+            return groupCommitStatistics.getMaxBatchSize();
+        }
+
+        public long getAverageGroupCommitForceTime()
+        {
+            return groupCommitStatistics.getAverageForceTime();
+        }
+
+        public long getMaxGroupCommitForceTime()
+        {
+            return groupCommitStatistics.getMaxForceTime();
+        }
     }
 }
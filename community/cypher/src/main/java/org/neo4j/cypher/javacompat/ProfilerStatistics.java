@@ -38,4 +38,32 @@ public interface ProfilerStatistics
      * @return number of database hits (potential disk accesses) caused by executing the associated execution step
      */
     long getDbHits();
+
+    /**
+     * @return wall clock nanoseconds spent in the associated execution step itself, excluding its predecessors
+     */
+    long getSelfTime();
+
+    /**
+     * @return wall clock nanoseconds spent in the associated execution step and all of its predecessors
+     */
+    long getTotalTime();
+
+    /**
+     * @return number of page cache hits while executing the associated execution step. The page cache is shared,
+     * so this includes hits caused by other concurrently running work
+     */
+    long getPageCacheHits();
+
+    /**
+     * @return number of page cache misses while executing the associated execution step. The page cache is shared,
+     * so this includes misses caused by other concurrently running work
+     */
+    long getPageCacheMisses();
+
+    /**
+     * @return the largest number of rows held in memory at once by the associated execution step, or 0 if
+     * the step does not hold on to rows
+     */
+    long getPeakBufferedRows();
 }
@@ -72,4 +72,10 @@ class LabelScanHintException(identifier: String, label: String, message: String)
 
 class UnableToPickStartPointException(message: String) extends CypherException(message)
 
-class InvalidSemanticsException( message: String ) extends CypherException(message)
\ No newline at end of file
+class InvalidSemanticsException( message: String ) extends CypherException(message)
+class PeriodicCommitInOpenTransactionException()
+  extends CypherException("Executing queries that use periodic commit in an open transaction is not possible.")
+
+class PeriodicCommitFailedException(val committedUpdates: Long, cause: Throwable)
+  extends CypherException(s"Periodic commit failed after $committedUpdates updates had been committed. " +
+    "Those updates remain in the database, the updates of the failing batch were rolled back.", cause)
@@ -22,7 +22,7 @@ package org.neo4j.cypher
 import internal.commands._
 import internal.executionplan.ExecutionPlanBuilder
 import internal.executionplan.verifiers.{OptionalPatternWithoutStartVerifier, HintVerifier, Verifier}
-import internal.LRUCache
+import internal.{AutoParameterization, LRUCache}
 import internal.spi.gdsimpl.{TransactionBoundPlanContext, TransactionBoundQueryContext}
 import internal.spi.QueryContext
 import scala.collection.JavaConverters._
@@ -34,6 +34,7 @@ import org.neo4j.kernel.impl.util.StringLogger
 import org.neo4j.cypher.internal.parser.prettifier.Prettifier
 import org.neo4j.kernel.api.operations.StatementState
 import org.neo4j.kernel.api.StatementOperationParts
+import org.neo4j.kernel.impl.cache.QueryPlanCacheStatistics
 
 class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = StringLogger.DEV_NULL) {
 
@@ -44,13 +45,21 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
   val verifiers:Seq[Verifier] = Seq(HintVerifier, OptionalPatternWithoutStartVerifier)
 
   private val queryCache = new LRUCache[String, AbstractQuery](getQueryCacheSize)
+  private val unparameterizable = new LRUCache[String, String](getQueryCacheSize)
 
+  private val autoParameterization = optGraphAs[InternalAbstractGraphDatabase]
+    .andThen(_.getConfig.get(GraphDatabaseSettings.query_cache_auto_parameterization).booleanValue())
+    .applyOrElse(graph, (_: GraphDatabaseService) => false)
+
+  val planCacheStatistics: QueryPlanCacheStatistics = optGraphAs[InternalAbstractGraphDatabase]
+    .andThen(_.getDependencyResolver.resolveDependency(classOf[QueryPlanCacheStatistics]))
+    .applyOrElse(graph, (_: GraphDatabaseService) => new QueryPlanCacheStatistics)
 
   @throws(classOf[SyntaxException])
   def profile(query: String, params: Map[String, Any]): ExecutionResult = {
     logger.debug(query)
-    prepare(query, { (plan: ExecutionPlan, queryContext: QueryContext) =>
-      plan.profile(queryContext, params)
+    prepareParameterized(query, params, { (plan: ExecutionPlan, queryContext: QueryContext, allParams: Map[String, Any]) =>
+      plan.profile(queryContext, allParams)
     })
   }
 
@@ -67,8 +76,8 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
   @throws(classOf[SyntaxException])
   def execute(query: String, params: Map[String, Any]): ExecutionResult = {
     logger.debug(query)
-    prepare(query, { (plan: ExecutionPlan, queryContext: QueryContext) =>
-      plan.execute(queryContext, params)
+    prepareParameterized(query, params, { (plan: ExecutionPlan, queryContext: QueryContext, allParams: Map[String, Any]) =>
+      plan.execute(queryContext, allParams)
     })
   }
 
@@ -90,13 +99,45 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
   def execute(query: String, params: JavaMap[String, Any]): ExecutionResult = execute(query, params.asScala.toMap)
 
   @throws(classOf[SyntaxException])
-  def prepare[T](query: String, run: (ExecutionPlan, QueryContext) => T): T =  {
-    // parse query
-    val cachedQuery = queryCache.getOrElseUpdate(query, () => {
-      val parsedQuery = parser.parse(query)
-      verify(parsedQuery)
-      parsedQuery
-    })
+  def prepare[T](query: String, run: (ExecutionPlan, QueryContext) => T): T =
+    prepareAndRun(query, parseAndVerify(query), run)
+
+  /*
+  Literals are replaced by parameters before the cache lookups, so that queries that only differ in their literals
+  share a plan. If the parameterized query can not be parsed, the query is run as it was written.
+   */
+  private def prepareParameterized[T](query: String, params: Map[String, Any], run: (ExecutionPlan, QueryContext, Map[String, Any]) => T): T = {
+    val parameterized =
+      if (autoParameterization && !unparameterizable.containsKey(query))
+        AutoParameterization(query, parserVersion).flatMap(p => tryParse(query, p.text).map(p -> _))
+      else
+        None
+
+    parameterized match {
+      case Some((p, parsedQuery)) =>
+        planCacheStatistics.parameterized()
+        prepareAndRun(p.text, parsedQuery, run(_: ExecutionPlan, _: QueryContext, params ++ p.parameters))
+      case None                   =>
+        prepareAndRun(query, parseAndVerify(query), run(_: ExecutionPlan, _: QueryContext, params))
+    }
+  }
+
+  private def tryParse(query: String, parameterizedText: String): Option[AbstractQuery] = try {
+    Some(parseAndVerify(parameterizedText))
+  } catch {
+    case _: CypherException =>
+      unparameterizable.put(query, parameterizedText)
+      None
+  }
+
+  private def parseAndVerify(query: String): AbstractQuery = queryCache.getOrElseUpdate(query, () => {
+    val parsedQuery = parser.parse(query)
+    verify(parsedQuery)
+    parsedQuery
+  })
+
+  private def prepareAndRun[T](query: String, cachedQuery: AbstractQuery, run: (ExecutionPlan, QueryContext) => T): T = {
+    var missed = false
 
     var n = 0
     while (n < ExecutionEngine.PLAN_BUILDING_TRIES) {
@@ -113,13 +154,18 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
 
         // fetch plan cache
         val planCache =
-          queryContext.getOrCreateFromSchemaState(this, new LRUCache[String, ExecutionPlan](getQueryCacheSize))
+          queryContext.getOrCreateFromSchemaState(this,
+            new LRUCache[String, ExecutionPlan](getQueryCacheSize, (_: String) => planCacheStatistics.evicted()))
 
         // get plan or build it
         planCache.getOrElseUpdate(query, () => {
           touched = true
+          val start = System.nanoTime()
           val planContext = new TransactionBoundPlanContext(statementContext.keyReadOperations, statementContext.schemaReadOperations, state, graph)
-          planBuilder.build(planContext, cachedQuery)
+          val plan = planBuilder.build(planContext, cachedQuery)
+          planCacheStatistics.miss(System.nanoTime() - start)
+          missed = true
+          plan
         })
       }
       catch {
@@ -136,6 +182,8 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
         tx.finish()
       }
       else {
+          if (!missed)
+            planCacheStatistics.hit()
           return run(plan, queryContext)
       }
 
@@ -178,6 +226,15 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
     })
       .applyOrElse(graph, (_: GraphDatabaseService) => new CypherParser() )
 
+  private lazy val parserVersion: String =
+    optGraphAs[InternalAbstractGraphDatabase]
+      .andThen(_.getConfig.get(GraphDatabaseSettings.cypher_parser_version))
+      .andThen({
+      case v: String => v
+      case _         => CypherVersion.vDefault.name
+    })
+      .applyOrElse(graph, (_: GraphDatabaseService) => CypherVersion.vDefault.name)
+
 
   private def getQueryCacheSize : Int =
     optGraphAs[InternalAbstractGraphDatabase]
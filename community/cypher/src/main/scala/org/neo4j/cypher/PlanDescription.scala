@@ -169,6 +169,16 @@ class PlanDescriptionImpl(val pipe: Pipe,
 
     def getDbHits = getNamedLongStat("_db_hits")
 
+    def getSelfTime = getNamedLongStat("_self_time")
+
+    def getTotalTime = getNamedLongStat("_total_time")
+
+    def getPageCacheHits = getNamedLongStat("_page_hits")
+
+    def getPageCacheMisses = getNamedLongStat("_page_misses")
+
+    def getPeakBufferedRows = if (argsMap.v.contains("_peak_rows")) getNamedLongStat("_peak_rows") else 0L
+
     private def getNamedLongStat(name: String) =
      argsMap.v.get(name).getOrElse(throw new ProfilerStatisticsNotReadyException()).asJava.asInstanceOf[Long]
   }
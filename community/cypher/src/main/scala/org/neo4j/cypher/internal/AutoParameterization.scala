@@ -0,0 +1,290 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import scala.collection.mutable.ArrayBuffer
+
+case class ParameterizedQuery(text: String, parameters: Map[String, Any])
+
+/*
+Replaces literals in a query string by parameters, so that queries that only differ in those literals share
+their parsed form and execution plan. Only literals that the parser accepts a parameter in place of, and that
+do not change the query's plan or result columns when replaced, are touched:
+
+ - node and relationship ids and index queries in START
+ - numbers and strings in WHERE, except regular expressions, ids compared with id(...) and variable length bounds
+ - the numbers after SKIP and LIMIT
+
+The values get the same types the 2.0 parser gives the literals they replace.
+ */
+object AutoParameterization {
+  val PREFIX = "  AUTO"
+
+  private val hasVersionDefined = """(?si)^\s*cypher\s*([^\s]+)\s*(.*)""".r
+
+  private val CLAUSES = Set("MATCH", "RETURN", "WITH", "CREATE", "SET", "DELETE", "REMOVE", "FOREACH", "MERGE",
+    "ORDER", "UNION", "ON", "USING")
+
+  private val OPERATOR_WORDS = Set("AND", "OR", "XOR", "NOT", "WHERE", "IN", "IS", "CASE", "WHEN", "THEN", "ELSE",
+    "RETURN", "WITH", "SKIP", "LIMIT")
+
+  def apply(query: String, defaultVersion: String): Option[ParameterizedQuery] = {
+    val version = query match {
+      case hasVersionDefined(v, _) => v
+      case _                       => defaultVersion
+    }
+
+    if (version != "2.0")
+      None
+    else
+      Option(Tokenizer(query)).flatMap(new Rewriter(query, _).rewrite())
+  }
+
+  private sealed trait Kind
+  private case object Word extends Kind
+  private case object Number extends Kind
+  private case object Text extends Kind
+  private case object Symbol extends Kind
+
+  /*
+  A literal's value is null when it can not be turned into a parameter, like a string with an escape sequence the
+  parser does not know or a number too big for a long
+   */
+  private case class Token(kind: Kind, start: Int, end: Int, text: String, value: Any = null) {
+    def is(symbol: String) = kind == Symbol && text == symbol
+    def isWord(word: String) = kind == Word && text.equalsIgnoreCase(word)
+    def isOperand = kind match {
+      case Number | Text => true
+      case Word          => !OPERATOR_WORDS.contains(text.toUpperCase)
+      case Symbol        => text == ")" || text == "]" || text == "}"
+    }
+  }
+
+  private object Tokenizer {
+    private val TWO_CHAR_SYMBOLS = Set("=~", "..", "<=", ">=", "<>", "->", "<-", "!=")
+
+    def apply(query: String): IndexedSeq[Token] = {
+      val tokens = new ArrayBuffer[Token]()
+      var i = 0
+
+      def prevIsOperand = tokens.nonEmpty && tokens.last.isOperand
+      def at(idx: Int) = if (idx < query.length) query.charAt(idx) else 0.toChar
+
+      while (i < query.length) {
+        val c = query.charAt(i)
+        val start = i
+
+        if (Character.isWhitespace(c)) {
+          i += 1
+        } else if (c == '/' && at(i + 1) == '/') {
+          while (i < query.length && query.charAt(i) != '\n') i += 1
+        } else if (Character.isLetter(c) || c == '_') {
+          while (i < query.length && (Character.isLetterOrDigit(query.charAt(i)) || query.charAt(i) == '_')) i += 1
+          tokens += Token(Word, start, i, query.substring(start, i))
+        } else if (c == '`') {
+          i += 1
+          while (i < query.length && !(query.charAt(i) == '`' && at(i + 1) != '`')) {
+            i += (if (query.charAt(i) == '`') 2 else 1)
+          }
+          i = math.min(i + 1, query.length)
+          tokens += Token(Word, start, i, query.substring(start, i))
+        } else if (Character.isDigit(c) || (c == '-' && Character.isDigit(at(i + 1)) && !prevIsOperand)) {
+          i += 1
+          while (Character.isDigit(at(i))) i += 1
+          if (at(i) == '.' && Character.isDigit(at(i + 1))) {
+            i += 1
+            while (Character.isDigit(at(i))) i += 1
+          }
+          val text = query.substring(start, i)
+          tokens += Token(Number, start, i, text, number(text))
+        } else if (c == '\'' || c == '"') {
+          val (end, value) = string(query, i)
+          i = end
+          tokens += Token(Text, start, i, query.substring(start, i), value)
+        } else if (TWO_CHAR_SYMBOLS.contains(query.substring(i, math.min(i + 2, query.length)))) {
+          i += 2
+          tokens += Token(Symbol, start, i, query.substring(start, i))
+        } else {
+          i += 1
+          tokens += Token(Symbol, start, i, query.substring(start, i))
+        }
+      }
+
+      tokens
+    }
+
+    private def number(text: String): Any = try {
+      if (text.contains(".")) text.toDouble else text.toLong
+    } catch {
+      case _: NumberFormatException => null
+    }
+
+    /*
+    Decodes the escape sequences the parser knows about. Returns the end of the literal, and the string or null if
+    it contains anything else
+     */
+    private def string(query: String, start: Int): (Int, String) = {
+      val quote = query.charAt(start)
+      val result = new StringBuilder
+      var valid = true
+      var i = start + 1
+
+      while (i < query.length && query.charAt(i) != quote) {
+        val c = query.charAt(i)
+        if (c == '\\' && i + 1 < query.length) {
+          query.charAt(i + 1) match {
+            case '\\' => result += '\\'
+            case '\'' => result += '\''
+            case '"'  => result += '"'
+            case 'b'  => result += '\b'
+            case 'f'  => result += '\f'
+            case 'n'  => result += '\n'
+            case 'r'  => result += '\r'
+            case 't'  => result += '\t'
+            case _    => valid = false
+          }
+          i += 2
+        } else {
+          result += c
+          i += 1
+        }
+      }
+
+      if (i >= query.length)
+        (query.length, null)
+      else
+        (i + 1, if (valid) result.toString() else null)
+    }
+  }
+
+  private sealed trait Clause
+  private case object StartClause extends Clause
+  private case object WhereClause extends Clause
+  private case object SkipOrLimit extends Clause
+  private case object OtherClause extends Clause
+
+  private class Rewriter(query: String, tokens: IndexedSeq[Token]) {
+    private val replacements = new ArrayBuffer[(Int, Int, Any)]()
+
+    private def token(i: Int): Option[Token] = if (i >= 0 && i < tokens.length) Some(tokens(i)) else None
+    private def tokenIs(i: Int, symbol: String) = token(i).exists(_.is(symbol))
+    private def tokenIsWord(i: Int, word: String) = token(i).exists(_.isWord(word))
+
+    def rewrite(): Option[ParameterizedQuery] = {
+      var clause: Clause = OtherClause
+      var depth = 0
+      var i = 0
+
+      while (i < tokens.length) {
+        val t = tokens(i)
+        val isKeyword = t.kind == Word && depth == 0 && !tokenIs(i - 1, ".") && !tokenIs(i - 1, ":")
+
+        if (isKeyword && t.isWord("START")) clause = StartClause
+        else if (isKeyword && t.isWord("WHERE")) clause = WhereClause
+        else if (isKeyword && (t.isWord("SKIP") || t.isWord("LIMIT"))) clause = SkipOrLimit
+        else if (isKeyword && CLAUSES.contains(t.text.toUpperCase)) clause = OtherClause
+        else clause match {
+          case StartClause => i = startItem(i)
+          case WhereClause => whereLiteral(i)
+          case SkipOrLimit =>
+            skipOrLimit(t)
+            clause = OtherClause
+          case OtherClause =>
+        }
+
+        if (t.is("(") || t.is("[") || t.is("{")) depth += 1
+        if (t.is(")") || t.is("]") || t.is("}")) depth -= 1
+        i += 1
+      }
+
+      if (replacements.isEmpty)
+        None
+      else
+        Some(build())
+    }
+
+    /*
+    node(1, 2, 3) is parsed to a single literal collection of longs, so the whole id list becomes one parameter
+     */
+    private def startItem(i: Int): Int = {
+      val t = tokens(i)
+      if (t.is("(") && (tokenIsWord(i - 1, "node") || tokenIsWord(i - 1, "relationship"))) {
+        var j = i + 1
+        val ids = new ArrayBuffer[Long]()
+        var valid = true
+        while (valid && token(j).exists(id => id.kind == Number && id.value.isInstanceOf[Long] && !id.text.startsWith("-"))) {
+          ids += tokens(j).value.asInstanceOf[Long]
+          j += 1
+          if (tokenIs(j, ",")) j += 1
+          else valid = tokenIs(j, ")")
+        }
+
+        if (valid && ids.nonEmpty && tokenIs(j, ")")) {
+          replacements += ((tokens(i + 1).start, tokens(j - 1).end, ids.toList))
+          j - 1
+        } else i
+      } else {
+        if (t.kind == Text && t.value != null && (tokenIs(i - 1, "(") || tokenIs(i - 1, "=")) && tokenIs(i + 1, ")"))
+          replace(t, t.value)
+        i
+      }
+    }
+
+    private def whereLiteral(i: Int) {
+      val t = tokens(i)
+      val literal = (t.kind == Number || t.kind == Text) && t.value != null
+
+      val regularExpression = tokenIs(i - 1, "=~")
+      val variableLength = tokenIs(i - 1, "*") || tokenIs(i - 1, "..") || tokenIs(i + 1, "..")
+      val comparedToId =
+        (tokenIs(i - 1, "=") && tokenIs(i - 2, ")") && tokenIs(i - 4, "(") && tokenIsWord(i - 5, "id")) ||
+        (tokenIs(i + 1, "=") && tokenIsWord(i + 2, "id") && tokenIs(i + 3, "("))
+
+      if (literal && !regularExpression && !variableLength && !comparedToId)
+        replace(t, t.value)
+    }
+
+    private def skipOrLimit(t: Token) {
+      if (t.kind == Number && t.value.isInstanceOf[Long] && !t.text.startsWith("-") && t.value.asInstanceOf[Long] <= Int.MaxValue)
+        replace(t, t.value.asInstanceOf[Long].toInt)
+    }
+
+    private def replace(t: Token, value: Any) {
+      replacements += ((t.start, t.end, value))
+    }
+
+    private def build(): ParameterizedQuery = {
+      val text = new StringBuilder
+      var parameters = Map[String, Any]()
+      var position = 0
+
+      replacements.zipWithIndex.foreach {
+        case ((start, end, value), index) =>
+          val name = PREFIX + index
+          text ++= query.substring(position, start) ++= "{`" ++= name ++= "`}"
+          parameters += name -> value
+          position = end
+      }
+      text ++= query.substring(position)
+
+      ParameterizedQuery(text.toString(), parameters)
+    }
+  }
+}
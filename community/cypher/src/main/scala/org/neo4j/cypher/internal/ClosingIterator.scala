@@ -22,14 +22,20 @@ package org.neo4j.cypher.internal
 import org.neo4j.graphdb.ConstraintViolationException
 import spi.QueryContext
 import org.neo4j.graphdb.TransactionFailureException
-import org.neo4j.cypher.NodeStillHasRelationshipsException
+import org.neo4j.cypher.{PeriodicCommitFailedException, NodeStillHasRelationshipsException}
 import org.neo4j.cypher.internal.helpers.IsCollection
+import org.neo4j.cypher.internal.pipes.PeriodicCommit
 
 /**
  * An iterator that decorates an inner iterator, and calls close() on the QueryContext once
- * the inner iterator is empty.
+ * the inner iterator is empty. The cleanUp function is called when the QueryContext is closed.
+ *
+ * For periodic commit queries, pulling rows through this iterator is what runs the updates and commits the batches,
+ * so a failure after some batches were committed is reported as a PeriodicCommitFailedException.
  */
-class ClosingIterator(inner: Iterator[collection.Map[String, Any]], queryContext: QueryContext) extends Iterator[Map[String, Any]] {
+class ClosingIterator(inner: Iterator[collection.Map[String, Any]], queryContext: QueryContext,
+                      cleanUp: () => Unit = () => (),
+                      periodicCommit: Option[PeriodicCommit] = None) extends Iterator[Map[String, Any]] {
   private var closed: Boolean = false
   lazy val still_has_relationships = "Node record Node\\[(\\d),.*] still has relationships".r
 
@@ -57,10 +63,13 @@ class ClosingIterator(inner: Iterator[collection.Map[String, Any]], queryContext
   }
 
   def close() {
-    translateException {
-      if (!closed) {
-        closed = true
-        queryContext.close(success = true)
+    translatePeriodicCommitFailure {
+      translateException {
+        if (!closed) {
+          closed = true
+          cleanUp()
+          queryContext.close(success = true)
+        }
       }
     }
   }
@@ -85,11 +94,20 @@ class ClosingIterator(inner: Iterator[collection.Map[String, Any]], queryContext
     }
   }
 
+  private def translatePeriodicCommitFailure[U](f: => U): U = try {
+    f
+  } catch {
+    case t: Throwable if periodicCommit.exists(_.committedUpdates > 0) =>
+      throw new PeriodicCommitFailedException(periodicCommit.get.committedUpdates, t)
+  }
+
   private def failIfThrows[U](f: => U): U = try {
     f
   } catch {
-    case t: Throwable if !closed =>
+    case t: Throwable if !closed => translatePeriodicCommitFailure {
+      cleanUp()
       queryContext.close(success = false)
       throw t
+    }
   }
 }
\ No newline at end of file
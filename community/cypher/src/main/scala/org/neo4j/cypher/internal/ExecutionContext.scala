@@ -20,13 +20,15 @@
 package org.neo4j.cypher.internal
 
 import mutation.UpdateAction
-import pipes.MutableMaps
+import pipes.{SlottedMap, Slots, MutableMaps}
 import collection.{immutable, Iterator}
 import collection.mutable.{Queue, Map => MutableMap}
 
 object ExecutionContext {
   def empty = new ExecutionContext()
 
+  def withSlots(slots: Slots) = new ExecutionContext(new SlottedMap(slots))
+
   def from(x: (String, Any)*) = new ExecutionContext().newWith(x)
 }
 
@@ -58,22 +60,32 @@ case class ExecutionContext(m: MutableMap[String, Any] = MutableMaps.empty,
   override def toMap[T, U](implicit ev: (String, Any) <:< (T, U)): immutable.Map[T, U] = m.toMap(ev)
 
   def newWith(newEntries: Seq[(String, Any)]) =
-    createWithNewMap(MutableMaps.create(this.m) ++= newEntries)
+    createWithNewMap(copyOfMap ++= newEntries)
 
   def newWith(newEntries: scala.collection.Map[String, Any]) =
-    createWithNewMap(MutableMaps.create(this.m) ++= newEntries)
+    createWithNewMap(copyOfMap ++= newEntries)
 
-  def newFrom(newEntries: Seq[(String, Any)]) =
-    createWithNewMap(MutableMaps.create(newEntries: _*))
+  def newFrom(newEntries: Seq[(String, Any)]) = m match {
+    case slotted: SlottedMap => createWithNewMap(slotted.emptyCopy ++= newEntries)
+    case _                   => createWithNewMap(MutableMaps.create(newEntries: _*))
+  }
 
-  def newFrom(newEntries: scala.collection.Map[String, Any]) =
-    createWithNewMap(MutableMaps.create(newEntries))
+  def newFrom(newEntries: scala.collection.Map[String, Any]) = m match {
+    case slotted: SlottedMap => createWithNewMap(slotted.emptyCopy ++= newEntries)
+    case _                   => createWithNewMap(MutableMaps.create(newEntries))
+  }
 
   def newWith(newEntry: (String, Any)) =
-    createWithNewMap(MutableMaps.create(this.m) += newEntry)
+    createWithNewMap(copyOfMap += newEntry)
 
   override def clone(): ExecutionContext = newFrom(m)
 
+  // Slotted rows are copied as arrays, other rows by rehashing every entry
+  private def copyOfMap: MutableMap[String, Any] = m match {
+    case slotted: SlottedMap => slotted.clone()
+    case _                   => MutableMaps.create(this.m)
+  }
+
   protected def createWithNewMap(newMap: MutableMap[String, Any]) = {
     copy(m = newMap)
   }
@@ -19,9 +19,9 @@
  */
 package org.neo4j.cypher.internal
 
-import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap
+import com.googlecode.concurrentlinkedhashmap.{EvictionListener, ConcurrentLinkedHashMap}
 
-class LRUCache[K, V](cacheSize: Int) {
+class LRUCache[K, V](cacheSize: Int, onEviction: K => Unit = (_: K) => ()) {
 
   class LazyValue(f: () => V) {
     lazy val value = f.apply()
@@ -29,6 +29,11 @@ class LRUCache[K, V](cacheSize: Int) {
 
   val inner = new ConcurrentLinkedHashMap.Builder[K, LazyValue]
     .maximumWeightedCapacity(cacheSize)
+    .listener(new EvictionListener[K, LazyValue] {
+      def onEviction(key: K, value: LazyValue) {
+        LRUCache.this.onEviction(key)
+      }
+    })
     .build()
 
   def getOrElseUpdate(key: K, creator: () => V): V = {
@@ -33,6 +33,9 @@ object ReattachAliasedExpressions {
       val newSort = q.sort.map(rewrite(q.returns.returnItems))
       q.copy(sort = newSort, tail = q.tail.map(x => apply(x).asInstanceOf[Query]))
 
+    case q: PeriodicCommitQuery =>
+      q.copy(query = apply(q.query))
+
     case _ => in
   }
 
@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.commands
+
+/*
+A query prefixed with USING PERIODIC COMMIT. The transaction the query runs in is committed and restarted every
+batchSize updates, so that large updating queries do not have to keep all their changes in memory.
+ */
+case class PeriodicCommitQuery(query: AbstractQuery, batchSize: Long = PeriodicCommitQuery.DEFAULT_BATCH_SIZE,
+                               queryString: QueryString = QueryString.empty) extends AbstractQuery {
+  def setQueryText(t: String): AbstractQuery = copy(query = query.setQueryText(t), queryString = QueryString(t))
+
+  override def verifySemantics() {
+    query.verifySemantics()
+  }
+}
+
+object PeriodicCommitQuery {
+  val DEFAULT_BATCH_SIZE = 1000L
+}
@@ -78,6 +78,24 @@ case class SchemaIndex(identifier: String, label: String, property: String, quer
   extends StartItem(identifier, Map("label" -> label, "property" -> property) ++ query.map("query" -> _.toString()))
   with ReadOnlyStartItem with Hint
 
+case class SeekBound(expression: Expression, inclusive: Boolean) {
+  override def toString = expression.toString() + (if (inclusive) " (inclusive)" else " (exclusive)")
+}
+
+case class SchemaIndexRangeSeek(identifier: String, label: String, property: String,
+                                lower: Option[SeekBound], upper: Option[SeekBound])
+  extends StartItem(identifier, Map("label" -> label, "property" -> property) ++
+    lower.map("lower" -> _.toString()) ++ upper.map("upper" -> _.toString()))
+  with ReadOnlyStartItem
+
+case class SchemaIndexPrefixSeek(identifier: String, label: String, property: String, prefix: String)
+  extends StartItem(identifier, Map("label" -> label, "property" -> property, "prefix" -> prefix))
+  with ReadOnlyStartItem
+
+case class SchemaIndexAnySeek(identifier: String, label: String, property: String, values: Expression)
+  extends StartItem(identifier, Map("label" -> label, "property" -> property, "values" -> values.toString()))
+  with ReadOnlyStartItem
+
 case class NodeById(varName: String, expression: Expression)
   extends StartItem(varName, Map("name" -> expression.toString()))
   with ReadOnlyStartItem
@@ -0,0 +1,356 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.commands.compiled
+
+import org.neo4j.cypher.internal.commands._
+import org.neo4j.cypher.internal.commands.expressions._
+import org.neo4j.cypher.internal.commands.values.KeyToken
+import org.neo4j.cypher.internal.{Comparer, ExecutionContext}
+import org.neo4j.cypher.internal.helpers.IsCollection
+import org.neo4j.cypher.internal.pipes._
+import org.neo4j.cypher.internal.spi.Operations
+import org.neo4j.cypher.internal.symbols._
+import org.neo4j.cypher.{CypherTypeException, EntityNotFoundException}
+import org.neo4j.graphdb.{NotFoundException, PropertyContainer, Node, Relationship}
+
+/*
+Turns expression trees into trees of specialised closures, once per plan. The closures read identifiers straight out
+of the slot array of the row, use primitive arithmetic and comparisons when both operands are of the same numeric
+type, fold constant sub trees and skip the property key token lookup for resolved keys. Anything that is not
+understood here is evaluated by the original expression, so the compiled form always behaves like the interpreted one.
+ */
+object ExpressionCompiler {
+  def compile(predicate: Predicate, slots: Slots): Predicate = predicate match {
+    case p: CompiledPredicate => p
+    case _                    => new CompiledPredicate(predicate, new Compiler(slots).test(predicate))
+  }
+
+  def compile(expression: Expression, slots: Slots): Expression = expression match {
+    case p: Predicate          => compile(p, slots)
+    case e: CompiledExpression => e
+    case _                     => new CompiledExpression(expression, new Compiler(slots).value(expression))
+  }
+
+  def compilePipes(pipe: Pipe, slots: Slots) {
+    pipe match {
+      case p: FilterPipe  => p.compileExpressions(slots)
+      case p: ExtractPipe => p.compileExpressions(slots)
+      case _              =>
+    }
+
+    pipe.sources.foreach(compilePipes(_, slots))
+  }
+}
+
+abstract class ValueCode {
+  def apply(ctx: ExecutionContext, state: QueryState): Any
+}
+
+abstract class TestCode {
+  def apply(ctx: ExecutionContext, state: QueryState): Boolean
+}
+
+class Compiler(slots: Slots) {
+  def test(predicate: Predicate): TestCode = predicate match {
+    case True()                   => Constant.TRUE
+    case p: And                   => conjunction(conjuncts(p).map(test))
+    case Or(a, b)                 => disjunction(test(a), test(b))
+    case Not(a)                   => negation(test(a))
+    case Xor(a, b)                => exclusive(test(a), test(b))
+    case IsNull(e)                => isNull(value(e))
+    case NullablePredicate(p, es) => nullable(test(p), es.map { case (e, result) => (value(e), result) })
+    case Equals(a, b)             => equality(value(a), value(b))
+    case p: ComparablePredicate   => comparison(p, p.children)
+    case _                        => interpreted(predicate)
+  }
+
+  def value(expression: Expression): ValueCode = expression match {
+    case Literal(v)                           => new Constant(v)
+    case e if isConstant(e)                   => new FoldedConstant(e)
+    case p: Predicate                         => truth(test(p))
+    case Identifier(name)                     => identifier(name, expression)
+    case p: Property                          => property(p, value(p.mapExpr))
+    case Add(a, b)                            => arithmetic(value(a), value(b), Plus, (x, y) => Add(Literal(x), Literal(y)))
+    case Subtract(a, b)                       => arithmetic(value(a), value(b), Minus, (x, y) => Subtract(Literal(x), Literal(y)))
+    case Multiply(a, b)                       => arithmetic(value(a), value(b), Times, (x, y) => Multiply(Literal(x), Literal(y)))
+    case Divide(a, b)                         => arithmetic(value(a), value(b), DividedBy, (x, y) => Divide(Literal(x), Literal(y)))
+    case _                                    => interpreted(expression)
+  }
+
+  private def conjuncts(p: Predicate): Seq[Predicate] = p match {
+    case and: And => conjuncts(and.a) ++ conjuncts(and.b)
+    case _        => Seq(p)
+  }
+
+  private def isConstant(e: Expression) =
+    e.isDeterministic && !e.containsAggregate && e.filter(_.children.isEmpty).forall(_.isInstanceOf[Literal])
+
+  private def interpreted(p: Predicate) = new TestCode {
+    def apply(ctx: ExecutionContext, state: QueryState) = p.isMatch(ctx)(state)
+  }
+
+  private def interpreted(e: Expression) = new ValueCode {
+    def apply(ctx: ExecutionContext, state: QueryState) = e(ctx)(state)
+  }
+
+  private def truth(t: TestCode) = new ValueCode {
+    def apply(ctx: ExecutionContext, state: QueryState) = t(ctx, state)
+  }
+
+  private def conjunction(terms: Seq[TestCode]) = {
+    val code = terms.toArray
+    new TestCode {
+      def apply(ctx: ExecutionContext, state: QueryState): Boolean = {
+        var i = 0
+        while (i < code.length) {
+          if (!code(i)(ctx, state))
+            return false
+          i += 1
+        }
+        true
+      }
+    }
+  }
+
+  private def disjunction(a: TestCode, b: TestCode) = new TestCode {
+    def apply(ctx: ExecutionContext, state: QueryState) = a(ctx, state) || b(ctx, state)
+  }
+
+  private def negation(a: TestCode) = new TestCode {
+    def apply(ctx: ExecutionContext, state: QueryState) = !a(ctx, state)
+  }
+
+  private def exclusive(a: TestCode, b: TestCode) = new TestCode {
+    def apply(ctx: ExecutionContext, state: QueryState) = a(ctx, state) != b(ctx, state)
+  }
+
+  private def isNull(e: ValueCode) = new TestCode {
+    def apply(ctx: ExecutionContext, state: QueryState) = e(ctx, state) == null
+  }
+
+  private def nullable(inner: TestCode, nullChecks: Seq[(ValueCode, Boolean)]) = {
+    val checks = nullChecks.map(_._1).toArray
+    val results = nullChecks.map(_._2).toArray
+    new TestCode {
+      def apply(ctx: ExecutionContext, state: QueryState): Boolean = {
+        var i = 0
+        while (i < checks.length) {
+          if (checks(i)(ctx, state) == null)
+            return results(i)
+          i += 1
+        }
+        inner(ctx, state)
+      }
+    }
+  }
+
+  private def equality(a: ValueCode, b: ValueCode) = new TestCode {
+    def apply(ctx: ExecutionContext, state: QueryState) = {
+      val l = a(ctx, state)
+      val r = b(ctx, state)
+      if (Primitives.isIntegral(l) && Primitives.isIntegral(r))
+        l.asInstanceOf[Number].longValue() == r.asInstanceOf[Number].longValue()
+      else (l, r) match {
+        case (IsCollection(x), IsCollection(y)) => x == y
+        case _                                  => l == r
+      }
+    }
+  }
+
+  private def comparison(predicate: ComparablePredicate, operands: Seq[Expression]) = {
+    val a = value(operands(0))
+    val b = value(operands(1))
+    new TestCode {
+      def apply(ctx: ExecutionContext, state: QueryState) = {
+        val l = a(ctx, state)
+        val r = b(ctx, state)
+        val result =
+          if (Primitives.isIntegral(l) && Primitives.isIntegral(r))
+            java.lang.Long.compare(l.asInstanceOf[Number].longValue(), r.asInstanceOf[Number].longValue())
+          else if (Primitives.isFloatingPoint(l) && Primitives.isFloatingPoint(r))
+            java.lang.Double.compare(l.asInstanceOf[Number].doubleValue(), r.asInstanceOf[Number].doubleValue())
+          else if (l.isInstanceOf[String] && r.isInstanceOf[String])
+            l.asInstanceOf[String].compareTo(r.asInstanceOf[String])
+          else
+            Primitives.comparer.compare(l, r)
+        predicate.compare(result)
+      }
+    }
+  }
+
+  private def arithmetic(a: ValueCode, b: ValueCode, op: NumericOperator, slowPath: (Any, Any) => Expression) = new ValueCode {
+    def apply(ctx: ExecutionContext, state: QueryState) = {
+      val l = a(ctx, state)
+      val r = b(ctx, state)
+      if (l.isInstanceOf[java.lang.Long] && r.isInstanceOf[java.lang.Long])
+        op.longs(l.asInstanceOf[java.lang.Long].longValue(), r.asInstanceOf[java.lang.Long].longValue())
+      else if (l.isInstanceOf[java.lang.Integer] && r.isInstanceOf[java.lang.Integer])
+        op.ints(l.asInstanceOf[java.lang.Integer].intValue(), r.asInstanceOf[java.lang.Integer].intValue())
+      else if (l.isInstanceOf[java.lang.Double] && r.isInstanceOf[java.lang.Double])
+        op.doubles(l.asInstanceOf[java.lang.Double].doubleValue(), r.asInstanceOf[java.lang.Double].doubleValue())
+      else
+        slowPath(l, r)(ctx)(state)
+    }
+  }
+
+  private def identifier(name: String, original: Expression) = {
+    val offset = slots.offsetOf(name)
+    if (offset < 0)
+      interpreted(original)
+    else new ValueCode {
+      def apply(ctx: ExecutionContext, state: QueryState) = ctx.m match {
+        case row: SlottedMap if row.usesSlots(slots) && row.containsAt(offset) => row.valueAt(offset)
+        case _                                                                  => original(ctx)(state)
+      }
+    }
+  }
+
+  private def property(original: Property, entity: ValueCode) = new ValueCode {
+    val token: KeyToken = original.propertyKey
+    val nullOnNotFound = original.nullOnNotFound
+
+    def apply(ctx: ExecutionContext, state: QueryState) = entity(ctx, state) match {
+      case null            => null
+      case n: Node         => read(n, state.query.nodeOps, state)
+      case r: Relationship => read(r, state.query.relationshipOps, state)
+      case x               => original.copy(mapExpr = Literal(x))(ctx)(state)
+    }
+
+    private def read[T <: PropertyContainer](container: T, ops: Operations[T], state: QueryState): Any = try {
+      val value = token.getOptId(state.query) match {
+        case Some(id) => ops.getProperty(container, id)
+        case None     => null
+      }
+      if (value == null && !nullOnNotFound)
+        throw new EntityNotFoundException("The property '%s' does not exist on %s".format(token.name, container))
+      value
+    } catch {
+      case _: NotFoundException if nullOnNotFound => null
+    }
+  }
+}
+
+class Constant(value: Any) extends ValueCode {
+  def apply(ctx: ExecutionContext, state: QueryState) = value
+}
+
+object Constant {
+  val TRUE = new TestCode {
+    def apply(ctx: ExecutionContext, state: QueryState) = true
+  }
+}
+
+/*
+Evaluated the first time it is needed, since some constant expressions can still fail and
+should only do so if the query actually gets that far.
+ */
+class FoldedConstant(expression: Expression) extends ValueCode {
+  @volatile private var evaluated = false
+  @volatile private var value: Any = null
+
+  def apply(ctx: ExecutionContext, state: QueryState) = {
+    if (!evaluated) {
+      value = expression(ctx)(state)
+      evaluated = true
+    }
+    value
+  }
+}
+
+/*
+Operations on two operands of the same boxed type. The result types match the ones TypeSafeMathSupport
+produces for the same operands.
+ */
+abstract class NumericOperator {
+  def longs(a: Long, b: Long): Any
+  def ints(a: Int, b: Int): Any
+  def doubles(a: Double, b: Double): Any
+}
+
+object Plus extends NumericOperator {
+  def longs(a: Long, b: Long) = a + b
+  def ints(a: Int, b: Int) = a + b
+  def doubles(a: Double, b: Double) = a + b
+}
+
+object Minus extends NumericOperator {
+  def longs(a: Long, b: Long) = a - b
+  def ints(a: Int, b: Int) = a - b
+  def doubles(a: Double, b: Double) = a - b
+}
+
+object Times extends NumericOperator {
+  def longs(a: Long, b: Long) = a * b
+  def ints(a: Int, b: Int) = a * b
+  def doubles(a: Double, b: Double) = a * b
+}
+
+object DividedBy extends NumericOperator {
+  def longs(a: Long, b: Long) = a / b
+  def ints(a: Int, b: Int) = a / b
+  def doubles(a: Double, b: Double) = a / b
+}
+
+object Primitives {
+  val comparer = new Comparer {}
+
+  def isIntegral(x: Any) =
+    x.isInstanceOf[java.lang.Long] || x.isInstanceOf[java.lang.Integer] ||
+    x.isInstanceOf[java.lang.Short] || x.isInstanceOf[java.lang.Byte]
+
+  def isFloatingPoint(x: Any) = x.isInstanceOf[java.lang.Double] || x.isInstanceOf[java.lang.Float]
+}
+
+class CompiledPredicate(val original: Predicate, code: TestCode) extends Predicate {
+  def isMatch(m: ExecutionContext)(implicit state: QueryState) = code(m, state)
+
+  override def atoms = original.atoms
+  def rewrite(f: (Expression) => Expression) = original.rewrite(f)
+  def containsIsNull = original.containsIsNull
+  def assertInnerTypes(symbols: SymbolTable) {
+    original.assertInnerTypes(symbols)
+  }
+  def children = original.children
+  def symbolTableDependencies = original.symbolTableDependencies
+
+  override def equals(other: Any) = other match {
+    case p: CompiledPredicate => original == p.original
+    case _                    => original == other
+  }
+  override def hashCode() = original.hashCode()
+  override def toString = original.toString
+}
+
+class CompiledExpression(val original: Expression, code: ValueCode) extends Expression {
+  def apply(ctx: ExecutionContext)(implicit state: QueryState) = code(ctx, state)
+
+  def rewrite(f: (Expression) => Expression) = original.rewrite(f)
+  def children = original.children
+  def symbolTableDependencies = original.symbolTableDependencies
+  override def evaluateType(expectedType: CypherType, symbols: SymbolTable) = original.evaluateType(expectedType, symbols)
+  protected def calculateType(symbols: SymbolTable) = original.evaluateType(AnyType(), symbols)
+
+  override def equals(other: Any) = other match {
+    case e: CompiledExpression => original == e.original
+    case _                     => original == other
+  }
+  override def hashCode() = original.hashCode()
+  override def toString = original.toString
+}
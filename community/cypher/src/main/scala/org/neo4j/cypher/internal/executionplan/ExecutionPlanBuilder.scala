@@ -22,16 +22,20 @@ package org.neo4j.cypher.internal.executionplan
 import builders._
 import org.neo4j.cypher.internal.pipes._
 import org.neo4j.cypher._
-import internal.profiler.Profiler
+import internal.profiler.{PageCacheCounters, Profiler}
 import internal.spi.{PlanContext, QueryContext}
 import internal.ClosingIterator
 import internal.commands._
 import internal.symbols.SymbolTable
 import org.neo4j.graphdb.GraphDatabaseService
+import org.neo4j.graphdb.factory.GraphDatabaseSettings
+import org.neo4j.kernel.InternalAbstractGraphDatabase
 import org.neo4j.cypher.ExecutionResult
 import org.neo4j.cypher.internal.commands.values.{TokenType, KeyToken}
 import org.neo4j.cypher.internal.commands.expressions.ExpressionResolver
 import org.neo4j.cypher.internal.helpers.IsMap
+import org.neo4j.cypher.internal.commands.compiled.ExpressionCompiler
+import java.io.File
 
 class ExecutionPlanBuilder(graph: GraphDatabaseService) extends PatternGraphBuilder {
 
@@ -42,10 +46,14 @@ class ExecutionPlanBuilder(graph: GraphDatabaseService) extends PatternGraphBuil
     val (p, isUpdating) = buildPipes(planContext, inputQuery)
 
     val columns = getQueryResultColumns(inputQuery, p.symbols)
-    val func = if (isUpdating) {
-      getEagerReadWriteQuery(p, columns)
-    } else {
-      getLazyReadonlyQuery(p, columns)
+    val slots = Slots.forPipe(p)
+    if (compiledExpressions)
+      ExpressionCompiler.compilePipes(p, slots)
+
+    val func = inputQuery match {
+      case q: PeriodicCommitQuery => getPeriodicCommitQuery(p, columns, slots, q.batchSize)
+      case _ if isUpdating        => getEagerReadWriteQuery(p, columns, slots)
+      case _                      => getLazyReadonlyQuery(p, columns, slots)
     }
 
     new ExecutionPlan {
@@ -59,6 +67,7 @@ class ExecutionPlanBuilder(graph: GraphDatabaseService) extends PatternGraphBuil
     case q: IndexOperation            => buildIndexQuery(q)
     case q: UniqueConstraintOperation => buildConstraintQuery(q)
     case q: Union                     => buildUnionQuery(q, planContext)
+    case q: PeriodicCommitQuery       => buildPipes(planContext, q.query)
   }
 
   val unionBuilder = new UnionBuilder(this)
@@ -130,13 +139,15 @@ class ExecutionPlanBuilder(graph: GraphDatabaseService) extends PatternGraphBuil
 
     case union: Union => getQueryResultColumns(union.queries.head, currentSymbols)
 
+    case periodicCommit: PeriodicCommitQuery => getQueryResultColumns(periodicCommit.query, currentSymbols)
+
     case _ => List.empty
   }
 
 
-  private def getLazyReadonlyQuery(pipe: Pipe, columns: List[String]): (QueryContext, Map[String, Any], Boolean) => ExecutionResult = {
+  private def getLazyReadonlyQuery(pipe: Pipe, columns: List[String], slots: Slots): (QueryContext, Map[String, Any], Boolean) => ExecutionResult = {
     val func = (queryContext: QueryContext, params: Map[String, Any], profile: Boolean) => {
-      val (state, results, descriptor) = prepareStateAndResult(queryContext, params, pipe, profile)
+      val (state, results, descriptor) = prepareStateAndResult(queryContext, params, pipe, profile, slots)
 
       new PipeExecutionResult(results, columns, state, descriptor)
     }
@@ -144,33 +155,78 @@ class ExecutionPlanBuilder(graph: GraphDatabaseService) extends PatternGraphBuil
     func
   }
 
-  private def getEagerReadWriteQuery(pipe: Pipe, columns: List[String]): (QueryContext, Map[String, Any], Boolean) => ExecutionResult = {
+  private def getEagerReadWriteQuery(pipe: Pipe, columns: List[String], slots: Slots): (QueryContext, Map[String, Any], Boolean) => ExecutionResult = {
     val func = (queryContext: QueryContext, params: Map[String, Any], profile: Boolean) => {
-      val (state, results, descriptor) = prepareStateAndResult(queryContext, params, pipe, profile)
+      val (state, results, descriptor) = prepareStateAndResult(queryContext, params, pipe, profile, slots)
       new EagerPipeExecutionResult(results, columns, state, descriptor)
     }
 
     func
   }
 
-  private def prepareStateAndResult(queryContext: QueryContext, params: Map[String, Any], pipe: Pipe, profile:Boolean):
+  /*
+  The transaction is committed and restarted while the query runs, so a failing query only rolls back the updates
+  done since the last commit. When earlier batches have been committed, the failure says how many updates were kept.
+  The result is lazy: the updates are done, and the batches committed, as the ClosingIterator pulls the rows, so
+  the rows are not collected before the result is handed out.
+   */
+  private def getPeriodicCommitQuery(pipe: Pipe, columns: List[String], slots: Slots, batchSize: Long): (QueryContext, Map[String, Any], Boolean) => ExecutionResult = {
+    val func = (queryContext: QueryContext, params: Map[String, Any], profile: Boolean) => {
+      if (!queryContext.isTopLevelTx) {
+        queryContext.close(success = false)
+        throw new PeriodicCommitInOpenTransactionException()
+      }
+
+      val periodicCommit = new PeriodicCommit(batchSize)
+      val (state, results, descriptor) = prepareStateAndResult(queryContext, params, pipe, profile, slots, Some(periodicCommit))
+      new PeriodicCommitPipeExecutionResult(results, columns, state, descriptor)
+    }
+
+    func
+  }
+
+  private def prepareStateAndResult(queryContext: QueryContext, params: Map[String, Any], pipe: Pipe, profile:Boolean,
+                                    slots: Slots, periodicCommit: Option[PeriodicCommit] = None):
     (QueryState, ClosingIterator, () => PlanDescription) = {
 
+    val memory = new QueryMemory(memoryBudget, spillDirectory)
     try {
-      val decorator = if (profile) new Profiler() else NullDecorator
-      val state = new QueryState(graph, queryContext, params, decorator)
+      val decorator = if (profile) new Profiler(PageCacheCounters(graph)) else NullDecorator
+      val state = new QueryState(graph, queryContext, params, decorator, slots = slots, memory = memory,
+        periodicCommit = periodicCommit, aggregationThreads = aggregationThreads)
       val results: Iterator[collection.Map[String, Any]] = pipe.createResults(state)
-      val closingIterator = new ClosingIterator(results, queryContext)
-      val descriptor = () => decorator.decorate(pipe.executionPlanDescription, closingIterator.isEmpty)
+      val closingIterator = new ClosingIterator(results, queryContext, () => memory.close(), periodicCommit)
+      val descriptor = () => memory.decorate(decorator.decorate(pipe.executionPlanDescription, closingIterator.isEmpty))
       (state, closingIterator, descriptor)
     }
     catch {
       case (t: Throwable) =>
+        memory.close()
         queryContext.close(success = false)
         throw t
     }
   }
 
+  private lazy val memoryBudget: Long = graph match {
+    case db: InternalAbstractGraphDatabase => db.getConfig.get(GraphDatabaseSettings.query_memory_budget)
+    case _                                 => QueryMemory.UNLIMITED
+  }
+
+  private lazy val spillDirectory: Option[File] = graph match {
+    case db: InternalAbstractGraphDatabase => Option(db.getConfig.get(GraphDatabaseSettings.query_spill_directory))
+    case _                                 => None
+  }
+
+  private lazy val aggregationThreads: Int = graph match {
+    case db: InternalAbstractGraphDatabase => db.getConfig.get(GraphDatabaseSettings.cypher_aggregation_threads)
+    case _                                 => 1
+  }
+
+  private lazy val compiledExpressions: Boolean = graph match {
+    case db: InternalAbstractGraphDatabase => db.getConfig.get(GraphDatabaseSettings.cypher_compiled_expressions)
+    case _                                 => false
+  }
+
   private def produceAndThrowException(plan: ExecutionPlanInProgress) {
     val errors = builders.flatMap(builder => builder.missingDependencies(plan).map(builder -> _)).toList.
       sortBy {
@@ -207,6 +263,7 @@ The Neo4j Team""")
     new UpdateActionBuilder(graph),
     new EmptyResultBuilder,
     new TraversalMatcherBuilder,
+    new HashJoinBuilder,
     new TopPipeBuilder,
     new DistinctBuilder,
     new IndexLookupBuilder,
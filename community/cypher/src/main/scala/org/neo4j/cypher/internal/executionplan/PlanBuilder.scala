@@ -60,6 +60,7 @@ trait LegacyPlanBuilder extends PlanBuilder {
 object PlanBuilder extends Enumeration {
   val CachedExpressions = -100
   val IndexLookup = -100
+  val HashJoin = -12
   val TraversalMatcher = -11
   val Filter = -10
   val NamedPath = -9
@@ -19,7 +19,7 @@
  */
 package org.neo4j.cypher.internal.executionplan.builders
 
-import org.neo4j.cypher.internal.pipes.EagerAggregationPipe
+import org.neo4j.cypher.internal.pipes.{ParallelAggregationPipe, EagerAggregationPipe}
 import org.neo4j.cypher.internal.executionplan.{PlanBuilder, ExecutionPlanInProgress, PartiallySolvedQuery, LegacyPlanBuilder}
 import org.neo4j.cypher.internal.commands.expressions.{CachedExpression, AggregationExpression, Expression}
 import org.neo4j.cypher.internal.symbols.SymbolTable
@@ -58,7 +58,10 @@ class AggregationBuilder extends LegacyPlanBuilder  {
     val seq = expressions.aggregates.map(exp => "  INTERNAL_AGGREGATE" + UUID.randomUUID() -> exp).toList
     val namedAggregates = seq.toMap
 
-    val resultPipe = new EagerAggregationPipe(planToAggregate.pipe, expressions.keys, namedAggregates)
+    val resultPipe = ParallelAggregationPipe.partitionableScan(planToAggregate.pipe, expressions.keys, namedAggregates) match {
+      case Some(scan) => new ParallelAggregationPipe(planToAggregate.pipe, scan, expressions.keys, namedAggregates)
+      case None       => new EagerAggregationPipe(planToAggregate.pipe, expressions.keys, namedAggregates)
+    }
 
 
     // Mark return items as done if they are extracted
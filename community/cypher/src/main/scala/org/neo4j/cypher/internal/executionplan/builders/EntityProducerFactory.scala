@@ -47,6 +47,7 @@ class EntityProducerFactory extends GraphElementPropertyFunctions {
       nodeByIndex orElse
       nodeByIndexQuery orElse
       nodeByIndexHint orElse
+      nodeByIndexSeek orElse
       nodeByLabel orElse
       nodesAll
 
@@ -125,6 +126,45 @@ class EntityProducerFactory extends GraphElementPropertyFunctions {
       }
   }
 
+  val nodeByIndexSeek: PartialFunction[(PlanContext, StartItem), EntityProducer[Node]] = {
+    case (planContext, startItem @ SchemaIndexRangeSeek(identifier, labelName, propertyName, lower, upper)) =>
+      val index = getIndex(planContext, identifier, labelName, propertyName)
+
+      asProducer[Node](startItem) { (m: ExecutionContext, state: QueryState) =>
+        val lowerValue = lower.map(_.expression(m)(state))
+        val upperValue = upper.map(_.expression(m)(state))
+
+        // Only numbers can be range seeked in the index - anything else is left to the filter
+        if ((lowerValue ++ upperValue).forall(_.isInstanceOf[Number]))
+          state.query.rangeIndexSearch(index,
+            lowerValue.map(_.asInstanceOf[Number]), lower.exists(_.inclusive),
+            upperValue.map(_.asInstanceOf[Number]), upper.exists(_.inclusive))
+        else
+          state.query.getNodesByLabel(index.getLabelId)
+      }
+
+    case (planContext, startItem @ SchemaIndexPrefixSeek(identifier, labelName, propertyName, prefix)) =>
+      val index = getIndex(planContext, identifier, labelName, propertyName)
+
+      asProducer[Node](startItem) { (m: ExecutionContext, state: QueryState) =>
+        state.query.prefixIndexSearch(index, prefix)
+      }
+
+    case (planContext, startItem @ SchemaIndexAnySeek(identifier, labelName, propertyName, values)) =>
+      val index = getIndex(planContext, identifier, labelName, propertyName)
+
+      asProducer[Node](startItem) { (m: ExecutionContext, state: QueryState) =>
+        values(m)(state) match {
+          case null => Iterator.empty
+          case x    => state.query.anyIndexSearch(index, makeTraversable(x).filter(_ != null).map(makeValueNeoSafe).toSeq)
+        }
+      }
+  }
+
+  private def getIndex(planContext: PlanContext, identifier: String, labelName: String, propertyName: String) =
+    planContext.getIndexRule(labelName, propertyName) getOrElse
+      (throw new IndexHintException(identifier, labelName, propertyName, "No such index found."))
+
   val relationshipByIndex: PartialFunction[(PlanContext, StartItem), EntityProducer[Relationship]] = {
     case (planContext, startItem @ RelationshipByIndex(varName, idxName, key, value)) =>
       planContext.checkRelIndex(idxName)
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.executionplan.builders
+
+import org.neo4j.cypher.internal.executionplan.{PlanBuilder, ExecutionPlanInProgress}
+import org.neo4j.cypher.internal.commands._
+import org.neo4j.cypher.internal.pipes._
+import org.neo4j.cypher.internal.spi.PlanContext
+import org.neo4j.graphdb.Node
+import org.neo4j.helpers.ThisShouldNotHappenError
+
+/*
+This builder is concerned with queries that have two start points, where the pattern is made up of two parts - one
+for each start point - that have a single node in common. Instead of matching the whole pattern for every pair of
+start nodes, each part is matched on its own, and the two are joined on the node they share.
+
+Start points that the traversal matcher can use at both ends of a trail are left to it.
+ */
+class HashJoinBuilder extends PlanBuilder with PatternGraphBuilder {
+
+  private case class Join(left: QueryToken[StartItem], leftPart: Seq[RelatedTo],
+                          right: QueryToken[StartItem], rightPart: Seq[RelatedTo],
+                          node: String)
+
+  def apply(plan: ExecutionPlanInProgress, ctx: PlanContext): ExecutionPlanInProgress = findJoin(plan, ctx) match {
+    case None       => throw new ThisShouldNotHappenError("Andres", "This plan should not have been accepted")
+    case Some(join) =>
+      val q = plan.query
+      val predicates = q.where.filter(_.unsolved).map(_.token).filterNot {
+        case pred => pred.exists(exp => exp.isInstanceOf[PatternPredicate])
+      }
+
+      def matchPart(startItem: StartItem, part: Seq[RelatedTo]): Pipe = {
+        val startPipe = new NodeStartPipe(NullPipe, startItem.identifierName, nodeProducer((ctx, startItem)))
+        val identifiers = identifiersOf(part)
+        val partPredicates = predicates.filter(_.symbolTableDependencies.forall(identifiers.contains))
+
+        new MatchPipe(startPipe, partPredicates, buildPatternGraph(startPipe.symbols, part))
+      }
+
+      val pipe = new NodeHashJoinPipe(
+        matchPart(join.left.token, join.leftPart),
+        matchPart(join.right.token, join.rightPart),
+        join.node,
+        join.leftPart.map(_.relName),
+        join.rightPart.map(_.relName))
+
+      val solvedStart = Seq(join.left, join.right)
+
+      plan.copy(pipe = pipe, query = q.copy(
+        start = q.start.filterNot(solvedStart.contains) ++ solvedStart.map(_.solve),
+        patterns = q.patterns.map(_.solve)
+      ))
+  }
+
+  def canWorkWith(plan: ExecutionPlanInProgress, ctx: PlanContext): Boolean = findJoin(plan, ctx).nonEmpty
+
+  private def findJoin(plan: ExecutionPlanInProgress, ctx: PlanContext): Option[Join] = {
+    val startItems = plan.query.start.filter(_.unsolved)
+    val patterns = plan.query.patterns.filter(_.unsolved).map(_.token)
+    val relationships = patterns.collect {
+      case r: RelatedTo if !r.optional && r.left != r.right => r
+    }
+
+    def joinable(item: StartItem) = item match {
+      case SchemaIndex(_, _, _, None) => false
+      case _                          => nodeProducer.isDefinedAt((ctx, item))
+    }
+
+    if (plan.pipe != NullPipe || startItems.size != 2 || relationships.isEmpty || relationships.size != patterns.size)
+      None
+    else {
+      val Seq(left, right) = startItems
+
+      if (!joinable(left.token) || !joinable(right.token) || (anchorsTrails(left.token) && anchorsTrails(right.token)))
+        None
+      else {
+        val a = left.token.identifierName
+        val b = right.token.identifierName
+        val candidates = relationships.flatMap(r => Seq(r.left, r.right)).distinct.filterNot(n => n == a || n == b)
+
+        candidates.toStream.flatMap(c => {
+          val leftPart = partOf(a, Set(b, c), relationships)
+          val rightPart = partOf(b, Set(a, c), relationships)
+
+          val isJoin = leftPart.nonEmpty && rightPart.nonEmpty &&
+            leftPart.size + rightPart.size == relationships.size &&
+            (nodesOf(leftPart) intersect nodesOf(rightPart)) == Set(c)
+
+          if (isJoin) Some(Join(left, leftPart, right, rightPart, c)) else None
+        }).headOption
+      }
+    }
+  }
+
+  /*
+  The relationships that can be reached from the start node without passing through any of the boundary nodes
+   */
+  private def partOf(start: String, boundaries: Set[String], relationships: Seq[RelatedTo]): Seq[RelatedTo] = {
+    def expand(frontier: Set[String], found: Seq[RelatedTo]): Seq[RelatedTo] = {
+      val next = relationships.filter(r => !found.contains(r) && (frontier(r.left) || frontier(r.right)))
+
+      if (next.isEmpty)
+        found
+      else
+        expand(nodesOf(next) -- frontier -- boundaries, found ++ next)
+    }
+
+    expand(Set(start), Seq.empty)
+  }
+
+  private def nodesOf(relationships: Seq[RelatedTo]): Set[String] =
+    relationships.flatMap(r => Seq(r.left, r.right)).toSet
+
+  private def identifiersOf(relationships: Seq[RelatedTo]): Set[String] =
+    nodesOf(relationships) ++ relationships.map(_.relName)
+
+  private def anchorsTrails(item: StartItem) = item match {
+    case _: NodeById | _: NodeByIndex | _: NodeByIndexQuery => true
+    case _                                                  => false
+  }
+
+  private val nodeProducer: PartialFunction[(PlanContext, StartItem), EntityProducer[Node]] = {
+    val entityFactory = new EntityProducerFactory
+
+    entityFactory.nodeByIndex orElse
+    entityFactory.nodeByIndexQuery orElse
+    entityFactory.nodeByIndexHint orElse
+    entityFactory.nodeByIndexSeek orElse
+    entityFactory.nodeById orElse
+    entityFactory.nodeByLabel
+  }
+
+  def priority = PlanBuilder.HashJoin
+}
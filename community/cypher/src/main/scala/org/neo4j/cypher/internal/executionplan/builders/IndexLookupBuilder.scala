@@ -38,23 +38,35 @@ class IndexLookupBuilder extends PlanBuilder {
     val propertyPredicates = findPropertyPredicates(plan, hint)
     val labelPredicates = findLabelPredicates(plan, hint)
 
-    if (propertyPredicates.isEmpty || labelPredicates.isEmpty)
-      throw new IndexHintException(hint, "No useful predicate was found for your index hint. Make sure the" +
-        " property expression is alone either side of the equality sign.")
-
-    val (predicate, expression) = propertyPredicates.head
+    if (labelPredicates.isEmpty)
+      throw noUsefulPredicate(hint)
 
     val q: PartiallySolvedQuery = plan.query
 
-    val queryfullHint: Unsolved[StartItem] = Unsolved(hint.copy(query = Some(expression)))
+    // Exact lookups solve the property predicate, while the other seeks leave it in place as a filter
+    val (solvedHint, solvedPredicates) = propertyPredicates.headOption match {
+      case Some((predicate, expression)) =>
+        (hint.copy(query = Some(expression)), Seq(predicate))
+
+      case None =>
+        val where = q.where.filter(_.unsolved).map(_.token)
+        val seek = IndexSeekPredicates.findSeekStartItem(hint.identifier, hint.label, hint.property, where)
+        (seek getOrElse (throw noUsefulPredicate(hint)), Seq.empty)
+    }
+
     val newQuery = q.copy(
-      where = q.where.filterNot(x => x == predicate || labelPredicates.contains(x)) ++ labelPredicates.map(_.solve) :+ predicate.solve,
-      start = q.start.filterNot(_ == querylessHint) :+ queryfullHint
+      where = q.where.filterNot(x => solvedPredicates.contains(x) || labelPredicates.contains(x)) ++
+        labelPredicates.map(_.solve) ++ solvedPredicates.map(_.solve),
+      start = q.start.filterNot(_ == querylessHint) :+ Unsolved(solvedHint)
     )
 
     plan.copy(query = newQuery)
   }
 
+  private def noUsefulPredicate(hint: SchemaIndex) =
+    new IndexHintException(hint, "No useful predicate was found for your index hint. Make sure the" +
+      " property expression is alone either side of the comparison.")
+
   def findLabelPredicates(plan: ExecutionPlanInProgress, hint: SchemaIndex): Seq[Unsolved[Predicate]] =
     plan.query.where.collect {
       case predicate@Unsolved(HasLabel(Identifier(identifier), label))
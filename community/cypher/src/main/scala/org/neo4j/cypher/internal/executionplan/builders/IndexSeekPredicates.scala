@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.executionplan.builders
+
+import org.neo4j.cypher.internal.commands._
+import org.neo4j.cypher.internal.commands.expressions.{Literal, Nullable, Property, Identifier, Expression}
+
+/*
+Finds predicates on a node property that a schema index can answer with a seek other than an exact lookup.
+
+None of these predicates are solved by the seek - the index returns a superset of the matching nodes, and
+the predicate is still applied as a filter afterwards. Only bounds that do not depend on other identifiers
+are considered, since the seek is done before anything else is bound.
+ */
+object IndexSeekPredicates {
+  private val PrefixRegex = """([^\\.\[\]{}()*+?^$|]+)\.\*""".r
+
+  def findSeekStartItem(identifier: String, label: String, property: String,
+                        where: Seq[Predicate]): Option[StartItem] =
+    findAnySeek(identifier, property, where).map(SchemaIndexAnySeek(identifier, label, property, _)) orElse
+      findRangeSeek(identifier, property, where).map {
+        case (lower, upper) => SchemaIndexRangeSeek(identifier, label, property, lower, upper)
+      } orElse
+      findPrefixSeek(identifier, property, where).map(SchemaIndexPrefixSeek(identifier, label, property, _))
+
+  def seekableProperties(identifier: String, where: Seq[Predicate]): Seq[String] = {
+    val properties = where.flatMap(_.filter {
+      case Property(Identifier(id), _) => id == identifier
+      case _                           => false
+    }).collect {
+      case Property(_, propertyKey) => propertyKey.name
+    }.distinct
+
+    properties.filter(property => findSeekStartItem(identifier, "", property, where).nonEmpty)
+  }
+
+  private def findRangeSeek(identifier: String, property: String,
+                            where: Seq[Predicate]): Option[(Option[SeekBound], Option[SeekBound])] = {
+    object OnProperty {
+      def unapply(e: Expression): Boolean = e match {
+        case IndexedProperty(id, prop) => id == identifier && prop == property
+        case _                         => false
+      }
+    }
+
+    val lowerBounds = where.collect {
+      case GreaterThan(OnProperty(), bound) if independent(bound)        => SeekBound(bound, inclusive = false)
+      case GreaterThanOrEqual(OnProperty(), bound) if independent(bound) => SeekBound(bound, inclusive = true)
+      case LessThan(bound, OnProperty()) if independent(bound)           => SeekBound(bound, inclusive = false)
+      case LessThanOrEqual(bound, OnProperty()) if independent(bound)    => SeekBound(bound, inclusive = true)
+    }
+
+    val upperBounds = where.collect {
+      case LessThan(OnProperty(), bound) if independent(bound)           => SeekBound(bound, inclusive = false)
+      case LessThanOrEqual(OnProperty(), bound) if independent(bound)    => SeekBound(bound, inclusive = true)
+      case GreaterThan(bound, OnProperty()) if independent(bound)        => SeekBound(bound, inclusive = false)
+      case GreaterThanOrEqual(bound, OnProperty()) if independent(bound) => SeekBound(bound, inclusive = true)
+    }
+
+    if (lowerBounds.isEmpty && upperBounds.isEmpty)
+      None
+    else
+      Some((lowerBounds.headOption, upperBounds.headOption))
+  }
+
+  private def findPrefixSeek(identifier: String, property: String, where: Seq[Predicate]): Option[String] =
+    where.collectFirst {
+      case LiteralRegularExpression(IndexedProperty(id, prop), Literal(PrefixRegex(prefix)))
+        if id == identifier && prop == property => prefix
+    }
+
+  private def findAnySeek(identifier: String, property: String, where: Seq[Predicate]): Option[Expression] =
+    where.collectFirst {
+      case AnyInCollection(collection, symbol, Equals(IndexedProperty(id, prop), Identifier(inner)))
+        if id == identifier && prop == property && symbol == inner && independent(collection) => collection
+
+      case AnyInCollection(collection, symbol, Equals(Identifier(inner), IndexedProperty(id, prop)))
+        if id == identifier && prop == property && symbol == inner && independent(collection) => collection
+    }
+
+  private def independent(e: Expression) = e.symbolTableDependencies.isEmpty
+
+  /*
+  Only nullable properties that default to false can be seeked - a node missing the property must never
+  pass the predicate, since it will not be in the index
+   */
+  private object IndexedProperty {
+    def unapply(e: Expression): Option[(String, String)] = e match {
+      case Property(Identifier(id), propertyKey)                                        => Some((id, propertyKey.name))
+      case nullable @ Nullable(Property(Identifier(id), propertyKey)) if nullable.default == Some(false) => Some((id, propertyKey.name))
+      case _                                                                            => None
+    }
+  }
+}
@@ -25,7 +25,8 @@ import org.neo4j.cypher.internal.spi.PlanContext
 
 /*
 This rather simple class finds a starting strategy for a given single node and a list of predicates required
-to be true for that node
+to be true for that node. Start items are compared by the number of nodes they are estimated to produce, and
+by their rating when the estimates can't tell them apart
 
 @see NodeStrategy
  */
@@ -34,15 +35,17 @@ object NodeFetchStrategy {
 
   def findStartStrategy(node: String, where: Seq[Predicate], ctx: PlanContext): RatedStartItem = {
     val ratedItems = nodeStrategies.flatMap(_.findRatedStartItems(node, where, ctx))
-    ratedItems.sortBy(_.rating).head
+    ratedItems.sortBy(_.cost).head
   }
 }
 
 /*
-Bundles a possible start item with a rating (where lower implies better) and a list of predicates that
-are implicitly solved when using the start item
+Bundles a possible start item with a rating (where lower implies better), a list of predicates that
+are implicitly solved when using the start item, and the number of nodes it's estimated to produce
  */
-case class RatedStartItem(s: StartItem, rating: Integer, solvedPredicates: Seq[Predicate])
+case class RatedStartItem(s: StartItem, rating: Integer, solvedPredicates: Seq[Predicate], estimatedRows: Double = 0) {
+  def cost: (Double, Int) = (estimatedRows, rating.intValue())
+}
 
 /*
 Finders produce StartItemWithRatings for a node and a set of required predicates over that node
@@ -59,6 +62,10 @@ trait NodeStrategy {
   val LabelScan = 4
   val Global = 5
 
+  // Without samples of the index contents, lookups are assumed to find a fixed fraction of the label
+  val IndexEqualitySelectivity = 0.1
+  val IndexRangeSelectivity = 0.3
+
   def findRatedStartItems(node: String, where: Seq[Predicate], ctx: PlanContext): Seq[RatedStartItem]
 
   protected def findLabelsForNode(node: String, where: Seq[Predicate]): Seq[SolvedPredicate[LabelName]] =
@@ -94,16 +101,31 @@ object IndexSeekStrategy extends NodeStrategy {
     val labelPredicates: Seq[SolvedPredicate[LabelName]] = findLabelsForNode(node, where)
     val propertyPredicates: Seq[SolvedPredicate[PropertyKey]] = findEqualityPredicatesOnProperty(node, where)
 
-    for (
+    val equalityItems = for (
       labelPredicate <- labelPredicates;
       propertyPredicate <- propertyPredicates if (ctx.getIndexRule(labelPredicate.solution, propertyPredicate.solution).nonEmpty)
     ) yield {
       val schemaIndex = SchemaIndex(node, labelPredicate.solution, propertyPredicate.solution, None)
       val optConstraint = ctx.getUniquenessConstraint(labelPredicate.solution, propertyPredicate.solution)
-      val rating = if (optConstraint.isDefined) Single else IndexEquality
+      val (rating, estimatedRows) =
+        if (optConstraint.isDefined) (Single, 0.0)
+        else (IndexEquality, ctx.nodeCountByLabel(labelPredicate.solution) * IndexEqualitySelectivity)
       val predicates = Seq(labelPredicate.predicate, propertyPredicate.predicate)
-      RatedStartItem(schemaIndex, rating, predicates)
+      RatedStartItem(schemaIndex, rating, predicates, estimatedRows)
     }
+
+    val seekItems = for (
+      labelPredicate <- labelPredicates;
+      property <- IndexSeekPredicates.seekableProperties(node, where)
+      if ctx.getIndexRule(labelPredicate.solution, property).nonEmpty &&
+        !equalityItems.exists(_.s == SchemaIndex(node, labelPredicate.solution, property, None))
+    ) yield {
+      // The seek does not solve the property predicates, they are still needed to filter the index results
+      val estimatedRows = ctx.nodeCountByLabel(labelPredicate.solution) * IndexRangeSelectivity
+      RatedStartItem(SchemaIndex(node, labelPredicate.solution, property, None), IndexRange, Seq(labelPredicate.predicate), estimatedRows)
+    }
+
+    equalityItems ++ seekItems
   }
 
   private def findEqualityPredicatesOnProperty(identifier: IdentifierName, where: Seq[Predicate]): Seq[SolvedPredicate[PropertyKey]] =
@@ -117,7 +139,7 @@ object IndexSeekStrategy extends NodeStrategy {
 
 object GlobalStrategy extends NodeStrategy {
   def findRatedStartItems(node: String, where: Seq[Predicate], ctx: PlanContext): Seq[RatedStartItem] =
-    Seq(RatedStartItem(AllNodes(node), Global, Seq.empty))
+    Seq(RatedStartItem(AllNodes(node), Global, Seq.empty, ctx.nodeCount))
 }
 
 object LabelScanStrategy extends NodeStrategy {
@@ -126,7 +148,7 @@ object LabelScanStrategy extends NodeStrategy {
 
     labelPredicates.map {
       case SolvedPredicate(labelName, predicate) =>
-        RatedStartItem(NodeByLabel(node, labelName), LabelScan, Seq(predicate))
+        RatedStartItem(NodeByLabel(node, labelName), LabelScan, Seq(predicate), ctx.nodeCountByLabel(labelName))
     }
   }
 }
@@ -84,7 +84,7 @@ class StartPointChoosingBuilder extends PlanBuilder {
 
     def findSingleNodePoints(startPoints: Set[RatedStartItem]): Iterable[StartItem] =
       startPoints.collect {
-        case RatedStartItem(si, r, _) if r == Single => si
+        case RatedStartItem(si, r, _, _) if r == Single => si
       }
 
     def findStartItemFor(pattern: MatchPattern): Iterable[StartItem] = {
@@ -100,14 +100,14 @@ class StartPointChoosingBuilder extends PlanBuilder {
 
       if (shortestPathPointsInPattern.nonEmpty) {
         startPoints.collect {
-          case RatedStartItem(si, r, _) if shortestPathPoints.contains(si.identifierName) => si
+          case RatedStartItem(si, r, _, _) if shortestPathPoints.contains(si.identifierName) => si
         }.toSet union singleNodePoints.toSet
       } else if (singleNodePoints.nonEmpty) {
         // We want to keep all these start points because cartesian product with them is free
         singleNodePoints
       } else {
-        // Lastly, let's pick the best start point possible
-        Some(startPoints.toSeq.sortBy(_.rating).head.s)
+        // Lastly, let's pick the start point estimated to produce the fewest nodes
+        Some(startPoints.toSeq.sortBy(_.cost).head.s)
       }
     }
 
@@ -31,15 +31,17 @@ import org.neo4j.cypher.internal.pipes.matching.SingleStepTrail
 import annotation.tailrec
 
 object TrailBuilder {
-  def findLongestTrail(patterns: Seq[Pattern], boundPoints: Seq[String], predicates: Seq[Predicate] = Nil) =
-    new TrailBuilder(patterns, boundPoints, predicates).findLongestTrail()
+  def findLongestTrail(patterns: Seq[Pattern], boundPoints: Seq[String], predicates: Seq[Predicate] = Nil,
+                       cost: Trail => Double = _ => 0) =
+    new TrailBuilder(patterns, boundPoints, predicates, cost).findLongestTrail()
 }
 
 final case class LongestTrail(start: String, end: Option[String], longestTrail: Trail) {
   lazy val step = longestTrail.toSteps(0).get
 }
 
-final class TrailBuilder(patterns: Seq[Pattern], boundPoints: Seq[String], predicates: Seq[Predicate]) {
+final class TrailBuilder(patterns: Seq[Pattern], boundPoints: Seq[String], predicates: Seq[Predicate],
+                         cost: Trail => Double = _ => 0) {
   @tailrec
   private def internalFindLongestPath(doneSeq: Seq[(Trail, Seq[Pattern])]): Seq[(Trail, Seq[Pattern])] = {
 
@@ -141,7 +143,11 @@ final class TrailBuilder(patterns: Seq[Pattern], boundPoints: Seq[String], predi
       case ((t1, _), (t2, _)) => t1.size < t2.size || t1.start > t2.start //Sort first by length, and then by start point
     }
 
-    val (longestPath, _) = almost.last
+    // Of the longest trails, take the one estimated to be the cheapest to expand
+    val longestSize = almost.last._1.size
+    val (longestPath, _) = almost.filter(_._1.size == longestSize).reverse.minBy {
+      case (trail, _) => cost(trail)
+    }
 
     val start = longestPath.start
     val end = if (boundPoints.contains(longestPath.end)) Some(longestPath.end) else None
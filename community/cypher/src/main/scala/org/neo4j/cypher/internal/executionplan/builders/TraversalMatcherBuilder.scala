@@ -31,10 +31,11 @@ import org.neo4j.cypher.internal.commands.NodeByIndex
 import org.neo4j.cypher.internal.commands.NodeByIndexQuery
 import org.neo4j.cypher.internal.symbols.{NodeType, SymbolTable}
 import org.neo4j.cypher.internal.spi.PlanContext
+import org.neo4j.graphdb.Direction
 
 class TraversalMatcherBuilder extends PlanBuilder with PatternGraphBuilder {
   def apply(plan: ExecutionPlanInProgress, ctx: PlanContext): ExecutionPlanInProgress =
-    extractExpanderStepsFromQuery(plan) match {
+    extractExpanderStepsFromQuery(plan, ctx) match {
       case None              => throw new ThisShouldNotHappenError("Andres", "This plan should not have been accepted")
       case Some(longestPath) =>
         val LongestTrail(start, end, longestTrail) = longestPath
@@ -131,11 +132,11 @@ class TraversalMatcherBuilder extends PlanBuilder with PatternGraphBuilder {
   }
 
   def canWorkWith(plan: ExecutionPlanInProgress, ctx: PlanContext): Boolean = {
-    val steps = extractExpanderStepsFromQuery(plan)
+    val steps = extractExpanderStepsFromQuery(plan, ctx)
     steps.nonEmpty && plan.pipe == NullPipe
   }
 
-  private def extractExpanderStepsFromQuery(plan: ExecutionPlanInProgress): Option[LongestTrail] = {
+  private def extractExpanderStepsFromQuery(plan: ExecutionPlanInProgress, ctx: PlanContext): Option[LongestTrail] = {
     val startPoints = plan.query.start.flatMap {
       case Unsolved(NodeByIndexQuery(id, _, _)) => Some(id)
       case Unsolved(NodeByIndex(id, _, _, _))   => Some(id)
@@ -155,7 +156,22 @@ class TraversalMatcherBuilder extends PlanBuilder with PatternGraphBuilder {
       case pred => pred.exists( exp => exp.isInstanceOf[PatternPredicate] )
     }
 
-    TrailBuilder.findLongestTrail(pattern, startPoints, preds)
+    TrailBuilder.findLongestTrail(pattern, startPoints, preds, estimatedFanOut(ctx))
+  }
+
+  /*
+  Estimates how many relationships the first step of a trail expands per start node, from the average degree of
+  the relationship types it follows. Without statistics every trail is estimated the same
+   */
+  private def estimatedFanOut(ctx: PlanContext)(trail: Trail): Double = trail.toSteps(0) match {
+    case Some(step) if ctx.nodeCount > 0 =>
+      val relationships =
+        if (step.typ.isEmpty) ctx.relationshipCount
+        else step.typ.map(ctx.relationshipCountByType).sum
+      val perNode = relationships.toDouble / ctx.nodeCount
+
+      if (step.direction == Direction.BOTH) perNode * 2 else perNode
+    case _                               => 0
   }
 
   def priority = PlanBuilder.TraversalMatcher
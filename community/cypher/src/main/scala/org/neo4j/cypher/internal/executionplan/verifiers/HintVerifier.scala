@@ -25,6 +25,7 @@ import org.neo4j.cypher.{LabelScanHintException, IndexHintException, SyntaxExcep
 import org.neo4j.cypher.internal.commands.Equals
 import org.neo4j.cypher.internal.commands.SchemaIndex
 import org.neo4j.cypher.internal.commands.expressions.Property
+import org.neo4j.cypher.internal.executionplan.builders.IndexSeekPredicates
 
 object HintVerifier extends Verifier {
   override val verifyFunction: PartialFunction[AbstractQuery, Unit] = {
@@ -53,11 +54,12 @@ object HintVerifier extends Verifier {
           val valid = predicateAtoms.exists {
             case Equals(Property(Identifier(identifier), property), _) => id == identifier && property.name == prop
             case _                                                     => false
-          }
+          } || IndexSeekPredicates.findSeekStartItem(id, label, prop, predicateAtoms).nonEmpty
 
           if (!valid)
             throw new IndexHintException(id, label, prop,
-              "Can't use an index hint without an equality comparison on the correct node property label combo.")
+              "Can't use an index hint without an equality, range, prefix or IN comparison on the correct node " +
+                "property label combo.")
       }
   }
 }
\ No newline at end of file
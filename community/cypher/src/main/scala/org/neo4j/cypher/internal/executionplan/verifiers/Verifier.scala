@@ -19,14 +19,17 @@
  */
 package org.neo4j.cypher.internal.executionplan.verifiers
 
-import org.neo4j.cypher.internal.commands.AbstractQuery
+import org.neo4j.cypher.internal.commands.{PeriodicCommitQuery, AbstractQuery}
 
 abstract class Verifier {
   protected def verifyFunction: PartialFunction[AbstractQuery, Unit]
 
   def verify(q: AbstractQuery) {
-   if (verifyFunction.isDefinedAt(q))
-     verifyFunction.apply(q)
+   q match {
+     case periodicCommit: PeriodicCommitQuery => verify(periodicCommit.query)
+     case _ if verifyFunction.isDefinedAt(q)  => verifyFunction.apply(q)
+     case _                                   =>
+   }
   }
 }
 
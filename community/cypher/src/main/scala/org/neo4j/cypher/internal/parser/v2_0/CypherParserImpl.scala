@@ -50,5 +50,11 @@ Thank you, the Neo4j Team.
     }
   }
 
-  def cypherQuery: Parser[AbstractQuery] = (indexOps | constraintOps | union | query) <~ opt(";")
+  def cypherQuery: Parser[AbstractQuery] = (periodicCommitQuery | indexOps | constraintOps | union | query) <~ opt(";")
+
+  def periodicCommitQuery: Parser[AbstractQuery] =
+    USING ~> PERIODIC ~> COMMIT ~> opt(positiveNumber) ~ (union | query) ^^ {
+      case Some(size) ~ q => PeriodicCommitQuery(q, size.toLong)
+      case None ~ q       => PeriodicCommitQuery(q)
+    }
 }
@@ -58,6 +58,8 @@ trait Strings extends JavaTokenParsers {
   def UNIQUE = ignoreCase("unique")
   def REMOVE = ignoreCase("remove")
   def UNION = ignoreCase("union")
+  def PERIODIC = ignoreCase("periodic")
+  def COMMIT = ignoreCase("commit")
 
   // SHOULD THESE ALSO BE KEYWORDS
   def INDEX = ignoreCase("index")
@@ -41,6 +41,7 @@ class DistinctPipe(source: Pipe, expressions: Map[String, Expression]) extends P
      * in a set.
      */
     var seen = mutable.Set[NiceHasher]()
+    val memory = state.memory.account(this)
 
     returnExpressions.filter {
        case ctx =>
@@ -50,6 +51,7 @@ class DistinctPipe(source: Pipe, expressions: Map[String, Expression]) extends P
            false
          } else {
            seen += values
+           memory.buffered(seen.size)
            true
          }
     }
@@ -25,6 +25,7 @@ import org.neo4j.cypher.internal.commands.expressions.{Expression, AggregationEx
 import collection.mutable.{Map => MutableMap}
 import org.neo4j.cypher.internal.ExecutionContext
 import org.neo4j.cypher.internal.data.SimpleVal
+import scala.util.hashing.MurmurHash3
 
 // Eager aggregation means that this pipe will eagerly load the whole resulting sub graphs before starting
 // to emit aggregated results.
@@ -47,46 +48,96 @@ class EagerAggregationPipe(source: Pipe, val keyExpressions: Map[String, Express
   }
 
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) = {
-    // This is the temporary storage used while the aggregation is going on
-    val result = MutableMap[NiceHasher, (ExecutionContext, Seq[AggregationFunction])]()
     val keyNames: Seq[String] = keyExpressions.map(_._1).toSeq
     val aggregationNames: Seq[String] = aggregations.map(_._1).toSeq
 
-    def createResults(key: NiceHasher, aggregator: scala.Seq[AggregationFunction], ctx: ExecutionContext): ExecutionContext = {
-      val newMap = MutableMaps.empty
-
-      //add key values
-      (keyNames zip key.original).foreach(newMap += _)
-
-      //add aggregated values
-      (aggregationNames zip aggregator.map(_.result)).foreach(newMap += _)
-
-      ctx.newFrom(newMap)
-    }
-
     def createEmptyResult(params:Map[String,Any]): Iterator[ExecutionContext] = {
-      val newMap = MutableMaps.empty
       val aggregationNamesAndFunctions = aggregationNames zip aggregations.map(_._2.createAggregationFunction.result)
 
-      aggregationNamesAndFunctions.toMap
-        .foreach { case (name, zeroValue) => newMap += name -> zeroValue  }
-      Iterator.single(ExecutionContext(newMap))
+      Iterator.single(ExecutionContext.withSlots(state.slots).newFrom(aggregationNamesAndFunctions))
     }
 
+    if (!input.hasNext && keyNames.isEmpty) {
+      createEmptyResult(state.params)
+    } else {
+      aggregate(input, state, keyNames, aggregationNames, 0)
+    }
+  }
+
+  /*
+  Groups are kept in memory for as long as the query memory budget allows it. After that, rows that belong to groups
+  not already in memory are written to spill files partitioned on the grouping key, and every partition is
+  aggregated on its own once the groups in memory have been emitted. Partitions are split again using a different
+  hash if they still don't fit.
+   */
+  private def aggregate(input: Iterator[ExecutionContext], state: QueryState, keyNames: Seq[String],
+                        aggregationNames: Seq[String], depth: Int): Iterator[ExecutionContext] = {
+    // This is the temporary storage used while the aggregation is going on
+    val result = MutableMap[NiceHasher, (ExecutionContext, Seq[AggregationFunction])]()
+    val memory = state.memory.account(this)
+    val mayPartition = !memory.isUnlimited && keyNames.nonEmpty && depth < EagerAggregationPipe.MAX_PARTITIONING_DEPTH
+    var partitions: Array[SpillFile] = null
+    var reservedBytes = 0L
+
+    def createResults(key: NiceHasher, aggregator: scala.Seq[AggregationFunction], ctx: ExecutionContext): ExecutionContext =
+      ctx.newFrom((keyNames zip key.original) ++ (aggregationNames zip aggregator.map(_.result)))
+
+    def fitsInMemory(ctx: ExecutionContext): Boolean =
+      if (memory.isUnlimited) {
+        true
+      } else if (partitions != null) {
+        false
+      } else {
+        val size = RowSpilling.estimateSize(ctx) + EagerAggregationPipe.GROUP_OVERHEAD
+        val reserved = memory.tryReserve(size)
+        if (!reserved && !mayPartition)
+          memory.reserve(size)
+
+        val fits = reserved || !mayPartition
+        if (fits)
+          reservedBytes += size
+        fits
+      }
+
     input.foreach(ctx => {
       val groupValues: NiceHasher = new NiceHasher(keyNames.map(ctx))
-      val aggregateFunctions: Seq[AggregationFunction] = aggregations.map(_._2.createAggregationFunction).toSeq
-      val (_, functions) = result.getOrElseUpdate(groupValues, (ctx, aggregateFunctions))
-      functions.foreach(func => func(ctx)(state))
+      result.get(groupValues) match {
+        case Some((_, functions)) =>
+          functions.foreach(func => func(ctx)(state))
+
+        case None if fitsInMemory(ctx) =>
+          val aggregateFunctions: Seq[AggregationFunction] = aggregations.map(_._2.createAggregationFunction).toSeq
+          result(groupValues) = (ctx, aggregateFunctions)
+          aggregateFunctions.foreach(func => func(ctx)(state))
+
+        case None =>
+          if (partitions == null)
+            partitions = new Array[SpillFile](EagerAggregationPipe.PARTITIONS)
+
+          val partition = partitionOf(groupValues, depth)
+          if (partitions(partition) == null)
+            partitions(partition) = memory.newSpillFile()
+          partitions(partition).write(ctx)
+      }
     })
 
-    if (result.isEmpty && keyNames.isEmpty) {
-      createEmptyResult(state.params)
-    } else {
-      result.map {
-        case (key, (ctx, aggregator)) => createResults(key, aggregator, ctx)
-      }.toIterator
-    }
+    memory.buffered(result.size)
+
+    val inMemory = memory.releaseWhenExhausted(reservedBytes, result.iterator.map {
+      case (key, (ctx, aggregator)) => createResults(key, aggregator, ctx)
+    })
+
+    if (partitions == null)
+      inMemory
+    else
+      inMemory ++ partitions.iterator.filter(_ != null).flatMap {
+        partition => aggregate(partition.read(state), state, keyNames, aggregationNames, depth + 1)
+      }
+  }
+
+  private def partitionOf(key: NiceHasher, depth: Int): Int = {
+    val hash = MurmurHash3.finalizeHash(MurmurHash3.mix(depth + 1, key.hashCode()), 0)
+    (hash & Int.MaxValue) % EagerAggregationPipe.PARTITIONS
   }
 
   override def executionPlanDescription =
@@ -101,4 +152,12 @@ class EagerAggregationPipe(source: Pipe, val keyExpressions: Map[String, Express
   }
 
   override def isLazy = false
-}
\ No newline at end of file
+}
+
+object EagerAggregationPipe {
+  val PARTITIONS = 16
+  val MAX_PARTITIONING_DEPTH = 3
+
+  // Estimated heap used per group besides the row itself: the key, the aggregation functions and the map entry
+  val GROUP_OVERHEAD = 200L
+}
@@ -31,8 +31,11 @@ case class EagerPipe(src: Pipe) extends PipeWithSource(src) {
   def throwIfSymbolsMissing(symbols: SymbolTable) {
   }
 
-  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] =
-    input.toList.toIterator
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    val rows = input.toList
+    state.memory.account(this).buffered(rows.size)
+    rows.toIterator
+  }
 
   override def isLazy = false
 }
\ No newline at end of file
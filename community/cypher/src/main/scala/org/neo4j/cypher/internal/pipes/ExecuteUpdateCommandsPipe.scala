@@ -35,8 +35,15 @@ class ExecuteUpdateCommandsPipe(source: Pipe, db: GraphDatabaseService, val comm
 
   assertNothingIsCreatedWhenItShouldNot()
 
-  protected def internalCreateResults(input: Iterator[ExecutionContext],state: QueryState) = input.flatMap {
-    case ctx => executeMutationCommands(ctx, state, commands.size == 1)
+  protected def internalCreateResults(input: Iterator[ExecutionContext],state: QueryState) = {
+    val results = input.flatMap {
+      case ctx => executeMutationCommands(ctx, state, commands.size == 1)
+    }
+
+    state.periodicCommit match {
+      case Some(periodicCommit) => results.map { ctx => periodicCommit.updated(state); ctx }
+      case None                 => results
+    }
   }
 
   private def executeMutationCommands(ctx: ExecutionContext,
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.pipes
+
+import collection.mutable
+import org.neo4j.cypher.internal.ExecutionContext
+
+/**
+ * Sorts rows in memory for as long as the query memory budget allows it. When the budget is used up, the rows held
+ * are sorted and written to a spill file as a sorted run, and the result is produced by merging all runs.
+ *
+ * A run is only written once the sorter itself holds at least a quarter of the budget. When other pipes hold the
+ * rest, the sorter goes over the budget instead of writing a run per row. At most MERGE_FAN_IN runs are read at the
+ * same time; when there are more, they are first merged into fewer, longer runs.
+ */
+class ExternalSorter(pipe: Pipe, lessThan: (ExecutionContext, ExecutionContext) => Boolean, state: QueryState) {
+  private val memory = state.memory.account(pipe)
+  private val minRunBytes = memory.budget / ExternalSorter.MIN_RUN_FRACTION
+  private var buffer = new mutable.ArrayBuffer[ExecutionContext]()
+  private var bufferedBytes = 0L
+  private var runs = List[SpillFile]()
+
+  def add(row: ExecutionContext) {
+    if (!memory.isUnlimited) {
+      val size = RowSpilling.estimateSize(row)
+      if (!memory.tryReserve(size)) {
+        if (bufferedBytes >= minRunBytes)
+          spill()
+        if (!memory.tryReserve(size))
+          memory.reserve(size)
+      }
+      bufferedBytes += size
+    }
+
+    buffer += row
+  }
+
+  def ++=(rows: TraversableOnce[ExecutionContext]): this.type = {
+    rows.foreach(add)
+    this
+  }
+
+  def result: Iterator[ExecutionContext] = {
+    memory.buffered(buffer.size)
+    val sorted = releasingWhenExhausted(buffer.sortWith(lessThan).iterator)
+    buffer = null
+
+    while (runs.size > ExternalSorter.MERGE_FAN_IN)
+      runs = runs.grouped(ExternalSorter.MERGE_FAN_IN).map(mergeIntoRun).toList
+
+    if (runs.isEmpty)
+      sorted
+    else
+      merge(runs.map(_.read(state)) :+ sorted)
+  }
+
+  /*
+  The first count rows of the result. The memory of the rows held is given back once they are read, even though the
+  rest of the result never is
+   */
+  def take(count: Int): Iterator[ExecutionContext] = releasingWhenExhausted(result.take(count))
+
+  private def spill() {
+    if (buffer.nonEmpty) {
+      memory.buffered(buffer.size)
+      val run = memory.newSpillFile()
+      buffer.sortWith(lessThan).foreach(run.write)
+      run.finishWriting()
+      runs = runs :+ run
+      buffer = new mutable.ArrayBuffer[ExecutionContext]()
+      releaseBuffer()
+    }
+  }
+
+  private def mergeIntoRun(group: List[SpillFile]): SpillFile = {
+    val run = memory.newSpillFile()
+    merge(group.map(_.read(state))).foreach(run.write)
+    run.finishWriting()
+    run
+  }
+
+  private def releaseBuffer() {
+    memory.release(bufferedBytes)
+    bufferedBytes = 0L
+  }
+
+  private def releasingWhenExhausted(inner: Iterator[ExecutionContext]): Iterator[ExecutionContext] =
+    new Iterator[ExecutionContext] {
+      def hasNext: Boolean = {
+        val result = inner.hasNext
+        if (!result)
+          releaseBuffer()
+        result
+      }
+
+      def next(): ExecutionContext = inner.next()
+    }
+
+  /*
+  Runs are merged by always taking the smallest head. On ties the earlier run wins, which keeps the sort stable
+   */
+  private def merge(sources: Seq[Iterator[ExecutionContext]]): Iterator[ExecutionContext] = {
+    val ordering = new Ordering[(BufferedIterator[ExecutionContext], Int)] {
+      def compare(a: (BufferedIterator[ExecutionContext], Int), b: (BufferedIterator[ExecutionContext], Int)): Int =
+        if (lessThan(a._1.head, b._1.head)) 1
+        else if (lessThan(b._1.head, a._1.head)) -1
+        else b._2 - a._2
+    }
+
+    val heads = mutable.PriorityQueue[(BufferedIterator[ExecutionContext], Int)]()(ordering)
+    sources.zipWithIndex.foreach {
+      case (source, index) => if (source.hasNext) heads.enqueue((source.buffered, index))
+    }
+
+    new Iterator[ExecutionContext] {
+      def hasNext: Boolean = heads.nonEmpty
+
+      def next(): ExecutionContext = {
+        val (source, index) = heads.dequeue()
+        val row = source.next()
+        if (source.hasNext)
+          heads.enqueue((source, index))
+        row
+      }
+    }
+  }
+}
+
+object ExternalSorter {
+  val MIN_RUN_FRACTION = 4
+  val MERGE_FAN_IN = 16
+}
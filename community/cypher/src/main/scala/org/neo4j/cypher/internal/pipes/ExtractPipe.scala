@@ -23,6 +23,7 @@ import org.neo4j.cypher.internal.symbols._
 import org.neo4j.cypher.internal.commands.expressions.Expression
 import org.neo4j.cypher.internal.data.SimpleVal
 import org.neo4j.cypher.internal.ExecutionContext
+import org.neo4j.cypher.internal.commands.compiled.ExpressionCompiler
 
 object ExtractPipe {
   def apply(source: Pipe, expressions: Map[String, Expression]): ExtractPipe = source match {
@@ -40,14 +41,25 @@ class ExtractPipe(val source: Pipe, val expressions: Map[String, Expression]) ex
     source.symbols.add(newIdentifiers)
   }
 
-  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) = input.map(
-    subgraph => {
-      expressions.foreach {
-        case (name, expression) =>
-        subgraph += name -> expression(subgraph)(state)
+  @volatile private var evaluated: Map[String, Expression] = expressions
+
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) = {
+    val expressions = evaluated
+    input.map(
+      subgraph => {
+        expressions.foreach {
+          case (name, expression) =>
+            subgraph += name -> expression(subgraph)(state)
+        }
+        subgraph
+      })
+  }
+
+  def compileExpressions(slots: Slots) {
+    evaluated = expressions.map {
+      case (name, expression) => name -> ExpressionCompiler.compile(expression, slots)
     }
-    subgraph
-  })
+  }
 
   override def executionPlanDescription =
     source.executionPlanDescription
@@ -23,11 +23,21 @@ import org.neo4j.cypher.internal.commands.Predicate
 import org.neo4j.cypher.internal.symbols.SymbolTable
 import org.neo4j.cypher.internal.data.SimpleVal
 import org.neo4j.cypher.internal.ExecutionContext
+import org.neo4j.cypher.internal.commands.compiled.ExpressionCompiler
 
 class FilterPipe(source: Pipe, val predicate: Predicate) extends PipeWithSource(source) {
   val symbols = source.symbols
 
-  protected def internalCreateResults(input: Iterator[ExecutionContext],state: QueryState) = input.filter(ctx => predicate.isMatch(ctx)(state))
+  @volatile private var evaluated: Predicate = predicate
+
+  protected def internalCreateResults(input: Iterator[ExecutionContext],state: QueryState) = {
+    val test = evaluated
+    input.filter(ctx => test.isMatch(ctx)(state))
+  }
+
+  def compileExpressions(slots: Slots) {
+    evaluated = ExpressionCompiler.compile(predicate, slots)
+  }
 
   override def executionPlanDescription =
     source.executionPlanDescription.andThen(this, "Filter", "pred" -> SimpleVal.fromStr(predicate))
@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.pipes
+
+import org.neo4j.cypher.internal.symbols.SymbolTable
+import org.neo4j.cypher.internal.ExecutionContext
+import org.neo4j.cypher.internal.data.SimpleVal
+import org.neo4j.cypher.{PlanDescriptionImpl, PlanDescription}
+import org.neo4j.graphdb.Node
+import collection.mutable.ArrayBuffer
+import scala.util.hashing.MurmurHash3
+import org.neo4j.kernel.impl.util.PrimitiveLongObjectMap
+
+/*
+Joins the rows of two pipes that have a node in common. Both sides are read a row at a time, in turns, until one of
+them runs out. That side is the smaller one, and its rows are put in a hash table keyed on the id of the join node,
+which the rest of the other side is then probed against. Nothing but the smaller side is kept in memory.
+
+If the query memory budget runs out before either side is exhausted, both sides are written to spill files
+partitioned on the join node, and every pair of partitions is joined on its own in the same way.
+
+The relationships named by the two sides must not overlap, since a pattern never uses a relationship twice.
+ */
+class NodeHashJoinPipe(left: Pipe, right: Pipe, val joinNode: String,
+                       leftRelationships: Seq[String] = Seq.empty, rightRelationships: Seq[String] = Seq.empty)
+  extends Pipe {
+
+  import NodeHashJoinPipe._
+
+  val symbols: SymbolTable = left.symbols.add(right.symbols.identifiers)
+
+  override def sources: Seq[Pipe] = Seq(left, right)
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] =
+    join(left.createResults(state), right.createResults(state), state, 0)
+
+  private class Side(val input: Iterator[ExecutionContext], val relationships: Seq[String]) {
+    val rows = new ArrayBuffer[ExecutionContext]()
+
+    def partition(memory: MemoryAccount, depth: Int): Array[SpillFile] = {
+      val partitions = new Array[SpillFile](PARTITIONS)
+      (rows.iterator ++ input).foreach(row => {
+        val id = nodeIdOf(row)
+        if (id != NO_NODE) {
+          val partition = partitionOf(id, depth)
+          if (partitions(partition) == null)
+            partitions(partition) = memory.newSpillFile()
+          partitions(partition).write(row)
+        }
+      })
+      rows.clear()
+      partitions
+    }
+  }
+
+  private def join(leftInput: Iterator[ExecutionContext], rightInput: Iterator[ExecutionContext], state: QueryState,
+                   depth: Int): Iterator[ExecutionContext] = {
+    val memory = state.memory.account(this)
+    val mayPartition = !memory.isUnlimited && depth < MAX_PARTITIONING_DEPTH
+    val leftSide = new Side(leftInput, leftRelationships)
+    val rightSide = new Side(rightInput, rightRelationships)
+    var reservedBytes = 0L
+    var overBudget = false
+
+    def buffer(side: Side) {
+      val row = side.input.next()
+      if (nodeIdOf(row) != NO_NODE) {
+        val size = RowSpilling.estimateSize(row) + ENTRY_OVERHEAD
+        if (memory.tryReserve(size)) {
+          reservedBytes += size
+        } else if (mayPartition) {
+          overBudget = true
+        } else {
+          memory.reserve(size)
+          reservedBytes += size
+        }
+        side.rows += row
+      }
+    }
+
+    while (!overBudget && leftSide.input.hasNext && rightSide.input.hasNext) {
+      buffer(leftSide)
+      if (!overBudget)
+        buffer(rightSide)
+    }
+
+    memory.buffered(leftSide.rows.size + rightSide.rows.size)
+
+    if (overBudget) {
+      memory.release(reservedBytes)
+      val leftPartitions = leftSide.partition(memory, depth)
+      val rightPartitions = rightSide.partition(memory, depth)
+
+      (0 until PARTITIONS).iterator.flatMap {
+        partition => (leftPartitions(partition), rightPartitions(partition)) match {
+          case (null, null) => Iterator.empty
+          case (l, null)    => l.delete(); Iterator.empty
+          case (null, r)    => r.delete(); Iterator.empty
+          case (l, r)       => join(l.read(state), r.read(state), state, depth + 1)
+        }
+      }
+    } else {
+      val (build, probe) = if (!leftSide.input.hasNext) (leftSide, rightSide) else (rightSide, leftSide)
+
+      if (build.rows.isEmpty) {
+        memory.release(reservedBytes)
+        Iterator.empty
+      } else {
+        val table = new PrimitiveLongObjectMap[ArrayBuffer[ExecutionContext]](build.rows.size)
+        build.rows.foreach(row => rowsWithNode(table, nodeIdOf(row)) += row)
+        build.rows.clear()
+
+        val result = (probe.rows.iterator ++ probe.input).flatMap {
+          row =>
+            val id = nodeIdOf(row)
+            if (id == NO_NODE)
+              Iterator.empty
+            else
+              Option(table.get(id)).iterator.flatten.
+                filter(buildRow => relationshipsAreDistinct(buildRow, build.relationships, row, probe.relationships)).
+                map(buildRow => row.newWith(buildRow.m))
+        }
+
+        memory.releaseWhenExhausted(reservedBytes, result)
+      }
+    }
+  }
+
+  private def rowsWithNode(table: PrimitiveLongObjectMap[ArrayBuffer[ExecutionContext]],
+                           id: Long): ArrayBuffer[ExecutionContext] = {
+    var rows = table.get(id)
+    if (rows == null) {
+      rows = new ArrayBuffer[ExecutionContext](1)
+      table.put(id, rows)
+    }
+    rows
+  }
+
+  private def nodeIdOf(row: ExecutionContext): Long = row.get(joinNode) match {
+    case Some(n: Node) => n.getId
+    case _             => NO_NODE
+  }
+
+  private def relationshipsAreDistinct(a: ExecutionContext, aRelationships: Seq[String],
+                                       b: ExecutionContext, bRelationships: Seq[String]): Boolean =
+    aRelationships.forall(aRel => {
+      val relationship = a.get(aRel)
+      relationship.isEmpty || bRelationships.forall(bRel => b.get(bRel) != relationship)
+    })
+
+  def executionPlanDescription: PlanDescription =
+    new PlanDescriptionImpl(this, "NodeHashJoin", Seq(left.executionPlanDescription, right.executionPlanDescription),
+      Seq("node" -> SimpleVal.fromStr(joinNode)))
+}
+
+object NodeHashJoinPipe {
+  val PARTITIONS = 16
+  val MAX_PARTITIONING_DEPTH = 3
+
+  // Estimated heap used per buffered row besides the row itself: the table slot and the row buffer
+  val ENTRY_OVERHEAD = 48L
+
+  private val NO_NODE = -1L
+
+  private def partitionOf(id: Long, depth: Int): Int = {
+    val hash = MurmurHash3.finalizeHash(MurmurHash3.mix(depth + 1, (id ^ (id >>> 32)).toInt), 0)
+    (hash & Int.MaxValue) % PARTITIONS
+  }
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.pipes
+
+import aggregation.{MergeableAggregationFunction, AggregationFunction}
+import org.neo4j.cypher.internal.ExecutionContext
+import org.neo4j.cypher.internal.commands.{PatternPredicate, PathExpression}
+import org.neo4j.cypher.internal.commands.expressions.{Expression, AggregationExpression}
+import org.neo4j.graphdb.Node
+import collection.mutable
+import collection.mutable.{Map => MutableMap, ArrayBuffer}
+import java.util.concurrent.{ConcurrentHashMap, Callable, ExecutionException, ForkJoinPool, Future}
+
+/*
+Aggregates read only queries that start by scanning all nodes, or all nodes with a label, on more than one thread.
+The scan runs on the calling thread, and the nodes it finds are cut into partitions of consecutive nodes. Every
+partition runs the pipes between the scan and this pipe on a shared fork-join pool, in a transaction of its own, and
+produces partial aggregation states. These are merged in partition order, so collect() keeps the order a single
+threaded aggregation would give.
+
+Groups are not spilled here. Queries in an open transaction, profiled queries and databases configured with a single
+aggregation thread use the single threaded aggregation, which does spill.
+ */
+class ParallelAggregationPipe(source: Pipe, val scan: NodeStartPipe, keyExpressions: Map[String, Expression],
+                              aggregations: Map[String, AggregationExpression])
+  extends EagerAggregationPipe(source, keyExpressions, aggregations) {
+
+  type Groups = MutableMap[NiceHasher, (ExecutionContext, Seq[AggregationFunction])]
+
+  private val keyNames: Seq[String] = keyExpressions.keys.toSeq
+  private val aggregationNames: Seq[String] = aggregations.keys.toSeq
+  private val aggregationExpressions: Seq[AggregationExpression] = aggregationNames.map(aggregations)
+
+  override protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) =
+    if (state.aggregationThreads > 1 && state.decorator == NullDecorator && state.query.isTopLevelTx)
+      aggregateInParallel(state)
+    else
+      super.internalCreateResults(input, state)
+
+  private def aggregateInParallel(state: QueryState): Iterator[ExecutionContext] = {
+    val pool = ParallelAggregationPipe.pool(state.aggregationThreads)
+    val memory = state.memory.account(this)
+    val result: Groups = MutableMap()
+    val pending = new mutable.Queue[Future[Groups]]()
+    var reservedBytes = 0L
+
+    def mergeNext() {
+      await(pending.dequeue()).foreach {
+        case (key, (ctx, functions)) => result.get(key) match {
+          case Some((_, merged)) =>
+            merged.zip(functions).foreach {
+              case (into, from) => into.asInstanceOf[MergeableAggregationFunction].merge(from)
+            }
+
+          case None =>
+            val size = RowSpilling.estimateSize(ctx) + EagerAggregationPipe.GROUP_OVERHEAD
+            memory.reserve(size)
+            reservedBytes += size
+            result(key) = (ctx, functions)
+        }
+      }
+    }
+
+    try {
+      val nodes = scan.createSource(ExecutionContext.withSlots(state.slots), state)
+      while (nodes.hasNext) {
+        val partition = new ArrayBuffer[Node](ParallelAggregationPipe.PARTITION_SIZE)
+        while (nodes.hasNext && partition.size < ParallelAggregationPipe.PARTITION_SIZE)
+          partition += nodes.next()
+
+        pending.enqueue(pool.submit(new Callable[Groups] {
+          def call() = aggregatePartition(partition, state)
+        }))
+
+        if (pending.size >= state.aggregationThreads * 2)
+          mergeNext()
+      }
+
+      while (pending.nonEmpty)
+        mergeNext()
+    } catch {
+      case (t: Throwable) =>
+        pending.foreach(_.cancel(false))
+        throw t
+    }
+
+    memory.buffered(result.size)
+
+    if (result.isEmpty && keyNames.isEmpty) {
+      val emptyAggregates = aggregationNames zip aggregationExpressions.map(_.createAggregationFunction.result)
+      Iterator.single(ExecutionContext.withSlots(state.slots).newFrom(emptyAggregates))
+    } else {
+      memory.releaseWhenExhausted(reservedBytes, result.iterator.map {
+        case (key, (ctx, functions)) =>
+          ctx.newFrom((keyNames zip key.original) ++ (aggregationNames zip functions.map(_.result)))
+      })
+    }
+  }
+
+  // Runs on a thread of the pool
+  private def aggregatePartition(nodes: Seq[Node], state: QueryState): Groups = {
+    val context = state.query.newReadOnlyContext()
+    var success = false
+    try {
+      val partitionState = new QueryState(state.db, context, state.params, NullDecorator, slots = state.slots,
+        scanPartition = Some(ScanPartition(scan, nodes)))
+      val groups: Groups = MutableMap()
+
+      source.createResults(partitionState).foreach(ctx => {
+        val key = new NiceHasher(keyNames.map(ctx))
+        val (_, functions) = groups.getOrElseUpdate(key, (ctx, aggregationExpressions.map(_.createAggregationFunction)))
+        functions.foreach(func => func(ctx)(partitionState))
+      })
+
+      success = true
+      groups
+    } finally {
+      context.close(success)
+    }
+  }
+
+  private def await(future: Future[Groups]): Groups = try {
+    future.get()
+  } catch {
+    case e: ExecutionException => throw e.getCause
+  }
+}
+
+/**
+ * The nodes one thread of a parallel aggregation produces in place of the scan
+ */
+case class ScanPartition(start: NodeStartPipe, nodes: Seq[Node])
+
+object ParallelAggregationPipe {
+  val PARTITION_SIZE = 10000
+
+  private val SCANS = Set("AllNodes", "NodeByLabel")
+
+  private val pools = new ConcurrentHashMap[Int, ForkJoinPool]()
+
+  def pool(threads: Int): ForkJoinPool = {
+    val existing = pools.get(threads)
+    if (existing != null) {
+      existing
+    } else {
+      val created = new ForkJoinPool(threads)
+      val raced = pools.putIfAbsent(threads, created)
+      if (raced == null) {
+        created
+      } else {
+        created.shutdown()
+        raced
+      }
+    }
+  }
+
+  /*
+  Finds the scan to partition when the pipes between it and the aggregation are known to be read only and to keep no
+  state between rows, and all the aggregations can be merged. Pattern expressions are left out, since the matchers
+  behind them are not meant to be shared between threads.
+   */
+  def partitionableScan(source: Pipe, keyExpressions: Map[String, Expression],
+                        aggregations: Map[String, AggregationExpression]): Option[NodeStartPipe] = {
+    val mergeable = aggregations.values.forall(_.createAggregationFunction.isInstanceOf[MergeableAggregationFunction])
+    val expressions = keyExpressions.values ++ aggregations.values
+
+    if (mergeable && !expressions.exists(usesPatterns))
+      findScan(source)
+    else
+      None
+  }
+
+  private def findScan(pipe: Pipe): Option[NodeStartPipe] = pipe match {
+    case p: NodeStartPipe if p.sources == Seq(NullPipe) && SCANS(p.createSource.name) => Some(p)
+    case p: FilterPipe if !usesPatterns(p.predicate)                                 => findScan(p.sources.head)
+    case p: ExtractPipe if !p.expressions.values.exists(usesPatterns)                => findScan(p.source)
+    case _                                                                           => None
+  }
+
+  private def usesPatterns(expression: Expression): Boolean = expression.exists {
+    case _: PathExpression   => true
+    case _: PatternPredicate => true
+    case _                   => false
+  }
+}
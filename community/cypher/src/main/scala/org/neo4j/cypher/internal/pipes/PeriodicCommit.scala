@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.pipes
+
+import org.neo4j.cypher.QueryStatistics
+
+/*
+Commits the transaction of a periodic commit query every time another batchSize updates have been done. Updates are
+counted the same way the query statistics count them.
+ */
+class PeriodicCommit(val batchSize: Long) {
+  private var committed = 0L
+
+  def committedUpdates: Long = committed
+
+  def updated(state: QueryState) {
+    val updates = PeriodicCommit.countUpdates(state.getStatistics)
+    if (updates - committed >= batchSize) {
+      state.query.commitAndRestartTx()
+      committed = updates
+    }
+  }
+}
+
+object PeriodicCommit {
+  def countUpdates(statistics: QueryStatistics): Long =
+    statistics.nodesCreated.toLong +
+      statistics.relationshipsCreated +
+      statistics.propertiesSet +
+      statistics.deletedNodes +
+      statistics.deletedRelationships +
+      statistics.labelsAdded +
+      statistics.labelsRemoved +
+      statistics.indexesAdded +
+      statistics.indexesRemoved +
+      statistics.constraintsAdded +
+      statistics.constraintsRemoved
+}
@@ -41,6 +41,11 @@ trait Pipe {
 
   def symbols: SymbolTable
 
+  /*
+  The pipes this pipe reads its input from
+   */
+  def sources: Seq[Pipe] = Seq.empty
+
   def executionPlanDescription: PlanDescription
 
   /**
@@ -50,7 +55,7 @@ trait Pipe {
 }
 
 object NullPipe extends Pipe {
-  def internalCreateResults(state: QueryState) = Iterator.single(ExecutionContext.empty)
+  def internalCreateResults(state: QueryState) = Iterator.single(ExecutionContext.withSlots(state.slots))
 
   val symbols: SymbolTable = SymbolTable()
 
@@ -62,6 +67,8 @@ abstract class PipeWithSource(source: Pipe) extends Pipe {
 
   throwIfSymbolsMissing(source.symbols)
 
+  override def sources: Seq[Pipe] = Seq(source)
+
   override def createResults(state: QueryState): Iterator[ExecutionContext] = {
     val sourceResult = source.createResults(state)
 
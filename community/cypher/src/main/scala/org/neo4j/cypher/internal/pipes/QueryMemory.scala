@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.pipes
+
+import java.io.File
+import collection.mutable
+import org.neo4j.cypher.PlanDescription
+import org.neo4j.cypher.internal.ExecutionContext
+import org.neo4j.cypher.internal.data.PrimVal
+
+/**
+ * Keeps track of the estimated number of bytes that the eager pipes of a single query hold on to. Once the budget
+ * is used up, pipes write rows to spill files instead, and the number of spilled bytes per pipe is reported in the
+ * plan description. Pipes reserve memory through their own MemoryAccount, which also records their peak usage.
+ * Spill files go to the spill directory, or to the temporary directory of the JVM when there is none.
+ */
+class QueryMemory(val budget: Long, val spillDirectory: Option[File] = None) {
+  private var reserved = 0L
+  private val accounts = mutable.Map[Pipe, MemoryAccount]()
+  private val spillFiles = mutable.Set[SpillFile]()
+
+  def isUnlimited: Boolean = budget <= QueryMemory.UNLIMITED
+
+  def inUse: Long = reserved
+
+  def account(pipe: Pipe): MemoryAccount = accounts.getOrElseUpdate(pipe, new MemoryAccount(this, pipe))
+
+  def accountOf(pipe: Pipe): Option[MemoryAccount] = accounts.get(pipe)
+
+  def bytesSpilledBy(pipe: Pipe): Long = accountOf(pipe).map(_.spilledBytes).getOrElse(0L)
+
+  private[pipes] def tryReserve(bytes: Long): Boolean =
+    if (isUnlimited || reserved + bytes <= budget) {
+      reserved += bytes
+      true
+    } else {
+      false
+    }
+
+  private[pipes] def reserve(bytes: Long) {
+    reserved += bytes
+  }
+
+  private[pipes] def release(bytes: Long) {
+    reserved = math.max(0L, reserved - bytes)
+  }
+
+  private[pipes] def created(file: SpillFile) {
+    spillFiles += file
+  }
+
+  private[pipes] def deleted(file: SpillFile) {
+    spillFiles -= file
+  }
+
+  def decorate(plan: PlanDescription): PlanDescription =
+    if (!accounts.values.exists(_.spilledBytes > 0))
+      plan
+    else
+      plan.mapArgs {
+        p: PlanDescription => accounts.get(p.pipe) match {
+          case Some(account) if account.spilledBytes > 0 => p.args :+ "_spilled_bytes" -> PrimVal(account.spilledBytes)
+          case _                                         => p.args
+        }
+      }
+
+  /*
+  Removes spill files that were not read to the end, e.g. because the query failed or was not fully consumed
+   */
+  def close() {
+    spillFiles.toList.foreach(_.delete())
+  }
+}
+
+object QueryMemory {
+  val UNLIMITED = 0L
+
+  def unlimited = new QueryMemory(UNLIMITED)
+}
+
+/**
+ * The share of the query memory used by a single pipe
+ */
+class MemoryAccount(memory: QueryMemory, pipe: Pipe) {
+  private var used = 0L
+  private var _peakBytes = 0L
+  private var _peakRows = 0L
+  private var _spilledBytes = 0L
+
+  def isUnlimited: Boolean = memory.isUnlimited
+
+  def budget: Long = memory.budget
+
+  def inUse: Long = used
+
+  def peakBytes: Long = _peakBytes
+
+  def peakRows: Long = _peakRows
+
+  def spilledBytes: Long = _spilledBytes
+
+  def tryReserve(bytes: Long): Boolean =
+    if (memory.tryReserve(bytes)) {
+      use(bytes)
+      true
+    } else {
+      false
+    }
+
+  /*
+  Used when the caller has no choice but to keep the row in memory, e.g. when there is nothing left to spill
+   */
+  def reserve(bytes: Long) {
+    memory.reserve(bytes)
+    use(bytes)
+  }
+
+  def release(bytes: Long) {
+    memory.release(bytes)
+    used = math.max(0L, used - bytes)
+  }
+
+  def releaseWhenExhausted(bytes: Long, inner: Iterator[ExecutionContext]): Iterator[ExecutionContext] =
+    if (bytes == 0L)
+      inner
+    else
+      new Iterator[ExecutionContext] {
+        private var released = false
+
+        def hasNext: Boolean = {
+          val result = inner.hasNext
+          if (!result && !released) {
+            released = true
+            release(bytes)
+          }
+          result
+        }
+
+        def next(): ExecutionContext = inner.next()
+      }
+
+  /*
+  Records how many rows the pipe holds on to right now, so that the peak can be shown when profiling
+   */
+  def buffered(rows: Long) {
+    if (rows > _peakRows)
+      _peakRows = rows
+  }
+
+  def newSpillFile(): SpillFile = {
+    val file = new SpillFile(memory, this)
+    memory.created(file)
+    file
+  }
+
+  private[pipes] def spilled(bytes: Long) {
+    _spilledBytes += bytes
+  }
+
+  private def use(bytes: Long) {
+    used += bytes
+    if (used > _peakBytes)
+      _peakBytes = used
+  }
+}
@@ -30,7 +30,12 @@ case class QueryState(db: GraphDatabaseService,
                       params: Map[String, Any],
                       decorator: PipeDecorator,
                       var transaction: Option[Transaction] = None,
-                      timeReader: TimeReader = new TimeReader) {
+                      timeReader: TimeReader = new TimeReader,
+                      slots: Slots = Slots.empty,
+                      memory: QueryMemory = QueryMemory.unlimited,
+                      periodicCommit: Option[PeriodicCommit] = None,
+                      aggregationThreads: Int = 1,
+                      scanPartition: Option[ScanPartition] = None) {
   def readTimeStamp(): Long = timeReader.getTime
 
 
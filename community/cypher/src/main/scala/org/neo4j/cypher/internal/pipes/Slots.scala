@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.pipes
+
+import collection.mutable.{Map => MutableMap}
+
+/*
+Fixed offsets for the identifiers a query plan produces, so that rows can keep their values in arrays instead
+of hash maps. The offsets are assigned once when the plan is built and shared by the rows of every execution
+ */
+final class Slots private(offsets: Map[String, Int]) {
+  private val names: Array[String] = {
+    val result = new Array[String](offsets.size)
+    offsets.foreach {
+      case (name, offset) => result(offset) = name
+    }
+    result
+  }
+
+  def size: Int = names.length
+
+  def offsetOf(name: String): Int = offsets.getOrElse(name, -1)
+
+  def nameAt(offset: Int): String = names(offset)
+
+  override def toString = "Slots(" + names.mkString(", ") + ")"
+}
+
+object Slots {
+  val empty = new Slots(Map.empty)
+
+  def apply(identifiers: Iterable[String]): Slots = new Slots(identifiers.toSeq.distinct.zipWithIndex.toMap)
+
+  /*
+  Assigns a slot to every identifier produced anywhere in the pipe tree, not only to the ones that make it all
+  the way to the top
+   */
+  def forPipe(pipe: Pipe): Slots = {
+    def identifiers(p: Pipe): Seq[String] = p.symbols.keys ++ p.sources.flatMap(identifiers)
+
+    Slots(identifiers(pipe))
+  }
+}
+
+/*
+A row backed by an array with one value per slot. Copying a row is an array copy, no matter how many identifiers
+it has. Identifiers the slots don't know about, such as ones introduced by pipes outside of the plan tree, are
+kept in a map on the side
+ */
+final class SlottedMap private(slots: Slots, values: Array[Any], private var overflow: MutableMap[String, Any])
+  extends MutableMap[String, Any] {
+
+  import SlottedMap.Absent
+
+  def this(slots: Slots) = this(slots, Array.fill[Any](slots.size)(SlottedMap.Absent), null)
+
+  def get(key: String): Option[Any] = {
+    val offset = slots.offsetOf(key)
+    if (offset >= 0) {
+      val value = values(offset)
+      if (isAbsent(value)) None else Some(value)
+    } else if (overflow == null) {
+      None
+    } else {
+      overflow.get(key)
+    }
+  }
+
+  def +=(kv: (String, Any)) = {
+    val offset = slots.offsetOf(kv._1)
+    if (offset >= 0) {
+      values(offset) = kv._2
+    } else {
+      if (overflow == null)
+        overflow = MutableMaps.empty
+      overflow += kv
+    }
+    this
+  }
+
+  def -=(key: String) = {
+    val offset = slots.offsetOf(key)
+    if (offset >= 0)
+      values(offset) = Absent
+    else if (overflow != null)
+      overflow -= key
+    this
+  }
+
+  def iterator: Iterator[(String, Any)] = {
+    val inSlots = values.indices.iterator.
+      filterNot(offset => isAbsent(values(offset))).
+      map(offset => slots.nameAt(offset) -> values(offset))
+
+    if (overflow == null) inSlots else inSlots ++ overflow.iterator
+  }
+
+  override def size: Int = {
+    var result = if (overflow == null) 0 else overflow.size
+    var offset = 0
+    while (offset < values.length) {
+      if (!isAbsent(values(offset)))
+        result += 1
+      offset += 1
+    }
+    result
+  }
+
+  override def clone(): SlottedMap =
+    new SlottedMap(slots, values.clone(), if (overflow == null) null else MutableMaps.create(overflow))
+
+  def usesSlots(other: Slots): Boolean = slots eq other
+
+  /*
+  Direct access for code that resolved the offset of an identifier up front
+   */
+  def containsAt(offset: Int): Boolean = !isAbsent(values(offset))
+
+  def valueAt(offset: Int): Any = values(offset)
+
+  /*
+  An empty row using the same slots
+   */
+  def emptyCopy: SlottedMap = new SlottedMap(slots)
+
+  private def isAbsent(value: Any) = value.asInstanceOf[AnyRef] eq Absent
+}
+
+object SlottedMap {
+  private object Absent
+}
@@ -30,8 +30,7 @@ class SortPipe(source: Pipe, sortDescription: List[SortItem]) extends PipeWithSo
   def symbols = source.symbols
 
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) =
-    input.toList.
-      sortWith((a, b) => compareBy(a, b, sortDescription)).iterator
+    (new ExternalSorter(this, (a, b) => compareBy(a, b, sortDescription), state) ++= input).result
 
   def throwIfSymbolsMissing(symbols: SymbolTable) {
     sortDescription.foreach {
@@ -0,0 +1,297 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.pipes
+
+import java.io._
+import java.lang.reflect.{Array => ReflectArray}
+import org.neo4j.graphdb.{PropertyContainer, Path, Relationship, Node}
+import org.neo4j.cypher.{InternalException, PathImpl}
+import org.neo4j.cypher.internal.ExecutionContext
+import collection.JavaConverters._
+
+/**
+ * A temporary file that rows are written to in order, and later read back once. The file is removed when the rows
+ * have been read, or when the query is closed. It is not registered for deletion on exit, since the JVM would keep
+ * the name of every spill file of a long running database until it stops.
+ */
+class SpillFile(memory: QueryMemory, account: MemoryAccount) {
+  private val file = File.createTempFile("cypher-spill", ".tmp", memory.spillDirectory.orNull)
+
+  private var out: DataOutputStream =
+    new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), SpillFile.BUFFER_SIZE))
+  private var in: DataInputStream = null
+  private var rows = 0L
+
+  def rowCount: Long = rows
+
+  def write(row: ExecutionContext) {
+    RowSpilling.writeRow(out, row)
+    rows += 1
+  }
+
+  def read(state: QueryState): Iterator[ExecutionContext] = {
+    finishWriting()
+    in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), SpillFile.BUFFER_SIZE))
+
+    new Iterator[ExecutionContext] {
+      private var left = rows
+
+      def hasNext: Boolean = {
+        if (left == 0)
+          delete()
+        left > 0
+      }
+
+      def next(): ExecutionContext = {
+        if (left == 0)
+          throw new NoSuchElementException("No more rows in spill file")
+        left -= 1
+        RowSpilling.readRow(in, state)
+      }
+    }
+  }
+
+  def delete() {
+    if (out != null) {
+      out.close()
+      out = null
+    }
+    if (in != null) {
+      in.close()
+      in = null
+    }
+    file.delete()
+    memory.deleted(this)
+  }
+
+  /*
+  Closes the file for writing, so that a file that is done being written does not hold on to a file handle and
+  its write buffer until it is read
+   */
+  def finishWriting() {
+    if (out != null) {
+      out.close()
+      out = null
+      account.spilled(file.length())
+    }
+  }
+}
+
+object SpillFile {
+  val BUFFER_SIZE = 64 * 1024
+}
+
+/**
+ * Estimates how much heap rows take, and writes rows to and reads them from spill files. Nodes and relationships
+ * are written as ids and looked up again when read.
+ */
+object RowSpilling {
+  private val NULL: Byte = 0
+  private val BOOLEAN: Byte = 1
+  private val BYTE: Byte = 2
+  private val SHORT: Byte = 3
+  private val INT: Byte = 4
+  private val LONG: Byte = 5
+  private val FLOAT: Byte = 6
+  private val DOUBLE: Byte = 7
+  private val CHAR: Byte = 8
+  private val STRING: Byte = 9
+  private val NODE: Byte = 10
+  private val RELATIONSHIP: Byte = 11
+  private val PATH: Byte = 12
+  private val ARRAY: Byte = 13
+  private val COLLECTION: Byte = 14
+  private val MAP: Byte = 15
+  private val SERIALIZED: Byte = 16
+
+  private val REFERENCE_SIZE = 8
+  private val OBJECT_SIZE = 16
+  private val ENTITY_SIZE = 40
+
+  private val arrayTypes: Seq[(Byte, Class[_])] = Seq(
+    BOOLEAN -> java.lang.Boolean.TYPE,
+    BYTE -> java.lang.Byte.TYPE,
+    SHORT -> java.lang.Short.TYPE,
+    INT -> java.lang.Integer.TYPE,
+    LONG -> java.lang.Long.TYPE,
+    FLOAT -> java.lang.Float.TYPE,
+    DOUBLE -> java.lang.Double.TYPE,
+    CHAR -> java.lang.Character.TYPE,
+    STRING -> classOf[String])
+
+  def estimateSize(row: ExecutionContext): Long = {
+    var size: Long = OBJECT_SIZE * 2
+    row.foreach {
+      case (key, value) => size += REFERENCE_SIZE * 2 + estimateSize(value)
+    }
+    size
+  }
+
+  def estimateSize(value: Any): Long = value match {
+    case null                      => 0
+    case s: String                 => OBJECT_SIZE * 2 + 2 * s.length
+    case _: PropertyContainer      => ENTITY_SIZE
+    case p: Path                   => OBJECT_SIZE + (2L * p.length + 1) * (REFERENCE_SIZE + ENTITY_SIZE)
+    case m: collection.Map[_, _]   => OBJECT_SIZE * 2 + m.foldLeft(0L) {
+      case (acc, (k, v)) => acc + OBJECT_SIZE + estimateSize(k) + estimateSize(v)
+    }
+    case t: Traversable[_]         => OBJECT_SIZE + t.foldLeft(0L)((acc, v) => acc + REFERENCE_SIZE + estimateSize(v))
+    case a: Array[_]               => OBJECT_SIZE + a.foldLeft(0L)((acc, v) => acc + REFERENCE_SIZE + estimateSize(v))
+    case _                         => OBJECT_SIZE
+  }
+
+  def writeRow(out: DataOutputStream, row: ExecutionContext) {
+    out.writeInt(row.size)
+    row.foreach {
+      case (key, value) =>
+        out.writeUTF(key)
+        writeValue(out, value)
+    }
+  }
+
+  def readRow(in: DataInputStream, state: QueryState): ExecutionContext = {
+    val row = ExecutionContext.withSlots(state.slots)
+    var entries = in.readInt()
+    while (entries > 0) {
+      val key = in.readUTF()
+      row += key -> readValue(in, state)
+      entries -= 1
+    }
+    row
+  }
+
+  private def writeValue(out: DataOutputStream, value: Any) {
+    value match {
+      case null                 => out.writeByte(NULL)
+      case x: Boolean           => out.writeByte(BOOLEAN); out.writeBoolean(x)
+      case x: Byte              => out.writeByte(BYTE); out.writeByte(x)
+      case x: Short             => out.writeByte(SHORT); out.writeShort(x)
+      case x: Int               => out.writeByte(INT); out.writeInt(x)
+      case x: Long              => out.writeByte(LONG); out.writeLong(x)
+      case x: Float             => out.writeByte(FLOAT); out.writeFloat(x)
+      case x: Double            => out.writeByte(DOUBLE); out.writeDouble(x)
+      case x: Char              => out.writeByte(CHAR); out.writeChar(x)
+      case x: String            => out.writeByte(STRING); writeString(out, x)
+      case x: Node              => out.writeByte(NODE); out.writeLong(x.getId)
+      case x: Relationship      => out.writeByte(RELATIONSHIP); out.writeLong(x.getId)
+      case x: Path              =>
+        val entities = x.asScala.toSeq
+        out.writeByte(PATH)
+        out.writeInt(entities.size)
+        entities.foreach(writeValue(out, _))
+      case x: Array[_]          =>
+        out.writeByte(ARRAY)
+        out.writeByte(arrayTypeOf(x))
+        out.writeInt(x.length)
+        x.foreach(writeValue(out, _))
+      case x: collection.Map[_, _] =>
+        out.writeByte(MAP)
+        out.writeInt(x.size)
+        x.foreach {
+          case (k, v) =>
+            writeString(out, k.toString)
+            writeValue(out, v)
+        }
+      case x: Traversable[_]    =>
+        val elements = x.toSeq
+        out.writeByte(COLLECTION)
+        out.writeInt(elements.size)
+        elements.foreach(writeValue(out, _))
+      case x: java.io.Serializable =>
+        val bytes = new ByteArrayOutputStream()
+        val objects = new ObjectOutputStream(bytes)
+        objects.writeObject(x)
+        objects.close()
+        out.writeByte(SERIALIZED)
+        out.writeInt(bytes.size())
+        bytes.writeTo(out)
+      case x                    =>
+        throw new InternalException("Can't spill values of type " + x.getClass.getName + " to disk. " +
+          "Consider raising query_memory_budget.")
+    }
+  }
+
+  private def readValue(in: DataInputStream, state: QueryState): Any = in.readByte() match {
+    case NULL         => null
+    case BOOLEAN      => in.readBoolean()
+    case BYTE         => in.readByte()
+    case SHORT        => in.readShort()
+    case INT          => in.readInt()
+    case LONG         => in.readLong()
+    case FLOAT        => in.readFloat()
+    case DOUBLE       => in.readDouble()
+    case CHAR         => in.readChar()
+    case STRING       => readString(in)
+    case NODE         => state.query.nodeOps.getById(in.readLong())
+    case RELATIONSHIP => state.query.relationshipOps.getById(in.readLong())
+    case PATH         =>
+      val entities = readSeq(in, state).map(_.asInstanceOf[PropertyContainer])
+      PathImpl(entities: _*)
+    case ARRAY        =>
+      val arrayType = in.readByte()
+      val componentType = arrayTypes.find(_._1 == arrayType).map(_._2).getOrElse(classOf[AnyRef])
+      val length = in.readInt()
+      val array = ReflectArray.newInstance(componentType, length)
+      var i = 0
+      while (i < length) {
+        ReflectArray.set(array, i, readValue(in, state))
+        i += 1
+      }
+      array
+    case MAP          =>
+      var entries = in.readInt()
+      val map = Map.newBuilder[String, Any]
+      while (entries > 0) {
+        map += readString(in) -> readValue(in, state)
+        entries -= 1
+      }
+      map.result()
+    case COLLECTION   => readSeq(in, state)
+    case SERIALIZED   =>
+      val bytes = new Array[Byte](in.readInt())
+      in.readFully(bytes)
+      new ObjectInputStream(new ByteArrayInputStream(bytes)).readObject()
+    case tag          => throw new InternalException("Unknown value type in spill file: " + tag)
+  }
+
+  private def readSeq(in: DataInputStream, state: QueryState): List[Any] = {
+    val length = in.readInt()
+    List.fill(length)(readValue(in, state))
+  }
+
+  private def arrayTypeOf(array: Array[_]): Byte =
+    arrayTypes.find(_._2 == array.getClass.getComponentType).map(_._1).getOrElse(NULL)
+
+  // writeUTF can't handle strings longer than 64k
+  private def writeString(out: DataOutputStream, s: String) {
+    out.writeInt(s.length)
+    out.writeChars(s)
+  }
+
+  private def readString(in: DataInputStream): String = {
+    val chars = new Array[Char](in.readInt())
+    var i = 0
+    while (i < chars.length) {
+      chars(i) = in.readChar()
+      i += 1
+    }
+    new String(chars)
+  }
+}
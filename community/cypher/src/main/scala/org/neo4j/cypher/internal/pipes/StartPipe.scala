@@ -31,13 +31,28 @@ abstract class StartPipe[T <: PropertyContainer](source: Pipe, name: String, cre
 
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) = {
     input.flatMap(ctx => {
-      val source = createSource(ctx, state)
+      val source = entities(ctx, state)
       source.map(x => {
         ctx.newWith(name -> x)
       })
     })
   }
 
+  /*
+  A periodic commit closes the index and label scan readers of the transaction it commits, so under periodic commit
+  the entities are all read before the first of them is handed on, and thereby before the next commit.
+   */
+  private def entities(ctx: ExecutionContext, state: QueryState): Iterator[T] = {
+    val source = createSource(ctx, state)
+    if (state.periodicCommit.isEmpty) {
+      source
+    } else {
+      val entities = source.toList
+      state.memory.account(this).buffered(entities.size)
+      entities.iterator
+    }
+  }
+
   override def executionPlanDescription = {
     val description = createSource.description :+ (("identifier" -> fromStr(name)))
     source.executionPlanDescription
@@ -47,9 +62,19 @@ abstract class StartPipe[T <: PropertyContainer](source: Pipe, name: String, cre
   def throwIfSymbolsMissing(symbols: SymbolTable) {}
 }
 
-class NodeStartPipe(source: Pipe, name: String, createSource: EntityProducer[Node])
+class NodeStartPipe(source: Pipe, name: String, val createSource: EntityProducer[Node])
   extends StartPipe[Node](source, name, createSource) {
   def identifierType = NodeType()
+
+  // When the query is aggregated in parallel, every thread only produces the nodes of its own partition
+  override protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) =
+    state.scanPartition match {
+      case Some(partition) if partition.start eq this =>
+        input.flatMap(ctx => partition.nodes.iterator.map(node => ctx.newWith(name -> node)))
+
+      case _ =>
+        super.internalCreateResults(input, state)
+    }
 }
 
 class RelationshipStartPipe(source: Pipe, name: String, createSource: EntityProducer[Relationship])
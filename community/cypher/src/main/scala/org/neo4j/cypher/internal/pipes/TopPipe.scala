@@ -28,16 +28,19 @@ import org.neo4j.cypher.internal.data.SimpleVal
 
 /*
  * TopPipe is used when a query does a ORDER BY ... LIMIT query. Instead of ordering the whole result set and then
- * returning the matching top results, we only keep the top results in heap, which allows us to release memory earlier
+ * returning the matching top results, we only keep the top results in heap, which allows us to release memory earlier.
+ * If the top results don't fit in the query memory budget, all rows are sorted by an ExternalSorter instead.
  */
 class TopPipe(source: Pipe, sortDescription: List[SortItem], countExpression: Expression) extends PipeWithSource(source) with ExecutionContextComparer {
   protected def internalCreateResults(input:Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
     implicit val s = state
+    val memory = state.memory.account(this)
     var result = new ListBuffer[ExecutionContext]()
     var last: Option[ExecutionContext] = None
     val largerThanLast = (ctx: ExecutionContext) => last.forall(s => compareBy(s, ctx, sortDescription))
     var size = 0
     var sorted = false
+    var reservedBytes = 0L
 
     if (input.isEmpty)
       Iterator.empty
@@ -46,33 +49,49 @@ class TopPipe(source: Pipe, sortDescription: List[SortItem], countExpression: Ex
       val count = countExpression(first).asInstanceOf[Number].intValue()
 
       val iter = new HeadAndTail(first, input)
-      iter.foreach {
-        case ctx =>
+      while (iter.hasNext) {
+        val ctx = iter.next()
 
-          if (size < count) {
-            result += ctx
-            size += 1
-
-            if (largerThanLast(ctx)) {
-              last = Some(ctx)
-            }
-          } else
-            if (!largerThanLast(ctx)) {
-              result -= last.get
-              result += ctx
-              result = result.sortWith((a, b) => compareBy(a, b, sortDescription))
-              sorted = true
-              last = Some(result.last)
+        if (size < count) {
+          if (!memory.isUnlimited) {
+            val rowSize = RowSpilling.estimateSize(ctx)
+            if (!memory.tryReserve(rowSize)) {
+              // The limit is too large to keep the top rows in memory, so sort everything externally instead
+              memory.release(reservedBytes)
+              val sorter = new ExternalSorter(this, (a, b) => compareBy(a, b, sortDescription), state)
+              sorter ++= result
+              sorter.add(ctx)
+              sorter ++= iter
+              return sorter.take(count)
             }
+            reservedBytes += rowSize
+          }
+
+          result += ctx
+          size += 1
+
+          if (largerThanLast(ctx)) {
+            last = Some(ctx)
+          }
+        } else
+          if (!largerThanLast(ctx)) {
+            result -= last.get
+            result += ctx
+            result = result.sortWith((a, b) => compareBy(a, b, sortDescription))
+            sorted = true
+            last = Some(result.last)
+          }
       }
     }
 
+    memory.buffered(result.size)
+
     if (!sorted) {
       result = result.sortWith((a, b) => compareBy(a, b, sortDescription))
     }
 
 
-    result.toIterator
+    memory.releaseWhenExhausted(reservedBytes, result.toIterator)
   }
 
   def executionPlanDescription =
@@ -39,3 +39,14 @@ abstract class AggregationFunction {
   def result: Any
 }
 
+
+/**
+ * An aggregation function whose state can be built over separate parts of the input and then combined.
+ * Merging is done in input order, so the other function saw rows that come after the ones this function saw.
+ */
+trait MergeableAggregationFunction extends AggregationFunction {
+  /**
+   * Adds the aggregated state of another function of the same kind to this one.
+   */
+  def merge(other: AggregationFunction)
+}
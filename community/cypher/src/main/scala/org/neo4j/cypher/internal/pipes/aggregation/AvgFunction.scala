@@ -25,7 +25,7 @@ import org.neo4j.cypher.internal.ExecutionContext
 import org.neo4j.cypher.internal.pipes.QueryState
 
 class AvgFunction(val value: Expression)
-  extends AggregationFunction
+  extends MergeableAggregationFunction
   with TypeSafeMathSupport
   with NumericExpressionOnly {
 
@@ -46,4 +46,10 @@ class AvgFunction(val value: Expression)
       sofar = plus(sofar, number)
     })
   }
+
+  def merge(other: AggregationFunction) {
+    val avg = other.asInstanceOf[AvgFunction]
+    count += avg.count
+    sofar = plus(sofar, avg.sofar)
+  }
 }
\ No newline at end of file
@@ -25,7 +25,7 @@ import org.neo4j.cypher.internal.ExecutionContext
 import org.neo4j.cypher.internal.pipes.QueryState
 
 
-class CollectFunction(value:Expression) extends AggregationFunction {
+class CollectFunction(value:Expression) extends MergeableAggregationFunction {
   val collection = new ListBuffer[Any]()
 
   def apply(data: ExecutionContext)(implicit state:QueryState) {
@@ -36,4 +36,8 @@ class CollectFunction(value:Expression) extends AggregationFunction {
   }
 
   def result: Any = collection.toSeq
+
+  def merge(other: AggregationFunction) {
+    collection ++= other.asInstanceOf[CollectFunction].collection
+  }
 }
\ No newline at end of file
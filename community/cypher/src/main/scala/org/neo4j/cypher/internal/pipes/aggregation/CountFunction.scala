@@ -23,7 +23,7 @@ import org.neo4j.cypher.internal.commands.expressions.Expression
 import org.neo4j.cypher.internal.ExecutionContext
 import org.neo4j.cypher.internal.pipes.QueryState
 
-class CountFunction(value: Expression) extends AggregationFunction {
+class CountFunction(value: Expression) extends MergeableAggregationFunction {
   var count: Long = 0
 
   def apply(data: ExecutionContext)(implicit state: QueryState) {
@@ -34,4 +34,8 @@ class CountFunction(value: Expression) extends AggregationFunction {
   }
 
   def result: Long = count
+
+  def merge(other: AggregationFunction) {
+    count += other.asInstanceOf[CountFunction].count
+  }
 }
\ No newline at end of file
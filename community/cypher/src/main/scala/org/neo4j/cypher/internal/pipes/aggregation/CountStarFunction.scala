@@ -21,7 +21,7 @@ package org.neo4j.cypher.internal.pipes.aggregation
 import org.neo4j.cypher.internal.ExecutionContext
 import org.neo4j.cypher.internal.pipes.QueryState
 
-class CountStarFunction extends AggregationFunction {
+class CountStarFunction extends MergeableAggregationFunction {
   var count:Long = 0
 
   def apply(data: ExecutionContext)(implicit state: QueryState) {
@@ -29,5 +29,9 @@ class CountStarFunction extends AggregationFunction {
   }
 
   def result: Long = count
+
+  def merge(other: AggregationFunction) {
+    count += other.asInstanceOf[CountStarFunction].count
+  }
 }
 
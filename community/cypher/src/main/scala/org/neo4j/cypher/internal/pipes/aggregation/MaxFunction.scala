@@ -25,7 +25,7 @@ import org.neo4j.cypher.internal.commands.expressions.Expression
 import org.neo4j.cypher.SyntaxException
 import org.neo4j.cypher.internal.pipes.QueryState
 
-trait MinMax extends AggregationFunction with Comparer {
+trait MinMax extends MergeableAggregationFunction with Comparer {
   def value: Expression
   def keep(comparisonResult: Int): Boolean
 
@@ -41,6 +41,13 @@ trait MinMax extends AggregationFunction with Comparer {
     }
   }
 
+  def merge(other: AggregationFunction) {
+    other.result match {
+      case null =>
+      case x    => checkIfLargest(x)
+    }
+  }
+
   private def checkIfLargest(value: Any) {
     if (biggestSeen == null) {
       biggestSeen = value
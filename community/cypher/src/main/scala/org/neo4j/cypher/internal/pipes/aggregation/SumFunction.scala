@@ -25,7 +25,7 @@ import org.neo4j.cypher.internal.ExecutionContext
 import org.neo4j.cypher.internal.pipes.QueryState
 
 class SumFunction(val value: Expression)
-  extends AggregationFunction
+  extends MergeableAggregationFunction
   with TypeSafeMathSupport
   with NumericExpressionOnly {
 
@@ -38,4 +38,8 @@ class SumFunction(val value: Expression)
       result = plus(result, number)
     })
   }
+
+  def merge(other: AggregationFunction) {
+    result = plus(result, other.result)
+  }
 }
\ No newline at end of file
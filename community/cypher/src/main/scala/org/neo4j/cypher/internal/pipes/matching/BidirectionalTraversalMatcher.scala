@@ -44,12 +44,20 @@ class BidirectionalTraversalMatcher(steps: ExpanderStep,
   }
   val baseTraversal: TraversalDescription = Traversal.traversal(Uniqueness.RELATIONSHIP_PATH)
   val collisionDetector = new StepCollisionDetector
+  val varLengthStep = VarLengthPathSearch.canSearch(steps)
 
   def findMatchingPaths(state: QueryState, context: ExecutionContext): Iterator[Path] = {
     // TODO memory waste
     val s = start(context, state).toList
     val e = end(context, state).toList
 
+    varLengthStep match {
+      case Some(step) => new VarLengthPathSearch(step, state, s, e).paths
+      case None       => traverse(state, context, s, e)
+    }
+  }
+
+  private def traverse(state: QueryState, context: ExecutionContext, s: List[Node], e: List[Node]): Iterator[Path] = {
     def produceTraversalDescriptions() = {
       val startWithoutCutoff = baseTraversal.expand(new TraversalPathExpander(context, state), initialStartStep)
       val endWithoutCutOff = baseTraversal.expand(new TraversalPathExpander(context, state), initialEndStep)
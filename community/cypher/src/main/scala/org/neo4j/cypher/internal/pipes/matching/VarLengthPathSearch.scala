@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.pipes.matching
+
+import org.neo4j.graphdb.{PropertyContainer, Direction, Relationship, Path, Node}
+import org.neo4j.cypher.internal.pipes.QueryState
+import org.neo4j.cypher.internal.commands.True
+import org.neo4j.cypher.PathImpl
+import collection.mutable.ArrayBuffer
+import org.neo4j.kernel.impl.util.PrimitiveLongSet
+
+/*
+Finds the paths of a single, bounded variable length step between bound start and end nodes.
+
+First, the nodes within half of the maximum length of the end nodes are found, one depth at a time. Paths are then
+expanded from the start nodes, and a branch is only followed into a node if that node could still reach an end node
+in the length that is left. The two searches meet in the middle - the second half of every path expanded from the
+start is checked against what was found from the end.
+
+A node that was expanded at some depth without finding a path, and without running into relationships already used
+on the path, can't lead to a path from that depth no matter how it was reached. Such nodes are remembered per depth
+and not expanded again.
+ */
+class VarLengthPathSearch(step: VarLengthStep, state: QueryState, start: Seq[Node], end: Seq[Node]) {
+  private val min = step.min
+  private val max = step.max.getOrElse(throw new IllegalArgumentException("Only bounded steps can be searched"))
+  private val endDepth = (max + 1) / 2
+
+  private val endIds = new PrimitiveLongSet
+  end.foreach(n => endIds.add(n.getId))
+
+  private val nearEnd: Array[PrimitiveLongSet] = nodesNearEnd()
+  private val exhausted: Array[PrimitiveLongSet] = Array.fill(max + 1)(new PrimitiveLongSet)
+
+  def paths: Iterator[Path] =
+    if (endIds.isEmpty) Iterator.empty else start.iterator.flatMap(new PathIterator(_))
+
+  /*
+  nearEnd(d) holds the nodes whose shortest distance to an end node is d. Relationships may be used more than once
+  here, so the distance is never larger than that of a real path
+   */
+  private def nodesNearEnd(): Array[PrimitiveLongSet] = {
+    val levels = Array.fill(endDepth + 1)(new PrimitiveLongSet)
+    val seen = new PrimitiveLongSet
+    var frontier: Seq[Node] = end.filter(n => seen.add(n.getId))
+    frontier.foreach(n => levels(0).add(n.getId))
+
+    var depth = 1
+    while (depth <= endDepth && frontier.nonEmpty) {
+      val next = new ArrayBuffer[Node]()
+      frontier.foreach(node => relationshipsOf(node, step.direction.reverse()).foreach(r => {
+        val other = r.getOtherNode(node)
+        if (seen.add(other.getId)) {
+          levels(depth).add(other.getId)
+          next += other
+        }
+      }))
+      frontier = next
+      depth += 1
+    }
+
+    levels
+  }
+
+  private def canReachEnd(node: Node, length: Int): Boolean =
+    length > endDepth || (0 to length).exists(d => nearEnd(d).contains(node.getId))
+
+  private def relationshipsOf(node: Node, direction: Direction): Iterator[Relationship] =
+    state.query.getRelationshipsFor(node, direction, step.typ)
+
+  private class Frame(val node: Node, val depth: Int) {
+    val relationships: Iterator[Relationship] =
+      if (depth < max) relationshipsOf(node, step.direction) else Iterator.empty
+    var found = false
+    var blocked = false
+  }
+
+  private class PathIterator(startNode: Node) extends Iterator[Path] {
+    private val frames = new ArrayBuffer[Frame]()
+    private val rels = new ArrayBuffer[Relationship]()
+    private var nextPath: Path = null
+
+    enter(startNode, 0)
+
+    def hasNext: Boolean = {
+      if (nextPath == null)
+        advance()
+      nextPath != null
+    }
+
+    def next(): Path = {
+      if (!hasNext)
+        throw new NoSuchElementException("No more paths")
+      val path = nextPath
+      nextPath = null
+      path
+    }
+
+    private def enter(node: Node, depth: Int) {
+      val frame = new Frame(node, depth)
+      frames += frame
+      if (depth >= min && endIds.contains(node.getId)) {
+        frame.found = true
+        nextPath = currentPath
+      }
+    }
+
+    private def advance() {
+      while (nextPath == null && frames.nonEmpty) {
+        val frame = frames.last
+        if (frame.relationships.hasNext) {
+          val r = frame.relationships.next()
+          if (rels.contains(r)) {
+            frame.blocked = true
+          } else {
+            val other = r.getOtherNode(frame.node)
+            val depth = frame.depth + 1
+            if (canReachEnd(other, max - depth) && !exhausted(depth).contains(other.getId)) {
+              rels += r
+              enter(other, depth)
+            }
+          }
+        } else {
+          leave()
+        }
+      }
+    }
+
+    private def leave() {
+      val frame = frames.remove(frames.size - 1)
+      if (rels.nonEmpty)
+        rels.remove(rels.size - 1)
+
+      if (!frame.found && !frame.blocked)
+        exhausted(frame.depth).add(frame.node.getId)
+
+      if (frames.nonEmpty) {
+        val parent = frames.last
+        parent.found = parent.found || frame.found
+        parent.blocked = parent.blocked || frame.blocked
+      }
+    }
+
+    private def currentPath: Path = {
+      val entities = new ArrayBuffer[PropertyContainer](rels.size * 2 + 1)
+      entities += frames(0).node
+      rels.indices.foreach(i => {
+        entities += rels(i)
+        entities += frames(i + 1).node
+      })
+      PathImpl(entities: _*)
+    }
+  }
+}
+
+object VarLengthPathSearch {
+  /*
+  Only a lone, bounded variable length step without predicates is searched this way. Longer trails are left to the
+  traversal framework
+   */
+  def canSearch(steps: ExpanderStep): Option[VarLengthStep] = steps match {
+    case step@VarLengthStep(_, _, _, min, Some(_), None, True(), True()) if min > 0 => Some(step)
+    case _                                                                        => None
+  }
+}
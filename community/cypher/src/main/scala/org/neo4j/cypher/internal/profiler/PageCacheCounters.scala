@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.profiler
+
+import org.neo4j.graphdb.GraphDatabaseService
+import org.neo4j.kernel.GraphDatabaseAPI
+import org.neo4j.kernel.impl.transaction.XaDataSourceManager
+import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource
+
+/**
+ * Reads the number of page cache hits and misses so far, summed over all store files. The profiler samples these
+ * every time it switches between pipes, so reading them has to be cheap
+ */
+trait PageCacheCounters {
+  def current: (Long, Long)
+}
+
+object PageCacheCounters {
+  val NONE = new PageCacheCounters {
+    def current = (0L, 0L)
+  }
+
+  def apply(graph: GraphDatabaseService): PageCacheCounters = graph match {
+    case db: GraphDatabaseAPI =>
+      val dataSource = db.getDependencyResolver.resolveDependency(classOf[XaDataSourceManager]).getNeoStoreDataSource
+      if (dataSource == null) NONE else new WindowPoolCounters(dataSource)
+
+    case _ => NONE
+  }
+}
+
+class WindowPoolCounters(dataSource: NeoStoreXaDataSource) extends PageCacheCounters {
+  def current: (Long, Long) = (dataSource.getWindowPoolHitCount, dataSource.getWindowPoolMissCount)
+}
@@ -19,7 +19,7 @@
  */
 package org.neo4j.cypher.internal.profiler
 
-import org.neo4j.cypher.internal.pipes.{QueryState, Pipe, PipeDecorator}
+import org.neo4j.cypher.internal.pipes.{QueryMemory, QueryState, Pipe, PipeDecorator}
 import org.neo4j.cypher.internal.ExecutionContext
 import org.neo4j.cypher.internal.spi.{DelegatingOperations, Operations, QueryContext, DelegatingQueryContext}
 import collection.mutable
@@ -27,14 +27,21 @@ import org.neo4j.cypher.{ProfilerStatisticsNotReadyException, PlanDescription}
 import org.neo4j.graphdb.{PropertyContainer, Direction, Relationship, Node}
 import org.neo4j.cypher.internal.data.PrimVal
 
-class Profiler extends PipeDecorator {
+class Profiler(pageCache: PageCacheCounters = PageCacheCounters.NONE) extends PipeDecorator {
 
   val contextStats: mutable.Map[Pipe, ProfilingQueryContext] = mutable.Map.empty
   val iterStats: mutable.Map[Pipe, ProfilingIterator] = mutable.Map.empty
+  val timings: mutable.Map[Pipe, Measurement] = mutable.Map.empty
 
+  // The measurements of the pipes that are currently doing work, innermost on top
+  private val running = mutable.Stack[Measurement]()
+  private var memory: QueryMemory = null
 
   def decorate(pipe: Pipe, iter: Iterator[ExecutionContext]): Iterator[ExecutionContext] = {
-    val resultIter = new ProfilingIterator(iter)
+    val measurement = timings(pipe)
+    exit(measurement)
+
+    val resultIter = new ProfilingIterator(iter, this, measurement)
 
     assert(!iterStats.contains(pipe), "Can't profile the same iterator twice")
 
@@ -52,6 +59,13 @@ class Profiler extends PipeDecorator {
     }
 
     contextStats(pipe) = decoratedContext
+    memory = state.memory
+
+    // Creating the results of a pipe is measured too, since that is where eager pipes do their work
+    val measurement = new Measurement
+    timings(pipe) = measurement
+    enter(measurement)
+
     state.copy(inner = decoratedContext)
   }
 
@@ -62,13 +76,74 @@ class Profiler extends PipeDecorator {
       if ( ! isProfileReady )
         throw new ProfilerStatisticsNotReadyException()
 
-      val newArgs = p.args :+ "_rows" -> PrimVal(iteratorStats.count)
+      val measurement = timings(p.pipe)
+      val newArgs = p.args ++ Seq(
+        "_rows" -> PrimVal(iteratorStats.count),
+        "_self_time" -> PrimVal(measurement.nanos),
+        "_total_time" -> PrimVal(totalNanos(p)),
+        "_page_hits" -> PrimVal(measurement.pageHits),
+        "_page_misses" -> PrimVal(measurement.pageMisses))
 
-      contextStats.get(p.pipe) match {
+      val withDbHits = contextStats.get(p.pipe) match {
         case Some(stats) => newArgs :+ "_db_hits" -> PrimVal(stats.count)
         case None        => newArgs
       }
 
+      Option(memory).flatMap(_.accountOf(p.pipe)) match {
+        case Some(account) if account.peakBytes > 0 =>
+          withDbHits ++ Seq("_peak_rows" -> PrimVal(account.peakRows), "_peak_bytes" -> PrimVal(account.peakBytes))
+        case Some(account)                          =>
+          withDbHits :+ "_peak_rows" -> PrimVal(account.peakRows)
+        case None                                   =>
+          withDbHits
+      }
+  }
+
+  private def totalNanos(plan: PlanDescription): Long =
+    timings.get(plan.pipe).map(_.nanos).getOrElse(0L) + plan.children.map(totalNanos).sum
+
+  /*
+  Time and page cache activity are attributed to the innermost pipe doing work, so when a pipe pulls rows from its
+  source, the measurement of the pipe is paused until the source returns.
+   */
+  private[profiler] def enter(measurement: Measurement) {
+    val now = sample()
+    if (running.nonEmpty)
+      running.top.pause(now)
+    running.push(measurement)
+    measurement.resume(now)
+  }
+
+  private[profiler] def exit(measurement: Measurement) {
+    val now = sample()
+    measurement.pause(now)
+    running.pop()
+    if (running.nonEmpty)
+      running.top.resume(now)
+  }
+
+  private def sample() = {
+    val (pageHits, pageMisses) = pageCache.current
+    Sample(System.nanoTime(), pageHits, pageMisses)
+  }
+}
+
+case class Sample(nanos: Long, pageHits: Long, pageMisses: Long)
+
+class Measurement {
+  var nanos = 0L
+  var pageHits = 0L
+  var pageMisses = 0L
+  private var resumedAt: Sample = null
+
+  def resume(now: Sample) {
+    resumedAt = now
+  }
+
+  def pause(now: Sample) {
+    nanos += now.nanos - resumedAt.nanos
+    pageHits += now.pageHits - resumedAt.pageHits
+    pageMisses += now.pageMisses - resumedAt.pageMisses
   }
 }
 
@@ -150,12 +225,25 @@ class ProfilingQueryContext(val inner: QueryContext, val p: Pipe) extends Delega
   override def relationshipOps: Operations[Relationship] = new ProfilerOperations(inner.relationshipOps)
 }
 
-class ProfilingIterator(inner: Iterator[ExecutionContext]) extends Iterator[ExecutionContext] with Counter {
+class ProfilingIterator(inner: Iterator[ExecutionContext], profiler: Profiler, measurement: Measurement)
+  extends Iterator[ExecutionContext] with Counter {
 
-  def hasNext: Boolean = inner.hasNext
+  def hasNext: Boolean = {
+    profiler.enter(measurement)
+    try {
+      inner.hasNext
+    } finally {
+      profiler.exit(measurement)
+    }
+  }
 
   def next(): ExecutionContext = {
     increment()
-    inner.next()
+    profiler.enter(measurement)
+    try {
+      inner.next()
+    } finally {
+      profiler.exit(measurement)
+    }
   }
-}
\ No newline at end of file
+}
@@ -32,6 +32,14 @@ class DelegatingQueryContext(inner: QueryContext) extends QueryContext {
     inner.close(success)
   }
 
+  def commitAndRestartTx() {
+    inner.commitAndRestartTx()
+  }
+
+  def isTopLevelTx: Boolean = inner.isTopLevelTx
+
+  def newReadOnlyContext(): QueryContext = inner.newReadOnlyContext()
+
   def createNode() = inner.createNode()
 
   def createRelationship(start: Node, end: Node, relType: String) = inner.createRelationship(start, end, relType)
@@ -70,6 +78,15 @@ class DelegatingQueryContext(inner: QueryContext) extends QueryContext {
 
   def exactIndexSearch(index: IndexDescriptor, value: Any): Iterator[Node] = inner.exactIndexSearch(index, value)
 
+  def rangeIndexSearch(index: IndexDescriptor, lower: Option[Number], includeLower: Boolean,
+                       upper: Option[Number], includeUpper: Boolean): Iterator[Node] =
+    inner.rangeIndexSearch(index, lower, includeLower, upper, includeUpper)
+
+  def prefixIndexSearch(index: IndexDescriptor, prefix: String): Iterator[Node] =
+    inner.prefixIndexSearch(index, prefix)
+
+  def anyIndexSearch(index: IndexDescriptor, values: Seq[Any]): Iterator[Node] = inner.anyIndexSearch(index, values)
+
   def getNodesByLabel(id: Long): Iterator[Node] = inner.getNodesByLabel(id)
 
   def upgrade(context: QueryContext): LockingQueryContext = inner.upgrade(context)
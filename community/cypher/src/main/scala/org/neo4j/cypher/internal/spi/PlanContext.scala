@@ -38,5 +38,17 @@ trait PlanContext extends TokenContext {
   def checkNodeIndex(idxName: String)
 
   def checkRelIndex(idxName: String)
+
+  /*
+  Committed counts, used for estimating how many rows a start point or an expansion will produce. They don't
+  reflect the changes of the running transaction, and unknown labels and types simply have no entities.
+   */
+  def nodeCount: Long
+
+  def nodeCountByLabel(labelName: String): Long
+
+  def relationshipCount: Long
+
+  def relationshipCountByType(relTypeName: String): Long
 }
 
@@ -65,8 +65,31 @@ trait QueryContext extends TokenContext {
 
   def close(success: Boolean)
 
+  /**
+   * Commits everything done so far and continues in a new transaction. Used by periodic commit queries.
+   */
+  def commitAndRestartTx()
+
+  /**
+   * False when the query runs inside a transaction that was started by someone else.
+   */
+  def isTopLevelTx: Boolean
+
+  /**
+   * Starts a new transaction on the calling thread and returns a context reading through it. Used by queries that
+   * read on more than one thread. Closing the returned context finishes its transaction.
+   */
+  def newReadOnlyContext(): QueryContext
+
   def exactIndexSearch(index: IndexDescriptor, value: Any): Iterator[Node]
 
+  def rangeIndexSearch(index: IndexDescriptor, lower: Option[Number], includeLower: Boolean,
+                       upper: Option[Number], includeUpper: Boolean): Iterator[Node]
+
+  def prefixIndexSearch(index: IndexDescriptor, prefix: String): Iterator[Node]
+
+  def anyIndexSearch(index: IndexDescriptor, values: Seq[Any]): Iterator[Node]
+
   def getNodesByLabel(id: Long): Iterator[Node]
 
   def upgradeToLockingQueryContext: LockingQueryContext = upgrade(this)
@@ -31,6 +31,9 @@ import org.neo4j.kernel.api.StatementOperations
 import org.neo4j.kernel.api.StatementOperationParts
 import org.neo4j.kernel.api.operations.KeyReadOperations
 import org.neo4j.kernel.api.operations.SchemaReadOperations
+import org.neo4j.kernel.api.statistics.GraphStatistics
+import org.neo4j.kernel.impl.core.RelationshipTypeTokenHolder
+import org.neo4j.kernel.GraphDatabaseAPI
 
 class TransactionBoundPlanContext(keyReadOps: KeyReadOperations, schemaReadOps: SchemaReadOperations, state: StatementState, gdb:GraphDatabaseService)
   extends TransactionBoundTokenContext(keyReadOps, state) with PlanContext {
@@ -69,4 +72,24 @@ class TransactionBoundPlanContext(keyReadOps: KeyReadOperations, schemaReadOps:
       throw new MissingIndexException(idxName)
     }
   }
+
+  private lazy val resolver = gdb.asInstanceOf[GraphDatabaseAPI].getDependencyResolver
+
+  private lazy val statistics = resolver.resolveDependency(classOf[GraphStatistics])
+
+  def nodeCount: Long = statistics.nodeCount()
+
+  def nodeCountByLabel(labelName: String): Long = try {
+    statistics.nodeCountWithLabel(keyReadOps.labelGetForName(state, labelName))
+  } catch {
+    case _: KernelException => 0
+  }
+
+  def relationshipCount: Long = statistics.relationshipCount()
+
+  def relationshipCountByType(relTypeName: String): Long =
+    Option(resolver.resolveDependency(classOf[RelationshipTypeTokenHolder]).getTokenByNameOrNull(relTypeName)) match {
+      case Some(token) => statistics.relationshipCountWithType(token.id())
+      case None        => 0
+    }
 }
\ No newline at end of file
@@ -21,7 +21,7 @@ package org.neo4j.cypher.internal.spi.gdsimpl
 
 import org.neo4j.cypher.internal.spi._
 import org.neo4j.graphdb._
-import org.neo4j.kernel.{ThreadToStatementContextBridge, GraphDatabaseAPI}
+import org.neo4j.kernel.{PlaceboTransaction, ThreadToStatementContextBridge, GraphDatabaseAPI}
 import org.neo4j.kernel.api._
 import collection.JavaConverters._
 import org.neo4j.graphdb.DynamicRelationshipType.withName
@@ -39,8 +39,8 @@ import scala.collection.Iterator
 import org.neo4j.cypher.internal.helpers.JavaConversionSupport
 import org.neo4j.cypher.internal.helpers.JavaConversionSupport.mapToScala
 
-class TransactionBoundQueryContext(graph: GraphDatabaseAPI, tx: Transaction,
-                                   ctx: StatementOperationParts, theState: StatementState)
+class TransactionBoundQueryContext(graph: GraphDatabaseAPI, private var tx: Transaction,
+                                   private var ctx: StatementOperationParts, private var theState: StatementState)
   extends TransactionBoundTokenContext(ctx.keyReadOperations, theState) with QueryContext {
 
   private var open = true
@@ -64,6 +64,33 @@ class TransactionBoundQueryContext(graph: GraphDatabaseAPI, tx: Transaction,
     }
   }
 
+  def commitAndRestartTx() {
+    theState.close()
+    tx.success()
+    tx.finish()
+
+    tx = graph.beginTx()
+    val bridge = graph.getDependencyResolver.resolveDependency(classOf[ThreadToStatementContextBridge])
+    ctx = bridge.getCtxForWriting
+    theState = bridge.statementForWriting
+    useStatement(ctx.keyReadOperations, theState)
+  }
+
+  def isTopLevelTx = !tx.isInstanceOf[PlaceboTransaction]
+
+  def newReadOnlyContext(): QueryContext = {
+    val tx = graph.beginTx()
+    try {
+      val bridge = graph.getDependencyResolver.resolveDependency(classOf[ThreadToStatementContextBridge])
+      new TransactionBoundQueryContext(graph, tx, bridge.getCtxForReading, bridge.statementForReading)
+    }
+    catch {
+      case (t: Throwable) =>
+        tx.finish()
+        throw t
+    }
+  }
+
   def withAnyOpenQueryContext[T](work: (QueryContext) => T): T = {
     if (open) {
       work(this)
@@ -115,6 +142,17 @@ class TransactionBoundQueryContext(graph: GraphDatabaseAPI, tx: Transaction,
   def exactIndexSearch(index: IndexDescriptor, value: Any) =
     mapToScala( ctx.entityReadOperations.nodesGetFromIndexLookup(theState, index, value) )(nodeOps.getById(_))
 
+  def rangeIndexSearch(index: IndexDescriptor, lower: Option[Number], includeLower: Boolean,
+                       upper: Option[Number], includeUpper: Boolean) =
+    mapToScala( ctx.entityReadOperations.nodesGetFromIndexRangeSeekByNumber(theState, index,
+      lower.orNull, includeLower, upper.orNull, includeUpper) )(nodeOps.getById(_))
+
+  def prefixIndexSearch(index: IndexDescriptor, prefix: String) =
+    mapToScala( ctx.entityReadOperations.nodesGetFromIndexRangeSeekByPrefix(theState, index, prefix) )(nodeOps.getById(_))
+
+  def anyIndexSearch(index: IndexDescriptor, values: Seq[Any]) =
+    mapToScala( ctx.entityReadOperations.nodesGetFromIndexLookupAny(theState, index, values.asJava) )(nodeOps.getById(_))
+
   val nodeOps = new NodeOperations
 
   val relationshipOps = new RelationshipOperations
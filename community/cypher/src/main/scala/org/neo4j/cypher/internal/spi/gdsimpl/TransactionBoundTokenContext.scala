@@ -26,19 +26,25 @@ import org.neo4j.kernel.api.operations.StatementState
 import org.neo4j.kernel.api.StatementOperationParts
 import org.neo4j.kernel.api.operations.KeyReadOperations
 
-abstract class TransactionBoundTokenContext(ctx: KeyReadOperations, state: StatementState) extends TokenContext
+abstract class TransactionBoundTokenContext(private var keyReadOps: KeyReadOperations, private var state: StatementState)
+  extends TokenContext
 {
+  protected def useStatement(keyReadOps: KeyReadOperations, state: StatementState) {
+    this.keyReadOps = keyReadOps
+    this.state = state
+  }
+
   def getOptPropertyKeyId(propertyKeyName: String): Option[Long] =
     TokenContext.tryGet[PropertyKeyNotFoundException](getPropertyKeyId(propertyKeyName))
 
-  def getPropertyKeyId(propertyKeyName: String) = ctx.propertyKeyGetForName(state, propertyKeyName)
+  def getPropertyKeyId(propertyKeyName: String) = keyReadOps.propertyKeyGetForName(state, propertyKeyName)
 
-  def getPropertyKeyName(propertyKeyId: Long): String = ctx.propertyKeyGetName(state, propertyKeyId)
+  def getPropertyKeyName(propertyKeyId: Long): String = keyReadOps.propertyKeyGetName(state, propertyKeyId)
 
-  def getLabelId(labelName: String): Long = ctx.labelGetForName(state, labelName)
+  def getLabelId(labelName: String): Long = keyReadOps.labelGetForName(state, labelName)
 
   def getOptLabelId(labelName: String): Option[Long] =
     TokenContext.tryGet[LabelNotFoundKernelException](getLabelId(labelName))
 
-  def getLabelName(labelId: Long): String = ctx.labelGetName(state, labelId)
+  def getLabelName(labelId: Long): String = keyReadOps.labelGetName(state, labelId)
 }
\ No newline at end of file
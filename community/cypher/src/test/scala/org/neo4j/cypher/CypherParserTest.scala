@@ -2821,6 +2821,27 @@ class CypherParserTest extends JUnitSuite with Assertions {
       Union(Seq(q, q, q), QueryString.empty, distinct = true))
   }
 
+  @Test def periodic_commit() {
+    val secondQ = Query.
+      updates(PropertySetAction(Property(Identifier("a"), PropertyKey("hello")), Literal("world"))).
+      returns()
+
+    val q = Query.
+      start(NodeById("a", 0)).
+      tail(secondQ).
+      returns(ReturnItem(Identifier("a"), "a"))
+
+    test(v2_0, "using periodic commit 500 start a=node(0) with a set a.hello = 'world'", PeriodicCommitQuery(q, 500))
+  }
+
+  @Test def periodic_commit_with_default_batch_size() {
+    val q = Query.
+      start(NodeById("s", 1)).
+      returns(ReturnItem(Identifier("s"), "s"))
+
+    test(v2_0, "USING PERIODIC COMMIT start s = NODE(1) return s", PeriodicCommitQuery(q))
+  }
+
   @Test def keywords_in_reltype_and_label() {
     test(vFrom2_0, "START n=node(0) MATCH n:On-[:WHERE]->() RETURN n",
       Query.
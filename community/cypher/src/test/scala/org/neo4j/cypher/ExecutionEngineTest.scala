@@ -2647,6 +2647,55 @@ RETURN x0.name
     assert(result.toList === List(Map("n"->jake)))
   }
 
+  @Test
+  def should_be_able_to_use_index_hints_with_range_predicates() {
+    //GIVEN
+    val andres = createLabeledNode(Map("age" -> 36), "Person")
+    val jake = createLabeledNode(Map("age" -> 40), "Person")
+    createLabeledNode(Map("age" -> 55), "Person")
+    createLabeledNode(Map("age" -> "40"), "Person")
+
+    graph.createIndex("Person", "age")
+
+    //WHEN
+    val result = parseAndExecute("MATCH n:Person USING INDEX n:Person(age) WHERE n.age >= 36 AND n.age < 55 RETURN n")
+
+    //THEN
+    assert(result.toSet === Set(Map("n" -> andres), Map("n" -> jake)))
+  }
+
+  @Test
+  def should_be_able_to_use_index_hints_with_prefix_regular_expressions() {
+    //GIVEN
+    val andres = createLabeledNode(Map("name" -> "Andres"), "Person")
+    val andreas = createLabeledNode(Map("name" -> "Andreas"), "Person")
+    createLabeledNode(Map("name" -> "Jacob"), "Person")
+
+    graph.createIndex("Person", "name")
+
+    //WHEN
+    val result = parseAndExecute("MATCH n:Person USING INDEX n:Person(name) WHERE n.name =~ 'Andre.*' RETURN n")
+
+    //THEN
+    assert(result.toSet === Set(Map("n" -> andres), Map("n" -> andreas)))
+  }
+
+  @Test
+  def should_be_able_to_use_index_hints_with_in_predicates() {
+    //GIVEN
+    val andres = createLabeledNode(Map("name" -> "Andres"), "Person")
+    val jake = createLabeledNode(Map("name" -> "Jacob"), "Person")
+    createLabeledNode(Map("name" -> "Stefan"), "Person")
+
+    graph.createIndex("Person", "name")
+
+    //WHEN
+    val result = parseAndExecute("MATCH n:Person USING INDEX n:Person(name) WHERE n.name IN ['Andres', 'Jacob'] RETURN n")
+
+    //THEN
+    assert(result.toSet === Set(Map("n" -> andres), Map("n" -> jake)))
+  }
+
   @Test
   def should_be_Able_to_use_label_as_start_point() {
     //GIVEN
@@ -2804,4 +2853,30 @@ RETURN x0.name
     assert( 6 === relationships.size )
 
   }
+
+  @Test
+  def queries_that_only_differ_in_literals_share_a_plan() {
+    val a = createNode("name" -> "a", "age" -> 10)
+    val b = createNode("name" -> "b", "age" -> 20)
+    val statistics = engine.planCacheStatistics
+    val misses = statistics.getMisses
+
+    val first = parseAndExecute(s"START n=node(${a.getId}) WHERE n.age > 5 RETURN n.name").toList
+    val second = parseAndExecute(s"START n=node(${b.getId}) WHERE n.age > 15 RETURN n.name").toList
+    val none = parseAndExecute(s"START n=node(${b.getId}) WHERE n.age > 25 RETURN n.name").toList
+
+    assert(first === List(Map("n.name" -> "a")))
+    assert(second === List(Map("n.name" -> "b")))
+    assert(none === List())
+    assert(statistics.getMisses === misses + 1)
+  }
+
+  @Test
+  def user_parameters_are_kept_next_to_the_replaced_literals() {
+    createNode("name" -> "a", "age" -> 10)
+
+    val result = parseAndExecute("START n=node(1) WHERE n.age > {min} RETURN n.name LIMIT 1", "min" -> 5)
+
+    assert(result.toList === List(Map("n.name" -> "a")))
+  }
 }
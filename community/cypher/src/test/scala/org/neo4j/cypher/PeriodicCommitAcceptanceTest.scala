@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+import org.scalatest.Assertions
+import org.junit.Test
+import org.neo4j.graphdb.event.{TransactionData, TransactionEventHandler}
+
+class PeriodicCommitAcceptanceTest extends ExecutionEngineHelper with StatisticsChecker with Assertions {
+
+  @Test
+  def should_commit_every_batch_of_updates() {
+    // Given
+    (1 to 5).foreach(_ => createNode("y" -> 1))
+    val commits = countCommits()
+
+    // When
+    val result = parseAndExecute("USING PERIODIC COMMIT 2 START n=node(*) WHERE has(n.y) SET n.x = 1")
+    result.toList
+
+    // Then
+    assertStats(result, propertiesSet = 5)
+    assert(commits() === 3)
+  }
+
+  @Test
+  def should_commit_while_the_result_is_consumed() {
+    // Given
+    (1 to 4).foreach(_ => createNode("y" -> 1))
+    val commits = countCommits()
+
+    // When
+    val result = parseAndExecute("USING PERIODIC COMMIT 1 START n=node(*) WHERE has(n.y) SET n.x = 1 RETURN n")
+
+    // Then
+    assert(commits() === 0)
+    assert(result.toList.size === 4)
+    assert(commits() === 4)
+  }
+
+  @Test
+  def should_commit_batches_of_nodes_found_by_an_index_seek() {
+    // Given
+    (1 to 5).foreach(_ => createLabeledNode(Map("name" -> "a"), "Person"))
+    createLabeledNode(Map("name" -> "b"), "Person")
+    graph.createIndex("Person", "name")
+    val commits = countCommits()
+
+    // When
+    val result = parseAndExecute(
+      "USING PERIODIC COMMIT 2 MATCH n:Person USING INDEX n:Person(name) WHERE n.name = 'a' SET n.x = 1")
+    result.toList
+
+    // Then
+    assertStats(result, propertiesSet = 5)
+    assert(commits() === 3)
+    assert(executeScalar[Long]("MATCH n:Person WHERE n.x = 1 RETURN count(*)") === 5)
+  }
+
+  @Test
+  def should_commit_batches_of_nodes_found_by_a_label_scan() {
+    // Given
+    (1 to 5).foreach(_ => createLabeledNode("Person"))
+    createNode()
+    val commits = countCommits()
+
+    // When
+    val result = parseAndExecute("USING PERIODIC COMMIT 2 MATCH n:Person SET n.x = 1")
+    result.toList
+
+    // Then
+    assertStats(result, propertiesSet = 5)
+    assert(commits() === 3)
+    assert(executeScalar[Long]("MATCH n:Person WHERE n.x = 1 RETURN count(*)") === 5)
+  }
+
+  @Test
+  def should_keep_committed_batches_when_the_query_fails() {
+    // Given
+    (1 to 4).foreach(_ => createNode("y" -> 1))
+    createNode("y" -> 0)
+
+    // When
+    val e = intercept[PeriodicCommitFailedException](
+      parseAndExecute("USING PERIODIC COMMIT 2 START n=node(*) WHERE has(n.y) SET n.x = 1 / n.y").toList)
+
+    // Then
+    assert(e.committedUpdates === 4)
+    val updated = parseAndExecute("START n=node(*) WHERE has(n.x) RETURN count(*) as c").toList
+    assert(updated === List(Map("c" -> 4)))
+  }
+
+  @Test
+  def should_refuse_periodic_commit_in_an_open_transaction() {
+    createNode("y" -> 1)
+
+    val tx = graph.beginTx()
+    try {
+      intercept[PeriodicCommitInOpenTransactionException](
+        parseAndExecute("USING PERIODIC COMMIT START n=node(*) WHERE has(n.y) SET n.x = 1"))
+    } finally {
+      tx.finish()
+    }
+  }
+
+  private def countCommits(): () => Int = {
+    var commits = 0
+    graph.registerTransactionEventHandler(new TransactionEventHandler.Adapter[AnyRef] {
+      override def afterCommit(data: TransactionData, state: AnyRef) {
+        if (data.assignedNodeProperties().iterator().hasNext)
+          commits += 1
+      }
+    })
+    () => commits
+  }
+}
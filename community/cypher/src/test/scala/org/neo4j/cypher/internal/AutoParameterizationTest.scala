@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import org.junit.Test
+import org.scalatest.Assertions
+
+class AutoParameterizationTest extends Assertions {
+
+  @Test def replaces_node_ids_in_start_by_a_single_parameter() {
+    assert(parameterize("START n=node(1, 2,3) RETURN n") ===
+      Some(ParameterizedQuery("START n=node({`  AUTO0`}) RETURN n", Map("  AUTO0" -> List(1L, 2L, 3L)))))
+  }
+
+  @Test def replaces_index_queries_in_start() {
+    assert(parameterize("START n=node:idx(name='Andr\\'es'), m=node:idx(\"name:foo\") RETURN n") ===
+      Some(ParameterizedQuery("START n=node:idx(name={`  AUTO0`}), m=node:idx({`  AUTO1`}) RETURN n",
+        Map("  AUTO0" -> "Andr'es", "  AUTO1" -> "name:foo"))))
+  }
+
+  @Test def replaces_numbers_and_strings_in_where() {
+    assert(parameterize("MATCH (n:Person) WHERE n.age > -12 AND n.height < 1.5 AND n.name IN ['a', \"b\"] RETURN n.age + 1") ===
+      Some(ParameterizedQuery(
+        "MATCH (n:Person) WHERE n.age > {`  AUTO0`} AND n.height < {`  AUTO1`} AND n.name IN [{`  AUTO2`}, {`  AUTO3`}] RETURN n.age + 1",
+        Map("  AUTO0" -> -12L, "  AUTO1" -> 1.5, "  AUTO2" -> "a", "  AUTO3" -> "b"))))
+  }
+
+  @Test def replaces_skip_and_limit_by_ints() {
+    assert(parameterize("MATCH (n) RETURN n SKIP 5 LIMIT 10") ===
+      Some(ParameterizedQuery("MATCH (n) RETURN n SKIP {`  AUTO0`} LIMIT {`  AUTO1`}", Map("  AUTO0" -> 5, "  AUTO1" -> 10))))
+  }
+
+  @Test def leaves_literals_that_shape_the_plan_or_the_columns_alone() {
+    assert(parameterize("MATCH (n) RETURN n.age + 1, 'x'") === None)
+    assert(parameterize("MATCH (n) WHERE n.name =~ 'A.*' RETURN n") === None)
+    assert(parameterize("MATCH (n) WHERE id(n) = 3 RETURN n") === None)
+    assert(parameterize("MATCH (n) WHERE 3 = id(n) RETURN n") === None)
+    assert(parameterize("MATCH (n) WHERE n-[:KNOWS*1..3]->() RETURN n") === None)
+    assert(parameterize("MATCH (n) RETURN [x IN n.scores WHERE x > 1]") === None)
+  }
+
+  @Test def does_not_mistake_properties_or_strings_for_clauses() {
+    assert(parameterize("MATCH (n) WHERE n.name = 'RETURN 1' RETURN n.limit, n.`where`") ===
+      Some(ParameterizedQuery("MATCH (n) WHERE n.name = {`  AUTO0`} RETURN n.limit, n.`where`", Map("  AUTO0" -> "RETURN 1"))))
+  }
+
+  @Test def only_parameterizes_queries_for_the_2_0_parser() {
+    assert(parameterize("CYPHER 1.9 START n=node(1) RETURN n") === None)
+    assert(AutoParameterization("START n=node(1) RETURN n", "1.9") === None)
+    assert(parameterize("CYPHER 2.0 START n=node(1) RETURN n") ===
+      Some(ParameterizedQuery("CYPHER 2.0 START n=node({`  AUTO0`}) RETURN n", Map("  AUTO0" -> List(1L)))))
+  }
+
+  private def parameterize(query: String) = AutoParameterization(query, "2.0")
+}
@@ -27,6 +27,8 @@ import org.mockito.Mockito.when
 import org.mockito.Mockito.verify
 import spi.QueryContext
 import org.scalatest.Assertions
+import org.neo4j.cypher.PeriodicCommitFailedException
+import org.neo4j.cypher.internal.pipes.PeriodicCommit
 
 class ClosingIteratorTest extends Assertions {
   @Test
@@ -109,4 +111,25 @@ class ClosingIteratorTest extends Assertions {
     //Then
     verify(ctx).close(success = false)
   }
-}
\ No newline at end of file
+
+  @Test
+  def exception_after_committed_batches_should_report_the_committed_updates() {
+    //Given
+    val ctx    = mock(classOf[QueryContext])
+    val wrapee = mock(classOf[Iterator[Map[String, Any]]])
+    when(wrapee.hasNext).thenReturn(true)
+    when(wrapee.next()).thenThrow(new RuntimeException)
+    val periodicCommit = new PeriodicCommit(2) {
+      override def committedUpdates = 4
+    }
+
+    val iterator = new ClosingIterator(wrapee, ctx, periodicCommit = Some(periodicCommit))
+
+    //When
+    val e = intercept[PeriodicCommitFailedException](iterator.next())
+
+    //Then
+    verify(ctx).close(success = false)
+    assert(e.committedUpdates === 4)
+  }
+}
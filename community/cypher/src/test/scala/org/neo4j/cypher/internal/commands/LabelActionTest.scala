@@ -87,6 +87,12 @@ class SnitchingQueryContext extends QueryContext {
 
   def close(success: Boolean) {???}
 
+  def commitAndRestartTx() {???}
+
+  def isTopLevelTx: Boolean = ???
+
+  def newReadOnlyContext(): QueryContext = ???
+
   def createNode() = ???
 
   def createRelationship(start: Node, end: Node, relType: String) = ???
@@ -117,6 +123,13 @@ class SnitchingQueryContext extends QueryContext {
 
   def exactIndexSearch(index: IndexDescriptor, value: Any): Iterator[Node] = ???
 
+  def rangeIndexSearch(index: IndexDescriptor, lower: Option[Number], includeLower: Boolean,
+                       upper: Option[Number], includeUpper: Boolean): Iterator[Node] = ???
+
+  def prefixIndexSearch(index: IndexDescriptor, prefix: String): Iterator[Node] = ???
+
+  def anyIndexSearch(index: IndexDescriptor, values: Seq[Any]): Iterator[Node] = ???
+
   def getNodesByLabel(id: Long): Iterator[Node] = ???
 
   def upgrade(context: QueryContext): LockingQueryContext = ???
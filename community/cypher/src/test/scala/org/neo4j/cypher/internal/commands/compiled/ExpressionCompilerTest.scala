@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.commands.compiled
+
+import org.junit.Test
+import org.scalatest.Assertions
+import org.scalatest.mock.MockitoSugar
+import org.mockito.Mockito.{when, verify, never}
+import org.mockito.Matchers
+import org.neo4j.graphdb.Node
+import org.neo4j.cypher.{EntityNotFoundException, CypherTypeException}
+import org.neo4j.cypher.internal.ExecutionContext
+import org.neo4j.cypher.internal.commands._
+import org.neo4j.cypher.internal.commands.expressions._
+import org.neo4j.cypher.internal.commands.values.{TokenType, KeyToken}
+import org.neo4j.cypher.internal.pipes.{NullDecorator, QueryState, QueryStateHelper, Slots}
+import org.neo4j.cypher.internal.spi.{Operations, QueryContext}
+
+class ExpressionCompilerTest extends Assertions with MockitoSugar {
+  val slots = Slots(Seq("a", "b"))
+  val state = QueryStateHelper.empty
+
+  val values: Seq[Any] = Seq(1, 2, 1L, 3L, 1.5, 2.0, 1.5f, "a", "b", null, Seq(1, 2))
+
+  @Test def arithmetic_gives_the_same_values_and_types_as_interpreted_evaluation() {
+    for (a <- values.filter(_.isInstanceOf[Number]); b <- values.filter(_.isInstanceOf[Number])) {
+      assertSameAsInterpreted(Add(Identifier("a"), Identifier("b")), a, b)
+      assertSameAsInterpreted(Subtract(Identifier("a"), Identifier("b")), a, b)
+      assertSameAsInterpreted(Multiply(Identifier("a"), Identifier("b")), a, b)
+      assertSameAsInterpreted(Divide(Identifier("a"), Identifier("b")), a, b)
+    }
+  }
+
+  @Test def non_numeric_arithmetic_is_left_to_the_interpreted_expression() {
+    assertSameAsInterpreted(Add(Identifier("a"), Identifier("b")), "a", 1)
+    assertSameAsInterpreted(Add(Identifier("a"), Identifier("b")), Seq(1, 2), 3L)
+
+    intercept[CypherTypeException](evaluate(ExpressionCompiler.compile(Subtract(Identifier("a"), Identifier("b")), slots), "a", 1))
+  }
+
+  @Test def comparisons_give_the_same_results_as_interpreted_evaluation() {
+    for (a <- values.filterNot(v => v == null || v.isInstanceOf[Seq[_]]);
+         b <- values.filterNot(v => v == null || v.isInstanceOf[Seq[_]])
+         if a.isInstanceOf[String] == b.isInstanceOf[String]) {
+      assertSameAsInterpreted(LessThan(Identifier("a"), Identifier("b")), a, b)
+      assertSameAsInterpreted(GreaterThanOrEqual(Identifier("a"), Identifier("b")), a, b)
+    }
+
+    for (a <- values; b <- values) {
+      assertSameAsInterpreted(Equals(Identifier("a"), Identifier("b")), a, b)
+    }
+  }
+
+  @Test def boolean_operators_give_the_same_results_as_interpreted_evaluation() {
+    val lessThanTwo = LessThan(Identifier("a"), Literal(2))
+    val bIsNull = IsNull(Identifier("b"))
+
+    for (a <- Seq(1, 3); b <- Seq(null, 1)) {
+      assertSameAsInterpreted(And(lessThanTwo, bIsNull), a, b)
+      assertSameAsInterpreted(And(And(lessThanTwo, Not(bIsNull)), True()), a, b)
+      assertSameAsInterpreted(Or(lessThanTwo, bIsNull), a, b)
+      assertSameAsInterpreted(Xor(lessThanTwo, bIsNull), a, b)
+      assertSameAsInterpreted(NullablePredicate(lessThanTwo, Seq(Identifier("b") -> true)), a, b)
+    }
+  }
+
+  @Test def identifiers_missing_from_the_slots_are_looked_up_like_before() {
+    val compiled = ExpressionCompiler.compile(Identifier("c"), slots)
+    val ctx = ExecutionContext.withSlots(slots).newWith(Map("a" -> 1, "c" -> 2))
+
+    assert(compiled(ctx)(state) === 2)
+    intercept[org.neo4j.graphdb.NotFoundException](compiled(ExecutionContext.empty)(state))
+  }
+
+  @Test def rows_without_slots_are_read_by_name() {
+    val compiled = ExpressionCompiler.compile(Add(Identifier("a"), Literal(1)), slots)
+
+    assert(compiled(ExecutionContext.empty.newWith("a" -> 41))(state) === 42)
+  }
+
+  @Test def constant_sub_expressions_are_evaluated_once() {
+    var evaluations = 0
+    val counting = new Expression {
+      def apply(ctx: ExecutionContext)(implicit state: QueryState) = { evaluations += 1; 10 }
+      def rewrite(f: (Expression) => Expression) = f(this)
+      def children = Seq(Literal(5))
+      def symbolTableDependencies = Set()
+      protected def calculateType(symbols: org.neo4j.cypher.internal.symbols.SymbolTable) =
+        org.neo4j.cypher.internal.symbols.NumberType()
+    }
+
+    val compiled = ExpressionCompiler.compile(LessThan(Identifier("a"), counting), slots)
+
+    assert(evaluate(compiled, 5, null) === true)
+    assert(evaluate(compiled, 20, null) === false)
+    assert(evaluations === 1)
+  }
+
+  @Test def resolved_property_keys_are_read_without_token_lookup() {
+    val inner = mock[QueryContext]
+    val nodeOps = mock[Operations[Node]]
+    val node = mock[Node]
+    when(inner.nodeOps).thenReturn(nodeOps)
+    when(nodeOps.getProperty(node, 7L)).thenReturn(42)
+    val queryState = new QueryState(null, inner, Map.empty, NullDecorator)
+
+    val resolved = ExpressionCompiler.compile(Property(Identifier("a"), KeyToken.Resolved("age", 7L, TokenType.PropertyKey)), slots)
+    val missing = ExpressionCompiler.compile(new Property(Identifier("a"), KeyToken.Resolved("name", 8L, TokenType.PropertyKey), false), slots)
+    val row = ExecutionContext.withSlots(slots).newWith("a" -> node)
+
+    assert(resolved(row)(queryState) === 42)
+    verify(inner, never()).getOptPropertyKeyId(Matchers.anyString())
+    intercept[EntityNotFoundException](missing(row)(queryState))
+  }
+
+  @Test def compiled_predicates_describe_themselves_like_the_original() {
+    val predicate = And(LessThan(Identifier("a"), Literal(2)), IsNull(Identifier("b")))
+
+    assert(ExpressionCompiler.compile(predicate, slots).toString === predicate.toString)
+  }
+
+  private def evaluate(e: Expression, a: Any, b: Any) = e(ExecutionContext.withSlots(slots).newWith(Map("a" -> a, "b" -> b)))(state)
+
+  private def assertSameAsInterpreted(e: Expression, a: Any, b: Any) {
+    val expected = evaluate(e, a, b)
+    val actual = evaluate(ExpressionCompiler.compile(e, slots), a, b)
+
+    assert(actual === expected, "%s with a = %s, b = %s".format(e, a, b))
+    if (expected != null)
+      assert(actual.getClass === expected.getClass, "%s with a = %s, b = %s".format(e, a, b))
+  }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.executionplan.builders
+
+import org.junit.Assert._
+import org.junit.Test
+import org.neo4j.cypher.internal.executionplan.PartiallySolvedQuery
+import org.neo4j.cypher.internal.commands._
+import org.neo4j.cypher.internal.commands.expressions.Literal
+import org.neo4j.cypher.internal.pipes.NodeHashJoinPipe
+import org.neo4j.cypher.internal.spi.PlanContext
+import org.neo4j.graphdb.Direction
+import org.scalatest.mock.MockitoSugar
+import org.mockito.Matchers._
+import org.mockito.Mockito._
+
+class HashJoinBuilderTest extends BuilderTest with MockitoSugar {
+
+  override val context = mock[PlanContext]
+  val builder = new HashJoinBuilder
+
+  when(context.getOptLabelId(any())).thenReturn(None)
+
+  @Test
+  def joins_two_start_points_through_the_node_their_patterns_share() {
+    val q = PartiallySolvedQuery().copy(
+      start = Seq(Unsolved(NodeByLabel("a", "Person")), Unsolved(NodeByLabel("b", "Company"))),
+      patterns = Seq(
+        Unsolved(RelatedTo("a", "x", "r1", "KNOWS", Direction.OUTGOING)),
+        Unsolved(RelatedTo("x", "c", "r2", "KNOWS", Direction.OUTGOING)),
+        Unsolved(RelatedTo("b", "c", "r3", "EMPLOYS", Direction.OUTGOING))))
+
+    val result = assertAccepts(q)
+
+    result.pipe match {
+      case join: NodeHashJoinPipe => assertEquals("c", join.joinNode)
+      case p                      => fail("Expected a hash join, got " + p)
+    }
+    assertTrue("Start items should be solved", result.query.start.forall(_.solved))
+    assertTrue("Patterns should be solved", result.query.patterns.forall(_.solved))
+    assertEquals(Set("a", "b", "c", "x", "r1", "r2", "r3"), result.pipe.symbols.keys.toSet)
+  }
+
+  @Test
+  def leaves_start_points_the_traversal_matcher_can_use_at_both_ends() {
+    val q = PartiallySolvedQuery().copy(
+      start = Seq(Unsolved(NodeById("a", Literal(0))), Unsolved(NodeById("b", Literal(1)))),
+      patterns = Seq(
+        Unsolved(RelatedTo("a", "c", "r1", "KNOWS", Direction.OUTGOING)),
+        Unsolved(RelatedTo("b", "c", "r2", "KNOWS", Direction.OUTGOING))))
+
+    assertRejects(q)
+  }
+
+  @Test
+  def does_not_join_start_points_that_are_related_directly() {
+    val q = PartiallySolvedQuery().copy(
+      start = Seq(Unsolved(NodeByLabel("a", "Person")), Unsolved(NodeByLabel("b", "Company"))),
+      patterns = Seq(
+        Unsolved(RelatedTo("a", "c", "r1", "KNOWS", Direction.OUTGOING)),
+        Unsolved(RelatedTo("b", "c", "r2", "KNOWS", Direction.OUTGOING)),
+        Unsolved(RelatedTo("a", "b", "r3", "KNOWS", Direction.OUTGOING))))
+
+    assertRejects(q)
+  }
+
+  @Test
+  def does_not_join_on_more_than_one_node() {
+    val q = PartiallySolvedQuery().copy(
+      start = Seq(Unsolved(NodeByLabel("a", "Person")), Unsolved(NodeByLabel("b", "Company"))),
+      patterns = Seq(
+        Unsolved(RelatedTo("a", "c", "r1", "KNOWS", Direction.OUTGOING)),
+        Unsolved(RelatedTo("b", "c", "r2", "KNOWS", Direction.OUTGOING)),
+        Unsolved(RelatedTo("a", "d", "r3", "KNOWS", Direction.OUTGOING)),
+        Unsolved(RelatedTo("b", "d", "r4", "KNOWS", Direction.OUTGOING))))
+
+    assertRejects(q)
+  }
+
+  @Test
+  def does_not_join_optional_patterns() {
+    val q = PartiallySolvedQuery().copy(
+      start = Seq(Unsolved(NodeByLabel("a", "Person")), Unsolved(NodeByLabel("b", "Company"))),
+      patterns = Seq(
+        Unsolved(RelatedTo("a", "c", "r1", "KNOWS", Direction.OUTGOING)),
+        Unsolved(RelatedTo("b", "c", "r2", "KNOWS", Direction.OUTGOING, optional = true))))
+
+    assertRejects(q)
+  }
+}
@@ -112,6 +112,91 @@ class IndexLookupBuilderTest extends BuilderTest {
     assert(a === b)
   }
 
+  @Test def should_use_a_range_seek_when_no_equality_is_found() {
+    //GIVEN
+    val identifier = "id"
+    val label = "label"
+    val property = "prop"
+    val labelPredicate = HasLabel(Identifier(identifier), KeyToken.Unresolved(label, TokenType.Label))
+    val lowerPredicate = GreaterThan(Property(Identifier(identifier), PropertyKey(property)), Literal(10))
+    val upperPredicate = GreaterThanOrEqual(Literal(20), Property(Identifier(identifier), PropertyKey(property)))
+
+    val q = PartiallySolvedQuery().copy(
+      start = Seq(Unsolved(SchemaIndex(identifier, label, property, None))),
+      where = Seq(Unsolved(lowerPredicate), Unsolved(upperPredicate), Unsolved(labelPredicate))
+    )
+
+    //WHEN
+    val plan = assertAccepts(q)
+
+    //THEN
+    val seek = SchemaIndexRangeSeek(identifier, label, property,
+      Some(SeekBound(Literal(10), inclusive = false)), Some(SeekBound(Literal(20), inclusive = true)))
+    assert(plan.query.start === Seq(Unsolved(seek)))
+    assert(plan.query.where.toSet === Set(Unsolved(lowerPredicate), Unsolved(upperPredicate), Solved(labelPredicate)))
+  }
+
+  @Test def should_use_a_prefix_seek_for_a_prefix_regular_expression() {
+    //GIVEN
+    val identifier = "id"
+    val label = "label"
+    val property = "prop"
+    val labelPredicate = HasLabel(Identifier(identifier), KeyToken.Unresolved(label, TokenType.Label))
+    val predicate = LiteralRegularExpression(Property(Identifier(identifier), PropertyKey(property)), Literal("And.*"))
+
+    val q = PartiallySolvedQuery().copy(
+      start = Seq(Unsolved(SchemaIndex(identifier, label, property, None))),
+      where = Seq(Unsolved(predicate), Unsolved(labelPredicate))
+    )
+
+    //WHEN
+    val plan = assertAccepts(q)
+
+    //THEN
+    assert(plan.query.start === Seq(Unsolved(SchemaIndexPrefixSeek(identifier, label, property, "And"))))
+    assert(plan.query.where.toSet === Set(Unsolved(predicate), Solved(labelPredicate)))
+  }
+
+  @Test def should_not_use_a_prefix_seek_for_other_regular_expressions() {
+    //GIVEN
+    val identifier = "id"
+    val label = "label"
+    val property = "prop"
+    val labelPredicate = HasLabel(Identifier(identifier), KeyToken.Unresolved(label, TokenType.Label))
+    val predicate = LiteralRegularExpression(Property(Identifier(identifier), PropertyKey(property)), Literal("A[nd].*"))
+
+    val q = PartiallySolvedQuery().copy(
+      start = Seq(Unsolved(SchemaIndex(identifier, label, property, None))),
+      where = Seq(Unsolved(predicate), Unsolved(labelPredicate))
+    )
+
+    //WHEN
+    intercept[IndexHintException](assertAccepts(q))
+  }
+
+  @Test def should_use_a_multi_value_seek_for_in_predicates() {
+    //GIVEN
+    val identifier = "id"
+    val label = "label"
+    val property = "prop"
+    val labelPredicate = HasLabel(Identifier(identifier), KeyToken.Unresolved(label, TokenType.Label))
+    val collection = Literal(Seq(1, 2, 3))
+    val predicate = AnyInCollection(collection, "-_-INNER-_-",
+      Equals(Property(Identifier(identifier), PropertyKey(property)), Identifier("-_-INNER-_-")))
+
+    val q = PartiallySolvedQuery().copy(
+      start = Seq(Unsolved(SchemaIndex(identifier, label, property, None))),
+      where = Seq(Unsolved(predicate), Unsolved(labelPredicate))
+    )
+
+    //WHEN
+    val plan = assertAccepts(q)
+
+    //THEN
+    assert(plan.query.start === Seq(Unsolved(SchemaIndexAnySeek(identifier, label, property, collection))))
+    assert(plan.query.where.toSet === Set(Unsolved(predicate), Solved(labelPredicate)))
+  }
+
   private def test(identifier: String, label: String, property: String, predicate: Equals, valueExpression: Literal) {
     val labelPredicate = HasLabel(Identifier(identifier), KeyToken.Unresolved(label, TokenType.Label))
 
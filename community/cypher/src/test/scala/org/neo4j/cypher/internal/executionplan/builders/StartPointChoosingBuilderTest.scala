@@ -150,6 +150,26 @@ class StartPointChoosingBuilderTest extends BuilderTest with MockitoSugar {
     assert(plan.query.start.toList === Seq(Unsolved(SchemaIndex(identifier, label, property, None))))
   }
 
+  @Test
+  def should_pick_an_index_for_a_range_predicate() {
+    // Given
+    val query = q(where = Seq(
+      HasLabel(Identifier(identifier), KeyToken.Unresolved(label, TokenType.Label)),
+      GreaterThan(Property(Identifier(identifier), propertyKey), Literal(42))
+    ), patterns = Seq(
+      SingleNode(identifier)
+    ))
+
+    when(context.getIndexRule("Person", "prop")).thenReturn(Some(new IndexDescriptor(123,456)))
+    when(context.getUniquenessConstraint( Matchers.any(), Matchers.any() )).thenReturn(None)
+
+    // When
+    val plan = assertAccepts(query)
+
+    // Then
+    assert(plan.query.start.toList === Seq(Unsolved(SchemaIndex(identifier, label, property, None))))
+  }
+
   @Test
   def should_pick_an_uniqueness_constraint_index_if_only_one_possible_exists() {
     // Given
@@ -191,6 +211,49 @@ class StartPointChoosingBuilderTest extends BuilderTest with MockitoSugar {
     assert(plan.query.start.toList === List(Unsolved(SchemaIndex(identifier, label, property, None))))
   }
 
+  @Test
+  def should_start_from_the_label_with_fewer_nodes() {
+    // Given
+    val query = q(where = Seq(
+      HasLabel(Identifier(identifier), KeyToken.Unresolved(label, TokenType.Label)),
+      HasLabel(Identifier(otherIdentifier), KeyToken.Unresolved("Animal", TokenType.Label))
+    ), patterns = Seq(
+      RelatedTo(identifier, otherIdentifier, "r", Seq.empty, Direction.OUTGOING, optional = false)
+    ))
+
+    when(context.nodeCountByLabel(label)).thenReturn(1000L)
+    when(context.nodeCountByLabel("Animal")).thenReturn(10L)
+
+    // When
+    val plan = assertAccepts(query)
+
+    // Then
+    assert(plan.query.start.toList === List(Unsolved(NodeByLabel(otherIdentifier, "Animal"))))
+  }
+
+  @Test
+  def should_prefer_scanning_a_small_label_over_an_index_on_a_large_label() {
+    // Given
+    val query = q(where = Seq(
+      HasLabel(Identifier(identifier), KeyToken.Unresolved(label, TokenType.Label)),
+      Equals(Property(Identifier(identifier), propertyKey), expression),
+      HasLabel(Identifier(otherIdentifier), KeyToken.Unresolved("Animal", TokenType.Label))
+    ), patterns = Seq(
+      RelatedTo(identifier, otherIdentifier, "r", Seq.empty, Direction.OUTGOING, optional = false)
+    ))
+
+    when(context.getIndexRule(label, property)).thenReturn(Some(new IndexDescriptor(123,456)))
+    when(context.getUniquenessConstraint( Matchers.any(), Matchers.any() )).thenReturn(None)
+    when(context.nodeCountByLabel(label)).thenReturn(1000000L)
+    when(context.nodeCountByLabel("Animal")).thenReturn(10L)
+
+    // When
+    val plan = assertAccepts(query)
+
+    // Then
+    assert(plan.query.start.toList === List(Unsolved(NodeByLabel(otherIdentifier, "Animal"))))
+  }
+
   @Test
   def should_pick_an_uniqueness_constraint_index_if_only_one_possible_exists_other_side() {
     // Given
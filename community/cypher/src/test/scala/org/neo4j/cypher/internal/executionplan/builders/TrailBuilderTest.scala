@@ -72,6 +72,15 @@ class TrailBuilderTest extends GraphDatabaseTestBase with Assertions {
       expectedTrail)
   }
 
+  @Test def find_longest_path_starting_from_the_cheapest_bound_point() {
+    val trail = SingleStepTrail(EndPoint("a"), Direction.INCOMING, "pr1", Seq("A"), "b", True(), True(), AtoB, Seq())
+    val expensiveFromA = (t: Trail) => if (t.start == "a") 10.0 else 1.0
+
+    assert(
+      TrailBuilder.findLongestTrail(Seq(AtoB), Seq("a", "b"), cost = expensiveFromA) ===
+      Some(LongestTrail("b", Some("a"), trail)))
+  }
+
   @Test def single_path_is_reversed_to_be_able_to_start_from_startpoint() {
     val trail = SingleStepTrail(EndPoint("a"), Direction.INCOMING, "pr1", Seq("A"), "b", True(), True(), AtoB, Seq())
 
@@ -107,6 +107,25 @@ class EagerAggregationPipeTest extends JUnitSuite {
     assertEquals(List(Map("count(name)" -> 3)), aggregationPipe.createResults(QueryStateHelper.empty).toList)
   }
 
+  @Test def shouldPartitionGroupsThatDoNotFitInTheMemoryBudget() {
+    val source = new FakePipe((0 until 1000).map(i => Map("name" -> ("n" + (i % 100)), "age" -> i)), createSymbolTableFor("name"))
+
+    val returnItems = createReturnItemsFor("name")
+    val grouping = Map("count(*)" -> CountStar(), "sum(age)" -> Sum(Identifier("age")))
+    val aggregationPipe = new EagerAggregationPipe(source, returnItems, grouping)
+    val state = QueryStateHelper.withMemoryBudget(2000)
+
+    val results = aggregationPipe.createResults(state).map(_.m.toMap).toList
+
+    assertEquals(100, results.size)
+    results.foreach(row => {
+      val group = row("name").asInstanceOf[String].substring(1).toInt
+      assertEquals(10L, row("count(*)"))
+      assertEquals((0 until 10).map(_ * 100 + group).sum, row("sum(age)"))
+    })
+    assertTrue(state.memory.bytesSpilledBy(aggregationPipe) > 0)
+  }
+
   private def createSymbolTableFor(name: String) = name -> NodeType()
 
   private def getResults(p: Pipe): JIterable[Map[String, Any]] = p.createResults(QueryStateHelper.empty).map(_.m.toMap).toIterable.asJava
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.pipes
+
+import org.junit.Test
+import org.junit.Assert._
+import org.neo4j.cypher.GraphDatabaseTestBase
+import org.neo4j.cypher.internal.symbols.{RelationshipType, NumberType, NodeType}
+import org.neo4j.cypher.internal.ExecutionContext
+import org.neo4j.graphdb.Node
+
+class NodeHashJoinPipeTest extends GraphDatabaseTestBase {
+  @Test def should_join_rows_on_the_shared_node() {
+    val (c1, c2, c3) = (createNode(), createNode(), createNode())
+
+    val left = new FakePipe(List(
+      Map("a" -> 1, "c" -> c1),
+      Map("a" -> 2, "c" -> c2),
+      Map("a" -> 3, "c" -> c2)), "a" -> NumberType(), "c" -> NodeType())
+    val right = new FakePipe(List(
+      Map("b" -> 10, "c" -> c2),
+      Map("b" -> 20, "c" -> c3)), "b" -> NumberType(), "c" -> NodeType())
+
+    val pipe = new NodeHashJoinPipe(left, right, "c")
+
+    assertEquals(Set(
+      Map("a" -> 2, "b" -> 10, "c" -> c2),
+      Map("a" -> 3, "b" -> 10, "c" -> c2)), results(pipe, QueryStateHelper.empty).toSet)
+  }
+
+  @Test def should_only_read_all_of_the_smaller_side() {
+    val c = createNode()
+    val left = (1 to 100).map(i => Map("a" -> i, "c" -> c)).iterator
+    val right = new FakePipe(List(Map("b" -> 1, "c" -> c)), "b" -> NumberType(), "c" -> NodeType())
+
+    val pipe = new NodeHashJoinPipe(new FakePipe(left, "a" -> NumberType(), "c" -> NodeType()), right, "c")
+    val result = pipe.createResults(QueryStateHelper.empty)
+
+    assertEquals(Map("a" -> 1, "b" -> 1, "c" -> c), result.next().m.toMap)
+    assertTrue("Should not have read the whole larger side", left.hasNext)
+  }
+
+  @Test def should_skip_rows_without_the_shared_node() {
+    val c = createNode()
+    val left = new FakePipe(List(Map("a" -> 1, "c" -> c), Map("a" -> 2, "c" -> null)), "a" -> NumberType(), "c" -> NodeType())
+    val right = new FakePipe(List(Map("b" -> 1, "c" -> c), Map("b" -> 2)), "b" -> NumberType(), "c" -> NodeType())
+
+    val pipe = new NodeHashJoinPipe(left, right, "c")
+
+    assertEquals(List(Map("a" -> 1, "b" -> 1, "c" -> c)), results(pipe, QueryStateHelper.empty))
+  }
+
+  @Test def should_not_use_a_relationship_on_both_sides() {
+    val (a, c) = (createNode(), createNode())
+    val r1 = relate(a, c)
+    val r2 = relate(a, c)
+
+    val left = new FakePipe(List(Map("r1" -> r1, "c" -> c), Map("r1" -> r2, "c" -> c)), "r1" -> RelationshipType(), "c" -> NodeType())
+    val right = new FakePipe(List(Map("r2" -> r1, "c" -> c)), "r2" -> RelationshipType(), "c" -> NodeType())
+
+    val pipe = new NodeHashJoinPipe(left, right, "c", Seq("r1"), Seq("r2"))
+
+    assertEquals(List(Map("r1" -> r2, "r2" -> r1, "c" -> c)), results(pipe, QueryStateHelper.empty))
+  }
+
+  @Test def should_partition_both_sides_when_over_the_memory_budget() {
+    val nodes: Seq[Node] = (0 until 10).map(_ => createNode())
+
+    val left = new FakePipe((0 until 100).map(i => Map("a" -> i, "c" -> nodes(i % 10))), "a" -> NumberType(), "c" -> NodeType())
+    val right = new FakePipe((0 until 50).map(i => Map("b" -> i, "c" -> nodes(i % 10))), "b" -> NumberType(), "c" -> NodeType())
+
+    val pipe = new NodeHashJoinPipe(left, right, "c")
+    val state = QueryStateHelper.queryStateFrom(graph).copy(memory = new QueryMemory(2000))
+
+    val pairs = results(pipe, state).map(row => (row("a"), row("b"))).toSet
+    val expected = (for (a <- 0 until 100; b <- 0 until 50 if a % 10 == b % 10) yield (a, b)).toSet
+
+    assertEquals(expected, pairs)
+    assertTrue(state.memory.bytesSpilledBy(pipe) > 0)
+    assertEquals(0L, state.memory.inUse)
+  }
+
+  private def results(pipe: Pipe, state: QueryState): List[Map[String, Any]] =
+    pipe.createResults(state).map(_.m.toMap).toList
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.pipes
+
+import org.junit.Test
+import org.neo4j.cypher.GraphDatabaseTestBase
+import org.neo4j.cypher.internal.commands.expressions._
+import org.neo4j.cypher.internal.commands.{Not, True}
+import org.neo4j.cypher.internal.commands.values.TokenType.PropertyKey
+
+class ParallelAggregationPipeTest extends GraphDatabaseTestBase {
+
+  val scan = new NodeStartPipe(NullPipe, "n", EntityProducer[org.neo4j.graphdb.Node]("AllNodes") {
+    (ctx, state) => state.query.nodeOps.all
+  })
+  val extract = new ExtractPipe(scan, Map("t" -> Property(Identifier("n"), PropertyKey("type"))))
+  val keys = Map("t" -> Identifier("t"))
+  val aggregates = Map(
+    "c" -> CountStar(),
+    "s" -> Sum(Property(Identifier("n"), PropertyKey("v"))),
+    "max" -> Max(Property(Identifier("n"), PropertyKey("v"))),
+    "avg" -> Avg(Property(Identifier("n"), PropertyKey("v"))),
+    "col" -> Collect(Property(Identifier("n"), PropertyKey("v"))))
+
+  @Test def should_give_the_same_result_as_a_single_threaded_aggregation() {
+    graph.inTx {
+      (0 until 3 * ParallelAggregationPipe.PARTITION_SIZE + 17).foreach(i => {
+        val node = graph.createNode()
+        node.setProperty("type", i % 3)
+        node.setProperty("v", i)
+      })
+    }
+
+    val pipe = new ParallelAggregationPipe(extract, scan, keys, aggregates)
+
+    val sequentialState = QueryStateHelper.queryStateFrom(graph)
+    val singleThreaded = pipe.createResults(sequentialState).map(_.m.toMap).toSet
+    sequentialState.query.close(success = true)
+
+    val parallel = pipe.createResults(QueryStateHelper.queryStateFrom(graph).copy(aggregationThreads = 4)).map(_.m.toMap).toSet
+
+    assert(singleThreaded.size === 4)
+    assert(parallel === singleThreaded)
+  }
+
+  @Test def should_return_a_single_row_when_nothing_is_aggregated_without_keys() {
+    val pipe = new ParallelAggregationPipe(new FilterPipe(scan, Not(True())), scan, Map.empty, Map("c" -> CountStar()))
+
+    val result = pipe.createResults(QueryStateHelper.queryStateFrom(graph).copy(aggregationThreads = 4)).map(_.m.toMap).toList
+
+    assert(result === List(Map("c" -> 0L)))
+  }
+
+  @Test def should_only_partition_scans_below_stateless_pipes() {
+    assert(ParallelAggregationPipe.partitionableScan(extract, keys, aggregates) === Some(scan))
+    assert(ParallelAggregationPipe.partitionableScan(new EagerPipe(extract), keys, aggregates) === None)
+  }
+
+  @Test def should_not_partition_aggregations_that_can_not_be_merged() {
+    val stdev = Map("sd" -> Stdev(Property(Identifier("n"), PropertyKey("v"))))
+
+    assert(ParallelAggregationPipe.partitionableScan(extract, keys, stdev) === None)
+  }
+}
@@ -75,6 +75,7 @@ object PipeLazynessTest extends MockitoSugar {
     add(filterPipe)
     add(matchPipe)
     add(namedPathPipe)
+    add(nodeHashJoinPipe)
     add(shortestPathPipe)
     add(slicePipe)
     add(sortPipe)
@@ -159,6 +160,13 @@ object PipeLazynessTest extends MockitoSugar {
     Seq(pipe, iter)
   }
 
+  private def nodeHashJoinPipe = {
+    val (iter, src) = emptyFakes
+    val smaller = new FakePipe(Iterator(Map[String, Any]("x" -> 0)), "x" -> NumberType())
+    val pipe = new NodeHashJoinPipe(src, smaller, "x")
+    Seq(pipe, iter)
+  }
+
   private def shortestPathPipe = {
     val shortestPath = ShortestPath(pathName = "p", start = "start", end = "end", relTypes = Seq.empty,
       dir = Direction.OUTGOING, maxDepth = None, optional = true, single = true, relIterator = None)
@@ -26,6 +26,8 @@ import org.neo4j.cypher.internal.spi.gdsimpl.TransactionBoundQueryContext
 object QueryStateHelper {
   def empty = new QueryState(null, null, Map.empty, NullDecorator)
 
+  def withMemoryBudget(bytes: Long) = new QueryState(null, null, Map.empty, NullDecorator, memory = new QueryMemory(bytes))
+
   def queryStateFrom(db: GraphDatabaseAPI) = {
     val tx = db.beginTx()
 
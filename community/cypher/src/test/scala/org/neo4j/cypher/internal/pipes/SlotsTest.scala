@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.pipes
+
+import org.junit.Test
+import org.scalatest.Assertions
+import org.neo4j.cypher.internal.ExecutionContext
+import org.neo4j.cypher.internal.commands.ReturnItem
+import org.neo4j.cypher.internal.commands.expressions.{Literal, Identifier}
+import org.neo4j.cypher.internal.symbols.NumberType
+
+class SlotsTest extends Assertions {
+  val slots = Slots(Seq("a", "b", "c"))
+
+  @Test def assigns_one_slot_per_identifier() {
+    assert(slots.size === 3)
+    assert(Seq("a", "b", "c").map(slots.offsetOf).sorted === Seq(0, 1, 2))
+    assert(slots.offsetOf("x") === -1)
+  }
+
+  @Test def assigns_slots_to_identifiers_of_all_pipes_in_the_tree() {
+    //GIVEN
+    val source = new FakePipe(List(Map("x" -> 1)), "x" -> NumberType())
+    val pipe = new ColumnFilterPipe(ExtractPipe(source, Map("y" -> Literal(2))),
+      Seq(ReturnItem(Identifier("y"), "y")))
+
+    //WHEN
+    val result = Slots.forPipe(pipe)
+
+    //THEN
+    assert(Set("x", "y").map(result.offsetOf).forall(_ >= 0))
+    assert(result.size === 2)
+  }
+
+  @Test def slotted_row_behaves_like_a_map() {
+    //GIVEN
+    val row = new SlottedMap(slots)
+
+    //WHEN
+    row += "a" -> 1
+    row += "c" -> null
+    row += "x" -> "not slotted"
+
+    //THEN
+    assert(row === Map("a" -> 1, "c" -> null, "x" -> "not slotted"))
+    assert(row.size === 3)
+    assert(row.get("b") === None)
+    assert(row.get("c") === Some(null))
+  }
+
+  @Test def removed_values_are_gone() {
+    //GIVEN
+    val row = new SlottedMap(slots)
+    row += "a" -> 1
+    row += "x" -> 2
+
+    //WHEN
+    row -= "a"
+    row -= "x"
+
+    //THEN
+    assert(row.isEmpty)
+  }
+
+  @Test def copies_do_not_share_values() {
+    //GIVEN
+    val row = new SlottedMap(slots)
+    row += "a" -> 1
+    row += "x" -> 2
+
+    //WHEN
+    val copy = row.clone()
+    copy += "a" -> 3
+    copy += "x" -> 4
+
+    //THEN
+    assert(row === Map("a" -> 1, "x" -> 2))
+    assert(copy === Map("a" -> 3, "x" -> 4))
+  }
+
+  @Test def execution_contexts_created_from_slotted_rows_stay_slotted() {
+    //GIVEN
+    val ctx = ExecutionContext.withSlots(slots).newWith("a" -> 1)
+
+    //WHEN
+    val withMore = ctx.newWith("b" -> 2)
+    val replaced = ctx.newFrom(Seq("c" -> 3))
+
+    //THEN
+    assert(withMore.m.isInstanceOf[SlottedMap])
+    assert(replaced.m.isInstanceOf[SlottedMap])
+    assert(ctx === Map("a" -> 1))
+    assert(withMore === Map("a" -> 1, "b" -> 2))
+    assert(replaced === Map("c" -> 3))
+  }
+}
@@ -26,6 +26,9 @@ import collection.mutable.{Map=>MutableMap}
 import org.neo4j.cypher.internal.commands.expressions.Identifier
 import org.neo4j.cypher.internal.symbols.{NumberType, StringType, ScalarType}
 import org.neo4j.cypher.internal.commands.SortItem
+import org.neo4j.cypher.internal.data.PrimVal
+import util.Random
+import org.neo4j.test.TargetDirectory
 
 class SortPipeTest extends JUnitSuite {
   @Test def emptyInIsEmptyOut() {
@@ -89,4 +92,75 @@ class SortPipeTest extends JUnitSuite {
       MutableMap("y" -> 2),
       MutableMap("y" -> null)), sortPipe.createResults(QueryStateHelper.empty).toList)
   }
+
+  @Test def sortsRowsThatDoNotFitInTheMemoryBudget() {
+    val r = new Random(1337)
+    val values = (0 until 1000).map(i => r.nextInt(100))
+    val source = new FakePipe(values.map(v => Map("x" -> v, "name" -> ("n" + v))), "x" -> NumberType(), "name" -> StringType())
+    val sortPipe = new SortPipe(source, List(SortItem(Identifier("x"), true)))
+    val state = QueryStateHelper.withMemoryBudget(2000)
+
+    val result = sortPipe.createResults(state).map(ctx => (ctx("x"), ctx("name"))).toList
+
+    assertEquals(values.sorted.map(v => (v, "n" + v)).toList, result)
+    assertTrue(state.memory.bytesSpilledBy(sortPipe) > 0)
+    assertEquals(0L, state.memory.inUse)
+  }
+
+  @Test def spilledBytesAreShownInThePlanDescription() {
+    val source = new FakePipe((0 until 100).reverse.map(i => Map("x" -> i)), "x" -> NumberType())
+    val sortPipe = new SortPipe(source, List(SortItem(Identifier("x"), true)))
+    val state = QueryStateHelper.withMemoryBudget(500)
+
+    sortPipe.createResults(state).toList
+
+    val description = state.memory.decorate(sortPipe.executionPlanDescription)
+    assertEquals(Some(PrimVal(state.memory.bytesSpilledBy(sortPipe))), description.args.toMap.get("_spilled_bytes"))
+    assertEquals(None, description.children.head.args.toMap.get("_spilled_bytes"))
+  }
+
+  @Test def spillsToTheSpillDirectoryUntilTheQueryIsClosed() {
+    val spillDirectory = TargetDirectory.forTest(getClass).directory("spill", true)
+    val source = new FakePipe((0 until 100).reverse.map(i => Map("x" -> i)), "x" -> NumberType())
+    val sortPipe = new SortPipe(source, List(SortItem(Identifier("x"), true)))
+    val state = QueryStateHelper.empty.copy(memory = new QueryMemory(500, Some(spillDirectory)))
+
+    val result = sortPipe.createResults(state)
+    assertEquals(0, result.next()("x"))
+    assertTrue(spillDirectory.list().nonEmpty)
+
+    state.memory.close()
+    assertTrue(spillDirectory.list().isEmpty)
+  }
+
+  @Test def doesNotSpillARunPerRowWhenOtherPipesHoldTheBudget() {
+    val spillDirectory = TargetDirectory.forTest(getClass).directory("small-runs", true)
+    val state = QueryStateHelper.empty.copy(memory = new QueryMemory(2000, Some(spillDirectory)))
+    state.memory.account(new FakePipe(List(), "y" -> NumberType())).reserve(2000)
+    val source = new FakePipe((0 until 100).reverse.map(i => Map("x" -> i)), "x" -> NumberType())
+    val sortPipe = new SortPipe(source, List(SortItem(Identifier("x"), true)))
+
+    val result = sortPipe.createResults(state)
+    assertTrue(spillDirectory.list().length < 100 / 4)
+
+    assertEquals((0 until 100).toList, result.map(_("x")).toList)
+    assertEquals(2000L, state.memory.inUse)
+  }
+
+  @Test def mergesABoundedNumberOfRunsAtATime() {
+    val spillDirectory = TargetDirectory.forTest(getClass).directory("many-runs", true)
+    val state = QueryStateHelper.empty.copy(memory = new QueryMemory(2000, Some(spillDirectory)))
+    state.memory.account(new FakePipe(List(), "y" -> NumberType())).reserve(2000)
+    val r = new Random(1337)
+    val values = (0 until 2000).map(i => r.nextInt(1000))
+    val source = new FakePipe(values.map(v => Map("x" -> v)), "x" -> NumberType())
+    val sortPipe = new SortPipe(source, List(SortItem(Identifier("x"), true)))
+
+    val result = sortPipe.createResults(state)
+    assertTrue(spillDirectory.list().length <= ExternalSorter.MERGE_FAN_IN)
+
+    assertEquals(values.sorted.toList, result.map(_("x")).toList)
+    assertTrue(spillDirectory.list().isEmpty)
+    assertEquals(2000L, state.memory.inUse)
+  }
 }
@@ -63,6 +63,26 @@ class TopPipeTest extends Assertions {
     assert(result === List.empty)
   }
 
+  @Test def topRowsThatDoNotFitInTheMemoryBudgetAreSortedExternally() {
+    val input = createFakePipeWith(100)
+    val pipe = new TopPipe(input, List(SortItem(Identifier("a"), ascending = true)), Literal(50))
+    val state = QueryStateHelper.withMemoryBudget(500)
+    val result = pipe.createResults(state).map(ctx => ctx("a")).toList
+
+    assert(result === (0 until 50).toList)
+    assert(state.memory.bytesSpilledBy(pipe) > 0)
+  }
+
+  @Test def topRowsSortedExternallyGiveBackTheirMemory() {
+    val input = createFakePipeWith(100)
+    val pipe = new TopPipe(input, List(SortItem(Identifier("a"), ascending = true)), Literal(50))
+    val state = QueryStateHelper.withMemoryBudget(500)
+    val result = pipe.createResults(state).map(ctx => ctx("a")).toList
+
+    assert(result === (0 until 50).toList)
+    assert(state.memory.inUse === 0L)
+  }
+
   private def createFakePipeWith(count: Int): FakePipe = {
 
     val r = new Random(1337)
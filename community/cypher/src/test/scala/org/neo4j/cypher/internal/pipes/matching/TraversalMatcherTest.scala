@@ -28,6 +28,8 @@ import org.neo4j.graphdb.Direction.BOTH
 import org.neo4j.cypher.internal.ExecutionContext
 import org.neo4j.cypher.internal.pipes.QueryState
 import org.neo4j.cypher.internal.commands.True
+import org.neo4j.cypher.internal.spi.DelegatingQueryContext
+import org.neo4j.graphdb.Direction
 
 
 class TraversalMatcherTest extends GraphDatabaseTestBase {
@@ -159,4 +161,76 @@ class TraversalMatcherTest extends GraphDatabaseTestBase {
 
     assert( Set((a, b), (a, c), (b, a), (b, c), (c, a), (c, b)) === result )
   }
+
+  @Test def var_length_paths_between_bound_nodes() {
+    val a = createNode("a")
+    val b = createNode("b")
+    val c = createNode("c")
+    val d = createNode("d")
+    relate(a, b, "KNOWS")
+    relate(b, c, "KNOWS")
+    relate(c, d, "KNOWS")
+    relate(a, c, "KNOWS")
+
+    val queryState = QueryStateHelper.queryStateFrom(graph)
+
+    def paths(min: Int) = {
+      val step = VarLengthStep(0, Seq("KNOWS"), OUTGOING, min, Some(3), None, True(), True())
+      val matcher = new BidirectionalTraversalMatcher(step, produce(a), produce(d))
+      matcher.findMatchingPaths(queryState, ExecutionContext()).map(_.length()).toList.sorted
+    }
+
+    assert(List(2, 3) === paths(1))
+    assert(List(3) === paths(3))
+  }
+
+  @Test def var_length_paths_do_not_use_a_relationship_twice() {
+    val a = createNode("a")
+    val b = createNode("b")
+    val c = createNode("c")
+    relate(a, b, "LINK")
+    relate(b, c, "LINK")
+
+    val step = VarLengthStep(0, Seq("LINK"), BOTH, 1, Some(4), None, True(), True())
+    val matcher = new BidirectionalTraversalMatcher(step, produce(a), produce(a, c))
+
+    val result = matcher.findMatchingPaths(QueryStateHelper.queryStateFrom(graph), ExecutionContext()).toList
+
+    assert(List(c) === result.map(_.endNode()))
+  }
+
+  @Test def var_length_paths_skip_branches_that_can_not_reach_the_end() {
+    /*
+     * (a)-->(b)-->(c)
+     *        *    \-->(x1..x50)-->(y)
+     */
+    val a = createNode("a")
+    val b = createNode("b")
+    val c = createNode("c")
+    val y = createNode("y")
+    relate(a, b, "KNOWS")
+    relate(b, c, "KNOWS")
+    (1 to 50).foreach(i => {
+      val x = createNode("x" + i)
+      relate(a, x, "KNOWS")
+      relate(x, y, "KNOWS")
+    })
+
+    var expansions = 0
+    val plainState = QueryStateHelper.queryStateFrom(graph)
+    val queryState = plainState.copy(inner = new DelegatingQueryContext(plainState.inner) {
+      override def getRelationshipsFor(node: Node, dir: Direction, types: Seq[String]) = {
+        expansions += 1
+        super.getRelationshipsFor(node, dir, types)
+      }
+    })
+
+    val step = VarLengthStep(0, Seq("KNOWS"), OUTGOING, 1, Some(2), None, True(), True())
+    val matcher = new BidirectionalTraversalMatcher(step, produce(a), produce(c))
+
+    val result = matcher.findMatchingPaths(queryState, ExecutionContext()).toList
+
+    assert(1 === result.size)
+    assert(expansions < 10, "Expected the dead end branches to be pruned, but expanded " + expansions + " nodes")
+  }
 }
@@ -19,7 +19,7 @@
  */
 package org.neo4j.cypher.internal.profiler
 
-import org.neo4j.cypher.internal.pipes.{NullPipe, QueryState, Pipe, PipeWithSource}
+import org.neo4j.cypher.internal.pipes.{EagerPipe, NullPipe, QueryState, Pipe, PipeWithSource}
 import org.neo4j.cypher.internal.symbols.SymbolTable
 import org.neo4j.cypher.internal.ExecutionContext
 import org.neo4j.cypher.PlanDescription
@@ -68,6 +68,54 @@ class ProfilerTest extends Assertions with MockitoSugar {
     assertRecorded(decoratedResult, "baz", rows = 1, dbAccess = 2)
   }
 
+  @Test
+  def should_attribute_time_to_the_pipe_doing_the_work() {
+    //GIVEN
+    val start = NullPipe
+    val slow = new ProfilerPipe(start, "slow", rows = 10, dbAccess = 0, sleepMillis = 20)
+    val fast = new ProfilerPipe(slow, "fast", rows = 10, dbAccess = 0)
+    val queryContext = mock[QueryContext]
+    val profiler = new Profiler
+    val queryState = QueryState(null, queryContext, Map.empty, profiler, None)
+
+    //WHEN
+    materialize(fast.createResults(queryState))
+    val decoratedResult = profiler.decorate(fast.executionPlanDescription, true)
+
+    //THEN
+    val slowArgs = decoratedResult.find("slow").get.args.toMap
+    val fastArgs = decoratedResult.find("fast").get.args.toMap
+    val slowSelf = slowArgs("_self_time").v.asInstanceOf[Long]
+    val fastSelf = fastArgs("_self_time").v.asInstanceOf[Long]
+
+    assert(slowSelf >= 20L * 1000 * 1000)
+    assert(fastSelf < slowSelf)
+    assert(slowArgs("_total_time").v === slowSelf + startTotal(decoratedResult.find("slow").get))
+    assert(fastArgs("_total_time").v === fastSelf + slowArgs("_total_time").v.asInstanceOf[Long])
+  }
+
+  @Test
+  def should_report_peak_rows_of_eager_pipes() {
+    //GIVEN
+    val start = NullPipe
+    val pipe = new ProfilerPipe(start, "foo", rows = 10, dbAccess = 0)
+    val eager = new EagerPipe(pipe)
+    val queryContext = mock[QueryContext]
+    val profiler = new Profiler
+    val queryState = QueryState(null, queryContext, Map.empty, profiler, None)
+
+    //WHEN
+    materialize(eager.createResults(queryState))
+    val decoratedResult = profiler.decorate(eager.executionPlanDescription, true)
+
+    //THEN
+    assert(decoratedResult.find("Eager").get.args.toMap("_peak_rows").v === 10)
+    assert(decoratedResult.find("foo").get.args.toMap.get("_peak_rows") === None)
+  }
+
+  private def startTotal(plan: PlanDescription): Long =
+    plan.children.map(_.args.toMap("_total_time").v.asInstanceOf[Long]).sum
+
   private def assertRecorded(result: PlanDescription, name: String, rows: Int, dbAccess: Int) {
     val pipeArgs = result.find(name).get.args.toMap
     val recordedHits = pipeArgs("_db_hits")
@@ -82,12 +130,13 @@ class ProfilerTest extends Assertions with MockitoSugar {
   }
 }
 
-class ProfilerPipe(source: Pipe, name: String, rows: Int, dbAccess: Int) extends PipeWithSource(source) {
+class ProfilerPipe(source: Pipe, name: String, rows: Int, dbAccess: Int, sleepMillis: Int = 0) extends PipeWithSource(source) {
   def executionPlanDescription: PlanDescription = source.executionPlanDescription.andThen(this, name)
 
   protected def internalCreateResults(input:Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
     input.size
     (0 until dbAccess).foreach(x => state.query.createNode())
+    Thread.sleep(sleepMillis)
     (0 until rows).map(x => ExecutionContext.empty).toIterator
   }
 
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.performance
+
+import org.junit.{Ignore, Test}
+import org.scalatest.Assertions
+import org.neo4j.cypher.internal.ExecutionContext
+import org.neo4j.cypher.internal.commands._
+import org.neo4j.cypher.internal.commands.expressions.{Literal, Multiply, Add, Identifier}
+import org.neo4j.cypher.internal.pipes.{NullDecorator, FilterPipe, FakePipe, QueryState, Slots}
+import org.neo4j.cypher.internal.symbols.NumberType
+
+@Ignore
+class CompiledExpressionBenchmark extends Assertions {
+  val rowCount = 1000000
+  val rounds = 20
+
+  val predicate = And(
+    GreaterThan(Add(Identifier("a"), Literal(1L)), Multiply(Identifier("b"), Literal(2L))),
+    LessThan(Identifier("a"), Literal(900000L)))
+
+  @Test
+  def compareInterpretedAndCompiledFilters() {
+    val slots = Slots(Seq("a", "b"))
+    val rows = (0 until rowCount).map(i => Map[String, Any]("a" -> i.toLong, "b" -> (i % 1000).toLong))
+    val source = new FakePipe(rows, "a" -> NumberType(), "b" -> NumberType()) {
+      override def internalCreateResults(state: QueryState) =
+        rows.iterator.map(row => ExecutionContext.withSlots(slots).newWith(row))
+    }
+
+    val interpreted = new FilterPipe(source, predicate)
+    val compiled = new FilterPipe(source, predicate)
+    compiled.compileExpressions(slots)
+
+    val interpretedTime = time(interpreted)
+    val compiledTime = time(compiled)
+
+    println("Interpreted: %d ms, compiled: %d ms".format(interpretedTime, compiledTime))
+  }
+
+  private def time(pipe: FilterPipe): Long = {
+    val state = QueryState(null, null, Map.empty, NullDecorator)
+    var matches = 0
+
+    (0 until rounds / 2).foreach(_ => pipe.createResults(state).size)
+
+    val t0 = System.nanoTime()
+    (0 until rounds).foreach(_ => matches += pipe.createResults(state).size)
+    val t1 = System.nanoTime()
+
+    assert(matches > 0)
+    (t1 - t0) / 1000000
+  }
+}
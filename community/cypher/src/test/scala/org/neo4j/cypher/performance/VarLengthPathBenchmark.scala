@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.performance
+
+import org.junit.{After, Before, Ignore, Test}
+import org.scalatest.Assertions
+import scala.util.Random
+import org.neo4j.graphdb.{Direction, DynamicRelationshipType, Node}
+import org.neo4j.kernel.GraphDatabaseAPI
+import org.neo4j.test.ImpermanentGraphDatabase
+import org.neo4j.cypher.internal.ExecutionContext
+import org.neo4j.cypher.internal.commands.True
+import org.neo4j.cypher.internal.pipes.{QueryStateHelper, QueryState, EntityProducer}
+import org.neo4j.cypher.internal.pipes.matching.{MonoDirectionalTraversalMatcher, BidirectionalTraversalMatcher, VarLengthStep}
+
+/*
+Compares expanding a variable length pattern between two bound nodes from the start node only, with the bidirectional
+pruning search. The graph is grown by preferential attachment, so that a few nodes get most of the relationships.
+ */
+@Ignore
+class VarLengthPathBenchmark extends Assertions {
+  val nodeCount = 5000
+  val relationshipsPerNode = 3
+  val pairs = 50
+  val maxLength = 5
+
+  var db: GraphDatabaseAPI = null
+  var nodes: IndexedSeq[Node] = null
+
+  @Before
+  def init() {
+    db = new ImpermanentGraphDatabase()
+    nodes = createPowerLawGraph(new Random(42))
+  }
+
+  @After
+  def closeDown() {
+    db.shutdown()
+  }
+
+  @Test
+  def compareMonoDirectionalAndBidirectionalSearch() {
+    val random = new Random(7)
+    val step = VarLengthStep(0, Seq("KNOWS"), Direction.OUTGOING, 1, Some(maxLength), None, True(), True())
+    val endpoints = (0 until pairs).map(_ => (nodes(random.nextInt(nodeCount)), nodes(random.nextInt(nodeCount))))
+
+    val state = QueryStateHelper.queryStateFrom(db)
+
+    val (monoPaths, monoTime) = time(endpoints.map {
+      case (a, b) =>
+        new MonoDirectionalTraversalMatcher(step, produce(a)).findMatchingPaths(state, ExecutionContext()).
+          count(_.endNode() == b)
+    }.sum)
+
+    val (biPaths, biTime) = time(endpoints.map {
+      case (a, b) =>
+        new BidirectionalTraversalMatcher(step, produce(a), produce(b)).findMatchingPaths(state, ExecutionContext()).size
+    }.sum)
+
+    println("%d paths. Mono directional: %d ms, bidirectional with pruning: %d ms".format(biPaths, monoTime, biTime))
+    assert(monoPaths === biPaths)
+  }
+
+  private def createPowerLawGraph(random: Random): IndexedSeq[Node] = {
+    val knows = DynamicRelationshipType.withName("KNOWS")
+    val tx = db.beginTx()
+    try {
+      val created = (0 until nodeCount).map(_ => db.createNode())
+      // Every relationship end is a candidate for the next one, so well connected nodes attract more relationships
+      val ends = new collection.mutable.ArrayBuffer[Node]()
+      ends += created(0)
+
+      created.tail.foreach(node => {
+        (0 until relationshipsPerNode).foreach(_ => {
+          val other = ends(random.nextInt(ends.size))
+          if (random.nextBoolean()) node.createRelationshipTo(other, knows) else other.createRelationshipTo(node, knows)
+          ends += other
+        })
+        ends += node
+      })
+
+      tx.success()
+      created
+    } finally {
+      tx.finish()
+    }
+  }
+
+  private def produce(x: Node) = EntityProducer[Node]("Produce") { (_: ExecutionContext, _: QueryState) => Iterator(x) }
+
+  private def time[T](f: => T): (T, Long) = {
+    val t0 = System.nanoTime()
+    val result = f
+    val t1 = System.nanoTime()
+    (result, (t1 - t0) / 1000000)
+  }
+}
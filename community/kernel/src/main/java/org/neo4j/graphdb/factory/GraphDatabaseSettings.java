@@ -19,6 +19,7 @@
  */
 package org.neo4j.graphdb.factory;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -41,6 +42,7 @@ import org.neo4j.kernel.impl.cache.MonitorGc;
 import static org.neo4j.helpers.Settings.ANY;
 import static org.neo4j.helpers.Settings.BOOLEAN;
 import static org.neo4j.helpers.Settings.BYTES;
+import static org.neo4j.helpers.Settings.DURATION;
 import static org.neo4j.helpers.Settings.DURATION_FORMAT;
 import static org.neo4j.helpers.Settings.FALSE;
 import static org.neo4j.helpers.Settings.FLOAT;
@@ -111,6 +113,35 @@ public abstract class GraphDatabaseSettings
     @Description("Used to set the number of Cypher query execution plans that are cached.")
     public static GraphDatabaseSetting<Integer> query_cache_size = new IntegerSetting( setting("query_cache_size", INTEGER, "100", min( 0 ) ));
 
+    @Description( "Replace number and string literals in the START and WHERE clauses and in SKIP and LIMIT of " +
+                  "Cypher queries by parameters before looking up their execution plan, so that queries that " +
+                  "only differ in those literals share a single cached plan." )
+    public static final Setting<Boolean> query_cache_auto_parameterization = setting(
+            "query_cache_auto_parameterization", BOOLEAN, TRUE );
+
+    @Description( "How much heap a single Cypher query may use for sorting and aggregating rows before it " +
+                  "spills them to temporary files. The size of rows held in memory is an estimate. " +
+                  "0 means that queries never spill." )
+    public static final Setting<Long> query_memory_budget = setting( "query_memory_budget", BYTES, "256M",
+            min( 0L ) );
+
+    @Description( "Directory that Cypher queries write their spill files to. The files are removed when the query " +
+                  "that wrote them is closed. When not set, the temporary directory of the JVM is used." )
+    public static final Setting<File> query_spill_directory = setting( "query_spill_directory", PATH, NO_DEFAULT );
+
+    @Description( "Evaluate Cypher predicates and projections through expression trees that are specialised " +
+                  "once per cached execution plan, with direct row slot access and primitive arithmetic, " +
+                  "instead of interpreting them for every row." )
+    public static final Setting<Boolean> cypher_compiled_expressions = setting( "cypher_compiled_expressions",
+            BOOLEAN, FALSE );
+
+    @Description( "Number of threads aggregating a read only Cypher query that starts by scanning all nodes, or all " +
+                  "nodes with a label. With more than one thread the scanned nodes are split into partitions which " +
+                  "are matched and aggregated in parallel, as long as only count, sum, avg, min, max and collect " +
+                  "are used." )
+    public static final Setting<Integer> cypher_aggregation_threads = setting( "cypher_aggregation_threads", INTEGER,
+            "1", min( 1 ) );
+
     // Store files
     @Description("The directory where the database files are located.")
     public static final GraphDatabaseSetting.DirectorySetting store_dir = new GraphDatabaseSetting.DirectorySetting(setting("store_dir", PATH, NO_DEFAULT ));
@@ -186,6 +217,28 @@ public abstract class GraphDatabaseSettings
     public static final Setting<Long> logical_log_rotation_threshold = setting( "logical_log_rotation_threshold",
             Settings.LONG_WITH_OPTIONAL_UNIT, "25M" );
 
+    @Description( "Let concurrently committing transactions share a single force of the logical logs and the " +
+                  "transaction manager log, instead of forcing once per transaction. Transactions are applied to " +
+                  "the store once their force has completed. Not used by the logical logs of HA cluster members." )
+    public static final Setting<Boolean> use_group_commit = setting( "use_group_commit", BOOLEAN, FALSE );
+
+    @Description( "How long the transaction leading a group commit waits for other transactions to join the " +
+                  "batch before forcing. 0 means force as soon as the previous force has completed." )
+    public static final Setting<Long> group_commit_max_batch_wait = setting( "group_commit_max_batch_wait",
+            DURATION, "0ms" );
+
+    @Description( "Memory map rotated logical logs when reading them, for example when slaves catch up or for " +
+                  "incremental backups, instead of reading them through a heap buffer. Mappings are released when " +
+                  "garbage collected, which on Windows keeps pruned logs from being deleted until then." )
+    public static final Setting<Boolean> logical_log_mapped_reads = setting( "logical_log_mapped_reads", BOOLEAN,
+            TRUE );
+
+    @Description( "Number of threads scanning the node store when populating a new schema index. With more than " +
+                  "one thread the node store is split into ranges which are read in parallel, while updates are " +
+                  "still fed to the index in node id order." )
+    public static final Setting<Integer> index_population_threads = setting( "index_population_threads", INTEGER,
+            "1", min( 1 ) );
+
     @Description("Use a quick approach for rebuilding the ID generators. This give quicker recovery time, " +
             "but will limit the ability to reuse the space of deleted entities.")
     public static final BooleanSetting rebuild_idgenerators_fast = new BooleanSetting( setting("rebuild_idgenerators_fast",BOOLEAN, TRUE ));
@@ -194,6 +247,18 @@ public abstract class GraphDatabaseSettings
     @Description("Tell Neo4j to use memory mapped buffers for accessing the native storage layer.")
     public static final UseMemoryMappedBuffers use_memory_mapped_buffers = new UseMemoryMappedBuffers(setting( "use_memory_mapped_buffers", BOOLEAN, NO_DEFAULT ));
 
+    @Description("Use a fixed size page cache for accessing the native storage layer, instead of the default " +
+            "memory mapped windows. The page cache lets concurrent readers share pages and evicts pages in " +
+            "clock order, rather than periodically reshuffling which parts of the stores are mapped.")
+    public static final Setting<Boolean> use_page_cache = setting( "use_page_cache", BOOLEAN, FALSE );
+
+    @Description("Target size of each page in the page cache.")
+    public static final Setting<Long> page_cache_page_size = setting( "page_cache_page_size", BYTES, "8k" );
+
+    @Description("How often the page cache writes out dirty pages in the background.")
+    public static final Setting<Long> page_cache_flush_interval = setting( "page_cache_flush_interval", DURATION,
+            "1s" );
+
     @Description("Target size for pages of mapped memory.")
     public static final GraphDatabaseSetting<Long> mapped_memory_page_size = new NumberOfBytesSetting(setting("mapped_memory_page_size", BYTES, "1M" ));
 
@@ -279,6 +344,11 @@ public abstract class GraphDatabaseSettings
     public static final IntegerSetting relationship_grab_size =
             new IntegerSetting( setting("relationship_grab_size", INTEGER, "100", min( 1 )));
 
+    @Description("Relationship count threshold for considering a node dense. A dense node keeps its relationships " +
+            "grouped by type and direction, so that traversing one type doesn't have to load all the others.")
+    public static final IntegerSetting dense_node_threshold =
+            new IntegerSetting( setting("dense_node_threshold", INTEGER, "50", min( 1 )));
+
     @Description("Whether to grab locks on files or not.")
     @Deprecated
     public static final BooleanSetting grab_file_lock = new BooleanSetting( setting("grab_file_lock", BOOLEAN, TRUE ));
@@ -405,6 +475,11 @@ public abstract class GraphDatabaseSettings
                 "This is the default cache setting.")
         public static final String gcr = "gcr";
 
+        @Description("Off heap cache. Keeps a configurable number of recently used objects on the JVM heap \n" +
+                "and serializes objects evicted from there into a configurable amount of memory outside of the \n" +
+                "JVM heap, where it doesn't add to the work of the garbage collector.")
+        public static final String offheap = "offheap";
+
         public static String[] availableCaches()
         {
             List<String> available = new ArrayList<String>();
@@ -67,6 +67,7 @@ import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException;
 import org.neo4j.kernel.api.exceptions.schema.SchemaRuleNotFoundException;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.operations.StatementState;
+import org.neo4j.kernel.api.statistics.GraphStatistics;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.configuration.ConfigurationChange;
 import org.neo4j.kernel.configuration.ConfigurationChangeListener;
@@ -85,6 +86,7 @@ import org.neo4j.kernel.impl.api.index.RemoveOrphanConstraintIndexesOnStartup;
 import org.neo4j.kernel.impl.cache.Cache;
 import org.neo4j.kernel.impl.cache.CacheProvider;
 import org.neo4j.kernel.impl.cache.MonitorGc;
+import org.neo4j.kernel.impl.cache.QueryPlanCacheStatistics;
 import org.neo4j.kernel.impl.cleanup.CleanupIfOutsideTransaction;
 import org.neo4j.kernel.impl.cleanup.CleanupService;
 import org.neo4j.kernel.impl.core.CacheAccessBackDoor;
@@ -128,6 +130,8 @@ import org.neo4j.kernel.impl.transaction.TxManager;
 import org.neo4j.kernel.impl.transaction.XaDataSourceManager;
 import org.neo4j.kernel.impl.transaction.xaframework.DefaultLogBufferFactory;
 import org.neo4j.kernel.impl.transaction.xaframework.ForceMode;
+import org.neo4j.kernel.impl.transaction.xaframework.GroupCommit;
+import org.neo4j.kernel.impl.transaction.xaframework.GroupCommitStatistics;
 import org.neo4j.kernel.impl.transaction.xaframework.LogBufferFactory;
 import org.neo4j.kernel.impl.transaction.xaframework.LogPruneStrategies;
 import org.neo4j.kernel.impl.transaction.xaframework.RecoveryVerifier;
@@ -216,6 +220,8 @@ public abstract class InternalAbstractGraphDatabase
     protected TxIdGenerator txIdGenerator;
     protected StoreFactory storeFactory;
     protected XaFactory xaFactory;
+    protected final GroupCommitStatistics groupCommitStatistics = new GroupCommitStatistics();
+    protected final QueryPlanCacheStatistics queryPlanCacheStatistics = new QueryPlanCacheStatistics();
     protected DiagnosticsManager diagnosticsManager;
     protected NeoStoreXaDataSource neoDataSource;
     protected RecoveryVerifier recoveryVerifier;
@@ -442,7 +448,8 @@ public abstract class InternalAbstractGraphDatabase
             if ( GraphDatabaseSettings.tx_manager_impl.getDefaultValue().equals( serviceName ) )
             {
                 txManager = new TxManager( this.storeDir, xaDataSourceManager, kernelPanicEventGenerator,
-                        logging.getMessagesLog( TxManager.class ), fileSystem, stateFactory );
+                        logging.getMessagesLog( TxManager.class ), fileSystem, stateFactory,
+                        GroupCommit.fromConfig( config, groupCommitStatistics ) );
             }
             else
             {
@@ -540,7 +547,7 @@ public abstract class InternalAbstractGraphDatabase
         String keepLogicalLogsConfig = config.get( GraphDatabaseSettings.keep_logical_logs );
         xaFactory = new XaFactory( config, txIdGenerator, txManager, logBufferFactory, fileSystem,
                 logging, recoveryVerifier, LogPruneStrategies.fromConfigValue(
-                fileSystem, keepLogicalLogsConfig ) );
+                fileSystem, keepLogicalLogsConfig ), groupCommitStatistics );
 
         createNeoDataSource();
 
@@ -1261,6 +1268,14 @@ public abstract class InternalAbstractGraphDatabase
             {
                 return type.cast( xaFactory );
             }
+            else if ( GroupCommitStatistics.class.isAssignableFrom( type ) && type.isInstance( groupCommitStatistics ) )
+            {
+                return type.cast( groupCommitStatistics );
+            }
+            else if ( QueryPlanCacheStatistics.class.isAssignableFrom( type ) && type.isInstance( queryPlanCacheStatistics ) )
+            {
+                return type.cast( queryPlanCacheStatistics );
+            }
             else if ( XaDataSourceManager.class.isAssignableFrom( type ) && type.isInstance( xaDataSourceManager ) )
             {
                 return type.cast( xaDataSourceManager );
@@ -1314,6 +1329,11 @@ public abstract class InternalAbstractGraphDatabase
             {
                 return type.cast( labelTokenHolder );
             }
+            else if ( RelationshipTypeTokenHolder.class.isAssignableFrom( type )
+                    && type.isInstance( relationshipTypeTokenHolder ) )
+            {
+                return type.cast( relationshipTypeTokenHolder );
+            }
             else if ( PersistenceManager.class.isAssignableFrom( type ) && type.isInstance( persistenceManager ) )
             {
                 return type.cast( persistenceManager );
@@ -1344,6 +1364,11 @@ public abstract class InternalAbstractGraphDatabase
             {
                 return type.cast( neoDataSource.getIndexService() );
             }
+            else if ( GraphStatistics.class.isAssignableFrom( type )
+                    && type.isInstance( neoDataSource.getGraphStatistics() ) )
+            {
+                return type.cast( neoDataSource.getGraphStatistics() );
+            }
             else if ( JobScheduler.class.isAssignableFrom( type ) && type.isInstance( jobScheduler ) )
             {
                 return type.cast( jobScheduler );
@@ -240,6 +240,26 @@ public class StatementOperationParts
                 return entityReadOperations.nodesGetFromIndexLookup( state, index, value );
             }
             @Override
+            public PrimitiveLongIterator nodesGetFromIndexRangeSeekByNumber( StatementState state,
+                    IndexDescriptor index, Number lower, boolean includeLower, Number upper, boolean includeUpper )
+                    throws IndexNotFoundKernelException
+            {
+                return entityReadOperations.nodesGetFromIndexRangeSeekByNumber( state, index,
+                        lower, includeLower, upper, includeUpper );
+            }
+            @Override
+            public PrimitiveLongIterator nodesGetFromIndexRangeSeekByPrefix( StatementState state,
+                    IndexDescriptor index, String prefix ) throws IndexNotFoundKernelException
+            {
+                return entityReadOperations.nodesGetFromIndexRangeSeekByPrefix( state, index, prefix );
+            }
+            @Override
+            public PrimitiveLongIterator nodesGetFromIndexLookupAny( StatementState state, IndexDescriptor index,
+                    Iterable<?> values ) throws IndexNotFoundKernelException
+            {
+                return entityReadOperations.nodesGetFromIndexLookupAny( state, index, values );
+            }
+            @Override
             public boolean nodeHasLabel( StatementState state, long nodeId, long labelId ) throws EntityNotFoundException
             {
                 return entityReadOperations.nodeHasLabel( state, nodeId, labelId );
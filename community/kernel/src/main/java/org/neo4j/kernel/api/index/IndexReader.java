@@ -34,6 +34,25 @@ public interface IndexReader extends Closeable
 {
     PrimitiveLongIterator lookup( Object value );
 
+    /**
+     * Looks up all entries with a numeric value between {@code lower} and {@code upper}. A {@code null}
+     * bound means the range is open in that direction. Values are compared as doubles, so the result may also
+     * hold values just outside of an exclusive bound beyond 2^53, see {@link IndexValuePredicates#seekIncludes}.
+     * Callers that need the exact range have to filter the result.
+     */
+    PrimitiveLongIterator rangeSeekByNumber( Number lower, boolean includeLower, Number upper, boolean includeUpper );
+
+    /**
+     * Looks up all entries with a string value starting with {@code prefix}.
+     */
+    PrimitiveLongIterator rangeSeekByPrefix( String prefix );
+
+    /**
+     * Looks up all entries matching any of the given values, as if {@link #lookup(Object)} had been
+     * called for each of them. Each matching entry is returned once.
+     */
+    PrimitiveLongIterator lookupAny( Iterable<?> values );
+
     @Override
     void close();
     
@@ -44,6 +63,25 @@ public interface IndexReader extends Closeable
         {
             return emptyPrimitiveLongIterator();
         }
+
+        @Override
+        public PrimitiveLongIterator rangeSeekByNumber( Number lower, boolean includeLower,
+                                                        Number upper, boolean includeUpper )
+        {
+            return emptyPrimitiveLongIterator();
+        }
+
+        @Override
+        public PrimitiveLongIterator rangeSeekByPrefix( String prefix )
+        {
+            return emptyPrimitiveLongIterator();
+        }
+
+        @Override
+        public PrimitiveLongIterator lookupAny( Iterable<?> values )
+        {
+            return emptyPrimitiveLongIterator();
+        }
         
         @Override
         public void close()
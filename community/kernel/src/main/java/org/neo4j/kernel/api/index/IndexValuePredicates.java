@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.neo4j.helpers.Predicate;
+
+/**
+ * Predicates over property values that mirror the semantics of the seek methods on {@link IndexReader},
+ * for use where index results have to be merged with values that are not yet in the index, e.g. transaction
+ * state.
+ */
+public class IndexValuePredicates
+{
+    private static final double LARGEST_EXACT_LONG = 0x1p53;
+
+    private IndexValuePredicates()
+    {
+    }
+
+    /**
+     * Whether a number range seek has to include {@code bound} itself. Longs beyond 2^53 lose precision as
+     * doubles, so a value just past an exclusive bound may compare equal to it. Such bounds are made inclusive,
+     * which keeps the seek a superset of the exact range.
+     */
+    public static boolean seekIncludes( Number bound, boolean inclusive )
+    {
+        return inclusive || Math.abs( bound.doubleValue() ) >= LARGEST_EXACT_LONG;
+    }
+
+    /**
+     * @see IndexReader#rangeSeekByNumber(Number, boolean, Number, boolean)
+     */
+    public static Predicate<Object> numberRange( final Number lower, boolean includeLower,
+                                                 final Number upper, boolean includeUpper )
+    {
+        final boolean seekIncludesLower = lower == null || seekIncludes( lower, includeLower );
+        final boolean seekIncludesUpper = upper == null || seekIncludes( upper, includeUpper );
+        return new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object value )
+            {
+                if ( !(value instanceof Number) )
+                {
+                    return false;
+                }
+                double number = ((Number) value).doubleValue();
+                if ( lower != null )
+                {
+                    int comparison = Double.compare( number, lower.doubleValue() );
+                    if ( comparison < 0 || (comparison == 0 && !seekIncludesLower) )
+                    {
+                        return false;
+                    }
+                }
+                if ( upper != null )
+                {
+                    int comparison = Double.compare( number, upper.doubleValue() );
+                    if ( comparison > 0 || (comparison == 0 && !seekIncludesUpper) )
+                    {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @see IndexReader#rangeSeekByPrefix(String)
+     */
+    public static Predicate<Object> stringPrefix( final String prefix )
+    {
+        return new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object value )
+            {
+                return value instanceof String && ((String) value).startsWith( prefix );
+            }
+        };
+    }
+
+    /**
+     * @see IndexReader#lookupAny(Iterable)
+     */
+    public static Predicate<Object> anyOf( Iterable<?> values )
+    {
+        final Collection<Object> candidates = new ArrayList<Object>();
+        for ( Object value : values )
+        {
+            candidates.add( value );
+        }
+        return new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object value )
+            {
+                for ( Object candidate : candidates )
+                {
+                    if ( valueEquals( candidate, value ) )
+                    {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    private static boolean valueEquals( Object candidate, Object value )
+    {
+        if ( candidate instanceof Number && value instanceof Number )
+        {
+            return ((Number) candidate).doubleValue() == ((Number) value).doubleValue();
+        }
+        if ( candidate != null && value != null && candidate.getClass().isArray() && value.getClass().isArray() )
+        {
+            return Arrays.deepEquals( new Object[]{candidate}, new Object[]{value} );
+        }
+        return candidate != null && candidate.equals( value );
+    }
+}
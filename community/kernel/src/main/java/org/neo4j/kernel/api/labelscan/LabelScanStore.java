@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.labelscan;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+import org.neo4j.kernel.lifecycle.Lifecycle;
+
+import static org.neo4j.helpers.collection.IteratorUtil.emptyPrimitiveLongIterator;
+
+/**
+ * Stores which nodes have which labels, so that all nodes with a certain label can be found without
+ * scanning the whole node store. It's fed with committed label changes from the transactions and
+ * is expected to be able to rebuild itself from the node store if it cannot trust its persisted state.
+ */
+public interface LabelScanStore extends Lifecycle
+{
+    /**
+     * Applies the label changes of a committed transaction. Updates are applied with set semantics,
+     * so that the same changes may be applied again when transactions are replayed during recovery.
+     */
+    void updateAndCommit( Iterator<NodeLabelUpdate> updates ) throws IOException;
+
+    /**
+     * @return ids of all nodes having the given label, in ascending order.
+     */
+    PrimitiveLongIterator nodesWithLabel( long labelId );
+
+    /**
+     * Makes the current state durable. After this call the store can be opened without a rebuild,
+     * given that the transactions committed after this point are replayed on top of it.
+     */
+    void force() throws IOException;
+
+    LabelScanStore EMPTY = new LabelScanStore()
+    {
+        @Override
+        public void updateAndCommit( Iterator<NodeLabelUpdate> updates )
+        {
+        }
+
+        @Override
+        public PrimitiveLongIterator nodesWithLabel( long labelId )
+        {
+            return emptyPrimitiveLongIterator();
+        }
+
+        @Override
+        public void force()
+        {
+        }
+
+        @Override
+        public void init()
+        {
+        }
+
+        @Override
+        public void start()
+        {
+        }
+
+        @Override
+        public void stop()
+        {
+        }
+
+        @Override
+        public void shutdown()
+        {
+        }
+    };
+}
@@ -46,6 +46,33 @@ public interface EntityReadOperations
      */
     PrimitiveLongIterator nodesGetFromIndexLookup( StatementState state, IndexDescriptor index, Object value ) throws IndexNotFoundKernelException;
 
+    /**
+     * Returns the nodes in the index with a numeric value between {@code lower} and {@code upper}. A
+     * {@code null} bound leaves the range open in that direction.
+     *
+     * @throws IndexNotFoundKernelException if no such index found.
+     */
+    PrimitiveLongIterator nodesGetFromIndexRangeSeekByNumber( StatementState state, IndexDescriptor index,
+                                                              Number lower, boolean includeLower,
+                                                              Number upper, boolean includeUpper )
+            throws IndexNotFoundKernelException;
+
+    /**
+     * Returns the nodes in the index with a string value starting with {@code prefix}.
+     *
+     * @throws IndexNotFoundKernelException if no such index found.
+     */
+    PrimitiveLongIterator nodesGetFromIndexRangeSeekByPrefix( StatementState state, IndexDescriptor index,
+                                                              String prefix ) throws IndexNotFoundKernelException;
+
+    /**
+     * Returns the nodes in the index matching any of the given values.
+     *
+     * @throws IndexNotFoundKernelException if no such index found.
+     */
+    PrimitiveLongIterator nodesGetFromIndexLookupAny( StatementState state, IndexDescriptor index,
+                                                      Iterable<?> values ) throws IndexNotFoundKernelException;
+
     /**
      * Checks if a node is labeled with a certain label or not. Returns
      * {@code true} if the node is labeled with the label, otherwise {@code false.}
@@ -23,6 +23,7 @@ import java.util.Collections;
 import java.util.Set;
 
 import org.neo4j.graphdb.NotInTransactionException;
+import org.neo4j.helpers.Predicate;
 import org.neo4j.kernel.api.constraints.UniquenessConstraint;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.api.exceptions.PropertyNotFoundException;
@@ -259,6 +260,12 @@ public class ReadOnlyStatementState implements StatementState
             return DiffSets.emptyDiffSets();
         }
         
+        @Override
+        public DiffSets<Long> nodesWithChangedProperty( long propertyKeyId, Predicate<Object> valuePredicate )
+        {
+            return DiffSets.emptyDiffSets();
+        }
+        
         @Override
         public Iterable<NodeState> nodeStates()
         {
@@ -21,6 +21,7 @@ package org.neo4j.kernel.api.operations;
 
 import java.util.Set;
 
+import org.neo4j.helpers.Predicate;
 import org.neo4j.kernel.api.constraints.UniquenessConstraint;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.api.exceptions.PropertyNotFoundException;
@@ -290,6 +291,12 @@ public class WritableStatementState implements StatementState
             throw placeHolderException();
         }
         
+        @Override
+        public DiffSets<Long> nodesWithChangedProperty( long propertyKeyId, Predicate<Object> valuePredicate )
+        {
+            throw placeHolderException();
+        }
+        
         @Override
         public Iterable<NodeState> nodeStates()
         {
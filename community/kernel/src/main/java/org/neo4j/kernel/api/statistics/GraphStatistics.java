@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.statistics;
+
+import org.neo4j.kernel.lifecycle.Lifecycle;
+
+/**
+ * Counts of committed entities, cheap enough to ask for while planning a query. The counts are fed with
+ * the changes of every committed transaction and don't include changes in the state of the current one.
+ */
+public interface GraphStatistics extends Lifecycle
+{
+    /**
+     * Applies the count changes of a committed transaction.
+     */
+    void updateAndCommit( StatisticsUpdate update );
+
+    /**
+     * @return number of nodes in use.
+     */
+    long nodeCount();
+
+    /**
+     * @return number of nodes having the given label.
+     */
+    long nodeCountWithLabel( long labelId );
+
+    /**
+     * @return number of relationships in use.
+     */
+    long relationshipCount();
+
+    /**
+     * @return number of relationships of the given type.
+     */
+    long relationshipCountWithType( long relationshipTypeId );
+
+    GraphStatistics EMPTY = new GraphStatistics()
+    {
+        @Override
+        public void updateAndCommit( StatisticsUpdate update )
+        {
+        }
+
+        @Override
+        public long nodeCount()
+        {
+            return 0;
+        }
+
+        @Override
+        public long nodeCountWithLabel( long labelId )
+        {
+            return 0;
+        }
+
+        @Override
+        public long relationshipCount()
+        {
+            return 0;
+        }
+
+        @Override
+        public long relationshipCountWithType( long relationshipTypeId )
+        {
+            return 0;
+        }
+
+        @Override
+        public void init()
+        {
+        }
+
+        @Override
+        public void start()
+        {
+        }
+
+        @Override
+        public void stop()
+        {
+        }
+
+        @Override
+        public void shutdown()
+        {
+        }
+    };
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.statistics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Changes to the {@link GraphStatistics counts}, gathered from the commands of one transaction.
+ * Counts that end up not changing are left out.
+ */
+public class StatisticsUpdate
+{
+    private long nodes;
+    private long relationships;
+    private final Map<Long, Long> nodesWithLabel = new HashMap<>();
+    private final Map<Long, Long> relationshipsWithType = new HashMap<>();
+
+    public void nodeAdded( long[] labels )
+    {
+        nodes++;
+        labelsChanged( EMPTY, labels );
+    }
+
+    public void nodeRemoved( long[] labels )
+    {
+        nodes--;
+        labelsChanged( labels, EMPTY );
+    }
+
+    /**
+     * @param labelsBefore label ids of a node before the change.
+     * @param labelsAfter label ids of the same node after the change.
+     */
+    public void labelsChanged( long[] labelsBefore, long[] labelsAfter )
+    {
+        for ( long labelId : labelsAfter )
+        {
+            if ( !contains( labelsBefore, labelId ) )
+            {
+                add( nodesWithLabel, labelId, 1 );
+            }
+        }
+        for ( long labelId : labelsBefore )
+        {
+            if ( !contains( labelsAfter, labelId ) )
+            {
+                add( nodesWithLabel, labelId, -1 );
+            }
+        }
+    }
+
+    public void relationshipAdded( long typeId )
+    {
+        relationships++;
+        add( relationshipsWithType, typeId, 1 );
+    }
+
+    public void relationshipRemoved( long typeId )
+    {
+        relationships--;
+        add( relationshipsWithType, typeId, -1 );
+    }
+
+    public long nodeCountChange()
+    {
+        return nodes;
+    }
+
+    public long relationshipCountChange()
+    {
+        return relationships;
+    }
+
+    /**
+     * @return label id to change in number of nodes having that label.
+     */
+    public Map<Long, Long> nodeCountChangesPerLabel()
+    {
+        return nodesWithLabel;
+    }
+
+    /**
+     * @return relationship type id to change in number of relationships of that type.
+     */
+    public Map<Long, Long> relationshipCountChangesPerType()
+    {
+        return relationshipsWithType;
+    }
+
+    public boolean isEmpty()
+    {
+        return nodes == 0 && relationships == 0 && nodesWithLabel.isEmpty() && relationshipsWithType.isEmpty();
+    }
+
+    private static void add( Map<Long, Long> counts, long key, long delta )
+    {
+        Long current = counts.get( key );
+        long value = (current == null ? 0 : current) + delta;
+        if ( value == 0 )
+        {
+            counts.remove( key );
+        }
+        else
+        {
+            counts.put( key, value );
+        }
+    }
+
+    private static boolean contains( long[] values, long value )
+    {
+        for ( long candidate : values )
+        {
+            if ( candidate == value )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString()
+    {
+        return getClass().getSimpleName() + "[nodes:" + nodes + ", relationships:" + relationships +
+                ", nodesWithLabel:" + nodesWithLabel + ", relationshipsWithType:" + relationshipsWithType + "]";
+    }
+
+    private static final long[] EMPTY = new long[0];
+}
@@ -307,6 +307,32 @@ public class CachingStatementOperations implements
         return entityReadDelegate.nodesGetFromIndexLookup( state, index, value );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByNumber( StatementState state, IndexDescriptor index,
+                                                                     Number lower, boolean includeLower,
+                                                                     Number upper, boolean includeUpper )
+            throws IndexNotFoundKernelException
+    {
+        return entityReadDelegate.nodesGetFromIndexRangeSeekByNumber( state, index,
+                lower, includeLower, upper, includeUpper );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByPrefix( StatementState state, IndexDescriptor index,
+                                                                     String prefix )
+            throws IndexNotFoundKernelException
+    {
+        return entityReadDelegate.nodesGetFromIndexRangeSeekByPrefix( state, index, prefix );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexLookupAny( StatementState state, IndexDescriptor index,
+                                                             Iterable<?> values )
+            throws IndexNotFoundKernelException
+    {
+        return entityReadDelegate.nodesGetFromIndexLookupAny( state, index, values );
+    }
+
     @Override
     public IndexDescriptor indexesGetForLabelAndPropertyKey( StatementState state, long labelId, long propertyKey )
             throws SchemaRuleNotFoundException
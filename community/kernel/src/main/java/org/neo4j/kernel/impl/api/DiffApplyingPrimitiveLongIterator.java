@@ -22,6 +22,8 @@ package org.neo4j.kernel.impl.api;
 import java.util.Iterator;
 import java.util.Set;
 
+import org.neo4j.kernel.impl.util.PrimitiveLongSet;
+
 public final class DiffApplyingPrimitiveLongIterator extends AbstractPrimitiveLongIterator
 {
     private enum Phase
@@ -58,7 +60,7 @@ public final class DiffApplyingPrimitiveLongIterator extends AbstractPrimitiveLo
     }
 
     private final PrimitiveLongIterator source;
-    private final Iterator<?> addedElementsIterator;
+    private final PrimitiveLongIterator addedElementsIterator;
     private final Set<?> addedElements;
     private final Set<?> removedElements;
 
@@ -69,7 +71,7 @@ public final class DiffApplyingPrimitiveLongIterator extends AbstractPrimitiveLo
     {
         this.source = source;
         this.addedElements = addedElements;
-        this.addedElementsIterator = addedElements == null ? null : addedElements.iterator();
+        this.addedElementsIterator = addedElements == null ? null : iterate( addedElements );
         this.removedElements = removedElements;
         phase = Phase.FILTERED_SOURCE;
 
@@ -87,8 +89,7 @@ public final class DiffApplyingPrimitiveLongIterator extends AbstractPrimitiveLo
         for ( hasNext = source.hasNext(); hasNext; hasNext = source.hasNext() )
         {
             nextValue = source.next();
-            if ( ( removedElements == null || !removedElements.contains( nextValue ) ) &&
-                 ( addedElements == null || !addedElements.contains( nextValue ) ) )
+            if ( !contains( removedElements, nextValue ) && !contains( addedElements, nextValue ) )
             {
                 return;
             }
@@ -108,7 +109,45 @@ public final class DiffApplyingPrimitiveLongIterator extends AbstractPrimitiveLo
         hasNext = addedElementsIterator.hasNext();
         if ( hasNext )
         {
-            nextValue = (Long) addedElementsIterator.next();
+            nextValue = addedElementsIterator.next();
+        }
+    }
+
+    // Sets of ids in transaction state are primitive, which saves boxing every id read from the store
+    private static boolean contains( Set<?> set, long value )
+    {
+        if ( set == null )
+        {
+            return false;
         }
+        if ( set instanceof PrimitiveLongSet )
+        {
+            return ((PrimitiveLongSet) set).contains( value );
+        }
+        return set.contains( value );
+    }
+
+    private static PrimitiveLongIterator iterate( Set<?> set )
+    {
+        if ( set instanceof PrimitiveLongSet )
+        {
+            return ((PrimitiveLongSet) set).primitiveIterator();
+        }
+
+        final Iterator<?> iterator = set.iterator();
+        return new PrimitiveLongIterator()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public long next()
+            {
+                return (Long) iterator.next();
+            }
+        };
     }
 }
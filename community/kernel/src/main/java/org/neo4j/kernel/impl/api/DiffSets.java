@@ -25,6 +25,7 @@ import java.util.Iterator;
 import java.util.Set;
 
 import org.neo4j.helpers.Predicate;
+import org.neo4j.kernel.impl.util.PrimitiveLongSet;
 
 import static org.neo4j.helpers.collection.Iterables.concat;
 import static org.neo4j.helpers.collection.Iterables.filter;
@@ -64,6 +65,21 @@ public class DiffSets<T>
         return EMPTY;
     }
 
+    /**
+     * Diff sets of ids, which keep their elements in {@link PrimitiveLongSet}s instead of sets of boxed longs.
+     */
+    public static DiffSets<Long> newLongDiffSets()
+    {
+        return new DiffSets<Long>()
+        {
+            @Override
+            protected Set<Long> newSet()
+            {
+                return new PrimitiveLongSet();
+            }
+        };
+    }
+
     private Set<T> addedElements;
     private Set<T> removedElements;
     private Predicate<T> filter;
@@ -227,7 +243,7 @@ public class DiffSets<T>
         return (addedElements == null ? 0 : addedElements.size()) - (removedElements == null ? 0 : removedElements.size());
     }
 
-    private Set<T> newSet()
+    protected Set<T> newSet()
     {
         return new HashSet<>();
     }
@@ -24,6 +24,7 @@ import org.neo4j.graphdb.DependencyResolver;
 import org.neo4j.kernel.api.KernelAPI;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.api.StatementOperationParts;
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
 import org.neo4j.kernel.impl.api.constraints.ConstraintIndexCreator;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.api.index.SchemaIndexProviderMap;
@@ -94,7 +95,7 @@ import static org.neo4j.kernel.impl.transaction.XaDataSourceManager.neoStoreList
  * tx.finish() --> TransactionImpl.commit() --> TransactionContext.commit() --> TxManager.commit()
  * </li>
  * <li>
- * TxManager.commit() --> TransactionImpl.doCommit() --> dataSource.commit()
+ * TxManager.commit() --> TransactionImpl.appendCommit() --> dataSource.commit()
  * </li>
  */
 public class Kernel extends LifecycleAdapter implements KernelAPI
@@ -113,6 +114,7 @@ public class Kernel extends LifecycleAdapter implements KernelAPI
     // These non-final components are all circular dependencies in various configurations.
     // As we work towards refactoring the old kernel, we should work to remove these.
     private IndexingService indexService;
+    private LabelScanStore labelScanStore;
     private NeoStore neoStore;
     private NodeManager nodeManager;
     private PersistenceCache persistenceCache;
@@ -155,6 +157,7 @@ public class Kernel extends LifecycleAdapter implements KernelAPI
                 NeoStoreXaDataSource neoDataSource = (NeoStoreXaDataSource) ds;
                 neoStore = neoDataSource.getNeoStore();
                 indexService = neoDataSource.getIndexService();
+                labelScanStore = neoDataSource.getLabelScanStore();
                 providerMap = neoDataSource.getProviderMap();
                 persistenceCache = neoDataSource.getPersistenceCache();
                 schemaCache = neoDataSource.getSchemaCache();
@@ -220,7 +223,8 @@ public class Kernel extends LifecycleAdapter implements KernelAPI
         // TODO The store layer should depend on a clean abstraction of the data, not on all the XXXManagers from the
         // old code base
         StoreKernelTransaction storeTransactionContext = new StoreKernelTransaction( transactionManager,
-                persistenceManager, propertyKeyTokenHolder, labelTokenHolder, neoStore, indexService );
+                persistenceManager, propertyKeyTokenHolder, labelTokenHolder, neoStore, indexService,
+                labelScanStore );
 
         // + Transaction state and Caching
         KernelTransaction result = new StateHandlingKernelTransaction(
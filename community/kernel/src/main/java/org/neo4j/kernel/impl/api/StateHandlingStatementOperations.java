@@ -54,6 +54,9 @@ import static java.util.Collections.emptyList;
 import static org.neo4j.helpers.collection.Iterables.option;
 import static org.neo4j.helpers.collection.IteratorUtil.singleOrNull;
 import static org.neo4j.helpers.collection.IteratorUtil.toPrimitiveLongIterator;
+import static org.neo4j.kernel.api.index.IndexValuePredicates.anyOf;
+import static org.neo4j.kernel.api.index.IndexValuePredicates.numberRange;
+import static org.neo4j.kernel.api.index.IndexValuePredicates.stringPrefix;
 
 public class StateHandlingStatementOperations implements
     EntityReadOperations,
@@ -429,27 +432,86 @@ public class StateHandlingStatementOperations implements
             // Start with nodes where the given property has changed
             DiffSets<Long> diff = state.txState().nodesWithChangedProperty( index.getPropertyKeyId(), value );
 
-            // Ensure remaining nodes have the correct label
-            diff = diff.filterAdded( new HasLabelFilter( state, index.getLabelId() ) );
-
-            // Include newly labeled nodes that already had the correct property
-            HasPropertyFilter hasPropertyFilter = new HasPropertyFilter( state, index.getPropertyKeyId(), value );
-            Iterator<Long> addedNodesWithLabel = state.txState().nodesWithLabelAdded( index.getLabelId() ).iterator();
-            diff.addAll( Iterables.filter( hasPropertyFilter, addedNodesWithLabel ) );
-
-            // Remove de-labeled nodes that had the correct value before
-            Set<Long> removedNodesWithLabel = state.txState().nodesWithLabelChanged( index.getLabelId() ).getRemoved();
-            diff.removeAll( Iterables.filter( hasPropertyFilter, removedNodesWithLabel.iterator() ) );
-
             // Apply to actual index lookup
             PrimitiveLongIterator committed = entityReadDelegate.nodesGetFromIndexLookup( state, index, value );
-            return state.txState()
-                    .nodesDeletedInTx().applyPrimitiveLongIterator( diff.applyPrimitiveLongIterator( committed ) );
+            return applyIndexChanges( state, index, diff,
+                    new HasPropertyFilter( state, index.getPropertyKeyId(), value ), committed );
         }
 
         return entityReadDelegate.nodesGetFromIndexLookup( state, index, value );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByNumber( StatementState state, IndexDescriptor index,
+                                                                     Number lower, boolean includeLower,
+                                                                     Number upper, boolean includeUpper )
+            throws IndexNotFoundKernelException
+    {
+        PrimitiveLongIterator committed = entityReadDelegate.nodesGetFromIndexRangeSeekByNumber( state, index,
+                lower, includeLower, upper, includeUpper );
+        if ( state.hasTxStateWithChanges() )
+        {
+            return applyIndexChanges( state, index,
+                    numberRange( lower, includeLower, upper, includeUpper ), committed );
+        }
+        return committed;
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByPrefix( StatementState state, IndexDescriptor index,
+                                                                     String prefix )
+            throws IndexNotFoundKernelException
+    {
+        PrimitiveLongIterator committed = entityReadDelegate.nodesGetFromIndexRangeSeekByPrefix( state, index, prefix );
+        if ( state.hasTxStateWithChanges() )
+        {
+            return applyIndexChanges( state, index, stringPrefix( prefix ), committed );
+        }
+        return committed;
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexLookupAny( StatementState state, IndexDescriptor index,
+                                                             Iterable<?> values )
+            throws IndexNotFoundKernelException
+    {
+        PrimitiveLongIterator committed = entityReadDelegate.nodesGetFromIndexLookupAny( state, index, values );
+        if ( state.hasTxStateWithChanges() )
+        {
+            return applyIndexChanges( state, index, anyOf( values ), committed );
+        }
+        return committed;
+    }
+
+    private PrimitiveLongIterator applyIndexChanges( StatementState state, IndexDescriptor index,
+                                                     Predicate<Object> valuePredicate,
+                                                     PrimitiveLongIterator committed )
+    {
+        // Start with nodes where the given property has changed to or from a matching value
+        DiffSets<Long> diff = state.txState().nodesWithChangedProperty( index.getPropertyKeyId(), valuePredicate );
+        return applyIndexChanges( state, index, diff,
+                new HasPropertyFilter( state, index.getPropertyKeyId(), valuePredicate ), committed );
+    }
+
+    private PrimitiveLongIterator applyIndexChanges( StatementState state, IndexDescriptor index,
+                                                     DiffSets<Long> diff, HasPropertyFilter hasPropertyFilter,
+                                                     PrimitiveLongIterator committed )
+    {
+        // Ensure remaining nodes have the correct label
+        diff = diff.filterAdded( new HasLabelFilter( state, index.getLabelId() ) );
+
+        // Include newly labeled nodes that already had the correct property
+        Iterator<Long> addedNodesWithLabel = state.txState().nodesWithLabelAdded( index.getLabelId() ).iterator();
+        diff.addAll( Iterables.filter( hasPropertyFilter, addedNodesWithLabel ) );
+
+        // Remove de-labeled nodes that had the correct value before
+        Set<Long> removedNodesWithLabel = state.txState().nodesWithLabelChanged( index.getLabelId() ).getRemoved();
+        diff.removeAll( Iterables.filter( hasPropertyFilter, removedNodesWithLabel.iterator() ) );
+
+        return state.txState()
+                .nodesDeletedInTx().applyPrimitiveLongIterator( diff.applyPrimitiveLongIterator( committed ) );
+    }
+
     @Override
     public Property nodeSetProperty( StatementState state, long nodeId, Property property )
             throws PropertyKeyIdNotFoundException, EntityNotFoundException
@@ -751,13 +813,26 @@ public class StateHandlingStatementOperations implements
     private class HasPropertyFilter implements Predicate<Long>
     {
         private final Object value;
+        private final Predicate<Object> valuePredicate;
         private final long propertyKeyId;
         private final StatementState state;
 
         public HasPropertyFilter( StatementState state, long propertyKeyId, Object value )
+        {
+            this( state, propertyKeyId, value, null );
+        }
+
+        public HasPropertyFilter( StatementState state, long propertyKeyId, Predicate<Object> valuePredicate )
+        {
+            this( state, propertyKeyId, null, valuePredicate );
+        }
+
+        private HasPropertyFilter( StatementState state, long propertyKeyId, Object value,
+                                   Predicate<Object> valuePredicate )
         {
             this.state = state;
             this.value = value;
+            this.valuePredicate = valuePredicate;
             this.propertyKeyId = propertyKeyId;
         }
 
@@ -771,9 +846,17 @@ public class StateHandlingStatementOperations implements
                     return false;
                 }
                 Property property = nodeGetProperty( state, nodeId, propertyKeyId );
-                return !property.isNoProperty() && property.valueEquals( value );
+                if ( property.isNoProperty() )
+                {
+                    return false;
+                }
+                if ( valuePredicate == null )
+                {
+                    return property.valueEquals( value );
+                }
+                return valuePredicate.accept( property.value() );
             }
-            catch ( EntityNotFoundException | PropertyKeyIdNotFoundException e )
+            catch ( EntityNotFoundException | PropertyKeyIdNotFoundException | PropertyNotFoundException e )
             {
                 return false;
             }
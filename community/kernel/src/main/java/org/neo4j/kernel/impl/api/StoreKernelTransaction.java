@@ -27,6 +27,7 @@ import javax.transaction.SystemException;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.api.StatementOperationParts;
 import org.neo4j.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
 import org.neo4j.kernel.api.operations.AuxiliaryStoreOperations;
 import org.neo4j.kernel.api.operations.StatementState;
 import org.neo4j.kernel.api.operations.WritableStatementState;
@@ -43,13 +44,15 @@ public class StoreKernelTransaction implements KernelTransaction
     private final AbstractTransactionManager transactionManager;
     private final NeoStore neoStore;
     private final IndexingService indexingService;
+    private final LabelScanStore labelScanStore;
     private final LabelTokenHolder labelTokenHolder;
     private final PersistenceManager persistenceManager;
 
     public StoreKernelTransaction( AbstractTransactionManager transactionManager,
                                     PersistenceManager persistenceManager,
                                     PropertyKeyTokenHolder propertyKeyTokenHolder, LabelTokenHolder labelTokenHolder,
-                                    NeoStore neoStore, IndexingService indexingService )
+                                    NeoStore neoStore, IndexingService indexingService,
+                                    LabelScanStore labelScanStore )
     {
         this.propertyKeyTokenHolder = propertyKeyTokenHolder;
         this.labelTokenHolder = labelTokenHolder;
@@ -57,6 +60,7 @@ public class StoreKernelTransaction implements KernelTransaction
         this.persistenceManager = persistenceManager;
         this.neoStore = neoStore;
         this.indexingService = indexingService;
+        this.labelScanStore = labelScanStore;
     }
 
     @Override
@@ -64,7 +68,7 @@ public class StoreKernelTransaction implements KernelTransaction
     {
         StoreStatementOperations context = new StoreStatementOperations( propertyKeyTokenHolder, labelTokenHolder,
                 new SchemaStorage( neoStore.getSchemaStore() ), neoStore, persistenceManager,
-                indexingService );
+                indexingService, labelScanStore );
         return new StatementOperationParts( context, context, context, context, context, null, null )
             .additionalPart( AuxiliaryStoreOperations.class, context );
     }
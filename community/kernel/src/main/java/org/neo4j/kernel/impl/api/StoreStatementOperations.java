@@ -41,6 +41,7 @@ import org.neo4j.kernel.api.exceptions.schema.SchemaKernelException;
 import org.neo4j.kernel.api.exceptions.schema.SchemaRuleNotFoundException;
 import org.neo4j.kernel.api.exceptions.schema.TooManyLabelsException;
 import org.neo4j.kernel.api.index.InternalIndexState;
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
 import org.neo4j.kernel.api.operations.AuxiliaryStoreOperations;
 import org.neo4j.kernel.api.operations.EntityReadOperations;
 import org.neo4j.kernel.api.operations.EntityWriteOperations;
@@ -58,7 +59,6 @@ import org.neo4j.kernel.impl.core.TokenNotFoundException;
 import org.neo4j.kernel.impl.nioneo.store.IndexRule;
 import org.neo4j.kernel.impl.nioneo.store.InvalidRecordException;
 import org.neo4j.kernel.impl.nioneo.store.NeoStore;
-import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeStore;
 import org.neo4j.kernel.impl.nioneo.store.PrimitiveRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyBlock;
@@ -114,6 +114,7 @@ public class StoreStatementOperations implements
     private final LabelTokenHolder labelTokenHolder;
     private final NeoStore neoStore;
     private final IndexingService indexService;
+    private final LabelScanStore labelScanStore;
     private final NodeStore nodeStore;
     private final RelationshipStore relationshipStore;
     private final PropertyStore propertyStore;
@@ -127,12 +128,13 @@ public class StoreStatementOperations implements
     public StoreStatementOperations( PropertyKeyTokenHolder propertyKeyTokenHolder, LabelTokenHolder labelTokenHolder,
                                   SchemaStorage schemaStorage, NeoStore neoStore,
                                   PersistenceManager persistenceManager,
-                                  IndexingService indexService )
+                                  IndexingService indexService, LabelScanStore labelScanStore )
     {
         this.schemaStorage = schemaStorage;
         assert neoStore != null : "No neoStore provided";
 
         this.indexService = indexService;
+        this.labelScanStore = labelScanStore;
         this.propertyKeyTokenHolder = propertyKeyTokenHolder;
         this.labelTokenHolder = labelTokenHolder;
         this.neoStore = neoStore;
@@ -242,39 +244,7 @@ public class StoreStatementOperations implements
     @Override
     public PrimitiveLongIterator nodesGetForLabel( StatementState state, final long labelId )
     {
-        final NodeStore nodeStore = neoStore.getNodeStore();
-        final long highestId = nodeStore.getHighestPossibleIdInUse();
-
-        return new AbstractPrimitiveLongIterator()
-        {
-            private long id = 0;
-
-            {
-                computeNext();
-            }
-
-            @Override
-            protected void computeNext()
-            {
-                while ( id <= highestId )
-                {
-                    NodeRecord node = nodeStore.forceGetRecord( id++ );
-                    if ( node.inUse() )
-                    {
-                        for ( long label : parseLabelsField( node ).get( nodeStore ) )
-                        {
-                            if ( label == labelId )
-                            {
-                                nextValue = node.getId();
-                                hasNext = true;
-                                return;
-                            }
-                        }
-                    }
-                }
-                hasNext = false;
-            }
-        };
+        return labelScanStore.nodesWithLabel( labelId );
     }
 
     @Override
@@ -529,6 +499,32 @@ public class StoreStatementOperations implements
         return state.indexReaderFactory().newReader( indexId( index ) ).lookup( value );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByNumber( StatementState state, IndexDescriptor index,
+                                                                     Number lower, boolean includeLower,
+                                                                     Number upper, boolean includeUpper )
+            throws IndexNotFoundKernelException
+    {
+        return state.indexReaderFactory().newReader( indexId( index ) )
+                .rangeSeekByNumber( lower, includeLower, upper, includeUpper );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByPrefix( StatementState state, IndexDescriptor index,
+                                                                     String prefix )
+            throws IndexNotFoundKernelException
+    {
+        return state.indexReaderFactory().newReader( indexId( index ) ).rangeSeekByPrefix( prefix );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexLookupAny( StatementState state, IndexDescriptor index,
+                                                             Iterable<?> values )
+            throws IndexNotFoundKernelException
+    {
+        return state.indexReaderFactory().newReader( indexId( index ) ).lookupAny( values );
+    }
+
     @Override
     public void nodeAddStoreProperty( long nodeId, Property property )
             throws PropertyNotFoundException
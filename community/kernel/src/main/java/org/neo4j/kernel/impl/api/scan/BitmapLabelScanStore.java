@@ -0,0 +1,411 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
+import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
+import org.neo4j.kernel.impl.api.AbstractPrimitiveLongIterator;
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+
+import static java.util.Arrays.binarySearch;
+
+import static org.neo4j.helpers.collection.IteratorUtil.emptyPrimitiveLongIterator;
+
+/**
+ * {@link LabelScanStore} keeping one bitmap per label, split up into ranges of {@link #NODES_PER_RANGE} nodes.
+ * Only ranges containing at least one node with the label are kept, so labels on few nodes are cheap
+ * while labels on many nodes end up as close to one bit per node.
+ *
+ * The bitmaps live in memory and are written as a whole to {@link #FILE_NAME} when {@link #force() forced},
+ * which happens whenever the neo store is flushed, i.e. at log rotation and at clean shutdown. Transactions
+ * committed after that point are replayed by recovery, which is why updates are applied with set semantics.
+ * If there's no such file, or it cannot be read, the store is rebuilt from a {@link FullStoreChangeStream}
+ * when started, i.e. after recovery has completed.
+ */
+public class BitmapLabelScanStore extends LifecycleAdapter implements LabelScanStore
+{
+    public static final String FILE_NAME = "labelscanstore.db";
+
+    static final int WORDS_PER_RANGE = 64;
+    static final int NODES_PER_RANGE = WORDS_PER_RANGE * Long.SIZE;
+
+    private static final long FORMAT_HEADER = 0x4C53_4253_0001L;
+    private static final long FORMAT_TRAILER = ~FORMAT_HEADER;
+
+    private final ConcurrentMap<Long, LabelBitmap> bitmaps = new ConcurrentHashMap<>();
+    private final FileSystemAbstraction fileSystem;
+    private final File storeFile;
+    private final FullStoreChangeStream fullStoreStream;
+    private final StringLogger logger;
+    private final boolean readOnly;
+
+    private volatile boolean needsRebuild;
+    private volatile boolean changedSinceLastForce;
+
+    public BitmapLabelScanStore( FileSystemAbstraction fileSystem, File storeDir,
+                                 FullStoreChangeStream fullStoreStream, boolean readOnly, StringLogger logger )
+    {
+        this.fileSystem = fileSystem;
+        this.storeFile = new File( storeDir, FILE_NAME );
+        this.fullStoreStream = fullStoreStream;
+        this.readOnly = readOnly;
+        this.logger = logger;
+    }
+
+    @Override
+    public void init() throws IOException
+    {
+        needsRebuild = !load();
+    }
+
+    @Override
+    public void start() throws IOException
+    {
+        if ( needsRebuild )
+        {
+            logger.info( "Rebuilding label scan store, this may take a while" );
+            bitmaps.clear();
+            apply( fullStoreStream.iterator() );
+            needsRebuild = false;
+            force();
+            logger.info( "Label scan store rebuilt" );
+        }
+    }
+
+    @Override
+    public void updateAndCommit( Iterator<NodeLabelUpdate> updates )
+    {
+        if ( needsRebuild )
+        {   // We're in recovery, before start, and the store will be built from the recovered node store anyway
+            return;
+        }
+        apply( updates );
+    }
+
+    private void apply( Iterator<NodeLabelUpdate> updates )
+    {
+        while ( updates.hasNext() )
+        {
+            NodeLabelUpdate update = updates.next();
+            long nodeId = update.getNodeId();
+            long[] before = update.getLabelsBefore();
+            long[] after = update.getLabelsAfter();
+            for ( long labelId : after )
+            {
+                if ( binarySearch( before, labelId ) < 0 )
+                {
+                    bitmapFor( labelId ).set( nodeId );
+                }
+            }
+            for ( long labelId : before )
+            {
+                if ( binarySearch( after, labelId ) < 0 )
+                {
+                    LabelBitmap bitmap = bitmaps.get( labelId );
+                    if ( bitmap != null )
+                    {
+                        bitmap.clear( nodeId );
+                    }
+                }
+            }
+        }
+        changedSinceLastForce = true;
+    }
+
+    private LabelBitmap bitmapFor( long labelId )
+    {
+        LabelBitmap bitmap = bitmaps.get( labelId );
+        if ( bitmap == null )
+        {
+            LabelBitmap newBitmap = new LabelBitmap();
+            bitmap = bitmaps.putIfAbsent( labelId, newBitmap );
+            if ( bitmap == null )
+            {
+                bitmap = newBitmap;
+            }
+        }
+        return bitmap;
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesWithLabel( long labelId )
+    {
+        LabelBitmap bitmap = bitmaps.get( labelId );
+        return bitmap == null ? emptyPrimitiveLongIterator() : new LabelBitmapIterator( bitmap );
+    }
+
+    @Override
+    public synchronized void force() throws IOException
+    {
+        if ( readOnly || needsRebuild || !changedSinceLastForce )
+        {
+            return;
+        }
+
+        // Reset before writing, so that updates coming in while writing will be written the next time
+        changedSinceLastForce = false;
+        File tempFile = new File( storeFile.getPath() + ".tmp" );
+        FileChannel channel = fileSystem.create( tempFile );
+        try
+        {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream( Channels.newOutputStream( channel ), 1 << 16 ) );
+            out.writeLong( FORMAT_HEADER );
+            for ( Map.Entry<Long, LabelBitmap> entry : bitmaps.entrySet() )
+            {
+                List<Long> rangeIds = new ArrayList<>();
+                List<long[]> ranges = new ArrayList<>();
+                entry.getValue().copyTo( rangeIds, ranges );
+                if ( rangeIds.isEmpty() )
+                {
+                    continue;
+                }
+
+                out.writeBoolean( true );
+                out.writeLong( entry.getKey() );
+                out.writeInt( rangeIds.size() );
+                for ( int i = 0; i < rangeIds.size(); i++ )
+                {
+                    out.writeLong( rangeIds.get( i ) );
+                    for ( long word : ranges.get( i ) )
+                    {
+                        out.writeLong( word );
+                    }
+                }
+            }
+            out.writeBoolean( false );
+            out.writeLong( FORMAT_TRAILER );
+            out.flush();
+            channel.force( false );
+        }
+        catch ( IOException e )
+        {
+            changedSinceLastForce = true;
+            throw e;
+        }
+        finally
+        {
+            channel.close();
+        }
+
+        fileSystem.deleteFile( storeFile );
+        if ( !fileSystem.renameFile( tempFile, storeFile ) )
+        {
+            changedSinceLastForce = true;
+            throw new IOException( "Unable to rename " + tempFile + " to " + storeFile );
+        }
+    }
+
+    /**
+     * @return {@code true} if a complete label scan store was loaded from {@link #storeFile}.
+     */
+    private boolean load() throws IOException
+    {
+        bitmaps.clear();
+        if ( !fileSystem.fileExists( storeFile ) )
+        {
+            return false;
+        }
+
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream( Channels.newInputStream( fileSystem.open( storeFile, "r" ) ), 1 << 16 ) );
+        try
+        {
+            if ( in.readLong() != FORMAT_HEADER )
+            {
+                logger.warn( "Unrecognized label scan store format in " + storeFile + ", it will be rebuilt" );
+                return false;
+            }
+            while ( in.readBoolean() )
+            {
+                LabelBitmap bitmap = bitmapFor( in.readLong() );
+                int rangeCount = in.readInt();
+                for ( int i = 0; i < rangeCount; i++ )
+                {
+                    long rangeId = in.readLong();
+                    long[] words = new long[WORDS_PER_RANGE];
+                    for ( int w = 0; w < WORDS_PER_RANGE; w++ )
+                    {
+                        words[w] = in.readLong();
+                    }
+                    bitmap.put( rangeId, words );
+                }
+            }
+            if ( in.readLong() != FORMAT_TRAILER )
+            {
+                logger.warn( "Label scan store " + storeFile + " is incomplete, it will be rebuilt" );
+                bitmaps.clear();
+                return false;
+            }
+            return true;
+        }
+        catch ( IOException e )
+        {
+            logger.warn( "Unable to read label scan store " + storeFile + ", it will be rebuilt", e );
+            bitmaps.clear();
+            return false;
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    /**
+     * The nodes having one label. Ranges are created as nodes get the label and removed again when
+     * the last node in them loses it.
+     */
+    static class LabelBitmap
+    {
+        private final TreeMap<Long, long[]> ranges = new TreeMap<>();
+
+        synchronized void set( long nodeId )
+        {
+            long rangeId = nodeId / NODES_PER_RANGE;
+            long[] words = ranges.get( rangeId );
+            if ( words == null )
+            {
+                words = new long[WORDS_PER_RANGE];
+                ranges.put( rangeId, words );
+            }
+            int bit = (int) (nodeId % NODES_PER_RANGE);
+            words[bit / Long.SIZE] |= 1L << (bit % Long.SIZE);
+        }
+
+        synchronized void clear( long nodeId )
+        {
+            long rangeId = nodeId / NODES_PER_RANGE;
+            long[] words = ranges.get( rangeId );
+            if ( words == null )
+            {
+                return;
+            }
+            int bit = (int) (nodeId % NODES_PER_RANGE);
+            words[bit / Long.SIZE] &= ~(1L << (bit % Long.SIZE));
+            for ( long word : words )
+            {
+                if ( word != 0 )
+                {
+                    return;
+                }
+            }
+            ranges.remove( rangeId );
+        }
+
+        synchronized void put( long rangeId, long[] words )
+        {
+            ranges.put( rangeId, words );
+        }
+
+        /**
+         * Copies the first range with an id equal to or higher than {@code fromRangeId} into {@code target}.
+         *
+         * @return the id of the copied range, or {@code -1} if there are no more ranges.
+         */
+        synchronized long copyRange( long fromRangeId, long[] target )
+        {
+            Map.Entry<Long, long[]> entry = ranges.ceilingEntry( fromRangeId );
+            if ( entry == null )
+            {
+                return -1;
+            }
+            System.arraycopy( entry.getValue(), 0, target, 0, WORDS_PER_RANGE );
+            return entry.getKey();
+        }
+
+        synchronized void copyTo( List<Long> rangeIds, List<long[]> target )
+        {
+            for ( Map.Entry<Long, long[]> entry : ranges.entrySet() )
+            {
+                rangeIds.add( entry.getKey() );
+                target.add( entry.getValue().clone() );
+            }
+        }
+    }
+
+    /**
+     * Iterates over the set bits of a {@link LabelBitmap}, copying one range at a time so that
+     * concurrent updates to other ranges don't interfere with the iteration.
+     */
+    private static class LabelBitmapIterator extends AbstractPrimitiveLongIterator
+    {
+        private final LabelBitmap bitmap;
+        private final long[] words = new long[WORDS_PER_RANGE];
+        private long rangeId = -1;
+        private int wordIndex;
+        private long currentWord;
+
+        LabelBitmapIterator( LabelBitmap bitmap )
+        {
+            this.bitmap = bitmap;
+            computeNext();
+        }
+
+        @Override
+        protected void computeNext()
+        {
+            while ( true )
+            {
+                if ( currentWord != 0 )
+                {
+                    int bit = Long.numberOfTrailingZeros( currentWord );
+                    currentWord &= currentWord - 1;
+                    nextValue = rangeId * NODES_PER_RANGE + wordIndex * Long.SIZE + bit;
+                    hasNext = true;
+                    return;
+                }
+                if ( rangeId != -1 && ++wordIndex < WORDS_PER_RANGE )
+                {
+                    currentWord = words[wordIndex];
+                    continue;
+                }
+
+                long nextRangeId = bitmap.copyRange( rangeId + 1, words );
+                if ( nextRangeId == -1 )
+                {
+                    hasNext = false;
+                    return;
+                }
+                rangeId = nextRangeId;
+                wordIndex = 0;
+                currentWord = words[0];
+            }
+        }
+    }
+}
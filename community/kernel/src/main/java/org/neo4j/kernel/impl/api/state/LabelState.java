@@ -25,7 +25,7 @@ import org.neo4j.kernel.impl.api.index.IndexDescriptor;
 
 public final class LabelState extends EntityState
 {
-    private final DiffSets<Long> nodeDiffSets = new DiffSets<Long>();
+    private final DiffSets<Long> nodeDiffSets = DiffSets.newLongDiffSets();
     private final DiffSets<IndexDescriptor> indexChanges = new DiffSets<IndexDescriptor>();
     private final DiffSets<IndexDescriptor> constraintIndexChanges = new DiffSets<IndexDescriptor>();
     private final DiffSets<UniquenessConstraint> constraintsChanges = new DiffSets<UniquenessConstraint>();
@@ -34,7 +34,7 @@ public final class NodeState extends PropertyContainerState
     {
         if ( null == labelDiffSets )
         {
-            labelDiffSets = new DiffSets<>();
+            labelDiffSets = DiffSets.newLongDiffSets();
         }
         return labelDiffSets;
     }
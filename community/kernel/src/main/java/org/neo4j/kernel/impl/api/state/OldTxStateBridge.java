@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.impl.api.state;
 
+import org.neo4j.helpers.Predicate;
 import org.neo4j.kernel.api.properties.Property;
 import org.neo4j.kernel.impl.api.DiffSets;
 import org.neo4j.kernel.impl.nioneo.store.PropertyData;
@@ -34,6 +35,12 @@ public interface OldTxStateBridge
      */
     DiffSets<Long> getNodesWithChangedProperty( long propertyKey, Object value );
 
+    /**
+     * A diff set of nodes that have had the given property key added or removed/changed, with a value
+     * accepted by the given predicate.
+     */
+    DiffSets<Long> getNodesWithChangedProperty( long propertyKey, Predicate<Object> valuePredicate );
+
     void deleteNode( long nodeId );
 
     boolean nodeIsAddedInThisTx( long nodeId );
@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.impl.api.state;
 
+import org.neo4j.helpers.Predicate;
 import org.neo4j.kernel.api.properties.Property;
 import org.neo4j.kernel.impl.api.DiffSets;
 import org.neo4j.kernel.impl.core.GraphPropertiesImpl;
@@ -42,9 +43,22 @@ public class OldTxStateBridgeImpl implements OldTxStateBridge
     }
 
     @Override
-    public DiffSets<Long> getNodesWithChangedProperty( long propertyKey, Object value )
+    public DiffSets<Long> getNodesWithChangedProperty( long propertyKey, final Object value )
     {
-        DiffSets<Long> diff = new DiffSets<Long>();
+        return getNodesWithChangedProperty( propertyKey, new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object item )
+            {
+                return item.equals( value );
+            }
+        } );
+    }
+
+    @Override
+    public DiffSets<Long> getNodesWithChangedProperty( long propertyKey, Predicate<Object> valuePredicate )
+    {
+        DiffSets<Long> diff = DiffSets.newLongDiffSets();
         Iterable<WritableTransactionState.CowNodeElement> changedNodes = state.getChangedNodes();
 
         for ( WritableTransactionState.CowNodeElement changedNode : changedNodes )
@@ -56,7 +70,7 @@ public class OldTxStateBridgeImpl implements OldTxStateBridge
             {
                 for ( PropertyData propertyData : propRmMap.values() )
                 {
-                    if ( propertyData.getIndex() == propertyKey && propertyData.getValue().equals( value ) )
+                    if ( propertyData.getIndex() == propertyKey && valuePredicate.accept( propertyData.getValue() ) )
                     {
                         diff.remove( changedNode.getId() );
                     }
@@ -74,7 +88,7 @@ public class OldTxStateBridgeImpl implements OldTxStateBridge
                         if ( propertyData.getIndex() == propertyKey )
                         {
                             // Added if value is the same, removed if value is different.
-                            if ( propertyData.getValue().equals( value ) )
+                            if ( valuePredicate.accept( propertyData.getValue() ) )
                             {
                                 diff.add( changedNode.getId() );
                             }
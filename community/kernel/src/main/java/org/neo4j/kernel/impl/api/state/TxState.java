@@ -21,6 +21,7 @@ package org.neo4j.kernel.impl.api.state;
 
 import java.util.Set;
 
+import org.neo4j.helpers.Predicate;
 import org.neo4j.kernel.api.constraints.UniquenessConstraint;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.api.exceptions.PropertyNotFoundException;
@@ -160,6 +161,8 @@ public interface TxState
 
     public abstract DiffSets<Long> nodesWithChangedProperty( long propertyKeyId, Object value );
 
+    public abstract DiffSets<Long> nodesWithChangedProperty( long propertyKeyId, Predicate<Object> valuePredicate );
+
     public abstract boolean relationshipIsAddedInThisTx( long relationshipId );
 
     public abstract boolean relationshipIsDeletedInThisTx( long relationshipId );
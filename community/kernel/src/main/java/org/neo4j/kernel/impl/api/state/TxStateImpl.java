@@ -34,6 +34,7 @@ import org.neo4j.kernel.api.properties.Property;
 import org.neo4j.kernel.impl.api.DiffSets;
 import org.neo4j.kernel.impl.api.index.IndexDescriptor;
 import org.neo4j.kernel.impl.persistence.PersistenceManager;
+import org.neo4j.kernel.impl.util.PrimitiveLongObjectMap;
 
 import static org.neo4j.helpers.collection.Iterables.map;
 
@@ -41,7 +42,7 @@ import static org.neo4j.helpers.collection.Iterables.map;
  * This organizes three disjoint containers of state. The goal is to bring that down to one, but for now, it's three.
  * Those three are:
  *
- *  * TxState - this class itself, containing HashMaps and DiffSets for changes
+ *  * TxState - this class itself, containing primitive long maps and DiffSets for changes
  *  * TransactionState - The legacy transaction state, to be refactored into this class.
  *  * WriteTransaction - More legacy transaction state, accessed through PersistenceManager.
  *
@@ -104,9 +105,9 @@ public final class TxStateImpl implements TxState
         }
     };
 
-    private Map<Long/*Node ID*/, NodeState> nodeStatesMap;
-    private Map<Long/*Relationship ID*/, RelationshipState> relationshipStatesMap;
-    private Map<Long/*Label ID*/, LabelState> labelStatesMap;
+    private PrimitiveLongObjectMap<NodeState> nodeStatesMap;
+    private PrimitiveLongObjectMap<RelationshipState> relationshipStatesMap;
+    private PrimitiveLongObjectMap<LabelState> labelStatesMap;
 
     private GraphState graphState;
     private DiffSets<IndexDescriptor> indexChanges;
@@ -521,12 +522,18 @@ public final class TxStateImpl implements TxState
         return legacyState.getNodesWithChangedProperty( propertyKeyId, value );
     }
 
+    @Override
+    public DiffSets<Long> nodesWithChangedProperty( long propertyKeyId, Predicate<Object> valuePredicate )
+    {
+        return legacyState.getNodesWithChangedProperty( propertyKeyId, valuePredicate );
+    }
+
     @Override
     public DiffSets<Long> nodesDeletedInTx()
     {
         if ( !hasDeletedNodesDiffSets() )
         {
-            deletedNodes = new DiffSets<>();
+            deletedNodes = DiffSets.newLongDiffSets();
         }
         return deletedNodes;
     }
@@ -540,7 +547,7 @@ public final class TxStateImpl implements TxState
     {
         if ( !hasDeletedRelationshipsDiffSets() )
         {
-            deletedRelationships = new DiffSets<>();
+            deletedRelationships = DiffSets.newLongDiffSets();
         }
         return deletedRelationships;
     }
@@ -579,7 +586,7 @@ public final class TxStateImpl implements TxState
         STATE newState( long id );
     }
 
-    private <STATE> STATE getState( Map<Long, STATE> states, long id, StateCreator<STATE> creator )
+    private <STATE> STATE getState( PrimitiveLongObjectMap<STATE> states, long id, StateCreator<STATE> creator )
     {
         STATE result = states.get( id );
         if ( result != null )
@@ -696,11 +703,11 @@ public final class TxStateImpl implements TxState
         return null != createdConstraintIndexesByConstraint;
     }
 
-    private Map<Long, NodeState> nodeStatesMap()
+    private PrimitiveLongObjectMap<NodeState> nodeStatesMap()
     {
         if ( !hasNodeStatesMap() )
         {
-            nodeStatesMap = new HashMap<>();
+            nodeStatesMap = new PrimitiveLongObjectMap<>();
         }
         return nodeStatesMap;
     }
@@ -710,11 +717,11 @@ public final class TxStateImpl implements TxState
         return null != nodeStatesMap;
     }
 
-    private Map<Long, RelationshipState> relationshipStatesMap()
+    private PrimitiveLongObjectMap<RelationshipState> relationshipStatesMap()
     {
         if ( !hasRelationshipsStatesMap() )
         {
-            relationshipStatesMap = new HashMap<>();
+            relationshipStatesMap = new PrimitiveLongObjectMap<>();
         }
         return relationshipStatesMap;
     }
@@ -724,11 +731,11 @@ public final class TxStateImpl implements TxState
         return null != relationshipStatesMap;
     }
 
-    private Map<Long, LabelState> labelStatesMap()
+    private PrimitiveLongObjectMap<LabelState> labelStatesMap()
     {
         if ( !hasLabelStatesMap() )
         {
-            labelStatesMap = new HashMap<>();
+            labelStatesMap = new PrimitiveLongObjectMap<>();
         }
         return labelStatesMap;
     }
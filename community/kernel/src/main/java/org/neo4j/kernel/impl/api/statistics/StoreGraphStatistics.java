@@ -0,0 +1,290 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.statistics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.kernel.api.statistics.GraphStatistics;
+import org.neo4j.kernel.api.statistics.StatisticsUpdate;
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+
+/**
+ * {@link GraphStatistics} keeping all counts in memory.
+ *
+ * Counts don't have set semantics the way label scan updates have, so they cannot be replayed by recovery.
+ * Instead they are written to {@link #FILE_NAME} at clean shutdown, together with the id of the last
+ * committed transaction, and the file is removed again once loaded. If there's no file when starting,
+ * or it was written for another transaction than the one the store is at after recovery, the counts are
+ * rebuilt from the {@link StatisticsSource}. Updates arriving before start, i.e. during recovery, are ignored.
+ */
+public class StoreGraphStatistics extends LifecycleAdapter implements GraphStatistics
+{
+    public static final String FILE_NAME = "graphstatistics.db";
+
+    private static final long FORMAT_HEADER = 0x4753_5453_0001L;
+    private static final long FORMAT_TRAILER = ~FORMAT_HEADER;
+    private static final long NO_TRANSACTION = -1;
+
+    private final AtomicLong nodes = new AtomicLong();
+    private final AtomicLong relationships = new AtomicLong();
+    private final ConcurrentMap<Long, AtomicLong> nodesWithLabel = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, AtomicLong> relationshipsWithType = new ConcurrentHashMap<>();
+    private final FileSystemAbstraction fileSystem;
+    private final File storeFile;
+    private final StatisticsSource source;
+    private final StringLogger logger;
+    private final boolean readOnly;
+
+    private long countedUpToTx = NO_TRANSACTION;
+    private volatile boolean started;
+
+    public StoreGraphStatistics( FileSystemAbstraction fileSystem, File storeDir, StatisticsSource source,
+                                 boolean readOnly, StringLogger logger )
+    {
+        this.fileSystem = fileSystem;
+        this.storeFile = new File( storeDir, FILE_NAME );
+        this.source = source;
+        this.readOnly = readOnly;
+        this.logger = logger;
+    }
+
+    @Override
+    public void init() throws IOException
+    {
+        countedUpToTx = load();
+    }
+
+    @Override
+    public void start() throws IOException
+    {
+        if ( countedUpToTx == NO_TRANSACTION || countedUpToTx != source.lastCommittedTx() )
+        {
+            logger.info( "Rebuilding graph statistics, this may take a while" );
+            clear();
+            StatisticsUpdate all = new StatisticsUpdate();
+            source.countAll( all );
+            apply( all );
+            logger.info( "Graph statistics rebuilt" );
+        }
+        if ( !readOnly )
+        {   // Counts changing from here on are only written at clean shutdown, so don't trust them after a crash
+            fileSystem.deleteFile( storeFile );
+        }
+        started = true;
+    }
+
+    @Override
+    public void stop() throws IOException
+    {
+        started = false;
+        countedUpToTx = source.lastCommittedTx();
+        if ( !readOnly )
+        {
+            write( countedUpToTx );
+        }
+    }
+
+    @Override
+    public void updateAndCommit( StatisticsUpdate update )
+    {
+        if ( !started )
+        {   // We're in recovery, before start, and the counts will be checked against the recovered store anyway
+            return;
+        }
+        apply( update );
+    }
+
+    private void apply( StatisticsUpdate update )
+    {
+        nodes.addAndGet( update.nodeCountChange() );
+        relationships.addAndGet( update.relationshipCountChange() );
+        apply( nodesWithLabel, update.nodeCountChangesPerLabel() );
+        apply( relationshipsWithType, update.relationshipCountChangesPerType() );
+    }
+
+    private static void apply( ConcurrentMap<Long, AtomicLong> counts, Map<Long, Long> changes )
+    {
+        for ( Map.Entry<Long, Long> change : changes.entrySet() )
+        {
+            counterFor( counts, change.getKey() ).addAndGet( change.getValue() );
+        }
+    }
+
+    private static AtomicLong counterFor( ConcurrentMap<Long, AtomicLong> counts, long key )
+    {
+        AtomicLong counter = counts.get( key );
+        if ( counter == null )
+        {
+            AtomicLong newCounter = new AtomicLong();
+            counter = counts.putIfAbsent( key, newCounter );
+            if ( counter == null )
+            {
+                counter = newCounter;
+            }
+        }
+        return counter;
+    }
+
+    private static long count( ConcurrentMap<Long, AtomicLong> counts, long key )
+    {
+        AtomicLong counter = counts.get( key );
+        return counter == null ? 0 : counter.get();
+    }
+
+    @Override
+    public long nodeCount()
+    {
+        return nodes.get();
+    }
+
+    @Override
+    public long nodeCountWithLabel( long labelId )
+    {
+        return count( nodesWithLabel, labelId );
+    }
+
+    @Override
+    public long relationshipCount()
+    {
+        return relationships.get();
+    }
+
+    @Override
+    public long relationshipCountWithType( long relationshipTypeId )
+    {
+        return count( relationshipsWithType, relationshipTypeId );
+    }
+
+    private void clear()
+    {
+        nodes.set( 0 );
+        relationships.set( 0 );
+        nodesWithLabel.clear();
+        relationshipsWithType.clear();
+    }
+
+    private void write( long lastCommittedTx ) throws IOException
+    {
+        File tempFile = new File( storeFile.getPath() + ".tmp" );
+        FileChannel channel = fileSystem.create( tempFile );
+        try
+        {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream( Channels.newOutputStream( channel ) ) );
+            out.writeLong( FORMAT_HEADER );
+            out.writeLong( lastCommittedTx );
+            out.writeLong( nodes.get() );
+            out.writeLong( relationships.get() );
+            write( out, nodesWithLabel );
+            write( out, relationshipsWithType );
+            out.writeLong( FORMAT_TRAILER );
+            out.flush();
+            channel.force( false );
+        }
+        finally
+        {
+            channel.close();
+        }
+
+        fileSystem.deleteFile( storeFile );
+        if ( !fileSystem.renameFile( tempFile, storeFile ) )
+        {
+            throw new IOException( "Unable to rename " + tempFile + " to " + storeFile );
+        }
+    }
+
+    private static void write( DataOutputStream out, ConcurrentMap<Long, AtomicLong> counts ) throws IOException
+    {
+        for ( Map.Entry<Long, AtomicLong> entry : counts.entrySet() )
+        {
+            out.writeBoolean( true );
+            out.writeLong( entry.getKey() );
+            out.writeLong( entry.getValue().get() );
+        }
+        out.writeBoolean( false );
+    }
+
+    /**
+     * @return the id of the last committed transaction included in the counts read from {@link #storeFile},
+     * or {@link #NO_TRANSACTION} if no complete counts could be read.
+     */
+    private long load() throws IOException
+    {
+        clear();
+        if ( !fileSystem.fileExists( storeFile ) )
+        {
+            return NO_TRANSACTION;
+        }
+
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream( Channels.newInputStream( fileSystem.open( storeFile, "r" ) ) ) );
+        try
+        {
+            if ( in.readLong() != FORMAT_HEADER )
+            {
+                logger.warn( "Unrecognized graph statistics format in " + storeFile + ", they will be rebuilt" );
+                return NO_TRANSACTION;
+            }
+            long lastCommittedTx = in.readLong();
+            nodes.set( in.readLong() );
+            relationships.set( in.readLong() );
+            read( in, nodesWithLabel );
+            read( in, relationshipsWithType );
+            if ( in.readLong() != FORMAT_TRAILER )
+            {
+                logger.warn( "Graph statistics " + storeFile + " are incomplete, they will be rebuilt" );
+                clear();
+                return NO_TRANSACTION;
+            }
+            return lastCommittedTx;
+        }
+        catch ( IOException e )
+        {
+            logger.warn( "Unable to read graph statistics " + storeFile + ", they will be rebuilt", e );
+            clear();
+            return NO_TRANSACTION;
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    private static void read( DataInputStream in, ConcurrentMap<Long, AtomicLong> counts ) throws IOException
+    {
+        while ( in.readBoolean() )
+        {
+            counts.put( in.readLong(), new AtomicLong( in.readLong() ) );
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.cache;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts cached entities to and from a compact binary form, for caches
+ * which keep entities outside of the Java heap.
+ */
+public interface EntitySerializer<E>
+{
+    /**
+     * @return a consistent snapshot of {@code entity}, ready to be read from.
+     * The id isn't included since it's kept by the cache itself.
+     */
+    ByteBuffer serialize( E entity );
+
+    /**
+     * @return a new entity with id {@code id}, read from {@code source}.
+     */
+    E deserialize( long id, ByteBuffer source );
+}
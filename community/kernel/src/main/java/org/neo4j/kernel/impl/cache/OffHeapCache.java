@@ -0,0 +1,296 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.kernel.impl.util.StringLogger;
+
+/**
+ * A two tier cache where a bounded number of recently used entities are kept as
+ * objects on the heap and the entities falling out of that tier are serialized
+ * into memory outside of the heap, bounded by a number of bytes. Entities found
+ * off heap are materialized as new objects and moved back into the heap tier.
+ *
+ * This keeps the memory of a large cache away from the garbage collector, at the
+ * cost of serializing and materializing entities moving between the two tiers.
+ */
+public class OffHeapCache<E extends EntityWithSizeObject> implements Cache<E>
+{
+    private static final int NUMBER_OF_STRIPES = 16;
+
+    private final String name;
+    private final EntitySerializer<E> serializer;
+    private final StringLogger logger;
+    private final OffHeapStore offHeap;
+    private final Stripe<E>[] onHeap;
+    private final HitCounter counter = new HitCounter();
+
+    @SuppressWarnings( "unchecked" )
+    public OffHeapCache( String name, EntitySerializer<E> serializer, long maxOffHeapBytes, int maxOnHeapEntries,
+            StringLogger logger )
+    {
+        if ( maxOffHeapBytes < 1 || maxOnHeapEntries < NUMBER_OF_STRIPES )
+        {
+            throw new IllegalArgumentException( "maxOffHeapBytes=" + maxOffHeapBytes +
+                    ", maxOnHeapEntries=" + maxOnHeapEntries + ", name=" + name );
+        }
+        this.name = name;
+        this.serializer = serializer;
+        this.logger = logger;
+        this.offHeap = new OffHeapStore( maxOffHeapBytes );
+        this.onHeap = new Stripe[NUMBER_OF_STRIPES];
+        for ( int i = 0; i < onHeap.length; i++ )
+        {
+            onHeap[i] = new Stripe<E>( name, maxOnHeapEntries / NUMBER_OF_STRIPES );
+        }
+    }
+
+    private Stripe<E> stripe( long id )
+    {
+        return onHeap[(int) (id ^ (id >>> 32)) & (NUMBER_OF_STRIPES - 1)];
+    }
+
+    /**
+     * Entities are serialized after the stripe monitor has been released, since serializing
+     * a node synchronizes on it and threads holding a node monitor may look up other nodes.
+     * The serialized entity is only stored if nothing happened to it since it was evicted,
+     * otherwise a stale copy would overwrite what was put, removed or changed in the meantime.
+     */
+    private void spill( Stripe<E> stripe, List<E> evicted )
+    {
+        for ( E entity : evicted )
+        {
+            ByteBuffer data = serializer.serialize( entity );
+            synchronized ( stripe )
+            {
+                if ( stripe.spilled( entity ) )
+                {
+                    offHeap.put( entity.getId(), data );
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public void put( E value )
+    {
+        long id = value.getId();
+        Stripe<E> stripe = stripe( id );
+        List<E> evicted;
+        synchronized ( stripe )
+        {
+            offHeap.remove( id );
+            stripe.cancelSpill( id );
+            stripe.put( id, value );
+            evicted = stripe.takeEvicted();
+        }
+        spill( stripe, evicted );
+    }
+
+    @Override
+    public void putAll( Collection<E> values )
+    {
+        for ( E value : values )
+        {
+            put( value );
+        }
+    }
+
+    @Override
+    public E remove( long key )
+    {
+        Stripe<E> stripe = stripe( key );
+        synchronized ( stripe )
+        {
+            offHeap.remove( key );
+            E spilling = stripe.cancelSpill( key );
+            E removed = stripe.remove( key );
+            return removed != null ? removed : spilling;
+        }
+    }
+
+    @Override
+    public E get( long key )
+    {
+        Stripe<E> stripe = stripe( key );
+        E entity;
+        List<E> evicted = Collections.emptyList();
+        // Materializing under the stripe monitor, so that concurrent readers get the same object
+        synchronized ( stripe )
+        {
+            entity = stripe.get( key );
+            if ( entity == null )
+            {
+                // Evicted, but not spilled yet, it's still the current entity
+                entity = stripe.cancelSpill( key );
+                if ( entity != null )
+                {
+                    stripe.put( key, entity );
+                    evicted = stripe.takeEvicted();
+                }
+            }
+            if ( entity == null )
+            {
+                ByteBuffer data = offHeap.get( key );
+                if ( data != null )
+                {
+                    entity = serializer.deserialize( key, data );
+                    offHeap.remove( key );
+                    stripe.put( key, entity );
+                    evicted = stripe.takeEvicted();
+                }
+            }
+        }
+        spill( stripe, evicted );
+        return counter.count( entity );
+    }
+
+    @Override
+    public void clear()
+    {
+        for ( Stripe<E> stripe : onHeap )
+        {
+            synchronized ( stripe )
+            {
+                stripe.clear();
+                stripe.takeEvicted();
+                stripe.cancelSpills();
+            }
+        }
+        offHeap.clear();
+    }
+
+    @Override
+    public long size()
+    {
+        long size = offHeap.count();
+        for ( Stripe<E> stripe : onHeap )
+        {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    @Override
+    public long hitCount()
+    {
+        return counter.getHitsCount();
+    }
+
+    @Override
+    public long missCount()
+    {
+        return counter.getMissCount();
+    }
+
+    @Override
+    public void updateSize( E entity, int newSize )
+    {
+        // An entity changing after it was serialized makes its off heap copy stale, and an entity
+        // changing while it's being spilled must not be spilled. Taking the stripe monitor while
+        // holding the monitor of the entity is fine, since no entity monitor is taken under it.
+        long id = entity.getId();
+        Stripe<E> stripe = stripe( id );
+        synchronized ( stripe )
+        {
+            stripe.cancelSpill( id );
+            offHeap.remove( id );
+        }
+    }
+
+    @Override
+    public void printStatistics()
+    {
+        logger.debug( String.format( "%s: hits=%d, misses=%d, off heap entries=%d, off heap bytes=%d, evictions=%d",
+                name, hitCount(), missCount(), offHeap.count(), offHeap.allocatedBytes(), offHeap.evictions() ) );
+    }
+
+    private static class Stripe<E extends EntityWithSizeObject> extends LruCache<Long,E>
+    {
+        private List<E> evicted = new ArrayList<E>();
+        // Evicted entities that are yet to be spilled, guarded by the monitor of this stripe
+        private final Map<Long,E> spilling = new HashMap<Long,E>();
+
+        Stripe( String name, int maxSize )
+        {
+            super( name, maxSize );
+        }
+
+        @Override
+        public void elementCleaned( E element )
+        {
+            // Called while holding the monitor of this stripe
+            evicted.add( element );
+            spilling.put( element.getId(), element );
+        }
+
+        /**
+         * @return whether the entity can be stored off heap, which is when it's still waiting to be
+         * spilled, and not put, removed or changed since it was evicted.
+         */
+        boolean spilled( E entity )
+        {
+            long id = entity.getId();
+            if ( spilling.get( id ) != entity )
+            {
+                return false;
+            }
+            spilling.remove( id );
+            return true;
+        }
+
+        /**
+         * @return the evicted entity that was waiting to be spilled, or {@code null} if there was none.
+         */
+        E cancelSpill( long id )
+        {
+            return spilling.isEmpty() ? null : spilling.remove( id );
+        }
+
+        void cancelSpills()
+        {
+            spilling.clear();
+        }
+
+        List<E> takeEvicted()
+        {
+            if ( evicted.isEmpty() )
+            {
+                return Collections.emptyList();
+            }
+            List<E> result = evicted;
+            evicted = new ArrayList<E>();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.cache;
+
+import org.neo4j.graphdb.config.Setting;
+import org.neo4j.graphdb.factory.Description;
+
+import static org.neo4j.helpers.Settings.BYTES;
+import static org.neo4j.helpers.Settings.INTEGER;
+import static org.neo4j.helpers.Settings.min;
+import static org.neo4j.helpers.Settings.setting;
+
+/**
+ * Settings for the off heap cache
+ */
+public class OffHeapCacheSettings
+{
+    @Description( "The amount of memory outside of the Java heap to use for caching nodes. This memory counts " +
+            "towards the maximum direct memory of the JVM, see -XX:MaxDirectMemorySize." )
+    @SuppressWarnings("unchecked")
+    public static final Setting<Long> node_offheap_cache_size =
+            setting( "node_offheap_cache_size", BYTES, "256M", min( 1L ) );
+
+    @Description( "The amount of memory outside of the Java heap to use for caching relationships. This memory " +
+            "counts towards the maximum direct memory of the JVM, see -XX:MaxDirectMemorySize." )
+    @SuppressWarnings("unchecked")
+    public static final Setting<Long> relationship_offheap_cache_size =
+            setting( "relationship_offheap_cache_size", BYTES, "256M", min( 1L ) );
+
+    @Description( "The number of recently used nodes and relationships, respectively, to keep as objects on the " +
+            "Java heap in front of the off heap cache." )
+    @SuppressWarnings("unchecked")
+    public static final Setting<Integer> offheap_cache_heap_entries =
+            setting( "offheap_cache_heap_entries", INTEGER, "10000", min( 16 ) );
+}
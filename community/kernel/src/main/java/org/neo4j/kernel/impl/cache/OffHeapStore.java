@@ -0,0 +1,368 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps byte records, keyed by entity id, in direct memory outside of the Java
+ * heap. The memory is split into segments, each one a ring buffer that new
+ * records are appended to, evicting the oldest records to make room when it's
+ * full. Replaced and removed records are merely dropped from the index and
+ * their space is reclaimed as the ring passes over them.
+ *
+ * <pre>
+ * record: id(long) length(int) data(byte[length])
+ * </pre>
+ */
+class OffHeapStore
+{
+    private static final int RECORD_HEADER_SIZE = 8 + 4;
+    private static final int MIN_SEGMENTS = 16;
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    private final Segment[] segments;
+    private final AtomicLong evictions = new AtomicLong();
+
+    OffHeapStore( long maxBytes )
+    {
+        int count = (int) Math.max( MIN_SEGMENTS, (maxBytes + MAX_SEGMENT_SIZE - 1) / MAX_SEGMENT_SIZE );
+        int segmentSize = (int) Math.max( RECORD_HEADER_SIZE, maxBytes / count );
+        segments = new Segment[count];
+        for ( int i = 0; i < count; i++ )
+        {
+            segments[i] = new Segment( segmentSize );
+        }
+    }
+
+    /**
+     * @return a copy of the data stored for {@code id}, or {@code null} if nothing is stored for it.
+     */
+    ByteBuffer get( long id )
+    {
+        return segment( id ).get( id );
+    }
+
+    /**
+     * Stores the remaining bytes of {@code data} for {@code id}, replacing any previous data.
+     * Data too large to fit in a segment is silently not stored.
+     */
+    void put( long id, ByteBuffer data )
+    {
+        segment( id ).put( id, data );
+    }
+
+    void remove( long id )
+    {
+        segment( id ).remove( id );
+    }
+
+    void clear()
+    {
+        for ( Segment segment : segments )
+        {
+            segment.clear();
+        }
+    }
+
+    long count()
+    {
+        long count = 0;
+        for ( Segment segment : segments )
+        {
+            count += segment.count();
+        }
+        return count;
+    }
+
+    long allocatedBytes()
+    {
+        long bytes = 0;
+        for ( Segment segment : segments )
+        {
+            bytes += segment.allocatedBytes();
+        }
+        return bytes;
+    }
+
+    long evictions()
+    {
+        return evictions.get();
+    }
+
+    private Segment segment( long id )
+    {
+        int hash = (int) (id ^ (id >>> 32));
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return segments[(hash & 0x7FFFFFFF) % segments.length];
+    }
+
+    private class Segment
+    {
+        private final int capacity;
+        private final IdIndex index = new IdIndex();
+        private ByteBuffer buffer; // allocated on first put
+        // Records live in [tail,head) or, if wrapped, in [tail,end) and [0,head)
+        private int head;
+        private int tail;
+        private int end;
+        private boolean wrapped;
+
+        Segment( int capacity )
+        {
+            this.capacity = capacity;
+        }
+
+        synchronized ByteBuffer get( long id )
+        {
+            int offset = index.get( id );
+            if ( offset == -1 )
+            {
+                return null;
+            }
+            int length = buffer.getInt( offset + 8 );
+            ByteBuffer source = buffer.duplicate();
+            source.limit( offset + RECORD_HEADER_SIZE + length ).position( offset + RECORD_HEADER_SIZE );
+            ByteBuffer copy = ByteBuffer.allocate( length );
+            copy.put( source ).flip();
+            return copy;
+        }
+
+        synchronized void put( long id, ByteBuffer data )
+        {
+            index.remove( id );
+            int length = data.remaining();
+            int recordSize = RECORD_HEADER_SIZE + length;
+            if ( recordSize > capacity )
+            {
+                return;
+            }
+            if ( buffer == null )
+            {
+                buffer = ByteBuffer.allocateDirect( capacity );
+            }
+            int offset = allocate( recordSize );
+            buffer.putLong( offset, id );
+            buffer.putInt( offset + 8, length );
+            ByteBuffer target = buffer.duplicate();
+            target.position( offset + RECORD_HEADER_SIZE );
+            target.put( data.duplicate() );
+            index.put( id, offset );
+        }
+
+        private int allocate( int size )
+        {
+            while ( true )
+            {
+                if ( !wrapped )
+                {
+                    if ( tail == head )
+                    {   // Empty
+                        tail = head = 0;
+                    }
+                    if ( capacity - head >= size )
+                    {
+                        int offset = head;
+                        head += size;
+                        return offset;
+                    }
+                    wrapped = true;
+                    end = head;
+                    head = 0;
+                }
+                else if ( tail - head >= size )
+                {
+                    int offset = head;
+                    head += size;
+                    return offset;
+                }
+                else
+                {
+                    evictOldest();
+                }
+            }
+        }
+
+        private void evictOldest()
+        {
+            long id = buffer.getLong( tail );
+            int length = buffer.getInt( tail + 8 );
+            if ( index.get( id ) == tail )
+            {
+                index.remove( id );
+                evictions.incrementAndGet();
+            }
+            tail += RECORD_HEADER_SIZE + length;
+            if ( tail == end )
+            {
+                tail = 0;
+                wrapped = false;
+            }
+        }
+
+        synchronized void remove( long id )
+        {
+            index.remove( id );
+        }
+
+        synchronized void clear()
+        {
+            index.clear();
+            head = tail = end = 0;
+            wrapped = false;
+        }
+
+        synchronized int count()
+        {
+            return index.size();
+        }
+
+        synchronized long allocatedBytes()
+        {
+            return buffer != null ? capacity : 0;
+        }
+    }
+
+    /**
+     * Maps ids to record offsets using open addressing, so that indexing a record
+     * doesn't put any objects on the heap.
+     */
+    static class IdIndex
+    {
+        private static final long NO_ID = -1;
+        private static final int INITIAL_CAPACITY = 1 << 10;
+
+        private long[] ids;
+        private int[] offsets;
+        private int mask;
+        private int size;
+
+        IdIndex()
+        {
+            allocate( INITIAL_CAPACITY );
+        }
+
+        private void allocate( int capacity )
+        {
+            ids = new long[capacity];
+            Arrays.fill( ids, NO_ID );
+            offsets = new int[capacity];
+            mask = capacity - 1;
+            size = 0;
+        }
+
+        private int slot( long id )
+        {
+            long hash = id * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        int get( long id )
+        {
+            for ( int slot = slot( id ); ; slot = (slot + 1) & mask )
+            {
+                long candidate = ids[slot];
+                if ( candidate == id )
+                {
+                    return offsets[slot];
+                }
+                if ( candidate == NO_ID )
+                {
+                    return -1;
+                }
+            }
+        }
+
+        void put( long id, int offset )
+        {
+            if ( (size + 1) * 4L > ids.length * 3L )
+            {
+                grow();
+            }
+            int slot = slot( id );
+            while ( ids[slot] != NO_ID && ids[slot] != id )
+            {
+                slot = (slot + 1) & mask;
+            }
+            if ( ids[slot] == NO_ID )
+            {
+                size++;
+            }
+            ids[slot] = id;
+            offsets[slot] = offset;
+        }
+
+        void remove( long id )
+        {
+            int slot = slot( id );
+            while ( ids[slot] != id )
+            {
+                if ( ids[slot] == NO_ID )
+                {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            // Shift following entries back into the gap, so that lookups never stop short of them
+            int gap = slot;
+            for ( int current = (slot + 1) & mask; ids[current] != NO_ID; current = (current + 1) & mask )
+            {
+                int home = slot( ids[current] );
+                boolean homeInRange = gap <= current ? (gap < home && home <= current) : (gap < home || home <= current);
+                if ( !homeInRange )
+                {
+                    ids[gap] = ids[current];
+                    offsets[gap] = offsets[current];
+                    gap = current;
+                }
+            }
+            ids[gap] = NO_ID;
+            size--;
+        }
+
+        private void grow()
+        {
+            long[] oldIds = ids;
+            int[] oldOffsets = offsets;
+            allocate( oldIds.length * 2 );
+            for ( int i = 0; i < oldIds.length; i++ )
+            {
+                if ( oldIds[i] != NO_ID )
+                {
+                    put( oldIds[i], oldOffsets[i] );
+                }
+            }
+        }
+
+        void clear()
+        {
+            allocate( INITIAL_CAPACITY );
+        }
+
+        int size()
+        {
+            return size;
+        }
+    }
+}
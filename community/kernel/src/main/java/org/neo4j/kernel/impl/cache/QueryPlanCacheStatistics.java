@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit, miss and eviction counts of the query plan caches of a database, along with the time spent
+ * building the plans that were not found in them. Filled in by the query engines and read through JMX.
+ */
+public class QueryPlanCacheStatistics
+{
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong parameterizedQueries = new AtomicLong();
+    private final AtomicLong totalBuildTimeNanos = new AtomicLong();
+    private final AtomicLong maxBuildTimeNanos = new AtomicLong();
+
+    public void hit()
+    {
+        hits.incrementAndGet();
+    }
+
+    public void miss( long buildTimeNanos )
+    {
+        misses.incrementAndGet();
+        totalBuildTimeNanos.addAndGet( buildTimeNanos );
+        setIfGreater( maxBuildTimeNanos, buildTimeNanos );
+    }
+
+    public void evicted()
+    {
+        evictions.incrementAndGet();
+    }
+
+    /**
+     * Called for every query that had literals replaced by parameters before the cache lookup.
+     */
+    public void parameterized()
+    {
+        parameterizedQueries.incrementAndGet();
+    }
+
+    private static void setIfGreater( AtomicLong max, long value )
+    {
+        long current;
+        do
+        {
+            current = max.get();
+            if ( value <= current )
+            {
+                return;
+            }
+        }
+        while ( !max.compareAndSet( current, value ) );
+    }
+
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    public long getEvictions()
+    {
+        return evictions.get();
+    }
+
+    public long getParameterizedQueries()
+    {
+        return parameterizedQueries.get();
+    }
+
+    /**
+     * @return the average time spent building a plan on a cache miss, in microseconds.
+     */
+    public long getAverageBuildTime()
+    {
+        long missCount = misses.get();
+        return missCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros( totalBuildTimeNanos.get() / missCount );
+    }
+
+    /**
+     * @return the longest time building a single plan has taken, in microseconds.
+     */
+    public long getMaxBuildTime()
+    {
+        return TimeUnit.NANOSECONDS.toMicros( maxBuildTimeNanos.get() );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "QueryPlanCacheStatistics[hits:" + getHits() + ", misses:" + getMisses() +
+                ", evictions:" + getEvictions() + ", parameterized:" + getParameterizedQueries() +
+                ", avgBuildTime:" + getAverageBuildTime() + "us, maxBuildTime:" + getMaxBuildTime() + "us]";
+    }
+}
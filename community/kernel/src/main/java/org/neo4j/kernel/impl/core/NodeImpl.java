@@ -34,7 +34,7 @@ import org.neo4j.graphdb.NotFoundException;
 import org.neo4j.graphdb.PropertyContainer;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.RelationshipType;
-import org.neo4j.helpers.Triplet;
+import org.neo4j.helpers.Pair;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.api.operations.StatementState;
 import org.neo4j.kernel.api.properties.Property;
@@ -44,7 +44,6 @@ import org.neo4j.kernel.impl.core.WritableTransactionState.CowEntityElement;
 import org.neo4j.kernel.impl.core.WritableTransactionState.PrimitiveElement;
 import org.neo4j.kernel.impl.nioneo.store.InvalidRecordException;
 import org.neo4j.kernel.impl.nioneo.store.PropertyData;
-import org.neo4j.kernel.impl.nioneo.store.Record;
 import org.neo4j.kernel.impl.util.ArrayMap;
 import org.neo4j.kernel.impl.util.CombinedRelIdIterator;
 import org.neo4j.kernel.impl.util.RelIdArray;
@@ -67,15 +66,16 @@ import static org.neo4j.kernel.impl.util.RelIdArray.wrap;
 public class NodeImpl extends ArrayBasedPrimitive
 {
     private static final RelIdArray[] NO_RELATIONSHIPS = new RelIdArray[0];
+    static final int[] ALL_TYPES = new int[0];
 
     private volatile RelIdArray[] relationships;
 
     // TODO do this more efficiently, perhaps using a sorted array
     private volatile Set<Long> labels;
     /*
-     * This is the id of the next relationship to load from disk.
+     * Keeps track of the next relationships to load from disk, per type and direction for dense nodes.
      */
-    private volatile long relChainPosition = Record.NO_NEXT_RELATIONSHIP.intValue();
+    private volatile RelationshipLoadingPosition relChainPosition;
     private final long id;
 
     public NodeImpl( long id )
@@ -94,9 +94,26 @@ public class NodeImpl extends ArrayBasedPrimitive
         if ( newNode )
         {
             relationships = NO_RELATIONSHIPS;
+            relChainPosition = RelationshipLoadingPosition.EMPTY;
         }
     }
     
+    /**
+     * Creates a node with already known labels and, if {@code relationships} is non-null, all its
+     * relationships loaded. Either may be {@code null} to have them loaded on demand.
+     */
+    NodeImpl( long id, Set<Long> labels, RelIdArray[] relationships )
+    {
+        super( false );
+        this.id = id;
+        this.labels = labels;
+        if ( relationships != null )
+        {
+            this.relationships = relationships;
+            this.relChainPosition = RelationshipLoadingPosition.EMPTY;
+        }
+    }
+
     @Override
     protected ArrayMap<Integer, PropertyData> loadProperties( NodeManager nodeManager )
     {
@@ -118,7 +135,13 @@ public class NodeImpl extends ArrayBasedPrimitive
     @Override
     public int sizeOfObjectInBytesIncludingOverhead()
     {
-        int size = super.sizeOfObjectInBytesIncludingOverhead() + SizeOfs.REFERENCE_SIZE/*relationships reference*/ + 8/*relChainPosition*/ + 8/*id*/;
+        int size = super.sizeOfObjectInBytesIncludingOverhead() + SizeOfs.REFERENCE_SIZE/*relationships reference*/ +
+                SizeOfs.REFERENCE_SIZE/*relChainPosition reference*/ + 8/*id*/;
+        RelationshipLoadingPosition position = relChainPosition;
+        if ( position != null )
+        {
+            size += position.sizeOfObjectInBytesIncludingOverhead();
+        }
         if ( relationships != null )
         {
             size = withArrayOverheadIncludingReferences( size, relationships.length );
@@ -145,14 +168,14 @@ public class NodeImpl extends ArrayBasedPrimitive
 
     Iterable<Relationship> getAllRelationships( NodeManager nodeManager, DirectionWrapper direction )
     {
-        ensureRelationshipMapNotNull( nodeManager );
+        ensureRelationshipMapNotNull( nodeManager, direction, ALL_TYPES );
 
         // We need to check if there are more relationships to load before grabbing
         // the references to the RelIdArrays since otherwise there could be
         // another concurrent thread exhausting the chain position in between the point
         // where we got an empty iterator for a type that the other thread loaded and
         // the point where we check whether or not there are more relationships to load.
-        boolean hasMore = hasMoreRelationshipsToLoad();
+        boolean hasMore = hasMoreRelationshipsToLoad( direction, ALL_TYPES );
 
         RelIdArray[] localRelationships = relationships;
         RelIdIterator[] result = new RelIdIterator[localRelationships.length];
@@ -207,22 +230,45 @@ public class NodeImpl extends ArrayBasedPrimitive
         {
             return Collections.emptyList();
         }
-        return new RelationshipIterator( result, this, direction, nodeManager, hasMore, true );
+        return new RelationshipIterator( result, this, direction, ALL_TYPES, nodeManager, hasMore );
     }
 
     Iterable<Relationship> getAllRelationshipsOfType( NodeManager nodeManager,
                                                       DirectionWrapper direction, RelationshipType... types )
     {
-        ensureRelationshipMapNotNull( nodeManager );
+        int[] typeIds = new int[types.length];
+        int actualLength = 0;
+        for ( RelationshipType type : types )
+        {
+            try
+            {
+                typeIds[actualLength++] = nodeManager.getRelationshipTypeIdFor( type );
+            }
+            catch ( TokenNotFoundException e )
+            {
+                // This relationship type doesn't even exist in this database
+                actualLength--;
+            }
+        }
+        if ( actualLength == 0 )
+        {
+            return Collections.emptyList();
+        }
+        if ( actualLength < typeIds.length )
+        {
+            typeIds = Arrays.copyOf( typeIds, actualLength );
+        }
+
+        ensureRelationshipMapNotNull( nodeManager, direction, typeIds );
 
         // We need to check if there are more relationships to load before grabbing
         // the references to the RelIdArrays. Otherwise there could be
         // another concurrent thread exhausting the chain position in between the point
         // where we got an empty iterator for a type that the other thread loaded and
         // the point where we check if there are more relationships to load.
-        boolean hasMore = hasMoreRelationshipsToLoad();
+        boolean hasMore = hasMoreRelationshipsToLoad( direction, typeIds );
 
-        RelIdIterator[] result = new RelIdIterator[types.length];
+        RelIdIterator[] result = new RelIdIterator[typeIds.length];
         TransactionState tx = nodeManager.getTransactionState();
         ArrayMap<Integer, RelIdArray> addMap = null;
         ArrayMap<Integer, Collection<Long>> skipMap = null;
@@ -231,36 +277,14 @@ public class NodeImpl extends ArrayBasedPrimitive
             addMap = tx.getCowRelationshipAddMap( this );
             skipMap = tx.getCowRelationshipRemoveMap( this );
         }
-        int actualLength = 0;
-        for ( RelationshipType type : types )
-        {
-            int typeId;
-            try
-            {
-                typeId = nodeManager.getRelationshipTypeIdFor( type );
-            }
-            catch ( TokenNotFoundException e )
-            {
-                // This relationship type doesn't even exist in this database
-                continue;
-            }
-
-            result[actualLength++] = getRelationshipsIterator( direction,
-                                                               addMap != null ? addMap.get( typeId ) : null,
-                                                               skipMap != null ? skipMap.get( typeId ) : null, typeId );
-        }
-
-        if ( actualLength < result.length )
+        for ( int i = 0; i < typeIds.length; i++ )
         {
-            RelIdIterator[] compacted = new RelIdIterator[actualLength];
-            arraycopy( result, 0, compacted, 0, actualLength );
-            result = compacted;
-        }
-        if ( result.length == 0 )
-        {
-            return Collections.emptyList();
+            int typeId = typeIds[i];
+            result[i] = getRelationshipsIterator( direction,
+                                                  addMap != null ? addMap.get( typeId ) : null,
+                                                  skipMap != null ? skipMap.get( typeId ) : null, typeId );
         }
-        return new RelationshipIterator( result, this, direction, nodeManager, hasMore, false );
+        return new RelationshipIterator( result, this, direction, typeIds, nodeManager, hasMore );
     }
 
     private RelIdIterator getRelationshipsIterator( DirectionWrapper direction, RelIdArray add,
@@ -344,17 +368,17 @@ public class NodeImpl extends ArrayBasedPrimitive
         return "NodeImpl#" + this.getId();
     }
 
-    private void ensureRelationshipMapNotNull( NodeManager nodeManager )
+    private void ensureRelationshipMapNotNull( NodeManager nodeManager, DirectionWrapper direction, int[] types )
     {
         if ( relationships == null )
         {
-            loadInitialRelationships( nodeManager );
+            loadInitialRelationships( nodeManager, direction, types );
         }
     }
 
-    private void loadInitialRelationships( NodeManager nodeManager )
+    private void loadInitialRelationships( NodeManager nodeManager, DirectionWrapper direction, int[] types )
     {
-        Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long> rels = null;
+        Pair<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>> rels = null;
         synchronized ( this )
         {
             if ( relationships == null )
@@ -370,18 +394,15 @@ public class NodeImpl extends ArrayBasedPrimitive
                 }
 
                 ArrayMap<Integer, RelIdArray> tmpRelMap = new ArrayMap<>();
-                rels = getMoreRelationships( nodeManager, tmpRelMap );
+                rels = getMoreRelationships( nodeManager, tmpRelMap, direction, types );
                 this.relationships = toRelIdArray( tmpRelMap );
-                if ( rels != null )
-                {
-                    setRelChainPosition( rels.third() );
-                }
+                shrinkIfFullyLoaded();
                 updateSize( nodeManager );
             }
         }
         if ( rels != null )
         {
-            nodeManager.putAllInRelCache( rels.second() );
+            nodeManager.putAllInRelCache( rels.other() );
         }
     }
 
@@ -433,16 +454,16 @@ public class NodeImpl extends ArrayBasedPrimitive
         Arrays.sort( array, RELATIONSHIP_TYPE_COMPARATOR_FOR_SORTING );
     }
 
-    private Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long> getMoreRelationships(
-            NodeManager nodeManager, ArrayMap<Integer, RelIdArray> tmpRelMap )
+    private Pair<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>> getMoreRelationships(
+            NodeManager nodeManager, ArrayMap<Integer, RelIdArray> tmpRelMap, DirectionWrapper direction, int[] types )
     {
-        if ( !hasMoreRelationshipsToLoad() )
+        if ( !hasMoreRelationshipsToLoad( direction, types ) )
         {
             return null;
         }
-        Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long> rels;
+        Pair<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>> rels;
 
-        rels = loadMoreRelationshipsFromNodeManager( nodeManager );
+        rels = loadMoreRelationshipsFromNodeManager( nodeManager, direction, types );
 
         ArrayMap<Integer, RelIdArray> addMap = rels.first();
         if ( addMap.size() == 0 )
@@ -471,9 +492,10 @@ public class NodeImpl extends ArrayBasedPrimitive
         return rels;
     }
 
-    boolean hasMoreRelationshipsToLoad()
+    boolean hasMoreRelationshipsToLoad( DirectionWrapper direction, int[] types )
     {
-        return getRelChainPosition() != Record.NO_NEXT_RELATIONSHIP.intValue();
+        RelationshipLoadingPosition position = getRelChainPosition();
+        return position != null && position.hasMore( direction, types );
     }
 
     static enum LoadStatus
@@ -502,21 +524,21 @@ public class NodeImpl extends ArrayBasedPrimitive
         }
     }
 
-    LoadStatus getMoreRelationships( NodeManager nodeManager )
+    LoadStatus getMoreRelationships( NodeManager nodeManager, DirectionWrapper direction, int[] types )
     {
-        Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long> rels;
-        if ( !hasMoreRelationshipsToLoad() )
+        Pair<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>> rels;
+        if ( !hasMoreRelationshipsToLoad( direction, types ) )
         {
             return LoadStatus.NOTHING;
         }
         boolean more;
         synchronized ( this )
         {
-            if ( !hasMoreRelationshipsToLoad() )
+            if ( !hasMoreRelationshipsToLoad( direction, types ) )
             {
                 return LoadStatus.NOTHING;
             }
-            rels = loadMoreRelationshipsFromNodeManager( nodeManager );
+            rels = loadMoreRelationshipsFromNodeManager( nodeManager, direction, types );
             ArrayMap<Integer, RelIdArray> addMap = rels.first();
             if ( addMap.size() == 0 )
             {
@@ -540,23 +562,26 @@ public class NodeImpl extends ArrayBasedPrimitive
                     }
                 }
             }
-            setRelChainPosition( rels.third() );
-            more = hasMoreRelationshipsToLoad();
+            shrinkIfFullyLoaded();
+            more = hasMoreRelationshipsToLoad( direction, types );
             updateSize( nodeManager );
         }
-        nodeManager.putAllInRelCache( rels.second() );
+        nodeManager.putAllInRelCache( rels.other() );
         return more ? LoadStatus.LOADED_MORE : LoadStatus.LOADED_END;
     }
 
-    private Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long>
-    loadMoreRelationshipsFromNodeManager( NodeManager nodeManager )
+    private Pair<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>>
+    loadMoreRelationshipsFromNodeManager( NodeManager nodeManager, DirectionWrapper direction, int[] types )
     {
         try
         {
-            return nodeManager.getMoreRelationships( this );
+            return nodeManager.getMoreRelationships( this, direction, types );
         }
         catch ( InvalidRecordException e )
         {
+            // The loading position may have been moved past relationships that never made it into
+            // this node, so let the next user of this node start over from a fresh copy instead.
+            nodeManager.removeNodeFromCache( getId() );
             throw new NotFoundException( "Unable to load one or more relationships from " + asProxy( nodeManager ) +
                     ". This usually happens when relationships are deleted by someone else just as we are about to " +
                     "load them. Please try again.", e );
@@ -675,17 +700,22 @@ public class NodeImpl extends ArrayBasedPrimitive
         }
     }
 
-    long getRelChainPosition()
+    RelationshipLoadingPosition getRelChainPosition()
     {
         return relChainPosition;
     }
 
-    void setRelChainPosition( long position )
+    void setRelChainPosition( RelationshipLoadingPosition position )
     { // precondition: must be called under synchronization
         relChainPosition = position;
+        shrinkIfFullyLoaded();
+    }
+
+    private void shrinkIfFullyLoaded()
+    { // precondition: must be called under synchronization
         // use local reference to avoid multiple read barriers
         RelIdArray[] array = relationships;
-        if ( !hasMoreRelationshipsToLoad() && array != null )
+        if ( !hasMoreRelationshipsToLoad( DirectionWrapper.BOTH, ALL_TYPES ) && array != null )
         {
             // Done loading - Shrink arrays
             for ( int i = 0; i < array.length; i++ )
@@ -695,6 +725,20 @@ public class NodeImpl extends ArrayBasedPrimitive
         }
     }
 
+    Set<Long> getCachedLabels()
+    {
+        return labels;
+    }
+
+    /**
+     * @return all relationships of this node, or {@code null} if not all of them have been loaded.
+     */
+    RelIdArray[] getFullyLoadedRelationshipIds()
+    {
+        RelIdArray[] array = relationships;
+        return array != null && !hasMoreRelationshipsToLoad( DirectionWrapper.BOTH, ALL_TYPES ) ? array : null;
+    }
+
     RelIdArray getRelationshipIds( int type )
     {
         return getRelIdArray( type );
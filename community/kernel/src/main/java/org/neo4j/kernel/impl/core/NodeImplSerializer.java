@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.core;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.neo4j.kernel.impl.cache.EntitySerializer;
+import org.neo4j.kernel.impl.util.RelIdArray;
+
+/**
+ * Serializes the labels and relationship ids of a {@link NodeImpl}, the parts
+ * of a node which are expensive to load. Properties are left out and loaded on
+ * demand for a deserialized node. Relationships are only included if all of
+ * them have been loaded, so that the deserialized node doesn't need to know
+ * where in the relationship chains to continue loading.
+ *
+ * <pre>
+ * flags(byte)
+ * [label count(int), label ids(long)...]        if flags has LABELS
+ * [type count(int), {@link RelIdArray#writeTo(ByteBuffer)}...]  if flags has RELATIONSHIPS
+ * </pre>
+ */
+public class NodeImplSerializer implements EntitySerializer<NodeImpl>
+{
+    private static final byte LABELS = 0x1;
+    private static final byte RELATIONSHIPS = 0x2;
+
+    @Override
+    public ByteBuffer serialize( NodeImpl node )
+    {
+        // Synchronized on the node like its own modifications, so that they are either
+        // fully part of this snapshot or followed by a cache size update
+        synchronized ( node )
+        {
+            Set<Long> labels = node.getCachedLabels();
+            RelIdArray[] relationships = node.getFullyLoadedRelationshipIds();
+            int size = 1;
+            if ( labels != null )
+            {
+                size += 4 + 8 * labels.size();
+            }
+            if ( relationships != null )
+            {
+                size += 4;
+                for ( RelIdArray ids : relationships )
+                {
+                    size += ids.serializedSize();
+                }
+            }
+
+            ByteBuffer target = ByteBuffer.allocate( size );
+            target.put( (byte) ((labels != null ? LABELS : 0) | (relationships != null ? RELATIONSHIPS : 0)) );
+            if ( labels != null )
+            {
+                target.putInt( labels.size() );
+                for ( long label : labels )
+                {
+                    target.putLong( label );
+                }
+            }
+            if ( relationships != null )
+            {
+                target.putInt( relationships.length );
+                for ( RelIdArray ids : relationships )
+                {
+                    ids.writeTo( target );
+                }
+            }
+            target.flip();
+            return target;
+        }
+    }
+
+    @Override
+    public NodeImpl deserialize( long id, ByteBuffer source )
+    {
+        byte flags = source.get();
+        Set<Long> labels = null;
+        if ( (flags & LABELS) != 0 )
+        {
+            int count = source.getInt();
+            labels = new HashSet<>( count * 2 );
+            for ( int i = 0; i < count; i++ )
+            {
+                labels.add( source.getLong() );
+            }
+        }
+        RelIdArray[] relationships = null;
+        if ( (flags & RELATIONSHIPS) != 0 )
+        {
+            relationships = new RelIdArray[source.getInt()];
+            for ( int i = 0; i < relationships.length; i++ )
+            {
+                relationships[i] = RelIdArray.readFrom( source );
+            }
+        }
+        return new NodeImpl( id, labels, relationships );
+    }
+}
@@ -39,7 +39,6 @@ import org.neo4j.graphdb.index.Index;
 import org.neo4j.helpers.Pair;
 import org.neo4j.helpers.Predicate;
 import org.neo4j.helpers.ThisShouldNotHappenError;
-import org.neo4j.helpers.Triplet;
 import org.neo4j.helpers.collection.CombiningIterator;
 import org.neo4j.helpers.collection.FilteringIterator;
 import org.neo4j.helpers.collection.IteratorWrapper;
@@ -600,9 +599,13 @@ public class NodeManager implements Lifecycle, EntityFactory
     private void invalidateNode( long nodeId, long relIdDeleted, long nextRelId )
     {
         NodeImpl node = nodeCache.getIfCached( nodeId );
-        if ( node != null && node.getRelChainPosition() == relIdDeleted )
+        if ( node != null )
         {
-            node.setRelChainPosition( nextRelId );
+            RelationshipLoadingPosition position = node.getRelChainPosition();
+            if ( position != null )
+            {
+                position.compareAndAdvance( relIdDeleted, nextRelId );
+            }
         }
     }
 
@@ -621,38 +624,39 @@ public class NodeManager implements Lifecycle, EntityFactory
         return persistenceManager.graphLoadPropertyValue( propertyKey );
     }
 
-    long getRelationshipChainPosition( NodeImpl node )
+    RelationshipLoadingPosition getRelationshipChainPosition( NodeImpl node )
     {
         return persistenceManager.getRelationshipChainPosition( node.getId() );
     }
 
-    Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long> getMoreRelationships( NodeImpl node )
+    Pair<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>> getMoreRelationships( NodeImpl node,
+            DirectionWrapper direction, int[] types )
     {
         long nodeId = node.getId();
-        long position = node.getRelChainPosition();
-        Pair<Map<DirectionWrapper, Iterable<RelationshipRecord>>, Long> rels =
-                persistenceManager.getMoreRelationships( nodeId, position );
+        RelationshipLoadingPosition position = node.getRelChainPosition();
+        Map<DirectionWrapper, Iterable<RelationshipRecord>> rels =
+                persistenceManager.getMoreRelationships( nodeId, position, direction, types );
         ArrayMap<Integer, RelIdArray> newRelationshipMap =
                 new ArrayMap<Integer, RelIdArray>();
 
         List<RelationshipImpl> relsList = new ArrayList<RelationshipImpl>( 150 );
 
-        Iterable<RelationshipRecord> loops = rels.first().get( DirectionWrapper.BOTH );
+        Iterable<RelationshipRecord> loops = rels.get( DirectionWrapper.BOTH );
         boolean hasLoops = loops != null;
         if ( hasLoops )
         {
             populateLoadedRelationships( loops, relsList, DirectionWrapper.BOTH, true, newRelationshipMap );
         }
-        populateLoadedRelationships( rels.first().get( DirectionWrapper.OUTGOING ), relsList,
+        populateLoadedRelationships( rels.get( DirectionWrapper.OUTGOING ), relsList,
                 DirectionWrapper.OUTGOING, hasLoops,
                 newRelationshipMap
         );
-        populateLoadedRelationships( rels.first().get( DirectionWrapper.INCOMING ), relsList,
+        populateLoadedRelationships( rels.get( DirectionWrapper.INCOMING ), relsList,
                 DirectionWrapper.INCOMING, hasLoops,
                 newRelationshipMap
         );
 
-        return Triplet.of( newRelationshipMap, relsList, rels.other() );
+        return Pair.of( newRelationshipMap, relsList );
     }
 
     /**
@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.core;
+
+import java.nio.ByteBuffer;
+
+import org.neo4j.kernel.impl.cache.EntitySerializer;
+
+/**
+ * Serializes the start node, end node and type of a {@link RelationshipImpl}.
+ * Properties are left out and loaded on demand for a deserialized relationship.
+ */
+public class RelationshipImplSerializer implements EntitySerializer<RelationshipImpl>
+{
+    private static final int SIZE = 8 + 8 + 4;
+
+    @Override
+    public ByteBuffer serialize( RelationshipImpl relationship )
+    {
+        ByteBuffer target = ByteBuffer.allocate( SIZE );
+        target.putLong( relationship.getStartNodeId() );
+        target.putLong( relationship.getEndNodeId() );
+        target.putInt( relationship.getTypeId() );
+        target.flip();
+        return target;
+    }
+
+    @Override
+    public RelationshipImpl deserialize( long id, ByteBuffer source )
+    {
+        long startNodeId = source.getLong();
+        long endNodeId = source.getLong();
+        int typeId = source.getInt();
+        return new RelationshipImpl( id, startNodeId, endNodeId, typeId, false );
+    }
+}
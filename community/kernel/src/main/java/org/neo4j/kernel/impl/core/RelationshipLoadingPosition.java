@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.core;
+
+import org.neo4j.kernel.impl.cache.SizeOfObject;
+import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper;
+
+/**
+ * Keeps track of how far the relationships of a node have been loaded into its cached {@link NodeImpl}.
+ * A sparse node has all its relationships in one chain, whereas a dense node has one chain per
+ * relationship type and direction, which makes it possible to load only the relationships asked for.
+ *
+ * An empty {@code types} array means all types. Methods that change the position are called under
+ * synchronization on the owning node.
+ */
+public interface RelationshipLoadingPosition extends SizeOfObject
+{
+    /**
+     * @return the id of the next relationship to load for the given direction and types,
+     * or {@link Record#NO_NEXT_RELATIONSHIP} if all of those have been loaded.
+     */
+    long position( DirectionWrapper direction, int[] types );
+
+    /**
+     * Moves the chain currently being loaded forward to {@code position}. If that chain was exhausted
+     * loading continues with the next chain matching the direction and types.
+     *
+     * @return the id of the next relationship to load, or {@link Record#NO_NEXT_RELATIONSHIP}.
+     */
+    long nextPosition( long position, DirectionWrapper direction, int[] types );
+
+    boolean hasMore( DirectionWrapper direction, int[] types );
+
+    /**
+     * Called when a relationship has been deleted, so that any chain positioned at it
+     * moves on to the relationship that came after it.
+     */
+    void compareAndAdvance( long relIdDeleted, long nextRelId );
+
+    RelationshipLoadingPosition EMPTY = new RelationshipLoadingPosition()
+    {
+        @Override
+        public long position( DirectionWrapper direction, int[] types )
+        {
+            return Record.NO_NEXT_RELATIONSHIP.intValue();
+        }
+
+        @Override
+        public long nextPosition( long position, DirectionWrapper direction, int[] types )
+        {
+            return Record.NO_NEXT_RELATIONSHIP.intValue();
+        }
+
+        @Override
+        public boolean hasMore( DirectionWrapper direction, int[] types )
+        {
+            return false;
+        }
+
+        @Override
+        public void compareAndAdvance( long relIdDeleted, long nextRelId )
+        {
+        }
+
+        @Override
+        public int sizeOfObjectInBytesIncludingOverhead()
+        {
+            return 0;
+        }
+    };
+}
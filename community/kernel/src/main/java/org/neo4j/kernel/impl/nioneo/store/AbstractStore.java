@@ -221,6 +221,22 @@ public abstract class AbstractStore extends CommonAbstractStore
 
     public abstract List<WindowPoolStats> getAllWindowPoolStats();
 
+    /**
+     * @return the window pool hits of the stores {@link #getAllWindowPoolStats()} reports on, summed up.
+     */
+    public long getAllWindowPoolHitCount()
+    {
+        return getWindowPoolHitCount();
+    }
+
+    /**
+     * @return the window pool misses of the stores {@link #getAllWindowPoolStats()} reports on, summed up.
+     */
+    public long getAllWindowPoolMissCount()
+    {
+        return getWindowPoolMissCount();
+    }
+
     public void logAllWindowPoolStats( StringLogger.LineLogger logger )
     {
         logger.logLine( getWindowPoolStats().toString() );
@@ -55,7 +55,7 @@ public abstract class CommonAbstractStore implements IdSequence
         public static final Setting<Boolean> use_memory_mapped_buffers = GraphDatabaseSettings.use_memory_mapped_buffers;
     }
 
-    public static final String ALL_STORES_VERSION = "v0.A.1";
+    public static final String ALL_STORES_VERSION = "v0.A.2";
     public static final String UNKNOWN_VERSION = "Uknown";
 
     protected Config configuration;
@@ -662,6 +662,16 @@ public abstract class CommonAbstractStore implements IdSequence
         return windowPool.getStats();
     }
 
+    public long getWindowPoolHitCount()
+    {
+        return windowPool.getHitCount();
+    }
+
+    public long getWindowPoolMissCount()
+    {
+        return windowPool.getMissCount();
+    }
+
     public IdType getIdType()
     {
         return idType;
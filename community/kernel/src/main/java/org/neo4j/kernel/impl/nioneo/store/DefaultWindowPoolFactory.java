@@ -38,7 +38,13 @@ public class DefaultWindowPoolFactory implements WindowPoolFactory
     public WindowPool create( File storageFileName, int recordSize, FileChannel fileChannel, Config configuration,
                               StringLogger log )
     {
-
+        if ( configuration.get( GraphDatabaseSettings.use_page_cache ) )
+        {
+            return new PageCacheWindowPool( storageFileName, recordSize, fileChannel,
+                    calculateMappedMemory( configuration, storageFileName ),
+                    pageSize( configuration ), configuration.get( GraphDatabaseSettings.page_cache_flush_interval ),
+                    isReadOnly( configuration ) && !isBackupSlave( configuration ), log );
+        }
         return new PersistenceWindowPool( storageFileName, recordSize, fileChannel,
                 calculateMappedMemory( configuration, storageFileName ),
                 GraphDatabaseSettings.UseMemoryMappedBuffers.shouldMemoryMap( configuration.get( CommonAbstractStore
@@ -46,6 +52,11 @@ public class DefaultWindowPoolFactory implements WindowPoolFactory
                         isReadOnly( configuration ) && !isBackupSlave( configuration ), log );
     }
 
+    private int pageSize( Config configuration )
+    {
+        return (int) Math.min( Integer.MAX_VALUE, configuration.get( GraphDatabaseSettings.page_cache_page_size ) );
+    }
+
     private boolean isBackupSlave( Config configuration )
     {
         return configuration.get( CommonAbstractStore.Configuration.backup_slave );
@@ -27,6 +27,9 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -52,6 +55,11 @@ import java.util.concurrent.atomic.AtomicLong;
  * Passing a non free id will corrupt the id generator and {@link #nextId}
  * method will eventually return that id.
  * <p>
+ * New ids are handed out from an atomic high id without synchronizing as long
+ * as there are no defragged ids to reuse, and ids are freed into a concurrent
+ * list which is flushed to file in batches, so that concurrently creating and
+ * deleting entities of the same type doesn't contend on a single monitor.
+ * <p>
  * The {@link #close()} method must always be invoked when done using an
  * generator (for this time). Failure to do will render the generator as
  * "sticky" and unusable next time you try to initialize a generator using the
@@ -79,7 +87,9 @@ public class IdGeneratorImpl implements IdGenerator
     // marks how much this session is allowed to read from previously released id batches.
     private long maxReadPosition = HEADER_SIZE;
     // used to calculate number of ids actually in use
-    private long defraggedIdCount = -1;
+    private final AtomicLong defraggedIdCount = new AtomicLong( -1 );
+    // whether or not there are ids read, or left to read, from file. Lets nextId skip synchronization if not
+    private volatile boolean defraggedIdsInFile;
 
     private final File fileName;
     private final FileSystemAbstraction fs;
@@ -87,11 +97,19 @@ public class IdGeneratorImpl implements IdGenerator
     // defragged ids read from file (freed in a previous session).
     private final LinkedList<Long> idsReadFromFile = new LinkedList<Long>();
     // ids freed in this session that havn't been flushed to disk yet
-    private final LinkedList<Long> releasedIdList = new LinkedList<Long>();
-    
+    private final Queue<Long> releasedIdList = new ConcurrentLinkedQueue<Long>();
+    private final AtomicInteger releasedIdCount = new AtomicInteger();
+    // buffer for reading and writing id batches, allocated on first use
+    private ByteBuffer idBatchBuffer;
+
     private final long max;
     private final boolean aggressiveReuse;
 
+    // allocation counters, for monitoring
+    private final AtomicLong allocatedHighIds = new AtomicLong();
+    private final AtomicLong reusedIds = new AtomicLong();
+    private final AtomicLong freedIds = new AtomicLong();
+
     /**
      * Opens the id generator represented by <CODE>fileName</CODE>. The
      * <CODE>grabSize</CODE> means how many defragged ids we should keep in
@@ -146,22 +164,60 @@ public class IdGeneratorImpl implements IdGenerator
      * @throws IllegalStateException if this id generator has been closed
      */
     @Override
-    public synchronized long nextId()
+    public long nextId()
+    {
+        if ( hasDefraggedIds() )
+        {
+            synchronized ( this )
+            {
+                assertStillOpen();
+                long nextDefragId = nextIdFromDefragList();
+                if ( nextDefragId != -1 )
+                {
+                    return nextDefragId;
+                }
+            }
+        }
+        return nextHighIds( 1 );
+    }
+
+    private boolean hasDefraggedIds()
     {
-        assertStillOpen();
-        long nextDefragId = nextIdFromDefragList();
-        if ( nextDefragId != -1 ) return nextDefragId;
+        return defraggedIdsInFile || (aggressiveReuse && releasedIdCount.get() > 0);
+    }
 
-        long id = highId.get();
-        if ( id == INTEGER_MINUS_ONE )
+    /**
+     * Atomically moves the high id forward {@code count} ids.
+     *
+     * @return the first of the {@code count} ids
+     */
+    private long nextHighIds( int count )
+    {
+        while ( true )
         {
-            // Skip the integer -1 (0xFFFFFFFF) because it represents
-            // special values, f.ex. the end of a relationships/property chain.
-            id = highId.incrementAndGet();
+            long current = highId.get();
+            if ( current == -1 )
+            {
+                throw new IllegalStateException( "Closed id generator " + fileName );
+            }
+            if ( count == 0 )
+            {
+                return current;
+            }
+            if ( current <= INTEGER_MINUS_ONE && current + count > INTEGER_MINUS_ONE )
+            {
+                // Skip the integer -1 (0xFFFFFFFF) because it represents
+                // special values, f.ex. the end of a relationships/property chain.
+                highId.compareAndSet( current, INTEGER_MINUS_ONE + 1 );
+                continue;
+            }
+            assertIdWithinCapacity( current + count - 1 );
+            if ( highId.compareAndSet( current, current + count ) )
+            {
+                allocatedHighIds.addAndGet( count );
+                return current;
+            }
         }
-        assertIdWithinCapacity( id );
-        highId.incrementAndGet();
-        return id;
     }
 
     private void assertIdWithinCapacity( long id )
@@ -184,22 +240,31 @@ public class IdGeneratorImpl implements IdGenerator
             Long id = releasedIdList.poll();
             if ( id != null )
             {
-                defraggedIdCount--;
+                releasedIdCount.decrementAndGet();
+                defraggedIdCount.decrementAndGet();
+                reusedIds.incrementAndGet();
                 return id.longValue();
             }
         }
 
-        if ( !idsReadFromFile.isEmpty() || canReadMoreIdBatches() )
+        long id = -1;
+        if ( idsReadFromFile.isEmpty() )
         {
-            if ( idsReadFromFile.isEmpty() )
-            {
-                readIdBatch();
-            }
-            long id = idsReadFromFile.removeFirst();
-            defraggedIdCount--;
-            return id;
+            readIdBatch();
         }
-        return -1;
+        if ( !idsReadFromFile.isEmpty() )
+        {
+            id = idsReadFromFile.removeFirst();
+            defraggedIdCount.decrementAndGet();
+            reusedIds.incrementAndGet();
+        }
+        updateDefraggedIdsInFile();
+        return id;
+    }
+
+    private void updateDefraggedIdsInFile()
+    {
+        defraggedIdsInFile = !idsReadFromFile.isEmpty() || canReadMoreIdBatches();
     }
 
     private void assertStillOpen()
@@ -211,21 +276,26 @@ public class IdGeneratorImpl implements IdGenerator
     }
 
     @Override
-    public synchronized IdRange nextIdBatch( int size )
+    public IdRange nextIdBatch( int size )
     {
-        assertStillOpen();
-
         // Get from defrag list
         int count = 0;
         long[] defragIds = new long[size];
-        while ( count < size )
+        if ( hasDefraggedIds() )
         {
-            long id = nextIdFromDefragList();
-            if ( id == -1 )
+            synchronized ( this )
             {
-                break;
+                assertStillOpen();
+                while ( count < size )
+                {
+                    long id = nextIdFromDefragList();
+                    if ( id == -1 )
+                    {
+                        break;
+                    }
+                    defragIds[count++] = id;
+                }
             }
-            defragIds[count++] = id;
         }
 
         // Shrink the array to actual size
@@ -234,10 +304,7 @@ public class IdGeneratorImpl implements IdGenerator
         System.arraycopy( tmpArray, 0, defragIds, 0, count );
 
         int sizeLeftForRange = size-count;
-        long start = highId.get();
-        long newHighId = start + sizeLeftForRange;
-        assertIdWithinCapacity( newHighId );
-        highId.set( newHighId );
+        long start = nextHighIds( sizeLeftForRange );
         return new IdRange( defragIds, start, sizeLeftForRange );
     }
 
@@ -283,27 +350,45 @@ public class IdGeneratorImpl implements IdGenerator
      *             If id is negative or greater than the highest returned id
      */
     @Override
-    public synchronized void freeId( long id )
+    public void freeId( long id )
     {
         if ( id == INTEGER_MINUS_ONE )
         {
             return;
         }
 
-        if ( fileChannel == null )
+        long currentHighId = highId.get();
+        if ( currentHighId == -1 )
         {
             throw new IllegalStateException( "Generator closed " + fileName );
         }
-        if ( id < 0 || id >= highId.get() )
+        if ( id < 0 || id >= currentHighId )
         {
             throw new IllegalArgumentException( "Illegal id[" + id + "]" );
         }
         releasedIdList.add( id );
-        defraggedIdCount++;
-        if ( releasedIdList.size() >= grabSize )
+        defraggedIdCount.incrementAndGet();
+        freedIds.incrementAndGet();
+        if ( releasedIdCount.incrementAndGet() >= grabSize )
+        {
+            synchronized ( this )
+            {
+                // Another thread may have flushed the released ids while we waited for the monitor
+                if ( fileChannel != null && releasedIdCount.get() >= grabSize )
+                {
+                    writeIdBatch( idBatchBuffer() );
+                }
+            }
+        }
+    }
+
+    private ByteBuffer idBatchBuffer()
+    {
+        if ( idBatchBuffer == null )
         {
-            writeIdBatch( ByteBuffer.allocate( grabSize*8 ) );
+            idBatchBuffer = ByteBuffer.allocate( grabSize*8 );
         }
+        return idBatchBuffer;
     }
 
     /**
@@ -327,7 +412,7 @@ public class IdGeneratorImpl implements IdGenerator
         }
 
         // write out lists
-        ByteBuffer writeBuffer = ByteBuffer.allocate( grabSize*8 );
+        ByteBuffer writeBuffer = idBatchBuffer();
         if ( !releasedIdList.isEmpty() )
         {
             writeIdBatch( writeBuffer );
@@ -337,6 +422,7 @@ public class IdGeneratorImpl implements IdGenerator
             while ( !idsReadFromFile.isEmpty() )
             {
                 releasedIdList.add( idsReadFromFile.removeFirst() );
+                releasedIdCount.incrementAndGet();
             }
             writeIdBatch( writeBuffer );
         }
@@ -357,6 +443,7 @@ public class IdGeneratorImpl implements IdGenerator
             fileChannel = null;
             // make this generator unusable
             highId.set( -1 );
+            defraggedIdsInFile = false;
         }
         catch ( IOException e )
         {
@@ -465,8 +552,9 @@ public class IdGeneratorImpl implements IdGenerator
             
             fileChannel.position( HEADER_SIZE );
             maxReadPosition = fileChannel.size();
-            defraggedIdCount = (int) (maxReadPosition - HEADER_SIZE) / 8;
+            defraggedIdCount.set( (int) (maxReadPosition - HEADER_SIZE) / 8 );
             readIdBatch();
+            updateDefraggedIdsInFile();
         }
         catch ( IOException e )
         {
@@ -511,7 +599,9 @@ public class IdGeneratorImpl implements IdGenerator
         try
         {
             int howMuchToRead = (int) Math.min( grabSize*8, maxReadPosition-readPosition );
-            ByteBuffer readBuffer = ByteBuffer.allocate( howMuchToRead );
+            ByteBuffer readBuffer = idBatchBuffer();
+            readBuffer.clear();
+            readBuffer.limit( howMuchToRead );
 
             fileChannel.position( readPosition );
             int bytesRead = fileChannel.read( readBuffer );
@@ -520,7 +610,7 @@ public class IdGeneratorImpl implements IdGenerator
             readBuffer.flip();
             assert (bytesRead % 8) == 0;
             int idsRead = bytesRead / 8;
-            defraggedIdCount -= idsRead;
+            defraggedIdCount.addAndGet( -idsRead );
             for ( int i = 0; i < idsRead; i++ )
             {
                 long id = readBuffer.getLong();
@@ -545,9 +635,11 @@ public class IdGeneratorImpl implements IdGenerator
         {
             fileChannel.position( fileChannel.size() );
             writeBuffer.clear();
-            while ( !releasedIdList.isEmpty() )
+            Long releasedId;
+            while ( (releasedId = releasedIdList.poll()) != null )
             {
-                long id = releasedIdList.removeFirst();
+                releasedIdCount.decrementAndGet();
+                long id = releasedId;
                 if ( id == INTEGER_MINUS_ONE )
                 {
                     continue;
@@ -571,7 +663,10 @@ public class IdGeneratorImpl implements IdGenerator
             // position for next readIdBatch
             fileChannel.position( readPosition );
             if ( aggressiveReuse )
+            {
                 maxReadPosition = fileChannel.size();
+                updateDefraggedIdsInFile();
+            }
         }
         catch ( IOException e )
         {
@@ -605,22 +700,48 @@ public class IdGeneratorImpl implements IdGenerator
     }
 
     @Override
-    public synchronized long getNumberOfIdsInUse()
+    public long getNumberOfIdsInUse()
     {
-        return highId.get() - defraggedIdCount;
+        return highId.get() - defraggedIdCount.get();
     }
 
     @Override
     public long getDefragCount()
     {
-        return defraggedIdCount;
+        return defraggedIdCount.get();
+    }
+
+    /**
+     * @return the number of ids handed out by moving the high id forward.
+     */
+    public long getNumberOfAllocatedHighIds()
+    {
+        return allocatedHighIds.get();
+    }
+
+    /**
+     * @return the number of defragged ids handed out.
+     */
+    public long getNumberOfReusedIds()
+    {
+        return reusedIds.get();
+    }
+
+    /**
+     * @return the number of ids freed with {@link #freeId(long)}.
+     */
+    public long getNumberOfFreedIds()
+    {
+        return freedIds.get();
     }
 
-    public void clearFreeIds()
+    public synchronized void clearFreeIds()
     {
         releasedIdList.clear();
+        releasedIdCount.set( 0 );
         idsReadFromFile.clear();
-        defraggedIdCount = -1;
+        defraggedIdCount.set( -1 );
+        defraggedIdsInFile = false;
         try
         {
             truncateFile( fileChannel, HEADER_SIZE );
@@ -29,14 +29,21 @@ public class NodeRecord extends PrimitiveRecord
 {
     private final long committedNextRel;
     private long nextRel;
+    private boolean dense;
     private long labels;
     private Collection<DynamicRecord> dynamicLabelRecords = emptyList();
     private boolean isLight = true;
 
     public NodeRecord( long id, long nextRel, long nextProp )
+    {
+        this( id, false, nextRel, nextProp );
+    }
+
+    public NodeRecord( long id, boolean dense, long nextRel, long nextProp )
     {
         super( id, nextProp );
         this.committedNextRel = this.nextRel = nextRel;
+        this.dense = dense;
     }
     
     public long getNextRel()
@@ -49,6 +56,21 @@ public class NodeRecord extends PrimitiveRecord
         this.nextRel = nextRel;
     }
 
+    /**
+     * A dense node has its relationships divided into {@link RelationshipGroupRecord relationship groups},
+     * one per relationship type, and {@link #getNextRel()} points to the first group instead of
+     * to the first relationship.
+     */
+    public boolean isDense()
+    {
+        return dense;
+    }
+
+    public void setDense( boolean dense )
+    {
+        this.dense = dense;
+    }
+
     public long getCommittedNextRel()
     {
         return isCreated() ? Record.NO_NEXT_RELATIONSHIP.intValue() : committedNextRel;
@@ -100,7 +122,7 @@ public class NodeRecord extends PrimitiveRecord
     {
         StringBuilder builder = new StringBuilder( "Node[" ).append( getId() )
                 .append( ",used=" ).append( inUse() )
-                .append( ",rel=" ).append( nextRel )
+                .append( dense ? ",group=" : ",rel=" ).append( nextRel )
                 .append( ",prop=" ).append( getNextProp() )
                 .append( ",labels=" ).append( getLabelField() )
                 .append( "," ).append( isLight ? "light" : "heavy" );
@@ -118,7 +140,7 @@ public class NodeRecord extends PrimitiveRecord
     @Override
     public NodeRecord clone()
     {
-        NodeRecord clone = new NodeRecord( getId(), getCommittedNextRel(), getCommittedNextProp() );
+        NodeRecord clone = new NodeRecord( getId(), dense, getCommittedNextRel(), getCommittedNextProp() );
         clone.setNextProp( getNextProp() );
         clone.nextRel = nextRel;
         clone.labels = labels;
@@ -64,8 +64,8 @@ public class NodeStore extends AbstractRecordStore<NodeRecord> implements Store
 
     public static final String TYPE_DESCRIPTOR = "NodeStore";
 
-    // in_use(byte)+next_rel_id(int)+next_prop_id(int)+labels(5)
-    public static final int RECORD_SIZE = 14;
+    // in_use(byte)+next_rel_id(int)+next_prop_id(int)+labels(5)+extra(byte)
+    public static final int RECORD_SIZE = 15;
 
     private DynamicArrayStore dynamicLabelStore;
 
@@ -267,7 +267,12 @@ public class NodeStore extends AbstractRecordStore<NodeRecord> implements Store
         long hsbLabels = buffer.get();
         long labels = lsbLabels | (hsbLabels << 32);
 
-        NodeRecord nodeRecord = new NodeRecord( id, longFromIntAndMod( nextRel, relModifier ), longFromIntAndMod( nextProp, propModifier ) );
+        // [    ,   x] dense node, i.e. next rel points to a relationship group
+        byte extra = buffer.get();
+        boolean dense = (extra & 0x1) > 0;
+
+        NodeRecord nodeRecord = new NodeRecord( id, dense, longFromIntAndMod( nextRel, relModifier ),
+                longFromIntAndMod( nextProp, propModifier ) );
         nodeRecord.setInUse( inUse );
         nodeRecord.setLabelField( labels );
         
@@ -299,6 +304,9 @@ public class NodeStore extends AbstractRecordStore<NodeRecord> implements Store
             buffer.putInt( (int) labelField );
             // msb of labels
             buffer.put( (byte) ((labelField&0xFF00000000L) >>> 32) );
+
+            byte extra = record.isDense() ? (byte)1 : (byte)0;
+            buffer.put( extra );
         }
         else
         {
@@ -0,0 +1,554 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.kernel.impl.nioneo.store.windowpool.WindowPool;
+import org.neo4j.kernel.impl.util.StringLogger;
+
+/**
+ * A {@link WindowPool} backed by a fixed number of equally sized pages, as opposed to the
+ * {@link PersistenceWindowPool} which periodically re-evaluates which parts of the store to keep mapped.
+ *
+ * Pages are looked up through a concurrent page table and guarded by a {@link PageLatch} each, so that
+ * any number of readers can use the same page at the same time while writers get it exclusively. Each
+ * acquired window has its own view of the page buffer, readers never share buffer positions.
+ *
+ * When a page that isn't in memory is requested a victim page is picked in CLOCK order: pages that have
+ * been used since the clock hand last passed them get a second chance. Dirty pages are written out when
+ * evicted, in {@link #flushAll()} and periodically by a background flusher thread, which keeps evictions
+ * from having to write in most cases.
+ */
+public class PageCacheWindowPool implements WindowPool
+{
+    static final int MIN_PAGE_COUNT = 64;
+    private static final long NO_PAGE = -1;
+
+    private final File storeName;
+    private final int recordSize;
+    private final int recordsPerPage;
+    private final int pageSize;
+    private final FileChannel fileChannel;
+    private final boolean readOnly;
+    private final StringLogger log;
+
+    private final Page[] pages;
+    private final ConcurrentMap<Long, Page> pageTable = new ConcurrentHashMap<Long, Page>();
+    private final AtomicInteger clockHand = new AtomicInteger();
+    private final Flusher flusher;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicInteger allocatedPages = new AtomicInteger();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong faultTime = new AtomicLong();
+    private final AtomicLong faults = new AtomicLong();
+
+    /**
+     * @param storeName name of the store using this pool.
+     * @param recordSize size of each record/block in the store.
+     * @param fileChannel the file channel of the store.
+     * @param memory number of bytes this pool may use for pages.
+     * @param targetPageSize target size, in bytes, of each page. Pages always hold whole records.
+     * @param flushInterval milliseconds between background flushes of dirty pages, or {@code 0}
+     * to only flush on {@link #flushAll()} and when evicting.
+     * @param readOnly whether or not the store is read only, in which case nothing is ever written.
+     * @param log where to log information about this pool.
+     */
+    public PageCacheWindowPool( File storeName, int recordSize, FileChannel fileChannel, long memory,
+            int targetPageSize, long flushInterval, boolean readOnly, StringLogger log )
+    {
+        this.storeName = storeName;
+        this.recordSize = recordSize;
+        this.recordsPerPage = Math.max( 1, targetPageSize / recordSize );
+        this.pageSize = recordsPerPage * recordSize;
+        this.fileChannel = fileChannel;
+        this.readOnly = readOnly;
+        this.log = log;
+        this.pages = new Page[pageCount( memory, pageSize )];
+        for ( int i = 0; i < pages.length; i++ )
+        {
+            pages[i] = new Page();
+        }
+        this.flusher = readOnly || flushInterval <= 0 ? null : new Flusher( flushInterval );
+        if ( flusher != null )
+        {
+            flusher.start();
+        }
+        log.logMessage( "[" + storeName + "] pageCount=" + pages.length + " pageSize=" + pageSize +
+                "b recordsPerPage=" + recordsPerPage );
+    }
+
+    private static int pageCount( long memory, int pageSize )
+    {
+        return (int) Math.min( Integer.MAX_VALUE, Math.max( MIN_PAGE_COUNT, memory / pageSize ) );
+    }
+
+    @Override
+    public PersistenceWindow acquire( long position, OperationType operationType )
+    {
+        long pageId = position / recordsPerPage;
+        while ( true )
+        {
+            Page page = pageTable.get( pageId );
+            if ( page == null )
+            {
+                page = fault( pageId );
+                if ( page == null )
+                {
+                    // Another thread brought this page in before us, go and get that one instead
+                    continue;
+                }
+                if ( operationType == OperationType.READ )
+                {
+                    page.latch.downgradeToShared();
+                }
+            }
+            else
+            {
+                latch( page, operationType );
+                if ( page.pageId != pageId )
+                {
+                    // The page got evicted and reused between looking it up and latching it
+                    unlatch( page, operationType );
+                    continue;
+                }
+                if ( !page.referenced )
+                {
+                    // Only write when needed, to not have all readers of a hot page contend on it
+                    page.referenced = true;
+                }
+                hits.incrementAndGet();
+            }
+
+            if ( operationType == OperationType.WRITE )
+            {
+                page.dirty = true;
+            }
+            return new PageWindow( page, pageId * recordsPerPage, operationType );
+        }
+    }
+
+    @Override
+    public void release( PersistenceWindow window )
+    {
+        PageWindow pageWindow = (PageWindow) window;
+        unlatch( pageWindow.page, pageWindow.operationType );
+    }
+
+    private static void latch( Page page, OperationType operationType )
+    {
+        if ( operationType == OperationType.READ )
+        {
+            page.latch.acquireShared();
+        }
+        else
+        {
+            page.latch.acquireExclusive();
+        }
+    }
+
+    private static void unlatch( Page page, OperationType operationType )
+    {
+        if ( operationType == OperationType.READ )
+        {
+            page.latch.releaseShared();
+        }
+        else
+        {
+            page.latch.releaseExclusive();
+        }
+    }
+
+    /**
+     * Loads the page into a free, or evicted, page frame.
+     *
+     * @return the loaded page, exclusively latched, or {@code null} if some other thread loaded it first.
+     */
+    private Page fault( long pageId )
+    {
+        long startTime = System.nanoTime();
+        Page page = evictPage();
+        page.pageId = pageId;
+        if ( pageTable.putIfAbsent( pageId, page ) != null )
+        {
+            page.pageId = NO_PAGE;
+            page.latch.releaseExclusive();
+            return null;
+        }
+
+        try
+        {
+            readPage( page );
+        }
+        catch ( RuntimeException e )
+        {
+            pageTable.remove( pageId, page );
+            page.pageId = NO_PAGE;
+            page.latch.releaseExclusive();
+            throw e;
+        }
+        page.referenced = true;
+        misses.incrementAndGet();
+        faults.incrementAndGet();
+        faultTime.addAndGet( System.nanoTime() - startTime );
+        return page;
+    }
+
+    /**
+     * Moves the clock hand until finding a page that is neither latched nor recently used, writes it out
+     * if it's dirty and takes it out of the page table.
+     *
+     * @return a free page, exclusively latched by the calling thread.
+     */
+    private Page evictPage()
+    {
+        for ( int spins = 0; ; spins++ )
+        {
+            Page page = pages[(clockHand.getAndIncrement() & Integer.MAX_VALUE) % pages.length];
+            if ( page.referenced )
+            {
+                page.referenced = false;
+            }
+            else if ( page.latch.tryAcquireExclusive() )
+            {
+                long pageId = page.pageId;
+                if ( pageId != NO_PAGE )
+                {
+                    try
+                    {
+                        writePageIfDirty( page );
+                    }
+                    catch ( RuntimeException e )
+                    {
+                        page.latch.releaseExclusive();
+                        throw e;
+                    }
+                    pageTable.remove( pageId, page );
+                    page.pageId = NO_PAGE;
+                    evictions.incrementAndGet();
+                }
+                return page;
+            }
+
+            if ( spins > 0 && spins % (pages.length * 2) == 0 )
+            {
+                // Every page is latched, let the threads holding them finish their work
+                Thread.yield();
+            }
+        }
+    }
+
+    private void readPage( Page page )
+    {
+        if ( page.buffer == null )
+        {
+            page.buffer = ByteBuffer.allocateDirect( pageSize );
+            allocatedPages.incrementAndGet();
+        }
+        ByteBuffer buffer = page.buffer;
+        buffer.clear();
+        long filePosition = page.pageId * pageSize;
+        try
+        {
+            while ( buffer.hasRemaining() )
+            {
+                int read = fileChannel.read( buffer, filePosition + buffer.position() );
+                if ( read == -1 )
+                {
+                    break;
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( "Unable to load position[" + page.pageId * recordsPerPage +
+                    "] @[" + filePosition + "] in " + storeName, e );
+        }
+        // The frame may have held another page before, the part beyond the end of the file must be empty
+        while ( buffer.hasRemaining() )
+        {
+            buffer.put( (byte) 0 );
+        }
+        buffer.clear();
+        page.dirty = false;
+    }
+
+    /**
+     * Must be called with the page latched, either shared or exclusively.
+     */
+    private void writePageIfDirty( Page page )
+    {
+        if ( readOnly || !page.dirty )
+        {
+            return;
+        }
+        ByteBuffer buffer = page.buffer.duplicate();
+        buffer.clear();
+        long filePosition = page.pageId * pageSize;
+        try
+        {
+            while ( buffer.hasRemaining() )
+            {
+                if ( fileChannel.write( buffer, filePosition + buffer.position() ) == 0 )
+                {
+                    throw new IOException( "Unable to write to disk, reported bytes written was 0" );
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( "Unable to write position[" + page.pageId * recordsPerPage +
+                    "] @[" + filePosition + "] in " + storeName, e );
+        }
+        page.dirty = false;
+    }
+
+    private void writeDirtyPages()
+    {
+        for ( Page page : pages )
+        {
+            if ( !page.dirty )
+            {
+                continue;
+            }
+            page.latch.acquireShared();
+            try
+            {
+                if ( page.pageId != NO_PAGE )
+                {
+                    writePageIfDirty( page );
+                }
+            }
+            finally
+            {
+                page.latch.releaseShared();
+            }
+        }
+    }
+
+    @Override
+    public void flushAll()
+    {
+        if ( readOnly )
+        {
+            return;
+        }
+        writeDirtyPages();
+        try
+        {
+            fileChannel.force( false );
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( "Failed to flush file channel " + storeName, e );
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if ( flusher != null )
+        {
+            flusher.shutdown();
+        }
+        flushAll();
+        pageTable.clear();
+        for ( Page page : pages )
+        {
+            page.pageId = NO_PAGE;
+            page.buffer = null;
+        }
+        log.logMessage( storeName + " hit=" + hits.get() + " miss=" + misses.get() + " evictions=" + evictions.get() );
+    }
+
+    @Override
+    public WindowPoolStats getStats()
+    {
+        long faultCount = faults.get();
+        long avgFaultTime = faultCount == 0 ? 0 : faultTime.get() / faultCount / 1000;
+        return new WindowPoolStats( storeName, (long) pages.length * pageSize,
+                (long) allocatedPages.get() * pageSize, pages.length, pageSize, saturatedInt( hits.get() ),
+                saturatedInt( misses.get() ), 0, 0, 0, 0, 0, evictions.get(), avgFaultTime );
+    }
+
+    @Override
+    public long getHitCount()
+    {
+        return hits.get();
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        return misses.get();
+    }
+
+    private static int saturatedInt( long value )
+    {
+        return (int) Math.min( Integer.MAX_VALUE, value );
+    }
+
+    private static class Page
+    {
+        private final PageLatch latch = new PageLatch();
+        private volatile long pageId = NO_PAGE;
+        private volatile boolean dirty;
+        private volatile boolean referenced;
+        // Only touched while holding the latch exclusively
+        private ByteBuffer buffer;
+
+        @Override
+        public String toString()
+        {
+            return "Page[" + pageId + ", dirty:" + dirty + ", " + latch + "]";
+        }
+    }
+
+    /**
+     * The view of a page that a thread gets from {@link #acquire(long, OperationType)}, with its own buffer
+     * position so that concurrent readers of the same page don't interfere with each other.
+     */
+    private class PageWindow implements PersistenceWindow
+    {
+        private final Page page;
+        private final long position;
+        private final OperationType operationType;
+        private final Buffer buffer;
+
+        PageWindow( Page page, long position, OperationType operationType )
+        {
+            this.page = page;
+            this.position = position;
+            this.operationType = operationType;
+            this.buffer = new Buffer( this, page.buffer.duplicate() );
+        }
+
+        @Override
+        public Buffer getBuffer()
+        {
+            return buffer;
+        }
+
+        @Override
+        public Buffer getOffsettedBuffer( long id )
+        {
+            int offset = (int) (id - position) * recordSize;
+            buffer.setOffset( offset );
+            return buffer;
+        }
+
+        @Override
+        public int getRecordSize()
+        {
+            return recordSize;
+        }
+
+        @Override
+        public long position()
+        {
+            return position;
+        }
+
+        @Override
+        public int size()
+        {
+            return recordsPerPage;
+        }
+
+        @Override
+        public void force()
+        {
+            // Pages are written by the pool, when evicted or flushed
+        }
+
+        @Override
+        public void close()
+        {
+            // The page is owned by the pool and outlives this window
+        }
+
+        @Override
+        public String toString()
+        {
+            return "PageWindow[" + position + ", " + operationType + ", " + page + "]";
+        }
+    }
+
+    private class Flusher extends Thread
+    {
+        private final long interval;
+        private volatile boolean running = true;
+
+        Flusher( long interval )
+        {
+            super( "PageCacheFlusher[" + storeName.getName() + "]" );
+            this.interval = interval;
+            setDaemon( true );
+        }
+
+        @Override
+        public void run()
+        {
+            while ( running )
+            {
+                try
+                {
+                    Thread.sleep( interval );
+                }
+                catch ( InterruptedException e )
+                {
+                    continue;
+                }
+                try
+                {
+                    writeDirtyPages();
+                }
+                catch ( UnderlyingStorageException e )
+                {
+                    // flushAll or eviction will run into, and report, the same problem
+                    log.logMessage( "[" + storeName + "] Background flush failed", e );
+                }
+            }
+        }
+
+        void shutdown()
+        {
+            running = false;
+            interrupt();
+            try
+            {
+                join();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.interrupted();
+            }
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A shared/exclusive latch guarding a page in the {@link PageCacheWindowPool}. Latches are held for the
+ * duration of a single record read or write, so instead of queueing up waiters like {@link LockableWindow}
+ * does, a thread that can't get the latch spins for a while, then yields and finally parks for short periods.
+ *
+ * A thread waiting for the exclusive latch announces that, which keeps new shared holders out, so that a
+ * steady stream of readers can't starve a writer.
+ *
+ * The latch is reentrant, since a thread may pin the same page more than once: a thread holding it shared can
+ * acquire it shared again, even with a writer waiting, and the thread holding it exclusively can acquire it
+ * both shared and exclusively again. Upgrading from shared to exclusive isn't supported, two threads doing
+ * that would wait for each other forever, so it fails with an {@link IllegalStateException} instead.
+ */
+class PageLatch
+{
+    private static final int EXCLUSIVE = 1 << 30;
+    private static final int EXCLUSIVE_WANTED = 1 << 29;
+    private static final int SHARED_MASK = EXCLUSIVE_WANTED - 1;
+
+    private static final int SPINS_BEFORE_YIELD = 64;
+    private static final int SPINS_BEFORE_PARK = 128;
+    private static final long PARK_NANOS = 1000;
+
+    private static final ThreadLocal<SharedHolds> sharedHolds = new ThreadLocal<SharedHolds>()
+    {
+        @Override
+        protected SharedHolds initialValue()
+        {
+            return new SharedHolds();
+        }
+    };
+
+    // The number of threads holding the latch shared, plus the exclusive bits
+    private final AtomicInteger state = new AtomicInteger();
+    private volatile Thread exclusiveOwner;
+    // Only touched by the exclusive owner
+    private int exclusiveHolds;
+
+    void acquireShared()
+    {
+        if ( exclusiveOwner == Thread.currentThread() )
+        {
+            exclusiveHolds++;
+            return;
+        }
+        if ( sharedHolds.get().increment( this ) > 1 )
+        {
+            // This thread already holds it, no writer can get in until it's released anyway
+            return;
+        }
+        for ( int spins = 0; ; spins++ )
+        {
+            int current = state.get();
+            if ( (current & (EXCLUSIVE | EXCLUSIVE_WANTED)) == 0 && state.compareAndSet( current, current + 1 ) )
+            {
+                return;
+            }
+            backOff( spins );
+        }
+    }
+
+    void releaseShared()
+    {
+        if ( exclusiveOwner == Thread.currentThread() )
+        {
+            releaseExclusive();
+            return;
+        }
+        if ( sharedHolds.get().decrement( this ) == 0 )
+        {
+            state.decrementAndGet();
+        }
+    }
+
+    void acquireExclusive()
+    {
+        Thread thread = Thread.currentThread();
+        if ( exclusiveOwner == thread )
+        {
+            exclusiveHolds++;
+            return;
+        }
+        if ( sharedHolds.get().count( this ) > 0 )
+        {
+            throw new IllegalStateException( "Can't upgrade " + this + " from shared to exclusive" );
+        }
+        for ( int spins = 0; ; spins++ )
+        {
+            int current = state.get();
+            if ( (current & ~EXCLUSIVE_WANTED) == 0 )
+            {
+                if ( state.compareAndSet( current, EXCLUSIVE ) )
+                {
+                    ownedBy( thread );
+                    return;
+                }
+            }
+            else if ( (current & EXCLUSIVE_WANTED) == 0 )
+            {
+                state.compareAndSet( current, current | EXCLUSIVE_WANTED );
+            }
+            backOff( spins );
+        }
+    }
+
+    /**
+     * @return {@code true} if the exclusive latch was acquired, or {@code false} if anyone else, or the
+     * calling thread itself, holds or waits for this latch.
+     */
+    boolean tryAcquireExclusive()
+    {
+        if ( state.compareAndSet( 0, EXCLUSIVE ) )
+        {
+            ownedBy( Thread.currentThread() );
+            return true;
+        }
+        return false;
+    }
+
+    void releaseExclusive()
+    {
+        if ( --exclusiveHolds == 0 )
+        {
+            exclusiveOwner = null;
+            state.addAndGet( -EXCLUSIVE );
+        }
+    }
+
+    /**
+     * Turns an exclusive latch, held once, into a shared one, without letting any writer in between.
+     */
+    void downgradeToShared()
+    {
+        if ( exclusiveHolds != 1 )
+        {
+            throw new IllegalStateException( "Can't downgrade " + this + " held " + exclusiveHolds + " times" );
+        }
+        exclusiveHolds = 0;
+        exclusiveOwner = null;
+        sharedHolds.get().increment( this );
+        state.addAndGet( 1 - EXCLUSIVE );
+    }
+
+    private void ownedBy( Thread thread )
+    {
+        exclusiveOwner = thread;
+        exclusiveHolds = 1;
+    }
+
+    private static void backOff( int spins )
+    {
+        if ( spins < SPINS_BEFORE_YIELD )
+        {
+            return;
+        }
+        if ( spins < SPINS_BEFORE_PARK )
+        {
+            Thread.yield();
+        }
+        else
+        {
+            LockSupport.parkNanos( PARK_NANOS );
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        int current = state.get();
+        return "PageLatch[exclusive:" + ((current & EXCLUSIVE) != 0) + ", wanted:" +
+                ((current & EXCLUSIVE_WANTED) != 0) + ", shared:" + (current & SHARED_MASK) + "]";
+    }
+
+    /**
+     * The latches a thread holds shared, and how many times. A thread only pins a few pages at a time,
+     * so they are kept in small arrays.
+     */
+    private static class SharedHolds
+    {
+        private PageLatch[] latches = new PageLatch[4];
+        private int[] counts = new int[4];
+        private int size;
+
+        int count( PageLatch latch )
+        {
+            int index = indexOf( latch );
+            return index == -1 ? 0 : counts[index];
+        }
+
+        int increment( PageLatch latch )
+        {
+            int index = indexOf( latch );
+            if ( index != -1 )
+            {
+                return ++counts[index];
+            }
+            if ( size == latches.length )
+            {
+                latches = Arrays.copyOf( latches, size * 2 );
+                counts = Arrays.copyOf( counts, size * 2 );
+            }
+            latches[size] = latch;
+            counts[size] = 1;
+            size++;
+            return 1;
+        }
+
+        int decrement( PageLatch latch )
+        {
+            int index = indexOf( latch );
+            if ( index == -1 )
+            {
+                throw new IllegalStateException( latch + " isn't held shared by " + Thread.currentThread() );
+            }
+            int count = --counts[index];
+            if ( count == 0 )
+            {
+                size--;
+                latches[index] = latches[size];
+                counts[index] = counts[size];
+                latches[size] = null;
+            }
+            return count;
+        }
+
+        private int indexOf( PageLatch latch )
+        {
+            for ( int i = 0; i < size; i++ )
+            {
+                if ( latches[i] == latch )
+                {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
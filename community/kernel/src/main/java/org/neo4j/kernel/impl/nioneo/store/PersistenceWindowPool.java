@@ -670,6 +670,18 @@ public class PersistenceWindowPool implements WindowPool
                 brickSize, hit, miss, ooe, switches, avgRefreshTime, refreshes.get(), avertedRefreshes.get() );
     }
 
+    @Override
+    public long getHitCount()
+    {
+        return hit;
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        return miss;
+    }
+
     private static class BrickElement
     {
         private final int index;
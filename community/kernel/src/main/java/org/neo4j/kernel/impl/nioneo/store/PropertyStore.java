@@ -620,6 +620,20 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
         return list;
     }
 
+    @Override
+    public long getAllWindowPoolHitCount()
+    {
+        return stringPropertyStore.getWindowPoolHitCount() + arrayPropertyStore.getWindowPoolHitCount() +
+                getWindowPoolHitCount();
+    }
+
+    @Override
+    public long getAllWindowPoolMissCount()
+    {
+        return stringPropertyStore.getWindowPoolMissCount() + arrayPropertyStore.getWindowPoolMissCount() +
+                getWindowPoolMissCount();
+    }
+
     @Override
     public void logAllWindowPoolStats( StringLogger.LineLogger logger )
     {
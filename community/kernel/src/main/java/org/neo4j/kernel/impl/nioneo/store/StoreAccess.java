@@ -45,6 +45,7 @@ public class StoreAccess
     private final RecordStore<DynamicRecord> schemaStore;
     private final RecordStore<NodeRecord> nodeStore;
     private final RecordStore<RelationshipRecord> relStore;
+    private final RecordStore<RelationshipGroupRecord> relGroupStore;
     private final RecordStore<RelationshipTypeTokenRecord> relationshipTypeTokenStore;
     private final RecordStore<LabelTokenRecord> labelTokenStore;
     private final RecordStore<DynamicRecord> nodeDynamicLabelStore;
@@ -72,17 +73,20 @@ public class StoreAccess
 
     public StoreAccess( NeoStore store )
     {
-        this( store.getSchemaStore(), store.getNodeStore(), store.getRelationshipStore(), store.getPropertyStore(),
+        this( store.getSchemaStore(), store.getNodeStore(), store.getRelationshipStore(),
+                store.getRelationshipGroupStore(), store.getPropertyStore(),
                 store.getRelationshipTypeStore(), store.getLabelTokenStore() );
         this.neoStore = store;
     }
 
-    public StoreAccess( SchemaStore schemaStore, NodeStore nodeStore, RelationshipStore relStore, PropertyStore propStore,
+    public StoreAccess( SchemaStore schemaStore, NodeStore nodeStore, RelationshipStore relStore,
+                        RelationshipGroupStore relGroupStore, PropertyStore propStore,
                         RelationshipTypeTokenStore typeStore, LabelTokenStore labelTokenStore )
     {
         this.schemaStore = wrapStore( schemaStore );
         this.nodeStore = wrapStore( nodeStore );
         this.relStore = wrapStore( relStore );
+        this.relGroupStore = wrapStore( relGroupStore );
         this.propStore = wrapStore( propStore );
         this.stringStore = wrapStore( propStore.getStringStore() );
         this.arrayStore = wrapStore( propStore.getArrayStore() );
@@ -147,6 +151,11 @@ public class StoreAccess
         return relStore;
     }
 
+    public RecordStore<RelationshipGroupRecord> getRelationshipGroupStore()
+    {
+        return relGroupStore;
+    }
+
     public RecordStore<PropertyRecord> getPropertyStore()
     {
         return propStore;
@@ -212,13 +221,13 @@ public class StoreAccess
         {
             // for when the property store isn't available (e.g. because the contained data in very sensitive)
             return new RecordStore<?>[]{ // no property stores
-                    nodeStore, relStore,
+                    nodeStore, relStore, relGroupStore,
                     relationshipTypeTokenStore, relationshipTypeNameStore,
                     labelTokenStore, labelNameStore, nodeDynamicLabelStore
             };
         }
         return new RecordStore<?>[]{
-                schemaStore, nodeStore, relStore, propStore, stringStore, arrayStore,
+                schemaStore, nodeStore, relStore, relGroupStore, propStore, stringStore, arrayStore,
                 relationshipTypeTokenStore, propertyKeyTokenStore, labelTokenStore,
                 relationshipTypeNameStore, propertyKeyNameStore, labelNameStore,
                 nodeDynamicLabelStore
@@ -378,6 +378,18 @@ public abstract class TokenStore<T extends TokenRecord> extends AbstractRecordSt
         return list;
     }
 
+    @Override
+    public long getAllWindowPoolHitCount()
+    {
+        return nameStore.getWindowPoolHitCount() + getWindowPoolHitCount();
+    }
+
+    @Override
+    public long getAllWindowPoolMissCount()
+    {
+        return nameStore.getWindowPoolMissCount() + getWindowPoolMissCount();
+    }
+
     @Override
     public void logAllWindowPoolStats( StringLogger.LineLogger logger )
     {
@@ -39,10 +39,21 @@ public class WindowPoolStats
     private final int avgRefreshTime;
     private final int refreshCount;
     private final int avertedRefreshCount;
+
+    private final long evictionCount;
+    private final long avgFaultTime;
     
     public WindowPoolStats( File file, long memAvail, long memUsed, int windowCount,
             int windowSize, int hitCount, int missCount, int oomCount, int switchCount, int avgRefreshTime,
             int refreshCount, int avertedRefreshCount )
+    {
+        this( file, memAvail, memUsed, windowCount, windowSize, hitCount, missCount, oomCount, switchCount,
+                avgRefreshTime, refreshCount, avertedRefreshCount, 0, 0 );
+    }
+
+    public WindowPoolStats( File file, long memAvail, long memUsed, int windowCount,
+            int windowSize, int hitCount, int missCount, int oomCount, int switchCount, int avgRefreshTime,
+            int refreshCount, int avertedRefreshCount, long evictionCount, long avgFaultTime )
     {
         this.name = file.getName();
         this.memAvail = memAvail;
@@ -56,6 +67,8 @@ public class WindowPoolStats
         this.avgRefreshTime = avgRefreshTime;
         this.refreshCount = refreshCount;
         this.avertedRefreshCount = avertedRefreshCount;
+        this.evictionCount = evictionCount;
+        this.avgFaultTime = avgFaultTime;
     }
     
     public String getName()
@@ -117,6 +130,22 @@ public class WindowPoolStats
     {
         return avertedRefreshCount;
     }
+
+    /**
+     * @return the number of windows (pages) that have been evicted to make room for other parts of the store.
+     */
+    public long getEvictionCount()
+    {
+        return evictionCount;
+    }
+
+    /**
+     * @return the average time, in microseconds, it has taken to load a window (page) that wasn't in memory.
+     */
+    public long getAvgFaultTime()
+    {
+        return avgFaultTime;
+    }
     
     @Override
     public String toString()
@@ -132,7 +161,9 @@ public class WindowPoolStats
                 "switchCount:" + switchCount + ", " +
                 "avgRefreshTime:" + avgRefreshTime + ", " +
                 "refreshCount:" + refreshCount + ", " +
-                "avertedRefreshCount:" + avertedRefreshCount +
+                "avertedRefreshCount:" + avertedRefreshCount + ", " +
+                "evictionCount:" + evictionCount + ", " +
+                "avgFaultTime:" + avgFaultTime +
                 "]";
     }
 }
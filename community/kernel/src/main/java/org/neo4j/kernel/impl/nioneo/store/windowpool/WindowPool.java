@@ -55,4 +55,15 @@ public interface WindowPool
     void close();
 
     WindowPoolStats getStats();
+
+    /**
+     * @return the number of acquires so far that found their window already mapped. Cheaper to call
+     * than {@link #getStats()}, for sampling it often.
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of acquires so far that had to map their window first.
+     */
+    long getMissCount();
 }
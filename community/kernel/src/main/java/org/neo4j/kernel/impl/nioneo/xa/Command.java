@@ -38,6 +38,8 @@ import org.neo4j.kernel.impl.nioneo.store.LabelTokenStore;
 import org.neo4j.kernel.impl.nioneo.store.NeoStore;
 import org.neo4j.kernel.impl.nioneo.store.NeoStoreRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.nioneo.store.NodeStore;
 import org.neo4j.kernel.impl.nioneo.store.PropertyBlock;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
@@ -334,6 +336,7 @@ public abstract class Command extends XaCommand
     private static final byte NEOSTORE_COMMAND = (byte) 6;
     private static final byte SCHEMA_RULE_COMMAND = (byte) 7;
     private static final byte LABEL_KEY_COMMAND = (byte) 8;
+    private static final byte REL_GROUP_COMMAND = (byte) 9;
 
     abstract void removeFromCache( CacheAccessBackDoor cacheAccess );
 
@@ -395,6 +398,7 @@ public abstract class Command extends XaCommand
             buffer.put( inUse );
             if ( record.inUse() )
             {
+                buffer.put( record.isDense() ? (byte) 1 : (byte) 0 );
                 buffer.putLong( record.getNextRel() ).putLong( record.getNextProp() );
                 
                 // labels
@@ -439,9 +443,10 @@ public abstract class Command extends XaCommand
             NodeRecord record;
             if ( inUse )
             {
-                if ( !readAndFlip( byteChannel, buffer, 8*3 ) )
+                if ( !readAndFlip( byteChannel, buffer, 1 + 8*3 ) )
                     return null;
-                record = new NodeRecord( id, buffer.getLong(), buffer.getLong() );
+                boolean dense = buffer.get() == 1;
+                record = new NodeRecord( id, dense, buffer.getLong(), buffer.getLong() );
                 
                 // labels
                 long labelField = buffer.getLong();
@@ -489,6 +494,11 @@ public abstract class Command extends XaCommand
             visitor.visitRelationship( record );
         }
 
+        public RelationshipRecord getRecord()
+        {
+            return record;
+        }
+
         @Override
         public String toString()
         {
@@ -601,6 +611,88 @@ public abstract class Command extends XaCommand
         }
     }
     
+    static class RelationshipGroupCommand extends Command
+    {
+        private final RelationshipGroupRecord record;
+        private final RelationshipGroupStore store;
+
+        RelationshipGroupCommand( RelationshipGroupStore store, RelationshipGroupRecord record )
+        {
+            super( record.getId(), Mode.fromRecordState( record ) );
+            this.record = record;
+            this.store = store;
+        }
+
+        @Override
+        public void accept( CommandRecordVisitor visitor )
+        {
+            visitor.visitRelationshipGroup( record );
+        }
+
+        @Override
+        public String toString()
+        {
+            return record.toString();
+        }
+
+        @Override
+        void removeFromCache( CacheAccessBackDoor cacheAccess )
+        {
+            // The chain heads of the owning node changed, so any cached loading position is stale
+            cacheAccess.removeNodeFromCache( record.getOwningNode() );
+        }
+
+        @Override
+        public void execute()
+        {
+            store.updateRecord( record );
+        }
+
+        @Override
+        public void writeToFile( LogBuffer buffer ) throws IOException
+        {
+            // The owning node is needed for cache invalidation also for deleted groups, so write all fields
+            buffer.put( REL_GROUP_COMMAND );
+            buffer.putLong( record.getId() );
+            buffer.put( (byte) (record.inUse() ? Record.IN_USE.intValue() : Record.NOT_IN_USE.intValue()) );
+            buffer.putInt( record.getType() );
+            buffer.putLong( record.getNext() );
+            buffer.putLong( record.getFirstOut() );
+            buffer.putLong( record.getFirstIn() );
+            buffer.putLong( record.getFirstLoop() );
+            buffer.putLong( record.getOwningNode() );
+        }
+
+        public static Command readFromFile( NeoStore neoStore, ReadableByteChannel byteChannel, ByteBuffer buffer )
+                throws IOException
+        {
+            if ( !readAndFlip( byteChannel, buffer, 8 + 1 + 4 + 8*5 ) )
+                return null;
+            long id = buffer.getLong();
+            byte inUseByte = buffer.get();
+            boolean inUse = inUseByte == Record.IN_USE.byteValue();
+            if ( inUseByte != Record.IN_USE.byteValue() && inUseByte != Record.NOT_IN_USE.byteValue() )
+            {
+                throw new IOException( "Illegal in use flag: " + inUseByte );
+            }
+            int type = buffer.getInt();
+            RelationshipGroupRecord record = new RelationshipGroupRecord( id, type );
+            record.setInUse( inUse );
+            record.setNext( buffer.getLong() );
+            record.setFirstOut( buffer.getLong() );
+            record.setFirstIn( buffer.getLong() );
+            record.setFirstLoop( buffer.getLong() );
+            record.setOwningNode( buffer.getLong() );
+            return new RelationshipGroupCommand( neoStore == null ? null : neoStore.getRelationshipGroupStore(),
+                    record );
+        }
+
+        public RelationshipGroupRecord getRecord()
+        {
+            return record;
+        }
+    }
+
     static class NeoStoreCommand extends Command
     {
         private final NeoStoreRecord record;
@@ -1295,6 +1387,8 @@ public abstract class Command extends XaCommand
                 return RelationshipCommand.readFromFile( neoStore, byteChannel, buffer );
             case REL_TYPE_COMMAND:
                 return RelationshipTypeTokenCommand.readFromFile( neoStore, byteChannel, buffer );
+            case REL_GROUP_COMMAND:
+                return RelationshipGroupCommand.readFromFile( neoStore, byteChannel, buffer );
             case LABEL_KEY_COMMAND:
                 return LabelTokenCommand.readFromFile( neoStore, byteChannel, buffer );
             case NEOSTORE_COMMAND:
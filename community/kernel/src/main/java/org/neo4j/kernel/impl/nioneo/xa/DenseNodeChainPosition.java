@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.xa;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.neo4j.kernel.impl.core.RelationshipLoadingPosition;
+import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper;
+
+import static org.neo4j.kernel.impl.cache.SizeOfs.withArrayOverhead;
+import static org.neo4j.kernel.impl.cache.SizeOfs.withObjectOverhead;
+
+/**
+ * Loading position of a dense node. Keeps one position per relationship group chain, i.e. per
+ * type and outgoing/incoming/loop, and only moves through the chains matching what is asked for.
+ * Loops are included for both outgoing and incoming.
+ */
+public class DenseNodeChainPosition implements RelationshipLoadingPosition
+{
+    private static final int OUT = 0, IN = 1, LOOP = 2;
+    private static final int[] KINDS_FOR_OUTGOING = {OUT, LOOP};
+    private static final int[] KINDS_FOR_INCOMING = {IN, LOOP};
+    private static final int[] KINDS_FOR_BOTH = {OUT, IN, LOOP};
+    private static final long NO_MORE = Record.NO_NEXT_RELATIONSHIP.intValue();
+
+    // Sorted by type, the positions array has three slots (out, in, loop) per type
+    private final int[] types;
+    private final long[] positions;
+    private int current = -1;
+
+    public DenseNodeChainPosition( List<RelationshipGroupRecord> groups )
+    {
+        RelationshipGroupRecord[] sorted = groups.toArray( new RelationshipGroupRecord[groups.size()] );
+        Arrays.sort( sorted, new Comparator<RelationshipGroupRecord>()
+        {
+            @Override
+            public int compare( RelationshipGroupRecord o1, RelationshipGroupRecord o2 )
+            {
+                return o1.getType() - o2.getType();
+            }
+        } );
+        this.types = new int[sorted.length];
+        this.positions = new long[sorted.length*3];
+        for ( int i = 0; i < sorted.length; i++ )
+        {
+            types[i] = sorted[i].getType();
+            positions[i*3+OUT] = sorted[i].getFirstOut();
+            positions[i*3+IN] = sorted[i].getFirstIn();
+            positions[i*3+LOOP] = sorted[i].getFirstLoop();
+        }
+    }
+
+    @Override
+    public synchronized long position( DirectionWrapper direction, int[] types )
+    {
+        current = findChain( direction, types );
+        return current == -1 ? NO_MORE : positions[current];
+    }
+
+    @Override
+    public synchronized long nextPosition( long position, DirectionWrapper direction, int[] types )
+    {
+        if ( current != -1 )
+        {
+            positions[current] = position;
+        }
+        if ( position != NO_MORE )
+        {
+            return position;
+        }
+        return position( direction, types );
+    }
+
+    @Override
+    public synchronized boolean hasMore( DirectionWrapper direction, int[] types )
+    {
+        return findChain( direction, types ) != -1;
+    }
+
+    @Override
+    public synchronized void compareAndAdvance( long relIdDeleted, long nextRelId )
+    {
+        for ( int i = 0; i < positions.length; i++ )
+        {
+            if ( positions[i] == relIdDeleted )
+            {
+                positions[i] = nextRelId;
+            }
+        }
+    }
+
+    /**
+     * @return the index into {@link #positions} of the first chain matching the direction and types
+     * which still has relationships to load, or {@code -1} if there's no such chain.
+     */
+    private int findChain( DirectionWrapper direction, int[] requestedTypes )
+    {
+        int[] kinds = kindsFor( direction );
+        if ( requestedTypes.length == 0 )
+        {
+            for ( int i = 0; i < types.length; i++ )
+            {
+                int found = findChain( i, kinds );
+                if ( found != -1 )
+                {
+                    return found;
+                }
+            }
+        }
+        else
+        {
+            for ( int type : requestedTypes )
+            {
+                int index = Arrays.binarySearch( types, type );
+                if ( index >= 0 )
+                {
+                    int found = findChain( index, kinds );
+                    if ( found != -1 )
+                    {
+                        return found;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int findChain( int typeIndex, int[] kinds )
+    {
+        for ( int kind : kinds )
+        {
+            if ( positions[typeIndex*3+kind] != NO_MORE )
+            {
+                return typeIndex*3+kind;
+            }
+        }
+        return -1;
+    }
+
+    private static int[] kindsFor( DirectionWrapper direction )
+    {
+        switch ( direction )
+        {
+        case OUTGOING: return KINDS_FOR_OUTGOING;
+        case INCOMING: return KINDS_FOR_INCOMING;
+        default: return KINDS_FOR_BOTH;
+        }
+    }
+
+    @Override
+    public int sizeOfObjectInBytesIncludingOverhead()
+    {
+        return withObjectOverhead( 8/*types reference*/ + 8/*positions reference*/ + 4/*current*/ +
+                withArrayOverhead( 4*types.length ) + withArrayOverhead( 8*positions.length ) );
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        StringBuilder builder = new StringBuilder( "DenseNodeChainPosition[" );
+        for ( int i = 0; i < types.length; i++ )
+        {
+            builder.append( i > 0 ? "," : "" ).append( types[i] ).append( ":{out=" ).append( positions[i*3+OUT] )
+                    .append( ",in=" ).append( positions[i*3+IN] ).append( ",loop=" ).append( positions[i*3+LOOP] )
+                    .append( "}" );
+        }
+        return builder.append( "]" ).toString();
+    }
+}
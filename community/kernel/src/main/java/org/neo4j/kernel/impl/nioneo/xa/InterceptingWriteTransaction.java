@@ -21,6 +21,8 @@ package org.neo4j.kernel.impl.nioneo.xa;
 
 import java.util.List;
 
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
+import org.neo4j.kernel.api.statistics.GraphStatistics;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.core.CacheAccessBackDoor;
 import org.neo4j.kernel.impl.core.TransactionState;
@@ -34,9 +36,10 @@ public class InterceptingWriteTransaction extends WriteTransaction
 
     InterceptingWriteTransaction( int identifier, XaLogicalLog log,
                                   NeoStore neoStore, TransactionState state, CacheAccessBackDoor cacheAccess,
-                                  IndexingService indexingService, TransactionInterceptor interceptor )
+                                  IndexingService indexingService, LabelScanStore labelScanStore,
+                                  GraphStatistics statistics, TransactionInterceptor interceptor )
     {
-        super( identifier, log, state, neoStore, cacheAccess, indexingService );
+        super( identifier, log, state, neoStore, cacheAccess, indexingService, labelScanStore, statistics );
         this.interceptor = interceptor;
     }
 
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.xa;
+
+import java.util.Iterator;
+
+import org.neo4j.helpers.collection.PrefetchingIterator;
+import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
+import org.neo4j.kernel.impl.api.scan.FullStoreChangeStream;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.NodeStore;
+
+import static org.neo4j.kernel.api.labelscan.NodeLabelUpdate.labelsAdded;
+import static org.neo4j.kernel.impl.nioneo.store.labels.NodeLabelsField.parseLabelsField;
+
+/**
+ * Produces the labels of every node in use in the {@link NodeStore}, in node id order.
+ */
+public class NeoStoreFullStoreChangeStream implements FullStoreChangeStream
+{
+    private final NodeStore nodeStore;
+
+    public NeoStoreFullStoreChangeStream( NodeStore nodeStore )
+    {
+        this.nodeStore = nodeStore;
+    }
+
+    @Override
+    public Iterator<NodeLabelUpdate> iterator()
+    {
+        final long highestId = nodeStore.getHighestPossibleIdInUse();
+        return new PrefetchingIterator<NodeLabelUpdate>()
+        {
+            private long id = 0;
+
+            @Override
+            protected NodeLabelUpdate fetchNextOrNull()
+            {
+                while ( id <= highestId )
+                {
+                    NodeRecord node = nodeStore.forceGetRecord( id++ );
+                    if ( node.inUse() )
+                    {
+                        long[] labels = parseLabelsField( node ).get( nodeStore );
+                        if ( labels.length > 0 )
+                        {
+                            return labelsAdded( node.getId(), labels );
+                        }
+                    }
+                }
+                return null;
+            }
+        };
+    }
+}
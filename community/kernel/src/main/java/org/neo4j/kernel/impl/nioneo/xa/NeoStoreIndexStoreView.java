@@ -19,10 +19,20 @@
  */
 package org.neo4j.kernel.impl.nioneo.xa;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.neo4j.helpers.Function;
+import org.neo4j.helpers.NamedThreadFactory;
 import org.neo4j.helpers.Pair;
 import org.neo4j.helpers.Predicate;
 import org.neo4j.helpers.PrimitiveLongPredicate;
@@ -41,6 +51,7 @@ import org.neo4j.kernel.impl.nioneo.store.Record;
 import org.neo4j.kernel.impl.nioneo.store.RecordStore;
 import org.neo4j.kernel.impl.nioneo.store.RecordStore.Processor;
 
+import static org.neo4j.helpers.Exceptions.launderedException;
 import static org.neo4j.helpers.collection.Iterables.filter;
 import static org.neo4j.helpers.collection.Iterables.flatMap;
 import static org.neo4j.helpers.collection.Iterables.map;
@@ -51,13 +62,28 @@ import static org.neo4j.kernel.impl.nioneo.store.labels.NodeLabelsField.parseLab
 
 public class NeoStoreIndexStoreView implements IndexStoreView
 {
+    // number of node records read by a scan thread in one go
+    static final int PARTITION_SIZE = 10000;
+
     private final PropertyStore propertyStore;
     private final NodeStore nodeStore;
+    private final int scanThreads;
 
     public NeoStoreIndexStoreView( NeoStore neoStore )
+    {
+        this( neoStore, 1 );
+    }
+
+    /**
+     * @param scanThreads number of threads to scan the node store with. With more than one thread
+     * the node store is split into partitions read in parallel, while the visitor is still called
+     * by the thread running the scan and in node id order.
+     */
+    public NeoStoreIndexStoreView( NeoStore neoStore, int scanThreads )
     {
         this.propertyStore = neoStore.getPropertyStore();
         this.nodeStore = neoStore.getNodeStore();
+        this.scanThreads = scanThreads;
     }
 
     @Override
@@ -104,6 +130,11 @@ public class NeoStoreIndexStoreView implements IndexStoreView
                                                                        PrimitiveLongPredicate labelPredicate,
                                                                        Visitor<NodePropertyUpdate, FAILURE> visitor )
     {
+        if ( scanThreads > 1 )
+        {
+            return new PartitionedStoreScan<FAILURE>( propertyKeyPredicate, labelPredicate, visitor );
+        }
+
         // Create a processor that for each accepted node (containing the desired label) looks through its properties,
         // getting the desired one (if any) and feeds to the index manipulator.
         LabelsReference labelsReference = new LabelsReference();
@@ -311,4 +342,131 @@ public class NeoStoreIndexStoreView implements IndexStoreView
             processor.stopScanning();
         }
     }
+
+    /**
+     * Scans partitions of the node store in parallel, each partition being read sequentially
+     * and its updates collected into a batch. Batches are handed to the visitor in partition
+     * order, so that the visitor sees the same updates in the same order as with a single
+     * threaded scan. A bounded number of partitions are read ahead of the visitor.
+     */
+    private class PartitionedStoreScan<FAILURE extends Exception> implements StoreScan<FAILURE>
+    {
+        private final PrimitiveLongPredicate propertyKeyPredicate;
+        private final PrimitiveLongPredicate labelPredicate;
+        private final Visitor<NodePropertyUpdate, FAILURE> visitor;
+        private volatile boolean continueScanning = true;
+
+        PartitionedStoreScan( PrimitiveLongPredicate propertyKeyPredicate, PrimitiveLongPredicate labelPredicate,
+                              Visitor<NodePropertyUpdate, FAILURE> visitor )
+        {
+            this.propertyKeyPredicate = propertyKeyPredicate;
+            this.labelPredicate = labelPredicate;
+            this.visitor = visitor;
+        }
+
+        @Override
+        public void run() throws FAILURE
+        {
+            long highId = nodeStore.getHighId();
+            ExecutorService executor = Executors.newFixedThreadPool( scanThreads,
+                    new NamedThreadFactory( "Index population scan" ) );
+            Queue<Future<List<NodePropertyUpdate>>> pending = new LinkedList<Future<List<NodePropertyUpdate>>>();
+            try
+            {
+                long nextPartition = 0;
+                while ( continueScanning )
+                {
+                    while ( pending.size() < scanThreads * 2 && nextPartition <= highId )
+                    {
+                        long end = Math.min( nextPartition + PARTITION_SIZE, highId + 1 );
+                        pending.add( executor.submit( new PartitionScan( nextPartition, end ) ) );
+                        nextPartition = end;
+                    }
+
+                    Future<List<NodePropertyUpdate>> partition = pending.poll();
+                    if ( partition == null )
+                    {
+                        break;
+                    }
+                    for ( NodePropertyUpdate update : batchOf( partition ) )
+                    {
+                        if ( !continueScanning )
+                        {
+                            break;
+                        }
+                        visitor.visit( update );
+                    }
+                }
+            }
+            finally
+            {
+                executor.shutdownNow();
+            }
+        }
+
+        private List<NodePropertyUpdate> batchOf( Future<List<NodePropertyUpdate>> partition )
+        {
+            try
+            {
+                return partition.get();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw launderedException( e );
+            }
+            catch ( ExecutionException e )
+            {
+                throw launderedException( e.getCause() );
+            }
+        }
+
+        @Override
+        public void stop()
+        {
+            continueScanning = false;
+        }
+
+        private class PartitionScan implements Callable<List<NodePropertyUpdate>>
+        {
+            private final long startId;
+            private final long endId;
+
+            PartitionScan( long startId, long endId )
+            {
+                this.startId = startId;
+                this.endId = endId;
+            }
+
+            @Override
+            public List<NodePropertyUpdate> call()
+            {
+                final List<NodePropertyUpdate> updates = new ArrayList<NodePropertyUpdate>();
+                LabelsReference labelsReference = new LabelsReference();
+                NodeIndexingProcessor<RuntimeException> processor = new NodeIndexingProcessor<RuntimeException>(
+                        propertyStore, propertyKeyPredicate, labelsReference,
+                        new Visitor<NodePropertyUpdate, RuntimeException>()
+                        {
+                            @Override
+                            public boolean visit( NodePropertyUpdate update )
+                            {
+                                updates.add( update );
+                                return false;
+                            }
+                        } );
+                Predicate<NodeRecord> predicate = new NodeLabelFilterPredicate( nodeStore, labelPredicate,
+                        labelsReference );
+
+                for ( long id = startId; id < endId && continueScanning; id++ )
+                {
+                    NodeRecord node = nodeStore.forceGetRecord( id );
+                    if ( predicate.accept( node ) )
+                    {
+                        processor.processNode( nodeStore, node );
+                    }
+                }
+                return updates;
+            }
+        }
+    }
 }
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.xa;
+
+import org.neo4j.kernel.api.statistics.StatisticsUpdate;
+import org.neo4j.kernel.impl.api.statistics.StatisticsSource;
+import org.neo4j.kernel.impl.nioneo.store.NeoStore;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.NodeStore;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipStore;
+
+import static org.neo4j.kernel.impl.nioneo.store.labels.NodeLabelsField.parseLabelsField;
+
+/**
+ * Counts the nodes, labels and relationships in use in a {@link NeoStore} by scanning the node and
+ * relationship stores.
+ */
+public class NeoStoreStatisticsSource implements StatisticsSource
+{
+    private final NeoStore neoStore;
+
+    public NeoStoreStatisticsSource( NeoStore neoStore )
+    {
+        this.neoStore = neoStore;
+    }
+
+    @Override
+    public long lastCommittedTx()
+    {
+        return neoStore.getLastCommittedTx();
+    }
+
+    @Override
+    public void countAll( StatisticsUpdate target )
+    {
+        NodeStore nodeStore = neoStore.getNodeStore();
+        long highestNodeId = nodeStore.getHighestPossibleIdInUse();
+        for ( long id = 0; id <= highestNodeId; id++ )
+        {
+            NodeRecord node = nodeStore.forceGetRecord( id );
+            if ( node.inUse() )
+            {
+                target.nodeAdded( parseLabelsField( node ).get( nodeStore ) );
+            }
+        }
+
+        RelationshipStore relationshipStore = neoStore.getRelationshipStore();
+        long highestRelationshipId = relationshipStore.getHighestPossibleIdInUse();
+        for ( long id = 0; id <= highestRelationshipId; id++ )
+        {
+            RelationshipRecord relationship = relationshipStore.forceGetRecord( id );
+            if ( relationship.inUse() )
+            {
+                target.relationshipAdded( relationship.getType() );
+            }
+        }
+    }
+}
@@ -49,11 +49,15 @@ import org.neo4j.kernel.BridgingCacheAccess;
 import org.neo4j.kernel.InternalAbstractGraphDatabase;
 import org.neo4j.kernel.TransactionInterceptorProviders;
 import org.neo4j.kernel.api.index.SchemaIndexProvider;
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
+import org.neo4j.kernel.api.statistics.GraphStatistics;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.api.PersistenceCache;
 import org.neo4j.kernel.impl.api.SchemaCache;
 import org.neo4j.kernel.impl.api.UpdateableSchemaState;
 import org.neo4j.kernel.impl.api.index.IndexingService;
+import org.neo4j.kernel.impl.api.scan.BitmapLabelScanStore;
+import org.neo4j.kernel.impl.api.statistics.StoreGraphStatistics;
 import org.neo4j.kernel.impl.cache.Cache;
 import org.neo4j.kernel.impl.cache.LockStripedCache;
 import org.neo4j.kernel.impl.core.CacheAccessBackDoor;
@@ -71,6 +75,7 @@ import org.neo4j.kernel.impl.nioneo.store.SchemaRule;
 import org.neo4j.kernel.impl.nioneo.store.Store;
 import org.neo4j.kernel.impl.nioneo.store.StoreFactory;
 import org.neo4j.kernel.impl.nioneo.store.StoreId;
+import org.neo4j.kernel.impl.nioneo.store.UnderlyingStorageException;
 import org.neo4j.kernel.impl.nioneo.store.WindowPoolStats;
 import org.neo4j.kernel.impl.persistence.IdGenerationFailedException;
 import org.neo4j.kernel.impl.transaction.TransactionStateFactory;
@@ -118,6 +123,8 @@ public class NeoStoreXaDataSource extends LogBackedXaDataSource
         public static final Setting<File> store_dir = InternalAbstractGraphDatabase.Configuration.store_dir;
         public static final Setting<File> neo_store = InternalAbstractGraphDatabase.Configuration.neo_store;
         public static final Setting<File> logical_log = InternalAbstractGraphDatabase.Configuration.logical_log;
+        public static final Setting<Integer> index_population_threads =
+                GraphDatabaseSettings.index_population_threads;
     }
 
     public static final byte BRANCH_ID[] = UTF8.encode( "414141" );
@@ -133,6 +140,8 @@ public class NeoStoreXaDataSource extends LogBackedXaDataSource
 
     private NeoStore neoStore;
     private IndexingService indexingService;
+    private LabelScanStore labelScanStore;
+    private GraphStatistics graphStatistics;
     private DefaultSchemaIndexProviderMap providerMap;
     private XaContainer xaContainer;
     private ArrayMap<Class<?>,Store> idGenerators;
@@ -305,8 +314,17 @@ public class NeoStoreXaDataSource extends LogBackedXaDataSource
         providerMap = new DefaultSchemaIndexProviderMap( indexProvider );
 
         indexingService = life.add( new IndexingService( scheduler, providerMap,
-                new NeoStoreIndexStoreView( neoStore ), updateableSchemaState, logging ) );
-        
+                new NeoStoreIndexStoreView( neoStore, config.get( Configuration.index_population_threads ) ),
+                updateableSchemaState, logging ) );
+
+        labelScanStore = life.add( new BitmapLabelScanStore( storeFactory.getFileSystemAbstraction(), storeDir,
+                new NeoStoreFullStoreChangeStream( neoStore.getNodeStore() ), readOnly,
+                logging.getMessagesLog( BitmapLabelScanStore.class ) ) );
+
+        graphStatistics = life.add( new StoreGraphStatistics( storeFactory.getFileSystemAbstraction(), storeDir,
+                new NeoStoreStatisticsSource( neoStore ), readOnly,
+                logging.getMessagesLog( StoreGraphStatistics.class ) ) );
+
         xaContainer = xaFactory.newXaContainer(this, config.get( Configuration.logical_log ),
                 new CommandFactory( neoStore, indexingService ), tf, stateFactory, providers  );
 
@@ -370,6 +388,16 @@ public class NeoStoreXaDataSource extends LogBackedXaDataSource
         return indexingService;
     }
 
+    public LabelScanStore getLabelScanStore()
+    {
+        return labelScanStore;
+    }
+
+    public GraphStatistics getGraphStatistics()
+    {
+        return graphStatistics;
+    }
+
     public DefaultSchemaIndexProviderMap getProviderMap()
     {
         return providerMap;
@@ -388,6 +416,7 @@ public class NeoStoreXaDataSource extends LogBackedXaDataSource
         if ( !readOnly )
         {
             indexingService.flushAll();
+            forceLabelScanStore();
             neoStore.flushAll();
         }
         xaContainer.close();
@@ -444,7 +473,7 @@ public class NeoStoreXaDataSource extends LogBackedXaDataSource
         {
             TransactionInterceptor first = providers.resolveChain( NeoStoreXaDataSource.this );
             return new InterceptingWriteTransaction( identifier, getLogicalLog(), neoStore, state, cacheAccess,
-                    indexingService, first );
+                    indexingService, labelScanStore, graphStatistics, first );
         }
     }
 
@@ -454,7 +483,7 @@ public class NeoStoreXaDataSource extends LogBackedXaDataSource
         public XaTransaction create( int identifier, TransactionState state )
         {
             return new WriteTransaction( identifier, getLogicalLog(), state,
-                neoStore, cacheAccess, indexingService );
+                neoStore, cacheAccess, indexingService, labelScanStore, graphStatistics );
         }
 
         @Override
@@ -493,6 +522,7 @@ public class NeoStoreXaDataSource extends LogBackedXaDataSource
         {
             neoStore.flushAll();
             indexingService.flushAll();
+            forceLabelScanStore();
         }
 
         @Override
@@ -502,6 +532,18 @@ public class NeoStoreXaDataSource extends LogBackedXaDataSource
         }
     }
 
+    private void forceLabelScanStore()
+    {
+        try
+        {
+            labelScanStore.force();
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
+    }
+
     public long nextId( Class<?> clazz )
     {
         Store store = idGenerators.get( clazz );
@@ -589,6 +631,22 @@ public class NeoStoreXaDataSource extends LogBackedXaDataSource
         return neoStore.getAllWindowPoolStats();
     }
 
+    /**
+     * @return the hits of all window pools summed up, without the cost of {@link #getWindowPoolStats()}.
+     */
+    public long getWindowPoolHitCount()
+    {
+        return neoStore.getAllWindowPoolHitCount();
+    }
+
+    /**
+     * @return the misses of all window pools summed up, without the cost of {@link #getWindowPoolStats()}.
+     */
+    public long getWindowPoolMissCount()
+    {
+        return neoStore.getAllWindowPoolMissCount();
+    }
+
     @Override
     public long getLastCommittedTxId()
     {
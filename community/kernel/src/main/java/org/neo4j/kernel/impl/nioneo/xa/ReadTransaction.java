@@ -27,10 +27,10 @@ import java.util.Map;
 import javax.transaction.SystemException;
 import javax.transaction.Transaction;
 
-import org.neo4j.helpers.Pair;
 import org.neo4j.kernel.api.KernelAPI;
 import org.neo4j.kernel.api.properties.Property;
 import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+import org.neo4j.kernel.impl.core.RelationshipLoadingPosition;
 import org.neo4j.kernel.impl.core.Token;
 import org.neo4j.kernel.impl.nioneo.store.InvalidRecordException;
 import org.neo4j.kernel.impl.nioneo.store.NeoStore;
@@ -44,6 +44,8 @@ import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenStore;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
 import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipStore;
 import org.neo4j.kernel.impl.nioneo.store.SchemaRule;
@@ -79,6 +81,11 @@ class ReadTransaction implements NeoStoreTransaction
         return neoStore.getRelationshipStore();
     }
 
+    private RelationshipGroupStore getRelationshipGroupStore()
+    {
+        return neoStore.getRelationshipGroupStore();
+    }
+
     private PropertyStore getPropertyStore()
     {
         return neoStore.getPropertyStore();
@@ -97,20 +104,45 @@ class ReadTransaction implements NeoStoreTransaction
     }
 
     @Override
-    public long getRelationshipChainPosition( long nodeId )
+    public RelationshipLoadingPosition getRelationshipChainPosition( long nodeId )
     {
-        return getNodeStore().getRecord( nodeId ).getNextRel();
+        return getRelationshipChainPosition( getNodeStore().getRecord( nodeId ), getRelationshipGroupStore() );
+    }
+
+    static RelationshipLoadingPosition getRelationshipChainPosition( NodeRecord node,
+            RelationshipGroupStore groupStore )
+    {
+        if ( node.isDense() )
+        {
+            return new DenseNodeChainPosition( loadRelationshipGroups( node.getNextRel(), groupStore ) );
+        }
+        return new SingleChainPosition( node.getNextRel() );
+    }
+
+    private static List<RelationshipGroupRecord> loadRelationshipGroups( long firstGroup,
+            RelationshipGroupStore groupStore )
+    {
+        List<RelationshipGroupRecord> groups = new ArrayList<>();
+        long groupId = firstGroup;
+        while ( groupId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RelationshipGroupRecord group = groupStore.getRecord( groupId );
+            groups.add( group );
+            groupId = group.getNext();
+        }
+        return groups;
     }
 
     @Override
-    public Pair<Map<DirectionWrapper, Iterable<RelationshipRecord>>, Long> getMoreRelationships(
-            long nodeId, long position )
+    public Map<DirectionWrapper, Iterable<RelationshipRecord>> getMoreRelationships(
+            long nodeId, RelationshipLoadingPosition position, DirectionWrapper direction, int[] types )
     {
-        return getMoreRelationships( nodeId, position, getRelGrabSize(), getRelationshipStore() );
+        return getMoreRelationships( nodeId, position, direction, types, getRelGrabSize(), getRelationshipStore() );
     }
 
-    static Pair<Map<DirectionWrapper, Iterable<RelationshipRecord>>, Long> getMoreRelationships(
-            long nodeId, long position, int grabSize, RelationshipStore relStore )
+    static Map<DirectionWrapper, Iterable<RelationshipRecord>> getMoreRelationships(
+            long nodeId, RelationshipLoadingPosition loadPosition, DirectionWrapper direction, int[] types,
+            int grabSize, RelationshipStore relStore )
     {
         // initialCapacity=grabSize saves the lists the trouble of resizing
         List<RelationshipRecord> out = new ArrayList<>();
@@ -119,6 +151,7 @@ class ReadTransaction implements NeoStoreTransaction
         Map<DirectionWrapper, Iterable<RelationshipRecord>> result = new EnumMap<>( DirectionWrapper.class );
         result.put( DirectionWrapper.OUTGOING, out );
         result.put( DirectionWrapper.INCOMING, in );
+        long position = loadPosition.position( direction, types );
         for ( int i = 0; i < grabSize &&
             position != Record.NO_NEXT_RELATIONSHIP.intValue(); i++ )
         {
@@ -126,7 +159,7 @@ class ReadTransaction implements NeoStoreTransaction
             if ( relRecord == null )
             {
                 // return what we got so far
-                return Pair.of( result, position );
+                return result;
             }
             long firstNode = relRecord.getFirstNode();
             long secondNode = relRecord.getSecondNode();
@@ -157,13 +190,14 @@ class ReadTransaction implements NeoStoreTransaction
                 i--;
             }
 
+            long next;
             if ( firstNode == nodeId )
             {
-                position = relRecord.getFirstNextRel();
+                next = relRecord.getFirstNextRel();
             }
             else if ( secondNode == nodeId )
             {
-                position = relRecord.getSecondNextRel();
+                next = relRecord.getSecondNextRel();
             }
             else
             {
@@ -171,8 +205,9 @@ class ReadTransaction implements NeoStoreTransaction
                     "] is neither firstNode[" + firstNode +
                     "] nor secondNode[" + secondNode + "] for Relationship[" + relRecord.getId() + "]" );
             }
+            position = loadPosition.nextPosition( next, direction, types );
         }
-        return Pair.of( result, position );
+        return result;
     }
 
     static ArrayMap<Integer, PropertyData> propertyChainToMap(
@@ -124,6 +124,18 @@ public class ShutdownXaDataSource extends NeoStoreXaDataSource
         throw databaseIsShutdownError();
     }
 
+    @Override
+    public long getWindowPoolHitCount()
+    {
+        throw databaseIsShutdownError();
+    }
+
+    @Override
+    public long getWindowPoolMissCount()
+    {
+        throw databaseIsShutdownError();
+    }
+
     @Override
     public NeoStoreXaConnection getXaConnection()
     {
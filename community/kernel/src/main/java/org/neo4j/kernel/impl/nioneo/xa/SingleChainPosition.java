@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.xa;
+
+import org.neo4j.kernel.impl.core.RelationshipLoadingPosition;
+import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper;
+
+import static org.neo4j.kernel.impl.cache.SizeOfs.withObjectOverhead;
+
+/**
+ * Loading position of a sparse node, where all relationships are in one chain regardless of
+ * type and direction.
+ */
+public class SingleChainPosition implements RelationshipLoadingPosition
+{
+    private volatile long position;
+
+    public SingleChainPosition( long firstPosition )
+    {
+        this.position = firstPosition;
+    }
+
+    @Override
+    public long position( DirectionWrapper direction, int[] types )
+    {
+        return position;
+    }
+
+    @Override
+    public long nextPosition( long position, DirectionWrapper direction, int[] types )
+    {
+        this.position = position;
+        return position;
+    }
+
+    @Override
+    public boolean hasMore( DirectionWrapper direction, int[] types )
+    {
+        return position != Record.NO_NEXT_RELATIONSHIP.intValue();
+    }
+
+    @Override
+    public void compareAndAdvance( long relIdDeleted, long nextRelId )
+    {
+        if ( position == relIdDeleted )
+        {
+            position = nextRelId;
+        }
+    }
+
+    @Override
+    public int sizeOfObjectInBytesIncludingOverhead()
+    {
+        return withObjectOverhead( 8 );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SingleChainPosition[" + position + "]";
+    }
+}
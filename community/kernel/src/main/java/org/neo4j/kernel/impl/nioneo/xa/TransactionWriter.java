@@ -30,6 +30,7 @@ import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.TokenRecord;
@@ -212,6 +213,11 @@ public class TransactionWriter
         write( new Command.RelationshipCommand( null, relationship ) );
     }
 
+    public void add( RelationshipGroupRecord group ) throws IOException
+    {
+        write( new Command.RelationshipGroupCommand( null, group ) );
+    }
+
     public void add( PropertyRecord before, PropertyRecord property ) throws IOException
     {
         write( new Command.PropertyCommand( null, before, property ) );
@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.impl.nioneo.xa;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -43,10 +44,15 @@ import org.neo4j.helpers.Pair;
 import org.neo4j.kernel.api.KernelAPI;
 import org.neo4j.kernel.api.exceptions.schema.MalformedSchemaRuleException;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
+import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
 import org.neo4j.kernel.api.properties.Property;
+import org.neo4j.kernel.api.statistics.GraphStatistics;
+import org.neo4j.kernel.api.statistics.StatisticsUpdate;
 import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.core.CacheAccessBackDoor;
+import org.neo4j.kernel.impl.core.RelationshipLoadingPosition;
 import org.neo4j.kernel.impl.core.Token;
 import org.neo4j.kernel.impl.core.TransactionState;
 import org.neo4j.kernel.impl.nioneo.store.AbstractDynamicStore;
@@ -68,12 +74,15 @@ import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
 import org.neo4j.kernel.impl.nioneo.store.PropertyType;
 import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenStore;
 import org.neo4j.kernel.impl.nioneo.store.SchemaRule;
 import org.neo4j.kernel.impl.nioneo.store.SchemaStore;
+import org.neo4j.kernel.impl.nioneo.store.UnderlyingStorageException;
 import org.neo4j.kernel.impl.nioneo.xa.Command.Mode;
 import org.neo4j.kernel.impl.nioneo.xa.Command.NodeCommand;
 import org.neo4j.kernel.impl.nioneo.xa.Command.PropertyCommand;
@@ -182,6 +191,26 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
                 {
                 }
             }, false );
+    private final RecordChanges<Long, RelationshipGroupRecord, Integer> relGroupRecords =
+            new RecordChanges<>( new RecordChanges.Loader<Long, RelationshipGroupRecord, Integer>()
+            {
+                @Override
+                public RelationshipGroupRecord newUnused( Long key, Integer type )
+                {
+                    return new RelationshipGroupRecord( key, type );
+                }
+
+                @Override
+                public RelationshipGroupRecord load( Long key, Integer type )
+                {
+                    return getRelationshipGroupStore().getRecord( key );
+                }
+
+                @Override
+                public void ensureHeavy( RelationshipGroupRecord record )
+                {
+                }
+            }, false );
     private final Map<Long, Pair<Collection<DynamicRecord>, SchemaRule>> schemaRuleRecords = new HashMap<>();
     private Map<Integer, RelationshipTypeTokenRecord> relationshipTypeTokenRecords;
     private Map<Integer, LabelTokenRecord> labelTokenRecords;
@@ -191,6 +220,7 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
     private final Map<Long, Command.NodeCommand> nodeCommands = new TreeMap<>();
     private final ArrayList<Command.PropertyCommand> propCommands = new ArrayList<>();
     private final ArrayList<Command.RelationshipCommand> relCommands = new ArrayList<>();
+    private final ArrayList<Command.RelationshipGroupCommand> relGroupCommands = new ArrayList<>();
     private final ArrayList<Command.SchemaRuleCommand> schemaRuleCommands = new ArrayList<>();
     private ArrayList<Command.RelationshipTypeTokenCommand> relationshipTypeTokenCommands;
     private ArrayList<Command.LabelTokenCommand> labelTokenCommands;
@@ -205,15 +235,20 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
     private XaConnection xaConnection;
     private final CacheAccessBackDoor cacheAccess;
     private final IndexingService indexes;
+    private final LabelScanStore labelScanStore;
+    private final GraphStatistics statistics;
 
     WriteTransaction( int identifier, XaLogicalLog log, TransactionState state, NeoStore neoStore,
-                      CacheAccessBackDoor cacheAccess, IndexingService indexingService )
+                      CacheAccessBackDoor cacheAccess, IndexingService indexingService,
+                      LabelScanStore labelScanStore, GraphStatistics statistics )
     {
         super( identifier, log, state );
         this.neoStore = neoStore;
         this.state = state;
         this.cacheAccess = cacheAccess;
         this.indexes = indexingService;
+        this.labelScanStore = labelScanStore;
+        this.statistics = statistics;
     }
 
     @Override
@@ -222,10 +257,12 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         if ( isRecovered() )
         {
             return nodeCommands.size() == 0 && propCommands.size() == 0 &&
-                   relCommands.size() == 0 && schemaRuleCommands.size() == 0 && relationshipTypeTokenCommands == null &&
+                   relCommands.size() == 0 && relGroupCommands.size() == 0 && schemaRuleCommands.size() == 0 &&
+                   relationshipTypeTokenCommands == null &&
                    labelTokenCommands == null && propertyKeyTokenCommands == null;
         }
-        return nodeRecords.changeSize() == 0 && relRecords.changeSize() == 0 && schemaRuleRecords.size() == 0 &&
+        return nodeRecords.changeSize() == 0 && relRecords.changeSize() == 0 && relGroupRecords.changeSize() == 0 &&
+               schemaRuleRecords.size() == 0 &&
                propertyRecords.changeSize() == 0 && relationshipTypeTokenRecords == null && labelTokenRecords == null &&
                propertyKeyTokenRecords == null;
     }
@@ -248,6 +285,7 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
     {
         int noOfCommands = nodeRecords.changeSize() +
                            relRecords.changeSize() +
+                           relGroupRecords.changeSize() +
                            propertyRecords.changeSize() +
                            schemaRuleRecords.size() +
                            (propertyKeyTokenRecords != null ? propertyKeyTokenRecords.size() : 0) +
@@ -314,6 +352,13 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
             relCommands.add( command );
             commands.add( command );
         }
+        for ( RecordChange<Long, RelationshipGroupRecord, Integer> change : relGroupRecords.changes() )
+        {
+            Command.RelationshipGroupCommand command = new Command.RelationshipGroupCommand(
+                    neoStore.getRelationshipGroupStore(), change.forReadingData() );
+            relGroupCommands.add( command );
+            commands.add( command );
+        }
         if ( neoStoreRecord != null )
         {
             for ( RecordChange<Long, NeoStoreRecord, Void> change : neoStoreRecord.changes() )
@@ -377,6 +422,10 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         {
             relCommands.add( (Command.RelationshipCommand) xaCommand );
         }
+        else if ( xaCommand instanceof Command.RelationshipGroupCommand )
+        {
+            relGroupCommands.add( (Command.RelationshipGroupCommand) xaCommand );
+        }
         else if ( xaCommand instanceof Command.PropertyCommand )
         {
             propCommands.add( (Command.PropertyCommand) xaCommand );
@@ -475,6 +524,13 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
                 patchDeletedRelationshipNodes( id, record.getFirstNode(), record.getFirstNextRel(),
                                                record.getSecondNode(), record.getSecondNextRel() );
             }
+            for ( RecordChange<Long, RelationshipGroupRecord, Integer> change : relGroupRecords.changes() )
+            {
+                if ( freeIds && change.isCreated() )
+                {
+                    getRelationshipGroupStore().freeId( change.getKey() );
+                }
+            }
             if ( neoStoreRecord != null )
             {
                 removeGraphPropertiesFromCache();
@@ -693,14 +749,19 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
 
             // primitives
             java.util.Collections.sort( relCommands, sorter );
+            java.util.Collections.sort( relGroupCommands, sorter );
             java.util.Collections.sort( propCommands, sorter );
-            executeCreated( isRecovered, propCommands, relCommands, nodeCommands.values() );
-            executeModified( isRecovered, propCommands, relCommands, nodeCommands.values() );
-            executeDeleted( propCommands, relCommands, nodeCommands.values() );
+            StatisticsUpdate counts = new StatisticsUpdate();
+            gatherRelationshipCounts( isRecovered, counts );
+            executeCreated( isRecovered, propCommands, relCommands, relGroupCommands, nodeCommands.values() );
+            executeModified( isRecovered, propCommands, relCommands, relGroupCommands, nodeCommands.values() );
+            executeDeleted( propCommands, relCommands, relGroupCommands, nodeCommands.values() );
 
             // property change set for index updates
             Iterable<NodePropertyUpdate> updates = convertIntoLogicalPropertyUpdates();
             indexes.updateIndexes( updates );
+            updateLabelScanStoreAndNodeCounts( counts );
+            statistics.updateAndCommit( counts );
 
             // schema rules. Execute these after generating the property updates so. If executed
             // before and we've got a transaction that sets properties/labels as well as creating an index
@@ -736,6 +797,7 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
             {
                 updateFirstRelationships();
                 state.commitCows(); // updates the cached primitives
+                removeConvertedDenseNodesFromCache();
             }
             neoStore.setLastCommittedTx( getCommitTxId() );
             if ( isRecovered )
@@ -749,6 +811,85 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         }
     }
 
+    /**
+     * Relationship commands read from a log carry nothing but the id of a deleted relationship and don't
+     * tell created from updated ones, so when recovered the records in the store are looked at instead.
+     * That's why this must be done before the commands are executed.
+     */
+    private void gatherRelationshipCounts( boolean isRecovered, StatisticsUpdate counts )
+    {
+        RelationshipStore relationshipStore = getRelationshipStore();
+        for ( Command.RelationshipCommand command : relCommands )
+        {
+            RelationshipRecord record = command.getRecord();
+            if ( !isRecovered )
+            {
+                if ( command.getMode() == CREATE )
+                {
+                    counts.relationshipAdded( record.getType() );
+                }
+                else if ( command.getMode() == DELETE )
+                {
+                    counts.relationshipRemoved( record.getType() );
+                }
+                continue;
+            }
+
+            RelationshipRecord stored = relationshipStore.forceGetRecord( record.getId() );
+            if ( record.inUse() && !stored.inUse() )
+            {
+                counts.relationshipAdded( record.getType() );
+            }
+            else if ( !record.inUse() && stored.inUse() )
+            {
+                counts.relationshipRemoved( stored.getType() );
+            }
+        }
+    }
+
+    private void updateLabelScanStoreAndNodeCounts( StatisticsUpdate counts )
+    {
+        if ( nodeCommands.isEmpty() )
+        {
+            return;
+        }
+
+        final NodeStore nodeStore = getNodeStore();
+        Collection<NodeLabelUpdate> labelUpdates = new ArrayList<>();
+        for ( NodeCommand nodeCommand : nodeCommands.values() )
+        {
+            // The before state of a node record doesn't carry the in-use flag, so go by the command mode instead
+            long[] labelsBefore = nodeCommand.getMode() == CREATE ? NodePropertyUpdate.EMPTY_LONG_ARRAY :
+                                  parseLabelsField( nodeCommand.getBefore() ).get( nodeStore );
+            long[] labelsAfter = nodeCommand.getMode() == DELETE ? NodePropertyUpdate.EMPTY_LONG_ARRAY :
+                                 parseLabelsField( nodeCommand.getAfter() ).get( nodeStore );
+            switch ( nodeCommand.getMode() )
+            {
+            case CREATE:
+                counts.nodeAdded( labelsAfter );
+                break;
+            case DELETE:
+                counts.nodeRemoved( labelsBefore );
+                break;
+            default:
+                counts.labelsChanged( labelsBefore, labelsAfter );
+            }
+            if ( !Arrays.equals( labelsBefore, labelsAfter ) )
+            {
+                labelUpdates.add( NodeLabelUpdate.labelChanges( nodeCommand.getKey(), labelsBefore, labelsAfter ) );
+            }
+        }
+
+        try
+        {
+            labelScanStore.updateAndCommit( labelUpdates.iterator() );
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
+    }
+
     private Iterable<NodePropertyUpdate> convertIntoLogicalPropertyUpdates()
     {
         Collection<NodePropertyUpdate> updates = new ArrayList<>();
@@ -844,6 +985,21 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         return xaConnection.delistResource( tx, tmsuccess );
     }
 
+    /**
+     * A node converted to a dense node in this transaction has had all its relationships moved to
+     * different chains, so whatever loading position a cached version of it has is now useless.
+     */
+    private void removeConvertedDenseNodesFromCache()
+    {
+        for ( NodeCommand command : nodeCommands.values() )
+        {
+            if ( command.getMode() == UPDATE && !command.getBefore().isDense() && command.getAfter().isDense() )
+            {
+                removeNodeFromCache( command.getKey() );
+            }
+        }
+    }
+
     private void updateFirstRelationships()
     {
         for ( RecordChange<Long, NodeRecord, Void> change : nodeRecords.changes() )
@@ -917,6 +1073,7 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         nodeRecords.clear();
         propertyRecords.clear();
         relRecords.clear();
+        relGroupRecords.clear();
         schemaRuleRecords.clear();
         relationshipTypeTokenRecords = null;
         propertyKeyTokenRecords = null;
@@ -926,6 +1083,7 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         propCommands.clear();
         propertyKeyTokenCommands = null;
         relCommands.clear();
+        relGroupCommands.clear();
         schemaRuleCommands.clear();
         relationshipTypeTokenCommands = null;
         labelTokenCommands = null;
@@ -962,6 +1120,11 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         return neoStore.getRelationshipStore();
     }
 
+    private RelationshipGroupStore getRelationshipGroupStore()
+    {
+        return neoStore.getRelationshipGroupStore();
+    }
+
     private PropertyStore getPropertyStore()
     {
         return neoStore.getPropertyStore();
@@ -1156,16 +1319,19 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
     }
 
     @Override
-    public long getRelationshipChainPosition( long nodeId )
+    public RelationshipLoadingPosition getRelationshipChainPosition( long nodeId )
     {
-        return nodeRecords.getOrLoad( nodeId, null ).getBefore().getNextRel();
+        // The cached node only holds committed relationships, so go by the committed chains as well
+        return ReadTransaction.getRelationshipChainPosition( nodeRecords.getOrLoad( nodeId, null ).getBefore(),
+                getRelationshipGroupStore() );
     }
 
     @Override
-    public Pair<Map<DirectionWrapper, Iterable<RelationshipRecord>>, Long> getMoreRelationships( long nodeId,
-                                                                                                 long position )
+    public Map<DirectionWrapper, Iterable<RelationshipRecord>> getMoreRelationships( long nodeId,
+            RelationshipLoadingPosition position, DirectionWrapper direction, int[] types )
     {
-        return ReadTransaction.getMoreRelationships( nodeId, position, getRelGrabSize(), getRelationshipStore() );
+        return ReadTransaction.getMoreRelationships( nodeId, position, direction, types, getRelGrabSize(),
+                getRelationshipStore() );
     }
 
     private void updateNodes( RelationshipRecord rel )
@@ -1173,12 +1339,35 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         if ( rel.getFirstPrevRel() == Record.NO_PREV_RELATIONSHIP.intValue() )
         {
             NodeRecord firstNode = nodeRecords.getOrLoad( rel.getFirstNode(), null ).forChangingLinkage();
-            firstNode.setNextRel( rel.getFirstNextRel() );
+            updateFirstInChain( firstNode, rel, rel.getFirstNextRel() );
         }
-        if ( rel.getSecondPrevRel() == Record.NO_PREV_RELATIONSHIP.intValue() )
+        // The chain of a loop has already been taken care of from the first node
+        if ( rel.getSecondPrevRel() == Record.NO_PREV_RELATIONSHIP.intValue() &&
+                rel.getFirstNode() != rel.getSecondNode() )
         {
             NodeRecord secondNode = nodeRecords.getOrLoad( rel.getSecondNode(), null ).forChangingLinkage();
-            secondNode.setNextRel( rel.getSecondNextRel() );
+            updateFirstInChain( secondNode, rel, rel.getSecondNextRel() );
+        }
+    }
+
+    private void updateFirstInChain( NodeRecord node, RelationshipRecord rel, long nextRel )
+    {
+        if ( !node.isDense() )
+        {
+            node.setNextRel( nextRel );
+            return;
+        }
+
+        RelationshipGroupRecord group = getRelationshipGroup( node, rel.getType() );
+        if ( group == null )
+        {
+            throw new InvalidRecordException( node + " has no relationship group for " + rel );
+        }
+        group = relGroupRecords.getOrLoad( group.getId(), null ).forChangingData();
+        setFirstInGroupChain( group, chainOf( node, rel ), nextRel );
+        if ( group.isEmpty() )
+        {
+            deleteRelationshipGroup( node, group );
         }
     }
 
@@ -1601,6 +1790,8 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
             throw new IllegalStateException( "Second node[" + secondNodeId +
                                              "] is deleted and cannot be used to create a relationship" );
         }
+        convertToDenseNodeIfNeeded( firstNode );
+        convertToDenseNodeIfNeeded( secondNode );
         RelationshipRecord record = relRecords.create( id, null ).forChangingLinkage();
         record.setLinks( firstNodeId, secondNodeId, type );
         record.setInUse( true );
@@ -1611,39 +1802,243 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
     private void connectRelationship( NodeRecord firstNode,
                                       NodeRecord secondNode, RelationshipRecord rel )
     {
-        assert firstNode.getNextRel() != rel.getId();
-        assert secondNode.getNextRel() != rel.getId();
-        rel.setFirstNextRel( firstNode.getNextRel() );
-        rel.setSecondNextRel( secondNode.getNextRel() );
-        connect( firstNode, rel );
-        connect( secondNode, rel );
-        firstNode.setNextRel( rel.getId() );
-        secondNode.setNextRel( rel.getId() );
+        assert firstNode.isDense() || firstNode.getNextRel() != rel.getId();
+        assert secondNode.isDense() || secondNode.getNextRel() != rel.getId();
+        if ( firstNode.isDense() )
+        {
+            connectToDenseNode( firstNode, rel );
+        }
+        else
+        {
+            rel.setFirstNextRel( firstNode.getNextRel() );
+            connect( firstNode.getId(), firstNode.getNextRel(), rel );
+        }
+        if ( secondNode.isDense() )
+        {
+            // A loop has already been added to the loop chain of its group from the first node
+            if ( firstNode.getId() != secondNode.getId() )
+            {
+                connectToDenseNode( secondNode, rel );
+            }
+        }
+        else
+        {
+            rel.setSecondNextRel( secondNode.getNextRel() );
+            connect( secondNode.getId(), secondNode.getNextRel(), rel );
+        }
+        if ( !firstNode.isDense() )
+        {
+            firstNode.setNextRel( rel.getId() );
+        }
+        if ( !secondNode.isDense() )
+        {
+            secondNode.setNextRel( rel.getId() );
+        }
     }
 
-    private void connect( NodeRecord node, RelationshipRecord rel )
+    private void connect( long nodeId, long firstRelId, RelationshipRecord rel )
     {
-        if ( node.getNextRel() != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        if ( firstRelId != Record.NO_NEXT_RELATIONSHIP.intValue() )
         {
-            Relationship lockableRel = new LockableRelationship( node.getNextRel() );
+            Relationship lockableRel = new LockableRelationship( firstRelId );
             getWriteLock( lockableRel );
-            RelationshipRecord nextRel = relRecords.getOrLoad( node.getNextRel(), null ).forChangingLinkage();
+            RelationshipRecord nextRel = relRecords.getOrLoad( firstRelId, null ).forChangingLinkage();
             boolean changed = false;
-            if ( nextRel.getFirstNode() == node.getId() )
+            if ( nextRel.getFirstNode() == nodeId )
             {
                 nextRel.setFirstPrevRel( rel.getId() );
                 changed = true;
             }
-            if ( nextRel.getSecondNode() == node.getId() )
+            if ( nextRel.getSecondNode() == nodeId )
             {
                 nextRel.setSecondPrevRel( rel.getId() );
                 changed = true;
             }
             if ( !changed )
             {
-                throw new InvalidRecordException( node + " dont match " + nextRel );
+                throw new InvalidRecordException( "Node[" + nodeId + "] dont match " + nextRel );
+            }
+        }
+    }
+
+    /**
+     * Prepends the relationship to the chain for its type and direction in the dense node's
+     * relationship group, creating the group if this is the first relationship of that type.
+     */
+    private void connectToDenseNode( NodeRecord node, RelationshipRecord rel )
+    {
+        RelationshipGroupRecord group = getOrCreateRelationshipGroup( node, rel.getType() );
+        int chain = chainOf( node, rel );
+        long firstRelId = firstInGroupChain( group, chain );
+        if ( rel.getFirstNode() == node.getId() )
+        {
+            rel.setFirstNextRel( firstRelId );
+        }
+        if ( rel.getSecondNode() == node.getId() )
+        {
+            rel.setSecondNextRel( firstRelId );
+        }
+        connect( node.getId(), firstRelId, rel );
+        setFirstInGroupChain( group, chain, rel.getId() );
+    }
+
+    /**
+     * Converts a sparse node into a dense node when it has reached the configured number of
+     * relationships. Nodes that stay below the threshold only pay for walking their own, short, chain.
+     */
+    private void convertToDenseNodeIfNeeded( NodeRecord node )
+    {
+        if ( node.isDense() )
+        {
+            return;
+        }
+        int threshold = neoStore.getDenseNodeThreshold();
+        int count = 0;
+        long relId = node.getNextRel();
+        while ( relId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            if ( ++count >= threshold )
+            {
+                convertToDenseNode( node );
+                return;
+            }
+            RelationshipRecord rel = relRecords.getOrLoad( relId, null ).forReadingLinkage();
+            relId = rel.getFirstNode() == node.getId() ? rel.getFirstNextRel() : rel.getSecondNextRel();
+        }
+    }
+
+    private void convertToDenseNode( NodeRecord node )
+    {
+        long relId = node.getNextRel();
+        node.setDense( true );
+        node.setNextRel( Record.NO_NEXT_RELATIONSHIP.intValue() );
+        while ( relId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            getWriteLock( new LockableRelationship( relId ) );
+            RelationshipRecord rel = relRecords.getOrLoad( relId, null ).forChangingLinkage();
+            long nextRelId;
+            if ( rel.getFirstNode() == node.getId() )
+            {
+                nextRelId = rel.getFirstNextRel();
+                rel.setFirstPrevRel( Record.NO_PREV_RELATIONSHIP.intValue() );
+            }
+            else
+            {
+                nextRelId = rel.getSecondNextRel();
+            }
+            if ( rel.getSecondNode() == node.getId() )
+            {
+                rel.setSecondPrevRel( Record.NO_PREV_RELATIONSHIP.intValue() );
+            }
+            connectToDenseNode( node, rel );
+            relId = nextRelId;
+        }
+    }
+
+    private static final int OUTGOING_CHAIN = 0, INCOMING_CHAIN = 1, LOOP_CHAIN = 2;
+
+    private static int chainOf( NodeRecord node, RelationshipRecord rel )
+    {
+        if ( rel.getFirstNode() == rel.getSecondNode() )
+        {
+            return LOOP_CHAIN;
+        }
+        return rel.getFirstNode() == node.getId() ? OUTGOING_CHAIN : INCOMING_CHAIN;
+    }
+
+    private static long firstInGroupChain( RelationshipGroupRecord group, int chain )
+    {
+        switch ( chain )
+        {
+        case OUTGOING_CHAIN: return group.getFirstOut();
+        case INCOMING_CHAIN: return group.getFirstIn();
+        default: return group.getFirstLoop();
+        }
+    }
+
+    private static void setFirstInGroupChain( RelationshipGroupRecord group, int chain, long relId )
+    {
+        switch ( chain )
+        {
+        case OUTGOING_CHAIN: group.setFirstOut( relId ); break;
+        case INCOMING_CHAIN: group.setFirstIn( relId ); break;
+        default: group.setFirstLoop( relId ); break;
+        }
+    }
+
+    /**
+     * @return the group of the given type for the dense node, or {@code null} if there's none.
+     */
+    private RelationshipGroupRecord getRelationshipGroup( NodeRecord node, int type )
+    {
+        long groupId = node.getNextRel();
+        while ( groupId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RelationshipGroupRecord group = relGroupRecords.getOrLoad( groupId, null ).forReadingData();
+            if ( group.getType() == type )
+            {
+                return group;
+            }
+            groupId = group.getNext();
+        }
+        return null;
+    }
+
+    private RelationshipGroupRecord getOrCreateRelationshipGroup( NodeRecord node, int type )
+    {
+        // The groups of a node are kept sorted by type
+        RelationshipGroupRecord previous = null;
+        long groupId = node.getNextRel();
+        while ( groupId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RelationshipGroupRecord group = relGroupRecords.getOrLoad( groupId, null ).forReadingData();
+            if ( group.getType() == type )
+            {
+                return relGroupRecords.getOrLoad( groupId, null ).forChangingData();
+            }
+            if ( group.getType() > type )
+            {
+                break;
             }
+            previous = group;
+            groupId = group.getNext();
+        }
+
+        long id = getRelationshipGroupStore().nextId();
+        RelationshipGroupRecord group = relGroupRecords.create( id, type ).forChangingData();
+        group.setInUse( true );
+        group.setCreated();
+        group.setOwningNode( node.getId() );
+        group.setNext( groupId );
+        if ( previous == null )
+        {
+            node.setNextRel( id );
+        }
+        else
+        {
+            relGroupRecords.getOrLoad( previous.getId(), null ).forChangingData().setNext( id );
+        }
+        return group;
+    }
+
+    private void deleteRelationshipGroup( NodeRecord node, RelationshipGroupRecord group )
+    {
+        long previousId = Record.NO_NEXT_RELATIONSHIP.intValue();
+        long groupId = node.getNextRel();
+        while ( groupId != group.getId() )
+        {
+            previousId = groupId;
+            groupId = relGroupRecords.getOrLoad( groupId, null ).forReadingData().getNext();
+        }
+        if ( previousId == Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            node.setNextRel( group.getNext() );
+        }
+        else
+        {
+            relGroupRecords.getOrLoad( previousId, null ).forChangingData().setNext( group.getNext() );
         }
+        group.setInUse( false );
     }
 
     @Override
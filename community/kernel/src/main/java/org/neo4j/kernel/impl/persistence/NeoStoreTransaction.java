@@ -23,8 +23,8 @@ import java.util.Map;
 import javax.transaction.SystemException;
 import javax.transaction.Transaction;
 
-import org.neo4j.helpers.Pair;
 import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+import org.neo4j.kernel.impl.core.RelationshipLoadingPosition;
 import org.neo4j.kernel.impl.core.Token;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyData;
@@ -298,19 +298,20 @@ public interface NeoStoreTransaction
      */
     void createRelationshipTypeToken( int id, String name );
 
-    long getRelationshipChainPosition( long nodeId );
+    RelationshipLoadingPosition getRelationshipChainPosition( long nodeId );
 
     /*
-     * List<Iterable<RelationshipRecord>> is a list with three items:
-     * 0: outgoing relationships
-     * 1: incoming relationships
-     * 2: loop relationships
+     * The returned map has up to three entries:
+     * OUTGOING: outgoing relationships
+     * INCOMING: incoming relationships
+     * BOTH: loop relationships
      *
-     * Long is the relationship chain position as it stands after this
-     * batch of relationships has been loaded.
+     * Only relationships matching the direction and types (empty meaning all types) are
+     * guaranteed to be loaded. The position is moved forward to where the next batch
+     * should continue from.
      */
-    Pair<Map<DirectionWrapper, Iterable<RelationshipRecord>>, Long> getMoreRelationships(
-            long nodeId, long position );
+    Map<DirectionWrapper, Iterable<RelationshipRecord>> getMoreRelationships(
+            long nodeId, RelationshipLoadingPosition position, DirectionWrapper direction, int[] types );
 
     /**
      * Returns the index key ids that are contained within the property record
@@ -22,6 +22,8 @@ package org.neo4j.kernel.impl.storemigration;
 import java.io.File;
 import java.io.IOException;
 
+import org.neo4j.helpers.Predicate;
+import org.neo4j.helpers.collection.Iterables;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 
 public class DatabaseFiles
@@ -43,7 +45,7 @@ public class DatabaseFiles
                     backupDirectory.getAbsolutePath() ) );
         }
         fs.mkdir( backupDirectory );
-        move( workingDirectory, backupDirectory, StoreFile.legacyStoreFiles() );
+        move( workingDirectory, backupDirectory, existingStoreFiles( workingDirectory ) );
     }
 
     public void moveToWorkingDirectory( File upgradeDirectory, File workingDirectory )
@@ -51,6 +53,21 @@ public class DatabaseFiles
         move( upgradeDirectory, workingDirectory, StoreFile.currentStoreFiles() );
     }
 
+    /**
+     * The store files of the database being upgraded, which depend on the version it's upgraded from.
+     */
+    private Iterable<StoreFile> existingStoreFiles( final File workingDirectory )
+    {
+        return Iterables.filter( new Predicate<StoreFile>()
+        {
+            @Override
+            public boolean accept( StoreFile item )
+            {
+                return fs.fileExists( new File( workingDirectory, item.storeFileName() ) );
+            }
+        }, StoreFile.currentStoreFiles() );
+    }
+
     private void move( File fromDirectory, File toDirectory, Iterable<StoreFile> storeFiles )
     {
         try
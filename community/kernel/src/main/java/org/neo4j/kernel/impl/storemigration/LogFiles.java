@@ -27,13 +27,17 @@ import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 
 public class LogFiles
 {
+    private static final String LEGACY_INDEX_DIRECTORY = "index";
+
     private static final class LogicalLogFilenameFilter implements
             FilenameFilter
     {
-        private static final String[] logFilenamePatterns = { "active_tx_log",
-                "nioneo_logical\\.log.*", /* covers current log, active log marker
-                                            and backups */
-                "tm_tx_log\\..*" };
+        private final String[] logFilenamePatterns;
+
+        LogicalLogFilenameFilter( String... logFilenamePatterns )
+        {
+            this.logFilenamePatterns = logFilenamePatterns;
+        }
 
         @Override
         public boolean accept( File dir, String name )
@@ -49,10 +53,20 @@ public class LogFiles
         }
     }
 
+    private static final FilenameFilter STORE_LOGS = new LogicalLogFilenameFilter( "active_tx_log",
+            "nioneo_logical\\.log.*", /* covers current log, active log marker
+                                        and backups */
+            "tm_tx_log\\..*" );
+
+    private static final FilenameFilter LEGACY_INDEX_LOGS = new LogicalLogFilenameFilter( "lucene\\.log.*" );
+
     /**
      * Moves all logical logs of a database from one directory
      * to another. Since it just renames files (the standard way of moving with
      * JDK6) from and to must be on the same disk partition.
+     *
+     * The logs of the legacy indexes are moved along with the others, into an index directory
+     * of their own, since they are written in the same log format.
      * @param fs 
      *
      * @param filename The base filename for the logical logs
@@ -66,7 +80,20 @@ public class LogFiles
         assert fs.isDirectory( fromDirectory );
         assert fs.isDirectory( toDirectory );
 
-        FilenameFilter filter = new LogicalLogFilenameFilter();
+        move( fs, fromDirectory, toDirectory, STORE_LOGS );
+
+        File fromIndexDirectory = new File( fromDirectory, LEGACY_INDEX_DIRECTORY );
+        if ( fs.isDirectory( fromIndexDirectory ) )
+        {
+            File toIndexDirectory = new File( toDirectory, LEGACY_INDEX_DIRECTORY );
+            fs.mkdirs( toIndexDirectory );
+            move( fs, fromIndexDirectory, toIndexDirectory, LEGACY_INDEX_LOGS );
+        }
+    }
+
+    private static void move( FileSystemAbstraction fs, File fromDirectory, File toDirectory,
+            FilenameFilter filter ) throws IOException
+    {
         for ( File logFile : fs.listFiles( fromDirectory ) )
         {
             if ( filter.accept( fromDirectory, logFile.getName() ) )
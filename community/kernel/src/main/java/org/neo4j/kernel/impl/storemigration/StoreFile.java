@@ -33,16 +33,17 @@ public enum StoreFile
 {
     NEO_STORE( "NeoStore", "" ),
     NODE_STORE( "NodeStore", StoreFactory.NODE_STORE_NAME ),
-    NODE_LABEL_STORE( "NodeLabelStore", StoreFactory.NODE_LABELS_STORE_NAME, false ),
+    NODE_LABEL_STORE( "ArrayPropertyStore", StoreFactory.NODE_LABELS_STORE_NAME, false ),
     PROPERTY_STORE( "PropertyStore", StoreFactory.PROPERTY_STORE_NAME ),
     PROPERTY_ARRAY_STORE( "ArrayPropertyStore", StoreFactory.PROPERTY_ARRAYS_STORE_NAME ),
     PROPERTY_STRING_STORE( "StringPropertyStore", StoreFactory.PROPERTY_STRINGS_STORE_NAME ),
     PROPERTY_INDEX_STORE( "PropertyIndexStore", StoreFactory.PROPERTY_KEY_TOKEN_STORE_NAME ),
     PROPERTY_INDEX_KEYS_STORE( "StringPropertyStore", StoreFactory.PROPERTY_KEY_TOKEN_NAMES_STORE_NAME ),
     RELATIONSHIP_STORE( "RelationshipStore", StoreFactory.RELATIONSHIP_STORE_NAME ),
+    RELATIONSHIP_GROUP_STORE( "RelationshipGroupStore", StoreFactory.RELATIONSHIP_GROUP_STORE_NAME, false ),
     RELATIONSHIP_TYPE_STORE( "RelationshipTypeStore", StoreFactory.RELATIONSHIP_TYPE_TOKEN_STORE_NAME ),
     RELATIONSHIP_TYPE_NAMES_STORE( "StringPropertyStore", StoreFactory.RELATIONSHIP_TYPE_TOKEN_NAMES_STORE_NAME ),
-    LABEL_NAME_STORE( "LabelNameStore", StoreFactory.LABEL_TOKEN_STORE_NAME, false ),
+    LABEL_NAME_STORE( "LabelTokenStore", StoreFactory.LABEL_TOKEN_STORE_NAME, false ),
     LABEL_NAME_NAMES_STORE( "StringPropertyStore", StoreFactory.LABEL_TOKEN_NAMES_STORE_NAME, false ),
     SCHEMA_STORE( "SchemaStore", StoreFactory.SCHEMA_STORE_NAME, false );
     
@@ -64,7 +65,12 @@ public enum StoreFile
     
     public String legacyVersion()
     {
-        return typeDescriptor + " " + LegacyStore.LEGACY_VERSION;
+        return legacyVersion( LegacyStore.LEGACY_VERSION );
+    }
+
+    public String legacyVersion( String version )
+    {
+        return typeDescriptor + " " + version;
     }
     
     public String storeFileName()
@@ -91,6 +97,23 @@ public enum StoreFile
         return Iterables.filter( predicate, storeFiles );
     }
     
+    /**
+     * @return the store files of a {@link LegacyStore#LEGACY_20_VERSION} store, which are the current ones except
+     * for the relationship group store.
+     */
+    public static Iterable<StoreFile> legacy20StoreFiles()
+    {
+        Predicate<StoreFile> predicate = new Predicate<StoreFile>()
+        {
+            @Override
+            public boolean accept( StoreFile item )
+            {
+                return item != RELATIONSHIP_GROUP_STORE;
+            }
+        };
+        return Iterables.filter( predicate, currentStoreFiles() );
+    }
+
     public static Iterable<StoreFile> currentStoreFiles()
     {
         return Iterables.iterable( values() );
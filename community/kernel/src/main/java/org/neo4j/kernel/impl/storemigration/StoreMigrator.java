@@ -75,11 +75,18 @@ public class StoreMigrator
         {
             this.legacyStore = legacyStore;
             this.neoStore = neoStore;
-            totalEntities = legacyStore.getNodeStoreReader().getMaxId();
+            // a store without any node records, which there can be from 2.0 on, still reports progress sensibly
+            totalEntities = Math.max( 1, legacyStore.getNodeStoreReader().getMaxId() );
         }
 
         private void migrate() throws IOException
         {
+            if ( LegacyStore.LEGACY_20_VERSION.equals( legacyStore.getLegacyVersion() ) )
+            {
+                migrateFromLegacy20();
+                return;
+            }
+
             // Migrate
             migrateNeoStore( neoStore );
             migrateNodes( neoStore.getNodeStore() );
@@ -97,6 +104,36 @@ public class StoreMigrator
             legacyStore.copyDynamicArrayPropertyStore( neoStore );
         }
 
+        /**
+         * Node records got an extra byte for the dense flag, and the relationship group store is new. Nodes are
+         * rewritten as sparse nodes, the empty group store is the one created with the new store, and all other
+         * stores are copied as they are.
+         */
+        private void migrateFromLegacy20() throws IOException
+        {
+            // Migrate
+            migrateNeoStore( neoStore );
+            migrateNodes( neoStore.getNodeStore() );
+
+            // Close
+            neoStore.close();
+            legacyStore.close();
+
+            // Just copy unchanged stores that doesn't need migration
+            legacyStore.copyNodeLabelStore( neoStore );
+            legacyStore.copyRelationshipStore( neoStore );
+            legacyStore.copyRelationshipTypeTokenStore( neoStore );
+            legacyStore.copyRelationshipTypeTokenNameStore( neoStore );
+            legacyStore.copyLabelTokenStore( neoStore );
+            legacyStore.copyLabelTokenNameStore( neoStore );
+            legacyStore.copyPropertyStore( neoStore );
+            legacyStore.copyPropertyKeyTokenStore( neoStore );
+            legacyStore.copyPropertyKeyTokenNameStore( neoStore );
+            legacyStore.copyDynamicStringPropertyStore( neoStore );
+            legacyStore.copyDynamicArrayPropertyStore( neoStore );
+            legacyStore.copySchemaStore( neoStore );
+        }
+
         private void migratePropertyIndexes( PropertyStore propertyStore ) throws IOException
         {
             Token[] tokens = legacyStore.getPropertyIndexReader().readTokens();
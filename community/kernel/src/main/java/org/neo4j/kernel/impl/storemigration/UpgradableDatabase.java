@@ -26,6 +26,7 @@ import java.nio.channels.FileChannel;
 
 import org.neo4j.helpers.UTF8;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.storemigration.legacystore.LegacyStore;
 
 /**
  * Logic to check whether a database version is upgradable to the current version. It looks at the
@@ -59,9 +60,10 @@ public class UpgradableDatabase
     public void checkUpgradeable( File neoStoreFile )
     {
         File storeDirectory = neoStoreFile.getParentFile();
-        for ( StoreFile store : StoreFile.legacyStoreFiles() )
+        boolean legacy20 = isLegacy20Store( neoStoreFile );
+        for ( StoreFile store : legacy20 ? StoreFile.legacy20StoreFiles() : StoreFile.legacyStoreFiles() )
         {
-            String expectedVersion = store.legacyVersion();
+            String expectedVersion = legacy20 ? store.legacyVersion( LegacyStore.LEGACY_20_VERSION ) : store.legacyVersion();
             FileChannel fileChannel = null;
             byte[] expectedVersionBytes = UTF8.encode( expectedVersion );
             try
@@ -110,4 +112,17 @@ public class UpgradableDatabase
             }
         }
     }
+
+    private boolean isLegacy20Store( File neoStoreFile )
+    {
+        try
+        {
+            return LegacyStore.hasVersionTrailer( fs, neoStoreFile,
+                    StoreFile.NEO_STORE.legacyVersion( LegacyStore.LEGACY_20_VERSION ) );
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
 }
@@ -41,15 +41,26 @@ public class LegacyNodeStoreReader implements Closeable
 {
     public static final String FROM_VERSION = "NodeStore " + LegacyStore.LEGACY_VERSION;
     public static final int RECORD_SIZE = 9;
+    // in_use(byte)+next_rel_id(int)+next_prop_id(int)+labels(5), i.e. the current record without the extra byte
+    public static final int LEGACY_20_RECORD_SIZE = 14;
 
     private final FileChannel fileChannel;
+    private final boolean withLabels;
+    private final int recordSize;
     private final long maxId;
 
     public LegacyNodeStoreReader( FileSystemAbstraction fs, File fileName ) throws IOException
+    {
+        this( fs, fileName, LegacyStore.LEGACY_VERSION );
+    }
+
+    public LegacyNodeStoreReader( FileSystemAbstraction fs, File fileName, String legacyVersion ) throws IOException
     {
         fileChannel = fs.open( fileName, "r" );
-        int endHeaderSize = UTF8.encode( FROM_VERSION ).length;
-        maxId = (fileChannel.size() - endHeaderSize) / RECORD_SIZE;
+        withLabels = LegacyStore.LEGACY_20_VERSION.equals( legacyVersion );
+        recordSize = withLabels ? LEGACY_20_RECORD_SIZE : RECORD_SIZE;
+        int endHeaderSize = UTF8.encode( "NodeStore " + legacyVersion ).length;
+        maxId = (fileChannel.size() - endHeaderSize) / recordSize;
     }
 
     public long getMaxId()
@@ -62,7 +73,7 @@ public class LegacyNodeStoreReader implements Closeable
         return new PrefetchingIterator<NodeRecord>()
         {
             long id = 0;
-            ByteBuffer buffer = allocateDirect( RECORD_SIZE );
+            ByteBuffer buffer = allocateDirect( recordSize );
 
             @Override
             protected NodeRecord fetchNextOrNull()
@@ -70,7 +81,7 @@ public class LegacyNodeStoreReader implements Closeable
                 NodeRecord nodeRecord = null;
                 while ( nodeRecord == null && id <= maxId )
                 {
-                    readIntoBuffer( fileChannel, buffer, RECORD_SIZE );
+                    readIntoBuffer( fileChannel, buffer, recordSize );
                     long inUseByte = buffer.get();
 
                     boolean inUse = (inUseByte & 0x1) == Record.IN_USE.intValue();
@@ -81,6 +92,12 @@ public class LegacyNodeStoreReader implements Closeable
                         long nextProp = LegacyStore.getUnsignedInt( buffer );
                         long propModifier = (inUseByte & 0xF0L) << 28;
                         nodeRecord = new NodeRecord( id, longFromIntAndMod( nextRel, relModifier ), longFromIntAndMod( nextProp, propModifier ) );
+                        if ( withLabels )
+                        {
+                            long lsbLabels = LegacyStore.getUnsignedInt( buffer );
+                            long hsbLabels = buffer.get() & 0xFF;
+                            nodeRecord.setLabelField( lsbLabels | (hsbLabels << 32) );
+                        }
                     }
                     else nodeRecord = new NodeRecord( id, Record.NO_NEXT_RELATIONSHIP.intValue(), Record.NO_NEXT_PROPERTY.intValue() );
                     nodeRecord.setInUse( inUse );
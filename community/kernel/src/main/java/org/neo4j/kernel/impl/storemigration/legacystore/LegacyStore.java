@@ -33,11 +33,13 @@ import org.neo4j.kernel.impl.nioneo.store.DynamicArrayStore;
 import org.neo4j.kernel.impl.nioneo.store.DynamicStringStore;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.nioneo.store.IdGeneratorImpl;
+import org.neo4j.kernel.impl.nioneo.store.LabelTokenStore;
 import org.neo4j.kernel.impl.nioneo.store.NeoStore;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenStore;
 import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenStore;
+import org.neo4j.kernel.impl.nioneo.store.SchemaStore;
 import org.neo4j.kernel.impl.nioneo.store.StoreFactory;
 
 import static org.neo4j.kernel.impl.nioneo.store.CommonAbstractStore.buildTypeDescriptorAndVersion;
@@ -48,13 +50,17 @@ import static org.neo4j.kernel.impl.nioneo.store.CommonAbstractStore.buildTypeDe
  * Since only one store migration is supported at any given version (migration from the previous store version)
  * the reader code is specific for the current upgrade and changes with each store format version.
  * 
- * {@link #LEGACY_VERSION} marks which version it's able to read.
+ * {@link #LEGACY_VERSION} marks which version it's able to read. Stores of {@link #LEGACY_20_VERSION} are read
+ * as well, since they only differ from the current version in the size of node records and the missing
+ * relationship group store.
  */
 public class LegacyStore implements Closeable
 {
     public static final String LEGACY_VERSION = "v0.A.0";
+    public static final String LEGACY_20_VERSION = "v0.A.1";
 
     private final File storageFileName;
+    private final String legacyVersion;
     private final Collection<Closeable> allStoreReaders = new ArrayList<Closeable>();
     private LegacyNodeStoreReader nodeStoreReader;
     private LegacyPropertyIndexStoreReader propertyIndexReader;
@@ -67,6 +73,9 @@ public class LegacyStore implements Closeable
         this.fs = fs;
         this.storageFileName = storageFileName;
         assertLegacyAndCurrentVersionHaveSameLength( LEGACY_VERSION, CommonAbstractStore.ALL_STORES_VERSION );
+        assertLegacyAndCurrentVersionHaveSameLength( LEGACY_20_VERSION, CommonAbstractStore.ALL_STORES_VERSION );
+        this.legacyVersion = hasVersionTrailer( fs, storageFileName, NeoStore.TYPE_DESCRIPTOR + " " + LEGACY_20_VERSION )
+                ? LEGACY_20_VERSION : LEGACY_VERSION;
         initStorage();
     }
     
@@ -81,8 +90,43 @@ public class LegacyStore implements Closeable
             throw new IllegalStateException( "Encoded version string length must remain the same between versions" );
     }
 
+    /**
+     * @return whether the given store file ends with the given type descriptor and version.
+     */
+    public static boolean hasVersionTrailer( FileSystemAbstraction fs, File storeFile, String typeDescriptorAndVersion )
+            throws IOException
+    {
+        if ( !fs.fileExists( storeFile ) )
+        {
+            return false;
+        }
+        byte[] expected = UTF8.encode( typeDescriptorAndVersion );
+        FileChannel fileChannel = fs.open( storeFile, "r" );
+        try
+        {
+            if ( fileChannel.size() < expected.length )
+            {
+                return false;
+            }
+            fileChannel.position( fileChannel.size() - expected.length );
+            byte[] found = new byte[expected.length];
+            fileChannel.read( ByteBuffer.wrap( found ) );
+            return typeDescriptorAndVersion.equals( UTF8.decode( found ) );
+        }
+        finally
+        {
+            fileChannel.close();
+        }
+    }
+
     protected void initStorage() throws IOException
     {
+        if ( LEGACY_20_VERSION.equals( legacyVersion ) )
+        {
+            allStoreReaders.add( nodeStoreReader = new LegacyNodeStoreReader( fs,
+                    new File( getStorageFileName().getPath() + StoreFactory.NODE_STORE_NAME ), legacyVersion ) );
+            return;
+        }
         allStoreReaders.add( nodeStoreReader = new LegacyNodeStoreReader( fs, new File( getStorageFileName().getPath() + StoreFactory.NODE_STORE_NAME ) ) );
         allStoreReaders.add( propertyIndexReader = new LegacyPropertyIndexStoreReader( fs, new File( getStorageFileName().getPath() + StoreFactory.PROPERTY_KEY_TOKEN_STORE_NAME ) ) );
         allStoreReaders.add( propertyStoreReader = new LegacyPropertyStoreReader( fs, new File( getStorageFileName().getPath() + StoreFactory.PROPERTY_STORE_NAME ) ) );
@@ -92,6 +136,11 @@ public class LegacyStore implements Closeable
     {
         return storageFileName;
     }
+
+    public String getLegacyVersion()
+    {
+        return legacyVersion;
+    }
     
     public static long getUnsignedInt(ByteBuffer buf)
     {
@@ -191,6 +240,30 @@ public class LegacyStore implements Closeable
                 buildTypeDescriptorAndVersion( DynamicArrayStore.TYPE_DESCRIPTOR ) );
     }
 
+    public void copyLabelTokenStore( NeoStore neoStore ) throws IOException
+    {
+        copyStore( neoStore.getStorageFileName(), StoreFactory.LABEL_TOKEN_STORE_NAME,
+                buildTypeDescriptorAndVersion( LabelTokenStore.TYPE_DESCRIPTOR ) );
+    }
+
+    public void copyLabelTokenNameStore( NeoStore neoStore ) throws IOException
+    {
+        copyStore( neoStore.getStorageFileName(), StoreFactory.LABEL_TOKEN_NAMES_STORE_NAME,
+                buildTypeDescriptorAndVersion( DynamicStringStore.TYPE_DESCRIPTOR ) );
+    }
+
+    public void copyNodeLabelStore( NeoStore neoStore ) throws IOException
+    {
+        copyStore( neoStore.getStorageFileName(), StoreFactory.NODE_LABELS_STORE_NAME,
+                buildTypeDescriptorAndVersion( DynamicArrayStore.TYPE_DESCRIPTOR ) );
+    }
+
+    public void copySchemaStore( NeoStore neoStore ) throws IOException
+    {
+        copyStore( neoStore.getStorageFileName(), StoreFactory.SCHEMA_STORE_NAME,
+                buildTypeDescriptorAndVersion( SchemaStore.TYPE_DESCRIPTOR ) );
+    }
+
     public LegacyNodeStoreReader getNodeStoreReader()
     {
         return nodeStoreReader;
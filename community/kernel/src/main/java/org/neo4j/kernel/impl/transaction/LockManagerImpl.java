@@ -53,13 +53,38 @@ import org.neo4j.kernel.logging.Logging;
  */
 public class LockManagerImpl implements LockManager
 {
-    private final Map<Object,RWLock> resourceLockMap =
-        new HashMap<Object,RWLock>();
+    static final int DEFAULT_NUMBER_OF_STRIPES = 128;
+
+    private final LockStripe[] stripes;
+    private final int stripeMask;
 
     private final RagManager ragManager;
 
     public LockManagerImpl( RagManager ragManager )
     {
+        this( ragManager, DEFAULT_NUMBER_OF_STRIPES );
+    }
+
+    /**
+     * @param numberOfStripes the number of independently synchronized parts
+     * the lock table is divided into, rounded up to the closest power of two.
+     * A single stripe means that all lock acquisitions and releases serialize
+     * on one monitor.
+     */
+    LockManagerImpl( RagManager ragManager, int numberOfStripes )
+    {
+        if ( numberOfStripes < 1 )
+        {
+            throw new IllegalArgumentException( "Number of stripes must be positive, was " + numberOfStripes );
+        }
+        int size = Integer.highestOneBit( numberOfStripes );
+        size = size < numberOfStripes ? size << 1 : size;
+        this.stripes = new LockStripe[size];
+        for ( int i = 0; i < size; i++ )
+        {
+            stripes[i] = new LockStripe();
+        }
+        this.stripeMask = size - 1;
         this.ragManager = ragManager;
     }
 
@@ -87,18 +112,7 @@ public class LockManagerImpl implements LockManager
     {
         assertValidArguments( resource, tx );
 
-        RWLock lock;
-        synchronized ( resourceLockMap )
-        {
-            lock = resourceLockMap.get( resource );
-            if ( lock == null )
-            {
-                lock = new RWLock( resource, ragManager );
-                resourceLockMap.put( resource, lock );
-            }
-            lock.mark();
-        }
-        lock.acquireReadLock(tx);
+        getMarkedLock( resource ).acquireReadLock( tx );
     }
 
     /**
@@ -119,18 +133,35 @@ public class LockManagerImpl implements LockManager
     {
         assertValidArguments( resource, tx );
 
+        getMarkedLock( resource ).acquireWriteLock( tx );
+    }
+
+    private RWLock getMarkedLock( Object resource )
+    {
+        LockStripe stripe = stripeFor( resource );
         RWLock lock;
-        synchronized ( resourceLockMap )
+        synchronized ( stripe )
         {
-            lock = resourceLockMap.get( resource );
+            lock = stripe.locks.get( resource );
             if ( lock == null )
             {
-                lock = new RWLock( resource, ragManager );
-                resourceLockMap.put( resource, lock );
+                lock = stripe.newLock( resource, ragManager );
+                stripe.locks.put( resource, lock );
             }
             lock.mark();
         }
-        lock.acquireWriteLock(tx);
+        return lock;
+    }
+
+    private LockStripe stripeFor( Object resource )
+    {
+        // Spread the bits like HashMap does, resources hashing on entity id
+        // would otherwise map consecutive ids to consecutive stripes only by
+        // their lowest bits
+        int hash = resource.hashCode();
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return stripes[hash & stripeMask];
     }
 
     private void assertValidArguments( Object resource, Transaction tx )
@@ -157,22 +188,28 @@ public class LockManagerImpl implements LockManager
     {
         assertValidArguments( resource, tx );
 
-        RWLock lock;
-        synchronized ( resourceLockMap )
+        LockStripe stripe = stripeFor( resource );
+        synchronized ( stripe )
         {
-            lock = resourceLockMap.get( resource );
+            RWLock lock = stripe.locks.get( resource );
             if ( lock == null )
             {
                 throw new LockNotFoundException( "Lock not found for: "
                     + resource + " tx:" + tx );
             }
+            boolean last = false;
             if ( !lock.isMarked() && lock.getReadCount() == 1 &&
                 lock.getWriteCount() == 0 &&
                 lock.getWaitingThreadsCount() == 0 )
             {
-                resourceLockMap.remove( resource );
+                stripe.locks.remove( resource );
+                last = true;
             }
             lock.releaseReadLock(tx);
+            if ( last )
+            {
+                stripe.release( lock );
+            }
         }
     }
 
@@ -192,22 +229,28 @@ public class LockManagerImpl implements LockManager
     {
         assertValidArguments( resource, tx );
 
-        RWLock lock;
-        synchronized ( resourceLockMap )
+        LockStripe stripe = stripeFor( resource );
+        synchronized ( stripe )
         {
-            lock = resourceLockMap.get( resource );
+            RWLock lock = stripe.locks.get( resource );
             if ( lock == null )
             {
                 throw new LockNotFoundException( "Lock not found for: "
                     + resource + " tx:" + tx );
             }
+            boolean last = false;
             if ( !lock.isMarked() && lock.getReadCount() == 0 &&
                 lock.getWriteCount() == 1 &&
                 lock.getWaitingThreadsCount() == 0 )
             {
-                resourceLockMap.remove( resource );
+                stripe.locks.remove( resource );
+                last = true;
             }
             lock.releaseWriteLock(tx);
+            if ( last )
+            {
+                stripe.release( lock );
+            }
         }
     }
 
@@ -219,17 +262,18 @@ public class LockManagerImpl implements LockManager
     public void dumpLocksOnResource( Object resource, Logging logging )
     {
         StringLogger logger = logging.getMessagesLog( LockManager.class );
-        RWLock lock;
-        synchronized ( resourceLockMap )
+        LockStripe stripe = stripeFor( resource );
+        synchronized ( stripe )
         {
-            if ( !resourceLockMap.containsKey( resource ) )
+            RWLock lock = stripe.locks.get( resource );
+            if ( lock == null )
             {
                 logger.info( "No locks on " + resource );
                 return;
             }
-            lock = resourceLockMap.get( resource );
+            // Dump while holding the stripe so that the lock isn't reused for another resource meanwhile
+            logger.logLongMessage( "Dump locks on resource " + resource, lock );
         }
-        logger.logLongMessage( "Dump locks on resource " + resource, lock );
     }
 
     @Override
@@ -253,11 +297,14 @@ public class LockManagerImpl implements LockManager
      */
     private <V extends Visitor<LockInfo, RuntimeException>> V eachLock( V visitor )
     {
-        synchronized ( resourceLockMap )
+        for ( LockStripe stripe : stripes )
         {
-            for ( RWLock lock : resourceLockMap.values() )
+            synchronized ( stripe )
             {
-                if ( visitor.visit( lock.info() ) ) break;
+                for ( RWLock lock : stripe.locks.values() )
+                {
+                    if ( visitor.visit( lock.info() ) ) return visitor;
+                }
             }
         }
         return visitor;
@@ -277,11 +324,14 @@ public class LockManagerImpl implements LockManager
     private <V extends Visitor<LockInfo, RuntimeException>> V eachAwaitedLock( V visitor, long minWaitTime )
     {
         long waitStart = System.currentTimeMillis() - minWaitTime;
-        synchronized ( resourceLockMap )
+        for ( LockStripe stripe : stripes )
         {
-            for ( RWLock lock : resourceLockMap.values() )
+            synchronized ( stripe )
             {
-                if ( lock.acceptVisitorIfWaitedSinceBefore( visitor, waitStart ) ) break;
+                for ( RWLock lock : stripe.locks.values() )
+                {
+                    if ( lock.acceptVisitorIfWaitedSinceBefore( visitor, waitStart ) ) return visitor;
+                }
             }
         }
         return visitor;
@@ -308,6 +358,40 @@ public class LockManagerImpl implements LockManager
         dump.done();
     }
 
+    /**
+     * One part of the lock table, guarded by its own monitor. Keeps a few
+     * released locks around for reuse, since the vast majority of locks are
+     * short lived and uncontended.
+     */
+    private static final class LockStripe
+    {
+        private static final int MAX_POOLED_LOCKS = 16;
+
+        private final Map<Object,RWLock> locks = new HashMap<Object,RWLock>();
+        private final RWLock[] pool = new RWLock[MAX_POOLED_LOCKS];
+        private int pooled;
+
+        RWLock newLock( Object resource, RagManager ragManager )
+        {
+            if ( pooled > 0 )
+            {
+                RWLock lock = pool[--pooled];
+                pool[pooled] = null;
+                lock.reuse( resource );
+                return lock;
+            }
+            return new RWLock( resource, ragManager );
+        }
+
+        void release( RWLock lock )
+        {
+            if ( pooled < pool.length )
+            {
+                pool[pooled++] = lock;
+            }
+        }
+    }
+
     private static class ListAppendingVisitor implements Visitor<LockInfo, RuntimeException>
     {
         private final List<LockInfo> result = new ArrayList<LockInfo>();
@@ -70,7 +70,7 @@ class RWLock implements Visitor<LineLogger, RuntimeException>
     private int readCount = 0; // total readCount
     private int marked = 0; // synch helper in LockManager
 
-    private final Object resource; // the resource for this RWLock
+    private Object resource; // the resource for this RWLock
 
     private final LinkedList<WaitElement> waitingThreadList =
         new LinkedList<WaitElement>();
@@ -86,6 +86,19 @@ class RWLock implements Visitor<LineLogger, RuntimeException>
         this.ragManager = ragManager;
     }
 
+    /**
+     * Lets this lock, which must have been released by all transactions and
+     * not be marked or waited upon, guard another resource. Used by
+     * {@link LockManagerImpl} to pool locks instead of allocating a new one
+     * per lock acquisition.
+     */
+    synchronized void reuse( Object resource )
+    {
+        assert marked == 0 && readCount == 0 && writeCount == 0 &&
+            waitingThreadList.isEmpty() && txLockElementMap.size() == 0 : this + " still in use";
+        this.resource = resource;
+    }
+
     // keeps track of a transactions read and write lock count on this RWLock
     private static class TxLockElement
     {
@@ -19,12 +19,13 @@
  */
 package org.neo4j.kernel.impl.transaction;
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.transaction.Transaction;
@@ -71,9 +72,17 @@ public class RagManager implements Visitor<LineLogger, RuntimeException>
     // in a DeadlockDetectedException the transaction must wait
     // o When the transaction wakes up from waiting on a resource the
     // stopWaitOn( resource ) method must be invoked
+    //
+    // lockAcquired and lockReleased are called for every lock and aren't
+    // synchronized on this manager, only the methods dealing with waiting
+    // transactions are. RWLock only invokes them while holding its own
+    // monitor, so the locking transactions of any single resource are never
+    // modified concurrently. The deadlock check may see a slightly stale
+    // view of other resources, which is fine for the same reason as
+    // described in checkWaitOnRecursive.
 
     private final Map<Object,List<Transaction>> resourceMap =
-        new HashMap<Object,List<Transaction>>();
+        new ConcurrentHashMap<Object,List<Transaction>>();
 
     private final ArrayMap<Transaction,Object> waitingTxMap =
         new ArrayMap<Transaction,Object>( (byte)5, false, true );
@@ -85,7 +94,7 @@ public class RagManager implements Visitor<LineLogger, RuntimeException>
         return deadlockCount.longValue();
     }
 
-    synchronized void lockAcquired( Object resource, Transaction tx )
+    void lockAcquired( Object resource, Transaction tx )
     {
         List<Transaction> lockingTxList = resourceMap.get( resource );
         if ( lockingTxList != null )
@@ -95,13 +104,13 @@ public class RagManager implements Visitor<LineLogger, RuntimeException>
         }
         else
         {
-            lockingTxList = new LinkedList<Transaction>();
+            lockingTxList = new CopyOnWriteArrayList<Transaction>();
             lockingTxList.add( tx );
             resourceMap.put( resource, lockingTxList );
         }
     }
 
-    synchronized void lockReleased( Object resource, Transaction tx )
+    void lockReleased( Object resource, Transaction tx )
     {
         List<Transaction> lockingTxList = resourceMap.get( resource );
         if ( lockingTxList == null )
@@ -264,7 +273,7 @@ public class RagManager implements Visitor<LineLogger, RuntimeException>
             logger.logLine( "" + tx + "->" + waitingTxMap.get( tx ) );
         }
         logger.logLine( "Resource lock list: " );
-        Iterator<?> resources = resourceMap.keySet().iterator();
+        Iterator<Map.Entry<Object,List<Transaction>>> resources = resourceMap.entrySet().iterator();
         if ( !resources.hasNext() )
         {
             logger.logLine( "No locked resources found" );
@@ -275,9 +284,9 @@ public class RagManager implements Visitor<LineLogger, RuntimeException>
         }
         while ( resources.hasNext() )
         {
-            Object resource = resources.next();
-            logger.logLine( "" + resource + "->" );
-            Iterator<Transaction> itr = resourceMap.get( resource ).iterator();
+            Map.Entry<Object,List<Transaction>> resource = resources.next();
+            logger.logLine( "" + resource.getKey() + "->" );
+            Iterator<Transaction> itr = resource.getValue().iterator();
             if ( !itr.hasNext() )
             {
                 logger.logLine( " Error empty list found" );
@@ -44,6 +44,8 @@ import org.neo4j.kernel.api.operations.StatementState;
 import org.neo4j.kernel.impl.core.TransactionState;
 import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
 import org.neo4j.kernel.impl.transaction.xaframework.ForceMode;
+import org.neo4j.kernel.impl.transaction.xaframework.PendingCommit;
+import org.neo4j.kernel.impl.transaction.xaframework.XaResourceHelpImpl;
 import org.neo4j.kernel.impl.util.MultipleCauseException;
 import org.neo4j.kernel.impl.util.StringLogger;
 
@@ -74,6 +76,9 @@ class TransactionImpl implements Transaction
     private final TransactionState state;
     private KernelTransaction transactionContext;
 
+    private final List<PendingCommit> pendingCommits = new ArrayList<PendingCommit>();
+    private long markCommitTicket = -1;
+
     TransactionImpl( TxManager txManager, ForceMode forceMode, TransactionStateFactory stateFactory,
                      StringLogger logger )
     {
@@ -495,7 +500,12 @@ class TransactionImpl implements Transaction
         return true;
     }
 
-    void doCommit() throws XAException, SystemException
+    /**
+     * Prepares the resources and writes out the commit records of this transaction. Forcing records through
+     * group commit, and applying the transaction to the resources that wait for such forces, is left to
+     * {@link #completeCommit()} so that the transaction manager monitor needn't be held while forcing.
+     */
+    void appendCommit() throws XAException, SystemException
     {
         boolean onePhase = isOnePhase();
         boolean readOnly = true;
@@ -543,7 +553,7 @@ class TransactionImpl implements Transaction
             // everyone has prepared - mark as committing
             try
             {
-                txManager.getTxLog().markAsCommitting( getGlobalId(), forceMode );
+                markCommitTicket = txManager.getTxLog().appendMarkCommit( getGlobalId(), forceMode );
             }
             catch ( IOException e )
             {
@@ -561,14 +571,24 @@ class TransactionImpl implements Transaction
             {
                 try
                 {
-                    re.getResource().commit( re.getXid(), onePhase );
+                    XAResource resource = re.getResource();
+                    if ( resource instanceof XaResourceHelpImpl )
+                    {
+                        pendingCommits.add( ((XaResourceHelpImpl) resource).appendCommit( re.getXid(), onePhase ) );
+                    }
+                    else
+                    {
+                        resource.commit( re.getXid(), onePhase );
+                    }
                 }
                 catch ( XAException e )
                 {
+                    completePendingCommitsAfterFailure();
                     throw e;
                 }
                 catch ( Throwable e )
                 {
+                    completePendingCommitsAfterFailure();
                     throw Exceptions.withCause( new XAException( XAException.XAER_RMERR ), e );
                 }
             }
@@ -576,6 +596,80 @@ class TransactionImpl implements Transaction
         status = Status.STATUS_COMMITTED;
     }
 
+    /**
+     * Waits for the commit records written in {@link #appendCommit()} to be forced and has the resources
+     * waiting for that apply this transaction. Must be called without holding the transaction manager monitor.
+     */
+    void completeCommit() throws XAException, SystemException
+    {
+        IOException markCommitFailure = null;
+        if ( markCommitTicket != -1 )
+        {
+            try
+            {
+                txManager.getTxLog().awaitMarkCommitForced( markCommitTicket );
+            }
+            catch ( IOException e )
+            {
+                markCommitFailure = e;
+            }
+            markCommitTicket = -1;
+        }
+        // Other committers may be waiting for these to apply before they can, so complete them regardless
+        Throwable commitFailure = completePendingCommits();
+        if ( markCommitFailure != null )
+        {
+            logger.error( "Error writing transaction log", markCommitFailure );
+            txManager.setTmNotOk( markCommitFailure );
+            throw Exceptions.withCause( new SystemException( "TM encountered a problem, "
+                                                             + " error writing transaction log" ), markCommitFailure );
+        }
+        if ( commitFailure instanceof XAException )
+        {
+            throw (XAException) commitFailure;
+        }
+        if ( commitFailure != null )
+        {
+            throw Exceptions.withCause( new XAException( XAException.XAER_RMERR ), commitFailure );
+        }
+    }
+
+    private void completePendingCommitsAfterFailure()
+    {
+        // The resources that got their commit entries written are committed, just like they would have been
+        // without group commit
+        Throwable failure = completePendingCommits();
+        if ( failure != null )
+        {
+            logger.error( "Unable to complete commit of " + this, failure );
+        }
+    }
+
+    private Throwable completePendingCommits()
+    {
+        Throwable failure = null;
+        for ( PendingCommit pendingCommit : pendingCommits )
+        {
+            try
+            {
+                pendingCommit.complete();
+            }
+            catch ( Throwable e )
+            {
+                if ( failure == null )
+                {
+                    failure = e;
+                }
+                else
+                {
+                    logger.error( "Unable to complete commit of " + this, e );
+                }
+            }
+        }
+        pendingCommits.clear();
+        return failure;
+    }
+
     void doRollback() throws XAException
     {
         status = Status.STATUS_ROLLING_BACK;
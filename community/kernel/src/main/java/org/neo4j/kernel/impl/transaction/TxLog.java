@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.transaction;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -41,11 +42,11 @@ import org.neo4j.helpers.UTF8;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.transaction.xaframework.DirectMappedLogBuffer;
 import org.neo4j.kernel.impl.transaction.xaframework.ForceMode;
+import org.neo4j.kernel.impl.transaction.xaframework.GroupCommit;
 import org.neo4j.kernel.impl.transaction.xaframework.LogBuffer;
 
 // TODO: fixed sized logs (pre-initialize them)
 // keep dangling records in memory for log switch
-// batch disk forces
 /**
  * This class is made public for testing purposes only, do not use.
  * <p>
@@ -65,6 +66,28 @@ public class TxLog
     public static final byte MARK_COMMIT = 3;
     public static final byte TX_DONE = 4;
     private final FileSystemAbstraction fileSystem;
+    private final GroupCommit groupCommit;
+    private final GroupCommit.Forcer groupForcer = new GroupCommit.Forcer()
+    {
+        @Override
+        public void force() throws IOException
+        {
+            FileChannel channel;
+            synchronized ( TxLog.this )
+            {
+                logBuffer.writeOut();
+                channel = logBuffer.getFileChannel();
+            }
+            try
+            {
+                channel.force( false );
+            }
+            catch ( ClosedChannelException e )
+            {
+                // Switched to another log file or closed since, both of which force the log first
+            }
+        }
+    };
     
     private static final class ByteArrayKey
     {
@@ -100,12 +123,22 @@ public class TxLog
      *             If unable to open file
      */
     public TxLog( File fileName, FileSystemAbstraction fileSystem ) throws IOException
+    {
+        this( fileName, fileSystem, null );
+    }
+
+    /**
+     * Initializes a transaction log which, if {@code groupCommit} is non-null, lets concurrent
+     * {@link #markAsCommitting(byte[], ForceMode) committers} share forces of the file.
+     */
+    public TxLog( File fileName, FileSystemAbstraction fileSystem, GroupCommit groupCommit ) throws IOException
     {
         if ( fileName == null )
         {
             throw new IllegalArgumentException( "Null filename" );
         }
         this.fileSystem = fileSystem;
+        this.groupCommit = groupCommit;
         FileChannel fileChannel = fileSystem.open( fileName, "rw" );
         fileChannel.position( fileChannel.size() );
         logBuffer = new DirectMappedLogBuffer( fileChannel );
@@ -234,8 +267,49 @@ public class TxLog
      */
     // mark_committing(byte)|gid_length(byte)|globalId
     // forces
-    public synchronized void markAsCommitting( byte globalId[], ForceMode forceMode )
+    public void markAsCommitting( byte globalId[], ForceMode forceMode )
         throws IOException
+    {
+        long ticket = appendMarkCommit( globalId, forceMode );
+        if ( ticket != -1 )
+        {
+            awaitMarkCommitForced( ticket );
+        }
+    }
+
+    /**
+     * Writes a <CODE>MARK_COMMIT</CODE> record to the file. If the record is to be forced and group commit is
+     * in use, the force is left to {@link #awaitMarkCommitForced(long)} so that it can be shared with other
+     * committers.
+     *
+     * @return the ticket to pass in to {@link #awaitMarkCommitForced(long)}, or {@code -1} if the record
+     * already has been forced as requested by {@code forceMode}.
+     */
+    public long appendMarkCommit( byte globalId[], ForceMode forceMode ) throws IOException
+    {
+        if ( groupCommit == null || forceMode != ForceMode.forced )
+        {
+            writeMarkCommit( globalId, forceMode );
+            return -1;
+        }
+
+        synchronized ( this )
+        {
+            writeMarkCommit( globalId, ForceMode.unforced );
+            return groupCommit.appended();
+        }
+    }
+
+    /**
+     * Returns when the <CODE>MARK_COMMIT</CODE> record written for {@code ticket} has been forced. Must not be
+     * called while holding the monitor of this log.
+     */
+    public void awaitMarkCommitForced( long ticket ) throws IOException
+    {
+        groupCommit.awaitForced( ticket, groupForcer );
+    }
+
+    private synchronized void writeMarkCommit( byte globalId[], ForceMode forceMode ) throws IOException
     {
         assertNotNull( globalId, "global id" );
         assertActive( globalId );
@@ -355,7 +429,7 @@ public class TxLog
         }
         else if ( record.getType() == MARK_COMMIT )
         {
-            markAsCommitting( record.getGlobalId(), forceMode );
+            writeMarkCommit( record.getGlobalId(), forceMode );
         }
         else
         {
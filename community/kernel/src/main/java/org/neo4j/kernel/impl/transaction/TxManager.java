@@ -50,6 +50,7 @@ import org.neo4j.kernel.impl.core.KernelPanicEventGenerator;
 import org.neo4j.kernel.impl.core.TransactionState;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.transaction.xaframework.ForceMode;
+import org.neo4j.kernel.impl.transaction.xaframework.GroupCommit;
 import org.neo4j.kernel.impl.transaction.xaframework.XaDataSource;
 import org.neo4j.kernel.impl.transaction.xaframework.XaResource;
 import org.neo4j.kernel.impl.util.ExceptionCauseSetter;
@@ -91,6 +92,7 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
 
     private Throwable recoveryError;
     private final TransactionStateFactory stateFactory;
+    private final GroupCommit groupCommit;
 
     private KernelAPI kernel;
 
@@ -101,8 +103,21 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
                       FileSystemAbstraction fileSystem,
                       TransactionStateFactory stateFactory
     )
+    {
+        this( txLogDir, xaDataSourceManager, kpe, log, fileSystem, stateFactory, null );
+    }
+
+    public TxManager( File txLogDir,
+                      XaDataSourceManager xaDataSourceManager,
+                      KernelPanicEventGenerator kpe,
+                      StringLogger log,
+                      FileSystemAbstraction fileSystem,
+                      TransactionStateFactory stateFactory,
+                      GroupCommit groupCommit
+    )
     {
         this.txLogDir = txLogDir;
+        this.groupCommit = groupCommit;
         this.xaDataSourceManager = xaDataSourceManager;
         this.fileSystem = fileSystem;
         this.log = log;
@@ -374,7 +389,7 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
             throws SystemException, HeuristicMixedException,
             HeuristicRollbackException
     {
-        // mark as commit in log done TxImpl.doCommit()
+        // mark as commit in log done TxImpl.appendCommit()
         Throwable commitFailureCause = null;
         int xaErrorCode = -1;
         synchronized (this)
@@ -386,7 +401,8 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
             * lock in case of rollback but not if commit succeeds, which should be ok throughput wise. There is
             * some performance degradation related to this, since now we hold a lock over commit() for
             * (potentially) all resource managers, while without this monitor each commit() on each
-            * XaResourceManager locks only that.
+            * XaResourceManager locks only that. With group commit only the commit records are written out
+            * under this lock, waiting for them to be forced happens in completeCommit() below.
             */
             if ( tx.getResourceCount() == 0 )
             {
@@ -396,7 +412,7 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
             {
                 try
                 {
-                    tx.doCommit();
+                    tx.appendCommit();
                 }
                 catch ( XAException e )
                 {
@@ -512,6 +528,7 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
                 }
             }
         }
+        completeCommit( tx );
         tx.doAfterCompletion();
         try
         {
@@ -531,6 +548,25 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
         tx.setStatus( Status.STATUS_NO_TRANSACTION );
     }
 
+    private void completeCommit( TransactionImpl tx ) throws SystemException
+    {
+        try
+        {
+            tx.completeCommit();
+        }
+        catch ( SystemException e )
+        {
+            throw logAndReturn( "TM error tx commit", e );
+        }
+        catch ( Throwable t )
+        {
+            // The commit records have been written by now, so there's no rolling back
+            setTmNotOk( t );
+            throw logAndReturn( "TM error tx commit", new TransactionFailureException(
+                    "commit threw exception", t ) );
+        }
+    }
+
     private void rollbackCommit( TransactionImpl tx )
             throws HeuristicMixedException, RollbackException, SystemException
     {
@@ -744,7 +780,7 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
                                     "Unable to start TM, " + "active tx log file[" +
                                             currentTxLog + "] not found." ) );
                 }
-                txLog = new TxLog( currentTxLog, fileSystem );
+                txLog = new TxLog( currentTxLog, fileSystem, groupCommit );
                 log.logMessage( "TM opening log: " + currentTxLog, true );
             }
             else
@@ -764,7 +800,7 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
                         .getBytes( "UTF-8" ) );
                 FileChannel fc = fileSystem.open( logSwitcherFileName, "rw" );
                 fc.write( buf );
-                txLog = new TxLog( new File( txLogDir, txLog1FileName), fileSystem );
+                txLog = new TxLog( new File( txLogDir, txLog1FileName), fileSystem, groupCommit );
                 log.logMessage( "TM new log: " + txLog1FileName, true );
                 fc.force( true );
                 fc.close();
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.xaframework;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.configuration.Config;
+
+/**
+ * Lets concurrent committers share a single force of a log. A committer appends its commit entry to the
+ * log without forcing, takes a ticket from {@link #appended()} and then, after having released any monitor
+ * the log itself is guarded by, calls {@link #awaitForced(long, Forcer)}. The first committer to arrive
+ * becomes the leader of a batch; it optionally waits a short while for others to join, then forces once on
+ * behalf of every entry that had been appended when the force started. The others park until a force
+ * covering their ticket has completed.
+ */
+public class GroupCommit
+{
+    /**
+     * Forces whatever has been written to the underlying log so far.
+     */
+    public interface Forcer
+    {
+        void force() throws IOException;
+    }
+
+    private final AtomicLong appended = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition forceCompleted = lock.newCondition();
+    private final long maxBatchWaitNanos;
+    private final GroupCommitStatistics statistics;
+
+    // Guarded by lock
+    private long forcedUpTo;
+    private boolean forcing;
+
+    public GroupCommit( long maxBatchWaitNanos, GroupCommitStatistics statistics )
+    {
+        this.maxBatchWaitNanos = maxBatchWaitNanos;
+        this.statistics = statistics;
+    }
+
+    /**
+     * @return a {@link GroupCommit} configured from {@code config}, or {@code null} if group commit
+     * hasn't been enabled.
+     */
+    public static GroupCommit fromConfig( Config config, GroupCommitStatistics statistics )
+    {
+        if ( !config.get( GraphDatabaseSettings.use_group_commit ) )
+        {
+            return null;
+        }
+        long maxBatchWait = config.get( GraphDatabaseSettings.group_commit_max_batch_wait );
+        return new GroupCommit( TimeUnit.MILLISECONDS.toNanos( maxBatchWait ), statistics );
+    }
+
+    /**
+     * Called when an entry has been written out to the log, but not forced.
+     *
+     * @return the ticket to pass in to {@link #awaitForced(long, Forcer)}.
+     */
+    public long appended()
+    {
+        return appended.incrementAndGet();
+    }
+
+    /**
+     * Returns when a force covering {@code ticket} has completed, possibly after having performed that force
+     * using {@code forcer}. Must not be called while holding a monitor that {@code forcer} needs.
+     */
+    public void awaitForced( long ticket, Forcer forcer ) throws IOException
+    {
+        lock.lock();
+        try
+        {
+            while ( forcedUpTo < ticket )
+            {
+                if ( forcing )
+                {
+                    forceCompleted.awaitUninterruptibly();
+                    continue;
+                }
+                forcing = true;
+                forceBatch( forcer );
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private void forceBatch( Forcer forcer ) throws IOException
+    {
+        boolean success = false;
+        long covered = 0;
+        long startTime = 0;
+        try
+        {
+            awaitBatch();
+            covered = appended.get();
+            lock.unlock();
+            try
+            {
+                startTime = System.nanoTime();
+                forcer.force();
+                success = true;
+            }
+            finally
+            {
+                lock.lock();
+            }
+        }
+        finally
+        {
+            forcing = false;
+            if ( success )
+            {
+                statistics.batchForced( covered - forcedUpTo, System.nanoTime() - startTime );
+                forcedUpTo = covered;
+            }
+            forceCompleted.signalAll();
+        }
+    }
+
+    private void awaitBatch()
+    {
+        long remaining = maxBatchWaitNanos;
+        while ( remaining > 0 )
+        {
+            try
+            {
+                remaining = forceCompleted.awaitNanos( remaining );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.xaframework;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batch size and force latency figures for all {@link GroupCommit group commits} of a database.
+ */
+public class GroupCommitStatistics
+{
+    private final AtomicLong forces = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private final AtomicLong totalForceTimeNanos = new AtomicLong();
+    private final AtomicLong maxForceTimeNanos = new AtomicLong();
+
+    void batchForced( long batchSize, long forceTimeNanos )
+    {
+        forces.incrementAndGet();
+        commits.addAndGet( batchSize );
+        totalForceTimeNanos.addAndGet( forceTimeNanos );
+        setIfGreater( maxBatchSize, batchSize );
+        setIfGreater( maxForceTimeNanos, forceTimeNanos );
+    }
+
+    private static void setIfGreater( AtomicLong max, long value )
+    {
+        long current;
+        do
+        {
+            current = max.get();
+            if ( value <= current )
+            {
+                return;
+            }
+        }
+        while ( !max.compareAndSet( current, value ) );
+    }
+
+    /**
+     * @return the number of forces performed on behalf of a batch of commits.
+     */
+    public long getNumberOfForces()
+    {
+        return forces.get();
+    }
+
+    /**
+     * @return the number of commits that have been made durable by a group force.
+     */
+    public long getNumberOfCommits()
+    {
+        return commits.get();
+    }
+
+    public double getAverageBatchSize()
+    {
+        long forceCount = forces.get();
+        return forceCount == 0 ? 0d : (double) commits.get() / forceCount;
+    }
+
+    public long getMaxBatchSize()
+    {
+        return maxBatchSize.get();
+    }
+
+    /**
+     * @return the average time of a single force, in microseconds.
+     */
+    public long getAverageForceTime()
+    {
+        long forceCount = forces.get();
+        return forceCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros( totalForceTimeNanos.get() / forceCount );
+    }
+
+    /**
+     * @return the longest time a single force has taken, in microseconds.
+     */
+    public long getMaxForceTime()
+    {
+        return TimeUnit.NANOSECONDS.toMicros( maxForceTimeNanos.get() );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "GroupCommitStatistics[forces:" + getNumberOfForces() + ", commits:" + getNumberOfCommits() +
+                ", avgBatchSize:" + getAverageBatchSize() + ", maxBatchSize:" + getMaxBatchSize() +
+                ", avgForceTime:" + getAverageForceTime() + "us, maxForceTime:" + getMaxForceTime() + "us]";
+    }
+}
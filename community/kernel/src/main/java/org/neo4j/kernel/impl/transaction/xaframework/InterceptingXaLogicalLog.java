@@ -38,10 +38,11 @@ public class InterceptingXaLogicalLog extends XaLogicalLog
             XaCommandFactory cf, XaTransactionFactory xaTf,
             TransactionInterceptorProviders providers, LogBufferFactory logBufferFactory,
             FileSystemAbstraction fileSystem, Logging logging,
-            LogPruneStrategy pruneStrategy, TransactionStateFactory stateFactory, long rotateAtSize )
+            LogPruneStrategy pruneStrategy, TransactionStateFactory stateFactory, long rotateAtSize,
+            GroupCommit groupCommit, boolean mappedHistoryReads )
     {
         super( fileName, xaRm, cf, xaTf, logBufferFactory, fileSystem, logging, pruneStrategy,
-                stateFactory, rotateAtSize );
+                stateFactory, rotateAtSize, groupCommit, mappedHistoryReads );
         this.providers = providers;
         this.ds = xaRm.getDataSource();
     }
@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.xaframework;
+
+import javax.transaction.xa.XAException;
+
+/**
+ * What remains of a commit once its commit entry has been written to the logical log. Completing it waits
+ * for the entry to be forced, sharing that force with other committers through {@link GroupCommit}, and
+ * only then applies the transaction. Must be completed without holding any monitor that other committers
+ * need in order to write their commit entries.
+ */
+public interface PendingCommit
+{
+    /**
+     * @return the committed transaction.
+     */
+    XaTransaction complete() throws XAException;
+}
@@ -28,6 +28,7 @@ import org.neo4j.kernel.impl.transaction.AbstractTransactionManager;
 import org.neo4j.kernel.impl.transaction.TransactionStateFactory;
 import org.neo4j.kernel.logging.Logging;
 
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.logical_log_mapped_reads;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.logical_log_rotation_threshold;
 
 /**
@@ -43,10 +44,20 @@ public class XaFactory
     private final Logging logging;
     private final RecoveryVerifier recoveryVerifier;
     private final LogPruneStrategy pruneStrategy;
+    private final GroupCommitStatistics groupCommitStatistics;
 
     public XaFactory( Config config, TxIdGenerator txIdGenerator, AbstractTransactionManager txManager,
                       LogBufferFactory logBufferFactory, FileSystemAbstraction fileSystemAbstraction,
                       Logging logging, RecoveryVerifier recoveryVerifier, LogPruneStrategy pruneStrategy )
+    {
+        this( config, txIdGenerator, txManager, logBufferFactory, fileSystemAbstraction, logging, recoveryVerifier,
+                pruneStrategy, new GroupCommitStatistics() );
+    }
+
+    public XaFactory( Config config, TxIdGenerator txIdGenerator, AbstractTransactionManager txManager,
+                      LogBufferFactory logBufferFactory, FileSystemAbstraction fileSystemAbstraction,
+                      Logging logging, RecoveryVerifier recoveryVerifier, LogPruneStrategy pruneStrategy,
+                      GroupCommitStatistics groupCommitStatistics )
     {
         this.config = config;
         this.txIdGenerator = txIdGenerator;
@@ -56,6 +67,7 @@ public class XaFactory
         this.logging = logging;
         this.recoveryVerifier = recoveryVerifier;
         this.pruneStrategy = pruneStrategy;
+        this.groupCommitStatistics = groupCommitStatistics;
     }
 
     public XaContainer newXaContainer( XaDataSource xaDataSource, File logicalLog, XaCommandFactory cf,
@@ -72,16 +84,19 @@ public class XaFactory
         XaResourceManager rm = new XaResourceManager( xaDataSource, tf, txIdGenerator, txManager, recoveryVerifier, logicalLog.getName() );
 
         long rotateAtSize = config.get( logical_log_rotation_threshold );
+        GroupCommit groupCommit = GroupCommit.fromConfig( config, groupCommitStatistics );
+        boolean mappedHistoryReads = config.get( logical_log_mapped_reads );
         XaLogicalLog log;
         if ( providers.shouldInterceptDeserialized() && providers.hasAnyInterceptorConfigured() )
         {
             log = new InterceptingXaLogicalLog( logicalLog, rm, cf, tf, providers, logBufferFactory,
-                    fileSystemAbstraction, logging, pruneStrategy, stateFactory, rotateAtSize );
+                    fileSystemAbstraction, logging, pruneStrategy, stateFactory, rotateAtSize, groupCommit,
+                    mappedHistoryReads );
         }
         else
         {
             log = new XaLogicalLog( logicalLog, rm, cf, tf, logBufferFactory, fileSystemAbstraction,
-                    logging, pruneStrategy, stateFactory, rotateAtSize );
+                    logging, pruneStrategy, stateFactory, rotateAtSize, groupCommit, mappedHistoryReads );
         }
 
         // TODO These setters should be removed somehow
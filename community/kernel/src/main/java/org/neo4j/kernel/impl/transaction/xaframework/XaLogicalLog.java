@@ -27,6 +27,7 @@ import static org.neo4j.kernel.impl.transaction.xaframework.XaLogicalLogTokens.L
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.util.HashMap;
@@ -50,6 +51,7 @@ import org.neo4j.kernel.impl.transaction.xaframework.LogExtractor.TxPosition;
 import org.neo4j.kernel.impl.util.ArrayMap;
 import org.neo4j.kernel.impl.util.BufferedFileChannel;
 import org.neo4j.kernel.impl.util.FileUtils;
+import org.neo4j.kernel.impl.util.MappedFileChannel;
 import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.kernel.logging.Logging;
 
@@ -111,10 +113,52 @@ public class XaLogicalLog implements LogLoader
 
     private final TransactionStateFactory stateFactory;
 
+    private final GroupCommit groupCommit;
+    private final boolean mappedHistoryReads;
+    private final GroupCommit.Forcer groupForcer = new GroupCommit.Forcer()
+    {
+        @Override
+        public void force() throws IOException
+        {
+            FileChannel channel;
+            synchronized ( XaLogicalLog.this )
+            {
+                writeBuffer.writeOut();
+                channel = writeBuffer.getFileChannel();
+            }
+            try
+            {
+                channel.force( false );
+            }
+            catch ( ClosedChannelException e )
+            {
+                // The log has been rotated or closed since, both of which force it first
+            }
+        }
+    };
+
     public XaLogicalLog( File fileName, XaResourceManager xaRm, XaCommandFactory cf,
                          XaTransactionFactory xaTf, LogBufferFactory logBufferFactory, FileSystemAbstraction fileSystem,
                          Logging logging, LogPruneStrategy pruneStrategy, TransactionStateFactory stateFactory,
                          long rotateAtSize )
+    {
+        this( fileName, xaRm, cf, xaTf, logBufferFactory, fileSystem, logging, pruneStrategy, stateFactory,
+                rotateAtSize, null );
+    }
+
+    public XaLogicalLog( File fileName, XaResourceManager xaRm, XaCommandFactory cf,
+                         XaTransactionFactory xaTf, LogBufferFactory logBufferFactory, FileSystemAbstraction fileSystem,
+                         Logging logging, LogPruneStrategy pruneStrategy, TransactionStateFactory stateFactory,
+                         long rotateAtSize, GroupCommit groupCommit )
+    {
+        this( fileName, xaRm, cf, xaTf, logBufferFactory, fileSystem, logging, pruneStrategy, stateFactory,
+                rotateAtSize, groupCommit, false );
+    }
+
+    public XaLogicalLog( File fileName, XaResourceManager xaRm, XaCommandFactory cf,
+                         XaTransactionFactory xaTf, LogBufferFactory logBufferFactory, FileSystemAbstraction fileSystem,
+                         Logging logging, LogPruneStrategy pruneStrategy, TransactionStateFactory stateFactory,
+                         long rotateAtSize, GroupCommit groupCommit, boolean mappedHistoryReads )
     {
         this.fileName = fileName;
         this.xaRm = xaRm;
@@ -126,6 +170,8 @@ public class XaLogicalLog implements LogLoader
         this.stateFactory = stateFactory;
         this.rotateAtSize = rotateAtSize;
         this.autoRotate = rotateAtSize > 0;
+        this.groupCommit = groupCommit;
+        this.mappedHistoryReads = mappedHistoryReads;
         this.logFiles = new XaLogicalLogFiles( fileName, fileSystem );
 
         sharedBuffer = ByteBuffer.allocateDirect( 9 + Xid.MAXGTRIDSIZE
@@ -351,6 +397,31 @@ public class XaLogicalLog implements LogLoader
         }
     }
 
+    boolean hasGroupCommit()
+    {
+        return groupCommit != null;
+    }
+
+    /**
+     * Called after a commit entry has been written with {@link ForceMode#unforced} on behalf of a committer
+     * that wants it forced through group commit.
+     *
+     * @return the ticket to pass in to {@link #awaitGroupForce(long)}.
+     */
+    long groupCommitTicket()
+    {
+        return groupCommit.appended();
+    }
+
+    /**
+     * Returns when everything written before {@code ticket} was handed out has been forced. Must not be
+     * called while holding the monitor of this log.
+     */
+    void awaitGroupForce( long ticket ) throws IOException
+    {
+        groupCommit.awaitForced( ticket, groupForcer );
+    }
+
     // [DONE][identifier]
     public synchronized void done( int identifier ) throws XAException
     {
@@ -883,7 +954,8 @@ public class XaLogicalLog implements LogLoader
         }
         FileChannel channel = fileSystem.open( name, "r" );
         channel.position( position );
-        return new BufferedFileChannel( channel );
+        // History logs never change once rotated, so they can be mapped safely
+        return mappedHistoryReads ? MappedFileChannel.mapOrBuffer( channel ) : new BufferedFileChannel( channel );
     }
 
     private void extractPreparedTransactionFromLog( int identifier,
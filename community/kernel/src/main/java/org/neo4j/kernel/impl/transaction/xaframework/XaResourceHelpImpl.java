@@ -64,6 +64,23 @@ public abstract class XaResourceHelpImpl implements XaResource
         xaTx = xaRm.commit( xid, onePhase );
     }
 
+    /**
+     * Like {@link #commit(Xid, boolean)}, but with group commit only writes the commit entry, leaving the
+     * force and the application of the transaction to the returned {@link PendingCommit}.
+     */
+    public PendingCommit appendCommit( Xid xid, boolean onePhase ) throws XAException
+    {
+        final PendingCommit pendingCommit = xaRm.appendCommit( xid, onePhase );
+        return new PendingCommit()
+        {
+            @Override
+            public XaTransaction complete() throws XAException
+            {
+                return xaTx = pendingCommit.complete();
+            }
+        };
+    }
+
     public void end( Xid xid, int flags ) throws XAException
     {
         if ( flags == XAResource.TMSUCCESS )
@@ -35,6 +35,7 @@ import javax.transaction.xa.XAException;
 import javax.transaction.xa.XAResource;
 import javax.transaction.xa.Xid;
 
+import org.neo4j.helpers.Exceptions;
 import org.neo4j.kernel.impl.transaction.AbstractTransactionManager;
 import org.neo4j.kernel.impl.transaction.xaframework.LogEntry.Start;
 import org.neo4j.kernel.impl.util.ArrayMap;
@@ -366,6 +367,10 @@ public class XaResourceManager
     }
 
     private final Map<Xid,Integer> txOrderMap = new HashMap<Xid,Integer>();
+    // Guarded by this, the order in which group forced commits get to apply their transactions
+    private long nextApplyTurn = 0;
+    private long currentApplyTurn = 0;
+    private long lastGroupForcedTxId = -1;
     private int nextTxOrder = 0;
 
     // called during recovery
@@ -412,7 +417,17 @@ public class XaResourceManager
         return xaTransaction;
     }
 
-    /*synchronized(this) in the method*/ XaTransaction commit( Xid xid, boolean onePhase )
+    XaTransaction commit( Xid xid, boolean onePhase ) throws XAException
+    {
+        return appendCommit( xid, onePhase ).complete();
+    }
+
+    /**
+     * Writes the commit entry of the transaction to the logical log. If that entry is to be forced through
+     * group commit, forcing it and applying the transaction is left to the returned {@link PendingCommit},
+     * otherwise the transaction has been fully committed when this method returns.
+     */
+    /*synchronized(this) in the method*/ PendingCommit appendCommit( Xid xid, boolean onePhase )
         throws XAException
     {
         XaTransaction xaTransaction;
@@ -428,8 +443,19 @@ public class XaResourceManager
             TransactionStatus txStatus = status.getTransactionStatus();
             xaTransaction = txStatus.getTransaction();
             TxIdGenerator txIdGenerator = xaTransaction.getTxIdGenerator();
+            ForceMode forceMode = getForceMode();
+            // Other generators, like the ones of HA slaves, apply transactions themselves while generating ids,
+            // which can't be done while transactions wait for their group force to be applied
+            boolean groupForce = forceMode == ForceMode.forced && log.hasGroupCommit() &&
+                    txIdGenerator == TxIdGenerator.DEFAULT;
+            if ( groupForce )
+            {
+                // The commit entry is only written out here, the force happens outside of this monitor
+                forceMode = ForceMode.unforced;
+            }
             checkStartWritten( txStatus, xaTransaction );
             isReadOnly = xaTransaction.isReadOnly();
+            boolean commitEntryWritten = false;
             if ( onePhase )
             {
                 txStatus.markAsPrepared();
@@ -437,11 +463,11 @@ public class XaResourceManager
                 {
                     xaTransaction.prepare();
 
-                    long txId = txIdGenerator.generate( dataSource,
-                            xaTransaction.getIdentifier() );
+                    long txId = generateTxId( txIdGenerator, xaTransaction );
                     xaTransaction.setCommitTxId( txId );
                     log.commitOnePhase( xaTransaction.getIdentifier(),
-                            xaTransaction.getCommitTxId(), getForceMode() );
+                            xaTransaction.getCommitTxId(), forceMode );
+                    commitEntryWritten = true;
                 }
             }
             if ( !txStatus.prepared() || txStatus.rollback() )
@@ -453,13 +479,18 @@ public class XaResourceManager
             {
                 if ( !onePhase && !xaTransaction.isRecovered() )
                 {
-                    long txId = txIdGenerator.generate( dataSource,
-                            xaTransaction.getIdentifier() );
+                    long txId = generateTxId( txIdGenerator, xaTransaction );
                     xaTransaction.setCommitTxId( txId );
                     log.commitTwoPhase( xaTransaction.getIdentifier(),
-                            xaTransaction.getCommitTxId(), getForceMode() );
+                            xaTransaction.getCommitTxId(), forceMode );
+                    commitEntryWritten = true;
                 }
                 txStatus.markCommitStarted();
+                if ( groupForce && commitEntryWritten )
+                {
+                    lastGroupForcedTxId = xaTransaction.getCommitTxId();
+                    return new GroupForcedCommit( xid, xaTransaction, log.groupCommitTicket(), nextApplyTurn++ );
+                }
                 if ( xaTransaction.isRecovered() && xaTransaction.getCommitTxId() == -1 )
                 {
                     boolean previousRecoveredValue = dataSource.setRecovered( true );
@@ -495,7 +526,110 @@ public class XaResourceManager
 
         if ( !xaTransaction.isRecovered() && !isReadOnly )
             txIdGenerator.committed( dataSource, xaTransaction.getIdentifier(), xaTransaction.getCommitTxId(), null );
-        return xaTransaction;
+        return completed( xaTransaction );
+    }
+
+    private long generateTxId( TxIdGenerator txIdGenerator, XaTransaction xaTransaction ) throws XAException
+    {
+        long txId = txIdGenerator.generate( dataSource, xaTransaction.getIdentifier() );
+        if ( currentApplyTurn != nextApplyTurn )
+        {
+            // The default generator goes by the last applied transaction, but group forced commits that
+            // haven't been applied yet already have their ids
+            txId = Math.max( txId, lastGroupForcedTxId + 1 );
+        }
+        return txId;
+    }
+
+    private static PendingCommit completed( final XaTransaction xaTransaction )
+    {
+        return new PendingCommit()
+        {
+            @Override
+            public XaTransaction complete()
+            {
+                return xaTransaction;
+            }
+        };
+    }
+
+    /**
+     * A transaction whose commit entry has been written, but not forced. Transactions are applied in the
+     * order their commit entries were written, and only once those entries have been forced.
+     */
+    private class GroupForcedCommit implements PendingCommit
+    {
+        private final Xid xid;
+        private final XaTransaction xaTransaction;
+        private final long groupForceTicket;
+        private final long applyTurn;
+
+        GroupForcedCommit( Xid xid, XaTransaction xaTransaction, long groupForceTicket, long applyTurn )
+        {
+            this.xid = xid;
+            this.xaTransaction = xaTransaction;
+            this.groupForceTicket = groupForceTicket;
+            this.applyTurn = applyTurn;
+        }
+
+        @Override
+        public XaTransaction complete() throws XAException
+        {
+            IOException forceFailure = null;
+            try
+            {
+                log.awaitGroupForce( groupForceTicket );
+            }
+            catch ( IOException e )
+            {
+                forceFailure = e;
+            }
+
+            synchronized ( XaResourceManager.this )
+            {
+                awaitApplyTurn( applyTurn );
+                try
+                {
+                    if ( forceFailure != null )
+                    {
+                        throw Exceptions.withCause( new XAException( "Logical log unable to force commit of [" +
+                                xaTransaction.getIdentifier() + "] " ), forceFailure );
+                    }
+                    xaTransaction.commit();
+                    log.done( xaTransaction.getIdentifier() );
+                    xidMap.remove( xid );
+                }
+                finally
+                {
+                    // Let the next one apply even if this one failed, the failure will have the TM marked as not ok
+                    currentApplyTurn++;
+                    XaResourceManager.this.notifyAll();
+                }
+            }
+
+            txIdGenerator.committed( dataSource, xaTransaction.getIdentifier(), xaTransaction.getCommitTxId(), null );
+            return xaTransaction;
+        }
+    }
+
+    private void awaitApplyTurn( long applyTurn )
+    {
+        boolean interrupted = false;
+        while ( currentApplyTurn != applyTurn )
+        {
+            try
+            {
+                wait();
+            }
+            catch ( InterruptedException e )
+            {
+                interrupted = true;
+            }
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
     }
 
     private ForceMode getForceMode()
@@ -61,7 +61,7 @@ public class DumpLogicalLog
         {
             logsFound++;
             System.out.println( "=== " + fileName + " ===" );
-            FileChannel fileChannel = fileSystem.open( new File( fileName ), "r" );
+            FileChannel fileChannel = MappedFileChannel.mapOrBuffer( fileSystem.open( new File( fileName ), "r" ) );
             ByteBuffer buffer = ByteBuffer.allocateDirect( 9 + Xid.MAXGTRIDSIZE
                     + Xid.MAXBQUALSIZE * 10 );
             long logVersion, prevLastCommittedTx;
@@ -0,0 +1,268 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A read only {@link FileChannel} over a file that doesn't change while it's open, for example
+ * a rotated logical log. The file is memory mapped instead of read, so reads copy straight from the
+ * mapped pages into the destination buffer and {@link #transferTo(long, long, WritableByteChannel)}
+ * writes slices of the mapping to the target, neither going through a heap buffer or a read system
+ * call on the way.
+ *
+ * Files are mapped lazily in segments, so that files bigger than a single {@link MappedByteBuffer}
+ * can hold can be read as well.
+ *
+ * Just like {@link BufferedFileChannel} this channel isn't thread safe, not even for positional reads.
+ */
+public class MappedFileChannel extends FileChannel
+{
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+    private final FileChannel source;
+    private final long size;
+    private final int segmentSize;
+    private final ByteBuffer[] segments;
+    private long position;
+
+    public MappedFileChannel( FileChannel source ) throws IOException
+    {
+        this( source, DEFAULT_SEGMENT_SIZE );
+    }
+
+    MappedFileChannel( FileChannel source, int segmentSize ) throws IOException
+    {
+        this.source = source;
+        this.size = source.size();
+        this.segmentSize = segmentSize;
+        this.segments = new ByteBuffer[(int) ((size + segmentSize - 1) / segmentSize)];
+        this.position = source.position();
+        if ( position < size )
+        {
+            // Map the first segment right away, so that a file system that can't map files is found out here
+            segment( segmentIndex( position ) );
+        }
+    }
+
+    /**
+     * Returns a {@link MappedFileChannel} over {@code source} if its file system supports memory mapping,
+     * otherwise a {@link BufferedFileChannel}. Either way reading starts from the current position of
+     * {@code source}.
+     */
+    public static FileChannel mapOrBuffer( FileChannel source ) throws IOException
+    {
+        try
+        {
+            return new MappedFileChannel( source );
+        }
+        catch ( IOException | UnsupportedOperationException e )
+        {
+            return new BufferedFileChannel( source );
+        }
+    }
+
+    @Override
+    public int read( ByteBuffer dst ) throws IOException
+    {
+        int read = read( dst, position );
+        if ( read > 0 )
+        {
+            position += read;
+        }
+        return read;
+    }
+
+    @Override
+    public int read( ByteBuffer dst, long position ) throws IOException
+    {
+        if ( position >= size )
+        {
+            return dst.hasRemaining() ? -1 : 0;
+        }
+        int read = 0;
+        while ( dst.hasRemaining() && position < size )
+        {
+            ByteBuffer view = view( position, dst.remaining() );
+            read += view.remaining();
+            position += view.remaining();
+            dst.put( view );
+        }
+        return read;
+    }
+
+    @Override
+    public long read( ByteBuffer[] dsts, int offset, int length ) throws IOException
+    {
+        long read = 0;
+        for ( int i = offset; i < offset + length && position < size; i++ )
+        {
+            read += read( dsts[i] );
+        }
+        return read == 0 && position >= size ? -1 : read;
+    }
+
+    @Override
+    public long transferTo( long position, long count, WritableByteChannel target ) throws IOException
+    {
+        long end = Math.min( size, position + count );
+        long transferred = 0;
+        while ( position + transferred < end )
+        {
+            ByteBuffer view = view( position + transferred, end - position - transferred );
+            int written = target.write( view );
+            if ( written == 0 )
+            {   // Non-blocking target that is full, let the caller come back for the rest
+                break;
+            }
+            transferred += written;
+        }
+        return transferred;
+    }
+
+    /**
+     * @return a view of the mapped file starting at {@code position}, with at most {@code maxLength}
+     * bytes remaining and never spanning more than one segment.
+     */
+    private ByteBuffer view( long position, long maxLength ) throws IOException
+    {
+        int index = segmentIndex( position );
+        int offset = (int) (position - (long) index * segmentSize);
+        ByteBuffer view = segment( index );
+        int length = (int) Math.min( maxLength, view.capacity() - offset );
+        view.clear();
+        view.position( offset );
+        view.limit( offset + length );
+        return view;
+    }
+
+    private int segmentIndex( long position )
+    {
+        return (int) (position / segmentSize);
+    }
+
+    private ByteBuffer segment( int index ) throws IOException
+    {
+        ByteBuffer segment = segments[index];
+        if ( segment == null )
+        {
+            long start = (long) index * segmentSize;
+            long length = Math.min( segmentSize, size - start );
+            segment = source.map( MapMode.READ_ONLY, start, length );
+            segments[index] = segment;
+        }
+        return segment;
+    }
+
+    @Override
+    public int write( ByteBuffer src ) throws IOException
+    {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long write( ByteBuffer[] srcs, int offset, int length ) throws IOException
+    {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public int write( ByteBuffer src, long position ) throws IOException
+    {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException
+    {
+        return position;
+    }
+
+    @Override
+    public FileChannel position( long newPosition ) throws IOException
+    {
+        if ( newPosition < 0 )
+        {
+            throw new IllegalArgumentException( "Negative position " + newPosition );
+        }
+        this.position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException
+    {
+        return size;
+    }
+
+    @Override
+    public FileChannel truncate( long size ) throws IOException
+    {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public void force( boolean metaData ) throws IOException
+    {   // Nothing to force, we never write
+    }
+
+    @Override
+    public long transferFrom( ReadableByteChannel src, long position, long count ) throws IOException
+    {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public MappedByteBuffer map( MapMode mode, long position, long size ) throws IOException
+    {
+        return source.map( mode, position, size );
+    }
+
+    @Override
+    public FileLock lock( long position, long size, boolean shared ) throws IOException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FileLock tryLock( long position, long size, boolean shared ) throws IOException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException
+    {
+        // The mappings themselves are released when they are garbage collected
+        source.close();
+    }
+
+    public FileChannel getSource()
+    {
+        return source;
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util;
+
+/**
+ * Table arithmetic shared by the open addressing primitive long collections. Tables have a power of two capacity
+ * and are grown when they are three quarters full.
+ */
+final class PrimitiveLongHashing
+{
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private PrimitiveLongHashing()
+    {
+    }
+
+    static int slot( long key, int mask )
+    {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    static int capacityFor( int expectedSize )
+    {
+        int capacity = 2;
+        while ( capacity < MAX_CAPACITY && isOverloaded( expectedSize, capacity ) )
+        {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    static boolean isOverloaded( int size, int capacity )
+    {
+        return size >= capacity - (capacity >>> 2);
+    }
+
+    /**
+     * @return whether {@code home} lies cyclically after {@code from}, up to and including {@code to}.
+     */
+    static boolean isBetween( int home, int from, int to )
+    {
+        return from <= to ? from < home && home <= to : from < home || home <= to;
+    }
+}
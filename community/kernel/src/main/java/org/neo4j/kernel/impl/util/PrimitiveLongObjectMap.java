@@ -0,0 +1,310 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.neo4j.kernel.impl.api.AbstractPrimitiveLongIterator;
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+
+/**
+ * A map from longs to objects kept in two parallel open addressing tables, the same way as
+ * {@link PrimitiveLongSet}, so that no boxed key or entry object is held on to per mapping.
+ * A slot is free when its value is null, which is why null values can not be put in the map.
+ *
+ * @param <V> type of values
+ */
+public class PrimitiveLongObjectMap<V>
+{
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int modCount;
+
+    public PrimitiveLongObjectMap()
+    {
+        keys = new long[DEFAULT_CAPACITY];
+        values = new Object[DEFAULT_CAPACITY];
+    }
+
+    public PrimitiveLongObjectMap( int expectedSize )
+    {
+        int capacity = PrimitiveLongHashing.capacityFor( expectedSize );
+        keys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get( long key )
+    {
+        int slot = slotOf( key );
+        return slot == -1 ? null : (V) values[slot];
+    }
+
+    public boolean containsKey( long key )
+    {
+        return slotOf( key ) != -1;
+    }
+
+    /**
+     * @return the value previously mapped to the key, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put( long key, V value )
+    {
+        if ( value == null )
+        {
+            throw new IllegalArgumentException( "Null values are not supported, key: " + key );
+        }
+
+        int mask = keys.length - 1;
+        for ( int slot = PrimitiveLongHashing.slot( key, mask ); ; slot = (slot + 1) & mask )
+        {
+            Object current = values[slot];
+            if ( current == null )
+            {
+                keys[slot] = key;
+                values[slot] = value;
+                size++;
+                modCount++;
+                if ( PrimitiveLongHashing.isOverloaded( size, keys.length ) )
+                {
+                    grow();
+                }
+                return null;
+            }
+            if ( keys[slot] == key )
+            {
+                values[slot] = value;
+                return (V) current;
+            }
+        }
+    }
+
+    /**
+     * @return the value that was mapped to the key, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove( long key )
+    {
+        int slot = slotOf( key );
+        if ( slot == -1 )
+        {
+            return null;
+        }
+
+        V removed = (V) values[slot];
+        removeSlot( slot );
+        size--;
+        modCount++;
+        return removed;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public void clear()
+    {
+        if ( size > 0 )
+        {
+            keys = new long[DEFAULT_CAPACITY];
+            values = new Object[DEFAULT_CAPACITY];
+            size = 0;
+            modCount++;
+        }
+    }
+
+    public PrimitiveLongIterator keyIterator()
+    {
+        return new KeyIterator();
+    }
+
+    public Iterable<V> values()
+    {
+        return new Iterable<V>()
+        {
+            @Override
+            public Iterator<V> iterator()
+            {
+                return new ValueIterator();
+            }
+        };
+    }
+
+    private int slotOf( long key )
+    {
+        int mask = keys.length - 1;
+        for ( int slot = PrimitiveLongHashing.slot( key, mask ); ; slot = (slot + 1) & mask )
+        {
+            if ( values[slot] == null )
+            {
+                return -1;
+            }
+            if ( keys[slot] == key )
+            {
+                return slot;
+            }
+        }
+    }
+
+    // See PrimitiveLongSet.removeSlot
+    private void removeSlot( int emptied )
+    {
+        int mask = keys.length - 1;
+        int slot = emptied;
+        while ( true )
+        {
+            slot = (slot + 1) & mask;
+            if ( values[slot] == null )
+            {
+                break;
+            }
+            int home = PrimitiveLongHashing.slot( keys[slot], mask );
+            if ( PrimitiveLongHashing.isBetween( home, emptied, slot ) )
+            {
+                continue;
+            }
+            keys[emptied] = keys[slot];
+            values[emptied] = values[slot];
+            emptied = slot;
+        }
+        values[emptied] = null;
+    }
+
+    private void grow()
+    {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        int mask = keys.length - 1;
+        for ( int i = 0; i < oldKeys.length; i++ )
+        {
+            if ( oldValues[i] != null )
+            {
+                int slot = PrimitiveLongHashing.slot( oldKeys[i], mask );
+                while ( values[slot] != null )
+                {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /*
+    Finds the occupied slots of the table as it was when iteration started, failing on any later modification
+     */
+    private class SlotCursor
+    {
+        private final long[] iteratedKeys = keys;
+        private final Object[] iteratedValues = values;
+        private final int expectedModCount = modCount;
+        private int slot = -1;
+
+        boolean advance()
+        {
+            if ( modCount != expectedModCount )
+            {
+                throw new ConcurrentModificationException();
+            }
+            while ( ++slot < iteratedValues.length )
+            {
+                if ( iteratedValues[slot] != null )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long key()
+        {
+            return iteratedKeys[slot];
+        }
+
+        Object value()
+        {
+            return iteratedValues[slot];
+        }
+    }
+
+    private class KeyIterator extends AbstractPrimitiveLongIterator
+    {
+        private final SlotCursor cursor = new SlotCursor();
+
+        KeyIterator()
+        {
+            computeNext();
+        }
+
+        @Override
+        protected void computeNext()
+        {
+            hasNext = cursor.advance();
+            if ( hasNext )
+            {
+                nextValue = cursor.key();
+            }
+        }
+    }
+
+    private class ValueIterator extends SlotCursor implements Iterator<V>
+    {
+        private boolean hasNext = advance();
+
+        @Override
+        public boolean hasNext()
+        {
+            return hasNext;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next()
+        {
+            if ( !hasNext )
+            {
+                throw new NoSuchElementException();
+            }
+            V result = (V) value();
+            hasNext = advance();
+            return result;
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+
+import org.neo4j.kernel.impl.api.AbstractPrimitiveLongIterator;
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+
+/**
+ * A set of longs kept in a single open addressing table, using linear probing and removing entries by shifting
+ * the rest of their probe sequence back, so that no boxed {@link Long} or entry object is held on to per element.
+ *
+ * The primitive methods should be used where possible. The set can also be handed out as a {@code Set<Long>},
+ * in which case values are boxed only while they pass through the {@link java.util.Set} methods. Iterators
+ * fail fast on concurrent modification, but do not support removal.
+ */
+public class PrimitiveLongSet extends AbstractSet<Long>
+{
+    // Small, since transaction state keeps one set per touched node for its label changes
+    private static final int DEFAULT_CAPACITY = 4;
+
+    // The value marking free slots in the table. A set containing it keeps track of that separately.
+    private static final long FREE = -1L;
+
+    private long[] table;
+    private int size;
+    private boolean containsFree;
+    private int modCount;
+
+    public PrimitiveLongSet()
+    {
+        table = newTable( DEFAULT_CAPACITY );
+    }
+
+    public PrimitiveLongSet( int expectedSize )
+    {
+        table = newTable( PrimitiveLongHashing.capacityFor( expectedSize ) );
+    }
+
+    public boolean add( long value )
+    {
+        if ( value == FREE )
+        {
+            boolean added = !containsFree;
+            if ( added )
+            {
+                containsFree = true;
+                size++;
+                modCount++;
+            }
+            return added;
+        }
+
+        int mask = table.length - 1;
+        for ( int slot = PrimitiveLongHashing.slot( value, mask ); ; slot = (slot + 1) & mask )
+        {
+            long current = table[slot];
+            if ( current == value )
+            {
+                return false;
+            }
+            if ( current == FREE )
+            {
+                table[slot] = value;
+                size++;
+                modCount++;
+                if ( PrimitiveLongHashing.isOverloaded( size, table.length ) )
+                {
+                    grow();
+                }
+                return true;
+            }
+        }
+    }
+
+    public void addAll( PrimitiveLongIterator values )
+    {
+        while ( values.hasNext() )
+        {
+            add( values.next() );
+        }
+    }
+
+    public boolean contains( long value )
+    {
+        if ( value == FREE )
+        {
+            return containsFree;
+        }
+
+        int mask = table.length - 1;
+        for ( int slot = PrimitiveLongHashing.slot( value, mask ); ; slot = (slot + 1) & mask )
+        {
+            long current = table[slot];
+            if ( current == value )
+            {
+                return true;
+            }
+            if ( current == FREE )
+            {
+                return false;
+            }
+        }
+    }
+
+    public boolean remove( long value )
+    {
+        if ( value == FREE )
+        {
+            boolean removed = containsFree;
+            if ( removed )
+            {
+                containsFree = false;
+                size--;
+                modCount++;
+            }
+            return removed;
+        }
+
+        int mask = table.length - 1;
+        for ( int slot = PrimitiveLongHashing.slot( value, mask ); ; slot = (slot + 1) & mask )
+        {
+            long current = table[slot];
+            if ( current == FREE )
+            {
+                return false;
+            }
+            if ( current == value )
+            {
+                removeSlot( slot, mask );
+                size--;
+                modCount++;
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    @Override
+    public void clear()
+    {
+        if ( size > 0 )
+        {
+            table = newTable( DEFAULT_CAPACITY );
+            size = 0;
+            containsFree = false;
+            modCount++;
+        }
+    }
+
+    public PrimitiveLongIterator primitiveIterator()
+    {
+        return new TableIterator();
+    }
+
+    @Override
+    public boolean add( Long value )
+    {
+        return add( value.longValue() );
+    }
+
+    @Override
+    public boolean contains( Object value )
+    {
+        return value instanceof Long && contains( ((Long) value).longValue() );
+    }
+
+    @Override
+    public boolean remove( Object value )
+    {
+        return value instanceof Long && remove( ((Long) value).longValue() );
+    }
+
+    @Override
+    public Iterator<Long> iterator()
+    {
+        final PrimitiveLongIterator values = primitiveIterator();
+        return new Iterator<Long>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return values.hasNext();
+            }
+
+            @Override
+            public Long next()
+            {
+                return values.next();
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /*
+    Empties a slot and moves later entries of the same probe sequence back, so that lookups never have to skip
+    over removed entries. An entry may move to the emptied slot unless its home slot lies cyclically after the
+    emptied slot, up to its current position.
+     */
+    private void removeSlot( int emptied, int mask )
+    {
+        int slot = emptied;
+        while ( true )
+        {
+            slot = (slot + 1) & mask;
+            long current = table[slot];
+            if ( current == FREE )
+            {
+                break;
+            }
+            int home = PrimitiveLongHashing.slot( current, mask );
+            if ( PrimitiveLongHashing.isBetween( home, emptied, slot ) )
+            {
+                continue;
+            }
+            table[emptied] = current;
+            emptied = slot;
+        }
+        table[emptied] = FREE;
+    }
+
+    private void grow()
+    {
+        long[] old = table;
+        table = newTable( old.length * 2 );
+        int mask = table.length - 1;
+        for ( long value : old )
+        {
+            if ( value != FREE )
+            {
+                int slot = PrimitiveLongHashing.slot( value, mask );
+                while ( table[slot] != FREE )
+                {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+
+    private static long[] newTable( int capacity )
+    {
+        long[] table = new long[capacity];
+        Arrays.fill( table, FREE );
+        return table;
+    }
+
+    private class TableIterator extends AbstractPrimitiveLongIterator
+    {
+        private final long[] iteratedTable = table;
+        private final int expectedModCount = modCount;
+        private boolean freeReturned = !containsFree;
+        private int slot = -1;
+
+        TableIterator()
+        {
+            computeNext();
+        }
+
+        @Override
+        protected void computeNext()
+        {
+            if ( modCount != expectedModCount )
+            {
+                throw new ConcurrentModificationException();
+            }
+            if ( !freeReturned )
+            {
+                freeReturned = true;
+                hasNext = true;
+                nextValue = FREE;
+                return;
+            }
+            while ( ++slot < iteratedTable.length )
+            {
+                if ( iteratedTable[slot] != FREE )
+                {
+                    hasNext = true;
+                    nextValue = iteratedTable[slot];
+                    return;
+                }
+            }
+            hasNext = false;
+        }
+    }
+}
@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.impl.util;
 
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.NoSuchElementException;
 
@@ -275,6 +276,102 @@ public class RelIdArray implements SizeOfObject
         return new RelIdArray( type );
     }
     
+    /**
+     * @return the number of bytes {@link #writeTo(ByteBuffer)} will write.
+     */
+    public int serializedSize()
+    {
+        int size = 4/*type*/ + 1/*has loops*/ + serializedSize( lastOutBlock ) + serializedSize( lastInBlock );
+        IdBlock loopBlock = getLastLoopBlock();
+        return loopBlock != null ? size + serializedSize( loopBlock ) : size;
+    }
+
+    private static int serializedSize( IdBlock lastBlock )
+    {
+        int size = 4/*block count*/;
+        for ( IdBlock block = lastBlock; block != null; block = block.getPrev() )
+        {
+            size += 8/*high bits*/ + 4/*length*/ + 4*block.length();
+        }
+        return size;
+    }
+
+    /**
+     * Writes the ids of this array in a compact binary form, where each id
+     * takes four bytes and the high bits are written once per block. Read it
+     * back with {@link #readFrom(ByteBuffer)}.
+     */
+    public void writeTo( ByteBuffer target )
+    {
+        IdBlock loopBlock = getLastLoopBlock();
+        target.putInt( type );
+        target.put( (byte) (loopBlock != null ? 1 : 0) );
+        writeBlocks( target, lastOutBlock );
+        writeBlocks( target, lastInBlock );
+        if ( loopBlock != null )
+        {
+            writeBlocks( target, loopBlock );
+        }
+    }
+
+    private static void writeBlocks( ByteBuffer target, IdBlock lastBlock )
+    {
+        int count = 0;
+        for ( IdBlock block = lastBlock; block != null; block = block.getPrev() )
+        {
+            count++;
+        }
+        // Blocks are linked from the last one, write them in the order they were added
+        IdBlock[] blocks = new IdBlock[count];
+        int index = count;
+        for ( IdBlock block = lastBlock; block != null; block = block.getPrev() )
+        {
+            blocks[--index] = block;
+        }
+        target.putInt( count );
+        for ( IdBlock block : blocks )
+        {
+            int length = block.length();
+            target.putLong( block.getHighBits() );
+            target.putInt( length );
+            for ( int i = 0; i < length; i++ )
+            {
+                target.putInt( block.ids[i+1] );
+            }
+        }
+    }
+
+    /**
+     * Reads an array previously written with {@link #writeTo(ByteBuffer)}.
+     */
+    public static RelIdArray readFrom( ByteBuffer source )
+    {
+        int type = source.getInt();
+        boolean hasLoops = source.get() != 0;
+        RelIdArray ids = hasLoops ? new RelIdArrayWithLoops( type ) : new RelIdArray( type );
+        readBlocks( source, ids, DirectionWrapper.OUTGOING );
+        readBlocks( source, ids, DirectionWrapper.INCOMING );
+        if ( hasLoops )
+        {
+            readBlocks( source, ids, DirectionWrapper.BOTH );
+        }
+        return ids;
+    }
+
+    private static void readBlocks( ByteBuffer source, RelIdArray ids, DirectionWrapper direction )
+    {
+        int count = source.getInt();
+        for ( int i = 0; i < count; i++ )
+        {
+            long highBits = source.getLong();
+            int length = source.getInt();
+            for ( int j = 0; j < length; j++ )
+            {
+                ids.add( highBits | (source.getInt()&0xFFFFFFFFL), direction );
+            }
+        }
+    }
+
     public static final IdBlock EMPTY_BLOCK = new LowIdBlock();
     
     public static enum DirectionWrapper
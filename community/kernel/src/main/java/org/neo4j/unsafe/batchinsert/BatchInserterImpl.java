@@ -70,6 +70,8 @@ import org.neo4j.kernel.impl.api.SchemaCache;
 import org.neo4j.kernel.impl.api.index.IndexStoreView;
 import org.neo4j.kernel.impl.api.index.SchemaIndexProviderMap;
 import org.neo4j.kernel.impl.api.index.StoreScan;
+import org.neo4j.kernel.impl.api.scan.BitmapLabelScanStore;
+import org.neo4j.kernel.impl.api.statistics.StoreGraphStatistics;
 import org.neo4j.kernel.impl.core.Token;
 import org.neo4j.kernel.impl.index.IndexStore;
 import org.neo4j.kernel.impl.nioneo.store.DefaultWindowPoolFactory;
@@ -92,6 +94,8 @@ import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
 import org.neo4j.kernel.impl.nioneo.store.PropertyType;
 import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
@@ -166,6 +170,10 @@ public class BatchInserterImpl implements BatchInserter
 
         storeLocker = new StoreLocker( fileSystem );
         storeLocker.checkLock( this.storeDir );
+        // Batch insertion doesn't keep the graph statistics or the label scan store up to date,
+        // so have them rebuilt on next startup
+        fileSystem.deleteFile( new File( this.storeDir, StoreGraphStatistics.FILE_NAME ) );
+        fileSystem.deleteFile( new File( this.storeDir, BitmapLabelScanStore.FILE_NAME ) );
 
         config = new Config( params, GraphDatabaseSettings.class );
         boolean dump = config.get( GraphDatabaseSettings.dump_configuration );
@@ -751,7 +759,7 @@ public class BatchInserterImpl implements BatchInserter
             type, Map<String, Object> properties )
     {
         NodeRecord firstNode = getNodeRecord( node1 );
-        NodeRecord secondNode = getNodeRecord( node2 );
+        NodeRecord secondNode = node1 == node2 ? firstNode : getNodeRecord( node2 );
         int typeId = relationshipTypeTokens.idOf( type.name() );
         if ( typeId == -1 )
         {
@@ -772,40 +780,183 @@ public class BatchInserterImpl implements BatchInserter
     private void connectRelationship( NodeRecord firstNode,
                                       NodeRecord secondNode, RelationshipRecord rel )
     {
-        assert firstNode.getNextRel() != rel.getId();
-        assert secondNode.getNextRel() != rel.getId();
-        rel.setFirstNextRel( firstNode.getNextRel() );
-        rel.setSecondNextRel( secondNode.getNextRel() );
-        connect( firstNode, rel );
-        connect( secondNode, rel );
-        firstNode.setNextRel( rel.getId() );
-        secondNode.setNextRel( rel.getId() );
+        assert firstNode.isDense() || firstNode.getNextRel() != rel.getId();
+        assert secondNode.isDense() || secondNode.getNextRel() != rel.getId();
+        if ( firstNode.isDense() )
+        {
+            connectToDenseNode( firstNode, rel );
+        }
+        else
+        {
+            rel.setFirstNextRel( firstNode.getNextRel() );
+            connect( firstNode.getId(), firstNode.getNextRel(), rel );
+        }
+        if ( secondNode.isDense() )
+        {
+            if ( firstNode.getId() != secondNode.getId() )
+            {
+                connectToDenseNode( secondNode, rel );
+            }
+        }
+        else
+        {
+            rel.setSecondNextRel( secondNode.getNextRel() );
+            connect( secondNode.getId(), secondNode.getNextRel(), rel );
+        }
+        if ( !firstNode.isDense() )
+        {
+            firstNode.setNextRel( rel.getId() );
+        }
+        if ( !secondNode.isDense() )
+        {
+            secondNode.setNextRel( rel.getId() );
+        }
     }
 
-    private void connect( NodeRecord node, RelationshipRecord rel )
+    private void connect( long nodeId, long firstRelId, RelationshipRecord rel )
     {
-        if ( node.getNextRel() != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        if ( firstRelId != Record.NO_NEXT_RELATIONSHIP.intValue() )
         {
-            RelationshipRecord nextRel = getRelationshipStore().getRecord( node.getNextRel() );
+            RelationshipRecord nextRel = getRelationshipStore().getRecord( firstRelId );
             boolean changed = false;
-            if ( nextRel.getFirstNode() == node.getId() )
+            if ( nextRel.getFirstNode() == nodeId )
             {
                 nextRel.setFirstPrevRel( rel.getId() );
                 changed = true;
             }
-            if ( nextRel.getSecondNode() == node.getId() )
+            if ( nextRel.getSecondNode() == nodeId )
             {
                 nextRel.setSecondPrevRel( rel.getId() );
                 changed = true;
             }
             if ( !changed )
             {
-                throw new InvalidRecordException( node + " dont match " + nextRel );
+                throw new InvalidRecordException( "Node[" + nodeId + "] dont match " + nextRel );
             }
             getRelationshipStore().updateRecord( nextRel );
         }
     }
 
+    /*
+     * The batch inserter never converts nodes into dense nodes itself, but it has to keep the
+     * relationship groups of nodes that already are dense in the store it was started on intact.
+     */
+    private void connectToDenseNode( NodeRecord node, RelationshipRecord rel )
+    {
+        RelationshipGroupRecord group = getOrCreateRelationshipGroup( node, rel.getType() );
+        long firstRelId;
+        if ( rel.getFirstNode() == rel.getSecondNode() )
+        {
+            firstRelId = group.getFirstLoop();
+            group.setFirstLoop( rel.getId() );
+        }
+        else if ( rel.getFirstNode() == node.getId() )
+        {
+            firstRelId = group.getFirstOut();
+            group.setFirstOut( rel.getId() );
+        }
+        else
+        {
+            firstRelId = group.getFirstIn();
+            group.setFirstIn( rel.getId() );
+        }
+        if ( rel.getFirstNode() == node.getId() )
+        {
+            rel.setFirstNextRel( firstRelId );
+        }
+        if ( rel.getSecondNode() == node.getId() )
+        {
+            rel.setSecondNextRel( firstRelId );
+        }
+        connect( node.getId(), firstRelId, rel );
+        getRelationshipGroupStore().updateRecord( group );
+    }
+
+    private RelationshipGroupRecord getOrCreateRelationshipGroup( NodeRecord node, int type )
+    {
+        RelationshipGroupStore groupStore = getRelationshipGroupStore();
+        RelationshipGroupRecord previous = null;
+        long groupId = node.getNextRel();
+        while ( groupId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RelationshipGroupRecord group = groupStore.getRecord( groupId );
+            if ( group.getType() == type )
+            {
+                return group;
+            }
+            if ( group.getType() > type )
+            {
+                break;
+            }
+            previous = group;
+            groupId = group.getNext();
+        }
+
+        RelationshipGroupRecord group = new RelationshipGroupRecord( groupStore.nextId(), type );
+        group.setInUse( true );
+        group.setCreated();
+        group.setOwningNode( node.getId() );
+        group.setNext( groupId );
+        if ( previous == null )
+        {
+            node.setNextRel( group.getId() );
+        }
+        else
+        {
+            previous.setNext( group.getId() );
+            groupStore.updateRecord( previous );
+        }
+        return group;
+    }
+
+    private List<RelationshipRecord> getRelationshipRecords( long nodeId )
+    {
+        NodeRecord nodeRecord = getNodeRecord( nodeId );
+        List<RelationshipRecord> records = new ArrayList<>();
+        if ( nodeRecord.isDense() )
+        {
+            long groupId = nodeRecord.getNextRel();
+            while ( groupId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+            {
+                RelationshipGroupRecord group = getRelationshipGroupStore().getRecord( groupId );
+                addRelationshipChain( nodeId, group.getFirstOut(), records );
+                addRelationshipChain( nodeId, group.getFirstIn(), records );
+                addRelationshipChain( nodeId, group.getFirstLoop(), records );
+                groupId = group.getNext();
+            }
+        }
+        else
+        {
+            addRelationshipChain( nodeId, nodeRecord.getNextRel(), records );
+        }
+        return records;
+    }
+
+    private void addRelationshipChain( long nodeId, long nextRel, List<RelationshipRecord> records )
+    {
+        while ( nextRel != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RelationshipRecord relRecord = getRelationshipRecord( nextRel );
+            records.add( relRecord );
+            long firstNode = relRecord.getFirstNode();
+            long secondNode = relRecord.getSecondNode();
+            if ( firstNode == nodeId )
+            {
+                nextRel = relRecord.getFirstNextRel();
+            }
+            else if ( secondNode == nodeId )
+            {
+                nextRel = relRecord.getSecondNextRel();
+            }
+            else
+            {
+                throw new InvalidRecordException( "Node[" + nodeId +
+                                                  "] not part of firstNode[" + firstNode +
+                                                  "] or secondNode[" + secondNode + "]" );
+            }
+        }
+    }
+
     @Override
     public void setNodeProperties( long node, Map<String, Object> properties )
     {
@@ -868,29 +1019,10 @@ public class BatchInserterImpl implements BatchInserter
     @Override
     public Iterable<Long> getRelationshipIds( long nodeId )
     {
-        NodeRecord nodeRecord = getNodeRecord( nodeId );
-        long nextRel = nodeRecord.getNextRel();
         List<Long> ids = new ArrayList<>();
-        while ( nextRel != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        for ( RelationshipRecord relRecord : getRelationshipRecords( nodeId ) )
         {
-            RelationshipRecord relRecord = getRelationshipRecord( nextRel );
             ids.add( relRecord.getId() );
-            long firstNode = relRecord.getFirstNode();
-            long secondNode = relRecord.getSecondNode();
-            if ( firstNode == nodeId )
-            {
-                nextRel = relRecord.getFirstNextRel();
-            }
-            else if ( secondNode == nodeId )
-            {
-                nextRel = relRecord.getSecondNextRel();
-            }
-            else
-            {
-                throw new InvalidRecordException( "Node[" + nodeId +
-                                                  "] not part of firstNode[" + firstNode +
-                                                  "] or secondNode[" + secondNode + "]" );
-            }
         }
         return ids;
     }
@@ -898,32 +1030,13 @@ public class BatchInserterImpl implements BatchInserter
     @Override
     public Iterable<BatchRelationship> getRelationships( long nodeId )
     {
-        NodeRecord nodeRecord = getNodeRecord( nodeId );
-        long nextRel = nodeRecord.getNextRel();
         List<BatchRelationship> rels = new ArrayList<BatchRelationship>();
-        while ( nextRel != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        for ( RelationshipRecord relRecord : getRelationshipRecords( nodeId ) )
         {
-            RelationshipRecord relRecord = getRelationshipRecord( nextRel );
             RelationshipType type = new RelationshipTypeImpl(
                     relationshipTypeTokens.nameOf( relRecord.getType() ) );
             rels.add( new BatchRelationship( relRecord.getId(),
                                              relRecord.getFirstNode(), relRecord.getSecondNode(), type ) );
-            long firstNode = relRecord.getFirstNode();
-            long secondNode = relRecord.getSecondNode();
-            if ( firstNode == nodeId )
-            {
-                nextRel = relRecord.getFirstNextRel();
-            }
-            else if ( secondNode == nodeId )
-            {
-                nextRel = relRecord.getSecondNextRel();
-            }
-            else
-            {
-                throw new InvalidRecordException( "Node[" + nodeId +
-                                                  "] not part of firstNode[" + firstNode +
-                                                  "] or secondNode[" + secondNode + "]" );
-            }
         }
         return rels;
     }
@@ -1175,6 +1288,11 @@ public class BatchInserterImpl implements BatchInserter
         return neoStore.getRelationshipStore();
     }
 
+    private RelationshipGroupStore getRelationshipGroupStore()
+    {
+        return neoStore.getRelationshipGroupStore();
+    }
+
     private RelationshipTypeTokenStore getRelationshipTypeStore()
     {
         return neoStore.getRelationshipTypeStore();
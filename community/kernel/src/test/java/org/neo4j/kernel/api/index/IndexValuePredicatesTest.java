@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.index;
+
+import org.junit.Test;
+
+import org.neo4j.helpers.Predicate;
+
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import static org.neo4j.kernel.api.index.IndexValuePredicates.anyOf;
+import static org.neo4j.kernel.api.index.IndexValuePredicates.numberRange;
+import static org.neo4j.kernel.api.index.IndexValuePredicates.stringPrefix;
+
+public class IndexValuePredicatesTest
+{
+    @Test
+    public void numberRangeShouldHonorBoundsAndInclusiveness() throws Exception
+    {
+        Predicate<Object> range = numberRange( 10, true, 20L, false );
+
+        assertTrue( range.accept( 10 ) );
+        assertTrue( range.accept( 15.5d ) );
+        assertFalse( range.accept( 20 ) );
+        assertFalse( range.accept( 9.99f ) );
+        assertFalse( range.accept( "15" ) );
+    }
+
+    @Test
+    public void numberRangeShouldTreatNullBoundsAsOpen() throws Exception
+    {
+        Predicate<Object> range = numberRange( null, true, 0, true );
+
+        assertTrue( range.accept( Long.MIN_VALUE ) );
+        assertTrue( range.accept( 0 ) );
+        assertFalse( range.accept( 1 ) );
+    }
+
+    @Test
+    public void numberRangeShouldIncludeExclusiveBoundsBeyondExactLongs() throws Exception
+    {
+        long limit = 1L << 53;
+
+        assertTrue( numberRange( limit, false, null, true ).accept( limit + 1 ) );
+        assertTrue( numberRange( null, true, -limit, false ).accept( -limit - 1 ) );
+        assertFalse( numberRange( limit - 1, false, null, true ).accept( limit - 1 ) );
+    }
+
+    @Test
+    public void stringPrefixShouldOnlyAcceptStringsWithThePrefix() throws Exception
+    {
+        Predicate<Object> prefix = stringPrefix( "And" );
+
+        assertTrue( prefix.accept( "Andres" ) );
+        assertTrue( prefix.accept( "And" ) );
+        assertFalse( prefix.accept( "andres" ) );
+        assertFalse( prefix.accept( 'A' ) );
+    }
+
+    @Test
+    public void anyOfShouldCompareNumbersByValueAndArraysByContent() throws Exception
+    {
+        Predicate<Object> any = anyOf( asList( 42, "value", new int[]{1, 2} ) );
+
+        assertTrue( any.accept( 42L ) );
+        assertTrue( any.accept( 42.0d ) );
+        assertTrue( any.accept( "value" ) );
+        assertTrue( any.accept( new int[]{1, 2} ) );
+        assertFalse( any.accept( new int[]{2, 1} ) );
+        assertFalse( any.accept( 43 ) );
+    }
+}
@@ -299,7 +299,8 @@ public class StoreStatementOperationsTest
                 resolver.resolveDependency( PropertyKeyTokenHolder.class ),
                 resolver.resolveDependency( LabelTokenHolder.class ),
                 neoStoreDataSource.getNeoStore(),
-                resolver.resolveDependency( IndexingService.class ) );
+                resolver.resolveDependency( IndexingService.class ),
+                neoStoreDataSource.getLabelScanStore() );
         statement = txContext.newStatementOperations().asStatementOperations();
         state = txContext.newStatementState();
     }
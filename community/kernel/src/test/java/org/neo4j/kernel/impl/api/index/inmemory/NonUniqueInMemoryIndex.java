@@ -21,9 +21,11 @@ package org.neo4j.kernel.impl.api.index.inmemory;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
+import org.neo4j.helpers.Predicate;
 import org.neo4j.kernel.api.index.ArrayEncoder;
 import org.neo4j.kernel.api.index.IndexAccessor;
 import org.neo4j.kernel.api.index.IndexPopulator;
@@ -32,6 +34,8 @@ import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
 
 import static org.neo4j.helpers.collection.IteratorUtil.emptyPrimitiveLongIterator;
 import static org.neo4j.helpers.collection.IteratorUtil.toPrimitiveLongIterator;
+import static org.neo4j.kernel.api.index.IndexValuePredicates.numberRange;
+import static org.neo4j.kernel.api.index.IndexValuePredicates.stringPrefix;
 
 class NonUniqueInMemoryIndex extends InMemoryIndex
 {
@@ -159,6 +163,47 @@ class NonUniqueInMemoryIndex extends InMemoryIndex
             return result != null ? toPrimitiveLongIterator( result.iterator() )  : emptyPrimitiveLongIterator();
         }
 
+        @Override
+        public PrimitiveLongIterator rangeSeekByNumber( Number lower, boolean includeLower,
+                                                        Number upper, boolean includeUpper )
+        {
+            return seek( numberRange( lower, includeLower, upper, includeUpper ) );
+        }
+
+        @Override
+        public PrimitiveLongIterator rangeSeekByPrefix( String prefix )
+        {
+            return seek( stringPrefix( prefix ) );
+        }
+
+        @Override
+        public PrimitiveLongIterator lookupAny( Iterable<?> values )
+        {
+            Set<Long> result = new LinkedHashSet<>();
+            for ( Object value : values )
+            {
+                Set<Long> nodes = indexData.get( encode( value ) );
+                if ( nodes != null )
+                {
+                    result.addAll( nodes );
+                }
+            }
+            return toPrimitiveLongIterator( result.iterator() );
+        }
+
+        private PrimitiveLongIterator seek( Predicate<Object> predicate )
+        {
+            Set<Long> result = new LinkedHashSet<>();
+            for ( Map.Entry<Object, Set<Long>> entry : indexData.entrySet() )
+            {
+                if ( predicate.accept( entry.getKey() ) )
+                {
+                    result.addAll( entry.getValue() );
+                }
+            }
+            return toPrimitiveLongIterator( result.iterator() );
+        }
+
         @Override
         public void close()
         {
@@ -20,13 +20,19 @@
 package org.neo4j.kernel.impl.api.index.inmemory;
 
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
+import org.neo4j.helpers.Predicate;
 import org.neo4j.kernel.api.index.IndexReader;
 import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
 
 import static org.neo4j.helpers.collection.IteratorUtil.emptyPrimitiveLongIterator;
 import static org.neo4j.helpers.collection.IteratorUtil.singletonPrimitiveLongIterator;
+import static org.neo4j.helpers.collection.IteratorUtil.toPrimitiveLongIterator;
+import static org.neo4j.kernel.api.index.IndexValuePredicates.numberRange;
+import static org.neo4j.kernel.api.index.IndexValuePredicates.stringPrefix;
 
 class UniqueInMemoryIndexReader implements IndexReader
 {
@@ -44,6 +50,47 @@ class UniqueInMemoryIndexReader implements IndexReader
         return result != null ? singletonPrimitiveLongIterator( result ) : emptyPrimitiveLongIterator();
     }
 
+    @Override
+    public PrimitiveLongIterator rangeSeekByNumber( Number lower, boolean includeLower,
+                                                    Number upper, boolean includeUpper )
+    {
+        return seek( numberRange( lower, includeLower, upper, includeUpper ) );
+    }
+
+    @Override
+    public PrimitiveLongIterator rangeSeekByPrefix( String prefix )
+    {
+        return seek( stringPrefix( prefix ) );
+    }
+
+    @Override
+    public PrimitiveLongIterator lookupAny( Iterable<?> values )
+    {
+        Set<Long> result = new LinkedHashSet<>();
+        for ( Object value : values )
+        {
+            Long nodeId = indexData.get( value );
+            if ( nodeId != null )
+            {
+                result.add( nodeId );
+            }
+        }
+        return toPrimitiveLongIterator( result.iterator() );
+    }
+
+    private PrimitiveLongIterator seek( Predicate<Object> predicate )
+    {
+        Set<Long> result = new LinkedHashSet<>();
+        for ( Map.Entry<Object, Long> entry : indexData.entrySet() )
+        {
+            if ( predicate.accept( entry.getKey() ) )
+            {
+                result.add( entry.getValue() );
+            }
+        }
+        return toPrimitiveLongIterator( result.iterator() );
+    }
+
     @Override
     public void close()
     {
@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+import org.neo4j.test.EphemeralFileSystemRule;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.neo4j.helpers.collection.IteratorUtil.asSet;
+import static org.neo4j.kernel.api.labelscan.NodeLabelUpdate.labelChanges;
+import static org.neo4j.kernel.api.labelscan.NodeLabelUpdate.labelsAdded;
+import static org.neo4j.kernel.impl.util.StringLogger.DEV_NULL;
+
+public class BitmapLabelScanStoreTest
+{
+    @Test
+    public void shouldFindNodesWithAddedLabels() throws Throwable
+    {
+        // GIVEN
+        start( NO_NODES );
+
+        // WHEN
+        store.updateAndCommit( iterator(
+                labelsAdded( 0, new long[] {1, 2} ),
+                labelsAdded( 5000, new long[] {1} ),
+                labelsAdded( 3, new long[] {2} ) ) );
+
+        // THEN
+        assertEquals( asSet( 0L, 5000L ), asSet( store.nodesWithLabel( 1 ) ) );
+        assertEquals( asSet( 0L, 3L ), asSet( store.nodesWithLabel( 2 ) ) );
+        assertFalse( store.nodesWithLabel( 3 ).hasNext() );
+    }
+
+    @Test
+    public void shouldNotFindNodesWithRemovedLabels() throws Throwable
+    {
+        // GIVEN
+        start( NO_NODES );
+        store.updateAndCommit( iterator(
+                labelsAdded( 10, new long[] {1, 2} ),
+                labelsAdded( 11, new long[] {1} ) ) );
+
+        // WHEN
+        store.updateAndCommit( iterator(
+                labelChanges( 10, new long[] {1, 2}, new long[] {2} ),
+                labelChanges( 11, new long[] {1}, new long[0] ) ) );
+
+        // THEN
+        assertFalse( store.nodesWithLabel( 1 ).hasNext() );
+        assertEquals( asSet( 10L ), asSet( store.nodesWithLabel( 2 ) ) );
+    }
+
+    @Test
+    public void shouldReturnNodesInAscendingOrder() throws Throwable
+    {
+        // GIVEN
+        start( NO_NODES );
+        long[] nodes = {100_000, 3, 4095, 4096, 64, 63, 0};
+        for ( long node : nodes )
+        {
+            store.updateAndCommit( iterator( labelsAdded( node, new long[] {7} ) ) );
+        }
+
+        // WHEN
+        PrimitiveLongIterator found = store.nodesWithLabel( 7 );
+
+        // THEN
+        Arrays.sort( nodes );
+        for ( long node : nodes )
+        {
+            assertEquals( node, found.next() );
+        }
+        assertFalse( found.hasNext() );
+    }
+
+    @Test
+    public void shouldRebuildFromFullStoreStreamWhenThereIsNoStoreFile() throws Throwable
+    {
+        // WHEN
+        start( asList( labelsAdded( 1, new long[] {1} ), labelsAdded( 2, new long[] {1, 2} ) ) );
+
+        // THEN
+        assertEquals( asSet( 1L, 2L ), asSet( store.nodesWithLabel( 1 ) ) );
+        assertEquals( asSet( 2L ), asSet( store.nodesWithLabel( 2 ) ) );
+    }
+
+    @Test
+    public void shouldLoadForcedStateOnRestartWithoutRebuilding() throws Throwable
+    {
+        // GIVEN
+        start( NO_NODES );
+        store.updateAndCommit( iterator( labelsAdded( 42, new long[] {3} ) ) );
+        store.force();
+        stop();
+
+        // WHEN
+        start( asList( labelsAdded( 1, new long[] {3} ) ) );
+
+        // THEN
+        assertEquals( asSet( 42L ), asSet( store.nodesWithLabel( 3 ) ) );
+    }
+
+    @Test
+    public void shouldIgnoreUpdatesWhileWaitingForRebuild() throws Throwable
+    {
+        // GIVEN
+        store = new BitmapLabelScanStore( fs.get(), storeDir,
+                stream( asList( labelsAdded( 1, new long[] {1} ) ) ), false, DEV_NULL );
+        store.init();
+
+        // WHEN
+        store.updateAndCommit( iterator( labelsAdded( 2, new long[] {1} ) ) );
+        store.start();
+
+        // THEN
+        assertEquals( asSet( 1L ), asSet( store.nodesWithLabel( 1 ) ) );
+    }
+
+    @Test
+    public void shouldRebuildIfStoreFileIsIncomplete() throws Throwable
+    {
+        // GIVEN
+        start( NO_NODES );
+        store.updateAndCommit( iterator( labelsAdded( 42, new long[] {3} ) ) );
+        store.force();
+        stop();
+        File file = new File( storeDir, BitmapLabelScanStore.FILE_NAME );
+        fs.get().open( file, "rw" ).truncate( 20 ).close();
+
+        // WHEN
+        start( asList( labelsAdded( 1, new long[] {3} ) ) );
+
+        // THEN
+        assertEquals( asSet( 1L ), asSet( store.nodesWithLabel( 3 ) ) );
+    }
+
+    private static final Collection<NodeLabelUpdate> NO_NODES = Collections.emptyList();
+
+    @Rule public final EphemeralFileSystemRule fs = new EphemeralFileSystemRule();
+    private final File storeDir = new File( "dir" );
+    private BitmapLabelScanStore store;
+
+    private void start( Collection<NodeLabelUpdate> existingNodes ) throws Throwable
+    {
+        store = new BitmapLabelScanStore( fs.get(), storeDir, stream( existingNodes ), false, DEV_NULL );
+        store.init();
+        store.start();
+    }
+
+    private void stop() throws Throwable
+    {
+        store.stop();
+        store.shutdown();
+        store = null;
+    }
+
+    @Before
+    public void before() throws Exception
+    {
+        fs.get().mkdirs( storeDir );
+    }
+
+    @After
+    public void after() throws Throwable
+    {
+        if ( store != null )
+        {
+            stop();
+        }
+    }
+
+    private static FullStoreChangeStream stream( final Collection<NodeLabelUpdate> updates )
+    {
+        return new FullStoreChangeStream()
+        {
+            @Override
+            public Iterator<NodeLabelUpdate> iterator()
+            {
+                return updates.iterator();
+            }
+        };
+    }
+
+    private static Iterator<NodeLabelUpdate> iterator( NodeLabelUpdate... updates )
+    {
+        return asList( updates ).iterator();
+    }
+}
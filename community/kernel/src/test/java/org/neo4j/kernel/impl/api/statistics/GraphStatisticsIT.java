@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.statistics;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.statistics.GraphStatistics;
+import org.neo4j.kernel.impl.core.LabelTokenHolder;
+import org.neo4j.kernel.impl.core.RelationshipTypeTokenHolder;
+import org.neo4j.test.ImpermanentDatabaseRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.neo4j.graphdb.DynamicLabel.label;
+import static org.neo4j.graphdb.DynamicRelationshipType.withName;
+
+public class GraphStatisticsIT
+{
+    @Test
+    public void shouldCountCommittedNodesLabelsAndRelationships() throws Exception
+    {
+        // WHEN
+        Transaction tx = db.beginTx();
+        Node first = db.createNode( label( "Person" ), label( "Employee" ) );
+        Node second = db.createNode( label( "Person" ) );
+        first.createRelationshipTo( second, withName( "KNOWS" ) );
+        second.createRelationshipTo( first, withName( "KNOWS" ) );
+        tx.success();
+        tx.finish();
+
+        // THEN
+        assertEquals( 2, statistics().nodeCount() );
+        assertEquals( 2, statistics().nodeCountWithLabel( labelId( "Person" ) ) );
+        assertEquals( 1, statistics().nodeCountWithLabel( labelId( "Employee" ) ) );
+        assertEquals( 2, statistics().relationshipCount() );
+        assertEquals( 2, statistics().relationshipCountWithType( relationshipTypeId( "KNOWS" ) ) );
+    }
+
+    @Test
+    public void shouldCountRemovedLabelsAndDeletedEntities() throws Exception
+    {
+        // GIVEN
+        Transaction tx = db.beginTx();
+        Node first = db.createNode( label( "Person" ), label( "Employee" ) );
+        Node second = db.createNode( label( "Person" ) );
+        Relationship relationship = first.createRelationshipTo( second, withName( "KNOWS" ) );
+        tx.success();
+        tx.finish();
+
+        // WHEN
+        tx = db.beginTx();
+        first.removeLabel( label( "Employee" ) );
+        relationship.delete();
+        second.delete();
+        tx.success();
+        tx.finish();
+
+        // THEN
+        assertEquals( 1, statistics().nodeCount() );
+        assertEquals( 1, statistics().nodeCountWithLabel( labelId( "Person" ) ) );
+        assertEquals( 0, statistics().nodeCountWithLabel( labelId( "Employee" ) ) );
+        assertEquals( 0, statistics().relationshipCount() );
+        assertEquals( 0, statistics().relationshipCountWithType( relationshipTypeId( "KNOWS" ) ) );
+    }
+
+    @Test
+    public void shouldNotCountRolledBackChanges() throws Exception
+    {
+        // WHEN
+        Transaction tx = db.beginTx();
+        db.createNode( label( "Person" ) );
+        tx.failure();
+        tx.finish();
+
+        // THEN
+        assertEquals( 0, statistics().nodeCount() );
+    }
+
+    @Rule public final ImpermanentDatabaseRule dbRule = new ImpermanentDatabaseRule();
+    private GraphDatabaseService db;
+
+    @Before
+    public void before()
+    {
+        db = dbRule.getGraphDatabaseService();
+    }
+
+    private GraphStatistics statistics()
+    {
+        return dbRule.getGraphDatabaseAPI().getDependencyResolver().resolveDependency( GraphStatistics.class );
+    }
+
+    private long labelId( String name ) throws Exception
+    {
+        return dbRule.getGraphDatabaseAPI().getDependencyResolver()
+                .resolveDependency( LabelTokenHolder.class ).getIdByName( name );
+    }
+
+    private long relationshipTypeId( String name ) throws Exception
+    {
+        return dbRule.getGraphDatabaseAPI().getDependencyResolver()
+                .resolveDependency( RelationshipTypeTokenHolder.class ).getIdByName( name );
+    }
+}
@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.statistics;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.kernel.api.statistics.StatisticsUpdate;
+import org.neo4j.test.EphemeralFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.neo4j.kernel.impl.util.StringLogger.DEV_NULL;
+
+public class StoreGraphStatisticsTest
+{
+    @Test
+    public void shouldCountCommittedChanges() throws Throwable
+    {
+        // GIVEN
+        start();
+
+        // WHEN
+        StatisticsUpdate update = new StatisticsUpdate();
+        update.nodeAdded( new long[] {1, 2} );
+        update.nodeAdded( new long[] {1} );
+        update.relationshipAdded( 4 );
+        statistics.updateAndCommit( update );
+
+        // THEN
+        assertEquals( 2, statistics.nodeCount() );
+        assertEquals( 2, statistics.nodeCountWithLabel( 1 ) );
+        assertEquals( 1, statistics.nodeCountWithLabel( 2 ) );
+        assertEquals( 0, statistics.nodeCountWithLabel( 3 ) );
+        assertEquals( 1, statistics.relationshipCount() );
+        assertEquals( 1, statistics.relationshipCountWithType( 4 ) );
+    }
+
+    @Test
+    public void shouldCountRemovedLabelsAndEntities() throws Throwable
+    {
+        // GIVEN
+        start();
+        StatisticsUpdate created = new StatisticsUpdate();
+        created.nodeAdded( new long[] {1, 2} );
+        created.nodeAdded( new long[] {1} );
+        created.relationshipAdded( 4 );
+        statistics.updateAndCommit( created );
+
+        // WHEN
+        StatisticsUpdate changed = new StatisticsUpdate();
+        changed.labelsChanged( new long[] {1, 2}, new long[] {2, 3} );
+        changed.nodeRemoved( new long[] {1} );
+        changed.relationshipRemoved( 4 );
+        statistics.updateAndCommit( changed );
+
+        // THEN
+        assertEquals( 1, statistics.nodeCount() );
+        assertEquals( 0, statistics.nodeCountWithLabel( 1 ) );
+        assertEquals( 1, statistics.nodeCountWithLabel( 2 ) );
+        assertEquals( 1, statistics.nodeCountWithLabel( 3 ) );
+        assertEquals( 0, statistics.relationshipCount() );
+        assertEquals( 0, statistics.relationshipCountWithType( 4 ) );
+    }
+
+    @Test
+    public void shouldRebuildFromSourceWhenThereIsNoStoreFile() throws Throwable
+    {
+        // GIVEN
+        source.nodes.add( new long[] {1} );
+        source.relationshipTypes.add( 2L );
+
+        // WHEN
+        start();
+
+        // THEN
+        assertEquals( 1, statistics.nodeCount() );
+        assertEquals( 1, statistics.nodeCountWithLabel( 1 ) );
+        assertEquals( 1, statistics.relationshipCountWithType( 2 ) );
+    }
+
+    @Test
+    public void shouldLoadCountsWrittenAtShutdownWithoutRebuilding() throws Throwable
+    {
+        // GIVEN
+        start();
+        StatisticsUpdate update = new StatisticsUpdate();
+        update.nodeAdded( new long[] {5} );
+        statistics.updateAndCommit( update );
+        stop();
+
+        // WHEN
+        source.nodes.add( new long[] {6} );
+        start();
+
+        // THEN
+        assertEquals( 1, statistics.nodeCount() );
+        assertEquals( 1, statistics.nodeCountWithLabel( 5 ) );
+        assertEquals( 0, statistics.nodeCountWithLabel( 6 ) );
+    }
+
+    @Test
+    public void shouldRebuildIfStoreHasMovedOnSinceCountsWereWritten() throws Throwable
+    {
+        // GIVEN
+        start();
+        StatisticsUpdate update = new StatisticsUpdate();
+        update.nodeAdded( new long[] {5} );
+        statistics.updateAndCommit( update );
+        stop();
+
+        // WHEN
+        source.lastCommittedTx++;
+        source.nodes.add( new long[] {6} );
+        start();
+
+        // THEN
+        assertEquals( 1, statistics.nodeCount() );
+        assertEquals( 0, statistics.nodeCountWithLabel( 5 ) );
+        assertEquals( 1, statistics.nodeCountWithLabel( 6 ) );
+    }
+
+    @Test
+    public void shouldNotTrustCountsAfterCrash() throws Throwable
+    {
+        // GIVEN
+        start();
+        stop();
+        start();
+
+        // WHEN
+        statistics = null; // crash, i.e. no stop
+        source.nodes.add( new long[] {6} );
+        start();
+
+        // THEN
+        assertFalse( fs.get().fileExists( new File( storeDir, StoreGraphStatistics.FILE_NAME ) ) );
+        assertEquals( 1, statistics.nodeCountWithLabel( 6 ) );
+    }
+
+    @Test
+    public void shouldIgnoreUpdatesBeforeStart() throws Throwable
+    {
+        // GIVEN
+        source.nodes.add( new long[0] );
+        statistics = new StoreGraphStatistics( fs.get(), storeDir, source, false, DEV_NULL );
+        statistics.init();
+
+        // WHEN
+        StatisticsUpdate recovered = new StatisticsUpdate();
+        recovered.nodeAdded( new long[0] );
+        statistics.updateAndCommit( recovered );
+        statistics.start();
+
+        // THEN
+        assertEquals( 1, statistics.nodeCount() );
+    }
+
+    @Rule public final EphemeralFileSystemRule fs = new EphemeralFileSystemRule();
+    private final File storeDir = new File( "dir" );
+    private final FakeSource source = new FakeSource();
+    private StoreGraphStatistics statistics;
+
+    private void start() throws Throwable
+    {
+        statistics = new StoreGraphStatistics( fs.get(), storeDir, source, false, DEV_NULL );
+        statistics.init();
+        statistics.start();
+    }
+
+    private void stop() throws Throwable
+    {
+        statistics.stop();
+        statistics.shutdown();
+        statistics = null;
+    }
+
+    @Before
+    public void before() throws Exception
+    {
+        fs.get().mkdirs( storeDir );
+    }
+
+    @After
+    public void after() throws Throwable
+    {
+        if ( statistics != null )
+        {
+            stop();
+        }
+    }
+
+    private static class FakeSource implements StatisticsSource
+    {
+        private final List<long[]> nodes = new ArrayList<>();
+        private final List<Long> relationshipTypes = new ArrayList<>();
+        private long lastCommittedTx = 10;
+
+        @Override
+        public long lastCommittedTx()
+        {
+            return lastCommittedTx;
+        }
+
+        @Override
+        public void countAll( StatisticsUpdate target )
+        {
+            for ( long[] labels : nodes )
+            {
+                target.nodeAdded( labels );
+            }
+            for ( long type : relationshipTypes )
+            {
+                target.relationshipAdded( type );
+            }
+        }
+    }
+}
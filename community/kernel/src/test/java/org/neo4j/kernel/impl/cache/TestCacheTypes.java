@@ -74,6 +74,14 @@ public class TestCacheTypes extends AbstractNeo4jTestCase
         assertEquals( StrongCacheProvider.NAME, db.getNodeManager().getCacheType().getName() );
         db.shutdown();
     }
+
+    @Test
+    public void testOffHeapCache()
+    {
+        GraphDatabaseAPI db = newDb( OffHeapCacheProvider.NAME );
+        assertEquals( OffHeapCacheProvider.NAME, db.getNodeManager().getCacheType().getName() );
+        db.shutdown();
+    }
     
     @Test
     public void testInvalidCache()
@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+import org.neo4j.kernel.impl.util.StringLogger;
+
+public class TestOffHeapCache
+{
+    private static final int HEAP_ENTRIES = 16;
+
+    private WhileSerializing whileSerializing;
+
+    @Test
+    public void shouldMaterializeEntitiesEvictedFromHeap()
+    {
+        OffHeapCache<Entity> cache = newCache( 1024 * 1024 );
+        for ( int i = 0; i < HEAP_ENTRIES * 10; i++ )
+        {
+            cache.put( new Entity( i, i * 10 ) );
+        }
+
+        for ( int i = 0; i < HEAP_ENTRIES * 10; i++ )
+        {
+            Entity entity = cache.get( i );
+            assertNotNull( "entity " + i, entity );
+            assertEquals( i * 10, entity.value );
+        }
+        assertEquals( HEAP_ENTRIES * 10, cache.hitCount() );
+        assertEquals( HEAP_ENTRIES * 10, cache.size() );
+    }
+
+    @Test
+    public void shouldKeepMaterializedEntityOnHeap()
+    {
+        OffHeapCache<Entity> cache = newCache( 1024 * 1024 );
+        Entity entity = new Entity( 0, 1 );
+        cache.put( entity );
+        evictFromHeap( cache, 0 );
+
+        Entity materialized = cache.get( 0 );
+        assertNotSame( entity, materialized );
+        assertSame( materialized, cache.get( 0 ) );
+    }
+
+    @Test
+    public void shouldInvalidateOffHeapCopyWhenEvictedEntityChanges()
+    {
+        OffHeapCache<Entity> cache = newCache( 1024 * 1024 );
+        Entity entity = new Entity( 0, 1 );
+        cache.put( entity );
+        evictFromHeap( cache, 0 );
+
+        entity.value = 2;
+        cache.updateSize( entity, entity.sizeOfObjectInBytesIncludingOverhead() );
+
+        assertNull( cache.get( 0 ) );
+    }
+
+    @Test
+    public void shouldNotSpillEntityRemovedWhileItWasBeingSerialized()
+    {
+        final OffHeapCache<Entity> cache = newCache( 1024 * 1024 );
+        whileSerializing = new WhileSerializing()
+        {
+            @Override
+            public void serialized( Entity entity )
+            {
+                if ( entity.id == 0 )
+                {
+                    cache.remove( 0 );
+                }
+            }
+        };
+        cache.put( new Entity( 0, 1 ) );
+
+        evictFromHeap( cache, 0 );
+
+        assertNull( cache.get( 0 ) );
+    }
+
+    @Test
+    public void shouldNotSpillEntityChangedWhileItWasBeingSerialized()
+    {
+        final OffHeapCache<Entity> cache = newCache( 1024 * 1024 );
+        whileSerializing = new WhileSerializing()
+        {
+            @Override
+            public void serialized( Entity entity )
+            {
+                if ( entity.id == 0 && entity.value == 1 )
+                {
+                    entity.value = 2;
+                    cache.updateSize( entity, entity.sizeOfObjectInBytesIncludingOverhead() );
+                }
+            }
+        };
+        cache.put( new Entity( 0, 1 ) );
+
+        evictFromHeap( cache, 0 );
+
+        assertNull( cache.get( 0 ) );
+    }
+
+    @Test
+    public void shouldRemoveFromBothTiers()
+    {
+        OffHeapCache<Entity> cache = newCache( 1024 * 1024 );
+        cache.put( new Entity( 0, 1 ) );
+        evictFromHeap( cache, 0 );
+        cache.put( new Entity( 16, 1 ) );
+
+        cache.remove( 0 );
+        cache.remove( 16 );
+
+        assertNull( cache.get( 0 ) );
+        assertNull( cache.get( 16 ) );
+    }
+
+    @Test
+    public void shouldStayWithinByteBudget()
+    {
+        // 16 segments of 64 bytes, each fitting three 20 byte records
+        OffHeapCache<Entity> cache = newCache( 1024 );
+        int count = 10000;
+        for ( int i = 0; i < count; i++ )
+        {
+            cache.put( new Entity( i, i ) );
+        }
+
+        assertTrue( cache.size() <= HEAP_ENTRIES + 16 * 3 );
+        for ( int i = count - HEAP_ENTRIES; i < count; i++ )
+        {
+            assertNotNull( cache.get( i ) );
+        }
+        assertNull( cache.get( 0 ) );
+    }
+
+    @Test
+    public void shouldMapIdsToOffsetsThroughRemovalsAndGrowth()
+    {
+        OffHeapStore.IdIndex index = new OffHeapStore.IdIndex();
+        for ( int i = 0; i < 10000; i++ )
+        {
+            index.put( i * 7, i );
+        }
+        for ( int i = 0; i < 10000; i += 2 )
+        {
+            index.remove( i * 7 );
+        }
+
+        assertEquals( 5000, index.size() );
+        for ( int i = 0; i < 10000; i++ )
+        {
+            assertEquals( i % 2 == 0 ? -1 : i, index.get( i * 7 ) );
+        }
+    }
+
+    private void evictFromHeap( OffHeapCache<Entity> cache, long id )
+    {
+        // Ids in steps of 16 all land in the same heap stripe, which holds a single entity
+        for ( int i = 1; i <= HEAP_ENTRIES; i++ )
+        {
+            cache.put( new Entity( id + 16 * i, 0 ) );
+        }
+    }
+
+    private OffHeapCache<Entity> newCache( long bytes )
+    {
+        return new OffHeapCache<Entity>( "test", new EntitySerializer<Entity>()
+        {
+            @Override
+            public ByteBuffer serialize( Entity entity )
+            {
+                ByteBuffer buffer = ByteBuffer.allocate( 8 );
+                buffer.putLong( entity.value ).flip();
+                if ( whileSerializing != null )
+                {
+                    whileSerializing.serialized( entity );
+                }
+                return buffer;
+            }
+
+            @Override
+            public Entity deserialize( long id, ByteBuffer source )
+            {
+                return new Entity( id, source.getLong() );
+            }
+        }, bytes, HEAP_ENTRIES, StringLogger.DEV_NULL );
+    }
+
+    /**
+     * Lets a test act on an entity after it was serialized, but before it was stored off heap,
+     * like another thread could.
+     */
+    private interface WhileSerializing
+    {
+        void serialized( Entity entity );
+    }
+
+    private static class Entity implements EntityWithSizeObject
+    {
+        private final long id;
+        private long value;
+        private int registeredSize;
+
+        Entity( long id, long value )
+        {
+            this.id = id;
+            this.value = value;
+        }
+
+        @Override
+        public long getId()
+        {
+            return id;
+        }
+
+        @Override
+        public int sizeOfObjectInBytesIncludingOverhead()
+        {
+            return 32;
+        }
+
+        @Override
+        public void setRegisteredSize( int size )
+        {
+            registeredSize = size;
+        }
+
+        @Override
+        public int getRegisteredSize()
+        {
+            return registeredSize;
+        }
+    }
+}
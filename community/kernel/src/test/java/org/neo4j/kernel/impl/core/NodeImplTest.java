@@ -29,14 +29,18 @@ import org.neo4j.graphdb.DynamicRelationshipType;
 import org.neo4j.graphdb.NotFoundException;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.RelationshipType;
-import org.neo4j.helpers.Triplet;
+import org.neo4j.helpers.Pair;
 import org.neo4j.kernel.ThreadToStatementContextBridge;
+import org.neo4j.kernel.impl.nioneo.xa.SingleChainPosition;
 import org.neo4j.kernel.impl.util.ArrayMap;
 import org.neo4j.kernel.impl.util.RelIdArray;
+import org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper;
 
 import static junit.framework.Assert.assertNotNull;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -71,9 +75,11 @@ public class NodeImplTest
         when( relLookup.lookupRelationship( TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID ) )
                 .thenReturn( new RelationshipImpl( TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID, 1, 2,
                         TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_TYPE, false ) );
-        when( nodeManager.getMoreRelationships( nodeImpl ) ).thenReturn( tripletWithValues(
+        when( nodeManager.getRelationshipChainPosition( nodeImpl ) ).thenReturn( new SingleChainPosition( 0 ) );
+        when( nodeManager.getMoreRelationships( eq( nodeImpl ), any( DirectionWrapper.class ),
+                any( int[].class ) ) ).thenReturn( pairWithValues(
                 TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID, TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID
-        ) ).thenReturn( noMoreRelationshipsTriplet() );
+        ) ).thenReturn( noMoreRelationshipsPair() );
         when( nodeManager.getTransactionState() ).thenReturn( txState );
         when( nodeManager.newRelationshipProxyById( TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID ) ).thenReturn(
                 new RelationshipProxy( TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID, relLookup, stmCtxBridge ) );
@@ -111,9 +117,11 @@ public class NodeImplTest
                 .thenReturn( new RelationshipImpl( TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID + 1, 1, 2,
                         TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_TYPE, false ) );
 
-        when( nodeManager.getMoreRelationships( nodeImpl ) ).thenReturn( tripletWithValues(
+        when( nodeManager.getRelationshipChainPosition( nodeImpl ) ).thenReturn( new SingleChainPosition( 0 ) );
+        when( nodeManager.getMoreRelationships( eq( nodeImpl ), any( DirectionWrapper.class ),
+                any( int[].class ) ) ).thenReturn( pairWithValues(
                 TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID, TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID + 1
-        ) ).thenReturn( noMoreRelationshipsTriplet() );
+        ) ).thenReturn( noMoreRelationshipsPair() );
         when( nodeManager.getTransactionState() ).thenReturn( txState );
 
         when( nodeManager.newRelationshipProxyById( TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID ) )
@@ -134,9 +142,9 @@ public class NodeImplTest
         }
     }
 
-    private Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long> noMoreRelationshipsTriplet()
+    private Pair<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>> noMoreRelationshipsPair()
     {
-        return Triplet.of( new ArrayMap<Integer, RelIdArray>(), Collections.<RelationshipImpl>emptyList(), 0l );
+        return Pair.of( new ArrayMap<Integer, RelIdArray>(), Collections.<RelationshipImpl>emptyList() );
     }
 
     @Test
@@ -163,10 +171,12 @@ public class NodeImplTest
                 .thenReturn( new RelationshipImpl( TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID + 1, 1, 2,
                         TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_TYPE, false ) );
 
-        when( nodeManager.getMoreRelationships( nodeImpl ) ).thenReturn( tripletWithValues(
+        when( nodeManager.getRelationshipChainPosition( nodeImpl ) ).thenReturn( new SingleChainPosition( 0 ) );
+        when( nodeManager.getMoreRelationships( eq( nodeImpl ), any( DirectionWrapper.class ),
+                any( int[].class ) ) ).thenReturn( pairWithValues(
                 TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID, TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID,
                 TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID + 1
-        ) ).thenReturn( noMoreRelationshipsTriplet() );
+        ) ).thenReturn( noMoreRelationshipsPair() );
 
         when( nodeManager.getTransactionState() ).thenReturn( txState );
 
@@ -188,8 +198,7 @@ public class NodeImplTest
         }
     }
 
-    private Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>,
-            Long> tripletWithValues( long... ids )
+    private Pair<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>> pairWithValues( long... ids )
     {
 
         final RelIdArray relIdArray = createRelIdArrayWithValues( ids );
@@ -197,8 +206,7 @@ public class NodeImplTest
         ArrayMap<Integer, RelIdArray> arrayMap = new ArrayMap<Integer, RelIdArray>();
         arrayMap.put( TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_TYPE, relIdArray );
 
-        return Triplet.of( arrayMap,
-                Collections.<RelationshipImpl>emptyList(), 0l );
+        return Pair.of( arrayMap, Collections.<RelationshipImpl>emptyList() );
     }
 
 
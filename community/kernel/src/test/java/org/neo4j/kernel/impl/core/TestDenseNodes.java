@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.core;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.DynamicRelationshipType;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.impl.nioneo.store.NeoStore;
+import org.neo4j.kernel.impl.transaction.XaDataSourceManager;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import static java.lang.String.valueOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.helpers.collection.IteratorUtil.count;
+
+public class TestDenseNodes
+{
+    private static final int THRESHOLD = 10;
+    private static final RelationshipType KNOWS = DynamicRelationshipType.withName( "KNOWS" );
+    private static final RelationshipType LIKES = DynamicRelationshipType.withName( "LIKES" );
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void doBefore() throws Exception
+    {
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory()
+                .newImpermanentDatabaseBuilder()
+                .setConfig( GraphDatabaseSettings.dense_node_threshold, valueOf( THRESHOLD ) )
+                .newGraphDatabase();
+    }
+
+    @AfterClass
+    public static void doAfter() throws Exception
+    {
+        db.shutdown();
+    }
+
+    @Test
+    public void nodeBecomesDenseWhenReachingThreshold() throws Exception
+    {
+        // GIVEN
+        Node node = createNodeWithRelationships( THRESHOLD - 1, KNOWS, Direction.OUTGOING );
+        assertFalse( isDense( node ) );
+
+        // WHEN
+        Transaction tx = db.beginTx();
+        node.createRelationshipTo( db.createNode(), KNOWS );
+        node.createRelationshipTo( db.createNode(), KNOWS );
+        tx.success();
+        tx.finish();
+
+        // THEN
+        assertTrue( isDense( node ) );
+        assertEquals( THRESHOLD + 1, count( node.getRelationships() ) );
+        db.getNodeManager().clearCache();
+        assertEquals( THRESHOLD + 1, count( node.getRelationships( KNOWS, Direction.OUTGOING ) ) );
+    }
+
+    @Test
+    public void shouldLoadRelationshipsOfRequestedTypeAndDirectionFromDenseNode() throws Exception
+    {
+        // GIVEN
+        Node node = createNodeWithRelationships( THRESHOLD * 2, KNOWS, Direction.OUTGOING );
+        Transaction tx = db.beginTx();
+        for ( int i = 0; i < 3; i++ )
+        {
+            db.createNode().createRelationshipTo( node, LIKES );
+        }
+        node.createRelationshipTo( node, LIKES );
+        tx.success();
+        tx.finish();
+        db.getNodeManager().clearCache();
+
+        // THEN
+        assertTrue( isDense( node ) );
+        assertEquals( 4, count( node.getRelationships( LIKES, Direction.INCOMING ) ) );
+        assertEquals( 1, count( node.getRelationships( LIKES, Direction.OUTGOING ) ) );
+        assertEquals( 0, count( node.getRelationships( KNOWS, Direction.INCOMING ) ) );
+        assertEquals( THRESHOLD * 2, count( node.getRelationships( KNOWS ) ) );
+        assertEquals( THRESHOLD * 2 + 4, count( node.getRelationships() ) );
+    }
+
+    @Test
+    public void shouldDeleteRelationshipsAndNodeThatIsDense() throws Exception
+    {
+        // GIVEN
+        Node node = createNodeWithRelationships( THRESHOLD * 2, KNOWS, Direction.INCOMING );
+        db.getNodeManager().clearCache();
+
+        // WHEN
+        Transaction tx = db.beginTx();
+        for ( Relationship relationship : node.getRelationships() )
+        {
+            relationship.delete();
+        }
+        tx.success();
+        tx.finish();
+        db.getNodeManager().clearCache();
+        assertEquals( 0, count( node.getRelationships() ) );
+
+        tx = db.beginTx();
+        node.delete();
+        tx.success();
+        tx.finish();
+    }
+
+    private Node createNodeWithRelationships( int count, RelationshipType type, Direction direction )
+    {
+        Transaction tx = db.beginTx();
+        try
+        {
+            Node node = db.createNode();
+            for ( int i = 0; i < count; i++ )
+            {
+                Node other = db.createNode();
+                if ( direction == Direction.OUTGOING )
+                {
+                    node.createRelationshipTo( other, type );
+                }
+                else
+                {
+                    other.createRelationshipTo( node, type );
+                }
+            }
+            tx.success();
+            return node;
+        }
+        finally
+        {
+            tx.finish();
+        }
+    }
+
+    private boolean isDense( Node node )
+    {
+        NeoStore neoStore = db.getDependencyResolver().resolveDependency( XaDataSourceManager.class )
+                .getNeoStoreDataSource().getNeoStore();
+        return neoStore.getNodeStore().getRecord( node.getId() ).isDense();
+    }
+}
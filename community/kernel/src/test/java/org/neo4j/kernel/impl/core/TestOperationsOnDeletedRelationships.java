@@ -23,7 +23,8 @@ import org.junit.Test;
 
 import org.neo4j.graphdb.NotFoundException;
 import org.neo4j.kernel.impl.nioneo.store.InvalidRecordException;
-import org.neo4j.kernel.impl.util.RelIdArray;
+import org.neo4j.kernel.impl.nioneo.xa.SingleChainPosition;
+import org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
@@ -48,13 +49,14 @@ public class TestOperationsOnDeletedRelationships
         Throwable exceptionCaught = null;
 
         // Given something tries to load relationships, throw InvalidRecordException
-        when( nodeManager.getMoreRelationships( any( NodeImpl.class ) ) ).thenThrow( new InvalidRecordException(
-                "LURING!" ) );
+        when( nodeManager.getRelationshipChainPosition( nodeImpl ) ).thenReturn( new SingleChainPosition( 0 ) );
+        when( nodeManager.getMoreRelationships( any( NodeImpl.class ), any( DirectionWrapper.class ),
+                any( int[].class ) ) ).thenThrow( new InvalidRecordException( "LURING!" ) );
 
         // When
         try
         {
-            nodeImpl.getAllRelationships( nodeManager, RelIdArray.DirectionWrapper.BOTH );
+            nodeImpl.getAllRelationships( nodeManager, DirectionWrapper.BOTH );
         }
         catch ( Throwable e )
         {
@@ -75,17 +77,17 @@ public class TestOperationsOnDeletedRelationships
         Throwable exceptionCaught = null;
 
         // This makes fromNode think there are more relationships to be loaded
-        fromNode.setRelChainPosition( 1337l );
+        fromNode.setRelChainPosition( new SingleChainPosition( 1337l ) );
 
         // This makes nodeManager pretend that relationships have been deleted
-        when( nodeManager.getMoreRelationships( any( NodeImpl.class ) ) ).thenThrow( new InvalidRecordException(
-                "LURING!" ) );
+        when( nodeManager.getMoreRelationships( any( NodeImpl.class ), any( DirectionWrapper.class ),
+                any( int[].class ) ) ).thenThrow( new InvalidRecordException( "LURING!" ) );
 
 
         // When
         try
         {
-            fromNode.getMoreRelationships( nodeManager );
+            fromNode.getMoreRelationships( nodeManager, DirectionWrapper.BOTH, NodeImpl.ALL_TYPES );
         }
         catch ( Throwable e )
         {
@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.test.ResourceCollection;
+import org.neo4j.test.TargetDirectory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PageCacheWindowPoolTest
+{
+    private static final TargetDirectory target = TargetDirectory.forTest( PageCacheWindowPoolTest.class );
+    private static final int RECORD_SIZE = 8;
+    private static final int PAGE_SIZE = 64;
+    private static final int RECORDS_PER_PAGE = PAGE_SIZE / RECORD_SIZE;
+
+    @Rule
+    public final TargetDirectory.TestDirectory directory = target.testDirectory();
+    @Rule
+    public final ResourceCollection resources = new ResourceCollection();
+
+    private FileChannel channel;
+
+    @Before
+    public void openChannel() throws Exception
+    {
+        File file = new File( directory.directory(), "page.cache" );
+        channel = resources.add( new RandomAccessFile( file, "rw" ) ).getChannel();
+    }
+
+    @Test
+    public void shouldReadWhatWasWrittenAfterThePageHasBeenEvicted() throws Exception
+    {
+        // given
+        PageCacheWindowPool pool = newPool();
+        writeRecord( pool, 3, 42 );
+
+        // when
+        touchPages( pool, 1, PageCacheWindowPool.MIN_PAGE_COUNT * 2 );
+
+        // then
+        assertEquals( 42, readRecord( pool, 3 ) );
+        assertTrue( pool.getStats().getEvictionCount() > 0 );
+        pool.close();
+    }
+
+    @Test
+    public void shouldWriteDirtyPagesToFileOnFlush() throws Exception
+    {
+        // given
+        PageCacheWindowPool pool = newPool();
+        writeRecord( pool, RECORDS_PER_PAGE + 1, 1337 );
+
+        // when
+        pool.flushAll();
+
+        // then
+        ByteBuffer buffer = ByteBuffer.allocate( RECORD_SIZE );
+        channel.read( buffer, (RECORDS_PER_PAGE + 1) * RECORD_SIZE );
+        buffer.flip();
+        assertEquals( 1337, buffer.getLong() );
+        pool.close();
+    }
+
+    @Test
+    public void concurrentReadersShouldShareAPageWithoutSharingBufferPositions() throws Exception
+    {
+        // given
+        PageCacheWindowPool pool = newPool();
+        writeRecord( pool, 0, 10 );
+        writeRecord( pool, 1, 11 );
+
+        // when
+        PersistenceWindow first = pool.acquire( 0, OperationType.READ );
+        PersistenceWindow second = pool.acquire( 1, OperationType.READ );
+        Buffer firstBuffer = first.getOffsettedBuffer( 0 );
+        Buffer secondBuffer = second.getOffsettedBuffer( 1 );
+
+        // then
+        assertEquals( 10, firstBuffer.getBuffer().getLong() );
+        assertEquals( 11, secondBuffer.getBuffer().getLong() );
+        pool.release( second );
+        pool.release( first );
+        pool.close();
+    }
+
+    @Test
+    public void threadShouldPinAPageItHasAlreadyPinned() throws Exception
+    {
+        // given
+        PageCacheWindowPool pool = newPool();
+        PersistenceWindow write = pool.acquire( 0, OperationType.WRITE );
+        write.getOffsettedBuffer( 0 ).putLong( 10 );
+
+        // when
+        writeRecord( pool, 1, 11 );
+        long read = readRecord( pool, 0 );
+        pool.release( write );
+
+        // then
+        assertEquals( 10, read );
+        assertEquals( 11, readRecord( pool, 1 ) );
+        pool.close();
+    }
+
+    @Test
+    public void shouldCountHitsAndMisses() throws Exception
+    {
+        // given
+        PageCacheWindowPool pool = newPool();
+
+        // when
+        readRecord( pool, 0 );
+        readRecord( pool, 1 );
+        readRecord( pool, RECORDS_PER_PAGE );
+
+        // then
+        WindowPoolStats stats = pool.getStats();
+        assertEquals( 1, stats.getHitCount() );
+        assertEquals( 2, stats.getMissCount() );
+        assertEquals( 1, pool.getHitCount() );
+        assertEquals( 2, pool.getMissCount() );
+        pool.close();
+    }
+
+    private PageCacheWindowPool newPool()
+    {
+        return new PageCacheWindowPool( new File( "test.store" ), RECORD_SIZE, channel, 0, PAGE_SIZE, 0, false,
+                StringLogger.DEV_NULL );
+    }
+
+    private void touchPages( PageCacheWindowPool pool, int fromPage, int toPage )
+    {
+        for ( int page = fromPage; page < toPage; page++ )
+        {
+            writeRecord( pool, page * RECORDS_PER_PAGE, page );
+        }
+    }
+
+    private void writeRecord( PageCacheWindowPool pool, long id, long value )
+    {
+        PersistenceWindow window = pool.acquire( id, OperationType.WRITE );
+        try
+        {
+            window.getOffsettedBuffer( id ).putLong( value );
+        }
+        finally
+        {
+            pool.release( window );
+        }
+    }
+
+    private long readRecord( PageCacheWindowPool pool, long id )
+    {
+        PersistenceWindow window = pool.acquire( id, OperationType.READ );
+        try
+        {
+            return window.getOffsettedBuffer( id ).getLong();
+        }
+        finally
+        {
+            pool.release( window );
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PageLatchTest
+{
+    private final PageLatch latch = new PageLatch();
+    private final ExecutorService otherThread = Executors.newSingleThreadExecutor();
+
+    @After
+    public void stopOtherThread()
+    {
+        otherThread.shutdownNow();
+    }
+
+    @Test( timeout = 10000 )
+    public void threadHoldingTheLatchSharedShouldGetItSharedAgainWhileAWriterWaits() throws Exception
+    {
+        // given
+        latch.acquireShared();
+        Future<Boolean> writer = otherThread.submit( new Callable<Boolean>()
+        {
+            @Override
+            public Boolean call()
+            {
+                latch.acquireExclusive();
+                latch.releaseExclusive();
+                return true;
+            }
+        } );
+        while ( !latch.toString().contains( "wanted:true" ) )
+        {
+            Thread.sleep( 1 );
+        }
+
+        // when
+        latch.acquireShared();
+        latch.releaseShared();
+        latch.releaseShared();
+
+        // then
+        assertTrue( writer.get( 10, TimeUnit.SECONDS ) );
+    }
+
+    @Test
+    public void threadHoldingTheLatchExclusivelyShouldGetItAgain() throws Exception
+    {
+        // given
+        latch.acquireExclusive();
+
+        // when
+        latch.acquireShared();
+        latch.acquireExclusive();
+        latch.releaseExclusive();
+        latch.releaseShared();
+
+        // then
+        assertFalse( tryAcquireExclusiveInOtherThread() );
+        latch.releaseExclusive();
+        assertTrue( tryAcquireExclusiveInOtherThread() );
+    }
+
+    @Test
+    public void shouldRefuseToUpgradeFromSharedToExclusive() throws Exception
+    {
+        // given
+        latch.acquireShared();
+
+        // when
+        try
+        {
+            latch.acquireExclusive();
+            fail( "Should not upgrade a shared latch" );
+        }
+        catch ( IllegalStateException e )
+        {   // Good
+        }
+
+        // then
+        latch.releaseShared();
+        assertTrue( tryAcquireExclusiveInOtherThread() );
+    }
+
+    private boolean tryAcquireExclusiveInOtherThread() throws Exception
+    {
+        return otherThread.submit( new Callable<Boolean>()
+        {
+            @Override
+            public Boolean call()
+            {
+                boolean acquired = latch.tryAcquireExclusive();
+                if ( acquired )
+                {
+                    latch.releaseExclusive();
+                }
+                return acquired;
+            }
+        } ).get();
+    }
+}
@@ -726,4 +726,70 @@ public class TestIdGenerator
                 assertTrue( file.delete() );
         }
     }
+
+    @Test
+    public void concurrentlyAllocatedIdsShouldBeUnique() throws Exception
+    {
+        IdGeneratorImpl.createGenerator( fs, idGeneratorFile() );
+        final IdGeneratorImpl idGenerator = new IdGeneratorImpl( fs, idGeneratorFile(), 10, 1000000, true, 0 );
+        final int threads = 4, idsPerThread = 10000;
+        final List<List<Long>> allocated = new ArrayList<List<Long>>();
+        List<Thread> workers = new ArrayList<Thread>();
+        for ( int t = 0; t < threads; t++ )
+        {
+            final List<Long> ids = new ArrayList<Long>();
+            allocated.add( ids );
+            workers.add( new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    for ( int i = 0; i < idsPerThread; i++ )
+                    {
+                        if ( i % 3 == 0 )
+                        {
+                            IdRange range = idGenerator.nextIdBatch( 5 );
+                            for ( long id : range.getDefragIds() )
+                            {
+                                ids.add( id );
+                            }
+                            for ( long id = range.getRangeStart(); id < range.getRangeStart() + range.getRangeLength(); id++ )
+                            {
+                                ids.add( id );
+                            }
+                        }
+                        else
+                        {
+                            ids.add( idGenerator.nextId() );
+                        }
+                        if ( i % 2 == 0 )
+                        {
+                            // Free an id this thread owns, to have it handed out again
+                            idGenerator.freeId( ids.remove( ids.size() - 1 ) );
+                        }
+                    }
+                }
+            } );
+        }
+        for ( Thread worker : workers )
+        {
+            worker.start();
+        }
+        for ( Thread worker : workers )
+        {
+            worker.join();
+        }
+
+        Set<Long> unique = new HashSet<Long>();
+        for ( List<Long> ids : allocated )
+        {
+            for ( Long id : ids )
+            {
+                assertTrue( "Id " + id + " handed out twice", unique.add( id ) );
+            }
+        }
+        assertEquals( idGenerator.getNumberOfAllocatedHighIds() + idGenerator.getNumberOfReusedIds()
+                - idGenerator.getNumberOfFreedIds(), unique.size() );
+        idGenerator.close();
+    }
 }
@@ -28,7 +28,6 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicLong;
 
 import javax.transaction.xa.XAException;
 import javax.transaction.xa.XAResource;
@@ -45,7 +44,6 @@ import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
-import org.neo4j.helpers.Pair;
 import org.neo4j.helpers.collection.CombiningIterable;
 import org.neo4j.helpers.collection.MapUtil;
 import org.neo4j.kernel.DefaultIdGeneratorFactory;
@@ -57,6 +55,7 @@ import org.neo4j.kernel.impl.api.KernelSchemaStateStore;
 import org.neo4j.kernel.impl.cache.Cache;
 import org.neo4j.kernel.impl.cache.LockStripedCache;
 import org.neo4j.kernel.impl.core.NodeManager;
+import org.neo4j.kernel.impl.core.RelationshipLoadingPosition;
 import org.neo4j.kernel.impl.core.Token;
 import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaConnection;
 import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
@@ -382,7 +381,7 @@ public class TestNeoStore
         }
         for ( int i = 0; i < 3; i++ )
         {
-            AtomicLong pos = getPosition( xaCon, nodeIds[i] );
+            RelationshipLoadingPosition pos = getPosition( xaCon, nodeIds[i] );
             for ( RelationshipRecord rel : getMore( xaCon, nodeIds[i], pos ) )
             {
                 xaCon.getWriteTransaction().relDelete( rel.getId() );
@@ -393,19 +392,18 @@ public class TestNeoStore
         ds.stop();
     }
 
-    private AtomicLong getPosition( NeoStoreXaConnection xaCon, long node )
+    private RelationshipLoadingPosition getPosition( NeoStoreXaConnection xaCon, long node )
     {
-        return new AtomicLong( xaCon.getWriteTransaction().getRelationshipChainPosition( node ) );
+        return xaCon.getWriteTransaction().getRelationshipChainPosition( node );
     }
 
-    @SuppressWarnings("unchecked")
-    private Iterable<RelationshipRecord> getMore( NeoStoreXaConnection xaCon, long node, AtomicLong pos )
+    private Iterable<RelationshipRecord> getMore( NeoStoreXaConnection xaCon, long node,
+            RelationshipLoadingPosition pos )
     {
-        Pair<Map<DirectionWrapper, Iterable<RelationshipRecord>>, Long> rels =
-                xaCon.getWriteTransaction().getMoreRelationships( node, pos.get() );
-        pos.set( rels.other() );
+        Map<DirectionWrapper, Iterable<RelationshipRecord>> rels =
+                xaCon.getWriteTransaction().getMoreRelationships( node, pos, DirectionWrapper.BOTH, new int[0] );
         List<Iterable<RelationshipRecord>> list = new ArrayList<Iterable<RelationshipRecord>>();
-        for ( Map.Entry<DirectionWrapper, Iterable<RelationshipRecord>> entry : rels.first().entrySet() )
+        for ( Map.Entry<DirectionWrapper, Iterable<RelationshipRecord>> entry : rels.entrySet() )
         {
             list.add( entry.getValue() );
         }
@@ -455,7 +453,7 @@ public class TestNeoStore
         }
         assertEquals( 3, count );
         count = 0;
-        AtomicLong pos = getPosition( xaCon, node );
+        RelationshipLoadingPosition pos = getPosition( xaCon, node );
         while ( true )
         {
             Iterable<RelationshipRecord> relData = getMore( xaCon, node, pos );
@@ -529,7 +527,7 @@ public class TestNeoStore
         assertEquals( 3, count );
         count = 0;
 
-        AtomicLong pos = getPosition( xaCon, node );
+        RelationshipLoadingPosition pos = getPosition( xaCon, node );
         while ( true )
         {
             Iterable<RelationshipRecord> relData = getMore( xaCon, node, pos );
@@ -728,10 +726,10 @@ public class TestNeoStore
         assertEquals( secondNode, relData.getSecondNode() );
         assertEquals( relType, relData.getType() );
         xaCon.getWriteTransaction().relDelete( rel );
-        AtomicLong firstPos = getPosition( xaCon, firstNode );
+        RelationshipLoadingPosition firstPos = getPosition( xaCon, firstNode );
         Iterator<RelationshipRecord> first = getMore( xaCon, firstNode, firstPos ).iterator();
         first.next();
-        AtomicLong secondPos = getPosition( xaCon, secondNode );
+        RelationshipLoadingPosition secondPos = getPosition( xaCon, secondNode );
         Iterator<RelationshipRecord> second = getMore( xaCon, secondNode, secondPos ).iterator();
         second.next();
         assertTrue( first.hasNext() );
@@ -783,9 +781,9 @@ public class TestNeoStore
         assertEquals( secondNode, relData.getSecondNode() );
         assertEquals( relType, relData.getType() );
         xaCon.getWriteTransaction().relDelete( rel );
-        AtomicLong firstPos = getPosition( xaCon, firstNode );
+        RelationshipLoadingPosition firstPos = getPosition( xaCon, firstNode );
         Iterator<RelationshipRecord> first = getMore( xaCon, firstNode, firstPos ).iterator();
-        AtomicLong secondPos = getPosition( xaCon, secondNode );
+        RelationshipLoadingPosition secondPos = getPosition( xaCon, secondNode );
         Iterator<RelationshipRecord> second = getMore( xaCon, secondNode, secondPos ).iterator();
         assertTrue( first.hasNext() );
         assertTrue( second.hasNext() );
@@ -830,7 +828,7 @@ public class TestNeoStore
         }
         assertEquals( 3, count );
         assertEquals( 3, xaCon.getWriteTransaction().nodeLoadProperties( node, false ).size() );
-        AtomicLong pos = getPosition( xaCon, node );
+        RelationshipLoadingPosition pos = getPosition( xaCon, node );
         Iterator<RelationshipRecord> rels = getMore( xaCon, node, pos ).iterator();
         assertTrue( rels.hasNext() );
         xaCon.getWriteTransaction().nodeDelete( node );
@@ -875,7 +873,7 @@ public class TestNeoStore
         }
         assertEquals( 3, count );
         assertEquals( 3, xaCon.getWriteTransaction().nodeLoadProperties( node, false ).size() );
-        AtomicLong pos = getPosition( xaCon, node );
+        RelationshipLoadingPosition pos = getPosition( xaCon, node );
         Iterator<RelationshipRecord> rels = getMore( xaCon, node, pos ).iterator();
         assertTrue( rels.hasNext() );
         xaCon.getWriteTransaction().nodeDelete( node );
@@ -913,7 +911,7 @@ public class TestNeoStore
         startTx();
         for ( int i = 0; i < 3; i += 2 )
         {
-            AtomicLong pos = getPosition( xaCon, nodeIds[i] );
+            RelationshipLoadingPosition pos = getPosition( xaCon, nodeIds[i] );
             for ( RelationshipRecord rel : getMore( xaCon, nodeIds[i], pos ) )
             {
                 xaCon.getWriteTransaction().relDelete( rel.getId() );
@@ -951,7 +949,7 @@ public class TestNeoStore
         startTx();
         for ( int i = 0; i < 3; i++ )
         {
-            AtomicLong pos = getPosition( xaCon, nodeIds[i] );
+            RelationshipLoadingPosition pos = getPosition( xaCon, nodeIds[i] );
             for ( RelationshipRecord rel : getMore( xaCon, nodeIds[i], pos ) )
             {
                 xaCon.getWriteTransaction().relDelete( rel.getId() );
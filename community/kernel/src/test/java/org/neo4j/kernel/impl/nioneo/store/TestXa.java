@@ -149,6 +149,7 @@ public class TestXa
                 "neo.propertystore.db.strings",
                 "neo.propertystore.db.arrays",
                 "neo.relationshipstore.db",
+                "neo.relationshipgroupstore.db",
                 "neo.relationshiptypestore.db",
                 "neo.relationshiptypestore.db.names",
                 "neo.schemastore.db",
@@ -19,7 +19,9 @@
  */
 package org.neo4j.kernel.impl.nioneo.xa;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.junit.After;
@@ -99,6 +101,37 @@ public class NeoStoreIndexStoreViewTest
         assertEquals( emptySetOf( NodePropertyUpdate.class ), visitor.getUpdates() );
     }
 
+    @Test
+    public void shouldVisitNodesInOrderWhenScanningInParallel() throws Exception
+    {
+        // given
+        int nodeCount = NeoStoreIndexStoreView.PARTITION_SIZE * 2 + 10;
+        createNamedPersonNodes( nodeCount );
+        NeoStoreIndexStoreView parallelStoreView =
+                new NeoStoreIndexStoreView( new StoreAccess( graphDb ).getRawNeoStore(), 4 );
+        final List<NodePropertyUpdate> updates = new ArrayList<NodePropertyUpdate>();
+        StoreScan<Exception> storeScan = parallelStoreView.visitNodes( new long[] { labelId },
+                new long[] { propertyKeyId }, new Visitor<NodePropertyUpdate, Exception>()
+                {
+                    @Override
+                    public boolean visit( NodePropertyUpdate update )
+                    {
+                        updates.add( update );
+                        return false;
+                    }
+                } );
+
+        // when
+        storeScan.run();
+
+        // then
+        assertEquals( nodeCount + 2, updates.size() );
+        for ( int i = 1; i < updates.size(); i++ )
+        {
+            assertTrue( updates.get( i - 1 ).getNodeId() < updates.get( i ).getNodeId() );
+        }
+    }
+
     @Before
     public void before() throws SchemaKernelException
     {
@@ -136,6 +169,23 @@ public class NeoStoreIndexStoreViewTest
         }
     }
 
+    private void createNamedPersonNodes( int count )
+    {
+        Transaction tx = graphDb.beginTx();
+        try
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                graphDb.createNode( label ).setProperty( "name", "Person " + i );
+            }
+            tx.success();
+        }
+        finally
+        {
+            tx.finish();
+        }
+    }
+
     private void deleteAlistairAndStefanNodes()
     {
         Transaction tx = graphDb.beginTx();
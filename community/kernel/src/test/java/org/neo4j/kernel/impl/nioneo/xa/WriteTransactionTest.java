@@ -36,6 +36,8 @@ import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.kernel.DefaultIdGeneratorFactory;
 import org.neo4j.kernel.DefaultTxHook;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
+import org.neo4j.kernel.api.statistics.GraphStatistics;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.api.KernelSchemaStateStore;
 import org.neo4j.kernel.impl.api.index.IndexingService;
@@ -634,7 +636,7 @@ public class WriteTransactionTest
     {
         log = new VerifyingXaLogicalLog( fs.get(), verifier );
         WriteTransaction result = new WriteTransaction( 0, log, transactionState, neoStore,
-                cacheAccessBackDoor, indexing );
+                cacheAccessBackDoor, indexing, LabelScanStore.EMPTY, GraphStatistics.EMPTY );
         result.setCommitTxId( neoStore.getLastCommittedTx()+1 );
         return result;
     }
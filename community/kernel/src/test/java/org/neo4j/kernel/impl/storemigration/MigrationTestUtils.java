@@ -36,6 +36,8 @@ import org.neo4j.helpers.collection.MapUtil;
 import org.neo4j.kernel.DefaultFileSystemAbstraction;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.nioneo.store.NodeStore;
+import org.neo4j.kernel.impl.storemigration.legacystore.LegacyNodeStoreReader;
 import org.neo4j.kernel.impl.storemigration.legacystore.LegacyStore;
 import org.neo4j.kernel.impl.util.FileUtils;
 import org.neo4j.test.impl.EphemeralFileSystemAbstraction;
@@ -117,6 +119,48 @@ public class MigrationTestUtils
         FileUtils.copyRecursively( resourceDirectory, workingDirectory );
     }
 
+    /**
+     * Turns a store of the current version, which mustn't contain any dense nodes, into a
+     * {@link LegacyStore#LEGACY_20_VERSION} store: node records lose their last byte, the relationship
+     * group store goes away and all store files get the legacy version trailer.
+     */
+    public static void downgradeToLegacy20Store( FileSystemAbstraction fileSystem, File workingDirectory )
+            throws IOException
+    {
+        File nodeStore = new File( workingDirectory, StoreFile.NODE_STORE.storeFileName() );
+        byte[] trailer = UTF8.encode( StoreFile.NODE_STORE.legacyVersion( LegacyStore.LEGACY_20_VERSION ) );
+        FileChannel channel = fileSystem.open( nodeStore, "rw" );
+        try
+        {
+            long records = (channel.size() - trailer.length) / NodeStore.RECORD_SIZE;
+            ByteBuffer record = ByteBuffer.allocate( NodeStore.RECORD_SIZE );
+            for ( long id = 0; id < records; id++ )
+            {
+                record.clear();
+                channel.position( id * NodeStore.RECORD_SIZE );
+                channel.read( record );
+                record.flip();
+                record.limit( LegacyNodeStoreReader.LEGACY_20_RECORD_SIZE );
+                channel.position( id * LegacyNodeStoreReader.LEGACY_20_RECORD_SIZE );
+                channel.write( record );
+            }
+            channel.write( ByteBuffer.wrap( trailer ) );
+            channel.truncate( channel.position() );
+        }
+        finally
+        {
+            channel.close();
+        }
+
+        fileSystem.deleteFile( new File( workingDirectory, StoreFile.RELATIONSHIP_GROUP_STORE.storeFileName() ) );
+        fileSystem.deleteFile( new File( workingDirectory, StoreFile.RELATIONSHIP_GROUP_STORE.idFileName() ) );
+        for ( StoreFile storeFile : StoreFile.legacy20StoreFiles() )
+        {
+            changeVersionNumber( fileSystem, new File( workingDirectory, storeFile.storeFileName() ),
+                    storeFile.legacyVersion( LegacyStore.LEGACY_20_VERSION ) );
+        }
+    }
+
     public static File findOldFormatStoreDirectory()
     {
         URL legacyStoreResource = LegacyStore.class.getResource( "exampledb/neostore" );
@@ -36,6 +36,7 @@ import org.neo4j.graphdb.PropertyContainer;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.kernel.DefaultFileSystemAbstraction;
 import org.neo4j.kernel.DefaultIdGeneratorFactory;
 import org.neo4j.kernel.DefaultTxHook;
@@ -57,12 +58,15 @@ import static java.lang.Integer.MAX_VALUE;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.neo4j.graphdb.DynamicLabel.label;
 import static org.neo4j.graphdb.DynamicRelationshipType.withName;
 import static org.neo4j.graphdb.Neo4jMatchers.hasProperty;
 import static org.neo4j.graphdb.Neo4jMatchers.inTx;
+import static org.neo4j.helpers.collection.IteratorUtil.count;
 import static org.neo4j.kernel.impl.nioneo.store.StoreFactory.PROPERTY_KEY_TOKEN_STORE_NAME;
 
 public class StoreMigratorIT
@@ -138,6 +142,106 @@ public class StoreMigratorIT
         assertNuDuplicates( tokens );
     }
     
+    @Test
+    public void shouldMigrateLegacy20StoreWithNodeRecordsWithoutDenseFlag() throws IOException
+    {
+        // GIVEN
+        // a 2.0 store, with labels, and a node with more relationships than the dense node threshold
+        File legacyDir = TargetDirectory.forTest( getClass() ).directory( "legacy20", true );
+        GraphDatabaseService legacyDb = new GraphDatabaseFactory().newEmbeddedDatabaseBuilder( legacyDir.getPath() )
+                .setConfig( GraphDatabaseSettings.dense_node_threshold, "1000" ).newGraphDatabase();
+        long hubId = createLegacy20Content( legacyDb );
+        legacyDb.shutdown();
+        MigrationTestUtils.downgradeToLegacy20Store( fs, legacyDir );
+
+        LegacyStore legacyStore = new LegacyStore( fs, new File( legacyDir, NeoStore.DEFAULT_NAME ) );
+        assertEquals( LegacyStore.LEGACY_20_VERSION, legacyStore.getLegacyVersion() );
+        NeoStore neoStore = storeFactory.createNeoStore( storeFileName );
+
+        // WHEN
+        new StoreMigrator( monitor ).migrate( legacyStore, neoStore );
+        legacyStore.close();
+
+        // THEN
+        neoStore = storeFactory.newNeoStore( storeFileName );
+        assertEquals( NeoStore.ALL_STORES_VERSION, NeoStore.versionLongToString( neoStore.getStoreVersion() ) );
+        assertFalse( neoStore.getNodeStore().getRecord( hubId ).isDense() );
+        neoStore.close();
+        assertTrue( monitor.started );
+        assertTrue( monitor.finished );
+
+        GraphDatabaseService database = new GraphDatabaseFactory().newEmbeddedDatabaseBuilder( storeDir )
+                .setConfig( GraphDatabaseSettings.dense_node_threshold, "50" ).newGraphDatabase();
+        try
+        {
+            Transaction tx = database.beginTx();
+            try
+            {
+                Node hub = database.getNodeById( hubId );
+                assertEquals( "hub", hub.getProperty( "name" ) );
+                assertTrue( hub.hasLabel( label( "Hub" ) ) );
+                assertEquals( 100, count( hub.getRelationships( Direction.OUTGOING ) ) );
+                Node labelled = hub.getSingleRelationship( withName( "LABELLED" ), Direction.OUTGOING ).getEndNode();
+                assertEquals( 20, count( labelled.getLabels() ) );
+                assertArrayEquals( MigrationTestUtils.makeLongArray(), (int[]) labelled.getProperty( "array" ) );
+
+                // the migrated, sparse, node becomes dense when it gets another relationship
+                hub.createRelationshipTo( database.createNode(), withName( "LINKED" ) );
+                tx.success();
+            }
+            finally
+            {
+                tx.finish();
+            }
+
+            tx = database.beginTx();
+            try
+            {
+                Node hub = database.getNodeById( hubId );
+                assertEquals( 100, count( hub.getRelationships( withName( "LINKED" ), Direction.OUTGOING ) ) );
+                assertEquals( 1, count( hub.getRelationships( withName( "LABELLED" ) ) ) );
+            }
+            finally
+            {
+                tx.finish();
+            }
+        }
+        finally
+        {
+            database.shutdown();
+        }
+        neoStore = storeFactory.newNeoStore( storeFileName );
+        assertTrue( neoStore.getNodeStore().getRecord( hubId ).isDense() );
+        neoStore.close();
+    }
+
+    private long createLegacy20Content( GraphDatabaseService db )
+    {
+        Transaction tx = db.beginTx();
+        try
+        {
+            Node hub = db.createNode( label( "Hub" ) );
+            hub.setProperty( "name", "hub" );
+            for ( int i = 0; i < 99; i++ )
+            {
+                hub.createRelationshipTo( db.createNode(), withName( "LINKED" ) );
+            }
+            Node labelled = db.createNode();
+            for ( int i = 0; i < 20; i++ )
+            {
+                labelled.addLabel( label( "Label" + i ) );
+            }
+            labelled.setProperty( "array", MigrationTestUtils.makeLongArray() );
+            hub.createRelationshipTo( labelled, withName( "LABELLED" ) );
+            tx.success();
+            return hub.getId();
+        }
+        finally
+        {
+            tx.finish();
+        }
+    }
+
     private void assertNuDuplicates( Token[] tokens )
     {
         Set<String> visited = new HashSet<String>();
@@ -79,6 +79,29 @@ public class StoreUpgraderTestIT
         assertTrue( containsAnyLogicalLogs( fileSystem, backupDirectory ) );
     }
 
+    @Test
+    public void shouldMoveLegacyIndexLogsToBackupDirectory() throws IOException
+    {
+        // given
+        File indexDirectory = new File( dbDirectory, "index" );
+        fileSystem.mkdirs( indexDirectory );
+        fileSystem.create( new File( indexDirectory, "lucene.log.active" ) ).close();
+        fileSystem.create( new File( indexDirectory, "lucene.log.v0" ) ).close();
+        fileSystem.create( new File( indexDirectory, "lucene-store.db" ) ).close();
+
+        // when
+        newUpgrader( alwaysAllowed(), new StoreMigrator( new SilentMigrationProgressMonitor() ), new DatabaseFiles( fileSystem ) )
+                .attemptUpgrade( new File( dbDirectory, NeoStore.DEFAULT_NAME ) );
+
+        // then
+        File backupIndexDirectory = new File( new File( dbDirectory, "upgrade_backup" ), "index" );
+        assertFalse( fileSystem.fileExists( new File( indexDirectory, "lucene.log.active" ) ) );
+        assertFalse( fileSystem.fileExists( new File( indexDirectory, "lucene.log.v0" ) ) );
+        assertTrue( fileSystem.fileExists( new File( indexDirectory, "lucene-store.db" ) ) );
+        assertTrue( fileSystem.fileExists( new File( backupIndexDirectory, "lucene.log.active" ) ) );
+        assertTrue( fileSystem.fileExists( new File( backupIndexDirectory, "lucene.log.v0" ) ) );
+    }
+
     @Test
     public void shouldBackupOriginalStoreEvenIfMessagesLogIsMissing() throws IOException
     {
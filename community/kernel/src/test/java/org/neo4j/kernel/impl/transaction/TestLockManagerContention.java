@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import javax.transaction.Transaction;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures contention in {@link LockManagerImpl} when many threads lock and
+ * release different entities, comparing a lock table where everything
+ * serializes on a single monitor with the default striped one.
+ * This test should be moved to a performance benchmark suite or similar,
+ * but exists here because it's getting developed along side changes to
+ * {@link LockManagerImpl} in kernel.
+ */
+@Ignore( "Not a proper test really, merely a contention measurement" )
+public class TestLockManagerContention
+{
+    private static final int THREADS = 8;
+    private static final int ENTITIES = 100000;
+    private static final int LOCKS_PER_TX = 10;
+    private static final long WARMUP_SECONDS = 5;
+    private static final long MEASURE_SECONDS = 20;
+
+    @Test
+    public void compareSingleMonitorWithStripedLockTable() throws Exception
+    {
+        measure( "warmup", new LockManagerImpl( new RagManager(), LockManagerImpl.DEFAULT_NUMBER_OF_STRIPES ),
+                WARMUP_SECONDS );
+        long single = measure( "single monitor", new LockManagerImpl( new RagManager(), 1 ), MEASURE_SECONDS );
+        long striped = measure( "striped", new LockManagerImpl( new RagManager(),
+                LockManagerImpl.DEFAULT_NUMBER_OF_STRIPES ), MEASURE_SECONDS );
+        System.out.println( "striped/single: " + ((double) striped / single) );
+    }
+
+    private long measure( String name, LockManager lockManager, long seconds ) throws Exception
+    {
+        CountDownLatch start = new CountDownLatch( 1 );
+        List<Worker> workers = new ArrayList<Worker>();
+        for ( int i = 0; i < THREADS; i++ )
+        {
+            Worker worker = new Worker( lockManager, start );
+            workers.add( worker );
+            worker.start();
+        }
+        start.countDown();
+        Thread.sleep( SECONDS.toMillis( seconds ) );
+        for ( Worker worker : workers )
+        {
+            worker.halted = true;
+        }
+        long total = 0;
+        for ( Worker worker : workers )
+        {
+            total += worker.waitForEnd();
+        }
+        long perSecond = total / seconds;
+        System.out.println( name + ": " + perSecond + " lock+release/s with " + THREADS + " threads" );
+        return perSecond;
+    }
+
+    private static class Worker extends Thread
+    {
+        private final LockManager lockManager;
+        private final CountDownLatch start;
+        private final Transaction tx = mock( Transaction.class );
+        private final Random random = new Random();
+        private final Long[] locked = new Long[LOCKS_PER_TX];
+        private volatile boolean halted;
+        private long count;
+
+        Worker( LockManager lockManager, CountDownLatch start )
+        {
+            this.lockManager = lockManager;
+            this.start = start;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                start.await();
+            }
+            catch ( InterruptedException e )
+            {
+                return;
+            }
+            while ( !halted )
+            {
+                // Mostly reads, like a typical mixed workload, and no overlap
+                // of written entities so that deadlocks don't disturb the measurement
+                boolean write = random.nextFloat() < 0.2f;
+                for ( int i = 0; i < LOCKS_PER_TX; i++ )
+                {
+                    locked[i] = write ? ownEntity() : (long) random.nextInt( ENTITIES );
+                    if ( write )
+                    {
+                        lockManager.getWriteLock( locked[i], tx );
+                    }
+                    else
+                    {
+                        lockManager.getReadLock( locked[i], tx );
+                    }
+                }
+                for ( int i = 0; i < LOCKS_PER_TX; i++ )
+                {
+                    if ( write )
+                    {
+                        lockManager.releaseWriteLock( locked[i], tx );
+                    }
+                    else
+                    {
+                        lockManager.releaseReadLock( locked[i], tx );
+                    }
+                }
+                count += LOCKS_PER_TX;
+            }
+        }
+
+        private long ownEntity()
+        {
+            // Entities only written by this thread, offset past the shared read range
+            return ENTITIES + getId() * ENTITIES + random.nextInt( ENTITIES );
+        }
+
+        private long waitForEnd() throws InterruptedException
+        {
+            join();
+            return count;
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.neo4j.kernel.impl.transaction;
 
 import static java.lang.System.currentTimeMillis;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -369,6 +370,29 @@ public class TestRWLock
                 throw stressThread.error;
     }
 
+    @Test
+    public void releasedLocksShouldBeReusableForOtherResources() throws Exception
+    {
+        // given
+        lm = new LockManagerImpl( new RagManager(), 1 );
+        Transaction tx1 = mock( Transaction.class );
+        Transaction tx2 = mock( Transaction.class );
+        ResourceObject first = newResourceObject( "first" );
+        ResourceObject second = newResourceObject( "second" );
+        lm.getWriteLock( first, tx1 );
+        lm.releaseWriteLock( first, tx1 );
+
+        // when
+        lm.getWriteLock( second, tx1 );
+        lm.getReadLock( first, tx2 );
+
+        // then
+        assertEquals( 2, lm.getAllLocks().size() );
+        lm.releaseWriteLock( second, tx1 );
+        lm.releaseReadLock( first, tx2 );
+        assertTrue( lm.getAllLocks().isEmpty() );
+    }
+
     private void sleepALittle()
     {
         try
@@ -0,0 +1,337 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.xaframework;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.graphdb.mockfs.LimitedFileChannel;
+import org.neo4j.graphdb.mockfs.LimitedFilesystemAbstraction;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
+import org.neo4j.kernel.impl.transaction.XaDataSourceManager;
+import org.neo4j.test.TestGraphDatabaseFactory;
+import org.neo4j.test.impl.EphemeralFileSystemAbstraction;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GroupCommitTest
+{
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void shutDownExecutor()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void singleCommitterShouldForceItself() throws Exception
+    {
+        // given
+        GroupCommitStatistics statistics = new GroupCommitStatistics();
+        GroupCommit groupCommit = new GroupCommit( 0, statistics );
+        CountingForcer forcer = new CountingForcer();
+
+        // when
+        groupCommit.awaitForced( groupCommit.appended(), forcer );
+        groupCommit.awaitForced( groupCommit.appended(), forcer );
+
+        // then
+        assertEquals( 2, forcer.forces.get() );
+        assertEquals( 2, statistics.getNumberOfForces() );
+        assertEquals( 2, statistics.getNumberOfCommits() );
+        assertEquals( 1, statistics.getMaxBatchSize() );
+    }
+
+    @Test
+    public void alreadyForcedTicketShouldNotForceAgain() throws Exception
+    {
+        // given
+        GroupCommit groupCommit = new GroupCommit( 0, new GroupCommitStatistics() );
+        CountingForcer forcer = new CountingForcer();
+        long first = groupCommit.appended();
+        long second = groupCommit.appended();
+
+        // when
+        groupCommit.awaitForced( second, forcer );
+        groupCommit.awaitForced( first, forcer );
+
+        // then
+        assertEquals( 1, forcer.forces.get() );
+    }
+
+    @Test
+    public void concurrentCommittersShouldShareForces() throws Exception
+    {
+        // given
+        GroupCommitStatistics statistics = new GroupCommitStatistics();
+        final GroupCommit groupCommit = new GroupCommit( TimeUnit.MILLISECONDS.toNanos( 5 ), statistics );
+        final CountingForcer forcer = new CountingForcer();
+        int committers = 20;
+        final CountDownLatch start = new CountDownLatch( 1 );
+
+        // when
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for ( int i = 0; i < committers; i++ )
+        {
+            futures.add( executor.submit( new Callable<Void>()
+            {
+                @Override
+                public Void call() throws Exception
+                {
+                    start.await();
+                    groupCommit.awaitForced( groupCommit.appended(), forcer );
+                    return null;
+                }
+            } ) );
+        }
+        start.countDown();
+        for ( Future<Void> future : futures )
+        {
+            future.get( 10, TimeUnit.SECONDS );
+        }
+
+        // then
+        assertThat( forcer.forces.get(), lessThan( committers ) );
+        assertEquals( committers, statistics.getNumberOfCommits() );
+        assertThat( statistics.getMaxBatchSize(), greaterThan( 1L ) );
+    }
+
+    @Test
+    public void failedForceShouldBeRetriedByNextCommitter() throws Exception
+    {
+        // given
+        GroupCommit groupCommit = new GroupCommit( 0, new GroupCommitStatistics() );
+        long ticket = groupCommit.appended();
+        try
+        {
+            groupCommit.awaitForced( ticket, new GroupCommit.Forcer()
+            {
+                @Override
+                public void force() throws IOException
+                {
+                    throw new IOException( "Simulated failure" );
+                }
+            } );
+            fail( "Should have failed" );
+        }
+        catch ( IOException e )
+        {   // Good
+        }
+
+        // when
+        CountingForcer forcer = new CountingForcer();
+        groupCommit.awaitForced( ticket, forcer );
+
+        // then
+        assertEquals( 1, forcer.forces.get() );
+    }
+
+    @Test
+    public void concurrentTransactionsShouldShareForcesOfTheLogicalLog() throws Exception
+    {
+        // given
+        final GraphDatabaseService db = new TestGraphDatabaseFactory().newImpermanentDatabaseBuilder()
+                .setConfig( GraphDatabaseSettings.use_group_commit, "true" )
+                .setConfig( GraphDatabaseSettings.group_commit_max_batch_wait, "10ms" )
+                .newGraphDatabase();
+        try
+        {
+            GroupCommitStatistics statistics = ((GraphDatabaseAPI) db).getDependencyResolver()
+                    .resolveDependency( GroupCommitStatistics.class );
+            long forcesBefore = statistics.getNumberOfForces();
+            long commitsBefore = statistics.getNumberOfCommits();
+            int transactions = 50;
+            final CountDownLatch start = new CountDownLatch( 1 );
+
+            // when
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for ( int i = 0; i < transactions; i++ )
+            {
+                futures.add( executor.submit( new Callable<Void>()
+                {
+                    @Override
+                    public Void call() throws Exception
+                    {
+                        start.await();
+                        createNode( db );
+                        return null;
+                    }
+                } ) );
+            }
+            start.countDown();
+            for ( Future<Void> future : futures )
+            {
+                future.get( 30, TimeUnit.SECONDS );
+            }
+
+            // then
+            long forces = statistics.getNumberOfForces() - forcesBefore;
+            long commits = statistics.getNumberOfCommits() - commitsBefore;
+            assertEquals( transactions, commits );
+            assertThat( forces, lessThan( commits ) );
+        }
+        finally
+        {
+            db.shutdown();
+        }
+    }
+
+    @Test
+    public void transactionShouldOnlyBeAppliedToTheStoreOnceItsCommitEntryHasBeenForced() throws Exception
+    {
+        // given
+        ForceBlockingFileSystem fileSystem = new ForceBlockingFileSystem();
+        final GraphDatabaseService db = new TestGraphDatabaseFactory().setFileSystem( fileSystem )
+                .newImpermanentDatabaseBuilder()
+                .setConfig( GraphDatabaseSettings.use_group_commit, "true" )
+                .newGraphDatabase();
+        try
+        {
+            NeoStoreXaDataSource neoStore = ((GraphDatabaseAPI) db).getDependencyResolver()
+                    .resolveDependency( XaDataSourceManager.class ).getNeoStoreDataSource();
+            long lastCommittedTxBefore = neoStore.getLastCommittedTxId();
+
+            // when
+            fileSystem.blockForces = true;
+            Future<Void> commit = executor.submit( new Callable<Void>()
+            {
+                @Override
+                public Void call() throws Exception
+                {
+                    createNode( db );
+                    return null;
+                }
+            } );
+            assertTrue( "Commit entry never got forced", fileSystem.forceStarted.await( 10, TimeUnit.SECONDS ) );
+
+            // then
+            assertEquals( lastCommittedTxBefore, neoStore.getLastCommittedTxId() );
+            fileSystem.releaseForces.countDown();
+            commit.get( 10, TimeUnit.SECONDS );
+            assertEquals( lastCommittedTxBefore + 1, neoStore.getLastCommittedTxId() );
+        }
+        finally
+        {
+            fileSystem.releaseForces.countDown();
+            db.shutdown();
+        }
+    }
+
+    private static void createNode( GraphDatabaseService db )
+    {
+        Transaction tx = db.beginTx();
+        try
+        {
+            db.createNode();
+            tx.success();
+        }
+        finally
+        {
+            tx.finish();
+        }
+    }
+
+    /**
+     * Blocks forces of the logical log, once asked to, until released.
+     */
+    private static class ForceBlockingFileSystem extends LimitedFilesystemAbstraction
+    {
+        private volatile boolean blockForces;
+        private final CountDownLatch forceStarted = new CountDownLatch( 1 );
+        private final CountDownLatch releaseForces = new CountDownLatch( 1 );
+
+        ForceBlockingFileSystem()
+        {
+            super( new EphemeralFileSystemAbstraction() );
+        }
+
+        @Override
+        public FileChannel open( File fileName, String mode ) throws IOException
+        {
+            FileChannel channel = super.open( fileName, mode );
+            if ( !fileName.getName().startsWith( NeoStoreXaDataSource.LOGICAL_LOG_DEFAULT_NAME ) )
+            {
+                return channel;
+            }
+            return new LimitedFileChannel( channel, this )
+            {
+                @Override
+                public void force( boolean metaData ) throws IOException
+                {
+                    if ( blockForces )
+                    {
+                        forceStarted.countDown();
+                        try
+                        {
+                            releaseForces.await();
+                        }
+                        catch ( InterruptedException e )
+                        {
+                            throw new IOException( e );
+                        }
+                    }
+                    super.force( metaData );
+                }
+            };
+        }
+    }
+
+    private static class CountingForcer implements GroupCommit.Forcer
+    {
+        private final AtomicInteger forces = new AtomicInteger();
+
+        @Override
+        public void force() throws IOException
+        {
+            forces.incrementAndGet();
+            try
+            {
+                Thread.sleep( 1 );
+            }
+            catch ( InterruptedException e )
+            {
+                throw new IOException( e );
+            }
+        }
+    }
+}
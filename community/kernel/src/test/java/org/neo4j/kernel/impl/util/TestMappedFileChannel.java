@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestMappedFileChannel
+{
+    @Test
+    public void shouldReadTheWholeFileAcrossSegments() throws Exception
+    {
+        File file = createStripedFile( 10000 );
+        FileChannel channel = new MappedFileChannel( new RandomAccessFile( file, "r" ).getChannel(), 1000 );
+        ByteBuffer buffer = ByteBuffer.allocate( 333 );
+        int counter = 0;
+        while ( channel.read( buffer ) != -1 )
+        {
+            buffer.flip();
+            while ( buffer.hasRemaining() )
+            {
+                assertEquals( (byte) (counter % 10), buffer.get() );
+                counter++;
+            }
+            assertEquals( counter, channel.position() );
+            buffer.clear();
+        }
+        assertEquals( 10000, counter );
+        channel.close();
+        file.delete();
+    }
+
+    @Test
+    public void shouldStartReadingFromThePositionOfTheSource() throws Exception
+    {
+        File file = createStripedFile( 1000 );
+        FileChannel source = new RandomAccessFile( file, "r" ).getChannel();
+        source.position( 13 );
+        FileChannel channel = new MappedFileChannel( source, 100 );
+        ByteBuffer buffer = ByteBuffer.allocate( 4 );
+
+        channel.read( buffer );
+        buffer.flip();
+        for ( int value = 3; buffer.hasRemaining(); value++ )
+        {
+            assertEquals( value % 10, buffer.get() );
+        }
+
+        buffer.clear();
+        channel.position( channel.size() - 2 );
+        assertEquals( 2, channel.read( buffer ) );
+        assertEquals( -1, channel.read( buffer ) );
+        channel.close();
+        file.delete();
+    }
+
+    @Test
+    public void shouldTransferSlicesAcrossSegments() throws Exception
+    {
+        File file = createStripedFile( 1000 );
+        FileChannel channel = new MappedFileChannel( new RandomAccessFile( file, "r" ).getChannel(), 64 );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long transferred = channel.transferTo( 50, 900, Channels.newChannel( out ) );
+
+        assertEquals( 900, transferred );
+        byte[] bytes = out.toByteArray();
+        for ( int i = 0; i < bytes.length; i++ )
+        {
+            assertEquals( (byte) ((i + 50) % 10), bytes[i] );
+        }
+        assertEquals( 0, channel.position() );
+        channel.close();
+        file.delete();
+    }
+
+    @Test
+    public void shouldFallBackToBufferingIfTheFileCantBeMapped() throws Exception
+    {
+        FileChannel channel = MappedFileChannel.mapOrBuffer( new BufferedFileChannel(
+                new RandomAccessFile( createStripedFile( 100 ), "r" ).getChannel() ) );
+        assertTrue( channel instanceof BufferedFileChannel );
+        channel.close();
+    }
+
+    private File createStripedFile( int size ) throws IOException
+    {
+        File file = File.createTempFile( "neo4j", "temp" );
+        file.deleteOnExit();
+        FileChannel channel = new RandomAccessFile( file, "rw" ).getChannel();
+        byte[] bytes = new byte[size];
+        for ( int i = 0; i < size; i++ )
+        {
+            bytes[i] = (byte) (i % 10);
+        }
+        channel.write( ByteBuffer.wrap( bytes ) );
+        channel.close();
+        return file;
+    }
+}
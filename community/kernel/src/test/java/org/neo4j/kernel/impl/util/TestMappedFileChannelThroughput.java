@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares reading a multi-GB file the way logical log entries are read, i.e. many small reads into a
+ * reused buffer, through {@link BufferedFileChannel} and {@link MappedFileChannel}.
+ * This test should be moved to a performance benchmark suite or similar, but exists here because it's
+ * getting developed along side the mapped read path for history logs in kernel.
+ */
+@Ignore( "Not a proper test really, merely a throughput measurement" )
+public class TestMappedFileChannelThroughput
+{
+    private static final long FILE_SIZE = 4L * 1024 * 1024 * 1024;
+    private static final int[] READ_SIZES = { 1, 4, 8, 9, 17, 64, 200 };
+
+    @Test
+    public void compareBufferedWithMappedReads() throws Exception
+    {
+        File file = createFile( FILE_SIZE );
+        try
+        {
+            measure( "warmup", new BufferedFileChannel( open( file ) ) );
+            long buffered = measure( "buffered", new BufferedFileChannel( open( file ) ) );
+            long mapped = measure( "mapped", new MappedFileChannel( open( file ) ) );
+            System.out.println( "mapped/buffered: " + ((double) mapped / buffered) );
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    private long measure( String name, FileChannel channel ) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate( 256 );
+        long bytes = 0;
+        long start = System.currentTimeMillis();
+        for ( int i = 0; ; i++ )
+        {
+            buffer.clear().limit( READ_SIZES[i % READ_SIZES.length] );
+            int read = channel.read( buffer );
+            if ( read == -1 )
+            {
+                break;
+            }
+            bytes += read;
+        }
+        long time = Math.max( 1, System.currentTimeMillis() - start );
+        channel.close();
+        long throughput = bytes / time * 1000;
+        System.out.println( name + ": " + (throughput / (1024 * 1024)) + " MB/s" );
+        return throughput;
+    }
+
+    private FileChannel open( File file ) throws IOException
+    {
+        return new RandomAccessFile( file, "r" ).getChannel();
+    }
+
+    private File createFile( long size ) throws IOException
+    {
+        File file = File.createTempFile( "neo4j", "throughput" );
+        file.deleteOnExit();
+        FileChannel channel = new RandomAccessFile( file, "rw" ).getChannel();
+        ByteBuffer chunk = ByteBuffer.allocateDirect( 1024 * 1024 );
+        for ( long written = 0; written < size; written += chunk.capacity() )
+        {
+            chunk.clear();
+            while ( chunk.hasRemaining() )
+            {
+                channel.write( chunk );
+            }
+        }
+        channel.close();
+        return file;
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares the primitive long collections with the boxed java.util ones for the access patterns of transaction
+ * state, i.e. adding, looking up and removing ids of nodes touched in a transaction.
+ * This test should be moved to a performance benchmark suite or similar, but exists here because it's
+ * getting developed along side the primitive collections in kernel.
+ */
+@Ignore( "Not a proper test really, merely a throughput measurement" )
+public class TestPrimitiveLongCollectionsThroughput
+{
+    private static final int IDS = 1_000_000;
+    private static final int ROUNDS = 10;
+
+    @Test
+    public void compareSets() throws Exception
+    {
+        long[] ids = randomIds();
+        measureBoxedSet( "warmup", ids );
+        measurePrimitiveSet( "warmup", ids );
+        long boxed = measureBoxedSet( "HashSet<Long>", ids );
+        long primitive = measurePrimitiveSet( "PrimitiveLongSet", ids );
+        System.out.println( "primitive/boxed: " + ((double) primitive / boxed) );
+    }
+
+    @Test
+    public void compareMaps() throws Exception
+    {
+        long[] ids = randomIds();
+        measureBoxedMap( "warmup", ids );
+        measurePrimitiveMap( "warmup", ids );
+        long boxed = measureBoxedMap( "HashMap<Long,Object>", ids );
+        long primitive = measurePrimitiveMap( "PrimitiveLongObjectMap", ids );
+        System.out.println( "primitive/boxed: " + ((double) primitive / boxed) );
+    }
+
+    private long measureBoxedSet( String name, long[] ids )
+    {
+        long start = System.currentTimeMillis();
+        long hits = 0;
+        for ( int round = 0; round < ROUNDS; round++ )
+        {
+            Set<Long> set = new HashSet<>();
+            for ( long id : ids )
+            {
+                set.add( id );
+            }
+            for ( long id : ids )
+            {
+                hits += set.contains( id + 1 ) ? 1 : 0;
+            }
+            for ( long id : ids )
+            {
+                set.remove( id );
+            }
+        }
+        return report( name, start, hits );
+    }
+
+    private long measurePrimitiveSet( String name, long[] ids )
+    {
+        long start = System.currentTimeMillis();
+        long hits = 0;
+        for ( int round = 0; round < ROUNDS; round++ )
+        {
+            PrimitiveLongSet set = new PrimitiveLongSet();
+            for ( long id : ids )
+            {
+                set.add( id );
+            }
+            for ( long id : ids )
+            {
+                hits += set.contains( id + 1 ) ? 1 : 0;
+            }
+            for ( long id : ids )
+            {
+                set.remove( id );
+            }
+        }
+        return report( name, start, hits );
+    }
+
+    private long measureBoxedMap( String name, long[] ids )
+    {
+        long start = System.currentTimeMillis();
+        long hits = 0;
+        for ( int round = 0; round < ROUNDS; round++ )
+        {
+            Map<Long, Object> map = new HashMap<>();
+            for ( long id : ids )
+            {
+                map.put( id, ids );
+            }
+            for ( long id : ids )
+            {
+                hits += map.get( id + 1 ) != null ? 1 : 0;
+            }
+            for ( long id : ids )
+            {
+                map.remove( id );
+            }
+        }
+        return report( name, start, hits );
+    }
+
+    private long measurePrimitiveMap( String name, long[] ids )
+    {
+        long start = System.currentTimeMillis();
+        long hits = 0;
+        for ( int round = 0; round < ROUNDS; round++ )
+        {
+            PrimitiveLongObjectMap<Object> map = new PrimitiveLongObjectMap<>();
+            for ( long id : ids )
+            {
+                map.put( id, ids );
+            }
+            for ( long id : ids )
+            {
+                hits += map.get( id + 1 ) != null ? 1 : 0;
+            }
+            for ( long id : ids )
+            {
+                map.remove( id );
+            }
+        }
+        return report( name, start, hits );
+    }
+
+    private long report( String name, long start, long hits )
+    {
+        long time = Math.max( 1, System.currentTimeMillis() - start );
+        long throughput = 3L * IDS * ROUNDS / time * 1000;
+        System.out.println( name + ": " + throughput + " ops/s (" + hits + " hits)" );
+        return throughput;
+    }
+
+    private long[] randomIds()
+    {
+        // Ids close to each other, the way ids handed out by the id generators of a store are
+        Random random = new Random( 1234 );
+        long[] ids = new long[IDS];
+        for ( int i = 0; i < IDS; i++ )
+        {
+            ids[i] = random.nextInt( IDS * 4 );
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.neo4j.helpers.collection.IteratorUtil.asSet;
+
+public class TestPrimitiveLongObjectMap
+{
+    @Test
+    public void shouldPutGetAndRemoveMappings() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongObjectMap<String> map = new PrimitiveLongObjectMap<>();
+
+        // WHEN
+        assertNull( map.put( 1, "one" ) );
+        assertNull( map.put( -1, "minus one" ) );
+        assertEquals( "one", map.put( 1, "uno" ) );
+
+        // THEN
+        assertEquals( 2, map.size() );
+        assertEquals( "uno", map.get( 1 ) );
+        assertEquals( "minus one", map.get( -1 ) );
+        assertNull( map.get( 2 ) );
+        assertTrue( map.containsKey( -1 ) );
+
+        assertEquals( "uno", map.remove( 1 ) );
+        assertNull( map.remove( 1 ) );
+        assertFalse( map.containsKey( 1 ) );
+        assertEquals( 1, map.size() );
+    }
+
+    @Test
+    public void shouldBehaveLikeHashMapForRandomOperations() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongObjectMap<Integer> map = new PrimitiveLongObjectMap<>();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random( 1234 );
+
+        // WHEN
+        for ( int i = 0; i < 100_000; i++ )
+        {
+            long key = random.nextInt( 2000 );
+            if ( random.nextBoolean() )
+            {
+                assertEquals( expected.put( key, i ), map.put( key, i ) );
+            }
+            else
+            {
+                assertEquals( expected.remove( key ), map.remove( key ) );
+            }
+        }
+
+        // THEN
+        assertEquals( expected.size(), map.size() );
+        for ( long key = 0; key < 2000; key++ )
+        {
+            assertEquals( expected.get( key ), map.get( key ) );
+        }
+        Set<Long> keys = new HashSet<>();
+        for ( PrimitiveLongIterator iterator = map.keyIterator(); iterator.hasNext(); )
+        {
+            assertTrue( keys.add( iterator.next() ) );
+        }
+        assertEquals( expected.keySet(), keys );
+        Set<Integer> values = new HashSet<>();
+        for ( Integer value : map.values() )
+        {
+            values.add( value );
+        }
+        assertEquals( new HashSet<>( expected.values() ), values );
+    }
+
+    @Test
+    public void shouldNotAcceptNullValues() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongObjectMap<String> map = new PrimitiveLongObjectMap<>();
+
+        // WHEN
+        try
+        {
+            map.put( 1, null );
+            fail( "Should have failed" );
+        }
+        catch ( IllegalArgumentException e )
+        {   // Good
+        }
+
+        // THEN
+        assertTrue( map.isEmpty() );
+    }
+
+    @Test
+    public void shouldFailIterationOnConcurrentModification() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongObjectMap<String> map = new PrimitiveLongObjectMap<>();
+        map.put( 1, "one" );
+        map.put( 2, "two" );
+        Iterator<String> iterator = map.values().iterator();
+
+        // WHEN
+        iterator.next();
+        map.remove( 2 );
+
+        // THEN
+        try
+        {
+            iterator.next();
+            iterator.next();
+            fail( "Should have failed" );
+        }
+        catch ( ConcurrentModificationException e )
+        {   // Good
+        }
+    }
+
+    @Test
+    public void shouldBeEmptyAfterClear() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongObjectMap<String> map = new PrimitiveLongObjectMap<>( 100 );
+        for ( long key = 0; key < 100; key++ )
+        {
+            map.put( key, "value" );
+        }
+
+        // WHEN
+        map.clear();
+        map.put( 7, "seven" );
+
+        // THEN
+        assertEquals( 1, map.size() );
+        assertEquals( asSet( "seven" ), asSet( map.values() ) );
+        assertNull( map.get( 50 ) );
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.neo4j.helpers.collection.IteratorUtil.asSet;
+
+public class TestPrimitiveLongSet
+{
+    @Test
+    public void shouldAddContainAndRemoveValues() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongSet set = new PrimitiveLongSet();
+
+        // WHEN
+        assertTrue( set.add( 5 ) );
+        assertTrue( set.add( 10 ) );
+        assertFalse( set.add( 5 ) );
+
+        // THEN
+        assertEquals( 2, set.size() );
+        assertTrue( set.contains( 5 ) );
+        assertTrue( set.contains( 10 ) );
+        assertFalse( set.contains( 7 ) );
+
+        assertTrue( set.remove( 5 ) );
+        assertFalse( set.remove( 5 ) );
+        assertFalse( set.contains( 5 ) );
+        assertTrue( set.contains( 10 ) );
+        assertEquals( 1, set.size() );
+    }
+
+    @Test
+    public void shouldHoldValueUsedForFreeSlots() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongSet set = new PrimitiveLongSet();
+
+        // WHEN
+        set.add( -1 );
+        set.add( 0 );
+
+        // THEN
+        assertTrue( set.contains( -1 ) );
+        assertEquals( asSet( -1L, 0L ), toSet( set.primitiveIterator() ) );
+        assertTrue( set.remove( -1 ) );
+        assertFalse( set.contains( -1 ) );
+        assertEquals( 1, set.size() );
+    }
+
+    @Test
+    public void shouldBehaveLikeHashSetForRandomOperations() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongSet set = new PrimitiveLongSet();
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random( 1234 );
+
+        // WHEN
+        for ( int i = 0; i < 100_000; i++ )
+        {
+            // A small value range gives plenty of collisions and removals within probe sequences
+            long value = random.nextInt( 2000 ) - 10;
+            if ( random.nextBoolean() )
+            {
+                assertEquals( expected.add( value ), set.add( value ) );
+            }
+            else
+            {
+                assertEquals( expected.remove( value ), set.remove( value ) );
+            }
+        }
+
+        // THEN
+        assertEquals( expected.size(), set.size() );
+        for ( long value = -10; value < 1990; value++ )
+        {
+            assertEquals( expected.contains( value ), set.contains( value ) );
+        }
+        assertEquals( expected, toSet( set.primitiveIterator() ) );
+        assertEquals( expected, set );
+    }
+
+    @Test
+    public void shouldBeUsableAsSetOfLongs() throws Exception
+    {
+        // GIVEN
+        Set<Long> set = new PrimitiveLongSet();
+
+        // WHEN
+        set.add( 1L );
+        set.add( 2L );
+        set.remove( 1L );
+
+        // THEN
+        assertEquals( asSet( 2L ), set );
+        assertTrue( set.contains( 2L ) );
+        assertFalse( set.contains( 2 ) );
+        assertFalse( set.remove( "2" ) );
+    }
+
+    @Test
+    public void shouldFailIterationOnConcurrentModification() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongSet set = new PrimitiveLongSet();
+        set.add( 1 );
+        set.add( 2 );
+        set.add( 3 );
+        PrimitiveLongIterator iterator = set.primitiveIterator();
+
+        // WHEN
+        iterator.next();
+        set.add( 4 );
+
+        // THEN
+        try
+        {
+            iterator.next();
+            iterator.next();
+            fail( "Should have failed" );
+        }
+        catch ( ConcurrentModificationException e )
+        {   // Good
+        }
+    }
+
+    @Test
+    public void shouldBeEmptyAfterClear() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongSet set = new PrimitiveLongSet( 100 );
+        for ( long value = -1; value < 100; value++ )
+        {
+            set.add( value );
+        }
+
+        // WHEN
+        set.clear();
+
+        // THEN
+        assertTrue( set.isEmpty() );
+        assertFalse( set.contains( -1 ) );
+        assertFalse( set.contains( 50 ) );
+        assertFalse( set.primitiveIterator().hasNext() );
+    }
+
+    private Set<Long> toSet( PrimitiveLongIterator iterator )
+    {
+        Set<Long> result = new HashSet<>();
+        while ( iterator.hasNext() )
+        {
+            assertTrue( result.add( iterator.next() ) );
+        }
+        return result;
+    }
+}
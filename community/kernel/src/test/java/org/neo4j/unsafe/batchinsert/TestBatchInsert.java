@@ -54,10 +54,12 @@ import org.neo4j.kernel.api.index.IndexPopulator;
 import org.neo4j.kernel.api.index.SchemaIndexProvider;
 import org.neo4j.kernel.extension.KernelExtensionFactory;
 import org.neo4j.kernel.impl.api.index.inmemory.InMemoryIndexProviderFactory;
+import org.neo4j.kernel.impl.api.scan.BitmapLabelScanStore;
 import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.test.EphemeralFileSystemRule;
 import org.neo4j.test.TargetDirectory;
 import org.neo4j.test.TestGraphDatabaseFactory;
+import org.neo4j.tooling.GlobalGraphOperations;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -221,9 +223,49 @@ public class TestBatchInsert
     private GraphDatabaseService switchToEmbeddedGraphDatabaseService( BatchInserter inserter )
     {
         inserter.shutdown();
+        return newEmbeddedGraphDatabaseService( inserter.getStoreDir() );
+    }
+
+    private GraphDatabaseService newEmbeddedGraphDatabaseService( String storeDir )
+    {
         TestGraphDatabaseFactory factory = new TestGraphDatabaseFactory();
         factory.setFileSystem( fs.get() );
-        return factory.newImpermanentDatabase( inserter.getStoreDir() );
+        return factory.newImpermanentDatabase( storeDir );
+    }
+
+    @Test
+    public void shouldFindNodesLabeledByBatchInsertionInLabelScans() throws Exception
+    {
+        // GIVEN a label scan store from an earlier run of the database
+        GraphDatabaseService db = newEmbeddedGraphDatabaseService( "neo-batch-db" );
+        Transaction tx = db.beginTx();
+        long existingNode = db.createNode( Labels.FIRST ).getId();
+        tx.success();
+        tx.finish();
+        db.shutdown();
+        assertTrue( fs.get().fileExists( new File( "neo-batch-db", BitmapLabelScanStore.FILE_NAME ) ) );
+
+        // WHEN
+        BatchInserter inserter = newBatchInserter();
+        long insertedNode = inserter.createNode( null, Labels.FIRST );
+        db = switchToEmbeddedGraphDatabaseService( inserter );
+
+        // THEN
+        tx = db.beginTx();
+        try
+        {
+            Set<Long> labeledNodes = new HashSet<>();
+            for ( Node node : GlobalGraphOperations.at( db ).getAllNodesWithLabel( Labels.FIRST ) )
+            {
+                labeledNodes.add( node.getId() );
+            }
+            assertEquals( asSet( existingNode, insertedNode ), labeledNodes );
+        }
+        finally
+        {
+            tx.finish();
+            db.shutdown();
+        }
     }
 
     @Test
@@ -24,6 +24,10 @@ import org.apache.lucene.document.Field;
 import org.apache.lucene.document.NumericField;
 import org.apache.lucene.index.FieldInfo.IndexOptions;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.NumericRangeQuery;
+import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
 import org.neo4j.index.impl.lucene.LuceneUtil;
@@ -32,6 +36,7 @@ import static org.apache.lucene.document.Field.Index.NOT_ANALYZED;
 import static org.apache.lucene.document.Field.Store.NO;
 import static org.apache.lucene.document.Field.Store.YES;
 import static org.neo4j.kernel.api.index.ArrayEncoder.encode;
+import static org.neo4j.kernel.api.index.IndexValuePredicates.seekIncludes;
 
 class LuceneDocumentStructure
 {
@@ -103,6 +108,29 @@ class LuceneDocumentStructure
         }
     }
 
+    public Query newRangeSeekByNumberQuery( Number lower, boolean includeLower, Number upper, boolean includeUpper )
+    {
+        return NumericRangeQuery.newDoubleRange( NUMBER_PROPERTY_FIELD_IDENTIFIER,
+                lower == null ? null : lower.doubleValue(), upper == null ? null : upper.doubleValue(),
+                lower == null || seekIncludes( lower, includeLower ),
+                upper == null || seekIncludes( upper, includeUpper ) );
+    }
+
+    public Query newRangeSeekByPrefixQuery( String prefix )
+    {
+        return new PrefixQuery( new Term( STRING_PROPERTY_FIELD_IDENTIFIER, prefix ) );
+    }
+
+    public Query newLookupAnyQuery( Iterable<?> values )
+    {
+        BooleanQuery query = new BooleanQuery( true );
+        for ( Object value : values )
+        {
+            query.add( newQuery( value ), BooleanClause.Occur.SHOULD );
+        }
+        return query;
+    }
+
     public Term newQueryForChangeOrRemove( long nodeId )
     {
         return new Term( NODE_ID_KEY, "" + nodeId );
@@ -20,8 +20,14 @@
 package org.neo4j.kernel.api.impl.index;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
+import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
 import org.apache.lucene.search.SearcherManager;
 
 import org.neo4j.index.impl.lucene.Hits;
@@ -29,6 +35,9 @@ import org.neo4j.kernel.api.index.IndexReader;
 import org.neo4j.kernel.impl.api.AbstractPrimitiveLongIterator;
 import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
 
+import static org.neo4j.helpers.collection.IteratorUtil.emptyPrimitiveLongIterator;
+import static org.neo4j.helpers.collection.IteratorUtil.toPrimitiveLongIterator;
+
 class LuceneIndexAccessorReader implements IndexReader
 {
     private final IndexSearcher searcher;
@@ -43,11 +52,66 @@ class LuceneIndexAccessorReader implements IndexReader
     }
 
     @Override
-    public PrimitiveLongIterator lookup( final Object value )
+    public PrimitiveLongIterator lookup( Object value )
+    {
+        return query( documentLogic.newQuery( value ) );
+    }
+
+    @Override
+    public PrimitiveLongIterator rangeSeekByNumber( Number lower, boolean includeLower,
+                                                    Number upper, boolean includeUpper )
+    {
+        return query( documentLogic.newRangeSeekByNumberQuery( lower, includeLower, upper, includeUpper ) );
+    }
+
+    @Override
+    public PrimitiveLongIterator rangeSeekByPrefix( String prefix )
+    {
+        return query( documentLogic.newRangeSeekByPrefixQuery( prefix ) );
+    }
+
+    @Override
+    public PrimitiveLongIterator lookupAny( Iterable<?> values )
+    {
+        List<List<Object>> batches = new ArrayList<List<Object>>();
+        List<Object> batch = null;
+        for ( Object value : values )
+        {
+            if ( batch == null || batch.size() == BooleanQuery.getMaxClauseCount() )
+            {
+                batch = new ArrayList<Object>();
+                batches.add( batch );
+            }
+            batch.add( value );
+        }
+
+        if ( batches.isEmpty() )
+        {
+            return emptyPrimitiveLongIterator();
+        }
+        if ( batches.size() == 1 )
+        {
+            return query( documentLogic.newLookupAnyQuery( batches.get( 0 ) ) );
+        }
+
+        // More values than a single boolean query may hold, de-duplicate across the batches instead
+        Set<Long> nodeIds = new LinkedHashSet<Long>();
+        for ( List<Object> batchValues : batches )
+        {
+            PrimitiveLongIterator hits = query( documentLogic.newLookupAnyQuery( batchValues ) );
+            while ( hits.hasNext() )
+            {
+                nodeIds.add( hits.next() );
+            }
+        }
+        return toPrimitiveLongIterator( nodeIds.iterator() );
+    }
+
+    private PrimitiveLongIterator query( Query query )
     {
         try
         {
-            final Hits hits = new Hits( searcher, documentLogic.newQuery( value ), null );
+            final Hits hits = new Hits( searcher, query, null );
             return new AbstractPrimitiveLongIterator()
             {
                 int size = hits.length(), index;
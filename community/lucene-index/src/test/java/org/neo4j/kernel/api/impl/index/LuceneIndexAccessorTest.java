@@ -20,6 +20,12 @@
 package org.neo4j.kernel.api.impl.index;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.lucene.search.BooleanQuery;
 
 import org.junit.After;
 import org.junit.Before;
@@ -118,7 +124,102 @@ public class LuceneIndexAccessorTest
         reader.close();
     }
     
-    private final long nodeId = 1, nodeId2 = 2;
+    @Test
+    public void canRangeSeekByNumber() throws Exception
+    {
+        // GIVEN
+        accessor.updateAndCommit( asList(
+                add( nodeId, 10 ),
+                add( nodeId2, 20.5d ),
+                add( nodeId3, 30L ),
+                add( nodeId4, "40" ) ) );
+        IndexReader reader = accessor.newReader();
+
+        // THEN
+        assertEquals( asSet( nodeId, nodeId2 ), asUniqueSet( reader.rangeSeekByNumber( 10, true, 30, false ) ) );
+        assertEquals( asSet( nodeId2, nodeId3 ), asUniqueSet( reader.rangeSeekByNumber( 10, false, null, true ) ) );
+        assertEquals( asSet( nodeId ), asUniqueSet( reader.rangeSeekByNumber( null, true, 20, true ) ) );
+        reader.close();
+    }
+
+    @Test
+    public void rangeSeekByNumberShouldNotDropValuesPastExclusiveBoundsBeyondExactLongs() throws Exception
+    {
+        // GIVEN
+        long limit = 1L << 53;
+        accessor.updateAndCommit( asList(
+                add( nodeId, limit + 1 ),
+                add( nodeId2, -limit - 1 ) ) );
+        IndexReader reader = accessor.newReader();
+
+        // THEN
+        assertEquals( asSet( nodeId ), asUniqueSet( reader.rangeSeekByNumber( limit, false, null, true ) ) );
+        assertEquals( asSet( nodeId2 ), asUniqueSet( reader.rangeSeekByNumber( null, true, -limit, false ) ) );
+        reader.close();
+    }
+
+    @Test
+    public void canRangeSeekByPrefix() throws Exception
+    {
+        // GIVEN
+        accessor.updateAndCommit( asList(
+                add( nodeId, "apa" ),
+                add( nodeId2, "apalong" ),
+                add( nodeId3, "ap" ),
+                add( nodeId4, "bapa" ) ) );
+        IndexReader reader = accessor.newReader();
+
+        // THEN
+        assertEquals( asSet( nodeId, nodeId2 ), asUniqueSet( reader.rangeSeekByPrefix( "apa" ) ) );
+        assertEquals( asSet( nodeId, nodeId2, nodeId3 ), asUniqueSet( reader.rangeSeekByPrefix( "a" ) ) );
+        reader.close();
+    }
+
+    @Test
+    public void canLookupAnyOfSeveralValues() throws Exception
+    {
+        // GIVEN
+        accessor.updateAndCommit( asList(
+                add( nodeId, value ),
+                add( nodeId2, value2 ),
+                add( nodeId3, value ),
+                add( nodeId4, "other" ) ) );
+        IndexReader reader = accessor.newReader();
+
+        // THEN
+        assertEquals( asSet( nodeId, nodeId2, nodeId3 ),
+                asUniqueSet( reader.lookupAny( asList( value, value2, "missing" ) ) ) );
+        assertEquals( emptySetOf( Long.class ), asUniqueSet( reader.lookupAny( asList() ) ) );
+        reader.close();
+    }
+
+    @Test
+    public void canLookupAnyOfMoreValuesThanFitInOneQuery() throws Exception
+    {
+        // GIVEN
+        int valueCount = BooleanQuery.getMaxClauseCount() + 1;
+        List<NodePropertyUpdate> updates = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        Set<Long> expectedNodeIds = new HashSet<>();
+        for ( int i = 0; i < valueCount; i++ )
+        {
+            updates.add( add( i, "value-" + i ) );
+            values.add( "value-" + i );
+            expectedNodeIds.add( (long) i );
+        }
+        accessor.updateAndCommit( updates );
+        IndexReader reader = accessor.newReader();
+
+        // WHEN
+        // the first value is repeated so that it ends up in both the first and the last batch
+        values.add( "value-0" );
+
+        // THEN
+        assertEquals( expectedNodeIds, asUniqueSet( reader.lookupAny( values ) ) );
+        reader.close();
+    }
+
+    private final long nodeId = 1, nodeId2 = 2, nodeId3 = 3, nodeId4 = 4;
     private final Object value = "value", value2 = 40;
     private final LuceneDocumentStructure documentLogic = new LuceneDocumentStructure();
     private final IndexWriterStatus writerLogic = new IndexWriterStatus();
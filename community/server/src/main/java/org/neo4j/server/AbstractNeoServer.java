@@ -76,8 +76,10 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 
 import static org.neo4j.helpers.collection.Iterables.option;
 import static org.neo4j.server.configuration.Configurator.DEFAULT_SCRIPT_SANDBOXING_ENABLED;
+import static org.neo4j.server.configuration.Configurator.DEFAULT_TRANSACTION_RESULT_FLUSH_INTERVAL;
 import static org.neo4j.server.configuration.Configurator.DEFAULT_TRANSACTION_TIMEOUT;
 import static org.neo4j.server.configuration.Configurator.SCRIPT_SANDBOXING_ENABLED_KEY;
+import static org.neo4j.server.configuration.Configurator.TRANSACTION_RESULT_FLUSH_INTERVAL;
 import static org.neo4j.server.configuration.Configurator.TRANSACTION_TIMEOUT;
 import static org.neo4j.server.database.InjectableProvider.providerForSingleton;
 
@@ -238,7 +240,10 @@ public abstract class AbstractNeoServer implements NeoServer
                 new TransitionalPeriodTransactionMessContainer( database.getGraph() ),
                 new ExecutionEngine( database.getGraph(), logging.getMessagesLog( ExecutionEngine.class ) ),
                 transactionRegistry,
-                logging.getMessagesLog( TransactionFacade.class ));
+                logging.getMessagesLog( TransactionFacade.class ),
+                clock,
+                configurator.configuration().getLong( TRANSACTION_RESULT_FLUSH_INTERVAL,
+                        DEFAULT_TRANSACTION_RESULT_FLUSH_INTERVAL ) );
     }
 
     private long getTransactionTimeoutMillis()
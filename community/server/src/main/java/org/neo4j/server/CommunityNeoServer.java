@@ -79,7 +79,8 @@ public class CommunityNeoServer extends AbstractNeoServer
         		new ManagementApiModule(webServer, configurator.configuration()),
                 new ThirdPartyJAXRSModule(webServer, configurator, this),
                 new WebAdminModule(webServer, configurator.configuration(), database), 
-                new StatisticModule(webServer, statisticsCollector, configurator.configuration()),
+                new StatisticModule(webServer, statisticsCollector, database.requestLatencies(),
+                        configurator.configuration()),
                 new SecurityRulesModule(webServer, configurator.configuration()));
 	}
 
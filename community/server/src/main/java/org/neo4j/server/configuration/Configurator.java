@@ -55,6 +55,11 @@ public interface Configurator
     String WEBSERVER_ADDRESS_PROPERTY_KEY = "org.neo4j.server.webserver.address";
     String WEBSERVER_MAX_THREADS_PROPERTY_KEY = "org.neo4j.server.webserver.maxthreads";
     String WEBSERVER_LIMIT_EXECUTION_TIME_PROPERTY_KEY = "org.neo4j.server.webserver.limit.executiontime";
+    String WEBSERVER_LIMIT_CONCURRENT_REQUESTS_PROPERTY_KEY = "org.neo4j.server.webserver.limit.concurrentrequests";
+    String WEBSERVER_LIMIT_QUEUED_REQUESTS_PROPERTY_KEY = "org.neo4j.server.webserver.limit.queuedrequests";
+    int DEFAULT_WEBSERVER_LIMIT_QUEUED_REQUESTS = 100;
+    String WEBSERVER_LIMIT_QUEUE_TIMEOUT_PROPERTY_KEY = "org.neo4j.server.webserver.limit.queuetimeout";
+    long DEFAULT_WEBSERVER_LIMIT_QUEUE_TIMEOUT = 1000/*milliseconds*/;
     String WEBSERVER_ENABLE_STATISTICS_COLLECTION = "org.neo4j.server.webserver.statistics";
 
     String REST_API_PATH_PROPERTY_KEY = "org.neo4j.server.webadmin.data.uri";
@@ -109,6 +114,9 @@ public interface Configurator
     String TRANSACTION_TIMEOUT = "org.neo4j.server.transaction.timeout";
     int DEFAULT_TRANSACTION_TIMEOUT = 60/*seconds*/;
 
+    String TRANSACTION_RESULT_FLUSH_INTERVAL = "org.neo4j.server.transaction.result_flush_interval";
+    long DEFAULT_TRANSACTION_RESULT_FLUSH_INTERVAL = 200/*milliseconds*/;
+
     Configuration configuration();
 
     Map<String, String> getDatabaseTuningProperties();
@@ -33,6 +33,7 @@ import org.neo4j.kernel.AbstractGraphDatabase;
 import org.neo4j.kernel.GraphDatabaseAPI;
 import org.neo4j.kernel.lifecycle.Lifecycle;
 import org.neo4j.server.logging.Logger;
+import org.neo4j.server.statistic.RequestLatencies;
 import org.neo4j.server.statistic.StatisticCollector;
 import org.neo4j.shell.ShellSettings;
 import org.rrd4j.core.RrdDb;
@@ -55,6 +56,7 @@ public abstract class Database implements Lifecycle
 
     private RrdDbWrapper rrdDb;
     private final StatisticCollector statisticCollector = new StatisticCollector();
+    private final RequestLatencies requestLatencies = new RequestLatencies();
 
     /**
      * This constructor should not be used,
@@ -215,6 +217,14 @@ public abstract class Database implements Lifecycle
         return statisticCollector;
     }
 
+    /**
+     * @return the per endpoint latencies of requests to the REST API, as collected by the statistic filter.
+     */
+    public RequestLatencies requestLatencies()
+    {
+        return requestLatencies;
+    }
+
     @Override
     public void init() throws Throwable
     {
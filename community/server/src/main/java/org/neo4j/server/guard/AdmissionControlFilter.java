@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.guard;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+
+import org.neo4j.server.rest.web.InternalJettyServletRequest;
+
+import static javax.servlet.http.HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+
+/**
+ * Limits the number of requests being processed at the same time. Requests beyond the limit wait in a bounded queue
+ * for at most the queue timeout, and are turned away with {@code 503 Service Unavailable} if the queue is full or the
+ * timeout passes. Under overload this keeps latency of the admitted requests in check and tells clients to back off
+ * early, instead of letting all requests pile up in the web server thread pool.
+ * <p>
+ * Requests dispatched internally, such as the jobs of a batch request, are let through without a permit, since the
+ * request they are part of already holds one, and waiting for a second one could starve it.
+ */
+public class AdmissionControlFilter implements Filter, AdmissionControlMBean
+{
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final int maxConcurrentRequests;
+    private final int maxQueuedRequests;
+    private final long queueTimeoutMillis;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public AdmissionControlFilter( int maxConcurrentRequests, int maxQueuedRequests, long queueTimeoutMillis )
+    {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxQueuedRequests = maxQueuedRequests;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.permits = new Semaphore( maxConcurrentRequests, true );
+    }
+
+    @Override
+    public void init( FilterConfig filterConfig ) throws ServletException
+    {
+    }
+
+    @Override
+    public void doFilter( ServletRequest req, ServletResponse res, FilterChain chain )
+            throws IOException, ServletException
+    {
+        if ( req instanceof InternalJettyServletRequest )
+        {
+            chain.doFilter( req, res );
+            return;
+        }
+
+        if ( !admit() )
+        {
+            rejected.incrementAndGet();
+            if ( res instanceof HttpServletResponse )
+            {
+                HttpServletResponse response = (HttpServletResponse) res;
+                response.setHeader( "Retry-After", RETRY_AFTER_SECONDS );
+                response.setStatus( SC_SERVICE_UNAVAILABLE );
+            }
+            return;
+        }
+
+        try
+        {
+            chain.doFilter( req, res );
+        }
+        finally
+        {
+            permits.release();
+        }
+    }
+
+    private boolean admit()
+    {
+        if ( permits.tryAcquire() )
+        {
+            return true;
+        }
+
+        if ( queued.incrementAndGet() > maxQueuedRequests )
+        {
+            queued.decrementAndGet();
+            return false;
+        }
+        try
+        {
+            return permits.tryAcquire( queueTimeoutMillis, TimeUnit.MILLISECONDS );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        finally
+        {
+            queued.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void destroy()
+    {
+    }
+
+    @Override
+    public int getMaxConcurrentRequests()
+    {
+        return maxConcurrentRequests;
+    }
+
+    @Override
+    public int getActiveRequests()
+    {
+        return maxConcurrentRequests - permits.availablePermits();
+    }
+
+    @Override
+    public int getQueuedRequests()
+    {
+        return queued.get();
+    }
+
+    @Override
+    public long getRejectedRequests()
+    {
+        return rejected.get();
+    }
+}
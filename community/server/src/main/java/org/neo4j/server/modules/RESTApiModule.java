@@ -28,6 +28,8 @@ import org.neo4j.kernel.guard.Guard;
 import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.server.configuration.Configurator;
 import org.neo4j.server.database.Database;
+import org.neo4j.server.guard.AdmissionControlFilter;
+import org.neo4j.server.guard.AdmissionControlMBean;
 import org.neo4j.server.guard.GuardingRequestFilter;
 import org.neo4j.server.logging.Logger;
 import org.neo4j.server.plugins.PluginManager;
@@ -38,10 +40,16 @@ import org.neo4j.server.rest.web.ExtensionService;
 import org.neo4j.server.rest.web.ResourcesService;
 import org.neo4j.server.rest.web.RestfulGraphDatabase;
 import org.neo4j.server.rest.web.TransactionalService;
+import org.neo4j.server.statistic.ServerMBeans;
 import org.neo4j.server.web.WebServer;
 
 import static org.neo4j.server.JAXRSHelper.listFrom;
+import static org.neo4j.server.configuration.Configurator.DEFAULT_WEBSERVER_LIMIT_QUEUED_REQUESTS;
+import static org.neo4j.server.configuration.Configurator.DEFAULT_WEBSERVER_LIMIT_QUEUE_TIMEOUT;
+import static org.neo4j.server.configuration.Configurator.WEBSERVER_LIMIT_CONCURRENT_REQUESTS_PROPERTY_KEY;
 import static org.neo4j.server.configuration.Configurator.WEBSERVER_LIMIT_EXECUTION_TIME_PROPERTY_KEY;
+import static org.neo4j.server.configuration.Configurator.WEBSERVER_LIMIT_QUEUED_REQUESTS_PROPERTY_KEY;
+import static org.neo4j.server.configuration.Configurator.WEBSERVER_LIMIT_QUEUE_TIMEOUT_PROPERTY_KEY;
 
 public class RESTApiModule implements ServerModule
 {
@@ -52,6 +60,8 @@ public class RESTApiModule implements ServerModule
     private final WebServer webServer;
     private final Database database;
     private GuardingRequestFilter requestTimeLimitFilter;
+    private AdmissionControlFilter admissionControlFilter;
+    private final ServerMBeans mbeans = new ServerMBeans();
 
     public RESTApiModule(WebServer webServer, Database database, Configuration config)
     {
@@ -70,6 +80,7 @@ public class RESTApiModule implements ServerModule
             webServer.addJAXRSClasses( getClassNames(), restApiUri.toString(), null );
             loadPlugins( logger );
 
+            setupAdmissionControl();
             setupRequestTimeLimit();
 
             log.info( "Mounted REST API at [%s]", restApiUri.toString() );
@@ -101,6 +112,7 @@ public class RESTApiModule implements ServerModule
             webServer.removeJAXRSClasses( getClassNames(), restApiUri().toString() );
 
             tearDownRequestTimeLimit();
+            tearDownAdmissionControl();
             unloadPlugins();
         }
         catch ( URISyntaxException e )
@@ -109,6 +121,28 @@ public class RESTApiModule implements ServerModule
         }
     }
 
+    private void setupAdmissionControl()
+    {
+        Integer maxConcurrentRequests = config.getInteger( WEBSERVER_LIMIT_CONCURRENT_REQUESTS_PROPERTY_KEY, null );
+        if ( maxConcurrentRequests != null && maxConcurrentRequests > 0 )
+        {
+            this.admissionControlFilter = new AdmissionControlFilter( maxConcurrentRequests,
+                    config.getInt( WEBSERVER_LIMIT_QUEUED_REQUESTS_PROPERTY_KEY, DEFAULT_WEBSERVER_LIMIT_QUEUED_REQUESTS ),
+                    config.getLong( WEBSERVER_LIMIT_QUEUE_TIMEOUT_PROPERTY_KEY, DEFAULT_WEBSERVER_LIMIT_QUEUE_TIMEOUT ) );
+            webServer.addFilter( admissionControlFilter, "/*" );
+            mbeans.register( "type=AdmissionControl", admissionControlFilter, AdmissionControlMBean.class );
+        }
+    }
+
+    private void tearDownAdmissionControl()
+    {
+        if ( admissionControlFilter != null )
+        {
+            webServer.removeFilter( admissionControlFilter, "/*" );
+            mbeans.unregisterAll();
+        }
+    }
+
     private void tearDownRequestTimeLimit() {
         if(requestTimeLimitFilter != null)
         {
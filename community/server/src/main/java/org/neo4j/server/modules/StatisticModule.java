@@ -20,6 +20,11 @@
 package org.neo4j.server.modules;
 
 import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.server.statistic.RequestLatencies;
+import org.neo4j.server.statistic.RequestLatency;
+import org.neo4j.server.statistic.RequestLatencyMBean;
+import org.neo4j.server.statistic.RestEndpoint;
+import org.neo4j.server.statistic.ServerMBeans;
 import org.neo4j.server.statistic.StatisticCollector;
 import org.neo4j.server.statistic.StatisticFilter;
 import org.neo4j.server.web.WebServer;
@@ -32,12 +37,21 @@ public class StatisticModule implements ServerModule
     private final StatisticFilter filter;
 	private final WebServer webServer;
     private final Configuration config;
+    private final RequestLatencies requestLatencies;
+    private final ServerMBeans mbeans = new ServerMBeans();
 
     public StatisticModule(WebServer webServer, StatisticCollector requestStatistics, Configuration config)
+    {
+        this( webServer, requestStatistics, new RequestLatencies(), config );
+    }
+
+    public StatisticModule(WebServer webServer, StatisticCollector requestStatistics,
+                           RequestLatencies requestLatencies, Configuration config)
     {
     	this.webServer = webServer;
         this.config = config;
-        this.filter = new StatisticFilter( requestStatistics );
+        this.requestLatencies = requestLatencies;
+        this.filter = new StatisticFilter( requestStatistics, requestLatencies );
     }
 
     @Override
@@ -46,6 +60,11 @@ public class StatisticModule implements ServerModule
         if (isStatisticsEnabled())
         {
             webServer.addFilter(filter, "/*");
+            for ( RestEndpoint endpoint : RestEndpoint.values() )
+            {
+                mbeans.register( "type=RequestLatency,endpoint=" + endpoint.name().toLowerCase(),
+                        new RequestLatency( requestLatencies.histogram( endpoint ) ), RequestLatencyMBean.class );
+            }
         }
     }
 
@@ -55,6 +74,7 @@ public class StatisticModule implements ServerModule
         if (isStatisticsEnabled())
         {
             webServer.removeFilter(filter, "/*");
+            mbeans.unregisterAll();
         }
     }
 
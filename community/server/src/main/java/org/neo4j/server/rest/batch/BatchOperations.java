@@ -24,6 +24,7 @@ import java.io.InputStream;
 import java.io.StringWriter;
 import java.net.URI;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -50,11 +51,22 @@ public abstract class BatchOperations
     protected static final String TO_KEY = "to";
     protected static final JsonFactory jsonFactory = new JsonFactory();
     protected final WebServer webServer;
+    protected final NativeBatchOperations nativeOperations;
     protected final ObjectMapper mapper;
 
     public BatchOperations( WebServer webServer )
+    {
+        this( webServer, null );
+    }
+
+    /**
+     * @param nativeOperations performs the jobs it knows without going through the servlet stack, or null to
+     * dispatch all jobs as internal requests.
+     */
+    public BatchOperations( WebServer webServer, NativeBatchOperations nativeOperations )
     {
         this.webServer = webServer;
+        this.nativeOperations = nativeOperations;
         mapper = new ObjectMapper();
     }
 
@@ -134,7 +146,8 @@ public abstract class BatchOperations
         {
             if (token == JsonToken.START_OBJECT)
             {
-                String jobMethod="", jobPath="", jobBody="";
+                String jobMethod="", jobPath="";
+                JsonNode jobBody = null;
                 Integer jobId = null;
                 while ((token = jp.nextToken()) != JsonToken.END_OBJECT && token != null )
                 {
@@ -151,20 +164,65 @@ public abstract class BatchOperations
                         jobId = jp.getIntValue();
                     } else if (field.equals(BODY_KEY))
                     {
-                        jobBody = readBody( jp );
-
+                        jobBody = mapper.readTree( jp );
                     }
                 }
                 // Read one job description. Execute it.
-                performRequest( uriInfo, jobMethod, jobPath, jobBody,
+                performJob( uriInfo, jobMethod, jobPath, jobBody,
                         jobId, httpHeaders, locations );
             }
         }
     }
 
-    private String readBody( JsonParser jp ) throws IOException
+    private void performJob( UriInfo uriInfo, String method, String path, JsonNode body, Integer id,
+                             HttpHeaders httpHeaders, Map<Integer, String> locations ) throws IOException, ServletException
+    {
+        if ( nativeOperations != null )
+        {
+            String targetPath = replaceLocationPlaceholders( path, locations );
+            URI targetUri = calculateTargetUri( uriInfo, targetPath );
+            NativeBatchOperations.Operation operation =
+                    nativeOperations.operationFor( method, uriInfo.getBaseUri(), targetUri );
+            if ( operation != null )
+            {
+                invokeNatively( operation, targetPath, readBody( body, locations ), id );
+                return;
+            }
+        }
+        performRequest( uriInfo, method, path, body == null ? "" : writeBody( body ), id, httpHeaders, locations );
+    }
+
+    private Object readBody( JsonNode body, Map<Integer, String> locations ) throws IOException
+    {
+        return body == null ? null : replaceLocationPlaceholders( mapper.readValue( body, Object.class ), locations );
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object replaceLocationPlaceholders( Object value, Map<Integer, String> locations )
+    {
+        if ( value instanceof String )
+        {
+            return replaceLocationPlaceholders( (String) value, locations );
+        }
+        if ( value instanceof Map )
+        {
+            for ( Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet() )
+            {
+                entry.setValue( replaceLocationPlaceholders( entry.getValue(), locations ) );
+            }
+        }
+        else if ( value instanceof List )
+        {
+            for ( ListIterator<Object> items = ((List<Object>) value).listIterator(); items.hasNext(); )
+            {
+                items.set( replaceLocationPlaceholders( items.next(), locations ) );
+            }
+        }
+        return value;
+    }
+
+    private String writeBody( JsonNode node ) throws IOException
     {
-        JsonNode node = mapper.readTree( jp );
         StringWriter out = new StringWriter();
         JsonGenerator gen = jsonFactory
                 .createJsonGenerator(out);
@@ -189,4 +247,6 @@ public abstract class BatchOperations
     }
 
     protected abstract void invoke( String method, String path, String body, Integer id, URI targetUri, InternalJettyServletRequest req, InternalJettyServletResponse res ) throws IOException, ServletException;
+
+    protected abstract void invokeNatively( NativeBatchOperations.Operation operation, String path, Object body, Integer id ) throws IOException;
 }
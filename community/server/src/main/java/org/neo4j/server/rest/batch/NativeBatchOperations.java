@@ -0,0 +1,397 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rest.batch;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.ws.rs.core.Response.Status;
+
+import org.neo4j.cypher.CypherException;
+import org.neo4j.cypher.javacompat.ExecutionResult;
+import org.neo4j.server.database.CypherExecutor;
+import org.neo4j.server.rest.domain.BatchOperationFailedException;
+import org.neo4j.server.rest.domain.EndNodeNotFoundException;
+import org.neo4j.server.rest.domain.StartNodeNotFoundException;
+import org.neo4j.server.rest.repr.BadInputException;
+import org.neo4j.server.rest.repr.CypherResultRepresentation;
+import org.neo4j.server.rest.repr.DefaultFormat;
+import org.neo4j.server.rest.repr.EntityRepresentation;
+import org.neo4j.server.rest.repr.ExceptionRepresentation;
+import org.neo4j.server.rest.repr.OutputFormat;
+import org.neo4j.server.rest.repr.Representation;
+import org.neo4j.server.rest.web.DatabaseActions;
+import org.neo4j.server.rest.web.NodeNotFoundException;
+
+/*
+ * Performs the common kinds of batch jobs straight against DatabaseActions and the Cypher engine, in the
+ * transaction of the batch request, instead of re-dispatching each of them as an internal HTTP request through
+ * the servlet and JAX-RS stack. Responses are the same as the ones of the corresponding REST resources.
+ *
+ * Jobs it doesn't know, including any with query parameters, are left to the servlet path.
+ */
+public class NativeBatchOperations
+{
+    private static final Pattern NODE_PROPERTIES = Pattern.compile( "node/(\\d{1,18})/properties" );
+    private static final Pattern NODE_RELATIONSHIPS = Pattern.compile( "node/(\\d{1,18})/relationships" );
+    private static final Pattern NODE_INDEX = Pattern.compile( "index/node/([^/]+)" );
+
+    private static final String QUERY_KEY = "query";
+    private static final String PARAMS_KEY = "params";
+
+    private final DatabaseActions actions;
+    private final CypherExecutor cypherExecutor;
+    private final OutputFormat output;
+
+    /**
+     * @param output the format locations and error messages are written in, which should be the JSON format
+     * the servlet path asks for.
+     */
+    public NativeBatchOperations( DatabaseActions actions, CypherExecutor cypherExecutor, OutputFormat output )
+    {
+        this.actions = actions;
+        this.cypherExecutor = cypherExecutor;
+        this.output = output;
+    }
+
+    public OutputFormat getOutputFormat()
+    {
+        return output;
+    }
+
+    /**
+     * @return the operation to perform a job with, or null if the job has to be dispatched through the servlet path.
+     */
+    public Operation operationFor( String method, URI baseUri, URI targetUri )
+    {
+        if ( targetUri.getRawQuery() != null )
+        {
+            return null;
+        }
+        String path = baseUri.relativize( targetUri ).getPath();
+
+        if ( "POST".equals( method ) )
+        {
+            if ( "node".equals( path ) )
+            {
+                return createNode;
+            }
+            if ( "cypher".equals( path ) )
+            {
+                return cypher;
+            }
+            Matcher matcher = NODE_RELATIONSHIPS.matcher( path );
+            if ( matcher.matches() )
+            {
+                return createRelationship( Long.parseLong( matcher.group( 1 ) ) );
+            }
+            matcher = NODE_INDEX.matcher( path );
+            if ( matcher.matches() )
+            {
+                return addToNodeIndex( matcher.group( 1 ) );
+            }
+        }
+        else if ( "PUT".equals( method ) )
+        {
+            Matcher matcher = NODE_PROPERTIES.matcher( path );
+            if ( matcher.matches() )
+            {
+                return setAllNodeProperties( Long.parseLong( matcher.group( 1 ) ) );
+            }
+        }
+        return null;
+    }
+
+    public static abstract class Operation
+    {
+        /**
+         * @param body the job body as read from JSON, with location placeholders already replaced, or null if
+         * the job has no body.
+         * @throws BatchOperationFailedException with the status the REST resource would have responded with,
+         * if the job fails.
+         */
+        public abstract Result perform( Object body );
+    }
+
+    public static class Result
+    {
+        private final int status;
+        private final String location;
+        private final Representation representation;
+
+        Result( int status, String location, Representation representation )
+        {
+            this.status = status;
+            this.location = location;
+            this.representation = representation;
+        }
+
+        public int getStatus()
+        {
+            return status;
+        }
+
+        /**
+         * @return the uri of the created entity, or null.
+         */
+        public String getLocation()
+        {
+            return location;
+        }
+
+        /**
+         * @return the response body, or null if the response has no content.
+         */
+        public Representation getRepresentation()
+        {
+            return representation;
+        }
+    }
+
+    private final Operation createNode = new Operation()
+    {
+        @Override
+        public Result perform( Object body )
+        {
+            try
+            {
+                return created( actions.createNode( readMap( body ) ) );
+            }
+            catch ( ArrayStoreException e )
+            {
+                throw failure( Status.BAD_REQUEST, e );
+            }
+            catch ( BadInputException e )
+            {
+                throw failure( Status.BAD_REQUEST, e );
+            }
+            catch ( ClassCastException e )
+            {
+                throw failure( Status.BAD_REQUEST, e );
+            }
+        }
+    };
+
+    private Operation setAllNodeProperties( final long nodeId )
+    {
+        return new Operation()
+        {
+            @Override
+            public Result perform( Object body )
+            {
+                try
+                {
+                    actions.setAllNodeProperties( nodeId, readMap( body ) );
+                    return new Result( Status.NO_CONTENT.getStatusCode(), null, null );
+                }
+                catch ( ArrayStoreException e )
+                {
+                    throw failure( Status.BAD_REQUEST, e );
+                }
+                catch ( BadInputException e )
+                {
+                    throw failure( Status.BAD_REQUEST, e );
+                }
+                catch ( NodeNotFoundException e )
+                {
+                    throw failure( Status.NOT_FOUND, e );
+                }
+            }
+        };
+    }
+
+    private Operation createRelationship( final long startNodeId )
+    {
+        return new Operation()
+        {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Result perform( Object body )
+            {
+                final long endNodeId;
+                final String type;
+                final Map<String, Object> properties;
+                try
+                {
+                    Map<String, Object> data = readMap( body );
+                    endNodeId = extractNodeId( (String) data.get( "to" ) );
+                    type = (String) data.get( "type" );
+                    properties = (Map<String, Object>) data.get( "data" );
+                }
+                catch ( BadInputException e )
+                {
+                    throw failure( Status.BAD_REQUEST, e );
+                }
+                catch ( ClassCastException e )
+                {
+                    throw failure( Status.BAD_REQUEST, e );
+                }
+                try
+                {
+                    return created( actions.createRelationship( startNodeId, endNodeId, type, properties ) );
+                }
+                catch ( StartNodeNotFoundException e )
+                {
+                    throw failure( Status.NOT_FOUND, e );
+                }
+                catch ( EndNodeNotFoundException e )
+                {
+                    throw failure( Status.BAD_REQUEST, e );
+                }
+                catch ( BadInputException e )
+                {
+                    throw failure( Status.BAD_REQUEST, e );
+                }
+            }
+        };
+    }
+
+    private Operation addToNodeIndex( final String indexName )
+    {
+        return new Operation()
+        {
+            @Override
+            public Result perform( Object body )
+            {
+                try
+                {
+                    Map<String, Object> entityBody = DefaultFormat.validateKeys( readMap( body ), "key", "value", "uri" );
+                    return created( actions.addToNodeIndex( indexName,
+                            String.valueOf( entityBody.get( "key" ) ),
+                            String.valueOf( entityBody.get( "value" ) ),
+                            extractNodeId( entityBody.get( "uri" ).toString() ) ) );
+                }
+                catch ( UnsupportedOperationException e )
+                {
+                    throw failure( 405, e );
+                }
+                catch ( IllegalArgumentException e )
+                {
+                    throw failure( Status.BAD_REQUEST, e );
+                }
+                catch ( BadInputException e )
+                {
+                    throw failure( Status.BAD_REQUEST, e );
+                }
+                catch ( Exception e )
+                {
+                    throw failure( Status.INTERNAL_SERVER_ERROR, e );
+                }
+            }
+        };
+    }
+
+    private final Operation cypher = new Operation()
+    {
+        @Override
+        @SuppressWarnings("unchecked")
+        public Result perform( Object body )
+        {
+            Map<String, Object> command;
+            try
+            {
+                command = readMap( body );
+            }
+            catch ( BadInputException e )
+            {
+                throw failure( Status.BAD_REQUEST, e );
+            }
+            if ( !command.containsKey( QUERY_KEY ) )
+            {
+                throw failure( Status.BAD_REQUEST,
+                        new BadInputException( "You have to provide the 'query' parameter." ) );
+            }
+
+            String query = (String) command.get( QUERY_KEY );
+            Map<String, Object> params;
+            try
+            {
+                params = (Map<String, Object>) (command.get( PARAMS_KEY ) != null ?
+                        command.get( PARAMS_KEY ) :
+                        new HashMap<String, Object>());
+            }
+            catch ( ClassCastException e )
+            {
+                throw failure( Status.BAD_REQUEST, new IllegalArgumentException( "Parameters must be a JSON map" ) );
+            }
+            try
+            {
+                ExecutionResult result = cypherExecutor.getExecutionEngine().execute( query, params );
+                return new Result( Status.OK.getStatusCode(), null,
+                        new CypherResultRepresentation( result, false, false ) );
+            }
+            catch ( Throwable e )
+            {
+                throw failure( Status.BAD_REQUEST, e.getCause() instanceof CypherException ? e.getCause() : e );
+            }
+        }
+    };
+
+    private <REPR extends Representation & EntityRepresentation> Result created( REPR representation )
+            throws BadInputException
+    {
+        return new Result( Status.CREATED.getStatusCode(), output.location( representation ), representation );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readMap( Object body ) throws BadInputException
+    {
+        if ( body == null )
+        {
+            return Collections.emptyMap();
+        }
+        if ( !(body instanceof Map) )
+        {
+            throw new BadInputException( "Expected a JSON map, but got: " + body );
+        }
+        return (Map<String, Object>) body;
+    }
+
+    private static long extractNodeId( String uri ) throws BadInputException
+    {
+        try
+        {
+            return Long.parseLong( uri.substring( uri.lastIndexOf( "/" ) + 1 ) );
+        }
+        catch ( NumberFormatException ex )
+        {
+            throw new BadInputException( ex );
+        }
+        catch ( NullPointerException ex )
+        {
+            throw new BadInputException( ex );
+        }
+    }
+
+    private BatchOperationFailedException failure( Status status, Throwable cause )
+    {
+        return failure( status.getStatusCode(), cause );
+    }
+
+    private BatchOperationFailedException failure( int status, Throwable cause )
+    {
+        return new BatchOperationFailedException( status, output.assemble( new ExceptionRepresentation( cause ) ),
+                cause instanceof Exception ? (Exception) cause : new RuntimeException( cause ) );
+    }
+}
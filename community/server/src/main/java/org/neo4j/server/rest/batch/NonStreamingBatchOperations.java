@@ -28,6 +28,7 @@ import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.UriInfo;
 
 import org.neo4j.server.rest.domain.BatchOperationFailedException;
+import org.neo4j.server.rest.repr.Representation;
 import org.neo4j.server.rest.web.InternalJettyServletRequest;
 import org.neo4j.server.rest.web.InternalJettyServletResponse;
 import org.neo4j.server.web.WebServer;
@@ -42,6 +43,11 @@ public class NonStreamingBatchOperations extends BatchOperations
         super( webServer );
     }
 
+    public NonStreamingBatchOperations( WebServer webServer, NativeBatchOperations nativeOperations )
+    {
+        super( webServer, nativeOperations );
+    }
+
     public BatchOperationResults performBatchJobs( UriInfo uriInfo, HttpHeaders httpHeaders, InputStream body ) throws IOException, ServletException
     {
         results = new BatchOperationResults();
@@ -64,4 +70,13 @@ public class NonStreamingBatchOperations extends BatchOperations
         }
     }
 
+    @Override
+    protected void invokeNatively( NativeBatchOperations.Operation operation, String path, Object body, Integer id )
+    {
+        NativeBatchOperations.Result result = operation.perform( body );
+        Representation representation = result.getRepresentation();
+        String resultBody = representation == null ? null : nativeOperations.getOutputFormat().assemble( representation );
+        results.addOperationResult( path, id, resultBody, result.getLocation() );
+    }
+
 }
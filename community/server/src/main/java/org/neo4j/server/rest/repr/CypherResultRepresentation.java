@@ -130,6 +130,11 @@ public class CypherResultRepresentation extends MappingRepresentation
                     ProfilerStatistics stats = planDescription.getProfilerStatistics();
                     mappingSerializer.putNumber( "rows", stats.getRows() );
                     mappingSerializer.putNumber( "dbHits", stats.getDbHits() );
+                    mappingSerializer.putNumber( "selfTime", stats.getSelfTime() );
+                    mappingSerializer.putNumber( "totalTime", stats.getTotalTime() );
+                    mappingSerializer.putNumber( "pageCacheHits", stats.getPageCacheHits() );
+                    mappingSerializer.putNumber( "pageCacheMisses", stats.getPageCacheMisses() );
+                    mappingSerializer.putNumber( "peakBufferedRows", stats.getPeakBufferedRows() );
                 }
 
                 mappingSerializer.putList( "children",
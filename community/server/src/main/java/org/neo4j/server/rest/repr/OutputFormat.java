@@ -205,11 +205,41 @@ public class OutputFormat
         return format.mediaType;
     }
 
+    /**
+     * @return an output format for the same base uri and extensions, which writes representations in another format.
+     */
+    public OutputFormat withFormat( RepresentationFormat format )
+    {
+        return new OutputFormat( format, baseUri, extensions );
+    }
+
     public String assemble( Representation representation )
     {
         return representation.serialize( format, baseUri, extensions );
     }
 
+    /**
+     * Writes a representation to an output stream, without building a response around it. Streaming formats
+     * serialize straight into the stream.
+     */
+    public void writeTo( Representation representation, OutputStream output ) throws IOException
+    {
+        if ( format instanceof StreamingFormat )
+        {
+            representation.serialize( ((StreamingFormat) format).writeTo( output ), baseUri, extensions );
+        }
+        else
+        {
+            output.write( assemble( representation ).getBytes( UTF8 ) );
+        }
+    }
+
+    public <REPR extends Representation & EntityRepresentation> String location( REPR representation )
+            throws BadInputException
+    {
+        return uri( representation ).toString();
+    }
+
     public Response noContent()
     {
         representationWriteHandler.onRepresentationStartWriting();
@@ -31,28 +31,47 @@ import org.codehaus.jackson.JsonFactory;
 import org.codehaus.jackson.JsonGenerator;
 
 import org.neo4j.cypher.javacompat.ExecutionResult;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.helpers.collection.LimitingIterator;
 import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.server.rest.repr.util.RFC1123;
 import org.neo4j.server.rest.transactional.error.Neo4jError;
+import org.neo4j.tooling.Clock;
+import org.neo4j.tooling.RealClock;
 
 /**
  * Writes directly to an output stream, therefore implicitly stateful. Methods must be invoked in the correct
  * order, as follows:
  * <ul>
  * <li>{@link #transactionCommitUri(URI) transactionId}{@code ?}</li>
- * <li>{@link #statementResult(ExecutionResult, ResultDataContent...) statementResult}{@code *}</li>
+ * <li>{@link #statementResult(ExecutionResult, ResultDataContent...) statementResult} or
+ * {@link #statementResultPage(ResultCursor, int, URI) statementResultPage}{@code *}</li>
  * <li>{@link #errors(Iterable) errors}{@code ?}</li>
  * <li>{@link #transactionStatus(long expiryDate)}{@code ?}</li>
  * <li>{@link #finish() finish}</li>
  * </ul>
  * <p/>
  * Where {@code ?} means invoke at most once, and {@code *} means invoke zero or more times.
+ * <p/>
+ * Rows are pulled from results one at a time, and written rows are flushed to the output at least once every flush
+ * interval. Since writes to the output block while the client isn't reading, a slow client slows down the pulling of
+ * rows instead of making them pile up in memory; all that is buffered is what fits in the JSON generator and the
+ * output stream.
  */
 public class ExecutionResultSerializer
 {
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 200;
+
     public ExecutionResultSerializer( OutputStream output, StringLogger log )
+    {
+        this( output, log, new RealClock(), DEFAULT_FLUSH_INTERVAL_MILLIS );
+    }
+
+    public ExecutionResultSerializer( OutputStream output, StringLogger log, Clock clock, long flushIntervalMillis )
     {
         this.log = log;
+        this.clock = clock;
+        this.flushIntervalMillis = flushIntervalMillis;
         JsonGenerator generator = null;
         try
         {
@@ -93,11 +112,47 @@ public class ExecutionResultSerializer
         {
             ensureResultsFieldOpen();
             out.writeStartObject();
+            ResourceIterator<Map<String, Object>> rows = result.iterator();
             try
             {
                 Iterable<String> columns = result.columns();
                 writeColumns( columns );
-                writeRows( columns, result.iterator(), configureWriters( resultDataContents ) );
+                writeRows( columns, rows, configureWriters( resultDataContents ) );
+            }
+            finally
+            {
+                // Releases the resources of the result right away, also if the client went away half way through
+                rows.close();
+                out.writeEndObject(); // </result>
+            }
+        }
+        catch ( IOException e )
+        {
+            throw loggedIOException( e );
+        }
+    }
+
+    /**
+     * Like {@link #statementResult(ExecutionResult, ResultDataContent...) statementResult}, but writes at most
+     * {@code pageSize} rows from the given cursor and leaves it open. If the cursor has more rows after that, the
+     * URI to fetch the next page from is included in the result.
+     */
+    public void statementResultPage( ResultCursor cursor, int pageSize, URI cursorUri ) throws IOException
+    {
+        try
+        {
+            ensureResultsFieldOpen();
+            out.writeStartObject();
+            try
+            {
+                Iterable<String> columns = cursor.columns();
+                writeColumns( columns );
+                writeRows( columns, new LimitingIterator<>( cursor.rows(), pageSize ),
+                        configureWriters( cursor.resultDataContents() ) );
+                if ( cursor.hasMoreRows() )
+                {
+                    out.writeStringField( "cursor", cursorUri.toString() );
+                }
             }
             finally
             {
@@ -221,6 +276,8 @@ public class ExecutionResultSerializer
     private static final JsonFactory JSON_FACTORY = new JsonFactory( new Neo4jJsonCodec() );
     private final JsonGenerator out;
     private final StringLogger log;
+    private final Clock clock;
+    private final long flushIntervalMillis;
 
     private void ensureDocumentOpen() throws IOException
     {
@@ -257,6 +314,7 @@ public class ExecutionResultSerializer
         out.writeArrayFieldStart( "data" );
         try
         {
+            long lastFlush = clock.currentTimeMillis();
             while ( data.hasNext() )
             {
                 Map<String, Object> row = data.next();
@@ -269,6 +327,13 @@ public class ExecutionResultSerializer
                 {
                     out.writeEndObject();
                 }
+
+                long now = clock.currentTimeMillis();
+                if ( now - lastFlush >= flushIntervalMillis )
+                {
+                    out.flush();
+                    lastFlush = now;
+                }
             }
         }
         finally
@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rest.transactional;
+
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.cypher.javacompat.ExecutionResult;
+import org.neo4j.graphdb.ResourceIterator;
+
+/**
+ * The open result of a statement that was asked to be returned one page at a time. A {@link TransactionHandle}
+ * keeps its cursors across requests, so that clients can fetch the next page of rows without re-executing the
+ * statement. Cursors live as long as the transaction they were opened in, and are closed when it is committed,
+ * rolled back or times out.
+ */
+public class ResultCursor
+{
+    private final long id;
+    private final List<String> columns;
+    private final ResourceIterator<Map<String, Object>> rows;
+    private final ResultDataContent[] resultDataContents;
+    private final int pageSize;
+
+    public ResultCursor( long id, ExecutionResult result, Statement statement )
+    {
+        this.id = id;
+        this.columns = result.columns();
+        this.rows = result.iterator();
+        this.resultDataContents = statement.resultDataContents();
+        this.pageSize = statement.pageSize();
+    }
+
+    public long id()
+    {
+        return id;
+    }
+
+    public List<String> columns()
+    {
+        return columns;
+    }
+
+    public ResourceIterator<Map<String, Object>> rows()
+    {
+        return rows;
+    }
+
+    public ResultDataContent[] resultDataContents()
+    {
+        return resultDataContents;
+    }
+
+    /**
+     * @return the page size the cursor was opened with, used for pages where the client doesn't ask for a
+     * specific size.
+     */
+    public int pageSize()
+    {
+        return pageSize;
+    }
+
+    public boolean hasMoreRows()
+    {
+        return rows.hasNext();
+    }
+
+    public void close()
+    {
+        rows.close();
+    }
+}
@@ -23,15 +23,29 @@ import java.util.Map;
 
 public class Statement
 {
+    /**
+     * Page size of statements whose result is to be returned in full, rather than one page at a time through a
+     * {@link ResultCursor}.
+     */
+    public static final int NO_PAGING = 0;
+
     private final String statement;
     private final Map<String, Object> parameters;
     private final ResultDataContent[] resultDataContents;
+    private final int pageSize;
 
     public Statement( String statement, Map<String, Object> parameters, ResultDataContent... resultDataContents )
+    {
+        this( statement, parameters, resultDataContents, NO_PAGING );
+    }
+
+    public Statement( String statement, Map<String, Object> parameters, ResultDataContent[] resultDataContents,
+                      int pageSize )
     {
         this.statement = statement;
         this.parameters = parameters;
         this.resultDataContents = resultDataContents;
+        this.pageSize = pageSize;
     }
 
     public String statement()
@@ -48,4 +62,9 @@ public class Statement
     {
         return resultDataContents;
     }
+
+    public int pageSize()
+    {
+        return pageSize;
+    }
 }
@@ -105,6 +105,7 @@ public class StatementDeserializer extends PrefetchingIterator<Statement>
                     String statement = null;
                     Map<String, Object> parameters = null;
                     List<Object> resultsDataContents = null;
+                    int pageSize = Statement.NO_PAGING;
                     JsonToken tok;
 
                     while ( (tok = input.nextToken()) != null && tok != END_OBJECT )
@@ -129,6 +130,9 @@ public class StatementDeserializer extends PrefetchingIterator<Statement>
                         case "resultDataContents":
                             resultsDataContents = readArray( input );
                             break;
+                        case "pageSize":
+                            pageSize = readPageSize( input );
+                            break;
                         }
                     }
 
@@ -137,8 +141,14 @@ public class StatementDeserializer extends PrefetchingIterator<Statement>
                         addError( new Neo4jError( StatusCode.INVALID_REQUEST_FORMAT, new DeserializationException( "No statement provided." ) ) );
                         return null;
                     }
+                    if ( pageSize < 0 )
+                    {
+                        addError( new Neo4jError( StatusCode.INVALID_REQUEST_FORMAT, new DeserializationException(
+                                "Page size must not be negative, but was " + pageSize + "." ) ) );
+                        return null;
+                    }
                     return new Statement( statement, parameters == null ? NO_PARAMETERS : parameters,
-                                          ResultDataContent.fromNames( resultsDataContents ) );
+                                          ResultDataContent.fromNames( resultsDataContents ), pageSize );
 
 
                 case FINISHED:
@@ -165,6 +175,12 @@ public class StatementDeserializer extends PrefetchingIterator<Statement>
         return input.readValueAs( Map.class );
     }
 
+    private static int readPageSize( JsonParser input ) throws IOException
+    {
+        Integer value = input.readValueAs( Integer.class );
+        return value == null ? Statement.NO_PAGING : value;
+    }
+
     @SuppressWarnings("unchecked")
     private static List<Object> readArray( JsonParser input ) throws IOException
     {
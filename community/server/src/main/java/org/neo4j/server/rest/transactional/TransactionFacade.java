@@ -27,6 +27,8 @@ import org.neo4j.kernel.api.KernelAPI;
 import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.server.rest.transactional.error.TransactionLifecycleException;
 import org.neo4j.server.rest.web.TransactionUriScheme;
+import org.neo4j.tooling.Clock;
+import org.neo4j.tooling.RealClock;
 
 /**
  * Transactional actions contains the business logic for executing statements against Neo4j across long-running
@@ -54,14 +56,24 @@ public class TransactionFacade
     private final ExecutionEngine engine;
     private final TransactionRegistry registry;
     private final StringLogger log;
+    private final Clock clock;
+    private final long resultFlushIntervalMillis;
 
     public TransactionFacade( KernelAPI kernel, ExecutionEngine engine,
                               TransactionRegistry registry, StringLogger log )
+    {
+        this( kernel, engine, registry, log, new RealClock(), ExecutionResultSerializer.DEFAULT_FLUSH_INTERVAL_MILLIS );
+    }
+
+    public TransactionFacade( KernelAPI kernel, ExecutionEngine engine, TransactionRegistry registry,
+                              StringLogger log, Clock clock, long resultFlushIntervalMillis )
     {
         this.kernel = kernel;
         this.engine = engine;
         this.registry = registry;
         this.log = log;
+        this.clock = clock;
+        this.resultFlushIntervalMillis = resultFlushIntervalMillis;
     }
 
     public TransactionHandle newTransactionHandle( TransactionUriScheme uriScheme ) throws TransactionLifecycleException
@@ -81,6 +93,6 @@ public class TransactionFacade
 
     public ExecutionResultSerializer serializer( OutputStream output )
     {
-        return new ExecutionResultSerializer( output, log );
+        return new ExecutionResultSerializer( output, log, clock, resultFlushIntervalMillis );
     }
 }
@@ -21,9 +21,11 @@ package org.neo4j.server.rest.transactional;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.neo4j.cypher.CypherException;
 import org.neo4j.cypher.javacompat.ExecutionEngine;
@@ -32,6 +34,7 @@ import org.neo4j.kernel.api.KernelAPI;
 import org.neo4j.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.server.rest.transactional.error.InternalBeginTransactionError;
+import org.neo4j.server.rest.transactional.error.InvalidCursorId;
 import org.neo4j.server.rest.transactional.error.Neo4jError;
 import org.neo4j.server.rest.transactional.error.StatusCode;
 import org.neo4j.server.rest.web.TransactionUriScheme;
@@ -52,6 +55,11 @@ import org.neo4j.server.rest.web.TransactionUriScheme;
  *
  * All of the public methods on this class are "single-shot"; once you have called one method, the handle returns itself
  * to the registry. If you want to use it again, you'll need to acquire it back from the registry to ensure exclusive use.
+ *
+ * Statements executed without committing may ask for their result to be returned one page at a time. The rest of
+ * such a result is kept in a {@link ResultCursor}, from which later requests {@link #fetch(long, int,
+ * ExecutionResultSerializer) fetch} further pages. Open cursors are closed when the transaction is committed,
+ * rolled back, or times out, so a cursor lives no longer than the lease the registry has on its transaction.
  */
 public class TransactionHandle
 {
@@ -64,6 +72,8 @@ public class TransactionHandle
     private final StringLogger log;
     private final long id;
     private TransitionalTxManagementKernelTransaction context;
+    private final Map<Long, ResultCursor> cursors = new HashMap<>();
+    private long lastCursorId;
 
     public TransactionHandle( KernelAPI kernel, ExecutionEngine engine, TransactionRegistry registry,
                               TransactionUriScheme uriScheme, StringLogger log )
@@ -101,6 +111,26 @@ public class TransactionHandle
         }
     }
 
+    public void fetch( long cursorId, int pageSize, ExecutionResultSerializer output )
+    {
+        List<Neo4jError> errors = new LinkedList<>();
+        try
+        {
+            output.transactionCommitUri( uriScheme.txCommitUri( id ) );
+            ensureActiveTransaction();
+            fetch( cursorId, pageSize, output, errors );
+        }
+        catch ( InternalBeginTransactionError e )
+        {
+            errors.add( e.toNeo4jError() );
+        }
+        finally
+        {
+            output.errors( errors );
+            output.finish();
+        }
+    }
+
     public void commit( StatementDeserializer statements, ExecutionResultSerializer output )
     {
         List<Neo4jError> errors = new LinkedList<>();
@@ -142,6 +172,7 @@ public class TransactionHandle
     public void forceRollback() throws TransactionFailureException
     {
         context.resumeSinceTransactionsAreStillThreadBound();
+        closeCursors();
         context.rollback();
     }
 
@@ -168,13 +199,11 @@ public class TransactionHandle
     private void execute( StatementDeserializer statements, ExecutionResultSerializer output,
                           List<Neo4jError> errors )
     {
-        executeStatements( statements, output, errors );
+        executeStatements( statements, output, errors, true );
 
         if ( errors.isEmpty() )
         {
-            context.suspendSinceTransactionsAreStillThreadBound();
-            long lastActiveTimestamp = registry.release( id, this );
-            output.transactionStatus( lastActiveTimestamp );
+            suspend( output );
         }
         else
         {
@@ -182,12 +211,58 @@ public class TransactionHandle
         }
     }
 
+    private void fetch( long cursorId, int pageSize, ExecutionResultSerializer output, List<Neo4jError> errors )
+    {
+        ResultCursor cursor = cursors.get( cursorId );
+        if ( cursor == null )
+        {
+            // Asking for an unknown cursor leaves the transaction as it was
+            errors.add( new InvalidCursorId().toNeo4jError() );
+            suspend( output );
+            return;
+        }
+
+        try
+        {
+            writePage( cursor, pageSize > 0 ? pageSize : cursor.pageSize(), output );
+        }
+        catch ( CypherException e )
+        {
+            errors.add( new Neo4jError( EXCEPTION_MAPPING.apply( e ), e ) );
+        }
+        catch ( IOException e )
+        {
+            errors.add( new Neo4jError( StatusCode.NETWORK_ERROR, e ) );
+        }
+        catch ( RuntimeException e )
+        {
+            errors.add( new Neo4jError( StatusCode.INTERNAL_STATEMENT_EXECUTION_ERROR, e ) );
+        }
+
+        if ( errors.isEmpty() )
+        {
+            suspend( output );
+        }
+        else
+        {
+            rollback( errors );
+        }
+    }
+
+    private void suspend( ExecutionResultSerializer output )
+    {
+        context.suspendSinceTransactionsAreStillThreadBound();
+        long lastActiveTimestamp = registry.release( id, this );
+        output.transactionStatus( lastActiveTimestamp );
+    }
+
     private void commit( StatementDeserializer statements, ExecutionResultSerializer output,
                          List<Neo4jError> errors )
     {
         try
         {
-            executeStatements( statements, output, errors );
+            executeStatements( statements, output, errors, false );
+            closeCursors();
 
             if ( errors.isEmpty() )
             {
@@ -224,6 +299,7 @@ public class TransactionHandle
     {
         try
         {
+            closeCursors();
             context.rollback();
         }
         catch ( Exception e )
@@ -238,7 +314,7 @@ public class TransactionHandle
     }
 
     private void executeStatements( StatementDeserializer statements, ExecutionResultSerializer output,
-                                    List<Neo4jError> errors )
+                                    List<Neo4jError> errors, boolean allowPaging )
     {
         try
         {
@@ -256,7 +332,15 @@ public class TransactionHandle
                     // cypher.execute( ctx, statement, resultVisitor );
                     // ctx.close()
 
-                    output.statementResult( result, statement.resultDataContents() );
+                    if ( allowPaging && statement.pageSize() != Statement.NO_PAGING )
+                    {
+                        writePage( new ResultCursor( ++lastCursorId, result, statement ), statement.pageSize(),
+                                output );
+                    }
+                    else
+                    {
+                        output.statementResult( result, statement.resultDataContents() );
+                    }
                 }
                 catch ( CypherException e )
                 {
@@ -286,4 +370,45 @@ public class TransactionHandle
             errors.add( new Neo4jError( StatusCode.INTERNAL_DATABASE_ERROR, e ) );
         }
     }
+
+    /**
+     * Writes the next page of the cursor, keeping the cursor around for later requests as long as it has more rows.
+     */
+    private void writePage( ResultCursor cursor, int pageSize, ExecutionResultSerializer output ) throws IOException
+    {
+        boolean hasMoreRows = false;
+        try
+        {
+            output.statementResultPage( cursor, pageSize, uriScheme.txCursorUri( id, cursor.id() ) );
+            hasMoreRows = cursor.hasMoreRows();
+        }
+        finally
+        {
+            if ( hasMoreRows )
+            {
+                cursors.put( cursor.id(), cursor );
+            }
+            else
+            {
+                cursors.remove( cursor.id() );
+                cursor.close();
+            }
+        }
+    }
+
+    private void closeCursors()
+    {
+        for ( ResultCursor cursor : cursors.values() )
+        {
+            try
+            {
+                cursor.close();
+            }
+            catch ( RuntimeException e )
+            {
+                log.error( "Failed to close result cursor.", e );
+            }
+        }
+        cursors.clear();
+    }
 }
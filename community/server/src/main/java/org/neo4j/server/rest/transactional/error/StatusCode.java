@@ -52,6 +52,8 @@ public enum StatusCode
             40010 ),
     INVALID_CONCURRENT_TRANSACTION_ACCESS(
             40011 ),
+    INVALID_CURSOR_ID(
+            40012 ),
 
     STATEMENT_EXECUTION_ERROR(
             42000 ),
@@ -36,11 +36,14 @@ import javax.ws.rs.core.UriInfo;
 
 import org.mortbay.log.Log;
 
+import org.neo4j.server.database.CypherExecutor;
 import org.neo4j.server.rest.batch.BatchOperationResults;
+import org.neo4j.server.rest.batch.NativeBatchOperations;
 import org.neo4j.server.rest.batch.NonStreamingBatchOperations;
 import org.neo4j.server.rest.repr.OutputFormat;
 import org.neo4j.server.rest.repr.RepresentationWriteHandler;
 import org.neo4j.server.rest.repr.StreamingFormat;
+import org.neo4j.server.rest.repr.formats.JsonFormat;
 import org.neo4j.server.web.HttpHeaderUtils;
 import org.neo4j.server.web.WebServer;
 
@@ -49,12 +52,17 @@ public class BatchOperationService
 {
     private final OutputFormat output;
     private final WebServer webServer;
+    private final DatabaseActions actions;
+    private final CypherExecutor cypherExecutor;
     private RepresentationWriteHandler representationWriteHandler = RepresentationWriteHandler.DO_NOTHING;
 
-    public BatchOperationService( @Context WebServer webServer, @Context OutputFormat output )
+    public BatchOperationService( @Context WebServer webServer, @Context OutputFormat output,
+                                  @Context DatabaseActions actions, @Context CypherExecutor cypherExecutor )
     {
         this.output = output;
         this.webServer = webServer;
+        this.actions = actions;
+        this.cypherExecutor = cypherExecutor;
     }
 
     public void setRepresentationWriteHandler( RepresentationWriteHandler representationWriteHandler )
@@ -92,8 +100,8 @@ public class BatchOperationService
                                 output.write( i );
                             }
                         };
-                        new StreamingBatchOperations( webServer ).readAndExecuteOperations( uriInfo, httpHeaders, body,
-                                servletOutputStream );
+                        new StreamingBatchOperations( webServer, nativeOperations() ).readAndExecuteOperations(
+                                uriInfo, httpHeaders, body, servletOutputStream );
                         representationWriteHandler.onRepresentationWritten();
                     }
                     catch ( Exception e )
@@ -119,7 +127,8 @@ public class BatchOperationService
     {
         try
         {
-            NonStreamingBatchOperations batchOperations = new NonStreamingBatchOperations( webServer );
+            NonStreamingBatchOperations batchOperations =
+                    new NonStreamingBatchOperations( webServer, nativeOperations() );
             BatchOperationResults results = batchOperations.performBatchJobs( uriInfo, httpHeaders, body );
 
             Response res = Response.ok().entity(results.toJSON())
@@ -138,6 +147,12 @@ public class BatchOperationService
         }
     }
 
+    // Jobs are answered in JSON, like the internal requests of the servlet path ask for
+    private NativeBatchOperations nativeOperations()
+    {
+        return new NativeBatchOperations( actions, cypherExecutor, output.withFormat( new JsonFormat() ) );
+    }
+
     private boolean isStreaming( HttpHeaders httpHeaders )
     {
         if ( "true".equalsIgnoreCase( httpHeaders.getRequestHeaders().getFirst( StreamingFormat.STREAM_HEADER ) ) )
@@ -33,8 +33,10 @@ import javax.ws.rs.core.UriInfo;
 
 import org.mortbay.log.Log;
 import org.neo4j.server.rest.batch.BatchOperations;
+import org.neo4j.server.rest.batch.NativeBatchOperations;
 import org.neo4j.server.rest.batch.StreamingBatchOperationResults;
 import org.neo4j.server.rest.domain.BatchOperationFailedException;
+import org.neo4j.server.rest.repr.OutputFormat;
 import org.neo4j.server.rest.repr.formats.StreamingJsonFormat;
 import org.neo4j.server.web.WebServer;
 
@@ -42,10 +44,18 @@ public class StreamingBatchOperations extends BatchOperations
 {
 
     private StreamingBatchOperationResults results;
+    private final OutputFormat streamingOutput;
 
     public StreamingBatchOperations( WebServer webServer )
     {
-        super( webServer );
+        this( webServer, null );
+    }
+
+    public StreamingBatchOperations( WebServer webServer, NativeBatchOperations nativeOperations )
+    {
+        super( webServer, nativeOperations );
+        streamingOutput = nativeOperations == null ? null :
+                nativeOperations.getOutputFormat().withFormat( new StreamingJsonFormat() );
     }
 
     public void readAndExecuteOperations( UriInfo uriInfo, HttpHeaders httpHeaders, InputStream body, ServletOutputStream output ) throws IOException, ServletException {
@@ -83,6 +93,33 @@ public class StreamingBatchOperations extends BatchOperations
         }
     }
 
+    @Override
+    protected void invokeNatively( NativeBatchOperations.Operation operation, String path, Object body, Integer id ) throws IOException
+    {
+        results.startOperation( path, id );
+        NativeBatchOperations.Result result;
+        try
+        {
+            result = operation.perform( body );
+            if ( result.getRepresentation() != null )
+            {
+                streamingOutput.writeTo( result.getRepresentation(), results.getServletOutputStream() );
+            }
+        }
+        catch ( BatchOperationFailedException e )
+        {
+            results.writeError( e.getStatus(), e.getMessage() );
+            throw e;
+        }
+        catch ( Exception e )
+        {
+            Log.warn( e );
+            results.writeError( 500, e.getMessage() );
+            throw new BatchOperationFailedException( 500, e.getMessage(), e );
+        }
+        results.addOperationResult( result.getStatus(), id, result.getLocation() );
+    }
+
     protected void addHeaders(final InternalJettyServletRequest res,
             final HttpHeaders httpHeaders)
     {
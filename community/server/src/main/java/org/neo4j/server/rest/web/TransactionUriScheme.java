@@ -26,4 +26,6 @@ public interface TransactionUriScheme
     URI txUri( long id );
 
     URI txCommitUri( long id );
+
+    URI txCursorUri( long id, long cursorId );
 }
@@ -25,10 +25,13 @@ import java.io.OutputStream;
 import java.net.URI;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
@@ -133,6 +136,24 @@ public class TransactionalService
         return okResponse( executeStatementsAndCommit( input, transactionHandle ) );
     }
 
+    @GET
+    @Path("/{id}/cursor/{cursorId}")
+    @Produces({MediaType.APPLICATION_JSON})
+    public Response fetchFromCursor( @PathParam("id") final long id, @PathParam("cursorId") final long cursorId,
+                                     @QueryParam("pageSize") @DefaultValue("0") final int pageSize )
+    {
+        final TransactionHandle transactionHandle;
+        try
+        {
+            transactionHandle = facade.findTransactionHandle( id );
+        }
+        catch ( TransactionLifecycleException e )
+        {
+            return invalidTransaction( e );
+        }
+        return okResponse( fetch( transactionHandle, cursorId, pageSize ) );
+    }
+
     @DELETE
     @Path("/{id}")
     @Consumes({MediaType.APPLICATION_JSON})
@@ -200,6 +221,18 @@ public class TransactionalService
         };
     }
 
+    private StreamingOutput fetch( final TransactionHandle transactionHandle, final long cursorId, final int pageSize )
+    {
+        return new StreamingOutput()
+        {
+            @Override
+            public void write( OutputStream output ) throws IOException, WebApplicationException
+            {
+                transactionHandle.fetch( cursorId, pageSize, facade.serializer( output ) );
+            }
+        };
+    }
+
     private StreamingOutput rollback( final TransactionHandle transactionHandle )
     {
         return new StreamingOutput()
@@ -247,6 +280,12 @@ public class TransactionalService
             return builder( id ).path( "/commit" ).build();
         }
 
+        @Override
+        public URI txCursorUri( long id, long cursorId )
+        {
+            return builder( id ).path( "/cursor/" + cursorId ).build();
+        }
+
         private UriBuilder builder( long id )
         {
             return uriInfo.getBaseUriBuilder().path( TransactionalService.class ).path( "/" + id );
@@ -36,6 +36,8 @@ import org.neo4j.server.logging.Logger;
 import org.neo4j.server.rrd.sampler.NodeIdsInUseSampleable;
 import org.neo4j.server.rrd.sampler.PropertyCountSampleable;
 import org.neo4j.server.rrd.sampler.RelationshipCountSampleable;
+import org.neo4j.server.rrd.sampler.RequestLatencySampleable;
+import org.neo4j.server.statistic.RestEndpoint;
 import org.rrd4j.ConsolFun;
 import org.rrd4j.core.DsDef;
 import org.rrd4j.core.RrdDb;
@@ -50,6 +52,10 @@ import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 import static org.neo4j.server.configuration.Configurator.RRDB_LOCATION_PROPERTY_KEY;
+import static org.neo4j.server.statistic.RestEndpoint.BATCH;
+import static org.neo4j.server.statistic.RestEndpoint.CRUD;
+import static org.neo4j.server.statistic.RestEndpoint.CYPHER;
+import static org.neo4j.server.statistic.RestEndpoint.TRAVERSAL;
 import static org.rrd4j.ConsolFun.AVERAGE;
 import static org.rrd4j.ConsolFun.MAX;
 import static org.rrd4j.ConsolFun.MIN;
@@ -77,14 +83,14 @@ public class RrdFactory
                 new RelationshipCountSampleable( nodeManager )
         };
 
-        Sampleable[] usage = {};
+        Sampleable[] usage = requestLatencies( db );
 
         final String rrdPath = config.getString( RRDB_LOCATION_PROPERTY_KEY,
                 getDefaultRrdFile( db.getGraph() ) );
         final RrdDbWrapper rrdb = createRrdb( rrdPath, isEphemereal( db.getGraph() ), join( primitives, usage ) );
 
         scheduler.scheduleAtFixedRate(
-                new RrdJob( new RrdSamplerImpl( rrdb.get(), primitives ) ),
+                new RrdJob( new RrdSamplerImpl( rrdb.get(), join( primitives, usage ) ) ),
                 RRD_THREAD_NAME + "[primitives]",
                 SECONDS.toMillis( 0 ),
                 SECONDS.toMillis( 3 )
@@ -93,6 +99,19 @@ public class RrdFactory
         return rrdb;
     }
 
+    private Sampleable[] requestLatencies( Database db )
+    {
+        List<Sampleable> result = new ArrayList<Sampleable>();
+        for ( RestEndpoint endpoint : asList( CYPHER, BATCH, TRAVERSAL, CRUD ) )
+        {
+            for ( double percentile : new double[]{50, 99, 99.9} )
+            {
+                result.add( new RequestLatencySampleable( db, endpoint, percentile ) );
+            }
+        }
+        return result.toArray( new Sampleable[result.size()] );
+    }
+
     private Sampleable[] join( Sampleable[]... sampleables )
     {
         ArrayList<Sampleable> result = new ArrayList<Sampleable>();
@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rrd.sampler;
+
+import java.math.BigDecimal;
+
+import org.neo4j.server.database.Database;
+import org.neo4j.server.rrd.Sampleable;
+import org.neo4j.server.statistic.LatencyHistogram;
+import org.neo4j.server.statistic.RestEndpoint;
+import org.rrd4j.DsType;
+
+/**
+ * Samples a percentile of the latencies of requests to one kind of {@link RestEndpoint}, over the requests made since
+ * the previous sample.
+ */
+public class RequestLatencySampleable implements Sampleable
+{
+    private final LatencyHistogram histogram;
+    private final double percentile;
+    private final String name;
+    private LatencyHistogram previous;
+
+    public RequestLatencySampleable( Database db, RestEndpoint endpoint, double percentile )
+    {
+        this.histogram = db.requestLatencies().histogram( endpoint );
+        this.percentile = percentile;
+        this.name = endpoint.name().toLowerCase() + "_p" +
+                BigDecimal.valueOf( percentile ).stripTrailingZeros().toPlainString().replace( ".", "" ) + "_time";
+        this.previous = histogram.copy();
+    }
+
+    @Override
+    public String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public double getValue()
+    {
+        LatencyHistogram current = histogram.copy();
+        double value = current.since( previous ).getPercentile( percentile );
+        previous = current;
+        return value;
+    }
+
+    @Override
+    public DsType getType()
+    {
+        return DsType.GAUGE;
+    }
+}
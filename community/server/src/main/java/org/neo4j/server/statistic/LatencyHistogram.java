@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.statistic;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of request latencies, in the style of an HDR histogram: values are counted in buckets whose width grows
+ * with the magnitude of the value, so that any recorded latency, from a microsecond up to an hour, is known to within
+ * about 1.5% of its value while using a small fixed amount of memory. Recording is lock free,
+ * so it is cheap enough to do for every request.
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_HALF_COUNT_MAGNITUDE = SUB_BUCKET_BITS - 1;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+    private static final long SUB_BUCKET_MASK = (1 << SUB_BUCKET_BITS) - 1;
+    private static final int LEADING_ZERO_COUNT_BASE = 64 - SUB_BUCKET_HALF_COUNT_MAGNITUDE - 1;
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros( 1 );
+    private static final int COUNTS_LENGTH = countsIndex( HIGHEST_TRACKABLE_MICROS ) + 1;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public LatencyHistogram()
+    {
+        this.counts = new AtomicLongArray( COUNTS_LENGTH );
+    }
+
+    private LatencyHistogram( long[] counts, long totalCount, long maxMicros )
+    {
+        this.counts = new AtomicLongArray( counts );
+        this.totalCount.set( totalCount );
+        this.maxMicros.set( maxMicros );
+    }
+
+    /**
+     * Records one request that took the given number of nanoseconds.
+     */
+    public void record( long durationNanos )
+    {
+        long micros = Math.min( Math.max( TimeUnit.NANOSECONDS.toMicros( durationNanos ), 0 ),
+                HIGHEST_TRACKABLE_MICROS );
+        counts.incrementAndGet( countsIndex( micros ) );
+        totalCount.incrementAndGet();
+
+        long max;
+        while ( micros > (max = maxMicros.get()) )
+        {
+            if ( maxMicros.compareAndSet( max, micros ) )
+            {
+                break;
+            }
+        }
+    }
+
+    public long getCount()
+    {
+        return totalCount.get();
+    }
+
+    /**
+     * @param percentile percentile to get, e.g. {@code 99.9}.
+     * @return the latency, in milliseconds, that the given percentile of the recorded requests stayed within, or
+     * {@code 0} if nothing has been recorded.
+     */
+    public double getPercentile( double percentile )
+    {
+        long total = totalCount.get();
+        if ( total == 0 )
+        {
+            return 0;
+        }
+
+        long countAtPercentile = Math.max( 1, (long) Math.ceil( Math.min( percentile, 100.0 ) / 100.0 * total ) );
+        long seen = 0;
+        for ( int i = 0; i < COUNTS_LENGTH; i++ )
+        {
+            seen += counts.get( i );
+            if ( seen >= countAtPercentile )
+            {
+                return toMillis( Math.min( highestEquivalentValue( i ), maxMicros.get() ) );
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * @return the highest recorded latency, in milliseconds.
+     */
+    public double getMax()
+    {
+        return toMillis( maxMicros.get() );
+    }
+
+    public LatencyHistogram copy()
+    {
+        long[] copy = new long[COUNTS_LENGTH];
+        for ( int i = 0; i < COUNTS_LENGTH; i++ )
+        {
+            copy[i] = counts.get( i );
+        }
+        return new LatencyHistogram( copy, totalCount.get(), maxMicros.get() );
+    }
+
+    /**
+     * @return a histogram of the requests recorded in this histogram since the given earlier {@link #copy() copy} of
+     * it was taken. Since the highest latency of just those requests isn't known, the highest value of the highest
+     * non-empty bucket is used in its place.
+     */
+    public LatencyHistogram since( LatencyHistogram earlier )
+    {
+        long[] difference = new long[COUNTS_LENGTH];
+        long total = 0;
+        long max = 0;
+        for ( int i = 0; i < COUNTS_LENGTH; i++ )
+        {
+            difference[i] = counts.get( i ) - earlier.counts.get( i );
+            if ( difference[i] > 0 )
+            {
+                total += difference[i];
+                max = Math.min( highestEquivalentValue( i ), maxMicros.get() );
+            }
+        }
+        return new LatencyHistogram( difference, total, max );
+    }
+
+    private static int countsIndex( long micros )
+    {
+        int bucketIndex = LEADING_ZERO_COUNT_BASE - Long.numberOfLeadingZeros( micros | SUB_BUCKET_MASK );
+        int subBucketIndex = (int) (micros >>> bucketIndex);
+        return ((bucketIndex + 1) << SUB_BUCKET_HALF_COUNT_MAGNITUDE) + (subBucketIndex - SUB_BUCKET_HALF_COUNT);
+    }
+
+    private static long highestEquivalentValue( int countsIndex )
+    {
+        int bucketIndex = (countsIndex >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+        long subBucketIndex = (countsIndex & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+        if ( bucketIndex < 0 )
+        {
+            subBucketIndex -= SUB_BUCKET_HALF_COUNT;
+            bucketIndex = 0;
+        }
+        return ((subBucketIndex + 1) << bucketIndex) - 1;
+    }
+
+    private static double toMillis( long micros )
+    {
+        return micros / 1000.0;
+    }
+}
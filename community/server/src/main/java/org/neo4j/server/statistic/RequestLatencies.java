@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.statistic;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Keeps a {@link LatencyHistogram} of the request latencies of each kind of {@link RestEndpoint}, covering all
+ * requests since the server started.
+ */
+public class RequestLatencies
+{
+    private final Map<RestEndpoint, LatencyHistogram> histograms = new EnumMap<>( RestEndpoint.class );
+
+    public RequestLatencies()
+    {
+        for ( RestEndpoint endpoint : RestEndpoint.values() )
+        {
+            histograms.put( endpoint, new LatencyHistogram() );
+        }
+    }
+
+    /**
+     * add one datapoint for the given endpoint
+     *
+     * @param endpoint the kind of endpoint the request was for
+     * @param durationNanos duration of the request
+     */
+    public void update( RestEndpoint endpoint, long durationNanos )
+    {
+        histograms.get( endpoint ).record( durationNanos );
+    }
+
+    public LatencyHistogram histogram( RestEndpoint endpoint )
+    {
+        return histograms.get( endpoint );
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.statistic;
+
+public class RequestLatency implements RequestLatencyMBean
+{
+    private final LatencyHistogram histogram;
+
+    public RequestLatency( LatencyHistogram histogram )
+    {
+        this.histogram = histogram;
+    }
+
+    @Override
+    public long getRequests()
+    {
+        return histogram.getCount();
+    }
+
+    @Override
+    public double getP50()
+    {
+        return histogram.getPercentile( 50 );
+    }
+
+    @Override
+    public double getP99()
+    {
+        return histogram.getPercentile( 99 );
+    }
+
+    @Override
+    public double getP999()
+    {
+        return histogram.getPercentile( 99.9 );
+    }
+
+    @Override
+    public double getMax()
+    {
+        return histogram.getMax();
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.statistic;
+
+/**
+ * The kinds of REST endpoints that request latencies are tracked separately for, since their costs differ by orders
+ * of magnitude.
+ */
+public enum RestEndpoint
+{
+    CYPHER,
+    BATCH,
+    TRAVERSAL,
+    CRUD,
+    OTHER;
+
+    /**
+     * Classifies a request by the first segment of its path that names a REST API resource, so that segments further
+     * down the path, like property keys or index names, can't be mistaken for resources.
+     *
+     * @param path the path of a request, e.g. {@code /db/data/node/12/relationships}.
+     * @return the kind of endpoint the request is for.
+     */
+    public static RestEndpoint of( String path )
+    {
+        String[] segments = path.split( "/" );
+        for ( int i = 0; i < segments.length; i++ )
+        {
+            switch ( segments[i] )
+            {
+            case "cypher":
+            case "transaction":
+                return CYPHER;
+            case "batch":
+                return BATCH;
+            case "node":
+                return isNodeTraversal( segments, i ) ? TRAVERSAL : CRUD;
+            case "relationship":
+            case "index":
+            case "label":
+            case "labels":
+            case "schema":
+                return CRUD;
+            case "ext":
+                return i + 1 < segments.length && segments[i + 1].equals( "CypherPlugin" ) ? CYPHER : OTHER;
+            }
+        }
+        return OTHER;
+    }
+
+    private static boolean isNodeTraversal( String[] segments, int nodeSegment )
+    {
+        // node/{id}/traverse/{returnType}, node/{id}/paged/traverse/{returnType}, node/{id}/path(s)
+        if ( nodeSegment + 2 >= segments.length )
+        {
+            return false;
+        }
+        switch ( segments[nodeSegment + 2] )
+        {
+        case "traverse":
+        case "paged":
+        case "path":
+        case "paths":
+            return true;
+        default:
+            return false;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.statistic;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.neo4j.server.logging.Logger;
+
+/**
+ * Registers server monitoring beans with the platform MBean server, in the {@value #DOMAIN} domain. Beans that can't
+ * be registered, e.g. because another server in the same JVM already registered beans by the same name, are skipped
+ * with a warning rather than failing the server.
+ */
+public class ServerMBeans
+{
+    public static final String DOMAIN = "org.neo4j.server";
+
+    private static final Logger LOG = Logger.getLogger( ServerMBeans.class );
+
+    private final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    /**
+     * @param keyProperties the key properties of the name of the bean, e.g. {@code type=AdmissionControl}.
+     */
+    public <T> void register( String keyProperties, T bean, Class<T> beanInterface )
+    {
+        try
+        {
+            ObjectName name = new ObjectName( DOMAIN + ":" + keyProperties );
+            mbeanServer.registerMBean( new StandardMBean( bean, beanInterface ), name );
+            registered.add( name );
+        }
+        catch ( JMException e )
+        {
+            LOG.warn( "Unable to register MBean [%s]: %s", keyProperties, e.getMessage() );
+        }
+    }
+
+    public void unregisterAll()
+    {
+        for ( ObjectName name : registered )
+        {
+            try
+            {
+                mbeanServer.unregisterMBean( name );
+            }
+            catch ( JMException e )
+            {
+                LOG.warn( "Unable to unregister MBean [%s]: %s", name, e.getMessage() );
+            }
+        }
+        registered.clear();
+    }
+}
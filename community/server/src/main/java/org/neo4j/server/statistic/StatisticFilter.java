@@ -30,6 +30,7 @@ import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.ServletResponseWrapper;
+import javax.servlet.http.HttpServletRequest;
 
 import org.mortbay.jetty.Response;
 
@@ -41,10 +42,17 @@ public class StatisticFilter implements Filter
 {
 
     private final StatisticCollector collector;
+    private final RequestLatencies latencies;
 
     public StatisticFilter( final StatisticCollector collector )
+    {
+        this( collector, new RequestLatencies() );
+    }
+
+    public StatisticFilter( final StatisticCollector collector, final RequestLatencies latencies )
     {
         this.collector = collector;
+        this.latencies = latencies;
     }
 
     @Override
@@ -62,8 +70,19 @@ public class StatisticFilter implements Filter
             chain.doFilter( request, response );
         } finally
         {
-            collector.update( ( nanoTime() - start ) / 1000000.0, getResponseSize( response ) );
+            final long duration = nanoTime() - start;
+            collector.update( duration / 1000000.0, getResponseSize( response ) );
+            latencies.update( getEndpoint( request ), duration );
+        }
+    }
+
+    private RestEndpoint getEndpoint( final ServletRequest request )
+    {
+        if ( request instanceof HttpServletRequest )
+        {
+            return RestEndpoint.of( ( (HttpServletRequest) request ).getRequestURI() );
         }
+        return RestEndpoint.OTHER;
     }
 
     private long getResponseSize( final ServletResponse response )
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.neo4j.test.server.ExclusiveServerTestBase;
+import org.neo4j.test.server.HTTP;
+
+import static java.util.Arrays.asList;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static org.neo4j.helpers.collection.MapUtil.map;
+import static org.neo4j.server.configuration.Configurator.WEBSERVER_LIMIT_CONCURRENT_REQUESTS_PROPERTY_KEY;
+import static org.neo4j.server.configuration.Configurator.WEBSERVER_LIMIT_QUEUED_REQUESTS_PROPERTY_KEY;
+import static org.neo4j.server.helpers.CommunityServerBuilder.server;
+
+public class AdmissionControlDocIT extends ExclusiveServerTestBase
+{
+    private CommunityNeoServer server;
+
+    @After
+    public void stopTheServer()
+    {
+        server.stop();
+    }
+
+    @Test
+    public void shouldRunBatchJobsWhenTheBatchTakesTheLastPermit() throws Exception
+    {
+        // Given
+        server = server()
+                .withProperty( WEBSERVER_LIMIT_CONCURRENT_REQUESTS_PROPERTY_KEY, "1" )
+                .withProperty( WEBSERVER_LIMIT_QUEUED_REQUESTS_PROPERTY_KEY, "0" )
+                .build();
+        server.start();
+
+        // When
+        HTTP.Response response = HTTP.POST( batchURI(), asList(
+                map( "method", "POST", "to", "/node", "body", map( "name", "first" ), "id", 0 ),
+                map( "method", "GET", "to", "{0}", "id", 1 ) ) );
+
+        // Then
+        assertThat( response.status(), equalTo( 200 ) );
+        List<Map<String, Object>> results = response.content();
+        assertThat( results.size(), equalTo( 2 ) );
+        assertThat( ((Map<?, ?>) results.get( 1 ).get( "body" )).get( "data" ),
+                equalTo( (Object) map( "name", "first" ) ) );
+    }
+
+    @Test
+    public void shouldRunStreamingBatchJobsWhenTheBatchTakesTheLastPermit() throws Exception
+    {
+        // Given
+        server = server()
+                .withProperty( WEBSERVER_LIMIT_CONCURRENT_REQUESTS_PROPERTY_KEY, "1" )
+                .withProperty( WEBSERVER_LIMIT_QUEUED_REQUESTS_PROPERTY_KEY, "0" )
+                .build();
+        server.start();
+
+        // When
+        HTTP.Response response = HTTP.withHeaders( "X-Stream", "true" ).POST( batchURI(), asList(
+                map( "method", "POST", "to", "/node", "body", map( "name", "first" ), "id", 0 ) ) );
+
+        // Then
+        assertThat( response.status(), equalTo( 200 ) );
+        List<Map<String, Object>> results = response.content();
+        assertThat( ((Number) results.get( 0 ).get( "status" )).intValue(), equalTo( 201 ) );
+    }
+
+    private String batchURI()
+    {
+        return server.baseUri().toString() + "db/data/batch";
+    }
+}
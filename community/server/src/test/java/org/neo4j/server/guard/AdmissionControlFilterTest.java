@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.guard;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.neo4j.server.rest.web.InternalJettyServletRequest;
+
+import static javax.servlet.http.HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class AdmissionControlFilterTest
+{
+    private final CountDownLatch firstRequestStarted = new CountDownLatch( 1 );
+    private final CountDownLatch releaseFirstRequest = new CountDownLatch( 1 );
+    private Thread firstRequest;
+
+    @After
+    public void releaseBlockedRequest() throws InterruptedException
+    {
+        releaseFirstRequest.countDown();
+        if ( firstRequest != null )
+        {
+            firstRequest.join();
+        }
+    }
+
+    @Test
+    public void shouldLetRequestsThroughWithinLimit() throws Exception
+    {
+        // given
+        AdmissionControlFilter filter = new AdmissionControlFilter( 1, 0, 0 );
+        FilterChain chain = mock( FilterChain.class );
+        HttpServletResponse response = mock( HttpServletResponse.class );
+
+        // when
+        filter.doFilter( mock( HttpServletRequest.class ), response, chain );
+        filter.doFilter( mock( HttpServletRequest.class ), response, chain );
+
+        // then
+        verify( response, never() ).setStatus( SC_SERVICE_UNAVAILABLE );
+        assertEquals( 0, filter.getActiveRequests() );
+        assertEquals( 0, filter.getRejectedRequests() );
+    }
+
+    @Test
+    public void shouldRejectRequestsRightAwayWhenQueueIsFull() throws Exception
+    {
+        // given
+        AdmissionControlFilter filter = new AdmissionControlFilter( 1, 0, TimeUnit.MINUTES.toMillis( 1 ) );
+        startBlockingRequest( filter );
+
+        FilterChain chain = mock( FilterChain.class );
+        HttpServletResponse response = mock( HttpServletResponse.class );
+
+        // when
+        filter.doFilter( mock( HttpServletRequest.class ), response, chain );
+
+        // then
+        verify( response ).setStatus( SC_SERVICE_UNAVAILABLE );
+        verify( chain, never() ).doFilter( any( ServletRequest.class ), any( ServletResponse.class ) );
+        assertEquals( 1, filter.getActiveRequests() );
+        assertEquals( 1, filter.getRejectedRequests() );
+    }
+
+    @Test
+    public void shouldRejectQueuedRequestsWhenQueueTimeoutPasses() throws Exception
+    {
+        // given
+        AdmissionControlFilter filter = new AdmissionControlFilter( 1, 1, 10 );
+        startBlockingRequest( filter );
+
+        FilterChain chain = mock( FilterChain.class );
+        HttpServletResponse response = mock( HttpServletResponse.class );
+
+        // when
+        filter.doFilter( mock( HttpServletRequest.class ), response, chain );
+
+        // then
+        verify( response ).setStatus( SC_SERVICE_UNAVAILABLE );
+        verify( chain, never() ).doFilter( any( ServletRequest.class ), any( ServletResponse.class ) );
+        assertEquals( 0, filter.getQueuedRequests() );
+    }
+
+    @Test
+    public void shouldAdmitQueuedRequestOnceActiveRequestCompletes() throws Exception
+    {
+        // given
+        AdmissionControlFilter filter = new AdmissionControlFilter( 1, 1, TimeUnit.MINUTES.toMillis( 1 ) );
+        startBlockingRequest( filter );
+
+        FilterChain chain = mock( FilterChain.class );
+        HttpServletResponse response = mock( HttpServletResponse.class );
+
+        // when
+        releaseFirstRequest.countDown();
+        filter.doFilter( mock( HttpServletRequest.class ), response, chain );
+
+        // then
+        verify( chain ).doFilter( any( ServletRequest.class ), any( ServletResponse.class ) );
+        verify( response, never() ).setStatus( SC_SERVICE_UNAVAILABLE );
+        assertEquals( 0, filter.getRejectedRequests() );
+    }
+
+    @Test
+    public void shouldLetInternallyDispatchedRequestsThroughWhenLimitIsReached() throws Exception
+    {
+        // given
+        AdmissionControlFilter filter = new AdmissionControlFilter( 1, 0, TimeUnit.MINUTES.toMillis( 1 ) );
+        startBlockingRequest( filter );
+
+        FilterChain chain = mock( FilterChain.class );
+        HttpServletResponse response = mock( HttpServletResponse.class );
+        InternalJettyServletRequest batchJob = new InternalJettyServletRequest( "GET", "http://localhost/db/data/", "" );
+
+        // when
+        filter.doFilter( batchJob, response, chain );
+
+        // then
+        verify( chain ).doFilter( batchJob, response );
+        verify( response, never() ).setStatus( SC_SERVICE_UNAVAILABLE );
+        assertEquals( 1, filter.getActiveRequests() );
+        assertEquals( 0, filter.getRejectedRequests() );
+    }
+
+    private void startBlockingRequest( final AdmissionControlFilter filter ) throws Exception
+    {
+        final FilterChain blockingChain = mock( FilterChain.class );
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                firstRequestStarted.countDown();
+                releaseFirstRequest.await();
+                return null;
+            }
+        } ).when( blockingChain ).doFilter( any( ServletRequest.class ), any( ServletResponse.class ) );
+
+        firstRequest = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    filter.doFilter( mock( HttpServletRequest.class ), mock( HttpServletResponse.class ),
+                            blockingChain );
+                }
+                catch ( Exception e )
+                {
+                    throw new RuntimeException( e );
+                }
+            }
+        };
+        firstRequest.start();
+        firstRequestStarted.await();
+    }
+}
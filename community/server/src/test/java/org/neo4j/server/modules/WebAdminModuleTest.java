@@ -31,6 +31,7 @@ import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.server.CommunityNeoServer;
 import org.neo4j.server.database.Database;
 import org.neo4j.server.database.RrdDbWrapper;
+import org.neo4j.server.statistic.RequestLatencies;
 import org.neo4j.server.web.WebServer;
 
 import static org.mockito.Matchers.any;
@@ -52,6 +53,7 @@ public class WebAdminModuleTest
 
         Database db = mock( Database.class );
         when( neoServer.getDatabase() ).thenReturn( db );
+        when( db.requestLatencies() ).thenReturn( new RequestLatencies() );
 
         AbstractGraphDatabase graph = mock( AbstractGraphDatabase.class );
         when( db.getGraph() ).thenReturn( graph );
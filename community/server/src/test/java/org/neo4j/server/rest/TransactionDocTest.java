@@ -35,6 +35,7 @@ import org.neo4j.test.server.HTTP;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -97,6 +98,48 @@ public class TransactionDocTest extends AbstractRestFunctionalTestBase
         assertNoErrors( result );
     }
 
+    /**
+     * Fetch results page by page
+     *
+     * Instead of returning the whole result of a statement at once, the server can keep the rest of the result in a
+     * cursor, letting you fetch it one page at a time with later requests. Ask for this by including a
+     * ``pageSize'' with the statement. As long as there are more rows, the result includes the location of its
+     * cursor, from which you get the next page with a GET request. The size of the next page defaults to the page
+     * size of the statement, and can be changed with a ``pageSize'' query parameter.
+     *
+     * Cursors are only kept in open transactions. Fetching a page resets the transaction timeout, and committing or
+     * rolling back the transaction, or letting it time out, closes all of its cursors. Statements executed in a
+     * request that commits the transaction always return their whole result.
+     */
+    @Test
+    @Documented
+    @SuppressWarnings("unchecked")
+    public void fetch_results_page_by_page() throws PropertyValueException
+    {
+        // Given
+        String location = POST( getDataUri() + "transaction", HTTP.RawPayload.quotedJson(
+                "{ 'statements': [ { 'statement': 'CREATE (a:Item), (b:Item), (c:Item)' } ] }" ) ).location();
+        HTTP.Response firstPage = POST( location, HTTP.RawPayload.quotedJson(
+                "{ 'statements': [ { 'statement': 'MATCH (n:Item) RETURN id(n)', 'pageSize': 2 } ] }" ) );
+        Map<String, Object> firstResult =
+                ((List<Map<String, Object>>) firstPage.<Map<String, Object>>content().get( "results" )).get( 0 );
+        assertThat( ((List<?>) firstResult.get( "data" )).size(), equalTo( 2 ) );
+        String cursor = (String) firstResult.get( "cursor" );
+
+        // Document
+        ResponseEntity response = gen.get()
+                .noGraph()
+                .expectedStatus( 200 )
+                .get( cursor );
+
+        // Then
+        Map<String, Object> result = jsonToMap( response.entity() );
+        assertNoErrors( result );
+        Map<String, Object> secondResult = ((List<Map<String, Object>>) result.get( "results" )).get( 0 );
+        assertThat( ((List<?>) secondResult.get( "data" )).size(), equalTo( 1 ) );
+        assertFalse( secondResult.containsKey( "cursor" ) );
+    }
+
     /**
      * Reset transaction timeout of an open transaction
      *
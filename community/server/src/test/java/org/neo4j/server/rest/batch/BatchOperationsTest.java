@@ -39,6 +39,10 @@ public class BatchOperationsTest {
         @Override
         protected void invoke(String method, String path, String body, Integer id, URI targetUri, InternalJettyServletRequest req, InternalJettyServletResponse res) throws IOException, ServletException {
         }
+
+        @Override
+        protected void invokeNatively(NativeBatchOperations.Operation operation, String path, Object body, Integer id) {
+        }
     };
 
     @Test
@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rest.batch;
+
+import java.net.URI;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.helpers.collection.MapUtil;
+import org.neo4j.kernel.AbstractGraphDatabase;
+import org.neo4j.kernel.impl.transaction.xaframework.ForceMode;
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.server.database.CypherExecutor;
+import org.neo4j.server.database.WrappedDatabase;
+import org.neo4j.server.rest.domain.BatchOperationFailedException;
+import org.neo4j.server.rest.paging.LeaseManager;
+import org.neo4j.server.rest.repr.OutputFormat;
+import org.neo4j.server.rest.repr.formats.JsonFormat;
+import org.neo4j.server.rest.web.DatabaseActions;
+import org.neo4j.test.TestGraphDatabaseFactory;
+import org.neo4j.tooling.FakeClock;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class NativeBatchOperationsTest
+{
+    private static final URI BASE_URI = URI.create( "http://neo4j.org/" );
+
+    private AbstractGraphDatabase graph;
+    private CypherExecutor cypherExecutor;
+    private NativeBatchOperations operations;
+
+    @Before
+    public void startDatabase() throws Throwable
+    {
+        graph = (AbstractGraphDatabase) new TestGraphDatabaseFactory().newImpermanentDatabase();
+        cypherExecutor = new CypherExecutor( new WrappedDatabase( graph ), StringLogger.DEV_NULL );
+        cypherExecutor.start();
+        DatabaseActions actions = new DatabaseActions( new LeaseManager( new FakeClock() ), ForceMode.forced, graph );
+        operations = new NativeBatchOperations( actions, cypherExecutor,
+                new OutputFormat( new JsonFormat(), BASE_URI, null ) );
+    }
+
+    @After
+    public void stopDatabase() throws Throwable
+    {
+        cypherExecutor.stop();
+        graph.shutdown();
+    }
+
+    @Test
+    public void shouldPerformCommonJobsNatively() throws Exception
+    {
+        assertNotNull( operationFor( "POST", "node" ) );
+        assertNotNull( operationFor( "PUT", "node/12/properties" ) );
+        assertNotNull( operationFor( "POST", "node/12/relationships" ) );
+        assertNotNull( operationFor( "POST", "index/node/people" ) );
+        assertNotNull( operationFor( "POST", "cypher" ) );
+    }
+
+    @Test
+    public void shouldLeaveOtherJobsToTheServletPath() throws Exception
+    {
+        assertNull( operationFor( "GET", "node/12" ) );
+        assertNull( operationFor( "DELETE", "node/12" ) );
+        assertNull( operationFor( "PUT", "node/12/properties/name" ) );
+        assertNull( operationFor( "POST", "index/node/people?uniqueness=get_or_create" ) );
+        assertNull( operationFor( "POST", "cypher?includeStats=true" ) );
+        assertNull( operations.operationFor( "POST", BASE_URI, URI.create( "http://neo4j.org/other/node" ) ) );
+    }
+
+    @Test
+    public void shouldCreateNodesAndRelationshipsInTheCallersTransaction() throws Exception
+    {
+        Transaction tx = graph.beginTx();
+        try
+        {
+            // WHEN
+            NativeBatchOperations.Result first = operationFor( "POST", "node" ).perform( MapUtil.map( "name", "a" ) );
+            NativeBatchOperations.Result second = operationFor( "POST", "node" ).perform( null );
+            long firstId = idOf( first.getLocation() );
+            NativeBatchOperations.Result relationship = operationFor( "POST", "node/" + firstId + "/relationships" )
+                    .perform( MapUtil.map( "to", second.getLocation(), "type", "KNOWS", "data",
+                            MapUtil.map( "since", 2010 ) ) );
+            NativeBatchOperations.Result properties = operationFor( "PUT", "node/" + firstId + "/properties" )
+                    .perform( MapUtil.map( "name", "b" ) );
+
+            // THEN
+            assertEquals( 201, first.getStatus() );
+            assertEquals( 201, relationship.getStatus() );
+            assertEquals( 204, properties.getStatus() );
+            assertNull( properties.getRepresentation() );
+            Node node = graph.getNodeById( firstId );
+            assertEquals( "b", node.getProperty( "name" ) );
+            Relationship created = graph.getRelationshipById( idOf( relationship.getLocation() ) );
+            assertEquals( idOf( second.getLocation() ), created.getEndNode().getId() );
+            assertEquals( 2010, created.getProperty( "since" ) );
+            tx.success();
+        }
+        finally
+        {
+            tx.finish();
+        }
+    }
+
+    @Test
+    public void shouldRunCypherQueriesWithParameters() throws Exception
+    {
+        Transaction tx = graph.beginTx();
+        try
+        {
+            // WHEN
+            NativeBatchOperations.Result result = operationFor( "POST", "cypher" ).perform( MapUtil.map(
+                    "query", "CREATE (n {name: {name}}) RETURN n.name", "params", MapUtil.map( "name", "cypher" ) ) );
+
+            // THEN
+            assertEquals( 200, result.getStatus() );
+            assertThat( operations.getOutputFormat().assemble( result.getRepresentation() ),
+                    containsString( "\"cypher\"" ) );
+            tx.success();
+        }
+        finally
+        {
+            tx.finish();
+        }
+    }
+
+    @Test
+    public void shouldFailWithTheStatusOfTheRestResource() throws Exception
+    {
+        Transaction tx = graph.beginTx();
+        try
+        {
+            assertFailsWithStatus( 404, operationFor( "POST", "node/1000/relationships" ),
+                    MapUtil.map( "to", BASE_URI + "node/0", "type", "KNOWS" ) );
+            assertFailsWithStatus( 400, operationFor( "POST", "node" ), Arrays.asList( 1, 2 ) );
+            assertFailsWithStatus( 400, operationFor( "POST", "index/node/people" ), MapUtil.map( "key", "name" ) );
+            assertFailsWithStatus( 400, operationFor( "POST", "cypher" ), MapUtil.map( "params", null ) );
+        }
+        finally
+        {
+            tx.finish();
+        }
+    }
+
+    private void assertFailsWithStatus( int status, NativeBatchOperations.Operation operation, Object body )
+    {
+        try
+        {
+            operation.perform( body );
+            fail( "Should have failed" );
+        }
+        catch ( BatchOperationFailedException e )
+        {
+            assertEquals( status, e.getStatus() );
+        }
+    }
+
+    private NativeBatchOperations.Operation operationFor( String method, String path )
+    {
+        return operations.operationFor( method, BASE_URI, BASE_URI.resolve( path ) );
+    }
+
+    private long idOf( String location )
+    {
+        return Long.parseLong( location.substring( location.lastIndexOf( '/' ) + 1 ) );
+    }
+}
@@ -62,6 +62,11 @@ public class CypherResultRepresentationTest
         ProfilerStatistics stats = mock( ProfilerStatistics.class );
         when( stats.getDbHits() ).thenReturn( 13l );
         when( stats.getRows() ).thenReturn( 25l );
+        when( stats.getSelfTime() ).thenReturn( 1000l );
+        when( stats.getTotalTime() ).thenReturn( 3000l );
+        when( stats.getPageCacheHits() ).thenReturn( 7l );
+        when( stats.getPageCacheMisses() ).thenReturn( 2l );
+        when( stats.getPeakBufferedRows() ).thenReturn( 25l );
 
         when( plan.getProfilerStatistics() ).thenReturn( stats );
 
@@ -78,6 +83,11 @@ public class CypherResultRepresentationTest
         assertThat( (String) serializedPlan.get( "name" ), equalTo( name ) );
         assertThat( (Integer) serializedPlan.get( "rows" ), is( 25 ) );
         assertThat( (Integer) serializedPlan.get( "dbHits" ), is( 13 ) );
+        assertThat( (Integer) serializedPlan.get( "selfTime" ), is( 1000 ) );
+        assertThat( (Integer) serializedPlan.get( "totalTime" ), is( 3000 ) );
+        assertThat( (Integer) serializedPlan.get( "pageCacheHits" ), is( 7 ) );
+        assertThat( (Integer) serializedPlan.get( "pageCacheMisses" ), is( 2 ) );
+        assertThat( (Integer) serializedPlan.get( "peakBufferedRows" ), is( 25 ) );
 
         List<Map<String, Object>> children = (List<Map<String, Object>>) serializedPlan.get( "children" );
         assertThat( children.size(), is( 1 ) );
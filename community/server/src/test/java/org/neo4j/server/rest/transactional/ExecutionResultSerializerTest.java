@@ -26,8 +26,10 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 import org.mockito.internal.stubbing.answers.ThrowsException;
@@ -42,13 +44,16 @@ import org.neo4j.kernel.impl.util.TestLogger;
 import org.neo4j.server.rest.transactional.error.Neo4jError;
 import org.neo4j.server.rest.transactional.error.StatusCode;
 import org.neo4j.test.mocking.GraphMock;
+import org.neo4j.tooling.FakeClock;
 
 import static java.util.Arrays.asList;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import static org.neo4j.helpers.collection.MapUtil.map;
@@ -466,6 +471,125 @@ public class ExecutionResultSerializerTest
         log.assertExactly( error( "Failed to generate JSON output.", failure ) );
     }
 
+    @Test
+    public void shouldSerializeResultOnePageAtATime() throws Exception
+    {
+        // given
+        ExecutionResult executionResult = mockExecutionResult(
+                map( "column1", "value1" ),
+                map( "column1", "value2" ),
+                map( "column1", "value3" ) );
+        ResultCursor cursor = new ResultCursor( 1, executionResult, new Statement( "query", map(), null, 2 ) );
+        URI cursorUri = URI.create( "transaction/1/cursor/1" );
+
+        // when
+        ByteArrayOutputStream firstPage = new ByteArrayOutputStream();
+        ExecutionResultSerializer serializer = new ExecutionResultSerializer( firstPage, StringLogger.DEV_NULL );
+        serializer.statementResultPage( cursor, 2, cursorUri );
+        serializer.finish();
+
+        ByteArrayOutputStream secondPage = new ByteArrayOutputStream();
+        serializer = new ExecutionResultSerializer( secondPage, StringLogger.DEV_NULL );
+        serializer.statementResultPage( cursor, 2, cursorUri );
+        serializer.finish();
+
+        // then
+        assertEquals( "{\"results\":[{\"columns\":[\"column1\"],\"data\":[{\"row\":[\"value1\"]}," +
+                "{\"row\":[\"value2\"]}],\"cursor\":\"transaction/1/cursor/1\"}],\"errors\":[]}",
+                firstPage.toString( "UTF-8" ) );
+        assertEquals( "{\"results\":[{\"columns\":[\"column1\"],\"data\":[{\"row\":[\"value3\"]}]}]," +
+                "\"errors\":[]}", secondPage.toString( "UTF-8" ) );
+    }
+
+    @Test
+    public void shouldFlushRowsWhileStreamingResult() throws Exception
+    {
+        // given
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final FakeClock clock = new FakeClock();
+        ExecutionResultSerializer serializer = new ExecutionResultSerializer( output, StringLogger.DEV_NULL, clock, 100 );
+
+        final List<Integer> writtenBeforeRow = new ArrayList<>();
+        final Iterator<Map<String, Object>> inner = asList(
+                map( "column1", "value1" ),
+                map( "column1", "value2" ),
+                map( "column1", "value3" ) ).iterator();
+        ExecutionResult executionResult = mock( ExecutionResult.class );
+        when( executionResult.columns() ).thenReturn( asList( "column1" ) );
+        when( executionResult.iterator() ).thenReturn( new ResourceIterator<Map<String, Object>>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return inner.hasNext();
+            }
+
+            @Override
+            public Map<String, Object> next()
+            {
+                writtenBeforeRow.add( output.size() );
+                clock.forward( 100, TimeUnit.MILLISECONDS );
+                return inner.next();
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        } );
+
+        // when
+        serializer.statementResult( executionResult );
+        serializer.finish();
+
+        // then
+        assertEquals( 0, (int) writtenBeforeRow.get( 0 ) );
+        assertTrue( "first row should have been flushed before the second one was pulled",
+                writtenBeforeRow.get( 1 ) > 0 );
+        assertTrue( "second row should have been flushed before the third one was pulled",
+                writtenBeforeRow.get( 2 ) > writtenBeforeRow.get( 1 ) );
+        assertEquals( "{\"results\":[{\"columns\":[\"column1\"],\"data\":[{\"row\":[\"value1\"]}," +
+                "{\"row\":[\"value2\"]},{\"row\":[\"value3\"]}]}],\"errors\":[]}", output.toString( "UTF-8" ) );
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldCloseResultIteratorWhenClientGoesAway() throws Exception
+    {
+        // given
+        IOException failure = new IOException( "Connection reset by peer" );
+        OutputStream output = mock( OutputStream.class, new ThrowsException( failure ) );
+        ExecutionResultSerializer serializer = new ExecutionResultSerializer( output, StringLogger.DEV_NULL,
+                new FakeClock(), 0 );
+
+        ResourceIterator<Map<String, Object>> rows = mock( ResourceIterator.class );
+        when( rows.hasNext() ).thenReturn( true );
+        when( rows.next() ).thenReturn( map( "column1", "value1" ) );
+        ExecutionResult executionResult = mock( ExecutionResult.class );
+        when( executionResult.columns() ).thenReturn( asList( "column1" ) );
+        when( executionResult.iterator() ).thenReturn( rows );
+
+        // when
+        try
+        {
+            serializer.statementResult( executionResult );
+            fail( "should have thrown exception" );
+        }
+        catch ( IOException e )
+        {
+            assertSame( failure, e );
+        }
+
+        // then
+        verify( rows ).close();
+    }
+
     @SafeVarargs
     private static ExecutionResult mockExecutionResult( Map<String, Object>... rows )
     {
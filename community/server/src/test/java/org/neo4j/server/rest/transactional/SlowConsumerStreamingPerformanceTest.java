@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rest.transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import org.neo4j.cypher.javacompat.ExecutionResult;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.kernel.impl.util.StringLogger;
+
+import static java.util.Arrays.asList;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import static org.neo4j.helpers.collection.MapUtil.map;
+
+/**
+ * Streams large, lazily produced results to a number of deliberately slow consumers and samples the used heap
+ * while doing so. Since rows are pulled from the result only as fast as the consumers accept them, the heap
+ * usage should stay flat regardless of the result size.
+ */
+@Ignore( "Not a proper test really, merely a heap usage measurement" )
+public class SlowConsumerStreamingPerformanceTest
+{
+    private static final int CONSUMERS = 16;
+    private static final int ROWS_PER_RESULT = 200_000;
+    private static final int BYTES_PER_SECOND_PER_CONSUMER = 2 * 1024 * 1024;
+
+    @Test
+    public void shouldKeepHeapUsageStableWithSlowConsumers() throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( CONSUMERS );
+        try
+        {
+            List<Future<?>> consumers = new ArrayList<>();
+            for ( int i = 0; i < CONSUMERS; i++ )
+            {
+                consumers.add( executor.submit( new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        ExecutionResultSerializer serializer = new ExecutionResultSerializer(
+                                new ThrottledOutputStream( BYTES_PER_SECOND_PER_CONSUMER ), StringLogger.DEV_NULL );
+                        try
+                        {
+                            serializer.statementResult( lazyResult( ROWS_PER_RESULT ) );
+                        }
+                        catch ( IOException e )
+                        {
+                            throw new RuntimeException( e );
+                        }
+                        serializer.finish();
+                    }
+                } ) );
+            }
+
+            Runtime runtime = Runtime.getRuntime();
+            long maxUsed = 0;
+            while ( !allDone( consumers ) )
+            {
+                long used = runtime.totalMemory() - runtime.freeMemory();
+                maxUsed = Math.max( maxUsed, used );
+                System.out.println( "used heap: " + (used / 1024 / 1024) + " MB" );
+                Thread.sleep( 1000 );
+            }
+            for ( Future<?> consumer : consumers )
+            {
+                consumer.get();
+            }
+            System.out.println( "max used heap: " + (maxUsed / 1024 / 1024) + " MB" );
+        }
+        finally
+        {
+            executor.shutdownNow();
+            executor.awaitTermination( 10, TimeUnit.SECONDS );
+        }
+    }
+
+    private static boolean allDone( List<Future<?>> futures )
+    {
+        for ( Future<?> future : futures )
+        {
+            if ( !future.isDone() )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ExecutionResult lazyResult( final int rowCount )
+    {
+        ExecutionResult result = mock( ExecutionResult.class );
+        when( result.columns() ).thenReturn( asList( "id", "payload" ) );
+        when( result.iterator() ).thenReturn( new ResourceIterator<Map<String, Object>>()
+        {
+            private int produced;
+
+            @Override
+            public boolean hasNext()
+            {
+                return produced < rowCount;
+            }
+
+            @Override
+            public Map<String, Object> next()
+            {
+                return map( "id", produced++, "payload", "some reasonably sized payload for row " + produced );
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        } );
+        return result;
+    }
+
+    private static class ThrottledOutputStream extends OutputStream
+    {
+        private final int bytesPerSecond;
+        private long written;
+        private final long started = System.currentTimeMillis();
+
+        ThrottledOutputStream( int bytesPerSecond )
+        {
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        @Override
+        public void write( int b ) throws IOException
+        {
+            written++;
+            throttle();
+        }
+
+        @Override
+        public void write( byte[] b, int off, int len ) throws IOException
+        {
+            written += len;
+            throttle();
+        }
+
+        private void throttle() throws IOException
+        {
+            long due = started + (written * 1000 / bytesPerSecond);
+            long wait = due - System.currentTimeMillis();
+            if ( wait > 0 )
+            {
+                try
+                {
+                    Thread.sleep( wait );
+                }
+                catch ( InterruptedException e )
+                {
+                    throw new IOException( e );
+                }
+            }
+        }
+    }
+}
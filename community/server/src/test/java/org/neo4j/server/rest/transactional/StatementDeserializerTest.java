@@ -60,6 +60,48 @@ public class StatementDeserializerTest
         assertThat( de.hasNext(), equalTo( false ) );
     }
 
+    @Test
+    public void shouldDeserializePageSize() throws Exception
+    {
+        // Given
+        String json = "{ \"statements\" : [ { \"statement\" : \"Blah blah\", \"pageSize\" : 50 } ] }";
+
+        // When
+        StatementDeserializer de = new StatementDeserializer( new ByteArrayInputStream( json.getBytes( "UTF-8" ) ) );
+
+        // Then
+        assertThat( de.hasNext(), equalTo( true ) );
+        Statement stmt = de.next();
+
+        assertThat( stmt.statement(), equalTo( "Blah blah" ) );
+        assertThat( stmt.pageSize(), equalTo( 50 ) );
+
+        assertThat( de.hasNext(), equalTo( false ) );
+    }
+
+    @Test
+    public void shouldNotPageResultsUnlessAskedTo() throws Exception
+    {
+        // Given
+        String json = "{ \"statements\" : [ { \"statement\" : \"Blah blah\" } ] }";
+
+        // When
+        StatementDeserializer de = new StatementDeserializer( new ByteArrayInputStream( json.getBytes( "UTF-8" ) ) );
+
+        // Then
+        assertThat( de.next().pageSize(), equalTo( Statement.NO_PAGING ) );
+    }
+
+    @Test
+    public void shouldRejectNegativePageSize() throws Exception
+    {
+        String json = "{ \"statements\" : [ { \"statement\" : \"Blah blah\", \"pageSize\" : -1 } ] }";
+
+        assertYieldsErrors( json,
+                new Neo4jError( StatusCode.INVALID_REQUEST_FORMAT,
+                        new DeserializationException( "Page size must not be negative, but was -1." ) ) );
+    }
+
     @Test
     public void shouldRejectMapWithADifferentFieldBeforeStatement() throws Exception
     {
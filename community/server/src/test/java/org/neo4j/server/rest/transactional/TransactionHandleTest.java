@@ -21,6 +21,7 @@ package org.neo4j.server.rest.transactional;
 
 import java.net.URI;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.hamcrest.Description;
@@ -32,6 +33,7 @@ import org.mockito.InOrder;
 import org.neo4j.cypher.SyntaxException;
 import org.neo4j.cypher.javacompat.ExecutionEngine;
 import org.neo4j.cypher.javacompat.ExecutionResult;
+import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.kernel.api.KernelAPI;
 import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.server.rest.transactional.error.Neo4jError;
@@ -41,13 +43,16 @@ import org.neo4j.server.rest.web.TransactionUriScheme;
 import static java.util.Arrays.asList;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -386,6 +391,163 @@ public class TransactionHandleTest
         verifyNoMoreInteractions( output );
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldKeepCursorOpenAndFetchFromItOnLaterRequest() throws Exception
+    {
+        // given
+        KernelAPI kernel = mockKernel();
+        TransitionalTxManagementKernelTransaction transactionContext =
+                (TransitionalTxManagementKernelTransaction) kernel.newTransaction();
+
+        TransactionRegistry registry = mock( TransactionRegistry.class );
+        when( registry.begin() ).thenReturn( 1337l );
+
+        ResourceIterator<Map<String, Object>> rows = mock( ResourceIterator.class );
+        when( rows.hasNext() ).thenReturn( true );
+        ExecutionEngine engine = mockEngineReturning( rows );
+
+        TransactionHandle handle = new TransactionHandle( kernel, engine, registry, uriScheme, StringLogger.DEV_NULL );
+        ExecutionResultSerializer output = mock( ExecutionResultSerializer.class );
+        handle.execute( statements( new Statement( "query", map(), null, 10 ) ), output );
+
+        verify( output ).statementResultPage( any( ResultCursor.class ), eq( 10 ),
+                eq( uriScheme.txCursorUri( 1337, 1 ) ) );
+        reset( transactionContext, registry, output );
+
+        // when
+        handle.fetch( 1, 5, output );
+
+        // then
+        verify( rows, never() ).close();
+
+        InOrder transactionOrder = inOrder( transactionContext, registry );
+        transactionOrder.verify( transactionContext ).resumeSinceTransactionsAreStillThreadBound();
+        transactionOrder.verify( transactionContext ).suspendSinceTransactionsAreStillThreadBound();
+        transactionOrder.verify( registry ).release( 1337l, handle );
+
+        InOrder outputOrder = inOrder( output );
+        outputOrder.verify( output ).transactionCommitUri( uriScheme.txCommitUri( 1337 ) );
+        outputOrder.verify( output ).statementResultPage( any( ResultCursor.class ), eq( 5 ),
+                eq( uriScheme.txCursorUri( 1337, 1 ) ) );
+        outputOrder.verify( output ).transactionStatus( anyLong() );
+        outputOrder.verify( output ).errors( argThat( hasNoErrors() ) );
+        outputOrder.verify( output ).finish();
+        verifyNoMoreInteractions( output );
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldCloseCursorOnceAllRowsHaveBeenFetched() throws Exception
+    {
+        // given
+        KernelAPI kernel = mockKernel();
+        TransitionalTxManagementKernelTransaction transactionContext =
+                (TransitionalTxManagementKernelTransaction) kernel.newTransaction();
+
+        TransactionRegistry registry = mock( TransactionRegistry.class );
+        when( registry.begin() ).thenReturn( 1337l );
+
+        ResourceIterator<Map<String, Object>> rows = mock( ResourceIterator.class );
+        when( rows.hasNext() ).thenReturn( false );
+        ExecutionEngine engine = mockEngineReturning( rows );
+
+        TransactionHandle handle = new TransactionHandle( kernel, engine, registry, uriScheme, StringLogger.DEV_NULL );
+        ExecutionResultSerializer output = mock( ExecutionResultSerializer.class );
+
+        // when
+        handle.execute( statements( new Statement( "query", map(), null, 10 ) ), output );
+        handle.fetch( 1, 10, output );
+
+        // then
+        verify( rows ).close();
+        verify( output ).errors( argThat( hasErrors( StatusCode.INVALID_CURSOR_ID ) ) );
+        verify( transactionContext, never() ).rollback();
+        verify( registry, times( 2 ) ).release( 1337l, handle );
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldCloseOpenCursorsBeforeCommitting() throws Exception
+    {
+        // given
+        KernelAPI kernel = mockKernel();
+        TransitionalTxManagementKernelTransaction transactionContext =
+                (TransitionalTxManagementKernelTransaction) kernel.newTransaction();
+
+        TransactionRegistry registry = mock( TransactionRegistry.class );
+        when( registry.begin() ).thenReturn( 1337l );
+
+        ResourceIterator<Map<String, Object>> rows = mock( ResourceIterator.class );
+        when( rows.hasNext() ).thenReturn( true );
+        ExecutionEngine engine = mockEngineReturning( rows );
+
+        TransactionHandle handle = new TransactionHandle( kernel, engine, registry, uriScheme, StringLogger.DEV_NULL );
+        ExecutionResultSerializer output = mock( ExecutionResultSerializer.class );
+        handle.execute( statements( new Statement( "query", map(), null, 10 ) ), output );
+
+        // when
+        handle.commit( statements(), output );
+
+        // then
+        InOrder order = inOrder( rows, transactionContext, registry );
+        order.verify( rows ).close();
+        order.verify( transactionContext ).commit();
+        order.verify( registry ).forget( 1337l );
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldCloseOpenCursorsWhenTransactionTimesOut() throws Exception
+    {
+        // given
+        KernelAPI kernel = mockKernel();
+        TransitionalTxManagementKernelTransaction transactionContext =
+                (TransitionalTxManagementKernelTransaction) kernel.newTransaction();
+
+        TransactionRegistry registry = mock( TransactionRegistry.class );
+        when( registry.begin() ).thenReturn( 1337l );
+
+        ResourceIterator<Map<String, Object>> rows = mock( ResourceIterator.class );
+        when( rows.hasNext() ).thenReturn( true );
+        ExecutionEngine engine = mockEngineReturning( rows );
+
+        TransactionHandle handle = new TransactionHandle( kernel, engine, registry, uriScheme, StringLogger.DEV_NULL );
+        handle.execute( statements( new Statement( "query", map(), null, 10 ) ),
+                mock( ExecutionResultSerializer.class ) );
+
+        // when
+        handle.forceRollback();
+
+        // then
+        InOrder order = inOrder( rows, transactionContext );
+        order.verify( rows ).close();
+        order.verify( transactionContext ).rollback();
+    }
+
+    @Test
+    public void shouldStreamWholeResultWhenCommittingEvenIfPagingWasAskedFor() throws Exception
+    {
+        // given
+        KernelAPI kernel = mockKernel();
+
+        TransactionRegistry registry = mock( TransactionRegistry.class );
+        when( registry.begin() ).thenReturn( 1337l );
+
+        ExecutionEngine engine = mock( ExecutionEngine.class );
+        ExecutionResult result = mock( ExecutionResult.class );
+        when( engine.execute( "query", map() ) ).thenReturn( result );
+        TransactionHandle handle = new TransactionHandle( kernel, engine, registry, uriScheme, StringLogger.DEV_NULL );
+        ExecutionResultSerializer output = mock( ExecutionResultSerializer.class );
+
+        // when
+        handle.commit( statements( new Statement( "query", map(), null, 10 ) ), output );
+
+        // then
+        verify( output ).statementResult( result, (ResultDataContent[])null );
+        verify( output, never() ).statementResultPage( any( ResultCursor.class ), anyInt(), any( URI.class ) );
+    }
+
     private static final TransactionUriScheme uriScheme = new TransactionUriScheme()
     {
         @Override
@@ -399,8 +561,24 @@ public class TransactionHandleTest
         {
             return URI.create( "transaction/" + id + "/commit" );
         }
+
+        @Override
+        public URI txCursorUri( long id, long cursorId )
+        {
+            return URI.create( "transaction/" + id + "/cursor/" + cursorId );
+        }
     };
 
+    private static ExecutionEngine mockEngineReturning( ResourceIterator<Map<String, Object>> rows )
+    {
+        ExecutionEngine engine = mock( ExecutionEngine.class );
+        ExecutionResult result = mock( ExecutionResult.class );
+        when( result.columns() ).thenReturn( asList( "column1" ) );
+        when( result.iterator() ).thenReturn( rows );
+        when( engine.execute( "query", map() ) ).thenReturn( result );
+        return engine;
+    }
+
     private KernelAPI mockKernel()
     {
         TransitionalTxManagementKernelTransaction context = mock( TransitionalTxManagementKernelTransaction.class );
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rrd;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.neo4j.server.database.Database;
+import org.neo4j.server.rrd.sampler.RequestLatencySampleable;
+import org.neo4j.server.statistic.RequestLatencies;
+import org.neo4j.server.statistic.RestEndpoint;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RequestLatencySampleableTest
+{
+    @Test
+    public void shouldBeNamedAfterEndpointAndPercentile()
+    {
+        Database db = databaseWith( new RequestLatencies() );
+
+        assertThat( new RequestLatencySampleable( db, RestEndpoint.CYPHER, 50 ).getName(), is( "cypher_p50_time" ) );
+        assertThat( new RequestLatencySampleable( db, RestEndpoint.TRAVERSAL, 99.9 ).getName(),
+                is( "traversal_p999_time" ) );
+    }
+
+    @Test
+    public void shouldSampleLatenciesOfRequestsSincePreviousSample()
+    {
+        // given
+        RequestLatencies latencies = new RequestLatencies();
+        RequestLatencySampleable sampleable =
+                new RequestLatencySampleable( databaseWith( latencies ), RestEndpoint.BATCH, 99 );
+
+        // when
+        latencies.update( RestEndpoint.BATCH, TimeUnit.MILLISECONDS.toNanos( 200 ) );
+        latencies.update( RestEndpoint.CYPHER, TimeUnit.MILLISECONDS.toNanos( 900 ) );
+        double first = sampleable.getValue();
+        latencies.update( RestEndpoint.BATCH, TimeUnit.MILLISECONDS.toNanos( 10 ) );
+        double second = sampleable.getValue();
+        double third = sampleable.getValue();
+
+        // then
+        assertThat( first, closeTo( 200, 200 * 0.016 ) );
+        assertThat( second, closeTo( 10, 10 * 0.016 ) );
+        assertThat( third, is( 0.0 ) );
+    }
+
+    private static Database databaseWith( RequestLatencies latencies )
+    {
+        Database db = mock( Database.class );
+        when( db.requestLatencies() ).thenReturn( latencies );
+        return db;
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.statistic;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest
+{
+    @Test
+    public void shouldReportPercentilesWithinPrecision()
+    {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // when
+        for ( int millis = 1; millis <= 1000; millis++ )
+        {
+            histogram.record( TimeUnit.MILLISECONDS.toNanos( millis ) );
+        }
+
+        // then
+        assertEquals( 1000, histogram.getCount() );
+        assertThat( histogram.getPercentile( 50 ), closeTo( 500, 500 * 0.016 ) );
+        assertThat( histogram.getPercentile( 99 ), closeTo( 990, 990 * 0.016 ) );
+        assertThat( histogram.getPercentile( 99.9 ), closeTo( 999, 999 * 0.016 ) );
+        assertThat( histogram.getMax(), is( 1000.0 ) );
+    }
+
+    @Test
+    public void shouldReportZeroWhenNothingRecorded()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat( histogram.getPercentile( 99 ), is( 0.0 ) );
+        assertThat( histogram.getMax(), is( 0.0 ) );
+    }
+
+    @Test
+    public void shouldKeepSmallLatenciesExact()
+    {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // when
+        histogram.record( TimeUnit.MICROSECONDS.toNanos( 17 ) );
+
+        // then
+        assertThat( histogram.getPercentile( 50 ), is( 0.017 ) );
+    }
+
+    @Test
+    public void shouldCapLatenciesBeyondTheTrackableRange()
+    {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // when
+        histogram.record( Long.MAX_VALUE );
+
+        // then
+        assertThat( histogram.getMax(), is( (double) TimeUnit.HOURS.toMillis( 1 ) ) );
+        assertThat( histogram.getPercentile( 100 ), is( (double) TimeUnit.HOURS.toMillis( 1 ) ) );
+    }
+
+    @Test
+    public void shouldCountOnlyLatenciesRecordedSinceEarlierCopy()
+    {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record( TimeUnit.SECONDS.toNanos( 10 ) );
+        LatencyHistogram earlier = histogram.copy();
+
+        // when
+        histogram.record( TimeUnit.MILLISECONDS.toNanos( 5 ) );
+        histogram.record( TimeUnit.MILLISECONDS.toNanos( 5 ) );
+        LatencyHistogram interval = histogram.since( earlier );
+
+        // then
+        assertEquals( 2, interval.getCount() );
+        assertThat( interval.getPercentile( 99.9 ), closeTo( 5, 5 * 0.016 ) );
+        assertThat( interval.getMax(), closeTo( 5, 5 * 0.016 ) );
+        assertEquals( 3, histogram.getCount() );
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.statistic;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+import static org.neo4j.server.statistic.RestEndpoint.BATCH;
+import static org.neo4j.server.statistic.RestEndpoint.CRUD;
+import static org.neo4j.server.statistic.RestEndpoint.CYPHER;
+import static org.neo4j.server.statistic.RestEndpoint.OTHER;
+import static org.neo4j.server.statistic.RestEndpoint.TRAVERSAL;
+
+public class RestEndpointTest
+{
+    @Test
+    public void shouldClassifyRequestsByTheResourceTheyAreFor()
+    {
+        assertEquals( CYPHER, RestEndpoint.of( "/db/data/cypher" ) );
+        assertEquals( CYPHER, RestEndpoint.of( "/db/data/transaction/12/commit" ) );
+        assertEquals( CYPHER, RestEndpoint.of( "/db/data/ext/CypherPlugin/graphdb/execute_query" ) );
+        assertEquals( BATCH, RestEndpoint.of( "/db/data/batch" ) );
+        assertEquals( TRAVERSAL, RestEndpoint.of( "/db/data/node/12/traverse/node" ) );
+        assertEquals( TRAVERSAL, RestEndpoint.of( "/db/data/node/12/paged/traverse/node/abc" ) );
+        assertEquals( TRAVERSAL, RestEndpoint.of( "/db/data/node/12/paths" ) );
+        assertEquals( CRUD, RestEndpoint.of( "/db/data/node/12/relationships" ) );
+        assertEquals( CRUD, RestEndpoint.of( "/db/data/relationship/3/properties" ) );
+        assertEquals( CRUD, RestEndpoint.of( "/db/data/index/node/people" ) );
+        assertEquals( OTHER, RestEndpoint.of( "/db/data/" ) );
+        assertEquals( OTHER, RestEndpoint.of( "/db/manage/server/jmx" ) );
+    }
+
+    @Test
+    public void shouldNotMistakeTrailingSegmentsForResources()
+    {
+        assertEquals( CRUD, RestEndpoint.of( "/db/data/node/12/properties/cypher" ) );
+        assertEquals( CRUD, RestEndpoint.of( "/db/data/index/node/batch/name/value" ) );
+    }
+}
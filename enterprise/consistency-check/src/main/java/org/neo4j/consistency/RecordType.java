@@ -31,6 +31,7 @@ public enum RecordType
     ARRAY_PROPERTY,
 
     RELATIONSHIP,
+    RELATIONSHIP_GROUP,
     RELATIONSHIP_TYPE,
     RELATIONSHIP_TYPE_NAME,
 
@@ -19,11 +19,15 @@
  */
 package org.neo4j.consistency.checking;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.neo4j.consistency.report.ConsistencyReport;
 import org.neo4j.consistency.store.DiffRecordAccess;
 import org.neo4j.consistency.store.RecordAccess;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 
 enum NodeField implements
@@ -68,6 +72,12 @@ enum NodeField implements
             report.sourceNodeDoesNotReferenceBack( node );
         }
 
+        @Override
+        void noGroupBackReference( ConsistencyReport.RelationshipConsistencyReport report, NodeRecord node )
+        {
+            report.sourceNodeGroupDoesNotReferenceBack( node );
+        }
+
         @Override
         void noChain( ConsistencyReport.RelationshipConsistencyReport report, NodeRecord node )
         {
@@ -124,6 +134,12 @@ enum NodeField implements
             report.targetNodeDoesNotReferenceBack( node );
         }
 
+        @Override
+        void noGroupBackReference( ConsistencyReport.RelationshipConsistencyReport report, NodeRecord node )
+        {
+            report.targetNodeGroupDoesNotReferenceBack( node );
+        }
+
         @Override
         void noChain( ConsistencyReport.RelationshipConsistencyReport report, NodeRecord node )
         {
@@ -198,7 +214,19 @@ enum NodeField implements
         {
             if ( Record.NO_PREV_RELATIONSHIP.is( prev( relationship ) ) )
             {
-                if ( node.getNextRel() != relationship.getId() )
+                if ( node.isDense() )
+                {
+                    if ( Record.NO_NEXT_RELATIONSHIP.is( node.getNextRel() ) )
+                    {
+                        noGroupBackReference( report, node );
+                    }
+                    else
+                    {
+                        report.forReference( records.relationshipGroup( node.getNextRel() ),
+                                             new GroupChainCheck( this, node ) );
+                    }
+                }
+                else if ( node.getNextRel() != relationship.getId() )
                 {
                     noBackReference( report, node );
                 }
@@ -225,9 +253,85 @@ enum NodeField implements
             {
                 if ( records.changedNode( valueFrom( oldRecord ) ) == null )
                 {
-                    notUpdated(report);
+                    // a dense node refers to its first relationships through its groups, not directly
+                    report.forReference( records.previousNode( valueFrom( oldRecord ) ), new NodeNotUpdated( this ) );
+                }
+            }
+        }
+    }
+
+    /**
+     * Looks for the group of the relationship's type in the chain of groups of a dense node, and checks that the
+     * relationship is first in the chain that group has for its direction.
+     */
+    private static class GroupChainCheck implements
+            ComparativeRecordChecker<RelationshipRecord, RelationshipGroupRecord, ConsistencyReport.RelationshipConsistencyReport>
+    {
+        private final NodeField field;
+        private final NodeRecord node;
+        private final Set<Long> visitedGroups = new HashSet<>();
+
+        GroupChainCheck( NodeField field, NodeRecord node )
+        {
+            this.field = field;
+            this.node = node;
+        }
+
+        @Override
+        public void checkReference( RelationshipRecord relationship, RelationshipGroupRecord group,
+                                    ConsistencyReport.RelationshipConsistencyReport report, RecordAccess records )
+        {
+            visitedGroups.add( group.getId() );
+            if ( !group.inUse() || group.getOwningNode() != node.getId() || group.getType() > relationship.getType() )
+            {
+                // groups are sorted by type, so there's no group for this type further down the chain
+                field.noGroupBackReference( report, node );
+            }
+            else if ( group.getType() == relationship.getType() )
+            {
+                if ( firstInChain( group, relationship ) != relationship.getId() )
+                {
+                    field.noGroupBackReference( report, node );
                 }
             }
+            else if ( Record.NO_NEXT_RELATIONSHIP.is( group.getNext() ) || visitedGroups.contains( group.getNext() ) )
+            {
+                field.noGroupBackReference( report, node );
+            }
+            else
+            {
+                report.forReference( records.relationshipGroup( group.getNext() ), this );
+            }
+        }
+
+        private long firstInChain( RelationshipGroupRecord group, RelationshipRecord relationship )
+        {
+            if ( relationship.getFirstNode() == relationship.getSecondNode() )
+            {
+                return group.getFirstLoop();
+            }
+            return field == SOURCE ? group.getFirstOut() : group.getFirstIn();
+        }
+    }
+
+    private static class NodeNotUpdated implements
+            ComparativeRecordChecker<RelationshipRecord, NodeRecord, ConsistencyReport.RelationshipConsistencyReport>
+    {
+        private final NodeField field;
+
+        NodeNotUpdated( NodeField field )
+        {
+            this.field = field;
+        }
+
+        @Override
+        public void checkReference( RelationshipRecord relationship, NodeRecord node,
+                                    ConsistencyReport.RelationshipConsistencyReport report, RecordAccess records )
+        {
+            if ( !node.isDense() )
+            {
+                field.notUpdated( report );
+            }
         }
     }
 
@@ -239,6 +343,8 @@ enum NodeField implements
 
     abstract void noBackReference( ConsistencyReport.RelationshipConsistencyReport report, NodeRecord node );
 
+    abstract void noGroupBackReference( ConsistencyReport.RelationshipConsistencyReport report, NodeRecord node );
+
     abstract void noChain( ConsistencyReport.RelationshipConsistencyReport report, NodeRecord node );
 
     abstract void notFirstInChain( ConsistencyReport.NodeConsistencyReport report, RelationshipRecord relationship );
@@ -32,6 +32,7 @@ import org.neo4j.kernel.impl.nioneo.store.LabelTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyType;
 import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.labels.DynamicNodeLabels;
 import org.neo4j.kernel.impl.nioneo.store.labels.NodeLabels;
@@ -61,7 +62,15 @@ class NodeRecordCheck extends PrimitiveRecordCheck<NodeRecord, ConsistencyReport
             {
                 if ( !Record.NO_NEXT_RELATIONSHIP.is( node.getNextRel() ) )
                 {
-                    report.forReference( records.relationship( node.getNextRel() ), this );
+                    if ( node.isDense() )
+                    {
+                        report.forReference( records.relationshipGroup( node.getNextRel() ),
+                                             RelationshipGroupField.FIRST_GROUP );
+                    }
+                    else
+                    {
+                        report.forReference( records.relationship( node.getNextRel() ), this );
+                    }
                 }
             }
 
@@ -107,7 +116,9 @@ class NodeRecordCheck extends PrimitiveRecordCheck<NodeRecord, ConsistencyReport
                                      ConsistencyReport.NodeConsistencyReport report,
                                      DiffRecordAccess records )
             {
-                if ( !newRecord.inUse() || valueFrom( oldRecord ) != valueFrom( newRecord ) )
+                // relationship groups have no prev reference, so a new first group leaves the old one untouched
+                if ( !oldRecord.isDense()
+                     && (!newRecord.inUse() || valueFrom( oldRecord ) != valueFrom( newRecord )) )
                 {
                     if ( !Record.NO_NEXT_RELATIONSHIP.is( valueFrom( oldRecord ) )
                          && records.changedRelationship( valueFrom( oldRecord ) ) == null )
@@ -125,6 +136,26 @@ class NodeRecordCheck extends PrimitiveRecordCheck<NodeRecord, ConsistencyReport
         }
     }
 
+    private enum RelationshipGroupField implements
+            ComparativeRecordChecker<NodeRecord, RelationshipGroupRecord, ConsistencyReport.NodeConsistencyReport>
+    {
+        FIRST_GROUP;
+
+        @Override
+        public void checkReference( NodeRecord node, RelationshipGroupRecord group,
+                                    ConsistencyReport.NodeConsistencyReport report, RecordAccess records )
+        {
+            if ( !group.inUse() )
+            {
+                report.relationshipGroupNotInUse( group );
+            }
+            else if ( group.getOwningNode() != node.getId() )
+            {
+                report.relationshipGroupHasOtherOwner( group );
+            }
+        }
+    }
+
     private enum LabelsField implements RecordField<NodeRecord, ConsistencyReport.NodeConsistencyReport>,
             ComparativeRecordChecker<NodeRecord, LabelTokenRecord, ConsistencyReport.NodeConsistencyReport>
     {
@@ -0,0 +1,451 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.consistency.checking;
+
+import org.neo4j.consistency.report.ConsistencyReport;
+import org.neo4j.consistency.store.DiffRecordAccess;
+import org.neo4j.consistency.store.RecordAccess;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
+
+class RelationshipGroupRecordCheck
+        implements RecordCheck<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>
+{
+    private final RecordField<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>[] fields;
+
+    @SuppressWarnings("unchecked")
+    RelationshipGroupRecordCheck()
+    {
+        this.fields = new RecordField[]{
+                RelationshipTypeField.RELATIONSHIP_TYPE,
+                OwnerField.OWNING_NODE,
+                GroupField.NEXT,
+                RelationshipField.FIRST_OUT, RelationshipField.FIRST_IN, RelationshipField.FIRST_LOOP};
+    }
+
+    @Override
+    public void check( RelationshipGroupRecord record,
+                       ConsistencyReport.RelationshipGroupConsistencyReport report, RecordAccess records )
+    {
+        if ( !record.inUse() )
+        {
+            return;
+        }
+        for ( RecordField<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> field : fields )
+        {
+            field.checkConsistency( record, report, records );
+        }
+    }
+
+    @Override
+    public void checkChange( RelationshipGroupRecord oldRecord, RelationshipGroupRecord newRecord,
+                             ConsistencyReport.RelationshipGroupConsistencyReport report, DiffRecordAccess records )
+    {
+        check( newRecord, report, records );
+        if ( oldRecord.inUse() )
+        {
+            for ( RecordField<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> field : fields )
+            {
+                field.checkChange( oldRecord, newRecord, report, records );
+            }
+        }
+    }
+
+    private enum RelationshipTypeField implements
+            RecordField<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>,
+            ComparativeRecordChecker<RelationshipGroupRecord, RelationshipTypeTokenRecord,
+                    ConsistencyReport.RelationshipGroupConsistencyReport>
+    {
+        RELATIONSHIP_TYPE;
+
+        @Override
+        public void checkConsistency( RelationshipGroupRecord record,
+                                      ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                      RecordAccess records )
+        {
+            if ( record.getType() < 0 )
+            {
+                report.illegalRelationshipType();
+            }
+            else
+            {
+                report.forReference( records.relationshipType( record.getType() ), this );
+            }
+        }
+
+        @Override
+        public long valueFrom( RelationshipGroupRecord record )
+        {
+            return record.getType();
+        }
+
+        @Override
+        public void checkChange( RelationshipGroupRecord oldRecord, RelationshipGroupRecord newRecord,
+                                 ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                 DiffRecordAccess records )
+        {
+            // nothing to check
+        }
+
+        @Override
+        public void checkReference( RelationshipGroupRecord record, RelationshipTypeTokenRecord referred,
+                                    ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                    RecordAccess records )
+        {
+            if ( !referred.inUse() )
+            {
+                report.relationshipTypeNotInUse( referred );
+            }
+        }
+    }
+
+    private enum OwnerField implements
+            RecordField<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>,
+            ComparativeRecordChecker<RelationshipGroupRecord, NodeRecord,
+                    ConsistencyReport.RelationshipGroupConsistencyReport>
+    {
+        OWNING_NODE;
+
+        @Override
+        public void checkConsistency( RelationshipGroupRecord record,
+                                      ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                      RecordAccess records )
+        {
+            if ( record.getOwningNode() < 0 )
+            {
+                report.illegalOwner();
+            }
+            else
+            {
+                report.forReference( records.node( record.getOwningNode() ), this );
+            }
+        }
+
+        @Override
+        public long valueFrom( RelationshipGroupRecord record )
+        {
+            return record.getOwningNode();
+        }
+
+        @Override
+        public void checkChange( RelationshipGroupRecord oldRecord, RelationshipGroupRecord newRecord,
+                                 ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                 DiffRecordAccess records )
+        {
+            // nothing to check: the owner doesn't change while the group is in use
+        }
+
+        @Override
+        public void checkReference( RelationshipGroupRecord record, NodeRecord owner,
+                                    ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                    RecordAccess records )
+        {
+            if ( !owner.inUse() )
+            {
+                report.ownerNotInUse( owner );
+            }
+            else if ( !owner.isDense() )
+            {
+                report.ownerNotDense( owner );
+            }
+        }
+    }
+
+    private enum GroupField implements
+            RecordField<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>,
+            ComparativeRecordChecker<RelationshipGroupRecord, RelationshipGroupRecord,
+                    ConsistencyReport.RelationshipGroupConsistencyReport>
+    {
+        NEXT;
+
+        @Override
+        public void checkConsistency( RelationshipGroupRecord record,
+                                      ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                      RecordAccess records )
+        {
+            if ( !Record.NO_NEXT_RELATIONSHIP.is( record.getNext() ) )
+            {
+                report.forReference( records.relationshipGroup( record.getNext() ), this );
+            }
+        }
+
+        @Override
+        public long valueFrom( RelationshipGroupRecord record )
+        {
+            return record.getNext();
+        }
+
+        @Override
+        public void checkChange( RelationshipGroupRecord oldRecord, RelationshipGroupRecord newRecord,
+                                 ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                 DiffRecordAccess records )
+        {
+            // nothing to check: groups don't refer back to the previous group in the chain
+        }
+
+        @Override
+        public void checkReference( RelationshipGroupRecord record, RelationshipGroupRecord next,
+                                    ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                    RecordAccess records )
+        {
+            if ( !next.inUse() )
+            {
+                report.nextGroupNotInUse( next );
+            }
+            else
+            {
+                if ( next.getOwningNode() != record.getOwningNode() )
+                {
+                    report.nextHasOtherOwner( next );
+                }
+                if ( next.getType() <= record.getType() )
+                {
+                    report.invalidTypeSortOrder( next );
+                }
+            }
+        }
+    }
+
+    private enum RelationshipField implements
+            RecordField<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>,
+            ComparativeRecordChecker<RelationshipGroupRecord, RelationshipRecord,
+                    ConsistencyReport.RelationshipGroupConsistencyReport>
+    {
+        FIRST_OUT
+        {
+            @Override
+            public long valueFrom( RelationshipGroupRecord record )
+            {
+                return record.getFirstOut();
+            }
+
+            @Override
+            boolean inChainOf( RelationshipRecord relationship, long node )
+            {
+                return relationship.getFirstNode() == node && relationship.getSecondNode() != node;
+            }
+
+            @Override
+            void notInUse( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                           RelationshipRecord relationship )
+            {
+                report.firstOutgoingRelationshipNotInUse( relationship );
+            }
+
+            @Override
+            void otherNode( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                            RelationshipRecord relationship )
+            {
+                report.firstOutgoingRelationshipForOtherNode( relationship );
+            }
+
+            @Override
+            void otherType( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                            RelationshipRecord relationship )
+            {
+                report.firstOutgoingRelationshipOfOtherType( relationship );
+            }
+
+            @Override
+            void notFirstInChain( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                  RelationshipRecord relationship )
+            {
+                report.firstOutgoingRelationshipNotFirstInChain( relationship );
+            }
+
+            @Override
+            void notUpdated( ConsistencyReport.RelationshipGroupConsistencyReport report )
+            {
+                report.firstOutgoingRelationshipNotUpdated();
+            }
+        },
+        FIRST_IN
+        {
+            @Override
+            public long valueFrom( RelationshipGroupRecord record )
+            {
+                return record.getFirstIn();
+            }
+
+            @Override
+            boolean inChainOf( RelationshipRecord relationship, long node )
+            {
+                return relationship.getSecondNode() == node && relationship.getFirstNode() != node;
+            }
+
+            @Override
+            void notInUse( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                           RelationshipRecord relationship )
+            {
+                report.firstIncomingRelationshipNotInUse( relationship );
+            }
+
+            @Override
+            void otherNode( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                            RelationshipRecord relationship )
+            {
+                report.firstIncomingRelationshipForOtherNode( relationship );
+            }
+
+            @Override
+            void otherType( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                            RelationshipRecord relationship )
+            {
+                report.firstIncomingRelationshipOfOtherType( relationship );
+            }
+
+            @Override
+            void notFirstInChain( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                  RelationshipRecord relationship )
+            {
+                report.firstIncomingRelationshipNotFirstInChain( relationship );
+            }
+
+            @Override
+            void notUpdated( ConsistencyReport.RelationshipGroupConsistencyReport report )
+            {
+                report.firstIncomingRelationshipNotUpdated();
+            }
+        },
+        FIRST_LOOP
+        {
+            @Override
+            public long valueFrom( RelationshipGroupRecord record )
+            {
+                return record.getFirstLoop();
+            }
+
+            @Override
+            boolean inChainOf( RelationshipRecord relationship, long node )
+            {
+                return relationship.getFirstNode() == node && relationship.getSecondNode() == node;
+            }
+
+            @Override
+            void notInUse( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                           RelationshipRecord relationship )
+            {
+                report.firstLoopRelationshipNotInUse( relationship );
+            }
+
+            @Override
+            void otherNode( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                            RelationshipRecord relationship )
+            {
+                report.firstLoopRelationshipForOtherNode( relationship );
+            }
+
+            @Override
+            void otherType( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                            RelationshipRecord relationship )
+            {
+                report.firstLoopRelationshipOfOtherType( relationship );
+            }
+
+            @Override
+            void notFirstInChain( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                  RelationshipRecord relationship )
+            {
+                report.firstLoopRelationshipNotFirstInChain( relationship );
+            }
+
+            @Override
+            void notUpdated( ConsistencyReport.RelationshipGroupConsistencyReport report )
+            {
+                report.firstLoopRelationshipNotUpdated();
+            }
+        };
+
+        @Override
+        public void checkConsistency( RelationshipGroupRecord record,
+                                      ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                      RecordAccess records )
+        {
+            if ( !Record.NO_NEXT_RELATIONSHIP.is( valueFrom( record ) ) )
+            {
+                report.forReference( records.relationship( valueFrom( record ) ), this );
+            }
+        }
+
+        @Override
+        public void checkReference( RelationshipGroupRecord record, RelationshipRecord relationship,
+                                    ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                    RecordAccess records )
+        {
+            if ( !relationship.inUse() )
+            {
+                notInUse( report, relationship );
+            }
+            else
+            {
+                if ( relationship.getType() != record.getType() )
+                {
+                    otherType( report, relationship );
+                }
+                if ( !inChainOf( relationship, record.getOwningNode() ) )
+                {
+                    otherNode( report, relationship );
+                }
+                else
+                {
+                    NodeField field = NodeField.select( relationship, record.getOwningNode() );
+                    if ( !Record.NO_PREV_RELATIONSHIP.is( field.prev( relationship ) ) )
+                    {
+                        notFirstInChain( report, relationship );
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void checkChange( RelationshipGroupRecord oldRecord, RelationshipGroupRecord newRecord,
+                                 ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                 DiffRecordAccess records )
+        {
+            if ( !newRecord.inUse() || valueFrom( oldRecord ) != valueFrom( newRecord ) )
+            {
+                if ( !Record.NO_NEXT_RELATIONSHIP.is( valueFrom( oldRecord ) )
+                     && records.changedRelationship( valueFrom( oldRecord ) ) == null )
+                {
+                    notUpdated( report );
+                }
+            }
+        }
+
+        abstract boolean inChainOf( RelationshipRecord relationship, long node );
+
+        abstract void notInUse( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                RelationshipRecord relationship );
+
+        abstract void otherNode( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                 RelationshipRecord relationship );
+
+        abstract void otherType( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                 RelationshipRecord relationship );
+
+        abstract void notFirstInChain( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                       RelationshipRecord relationship );
+
+        abstract void notUpdated( ConsistencyReport.RelationshipGroupConsistencyReport report );
+    }
+}
@@ -49,6 +49,7 @@ import static org.neo4j.consistency.checking.full.MultiPassStore.ARRAYS;
 import static org.neo4j.consistency.checking.full.MultiPassStore.NODES;
 import static org.neo4j.consistency.checking.full.MultiPassStore.PROPERTIES;
 import static org.neo4j.consistency.checking.full.MultiPassStore.RELATIONSHIPS;
+import static org.neo4j.consistency.checking.full.MultiPassStore.RELATIONSHIP_GROUPS;
 import static org.neo4j.consistency.checking.full.MultiPassStore.STRINGS;
 
 public class FullCheck
@@ -99,11 +100,15 @@ public class FullCheck
 
         tasks.add( new StoreProcessorTask<>(
                 store.getNodeStore(), progress, order,
-                processEverything, processorFactory.createAll( PROPERTIES, RELATIONSHIPS ) ) );
+                processEverything, processorFactory.createAll( PROPERTIES, RELATIONSHIPS, RELATIONSHIP_GROUPS ) ) );
 
+        // the groups of dense nodes are not filtered here, they are followed from the node in the node passes
         tasks.add( new StoreProcessorTask<>(
                 store.getRelationshipStore(), progress, order,
                 processEverything, processorFactory.createAll( NODES, PROPERTIES, RELATIONSHIPS ) ) );
+        tasks.add( new StoreProcessorTask<>(
+                store.getRelationshipGroupStore(), progress, order,
+                processEverything, processorFactory.createAll( NODES, RELATIONSHIPS, RELATIONSHIP_GROUPS ) ) );
         tasks.add( new StoreProcessorTask<>(
                 store.getPropertyStore(), progress, order,
                 processEverything, processorFactory.createAll( PROPERTIES, STRINGS, ARRAYS ) ) );
@@ -49,6 +49,15 @@ public enum MultiPassStore
                     return storeAccess.getRelationshipStore();
                 }
 
+            },
+    RELATIONSHIP_GROUPS
+            {
+                @Override
+                RecordStore getRecordStore( StoreAccess storeAccess )
+                {
+                    return storeAccess.getRelationshipGroupStore();
+                }
+
             },
     PROPERTIES
             {
@@ -32,6 +32,7 @@ import org.neo4j.kernel.impl.nioneo.store.NeoStoreRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
@@ -97,6 +98,16 @@ class CheckingTransactionInterceptor implements TransactionInterceptor
         }
     }
 
+    @Override
+    public void visitRelationshipGroup( RelationshipGroupRecord record )
+    {
+        diffs.visitRelationshipGroup( record );
+        if ( next != null )
+        {
+            next.visitRelationshipGroup( record );
+        }
+    }
+
     @Override
     public void visitProperty( PropertyRecord record )
     {
@@ -38,6 +38,7 @@ import org.neo4j.kernel.impl.nioneo.store.PrimitiveRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyBlock;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.SchemaRule;
@@ -77,6 +78,12 @@ public interface ConsistencyReport<RECORD extends AbstractBaseRecord, REPORT ext
         void forRelationshipChange( RelationshipRecord oldRelationship, RelationshipRecord newRelationship,
                                     RecordCheck<RelationshipRecord, RelationshipConsistencyReport> checker );
 
+        void forRelationshipGroup( RelationshipGroupRecord group,
+                                   RecordCheck<RelationshipGroupRecord, RelationshipGroupConsistencyReport> checker );
+
+        void forRelationshipGroupChange( RelationshipGroupRecord oldGroup, RelationshipGroupRecord newGroup,
+                                         RecordCheck<RelationshipGroupRecord, RelationshipGroupConsistencyReport> checker );
+
         void forProperty( PropertyRecord property,
                           RecordCheck<PropertyRecord, PropertyConsistencyReport> checker );
 
@@ -214,6 +221,14 @@ public interface ConsistencyReport<RECORD extends AbstractBaseRecord, REPORT ext
         @Documented
         void relationshipNotFirstInTargetChain( RelationshipRecord relationship );
 
+        /** The referenced relationship group record is not in use. */
+        @Documented
+        void relationshipGroupNotInUse( RelationshipGroupRecord group );
+
+        /** The referenced relationship group record belongs to another node. */
+        @Documented
+        void relationshipGroupHasOtherOwner( RelationshipGroupRecord group );
+
         /** The first relationship record reference has changed, but the previous first relationship record has not been updates. */
         @Documented
         @IncrementalOnly
@@ -271,6 +286,14 @@ public interface ConsistencyReport<RECORD extends AbstractBaseRecord, REPORT ext
         @Documented
         void targetNodeDoesNotReferenceBack( NodeRecord node );
 
+        /** This record should be the first in the source chain, but the relationship group of the dense source node does not reference this record. */
+        @Documented
+        void sourceNodeGroupDoesNotReferenceBack( NodeRecord node );
+
+        /** This record should be the first in the target chain, but the relationship group of the dense target node does not reference this record. */
+        @Documented
+        void targetNodeGroupDoesNotReferenceBack( NodeRecord node );
+
         /** The source node does not have a relationship chain. */
         @Documented
         void sourceNodeHasNoRelationships( NodeRecord source );
@@ -348,6 +371,105 @@ public interface ConsistencyReport<RECORD extends AbstractBaseRecord, REPORT ext
         void targetNodeNotUpdated();
     }
 
+    interface RelationshipGroupConsistencyReport
+            extends ConsistencyReport<RelationshipGroupRecord, RelationshipGroupConsistencyReport>
+    {
+        /** The relationship type field has an illegal value. */
+        @Documented
+        void illegalRelationshipType();
+
+        /** The relationship type record is not in use. */
+        @Documented
+        void relationshipTypeNotInUse( RelationshipTypeTokenRecord relationshipType );
+
+        /** The owning node field has an illegal value. */
+        @Documented
+        void illegalOwner();
+
+        /** The owning node is not in use. */
+        @Documented
+        void ownerNotInUse( NodeRecord owner );
+
+        /** The owning node is not a dense node. */
+        @Documented
+        void ownerNotDense( NodeRecord owner );
+
+        /** The next relationship group record is not in use. */
+        @Documented
+        void nextGroupNotInUse( RelationshipGroupRecord next );
+
+        /** The next relationship group record belongs to another node. */
+        @Documented
+        void nextHasOtherOwner( RelationshipGroupRecord next );
+
+        /** The next relationship group record does not have a higher relationship type than this record. */
+        @Documented
+        void invalidTypeSortOrder( RelationshipGroupRecord next );
+
+        /** The first outgoing relationship record is not in use. */
+        @Documented
+        void firstOutgoingRelationshipNotInUse( RelationshipRecord relationship );
+
+        /** The first incoming relationship record is not in use. */
+        @Documented
+        void firstIncomingRelationshipNotInUse( RelationshipRecord relationship );
+
+        /** The first loop relationship record is not in use. */
+        @Documented
+        void firstLoopRelationshipNotInUse( RelationshipRecord relationship );
+
+        /** The first outgoing relationship record is not an outgoing relationship of the owning node. */
+        @Documented
+        void firstOutgoingRelationshipForOtherNode( RelationshipRecord relationship );
+
+        /** The first incoming relationship record is not an incoming relationship of the owning node. */
+        @Documented
+        void firstIncomingRelationshipForOtherNode( RelationshipRecord relationship );
+
+        /** The first loop relationship record is not a loop on the owning node. */
+        @Documented
+        void firstLoopRelationshipForOtherNode( RelationshipRecord relationship );
+
+        /** The first outgoing relationship record is of another relationship type than this group. */
+        @Documented
+        void firstOutgoingRelationshipOfOtherType( RelationshipRecord relationship );
+
+        /** The first incoming relationship record is of another relationship type than this group. */
+        @Documented
+        void firstIncomingRelationshipOfOtherType( RelationshipRecord relationship );
+
+        /** The first loop relationship record is of another relationship type than this group. */
+        @Documented
+        void firstLoopRelationshipOfOtherType( RelationshipRecord relationship );
+
+        /** The first outgoing relationship record is not the first in its relationship chain. */
+        @Documented
+        void firstOutgoingRelationshipNotFirstInChain( RelationshipRecord relationship );
+
+        /** The first incoming relationship record is not the first in its relationship chain. */
+        @Documented
+        void firstIncomingRelationshipNotFirstInChain( RelationshipRecord relationship );
+
+        /** The first loop relationship record is not the first in its relationship chain. */
+        @Documented
+        void firstLoopRelationshipNotFirstInChain( RelationshipRecord relationship );
+
+        /** The first outgoing relationship reference has changed, but the previously referenced record has not been updated. */
+        @Documented
+        @IncrementalOnly
+        void firstOutgoingRelationshipNotUpdated();
+
+        /** The first incoming relationship reference has changed, but the previously referenced record has not been updated. */
+        @Documented
+        @IncrementalOnly
+        void firstIncomingRelationshipNotUpdated();
+
+        /** The first loop relationship reference has changed, but the previously referenced record has not been updated. */
+        @Documented
+        @IncrementalOnly
+        void firstLoopRelationshipNotUpdated();
+    }
+
     interface PropertyConsistencyReport extends ConsistencyReport<PropertyRecord, PropertyConsistencyReport>
     {
         /** The property key as an invalid value. */
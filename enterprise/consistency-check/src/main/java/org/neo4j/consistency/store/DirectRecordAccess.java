@@ -25,6 +25,7 @@ import org.neo4j.kernel.impl.nioneo.store.NeoStoreRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.StoreAccess;
@@ -56,6 +57,12 @@ public class DirectRecordAccess implements DiffRecordAccess
         return new DirectRecordReference<>( access.getRelationshipStore().forceGetRecord( id ), this );
     }
 
+    @Override
+    public RecordReference<RelationshipGroupRecord> relationshipGroup( long id )
+    {
+        return new DirectRecordReference<>( access.getRelationshipGroupStore().forceGetRecord( id ), this );
+    }
+
     @Override
     public RecordReference<PropertyRecord> property( long id )
     {
@@ -173,6 +173,18 @@ public class ScanResistantWindowPool implements WindowPool,
                 bytesPerRecord * recordsPerPage, acquireCount - mapCount, mapCount, 0, 0, 0, 0, 0 );
     }
 
+    @Override
+    public long getHitCount()
+    {
+        return acquireCount - mapCount;
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        return mapCount;
+    }
+
     @Override
     public PersistenceWindow load( WindowPage page ) throws PageLoadFailureException
     {
@@ -31,6 +31,7 @@ import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PreAllocatedRecords;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.labels.DynamicNodeLabels;
 import org.neo4j.kernel.impl.nioneo.store.labels.InlineNodeLabels;
@@ -106,6 +107,50 @@ public class NodeRecordCheckTest
         verifyOnlyReferenceDispatch( report );
     }
 
+    @Test
+    public void shouldNotReportAnythingForDenseNodeWithConsistentGroup() throws Exception
+    {
+        // given
+        NodeRecord node = inUse( new NodeRecord( 42, true, 7, NONE ) );
+        add( inUse( new RelationshipGroupRecord( 7, 0, NONE, NONE, NONE, NONE, 42 ) ) );
+
+        // when
+        ConsistencyReport.NodeConsistencyReport report = check( node );
+
+        // then
+        verifyOnlyReferenceDispatch( report );
+    }
+
+    @Test
+    public void shouldReportRelationshipGroupNotInUse() throws Exception
+    {
+        // given
+        NodeRecord node = inUse( new NodeRecord( 42, true, 7, NONE ) );
+        RelationshipGroupRecord group = add( notInUse( new RelationshipGroupRecord( 7, 0 ) ) );
+
+        // when
+        ConsistencyReport.NodeConsistencyReport report = check( node );
+
+        // then
+        verify( report ).relationshipGroupNotInUse( group );
+        verifyOnlyReferenceDispatch( report );
+    }
+
+    @Test
+    public void shouldReportRelationshipGroupOfOtherNode() throws Exception
+    {
+        // given
+        NodeRecord node = inUse( new NodeRecord( 42, true, 7, NONE ) );
+        RelationshipGroupRecord group = add( inUse( new RelationshipGroupRecord( 7, 0, NONE, NONE, NONE, NONE, 43 ) ) );
+
+        // when
+        ConsistencyReport.NodeConsistencyReport report = check( node );
+
+        // then
+        verify( report ).relationshipGroupHasOtherOwner( group );
+        verifyOnlyReferenceDispatch( report );
+    }
+
     @Test
     public void shouldReportPropertyNotInUse() throws Exception
     {
@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.consistency.checking;
+
+import org.junit.Test;
+
+import org.neo4j.consistency.report.ConsistencyReport;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
+
+import static org.mockito.Mockito.verify;
+
+public class RelationshipGroupRecordCheckTest extends
+        RecordCheckTestBase<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport,
+                RelationshipGroupRecordCheck>
+{
+    public RelationshipGroupRecordCheckTest()
+    {
+        super( new RelationshipGroupRecordCheck(), ConsistencyReport.RelationshipGroupConsistencyReport.class );
+    }
+
+    @Test
+    public void shouldNotReportAnythingForGroupNotInUse() throws Exception
+    {
+        // given
+        RelationshipGroupRecord group = notInUse( new RelationshipGroupRecord( 42, 4 ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verifyOnlyReferenceDispatch( report );
+    }
+
+    @Test
+    public void shouldNotReportAnythingForGroupWithConsistentReferences() throws Exception
+    {
+        // given
+        RelationshipGroupRecord group = inUse( new RelationshipGroupRecord( 42, 4, 43, 10, 11, 12, 1 ) );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        add( inUse( new NodeRecord( 1, true, 42, NONE ) ) );
+        add( inUse( new RelationshipGroupRecord( 43, 5, NONE, NONE, NONE, NONE, 1 ) ) );
+        add( inUse( new RelationshipRecord( 10, 1, 2, 4 ) ) );
+        add( inUse( new RelationshipRecord( 11, 3, 1, 4 ) ) );
+        add( inUse( new RelationshipRecord( 12, 1, 1, 4 ) ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verifyOnlyReferenceDispatch( report );
+    }
+
+    @Test
+    public void shouldReportOwnerNotDense() throws Exception
+    {
+        // given
+        RelationshipGroupRecord group = inUse( new RelationshipGroupRecord( 42, 4, NONE, NONE, NONE, NONE, 1 ) );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        NodeRecord owner = add( inUse( new NodeRecord( 1, false, NONE, NONE ) ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verify( report ).ownerNotDense( owner );
+        verifyOnlyReferenceDispatch( report );
+    }
+
+    @Test
+    public void shouldReportOwnerNotInUse() throws Exception
+    {
+        // given
+        RelationshipGroupRecord group = inUse( new RelationshipGroupRecord( 42, 4, NONE, NONE, NONE, NONE, 1 ) );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        NodeRecord owner = add( notInUse( new NodeRecord( 1, true, NONE, NONE ) ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verify( report ).ownerNotInUse( owner );
+        verifyOnlyReferenceDispatch( report );
+    }
+
+    @Test
+    public void shouldReportNextGroupWithOtherOwnerOrUnsortedType() throws Exception
+    {
+        // given
+        RelationshipGroupRecord group = inUse( new RelationshipGroupRecord( 42, 4, 43, NONE, NONE, NONE, 1 ) );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        add( inUse( new NodeRecord( 1, true, 42, NONE ) ) );
+        RelationshipGroupRecord next = add( inUse( new RelationshipGroupRecord( 43, 3, NONE, NONE, NONE, NONE, 2 ) ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verify( report ).nextHasOtherOwner( next );
+        verify( report ).invalidTypeSortOrder( next );
+        verifyOnlyReferenceDispatch( report );
+    }
+
+    @Test
+    public void shouldReportNextGroupNotInUse() throws Exception
+    {
+        // given
+        RelationshipGroupRecord group = inUse( new RelationshipGroupRecord( 42, 4, 43, NONE, NONE, NONE, 1 ) );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        add( inUse( new NodeRecord( 1, true, 42, NONE ) ) );
+        RelationshipGroupRecord next = add( notInUse( new RelationshipGroupRecord( 43, 5 ) ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verify( report ).nextGroupNotInUse( next );
+        verifyOnlyReferenceDispatch( report );
+    }
+
+    @Test
+    public void shouldReportFirstRelationshipsOfOtherTypeOrNode() throws Exception
+    {
+        // given
+        RelationshipGroupRecord group = inUse( new RelationshipGroupRecord( 42, 4, NONE, 10, 11, 12, 1 ) );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        add( inUse( new NodeRecord( 1, true, 42, NONE ) ) );
+        RelationshipRecord out = add( inUse( new RelationshipRecord( 10, 1, 2, 5 ) ) );
+        RelationshipRecord in = add( inUse( new RelationshipRecord( 11, 1, 3, 4 ) ) );
+        RelationshipRecord loop = add( inUse( new RelationshipRecord( 12, 1, 2, 4 ) ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verify( report ).firstOutgoingRelationshipOfOtherType( out );
+        verify( report ).firstIncomingRelationshipForOtherNode( in );
+        verify( report ).firstLoopRelationshipForOtherNode( loop );
+        verifyOnlyReferenceDispatch( report );
+    }
+
+    @Test
+    public void shouldReportFirstRelationshipsNotFirstInChainOrNotInUse() throws Exception
+    {
+        // given
+        RelationshipGroupRecord group = inUse( new RelationshipGroupRecord( 42, 4, NONE, 10, 11, NONE, 1 ) );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        add( inUse( new NodeRecord( 1, true, 42, NONE ) ) );
+        RelationshipRecord out = add( inUse( new RelationshipRecord( 10, 1, 2, 4 ) ) );
+        out.setFirstPrevRel( 9 );
+        RelationshipRecord in = add( notInUse( new RelationshipRecord( 11, 3, 1, 4 ) ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verify( report ).firstOutgoingRelationshipNotFirstInChain( out );
+        verify( report ).firstIncomingRelationshipNotInUse( in );
+        verifyOnlyReferenceDispatch( report );
+    }
+
+    // change checking
+
+    @Test
+    public void shouldReportReplacedFirstRelationshipNotUpdated() throws Exception
+    {
+        // given
+        RelationshipGroupRecord oldGroup = inUse( new RelationshipGroupRecord( 42, 4, NONE, 10, NONE, NONE, 1 ) );
+        RelationshipGroupRecord newGroup = inUse( new RelationshipGroupRecord( 42, 4, NONE, 20, NONE, NONE, 1 ) );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        add( inUse( new NodeRecord( 1, true, 42, NONE ) ) );
+        add( inUse( new RelationshipRecord( 10, 1, 2, 4 ) ) );
+        add( inUse( new RelationshipRecord( 20, 1, 3, 4 ) ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = checkChange( oldGroup, newGroup );
+
+        // then
+        verify( report ).firstOutgoingRelationshipNotUpdated();
+        verifyOnlyReferenceDispatch( report );
+    }
+}
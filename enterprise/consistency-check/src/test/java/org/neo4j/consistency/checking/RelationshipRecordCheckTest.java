@@ -24,6 +24,7 @@ import org.junit.Test;
 import org.neo4j.consistency.report.ConsistencyReport;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 
@@ -250,6 +251,45 @@ public class RelationshipRecordCheckTest extends
         verifyOnlyReferenceDispatch( report );
     }
 
+    @Test
+    public void shouldNotReportAnythingForFirstRelationshipInGroupChainsOfDenseNodes() throws Exception
+    {
+        // given
+        RelationshipRecord relationship = inUse( new RelationshipRecord( 42, 1, 2, 4 ) );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        add( inUse( new NodeRecord( 1, true, 10, NONE ) ) );
+        add( inUse( new NodeRecord( 2, true, 20, NONE ) ) );
+        add( inUse( new RelationshipGroupRecord( 10, 3, 11, NONE, NONE, NONE, 1 ) ) );
+        add( inUse( new RelationshipGroupRecord( 11, 4, NONE, 42, NONE, NONE, 1 ) ) );
+        add( inUse( new RelationshipGroupRecord( 20, 4, NONE, NONE, 42, NONE, 2 ) ) );
+
+        // when
+        ConsistencyReport.RelationshipConsistencyReport report = check( relationship );
+
+        // then
+        verifyOnlyReferenceDispatch( report );
+    }
+
+    @Test
+    public void shouldReportDenseNodesWithoutGroupReferencingBackForFirstRelationshipInChains() throws Exception
+    {
+        // given
+        RelationshipRecord relationship = inUse( new RelationshipRecord( 42, 1, 2, 4 ) );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        NodeRecord source = add( inUse( new NodeRecord( 1, true, 10, NONE ) ) );
+        NodeRecord target = add( inUse( new NodeRecord( 2, true, 20, NONE ) ) );
+        add( inUse( new RelationshipGroupRecord( 10, 5, NONE, 42, NONE, NONE, 1 ) ) );
+        add( inUse( new RelationshipGroupRecord( 20, 4, NONE, 42, 7, NONE, 2 ) ) );
+
+        // when
+        ConsistencyReport.RelationshipConsistencyReport report = check( relationship );
+
+        // then
+        verify( report ).sourceNodeGroupDoesNotReferenceBack( source );
+        verify( report ).targetNodeGroupDoesNotReferenceBack( target );
+        verifyOnlyReferenceDispatch( report );
+    }
+
     @Test
     public void shouldReportTargetNodeNotReferencingBackForFirstRelationshipInTargetChain() throws Exception
     {
@@ -55,6 +55,7 @@ import org.neo4j.kernel.impl.nioneo.store.NeoStoreRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.StoreAccess;
@@ -254,6 +255,14 @@ public class ExecutionOrderIntegrationTest
             return logging( checker );
         }
 
+        @Override
+        public RecordCheck<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>
+        decorateRelationshipGroupChecker(
+                RecordCheck<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> checker )
+        {
+            return logging( checker );
+        }
+
         @Override
         public RecordCheck<PropertyRecord, ConsistencyReport.PropertyConsistencyReport> decoratePropertyChecker(
                 RecordCheck<PropertyRecord, ConsistencyReport.PropertyConsistencyReport> checker )
@@ -448,6 +457,12 @@ public class ExecutionOrderIntegrationTest
             return logging( access.relationship( id ) );
         }
 
+        @Override
+        public RecordReference<RelationshipGroupRecord> relationshipGroup( long id )
+        {
+            return logging( access.relationshipGroup( id ) );
+        }
+
         @Override
         public RecordReference<PropertyRecord> property( long id )
         {